@@ -3,6 +3,7 @@ package com.elastisys.autoscaler.core.alerter.api.types;
 import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
 import com.elastisys.autoscaler.core.metronome.api.Metronome;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
 import com.elastisys.autoscaler.core.monitoring.streammonitor.MetricStreamMonitor;
 import com.elastisys.autoscaler.core.prediction.api.PredictionSubsystem;
 
@@ -18,6 +19,12 @@ public enum AlertTopics {
      * experiencing problems in performing predictions.
      */
     PREDICTION_FAILURE("/predictionSubsystem/prediction/FAILURE"),
+    /**
+     * Alert message topic indicating that a predictor of the
+     * {@link PredictionSubsystem} did not produce its prediction in time, and
+     * was left out of the aggregate prediction.
+     */
+    PREDICTOR_DEADLINE_MISSED("/predictionSubsystem/predictor/DEADLINE_MISSED"),
     /**
      * Alert message topic indicating that the {@link Metronome} is experiencing
      * problems.
@@ -37,6 +44,12 @@ public enum AlertTopics {
      * new information on the stream activity for a {@link MetricStream}.
      */
     STREAM_ACTIVITY_UPDATE("/metricStreamMonitor/streamActivity/UPDATE"),
+    /**
+     * Alert message topic indicating that the {@link MetricStreamMonitor} has
+     * observed a change in the health of a {@link MetricStreamer} (for example,
+     * due to its backend becoming unavailable).
+     */
+    STREAMER_HEALTH_UPDATE("/metricStreamMonitor/streamerHealth/UPDATE"),
     /**
      * Alert message topic indicating that the {@link AccountingSubsystem}
      * failed to authenticate with the configured account credentials.
@@ -31,6 +31,7 @@ import com.elastisys.autoscaler.core.api.types.ServiceStatus;
 import com.elastisys.autoscaler.core.api.types.ServiceStatus.Health;
 import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
 import com.elastisys.autoscaler.core.autoscaler.builder.AutoScalerBuilder;
+import com.elastisys.autoscaler.core.autoscaler.eventbus.RestartableEventBus;
 import com.elastisys.autoscaler.core.autoscaler.factory.AutoScalerBlueprint;
 import com.elastisys.autoscaler.core.autoscaler.factory.AutoScalerFactory;
 import com.elastisys.autoscaler.core.cloudpool.api.CloudPoolProxy;
@@ -38,6 +39,7 @@ import com.elastisys.autoscaler.core.metronome.api.Metronome;
 import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
 import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetricEvent;
 import com.elastisys.autoscaler.core.prediction.api.PredictionSubsystem;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
 import com.elastisys.scale.commons.eventbus.EventBus;
 import com.elastisys.scale.commons.eventbus.Subscriber;
 import com.elastisys.scale.commons.json.JsonUtils;
@@ -124,6 +126,12 @@ public class AutoScaler implements Service<JsonObject> {
 
     private final File storageDir;
 
+    /**
+     * The {@link CompiledScriptCache} that subsystems compile scripts through.
+     * May be shared with other {@link AutoScaler} instances.
+     */
+    private final CompiledScriptCache scriptCache;
+
     /**
      * <code>true</code> if this {@link AutoScaler} instance has been
      * configured.
@@ -134,7 +142,8 @@ public class AutoScaler implements Service<JsonObject> {
     private AutoScaler(@Named("Uuid") UUID uuid, @Named("AutoScalerId") String id, @Named("StorageDir") File storageDir,
             Logger logger, EventBus bus, RestartableScheduledExecutorService executorService,
             MonitoringSubsystem monitoringSubsystem, Alerter alerter, Metronome metronome, CloudPoolProxy cloudPool,
-            PredictionSubsystem predictionSubsystem, Map<String, Service> addonSubsystems) {
+            PredictionSubsystem predictionSubsystem, Map<String, Service> addonSubsystems,
+            CompiledScriptCache scriptCache) {
         this.uuid = uuid;
         this.id = id;
         this.logger = logger;
@@ -150,6 +159,7 @@ public class AutoScaler implements Service<JsonObject> {
         this.addonSubsystems = addonSubsystems;
 
         this.storageDir = storageDir;
+        this.scriptCache = scriptCache;
 
         this.configured = new AtomicBoolean(false);
     }
@@ -310,6 +320,9 @@ public class AutoScaler implements Service<JsonObject> {
         this.logger.info("starting autoscaler {} ...", this.id);
 
         this.executorService.start();
+        if (this.bus instanceof RestartableEventBus) {
+            ((RestartableEventBus) this.bus).start();
+        }
 
         this.monitoringSubsystem.start();
         this.alerter.start();
@@ -343,6 +356,9 @@ public class AutoScaler implements Service<JsonObject> {
             this.logger.warn(
                     "Stopping of AutoScaler was interrupted " + "while waiting for spawned sub-tasks to complete.");
         }
+        if (this.bus instanceof RestartableEventBus) {
+            ((RestartableEventBus) this.bus).stop();
+        }
     }
 
     @Override
@@ -472,6 +488,16 @@ public class AutoScaler implements Service<JsonObject> {
         return this.storageDir;
     }
 
+    /**
+     * Returns the {@link CompiledScriptCache} that the subsystems of this
+     * {@link AutoScaler} compile scripts through.
+     *
+     * @return
+     */
+    public CompiledScriptCache getScriptCache() {
+        return this.scriptCache;
+    }
+
     /**
      * Called whenever an {@link AutoScalerEvent} has been received on the
      * {@link AutoScaler}'s {@link EventBus}.
@@ -5,6 +5,7 @@ import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgume
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -13,6 +14,8 @@ import com.elastisys.autoscaler.core.alerter.api.Alerter;
 import com.elastisys.autoscaler.core.alerter.impl.standard.StandardAlerter;
 import com.elastisys.autoscaler.core.api.Service;
 import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.autoscaler.core.autoscaler.eventbus.EventBusType;
+import com.elastisys.autoscaler.core.autoscaler.eventbus.RingBufferEventBus;
 import com.elastisys.autoscaler.core.autoscaler.factory.AutoScalerFactory;
 import com.elastisys.autoscaler.core.cloudpool.api.CloudPoolProxy;
 import com.elastisys.autoscaler.core.cloudpool.impl.StandardCloudPoolProxy;
@@ -22,6 +25,8 @@ import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
 import com.elastisys.autoscaler.core.monitoring.impl.standard.StandardMonitoringSubsystem;
 import com.elastisys.autoscaler.core.prediction.api.PredictionSubsystem;
 import com.elastisys.autoscaler.core.prediction.impl.standard.StandardPredictionSubsystem;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
+import com.elastisys.scale.commons.eventbus.EventBus;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.util.file.FileUtils;
 import com.google.inject.Guice;
@@ -71,9 +76,18 @@ public class AutoScalerBuilder {
      * will persist instance state.
      */
     private File storageDir;
+    /** The type of {@link EventBus} to use for the {@link AutoScaler}. */
+    private EventBusType eventBusType;
+    /**
+     * The {@link CompiledScriptCache} that the {@link AutoScaler} compiles
+     * scripts through. May be shared between {@link AutoScaler} instances.
+     * Unless set, each built {@link AutoScaler} gets a cache of its own.
+     */
+    private transient CompiledScriptCache scriptCache;
 
     public AutoScalerBuilder() {
         this.addonSubsystems = new HashMap<>();
+        this.eventBusType = Defaults.EVENT_BUS_TYPE;
     }
 
     /**
@@ -106,7 +120,10 @@ public class AutoScalerBuilder {
                 .withCloudPoolProxy(source.getCloudPoolProxy().getClass())
                 .withMonitoringSubsystem(source.getMonitoringSubsystem().getClass())
                 .withMetronome(source.getMetronome().getClass())
-                .withPredictionSubsystem(source.getPredictionSubsystem().getClass());
+                .withPredictionSubsystem(source.getPredictionSubsystem().getClass())
+                .withEventBusType(source.getBus() instanceof RingBufferEventBus ? EventBusType.RING_BUFFER
+                        : EventBusType.ASYNCHRONOUS)
+                .withScriptCache(source.getScriptCache());
 
         // copy any add-on subsystems
         Map<String, Service> addons = source.getAddonSubsystems();
@@ -363,6 +380,34 @@ public class AutoScalerBuilder {
         return this;
     }
 
+    /**
+     * Sets the type of {@link EventBus} to use for the {@link AutoScaler}
+     * instance being built. Default: {@link Defaults#EVENT_BUS_TYPE}.
+     *
+     * @param eventBusType
+     * @return
+     */
+    public AutoScalerBuilder withEventBusType(EventBusType eventBusType) {
+        checkArgument(eventBusType != null, "eventBusType cannot be null");
+        this.eventBusType = eventBusType;
+        return this;
+    }
+
+    /**
+     * Sets the {@link CompiledScriptCache} that the {@link AutoScaler} instance
+     * being built compiles scripts through. Passing the same cache to several
+     * builders lets the built instances share compiled scripts. Default: a
+     * separate cache for each built instance.
+     *
+     * @param scriptCache
+     * @return
+     */
+    public AutoScalerBuilder withScriptCache(CompiledScriptCache scriptCache) {
+        checkArgument(scriptCache != null, "scriptCache cannot be null");
+        this.scriptCache = scriptCache;
+        return this;
+    }
+
     public UUID getUuid() {
         return this.uuid;
     }
@@ -413,6 +458,21 @@ public class AutoScalerBuilder {
         return this.storageDir;
     }
 
+    public EventBusType getEventBusType() {
+        return this.eventBusType;
+    }
+
+    /**
+     * Returns the {@link CompiledScriptCache} that the {@link AutoScaler}
+     * instance being built compiles scripts through. Unless one has been set,
+     * a new cache is returned.
+     *
+     * @return
+     */
+    public CompiledScriptCache getScriptCache() {
+        return Optional.ofNullable(this.scriptCache).orElseGet(CompiledScriptCache::new);
+    }
+
     @Override
     public String toString() {
         return JsonUtils.toPrettyString(JsonUtils.toJson(this));
@@ -454,6 +514,7 @@ public class AutoScalerBuilder {
         public static final Class<? extends PredictionSubsystem<?>> PREDICTION_SUBSYSTEM = StandardPredictionSubsystem.class;
         public static final Class<? extends CloudPoolProxy<?>> CLOUD_POOL_PROXY = StandardCloudPoolProxy.class;
         public static File STORAGE_DIR = FileUtils.cwd();
+        public static final EventBusType EVENT_BUS_TYPE = EventBusType.ASYNCHRONOUS;
     }
 
 }
\ No newline at end of file
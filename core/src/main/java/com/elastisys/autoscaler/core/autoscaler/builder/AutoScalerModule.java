@@ -7,6 +7,7 @@ import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
 
@@ -18,12 +19,20 @@ import org.slf4j.MDC;
 import com.elastisys.autoscaler.core.alerter.api.Alerter;
 import com.elastisys.autoscaler.core.api.Service;
 import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.autoscaler.core.autoscaler.eventbus.EventBusType;
+import com.elastisys.autoscaler.core.autoscaler.eventbus.RingBufferEventBus;
+import com.elastisys.autoscaler.core.autoscaler.eventbus.WaitStrategy;
 import com.elastisys.autoscaler.core.cloudpool.api.CloudPoolProxy;
 import com.elastisys.autoscaler.core.metronome.api.Metronome;
 import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetricEvent;
 import com.elastisys.autoscaler.core.prediction.api.PredictionSubsystem;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
 import com.elastisys.scale.commons.eventbus.EventBus;
 import com.elastisys.scale.commons.eventbus.impl.AsynchronousEventBus;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.net.alerter.Alert;
 import com.elastisys.scale.commons.util.concurrent.RestartableScheduledExecutorService;
 import com.elastisys.scale.commons.util.concurrent.StandardRestartableScheduledExecutorService;
 import com.google.inject.AbstractModule;
@@ -63,6 +72,11 @@ class AutoScalerModule extends AbstractModule {
      * {@link EventBus}.
      */
     private static final int MAX_THREAD_POOL_SIZE = 15;
+    /**
+     * Interval at which a {@link RingBufferEventBus} reports its queue depths
+     * as system metrics.
+     */
+    private static final TimeInterval EVENT_BUS_METRIC_REPORT_INTERVAL = new TimeInterval(30L, TimeUnit.SECONDS);
     private final AutoScalerBuilder builder;
 
     /**
@@ -86,10 +100,12 @@ class AutoScalerModule extends AbstractModule {
 
         // hardwired components for the AutoScaler instance
         RestartableScheduledExecutorService executorService = executorService();
-        bind(EventBus.class).toInstance(new AsynchronousEventBus(executorService, logger));
+        bind(EventBus.class).toInstance(eventBus(executorService, logger));
         bind(RestartableScheduledExecutorService.class).toInstance(executorService);
         bind(ScheduledExecutorService.class).toInstance(executorService);
         bind(ExecutorService.class).toInstance(executorService);
+        // script cache, which may be shared with other AutoScaler instances
+        bind(CompiledScriptCache.class).toInstance(this.builder.getScriptCache());
 
         // core subsystems (Services) of the AutoScaler instance
         bind(MonitoringSubsystem.class).to(this.builder.getMonitoringSubsystem()).in(Singleton.class);
@@ -149,6 +165,38 @@ class AutoScalerModule extends AbstractModule {
         return executorService;
     }
 
+    /**
+     * Returns the {@link EventBus} to be used by the {@link AutoScaler}
+     * instance, as selected by the {@link AutoScalerBuilder}.
+     * <p/>
+     * An {@link AsynchronousEventBus} runs subscribers on the shared executor
+     * service. A {@link RingBufferEventBus} instead gets dedicated (daemon)
+     * consumer threads, with separate lanes for metric stream values, system
+     * metrics and alerts. The returned {@link EventBus} will be in a started
+     * state.
+     *
+     * @param executorService
+     * @param logger
+     * @return
+     */
+    private EventBus eventBus(RestartableScheduledExecutorService executorService, Logger logger) {
+        if (this.builder.getEventBusType() == EventBusType.ASYNCHRONOUS) {
+            return new AsynchronousEventBus(executorService, logger);
+        }
+
+        String autoScalerId = this.builder.getId();
+        ThreadFactory threadFactory = new BasicThreadFactory.Builder().namingPattern(autoScalerId + "-eventbus-%d")
+                .daemon(true).wrappedFactory(new LogContextInjectingThreadFactory(autoScalerId)).build();
+        RingBufferEventBus eventBus = RingBufferEventBus.newBuilder(logger, threadFactory)
+                .withLane("metricstream", MetricStreamMessage.class, WaitStrategy.BLOCKING)
+                .withLane("systemmetric", SystemMetricEvent.class, WaitStrategy.SLEEPING)
+                .withLane("alert", Alert.class, WaitStrategy.BLOCKING)
+                .withDefaultWaitStrategy(WaitStrategy.YIELDING)
+                .withMetricReportInterval(EVENT_BUS_METRIC_REPORT_INTERVAL).build();
+        eventBus.start();
+        return eventBus;
+    }
+
     /**
      * A {@link ThreadFactory} that injects a logging context particular to the
      * {@link AutoScaler} instance being built into all {@link Thread}s it
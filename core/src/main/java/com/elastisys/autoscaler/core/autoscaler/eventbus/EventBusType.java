@@ -0,0 +1,25 @@
+package com.elastisys.autoscaler.core.autoscaler.eventbus;
+
+import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.eventbus.impl.AsynchronousEventBus;
+
+/**
+ * The {@link EventBus} implementations that can be used by an
+ * {@link AutoScaler} instance.
+ */
+public enum EventBusType {
+    /**
+     * An {@link AsynchronousEventBus} that dispatches every event to every
+     * subscriber as a separate task on the {@link AutoScaler}'s shared thread
+     * pool.
+     */
+    ASYNCHRONOUS,
+    /**
+     * A {@link RingBufferEventBus}, which queues events in preallocated ring
+     * buffers that are drained in batches by dedicated consumer threads. This
+     * keeps event dispatching from competing with other tasks (such as metric
+     * fetches) for the {@link AutoScaler}'s shared thread pool.
+     */
+    RING_BUFFER;
+}
@@ -0,0 +1,225 @@
+package com.elastisys.autoscaler.core.autoscaler.eventbus;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+
+/**
+ * A {@link RingBufferEventBus} lane, consisting of a {@link RingBuffer} for a
+ * certain type of events and a consumer thread that drains the ring buffer in
+ * batches and dispatches the events to subscribers.
+ * <p/>
+ * Events within a lane are delivered in the order they were posted.
+ */
+class Lane {
+    private final Logger logger;
+    /** The name of this lane. Used in thread names and metric tags. */
+    private final String name;
+    /** The (super) type of events that are queued in this lane. */
+    private final Class<?> eventType;
+    /** Determines how the consumer waits for events. */
+    private final WaitStrategy waitStrategy;
+    /** Queued events. */
+    private final RingBuffer ringBuffer;
+    /** Preallocated array that the consumer drains batches into. */
+    private final Object[] batch;
+    /** Delivers an event to its subscribers. */
+    private final Consumer<Object> dispatcher;
+    /** Called by the consumer thread on every loop iteration. */
+    private final Runnable housekeeping;
+
+    /** The current consumer thread. <code>null</code> when stopped. */
+    private volatile Thread consumerThread;
+    /** <code>true</code> while the consumer thread should keep running. */
+    private volatile boolean running = false;
+    /** <code>true</code> while the consumer waits to be signalled. */
+    private volatile boolean awaitingSignal = false;
+
+    /** The number of events delivered by this lane. */
+    private final AtomicLong delivered = new AtomicLong(0);
+    /** The number of events that could not be queued in this lane. */
+    private final AtomicLong dropped = new AtomicLong(0);
+    /** The highest queue depth observed in this lane. */
+    private volatile int maxDepth = 0;
+
+    public Lane(Logger logger, String name, Class<?> eventType, WaitStrategy waitStrategy, int capacity,
+            int batchSize, Consumer<Object> dispatcher, Runnable housekeeping) {
+        this.logger = logger;
+        this.name = name;
+        this.eventType = eventType;
+        this.waitStrategy = waitStrategy;
+        this.ringBuffer = new RingBuffer(capacity);
+        this.batch = new Object[batchSize];
+        this.dispatcher = dispatcher;
+        this.housekeeping = housekeeping;
+    }
+
+    /**
+     * Starts a consumer thread for this lane.
+     *
+     * @param threadFactory
+     *            Creates the consumer thread.
+     */
+    public synchronized void start(ThreadFactory threadFactory) {
+        if (this.running) {
+            return;
+        }
+        this.running = true;
+        Thread thread = threadFactory.newThread(this::consume);
+        this.consumerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the consumer thread of this lane, after it has delivered the events
+     * that are currently queued.
+     *
+     * @param timeout
+     *            The maximum time (in milliseconds) to wait for the consumer
+     *            thread to finish.
+     */
+    public synchronized void stop(long timeout) {
+        if (!this.running) {
+            return;
+        }
+        this.running = false;
+        Thread thread = this.consumerThread;
+        LockSupport.unpark(thread);
+        if (thread == Thread.currentThread()) {
+            // stopped from within a subscriber: the loop exits on its own
+            this.consumerThread = null;
+            return;
+        }
+        try {
+            thread.join(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            this.logger.warn("event bus lane {} did not stop within {} ms", this.name, timeout);
+        }
+        this.consumerThread = null;
+    }
+
+    /**
+     * Attempts to queue an event in this lane. Returns immediately.
+     *
+     * @param event
+     * @return <code>true</code> if the event was queued, <code>false</code> if
+     *         the lane is full.
+     */
+    public boolean offer(Object event) {
+        if (!this.ringBuffer.offer(event)) {
+            return false;
+        }
+        if (this.awaitingSignal) {
+            LockSupport.unpark(this.consumerThread);
+        }
+        return true;
+    }
+
+    /**
+     * Parks the consumer thread until a new event is published, the lane is
+     * stopped, or the given time has passed. Must only be called by the
+     * consumer thread.
+     *
+     * @param maxNanos
+     */
+    void awaitSignal(long maxNanos) {
+        this.awaitingSignal = true;
+        try {
+            // re-check after announcing that we wait, in case an event was
+            // published in between
+            if (this.running && this.ringBuffer.isEmpty()) {
+                LockSupport.parkNanos(this, maxNanos);
+            }
+        } finally {
+            this.awaitingSignal = false;
+        }
+    }
+
+    /**
+     * The consumer loop. Runs until the lane is stopped and all queued events
+     * have been delivered.
+     */
+    private void consume() {
+        int idleRounds = 0;
+        while (this.running || !this.ringBuffer.isEmpty()) {
+            this.housekeeping.run();
+
+            int depth = this.ringBuffer.size();
+            if (depth > this.maxDepth) {
+                this.maxDepth = depth;
+            }
+            int batchSize = this.ringBuffer.drainTo(this.batch);
+            if (batchSize == 0) {
+                this.waitStrategy.idle(this, ++idleRounds);
+                continue;
+            }
+            idleRounds = 0;
+            for (int i = 0; i < batchSize; i++) {
+                Object event = this.batch[i];
+                this.batch[i] = null;
+                this.dispatcher.accept(event);
+            }
+            this.delivered.addAndGet(batchSize);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the calling thread is this lane's consumer.
+     *
+     * @return
+     */
+    public boolean isConsumerThread() {
+        return Thread.currentThread() == this.consumerThread;
+    }
+
+    /**
+     * Returns <code>true</code> if this lane queues events of the given type.
+     *
+     * @param type
+     * @return
+     */
+    public boolean accepts(Class<?> type) {
+        return this.eventType.isAssignableFrom(type);
+    }
+
+    /**
+     * Records an event that could not be queued in this lane.
+     */
+    public void markDropped() {
+        this.dropped.incrementAndGet();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Class<?> getEventType() {
+        return this.eventType;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return this.waitStrategy;
+    }
+
+    /**
+     * Returns a snapshot of this lane's queue statistics.
+     *
+     * @return
+     */
+    public LaneStatistics getStatistics() {
+        return new LaneStatistics(this.name, this.ringBuffer.size(), this.maxDepth, this.ringBuffer.capacity(),
+                this.delivered.get(), this.dropped.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s, %s, capacity: %d]", this.name, this.eventType.getSimpleName(), this.waitStrategy,
+                this.ringBuffer.capacity());
+    }
+}
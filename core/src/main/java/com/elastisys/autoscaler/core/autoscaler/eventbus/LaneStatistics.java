@@ -0,0 +1,81 @@
+package com.elastisys.autoscaler.core.autoscaler.eventbus;
+
+import java.util.Objects;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+
+/**
+ * A snapshot of the queue statistics of a {@link RingBufferEventBus} lane.
+ *
+ * @see RingBufferEventBus#getStatistics()
+ */
+public class LaneStatistics {
+    /** The name of the lane. */
+    private final String lane;
+    /** The number of events currently queued in the lane. */
+    private final int queueDepth;
+    /** The highest number of queued events observed in the lane. */
+    private final int maxQueueDepth;
+    /** The maximum number of events that the lane can hold. */
+    private final int capacity;
+    /** The number of events that have been delivered by the lane. */
+    private final long delivered;
+    /** The number of events that were dropped since the lane was full. */
+    private final long dropped;
+
+    public LaneStatistics(String lane, int queueDepth, int maxQueueDepth, int capacity, long delivered,
+            long dropped) {
+        this.lane = lane;
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.capacity = capacity;
+        this.delivered = delivered;
+        this.dropped = dropped;
+    }
+
+    public String getLane() {
+        return this.lane;
+    }
+
+    public int getQueueDepth() {
+        return this.queueDepth;
+    }
+
+    public int getMaxQueueDepth() {
+        return this.maxQueueDepth;
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public long getDelivered() {
+        return this.delivered;
+    }
+
+    public long getDropped() {
+        return this.dropped;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.lane, this.queueDepth, this.maxQueueDepth, this.capacity, this.delivered,
+                this.dropped);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof LaneStatistics) {
+            LaneStatistics that = (LaneStatistics) obj;
+            return Objects.equals(this.lane, that.lane) && this.queueDepth == that.queueDepth
+                    && this.maxQueueDepth == that.maxQueueDepth && this.capacity == that.capacity
+                    && this.delivered == that.delivered && this.dropped == that.dropped;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -0,0 +1,29 @@
+package com.elastisys.autoscaler.core.autoscaler.eventbus;
+
+import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.scale.commons.eventbus.EventBus;
+
+/**
+ * An {@link EventBus} that owns threads of its own and therefore needs to be
+ * started and stopped together with the {@link AutoScaler} that it serves.
+ */
+public interface RestartableEventBus extends EventBus {
+
+    /**
+     * Starts the {@link EventBus}. Has no effect if already started.
+     */
+    void start();
+
+    /**
+     * Stops the {@link EventBus}, giving already queued events a chance to be
+     * delivered. Has no effect if already stopped.
+     */
+    void stop();
+
+    /**
+     * Returns <code>true</code> if the {@link EventBus} is started.
+     *
+     * @return
+     */
+    boolean isStarted();
+}
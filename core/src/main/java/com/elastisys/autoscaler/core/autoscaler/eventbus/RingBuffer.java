@@ -0,0 +1,140 @@
+package com.elastisys.autoscaler.core.autoscaler.eventbus;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, preallocated ring buffer that can be written to by any number of
+ * producer threads and is read by a single consumer thread.
+ * <p/>
+ * Producers claim a slot by advancing a shared producer sequence and then
+ * publish their element into the claimed slot. The consumer reads published
+ * slots in sequence order, and stops at the first slot that has been claimed
+ * but not yet published. Consumed slots are released in batches, which keeps
+ * the number of cross-thread writes per element low.
+ */
+class RingBuffer {
+
+    /** The preallocated slots. A <code>null</code> slot is unpublished. */
+    private final AtomicReferenceArray<Object> slots;
+    /** Bit mask used to map a sequence number onto a slot index. */
+    private final int mask;
+    /** The number of slots in this ring buffer. */
+    private final int capacity;
+
+    /** The sequence number of the next slot to be claimed by a producer. */
+    private final AtomicLong producerSequence = new AtomicLong(0);
+    /**
+     * The sequence number of the next slot to be read by the consumer. Only
+     * ever written by the consumer thread.
+     */
+    private volatile long consumerSequence = 0;
+
+    /**
+     * Creates a {@link RingBuffer} with at least the given capacity. The
+     * capacity is rounded up to the nearest power of two.
+     *
+     * @param requestedCapacity
+     *            The minimum number of elements the buffer must be able to
+     *            hold.
+     */
+    public RingBuffer(int requestedCapacity) {
+        checkArgument(requestedCapacity > 0, "ring buffer capacity must be positive");
+        checkArgument(requestedCapacity <= 1 << 30, "ring buffer capacity too large");
+        this.capacity = roundUpToPowerOfTwo(requestedCapacity);
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    /**
+     * Attempts to add an element to the ring buffer. Returns immediately.
+     *
+     * @param element
+     *            The element to add.
+     * @return <code>true</code> if the element was added, <code>false</code>
+     *         if the ring buffer is full.
+     */
+    public boolean offer(Object element) {
+        while (true) {
+            long sequence = this.producerSequence.get();
+            if (sequence - this.consumerSequence >= this.capacity) {
+                return false;
+            }
+            if (this.producerSequence.compareAndSet(sequence, sequence + 1)) {
+                // note: a volatile write, which orders the publication before a
+                // subsequent check for an idle consumer that needs signalling
+                this.slots.set(index(sequence), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code batch.length} published elements from the ring buffer
+     * to the given batch array, in the order they were claimed. Must only be
+     * called by the consumer thread.
+     *
+     * @param batch
+     *            The array to copy elements into, starting at index 0.
+     * @return The number of elements copied to the batch.
+     */
+    public int drainTo(Object[] batch) {
+        long sequence = this.consumerSequence;
+        int count = 0;
+        while (count < batch.length) {
+            int index = index(sequence + count);
+            Object element = this.slots.get(index);
+            if (element == null) {
+                break;
+            }
+            batch[count++] = element;
+            this.slots.lazySet(index, null);
+        }
+        if (count > 0) {
+            // release the consumed slots to producers in one go
+            this.consumerSequence = sequence + count;
+        }
+        return count;
+    }
+
+    /**
+     * Returns <code>true</code> if there is no published element for the
+     * consumer to read.
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return this.slots.get(index(this.consumerSequence)) == null;
+    }
+
+    /**
+     * Returns the (approximate) number of elements currently held by the ring
+     * buffer, including slots that have been claimed but not yet published.
+     *
+     * @return
+     */
+    public int size() {
+        long size = this.producerSequence.get() - this.consumerSequence;
+        return (int) Math.max(0, Math.min(size, this.capacity));
+    }
+
+    /**
+     * Returns the number of slots in this ring buffer.
+     *
+     * @return
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & this.mask);
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        int highestBit = Integer.highestOneBit(value);
+        return highestBit == value ? value : highestBit << 1;
+    }
+}
@@ -0,0 +1,474 @@
+package com.elastisys.autoscaler.core.autoscaler.eventbus;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetric;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetricEvent;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.eventbus.Subscriber;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.collection.Maps;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * An {@link EventBus} that queues posted events in preallocated ring buffers,
+ * which are drained in batches by dedicated consumer threads.
+ * <p/>
+ * Events are routed to <i>lanes</i> by type. Each lane has its own ring
+ * buffer, consumer thread and {@link WaitStrategy}, which allows, for example,
+ * high-volume {@link SystemMetricEvent}s to be handled separately from
+ * latency-sensitive events. Events that do not match the type of any
+ * configured lane go to a default lane. Events within a lane are delivered in
+ * posting order, but there are no ordering guarantees across lanes.
+ * <p/>
+ * Subscribers are registered in per-type subscriber lists (keyed by the
+ * parameter type of their {@link Subscriber} methods), so dispatching an event
+ * only visits the subscribers that accept it.
+ * <p/>
+ * Since posting never submits tasks to a shared thread pool, event throughput
+ * does not compete with other work, such as metric fetches. When a lane is
+ * full, the posting thread backs off for up to a configurable offer timeout,
+ * after which the event is dropped (and counted). Events posted by a lane's own
+ * consumer thread to a full lane are dispatched directly, to avoid
+ * self-deadlock. While the {@link RingBufferEventBus} is stopped, events are
+ * dispatched synchronously on the posting thread.
+ * <p/>
+ * Queue statistics are available via {@link #getStatistics()} and are, when a
+ * metric report interval is set, periodically posted on the bus itself as
+ * {@link SystemMetric#EVENTBUS_QUEUE_DEPTH} {@link SystemMetricEvent}s.
+ *
+ * @see Builder
+ */
+public class RingBufferEventBus implements RestartableEventBus {
+    /** Name of the lane that takes events not accepted by any other lane. */
+    public static final String DEFAULT_LANE = "default";
+
+    /** Pause between attempts to offer an event to a full lane. */
+    private static final long OFFER_RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Logger logger;
+    /** Creates consumer threads. */
+    private final ThreadFactory threadFactory;
+    /** The lanes in routing order. The default lane is the last one. */
+    private final List<Lane> lanes;
+    /** Time to wait for space in a full lane before dropping an event. */
+    private final long offerTimeoutNanos;
+    /** Time to wait for consumer threads to finish on {@link #stop()}. */
+    private final TimeInterval stopTimeout;
+    /**
+     * Interval between queue depth reports. <code>0</code> turns off
+     * reporting.
+     */
+    private final long metricReportIntervalNanos;
+
+    /** Registered subscriber methods, keyed by the event type they accept. */
+    private final Map<Class<?>, List<SubscriberMethod>> subscribersByType = new ConcurrentHashMap<>();
+    /**
+     * Resolved subscribers per concrete event class. Replaced whenever
+     * subscribers are (un)registered.
+     */
+    private volatile Map<Class<?>, List<SubscriberMethod>> dispatchCache = new ConcurrentHashMap<>();
+    /** Resolved lane per concrete event class. */
+    private final Map<Class<?>, Lane> laneCache = new ConcurrentHashMap<>();
+
+    /** System time (in nanos) when queue depths are to be reported next. */
+    private final AtomicLong nextMetricReport = new AtomicLong(0);
+
+    private volatile boolean started = false;
+
+    private RingBufferEventBus(Builder builder) {
+        this.logger = builder.logger;
+        this.threadFactory = builder.threadFactory;
+        this.offerTimeoutNanos = builder.offerTimeout.getMillis() * 1000000L;
+        this.stopTimeout = builder.stopTimeout;
+        this.metricReportIntervalNanos = builder.metricReportInterval.getMillis() * 1000000L;
+
+        List<Lane> lanes = new ArrayList<>();
+        for (LaneSpec spec : builder.lanes.values()) {
+            lanes.add(new Lane(this.logger, spec.name, spec.eventType, spec.waitStrategy, builder.ringCapacity,
+                    builder.batchSize, this::dispatch, this::reportQueueDepthsIfDue));
+        }
+        lanes.add(new Lane(this.logger, DEFAULT_LANE, Object.class, builder.defaultWaitStrategy,
+                builder.ringCapacity, builder.batchSize, this::dispatch, this::reportQueueDepthsIfDue));
+        this.lanes = Collections.unmodifiableList(lanes);
+    }
+
+    /**
+     * Creates a new {@link Builder} for a {@link RingBufferEventBus}.
+     *
+     * @param logger
+     *            The {@link Logger} to use.
+     * @param threadFactory
+     *            Creates the consumer threads.
+     * @return
+     */
+    public static Builder newBuilder(Logger logger, ThreadFactory threadFactory) {
+        return new Builder(logger, threadFactory);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (this.started) {
+            return;
+        }
+        this.nextMetricReport.set(System.nanoTime() + this.metricReportIntervalNanos);
+        for (Lane lane : this.lanes) {
+            lane.start(this.threadFactory);
+        }
+        this.started = true;
+        this.logger.debug("event bus started with lanes {}", this.lanes);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!this.started) {
+            return;
+        }
+        this.started = false;
+        for (Lane lane : this.lanes) {
+            lane.stop(this.stopTimeout.getMillis());
+        }
+        this.logger.debug("event bus stopped: {}", getStatistics());
+    }
+
+    @Override
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    @Override
+    public void post(Object event) {
+        Objects.requireNonNull(event, "cannot post a null event");
+        if (!this.started) {
+            dispatch(event);
+            return;
+        }
+
+        Lane lane = laneFor(event.getClass());
+        if (lane.offer(event)) {
+            return;
+        }
+        if (lane.isConsumerThread()) {
+            // the consumer cannot wait for itself to free up space
+            dispatch(event);
+            return;
+        }
+
+        long deadline = System.nanoTime() + this.offerTimeoutNanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(OFFER_RETRY_NANOS);
+            if (!this.started) {
+                dispatch(event);
+                return;
+            }
+            if (lane.offer(event)) {
+                return;
+            }
+        }
+        lane.markDropped();
+        this.logger.warn("event bus lane '{}' is full: dropping event {}", lane.getName(), event);
+    }
+
+    @Override
+    public synchronized void register(Object listener) {
+        Objects.requireNonNull(listener, "cannot register a null listener");
+        if (isRegistered(listener)) {
+            return;
+        }
+        for (SubscriberMethod subscriber : SubscriberMethod.findAll(listener)) {
+            this.subscribersByType.computeIfAbsent(subscriber.getEventType(), type -> new CopyOnWriteArrayList<>())
+                    .add(subscriber);
+        }
+        this.dispatchCache = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public synchronized void unregister(Object listener) {
+        Objects.requireNonNull(listener, "cannot unregister a null listener");
+        for (List<SubscriberMethod> subscribers : this.subscribersByType.values()) {
+            subscribers.removeIf(subscriber -> subscriber.getTarget() == listener);
+        }
+        this.dispatchCache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns a snapshot of the queue statistics of each lane, keyed by lane
+     * name.
+     *
+     * @return
+     */
+    public Map<String, LaneStatistics> getStatistics() {
+        Map<String, LaneStatistics> statistics = new LinkedHashMap<>();
+        for (Lane lane : this.lanes) {
+            statistics.put(lane.getName(), lane.getStatistics());
+        }
+        return statistics;
+    }
+
+    private boolean isRegistered(Object listener) {
+        return this.subscribersByType.values().stream().flatMap(List::stream)
+                .anyMatch(subscriber -> subscriber.getTarget() == listener);
+    }
+
+    /**
+     * Returns the first lane that accepts a given event type.
+     *
+     * @param eventType
+     * @return
+     */
+    private Lane laneFor(Class<?> eventType) {
+        return this.laneCache.computeIfAbsent(eventType,
+                type -> this.lanes.stream().filter(lane -> lane.accepts(type)).findFirst().get());
+    }
+
+    /**
+     * Delivers an event to every subscriber that accepts it.
+     *
+     * @param event
+     */
+    private void dispatch(Object event) {
+        List<SubscriberMethod> subscribers = this.dispatchCache.computeIfAbsent(event.getClass(),
+                this::resolveSubscribers);
+        for (SubscriberMethod subscriber : subscribers) {
+            try {
+                subscriber.invoke(event);
+            } catch (Throwable e) {
+                this.logger.error("subscriber {} failed to handle event {}: {}", subscriber, event, e.getMessage(),
+                        e);
+            }
+        }
+    }
+
+    /**
+     * Collects the subscribers that accept events of a given class from the
+     * per-type subscriber lists.
+     *
+     * @param eventClass
+     * @return
+     */
+    private List<SubscriberMethod> resolveSubscribers(Class<?> eventClass) {
+        List<SubscriberMethod> subscribers = new ArrayList<>();
+        for (Class<?> type : TypeHierarchy.of(eventClass)) {
+            List<SubscriberMethod> typeSubscribers = this.subscribersByType.get(type);
+            if (typeSubscribers != null) {
+                subscribers.addAll(typeSubscribers);
+            }
+        }
+        return subscribers;
+    }
+
+    /**
+     * Posts the current queue depth, the maximum queue depth and the number of
+     * dropped events of every lane as {@link SystemMetricEvent}s, provided
+     * that the metric report interval has passed since the last report. Called
+     * by the consumer threads.
+     */
+    private void reportQueueDepthsIfDue() {
+        if (this.metricReportIntervalNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long due = this.nextMetricReport.get();
+        if (now - due < 0 || !this.nextMetricReport.compareAndSet(due, now + this.metricReportIntervalNanos)) {
+            return;
+        }
+        DateTime time = UtcTime.now();
+        for (Lane lane : this.lanes) {
+            LaneStatistics statistics = lane.getStatistics();
+            Map<String, String> tags = Maps.of("lane", lane.getName());
+            postMetric(SystemMetric.EVENTBUS_QUEUE_DEPTH, statistics.getQueueDepth(), time, tags);
+            postMetric(SystemMetric.EVENTBUS_MAX_QUEUE_DEPTH, statistics.getMaxQueueDepth(), time, tags);
+            postMetric(SystemMetric.EVENTBUS_DROPPED_EVENTS, statistics.getDropped(), time, tags);
+        }
+    }
+
+    /**
+     * Posts a single value of a {@link SystemMetric} as a
+     * {@link SystemMetricEvent}.
+     *
+     * @param metric
+     * @param value
+     * @param time
+     * @param tags
+     */
+    private void postMetric(SystemMetric metric, double value, DateTime time, Map<String, String> tags) {
+        post(new SystemMetricEvent(new MetricValue(metric.getMetricName(), value, time, tags)));
+    }
+
+    /**
+     * Builder of {@link RingBufferEventBus} instances.
+     */
+    public static class Builder {
+        /** Default number of slots in each lane's ring buffer. */
+        public static final int DEFAULT_RING_CAPACITY = 4096;
+        /** Default maximum number of events drained in one batch. */
+        public static final int DEFAULT_BATCH_SIZE = 64;
+        /** Default {@link WaitStrategy} of the default lane. */
+        public static final WaitStrategy DEFAULT_WAIT_STRATEGY = WaitStrategy.BLOCKING;
+        /** Default time to wait for space in a full lane. */
+        public static final TimeInterval DEFAULT_OFFER_TIMEOUT = new TimeInterval(1L, TimeUnit.SECONDS);
+        /** Default time to wait for consumer threads on stop. */
+        public static final TimeInterval DEFAULT_STOP_TIMEOUT = new TimeInterval(1L, TimeUnit.SECONDS);
+        /** Default queue depth report interval: no reports. */
+        public static final TimeInterval DEFAULT_METRIC_REPORT_INTERVAL = new TimeInterval(0L, TimeUnit.SECONDS);
+
+        private final Logger logger;
+        private final ThreadFactory threadFactory;
+        private final Map<String, LaneSpec> lanes = new LinkedHashMap<>();
+        private WaitStrategy defaultWaitStrategy = DEFAULT_WAIT_STRATEGY;
+        private int ringCapacity = DEFAULT_RING_CAPACITY;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private TimeInterval offerTimeout = DEFAULT_OFFER_TIMEOUT;
+        private TimeInterval stopTimeout = DEFAULT_STOP_TIMEOUT;
+        private TimeInterval metricReportInterval = DEFAULT_METRIC_REPORT_INTERVAL;
+
+        private Builder(Logger logger, ThreadFactory threadFactory) {
+            checkArgument(logger != null, "logger cannot be null");
+            checkArgument(threadFactory != null, "threadFactory cannot be null");
+            this.logger = logger;
+            this.threadFactory = threadFactory;
+        }
+
+        /**
+         * Adds a lane for events of a given (super) type. Lanes are matched
+         * against posted events in the order they are added.
+         *
+         * @param name
+         *            The name of the lane.
+         * @param eventType
+         *            The (super) type of events that the lane handles.
+         * @param waitStrategy
+         *            The {@link WaitStrategy} of the lane's consumer thread.
+         * @return
+         */
+        public Builder withLane(String name, Class<?> eventType, WaitStrategy waitStrategy) {
+            checkArgument(name != null, "lane name cannot be null");
+            checkArgument(!DEFAULT_LANE.equals(name), "lane name '%s' is reserved", DEFAULT_LANE);
+            checkArgument(!this.lanes.containsKey(name), "duplicate lane name '%s'", name);
+            checkArgument(eventType != null, "lane eventType cannot be null");
+            checkArgument(waitStrategy != null, "lane waitStrategy cannot be null");
+            this.lanes.put(name, new LaneSpec(name, eventType, waitStrategy));
+            return this;
+        }
+
+        /**
+         * Sets the {@link WaitStrategy} of the default lane, which handles
+         * events that no other lane accepts.
+         *
+         * @param waitStrategy
+         * @return
+         */
+        public Builder withDefaultWaitStrategy(WaitStrategy waitStrategy) {
+            checkArgument(waitStrategy != null, "defaultWaitStrategy cannot be null");
+            this.defaultWaitStrategy = waitStrategy;
+            return this;
+        }
+
+        /**
+         * Sets the number of slots in each lane's ring buffer. Rounded up to
+         * the nearest power of two.
+         *
+         * @param ringCapacity
+         * @return
+         */
+        public Builder withRingCapacity(int ringCapacity) {
+            checkArgument(ringCapacity > 0, "ringCapacity must be positive");
+            this.ringCapacity = ringCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of events that a consumer thread drains from
+         * its ring buffer in one batch.
+         *
+         * @param batchSize
+         * @return
+         */
+        public Builder withBatchSize(int batchSize) {
+            checkArgument(batchSize > 0, "batchSize must be positive");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets the time that a posting thread waits for space in a full lane
+         * before the event is dropped.
+         *
+         * @param offerTimeout
+         * @return
+         */
+        public Builder withOfferTimeout(TimeInterval offerTimeout) {
+            checkArgument(offerTimeout != null, "offerTimeout cannot be null");
+            this.offerTimeout = offerTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the time to wait for consumer threads to deliver queued events
+         * when the {@link RingBufferEventBus} is stopped.
+         *
+         * @param stopTimeout
+         * @return
+         */
+        public Builder withStopTimeout(TimeInterval stopTimeout) {
+            checkArgument(stopTimeout != null, "stopTimeout cannot be null");
+            this.stopTimeout = stopTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the interval at which lane queue depths are posted as
+         * {@link SystemMetricEvent}s. A zero interval turns off reporting.
+         *
+         * @param metricReportInterval
+         * @return
+         */
+        public Builder withMetricReportInterval(TimeInterval metricReportInterval) {
+            checkArgument(metricReportInterval != null, "metricReportInterval cannot be null");
+            this.metricReportInterval = metricReportInterval;
+            return this;
+        }
+
+        /**
+         * Builds a {@link RingBufferEventBus}. The returned instance is in a
+         * stopped state.
+         *
+         * @return
+         */
+        public RingBufferEventBus build() {
+            return new RingBufferEventBus(this);
+        }
+    }
+
+    /**
+     * Specification of a lane, as collected by the {@link Builder}.
+     */
+    private static class LaneSpec {
+        private final String name;
+        private final Class<?> eventType;
+        private final WaitStrategy waitStrategy;
+
+        public LaneSpec(String name, Class<?> eventType, WaitStrategy waitStrategy) {
+            this.name = name;
+            this.eventType = eventType;
+            this.waitStrategy = waitStrategy;
+        }
+    }
+}
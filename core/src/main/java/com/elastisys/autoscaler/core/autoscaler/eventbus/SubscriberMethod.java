@@ -0,0 +1,129 @@
+package com.elastisys.autoscaler.core.autoscaler.eventbus;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.elastisys.scale.commons.eventbus.AllowConcurrentEvents;
+import com.elastisys.scale.commons.eventbus.Subscriber;
+
+/**
+ * A {@link Subscriber}-annotated method of a registered listener object, which
+ * is to be invoked for every posted event that is assignable to its parameter
+ * type.
+ * <p/>
+ * Unless the method (or a method that it overrides) is annotated with
+ * {@link AllowConcurrentEvents}, invocations are serialized.
+ */
+class SubscriberMethod {
+    /** The listener object on which to invoke the method. */
+    private final Object target;
+    /** The subscriber method. */
+    private final Method method;
+    /** <code>true</code> if the method may be called concurrently. */
+    private final boolean concurrent;
+
+    private SubscriberMethod(Object target, Method method, boolean concurrent) {
+        this.target = target;
+        this.method = method;
+        this.concurrent = concurrent;
+    }
+
+    /**
+     * Returns the listener object that the method is invoked on.
+     *
+     * @return
+     */
+    public Object getTarget() {
+        return this.target;
+    }
+
+    /**
+     * Returns the type of events that this subscriber method accepts.
+     *
+     * @return
+     */
+    public Class<?> getEventType() {
+        return this.method.getParameterTypes()[0];
+    }
+
+    /**
+     * Delivers an event to the subscriber method.
+     *
+     * @param event
+     * @throws Throwable
+     *             Any exception thrown by the subscriber method.
+     */
+    public void invoke(Object event) throws Throwable {
+        if (this.concurrent) {
+            doInvoke(event);
+        } else {
+            synchronized (this) {
+                doInvoke(event);
+            }
+        }
+    }
+
+    private void doInvoke(Object event) throws Throwable {
+        try {
+            this.method.invoke(this.target, event);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.target.getClass().getName() + "#" + this.method.getName();
+    }
+
+    /**
+     * Finds all {@link Subscriber} methods of a listener object, including
+     * methods annotated in its super classes and interfaces. A method that is
+     * overridden in a sub class is only included once.
+     *
+     * @param listener
+     * @return
+     * @throws IllegalArgumentException
+     *             If a {@link Subscriber} method does not take exactly one
+     *             argument.
+     */
+    public static List<SubscriberMethod> findAll(Object listener) throws IllegalArgumentException {
+        // subscriber methods keyed by signature, most specific declaration
+        // first
+        Map<String, Method> subscriberMethods = new LinkedHashMap<>();
+        Map<String, Boolean> concurrentMethods = new LinkedHashMap<>();
+        for (Class<?> type : TypeHierarchy.of(listener.getClass())) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isSynthetic()) {
+                    continue;
+                }
+                String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+                if (method.isAnnotationPresent(AllowConcurrentEvents.class)) {
+                    concurrentMethods.put(signature, true);
+                }
+                if (!method.isAnnotationPresent(Subscriber.class) || subscriberMethods.containsKey(signature)) {
+                    continue;
+                }
+                if (method.getParameterTypes().length != 1) {
+                    throw new IllegalArgumentException(String.format(
+                            "subscriber method %s must take exactly one argument, has %d", method,
+                            method.getParameterTypes().length));
+                }
+                method.setAccessible(true);
+                subscriberMethods.put(signature, method);
+            }
+        }
+
+        List<SubscriberMethod> subscribers = new ArrayList<>();
+        for (Map.Entry<String, Method> entry : subscriberMethods.entrySet()) {
+            boolean concurrent = concurrentMethods.getOrDefault(entry.getKey(), false);
+            subscribers.add(new SubscriberMethod(listener, entry.getValue(), concurrent));
+        }
+        return subscribers;
+    }
+}
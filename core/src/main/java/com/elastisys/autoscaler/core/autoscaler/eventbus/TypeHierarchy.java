@@ -0,0 +1,42 @@
+package com.elastisys.autoscaler.core.autoscaler.eventbus;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Utility for flattening the type hierarchy of a class.
+ */
+class TypeHierarchy {
+
+    private TypeHierarchy() {
+        throw new IllegalStateException("not instantiable");
+    }
+
+    /**
+     * Returns a given class together with all its super classes and
+     * implemented interfaces, ordered from most to least specific (sub classes
+     * before their super classes and interfaces).
+     *
+     * @param type
+     * @return
+     */
+    public static Set<Class<?>> of(Class<?> type) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        Deque<Class<?>> unvisited = new ArrayDeque<>();
+        unvisited.add(type);
+        while (!unvisited.isEmpty()) {
+            Class<?> next = unvisited.poll();
+            if (!types.add(next)) {
+                continue;
+            }
+            if (next.getSuperclass() != null) {
+                unvisited.add(next.getSuperclass());
+            }
+            Collections.addAll(unvisited, next.getInterfaces());
+        }
+        return types;
+    }
+}
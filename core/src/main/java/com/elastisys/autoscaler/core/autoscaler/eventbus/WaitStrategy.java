@@ -0,0 +1,75 @@
+package com.elastisys.autoscaler.core.autoscaler.eventbus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Determines how the consumer thread of a {@link RingBufferEventBus} lane
+ * behaves while its ring buffer is empty. This allows latency-sensitive event
+ * types to be delivered immediately while high-volume event types can be
+ * picked up in larger batches at a lower cost for producers.
+ *
+ * @see RingBufferEventBus
+ */
+public enum WaitStrategy {
+    /**
+     * The consumer parks until a producer signals that a new event has been
+     * published. Gives low latency at the cost of a wake-up call on the posting
+     * thread whenever the consumer is idle.
+     */
+    BLOCKING {
+        @Override
+        void idle(Lane lane, int idleRounds) {
+            lane.awaitSignal(MAX_PARK_NANOS);
+        }
+    },
+    /**
+     * The consumer yields its processor for a number of rounds before falling
+     * back to parking like {@link #BLOCKING}. Suitable for bursty event types
+     * where the next event typically follows shortly after the previous one.
+     */
+    YIELDING {
+        @Override
+        void idle(Lane lane, int idleRounds) {
+            if (idleRounds <= YIELD_ROUNDS) {
+                Thread.yield();
+            } else {
+                lane.awaitSignal(MAX_PARK_NANOS);
+            }
+        }
+    },
+    /**
+     * The consumer sleeps for a short period between polls and is never
+     * signalled by producers. Adds up to {@link #SLEEP_NANOS} of delivery
+     * latency but makes posting as cheap as possible, which suits high-volume
+     * events such as system metrics.
+     */
+    SLEEPING {
+        @Override
+        void idle(Lane lane, int idleRounds) {
+            LockSupport.parkNanos(SLEEP_NANOS);
+        }
+    };
+
+    /**
+     * Upper bound on how long a parked consumer waits before re-checking its
+     * ring buffer, even if no signal arrives.
+     */
+    static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    /** The number of idle rounds a {@link #YIELDING} consumer yields. */
+    static final int YIELD_ROUNDS = 100;
+    /** Sleep time between polls of a {@link #SLEEPING} consumer. */
+    static final long SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Called by a {@link Lane} consumer thread after it found its ring buffer
+     * empty.
+     *
+     * @param lane
+     *            The {@link Lane} whose consumer is idle.
+     * @param idleRounds
+     *            The number of consecutive times (including this one) that
+     *            the consumer has found the ring buffer empty.
+     */
+    abstract void idle(Lane lane, int idleRounds);
+}
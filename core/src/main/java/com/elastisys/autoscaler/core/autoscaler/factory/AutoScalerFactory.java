@@ -35,6 +35,8 @@ import com.elastisys.autoscaler.core.cloudpool.api.CloudPoolProxy;
 import com.elastisys.autoscaler.core.metronome.api.Metronome;
 import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
 import com.elastisys.autoscaler.core.prediction.api.PredictionSubsystem;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCacheStats;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.util.file.FileUtils;
 import com.elastisys.scale.commons.util.io.IoUtils;
@@ -66,6 +68,10 @@ import com.google.gson.reflect.TypeToken;
  * <p/>
  * When an {@link AutoScalerFactory} is {@link #start()}ed, it will restore and
  * start any saved {@link AutoScaler} instances to their last known state.
+ * <p/>
+ * All {@link AutoScaler} instances created by an {@link AutoScalerFactory}
+ * share a {@link CompiledScriptCache}, such that instances created from the
+ * same blueprint do not each need to compile the same scripts.
  *
  * @see AutoScaler
  * @see AutoScalerBlueprint
@@ -104,11 +110,17 @@ public class AutoScalerFactory implements Service<AutoScalerFactoryConfig> {
     private AutoScalerFactoryConfig config;
     /** <code>true</code> if this {@link AutoScalerFactory} has been started. */
     private boolean started;
+    /**
+     * The {@link CompiledScriptCache} shared by all {@link AutoScaler}
+     * instances. Created when the {@link AutoScalerFactory} is configured.
+     */
+    private CompiledScriptCache scriptCache;
 
     private AutoScalerFactory() {
         this.autoScalerInstances = new ConcurrentHashMap<>();
         this.config = null;
         this.started = false;
+        this.scriptCache = null;
     }
 
     @Override
@@ -123,6 +135,7 @@ public class AutoScalerFactory implements Service<AutoScalerFactoryConfig> {
         validate(configuration);
         logger.debug("AutoScalerFactory created with configuration: {}", configuration);
         prepareStorageDir(configuration.getStorageDir());
+        this.scriptCache = new CompiledScriptCache(configuration.getScriptCacheSize());
         this.config = configuration;
     }
 
@@ -194,6 +207,17 @@ public class AutoScalerFactory implements Service<AutoScalerFactoryConfig> {
         return this.config != null;
     }
 
+    /**
+     * Returns the current statistics of the {@link CompiledScriptCache} shared
+     * by all {@link AutoScaler} instances of this {@link AutoScalerFactory}.
+     *
+     * @return
+     */
+    public CompiledScriptCacheStats getScriptCacheStats() {
+        checkState(isConfigured(), "attempt to get script cache statistics prior to configuring");
+        return this.scriptCache.getStats();
+    }
+
     /**
      * Creates a new {@link AutoScalerFactory}. The created factory is returned
      * in an unconfigured and {@link #stop()}ed state.
@@ -252,7 +276,8 @@ public class AutoScalerFactory implements Service<AutoScalerFactoryConfig> {
         validateBlueprint(blueprint);
         File storageDir = new File(this.config.getStorageDir(), blueprint.id().get());
         Map<String, String> addonSubsytems = this.config.getAddonSubsytems();
-        AutoScaler autoScaler = buildAutoScaler(UUID.randomUUID(), blueprint, addonSubsytems, storageDir);
+        AutoScaler autoScaler = buildAutoScaler(UUID.randomUUID(), blueprint, addonSubsytems, storageDir,
+                this.scriptCache);
         String id = autoScaler.getId();
 
         this.autoScalerInstances.put(id, new AutoScalerInstance(autoScaler, blueprint, storageDir));
@@ -274,10 +299,13 @@ public class AutoScalerFactory implements Service<AutoScalerFactoryConfig> {
      *            {@link AutoScaler} instance.
      * @param storageDir
      *            The storage directory to use for the created instance.
+     * @param scriptCache
+     *            The {@link CompiledScriptCache} that the created instance
+     *            compiles scripts through.
      * @return
      */
     private static AutoScaler buildAutoScaler(UUID uuid, AutoScalerBlueprint blueprint,
-            Map<String, String> addonSubsytems, File storageDir) {
+            Map<String, String> addonSubsytems, File storageDir, CompiledScriptCache scriptCache) {
         logger.debug("Building auto-scaler with id {} and uuid {} from:\nblueprint: {}\nadd-ons: {}", blueprint.id(),
                 uuid, blueprint, JsonUtils.toPrettyString(JsonUtils.toJson(addonSubsytems)));
 
@@ -299,6 +327,7 @@ public class AutoScalerFactory implements Service<AutoScalerFactoryConfig> {
         builder.withPredictionSubsystem(loadClass(predictionSubsystemClass, PredictionSubsystem.class));
         builder.withCloudPoolProxy(loadClass(cloudPoolProxyClass, CloudPoolProxy.class));
         builder.withStorageDir(storageDir);
+        builder.withScriptCache(scriptCache);
         // add-on subsystems
         for (Entry<String, String> addon : addonSubsytems.entrySet()) {
             String addonName = addon.getKey();
@@ -446,9 +475,13 @@ public class AutoScalerFactory implements Service<AutoScalerFactoryConfig> {
         logger.debug("Restoring autoscaler instances from {}", storageDir.getAbsolutePath());
         List<File> instanceDirs = FileUtils.listDirectories(storageDir);
         for (File instanceDir : instanceDirs) {
-            AutoScalerInstance instance = AutoScalerInstance.restore(instanceDir, this.config.getAddonSubsytems());
+            AutoScalerInstance instance = AutoScalerInstance.restore(instanceDir, this.config.getAddonSubsytems(),
+                    this.scriptCache);
             this.autoScalerInstances.put(instance.getAutoScaler().getId(), instance);
         }
+        CompiledScriptCacheStats stats = this.scriptCache.getStats();
+        logger.info("restored {} autoscaler instance(s): script cache hit rate {} ({} hits, {} misses)",
+                instanceDirs.size(), stats.getHitRate(), stats.getHits(), stats.getMisses());
     }
 
     /**
@@ -548,10 +581,13 @@ public class AutoScalerFactory implements Service<AutoScalerFactoryConfig> {
          * @param addonSubsystems
          *            The addon-subsystems that the restored {@link AutoScaler}
          *            instance will be created with.
+         * @param scriptCache
+         *            The {@link CompiledScriptCache} that the restored
+         *            {@link AutoScaler} instance compiles scripts through.
          * @throws Exception
          */
-        public static AutoScalerInstance restore(File instanceStorageDir, Map<String, String> addonSubsystems)
-                throws Exception {
+        public static AutoScalerInstance restore(File instanceStorageDir, Map<String, String> addonSubsystems,
+                CompiledScriptCache scriptCache) throws Exception {
             File uuidFile = new File(instanceStorageDir, AUTOSCALER_UUID_FILE);
             File blueprintFile = new File(instanceStorageDir, BLUEPRINT_FILE);
             File configFile = new File(instanceStorageDir, CONFIG_FILE);
@@ -568,7 +604,8 @@ public class AutoScalerFactory implements Service<AutoScalerFactoryConfig> {
             Type stringMapType = new TypeToken<Map<String, String>>() {
             }.getType();
 
-            AutoScaler autoScaler = buildAutoScaler(uuid, blueprint, addonSubsystems, instanceStorageDir);
+            AutoScaler autoScaler = buildAutoScaler(uuid, blueprint, addonSubsystems, instanceStorageDir,
+                    scriptCache);
             // an autoscaler instance may not have been configured yet, and
             // therefore may not have a config
             if (configFile.isFile()) {
@@ -1,5 +1,6 @@
 package com.elastisys.autoscaler.core.autoscaler.factory;
 
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
 import static java.lang.String.format;
 
 import java.io.File;
@@ -12,6 +13,7 @@ import java.util.Optional;
 import com.elastisys.autoscaler.core.api.Service;
 import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
 import com.elastisys.autoscaler.core.autoscaler.builder.AutoScalerBuilder;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
 import com.elastisys.scale.commons.json.JsonUtils;
 
 /**
@@ -46,6 +48,32 @@ public class AutoScalerFactoryConfig {
      */
     private final Map<String, String> addonSubsystems;
 
+    /**
+     * The maximum number of compiled scripts held in the
+     * {@link CompiledScriptCache} that is shared by all {@link AutoScaler}
+     * instances the {@link AutoScalerFactory} creates. Optional. Default:
+     * {@link CompiledScriptCache#DEFAULT_MAX_SIZE}.
+     */
+    private final Integer scriptCacheSize;
+
+    /**
+     * Constructs a new {@link AutoScalerFactoryConfig} with a given storage
+     * directory and a default script cache size.
+     *
+     * @param storageDir
+     *            File system path to the directory where the
+     *            {@link AutoScalerFactory} will persist instance state.
+     *            Optional. Default: {@link #DEFAULT_STORAGE_DIR}.
+     * @param addonSubsystems
+     *            The collection of add-on subsystems that will be added to all
+     *            {@link AutoScaler} instances the {@link AutoScalerFactory}
+     *            creates. May be <code>null</code>. Optional. Default: no addon
+     *            subsystems.
+     */
+    public AutoScalerFactoryConfig(String storageDir, Map<String, String> addonSubsystems) {
+        this(storageDir, addonSubsystems, null);
+    }
+
     /**
      * Constructs a new {@link AutoScalerFactoryConfig} with a given storage
      * directory.
@@ -65,11 +93,18 @@ public class AutoScalerFactoryConfig {
      *            {@code accountingSubsystem}, and values are class names, such
      *            as {@code com.elastisys.AccountingSubsystemImpl}. Optional.
      *            Default: no addon subsystems.
+     * @param scriptCacheSize
+     *            The maximum number of compiled scripts held in the
+     *            {@link CompiledScriptCache} that is shared by all
+     *            {@link AutoScaler} instances the {@link AutoScalerFactory}
+     *            creates. May be <code>null</code>. Optional. Default:
+     *            {@link CompiledScriptCache#DEFAULT_MAX_SIZE}.
      */
-    public AutoScalerFactoryConfig(String storageDir, Map<String, String> addonSubsystems) {
+    public AutoScalerFactoryConfig(String storageDir, Map<String, String> addonSubsystems, Integer scriptCacheSize) {
         Objects.requireNonNull(storageDir, "storageDir cannot be null");
         this.storageDir = storageDir;
         this.addonSubsystems = addonSubsystems;
+        this.scriptCacheSize = scriptCacheSize;
     }
 
     /**
@@ -98,6 +133,17 @@ public class AutoScalerFactoryConfig {
         return Optional.ofNullable(this.addonSubsystems).orElse(Collections.emptyMap());
     }
 
+    /**
+     * The maximum number of compiled scripts held in the
+     * {@link CompiledScriptCache} that is shared by all {@link AutoScaler}
+     * instances the {@link AutoScalerFactory} creates.
+     *
+     * @return
+     */
+    public int getScriptCacheSize() {
+        return Optional.ofNullable(this.scriptCacheSize).orElse(CompiledScriptCache.DEFAULT_MAX_SIZE);
+    }
+
     /**
      * Validates this {@link AutoScalerFactoryConfig}, verifying that the
      * storage directory is a valid directory path and that any add-on
@@ -115,6 +161,8 @@ public class AutoScalerFactoryConfig {
             }
         }
 
+        checkArgument(getScriptCacheSize() > 0, "autoScalerFactory: scriptCacheSize must be positive");
+
         // validate add-on subsystems
         for (Entry<String, String> addon : getAddonSubsytems().entrySet()) {
             String addonSubsystemName = addon.getKey();
@@ -132,7 +180,7 @@ public class AutoScalerFactoryConfig {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.storageDir, this.addonSubsystems);
+        return Objects.hash(this.storageDir, this.addonSubsystems, this.scriptCacheSize);
     }
 
     @Override
@@ -140,7 +188,8 @@ public class AutoScalerFactoryConfig {
         if (obj instanceof AutoScalerFactoryConfig) {
             AutoScalerFactoryConfig that = (AutoScalerFactoryConfig) obj;
             return Objects.equals(this.storageDir, that.storageDir)
-                    && Objects.equals(this.addonSubsystems, that.addonSubsystems);
+                    && Objects.equals(this.addonSubsystems, that.addonSubsystems)
+                    && Objects.equals(this.scriptCacheSize, that.scriptCacheSize);
         }
         return false;
     }
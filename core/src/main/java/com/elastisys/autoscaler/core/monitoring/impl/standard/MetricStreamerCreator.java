@@ -15,6 +15,7 @@ import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
 import com.elastisys.autoscaler.core.monitoring.impl.standard.config.MetricStreamerAlias;
 import com.elastisys.autoscaler.core.monitoring.impl.standard.config.MetricStreamerConfig;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
 import com.elastisys.scale.commons.eventbus.EventBus;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
@@ -32,6 +33,8 @@ import com.google.inject.TypeLiteral;
  * <li>{@link ExecutorService} or {@link ScheduledExecutorService}: the
  * {@link AutoScaler} instance's {@link ScheduledExecutorService}.</li>
  * <li>{@link EventBus}: the {@link AutoScaler}'s {@link EventBus}.</li>
+ * <li>{@link CompiledScriptCache}: the {@link AutoScaler}'s (possibly shared)
+ * cache of compiled scripts.</li>
  * <li>{@code List<MetricStreamer<?>>}: a list of {@link MetricStreamer}s that
  * were declared (and instantiated) prior to the {@link MetricStreamer} being
  * created. This can be useful for a {@link MetricStreamer} that needs to
@@ -44,6 +47,7 @@ class MetricStreamerCreator extends AbstractModule {
     private final Logger logger;
     private final EventBus eventBus;
     private final ScheduledExecutorService executor;
+    private final CompiledScriptCache scriptCache;
     private final List<MetricStreamer<?>> priorDeclaredMetricStreamers;
 
     /**
@@ -57,9 +61,25 @@ class MetricStreamerCreator extends AbstractModule {
      */
     public MetricStreamerCreator(Logger logger, EventBus eventBus, ScheduledExecutorService executor,
             List<MetricStreamer<?>> priorDeclaredMetricStreamers) {
+        this(logger, eventBus, executor, new CompiledScriptCache(), priorDeclaredMetricStreamers);
+    }
+
+    /**
+     * Create a {@link MetricStreamerCreator} capable of instantiating objects
+     * and injecting dependencies into those instances.
+     *
+     * @param logger
+     * @param eventBus
+     * @param executor
+     * @param scriptCache
+     * @param priorDeclaredMetricStreamers
+     */
+    public MetricStreamerCreator(Logger logger, EventBus eventBus, ScheduledExecutorService executor,
+            CompiledScriptCache scriptCache, List<MetricStreamer<?>> priorDeclaredMetricStreamers) {
         this.logger = requireNonNull(logger, "logger cannot be null");
         this.eventBus = requireNonNull(eventBus, "eventBus cannot be null");
         this.executor = requireNonNull(executor, "executor cannot be null");
+        this.scriptCache = requireNonNull(scriptCache, "scriptCache cannot be null");
         this.priorDeclaredMetricStreamers = requireNonNull(priorDeclaredMetricStreamers,
                 "priorDeclaredMetricStreamers cannot be null");
     }
@@ -119,6 +139,7 @@ class MetricStreamerCreator extends AbstractModule {
         bind(EventBus.class).toInstance(this.eventBus);
         bind(ScheduledExecutorService.class).toInstance(this.executor);
         bind(ExecutorService.class).toInstance(this.executor);
+        bind(CompiledScriptCache.class).toInstance(this.scriptCache);
         bind(new TypeLiteral<List<MetricStreamer<?>>>() {
         }).toInstance(this.priorDeclaredMetricStreamers);
     }
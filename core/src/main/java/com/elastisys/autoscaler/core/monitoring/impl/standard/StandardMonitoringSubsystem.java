@@ -5,8 +5,10 @@ import static com.elastisys.scale.commons.util.precond.Preconditions.checkState;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ScheduledExecutorService;
@@ -25,8 +27,11 @@ import com.elastisys.autoscaler.core.monitoring.impl.standard.config.StandardMon
 import com.elastisys.autoscaler.core.monitoring.impl.standard.config.SystemHistorianConfig;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.MetricStreamPreprocessor;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.config.PreprocessingConfig;
 import com.elastisys.autoscaler.core.monitoring.streammonitor.MetricStreamMonitor;
 import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.SystemHistorian;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
 import com.elastisys.scale.commons.eventbus.EventBus;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.google.gson.JsonObject;
@@ -42,6 +47,10 @@ import com.google.gson.JsonObject;
  * for example, by making use of a {@link Inject} annotation on the constructor.
  * For a list of the supported dependencies refer to the javadoc of
  * {@link MetricStreamerCreator} and {@link SystemHistorianCreator}.
+ * <p/>
+ * If the configuration declares preprocessed metric streams, these are
+ * published by a {@link MetricStreamPreprocessor}, which is added after the
+ * configured {@link MetricStreamer}s.
  *
  * @see MetricStreamerCreator
  * @see SystemHistorianCreator
@@ -55,6 +64,10 @@ public class StandardMonitoringSubsystem implements MonitoringSubsystem<Standard
     private final EventBus eventBus;
     private final ScheduledExecutorService executor;
     private final File storageDir;
+    /**
+     * The {@link CompiledScriptCache} made available to {@link MetricStreamer}s.
+     */
+    private final CompiledScriptCache scriptCache;
 
     /** The currently set configuration. */
     private StandardMonitoringSubsystemConfig config;
@@ -68,15 +81,22 @@ public class StandardMonitoringSubsystem implements MonitoringSubsystem<Standard
     /** Alerts on suspiciously low metric stream activity. */
     private MetricStreamMonitor metricStreamMonitor;
 
+    public StandardMonitoringSubsystem(UUID autoScalerUuid, String autoScalerId, Logger logger, EventBus eventBus,
+            ScheduledExecutorService executor, File storageDir) {
+        this(autoScalerUuid, autoScalerId, logger, eventBus, executor, storageDir, new CompiledScriptCache());
+    }
+
     @Inject
     public StandardMonitoringSubsystem(@Named("Uuid") UUID autoScalerUuid, @Named("AutoScalerId") String autoScalerId,
-            Logger logger, EventBus eventBus, ScheduledExecutorService executor, @Named("StorageDir") File storageDir) {
+            Logger logger, EventBus eventBus, ScheduledExecutorService executor, @Named("StorageDir") File storageDir,
+            CompiledScriptCache scriptCache) {
         this.autoScalerUuid = autoScalerUuid;
         this.autoScalerId = autoScalerId;
         this.logger = logger;
         this.eventBus = eventBus;
         this.executor = executor;
         this.storageDir = storageDir;
+        this.scriptCache = scriptCache;
     }
 
     @Override
@@ -102,29 +122,51 @@ public class StandardMonitoringSubsystem implements MonitoringSubsystem<Standard
     private void ensureConfigurationCanBeRealized(StandardMonitoringSubsystemConfig monitoringConfig)
             throws IllegalArgumentException {
         // will throw exceptions on failure to create or apply config
-        createAndConfigureMetricStreamers(monitoringConfig.getMetricStreamers());
+        createAndConfigureMetricStreamers(monitoringConfig.getMetricStreamers(), monitoringConfig.getPreprocessing(),
+                Collections.emptyList());
         createAndConfigureSystemHistorian(monitoringConfig.getSystemHistorian());
         createAndConfigureMetricStreamMonitor(monitoringConfig.getMetricStreamMonitor());
     }
 
-    private List<MetricStreamer<?>> createAndConfigureMetricStreamers(List<MetricStreamerConfig> metricStreamerConfigs)
+    /**
+     * Creates and configures the {@link MetricStreamer}s declared by a
+     * configuration.
+     *
+     * @param metricStreamerConfigs
+     *            The declared {@link MetricStreamer}s.
+     * @param preprocessingConfig
+     *            The declared preprocessed metric streams, if any.
+     * @param reusableMetricStreamers
+     *            Already existing {@link MetricStreamer}s that are re-configured
+     *            rather than replaced. The {@link MetricStreamer} at a certain
+     *            position is reused for the {@link MetricStreamer} declared at
+     *            that position.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    private List<MetricStreamer<?>> createAndConfigureMetricStreamers(List<MetricStreamerConfig> metricStreamerConfigs,
+            Optional<PreprocessingConfig> preprocessingConfig, List<MetricStreamer<?>> reusableMetricStreamers)
             throws IllegalArgumentException {
         List<MetricStreamer<?>> createdMetricStreamers = new ArrayList<>();
 
         for (int i = 0; i < metricStreamerConfigs.size(); i++) {
             List<MetricStreamer<?>> priorDeclaredMetricStreamers = new ArrayList<>(createdMetricStreamers);
             MetricStreamerCreator creator = new MetricStreamerCreator(this.logger, this.eventBus, this.executor,
-                    priorDeclaredMetricStreamers);
+                    this.scriptCache, priorDeclaredMetricStreamers);
 
             MetricStreamerConfig metricStreamerConfig = metricStreamerConfigs.get(i);
 
-            // instantiate
+            // instantiate (unless an existing instance can be reused)
             MetricStreamer metricStreamer;
-            try {
-                metricStreamer = creator.createMetricStreamer(metricStreamerConfig);
-            } catch (Exception e) {
-                throw new IllegalArgumentException(String.format(
-                        "monitoringSubsystem: could not instantiate metricStreamer %d: %s", i, e.getMessage()), e);
+            if (i < reusableMetricStreamers.size()) {
+                metricStreamer = reusableMetricStreamers.get(i);
+            } else {
+                try {
+                    metricStreamer = creator.createMetricStreamer(metricStreamerConfig);
+                } catch (Exception e) {
+                    throw new IllegalArgumentException(String.format(
+                            "monitoringSubsystem: could not instantiate metricStreamer %d: %s", i, e.getMessage()), e);
+                }
             }
 
             // configure
@@ -141,11 +183,31 @@ public class StandardMonitoringSubsystem implements MonitoringSubsystem<Standard
             createdMetricStreamers.add(metricStreamer);
         }
 
+        if (preprocessingConfig.isPresent()) {
+            MetricStreamPreprocessor preprocessor = createAndConfigurePreprocessor(createdMetricStreamers,
+                    preprocessingConfig.get());
+            createdMetricStreamers.add(preprocessor);
+        }
+
         validateMetricStreamIdUniquness(createdMetricStreamers);
 
         return createdMetricStreamers;
     }
 
+    private MetricStreamPreprocessor createAndConfigurePreprocessor(List<MetricStreamer<?>> inputMetricStreamers,
+            PreprocessingConfig preprocessingConfig) throws IllegalArgumentException {
+        try {
+            MetricStreamPreprocessor preprocessor = new MetricStreamPreprocessor(this.logger, this.eventBus,
+                    new ArrayList<>(inputMetricStreamers));
+            preprocessor.validate(preprocessingConfig);
+            preprocessor.configure(preprocessingConfig);
+            return preprocessor;
+        } catch (Exception e) {
+            throw new IllegalArgumentException(
+                    "monitoringSubsystem: preprocessing config could not be applied: " + e.getMessage(), e);
+        }
+    }
+
     private void validateMetricStreamIdUniquness(List<MetricStreamer<?>> metricStreamers) {
         Set<String> uniqueIds = new HashSet<>();
 
@@ -232,7 +294,8 @@ public class StandardMonitoringSubsystem implements MonitoringSubsystem<Standard
 
     private void apply(StandardMonitoringSubsystemConfig newConfig) throws IllegalArgumentException {
         try {
-            List<MetricStreamer<?>> metricStreamers = createAndConfigureMetricStreamers(newConfig.getMetricStreamers());
+            List<MetricStreamer<?>> metricStreamers = createAndConfigureMetricStreamers(newConfig.getMetricStreamers(),
+                    newConfig.getPreprocessing(), reusableMetricStreamers(newConfig));
             SystemHistorian systemHistorian = createAndConfigureSystemHistorian(newConfig.getSystemHistorian());
             MetricStreamMonitor streamMonitor = createAndConfigureMetricStreamMonitor(
                     newConfig.getMetricStreamMonitor());
@@ -250,6 +313,38 @@ public class StandardMonitoringSubsystem implements MonitoringSubsystem<Standard
         }
     }
 
+    /**
+     * Returns the current {@link MetricStreamer}s that can be re-configured
+     * with a new configuration rather than being replaced. Re-configuring a
+     * {@link MetricStreamer} allows it to keep streaming unchanged metric
+     * streams from where they were left off.
+     * <p/>
+     * A {@link MetricStreamer} is reused if it is declared with the same type
+     * at the same position in the new configuration and all
+     * {@link MetricStreamer}s declared before it are reused as well (since a
+     * {@link MetricStreamer} may consume the metric streams of prior declared
+     * {@link MetricStreamer}s).
+     *
+     * @param newConfig
+     * @return
+     */
+    private List<MetricStreamer<?>> reusableMetricStreamers(StandardMonitoringSubsystemConfig newConfig) {
+        List<MetricStreamer<?>> reusable = new ArrayList<>();
+        if (this.config == null) {
+            return reusable;
+        }
+
+        List<MetricStreamerConfig> currentDeclarations = this.config.getMetricStreamers();
+        List<MetricStreamerConfig> newDeclarations = newConfig.getMetricStreamers();
+        for (int i = 0; i < Math.min(currentDeclarations.size(), newDeclarations.size()); i++) {
+            if (!currentDeclarations.get(i).getType().equals(newDeclarations.get(i).getType())) {
+                break;
+            }
+            reusable.add(this.metricStreamers.get(i));
+        }
+        return reusable;
+    }
+
     @Override
     public void start() throws IllegalStateException {
         checkState(isConfigured(), "cannot start monitoring subsystem without a configuration.");
@@ -10,7 +10,11 @@ public enum MetricStreamerAlias {
     /** Alias for the {@code InfluxdbMetricStreamer} class. */
     InfluxdbMetricStreamer("com.elastisys.autoscaler.metricstreamers.influxdb.InfluxdbMetricStreamer"),
     /** Alias for the {@code MetricStreamJoiner} class. */
-    MetricStreamJoiner("com.elastisys.autoscaler.metricstreamers.streamjoiner.MetricStreamJoiner");
+    MetricStreamJoiner("com.elastisys.autoscaler.metricstreamers.streamjoiner.MetricStreamJoiner"),
+    /** Alias for the {@code FileReplayMetricStreamer} class. */
+    FileReplayMetricStreamer("com.elastisys.autoscaler.metricstreamers.filereplay.FileReplayMetricStreamer"),
+    /** Alias for the {@code PrometheusMetricStreamer} class. */
+    PrometheusMetricStreamer("com.elastisys.autoscaler.metricstreamers.prometheus.PrometheusMetricStreamer");
     /**
      * The fully (package-)qualified class name of the subsystem implementation
      * class that this alias refers to.
@@ -8,6 +8,8 @@ import java.util.Optional;
 
 import com.elastisys.autoscaler.core.monitoring.impl.standard.StandardMonitoringSubsystem;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.MetricStreamPreprocessor;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.config.PreprocessingConfig;
 import com.elastisys.autoscaler.core.monitoring.streammonitor.MetricStreamMonitor;
 import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.SystemHistorian;
 import com.elastisys.autoscaler.core.monitoring.systemhistorian.impl.noop.NoOpSystemHistorian;
@@ -52,6 +54,14 @@ public class StandardMonitoringSubsystemConfig {
      **/
     private final MetricStreamMonitorConfig metricStreamMonitor;
 
+    /**
+     * Declares preprocessed metric streams, which are published by a
+     * {@link MetricStreamPreprocessor} in addition to the streams of the
+     * {@link MetricStreamer}s. May be <code>null</code>, in which case no
+     * preprocessed streams are published.
+     */
+    private final PreprocessingConfig preprocessing;
+
     /**
      * Creates a {@link StandardMonitoringSubsystemConfig}.
      *
@@ -70,9 +80,36 @@ public class StandardMonitoringSubsystemConfig {
      */
     public StandardMonitoringSubsystemConfig(List<MetricStreamerConfig> metricStreamers,
             SystemHistorianConfig systemHistorian, MetricStreamMonitorConfig metricStreamMonitor) {
+        this(metricStreamers, systemHistorian, metricStreamMonitor, null);
+    }
+
+    /**
+     * Creates a {@link StandardMonitoringSubsystemConfig}.
+     *
+     * @param metricStreamers
+     *            Configuration that describes the {@link MetricStreamer}s to
+     *            use.
+     * @param systemHistorian
+     *            Configuration that describes the {@link SystemHistorian} to
+     *            use. May be <code>null</code>, in which case a no-op
+     *            {@link SystemHistorian} should be used.
+     * @param metricStreamMonitor
+     *            Configuration controlling the behavior of the
+     *            {@link MetricStreamMonitor}. May be <code>null</code>, in
+     *            which case default settings will be used. See
+     *            {@link #DEFAULT_METRIC_STREAM_MONITOR_CONFIG}.
+     * @param preprocessing
+     *            Declares preprocessed metric streams. May be
+     *            <code>null</code>, in which case no preprocessed streams are
+     *            published.
+     */
+    public StandardMonitoringSubsystemConfig(List<MetricStreamerConfig> metricStreamers,
+            SystemHistorianConfig systemHistorian, MetricStreamMonitorConfig metricStreamMonitor,
+            PreprocessingConfig preprocessing) {
         this.metricStreamers = metricStreamers;
         this.systemHistorian = systemHistorian;
         this.metricStreamMonitor = metricStreamMonitor;
+        this.preprocessing = preprocessing;
     }
 
     /**
@@ -105,9 +142,19 @@ public class StandardMonitoringSubsystemConfig {
         return Optional.ofNullable(this.metricStreamMonitor).orElse(DEFAULT_METRIC_STREAM_MONITOR_CONFIG);
     }
 
+    /**
+     * Declares preprocessed metric streams, if any.
+     *
+     * @return
+     */
+    public Optional<PreprocessingConfig> getPreprocessing() {
+        return Optional.ofNullable(this.preprocessing);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(this.metricStreamers, this.systemHistorian, this.metricStreamMonitor);
+        return Objects.hash(this.metricStreamers, this.systemHistorian, this.metricStreamMonitor,
+                this.preprocessing);
     }
 
     @Override
@@ -116,7 +163,8 @@ public class StandardMonitoringSubsystemConfig {
             StandardMonitoringSubsystemConfig that = (StandardMonitoringSubsystemConfig) obj;
             return Objects.equals(this.metricStreamers, that.metricStreamers)
                     && Objects.equals(getSystemHistorian(), that.getSystemHistorian())
-                    && Objects.equals(this.metricStreamMonitor, that.metricStreamMonitor);
+                    && Objects.equals(this.metricStreamMonitor, that.metricStreamMonitor)
+                    && Objects.equals(this.preprocessing, that.preprocessing);
         }
         return false;
     }
@@ -141,6 +189,9 @@ public class StandardMonitoringSubsystemConfig {
 
             getSystemHistorian().validate();
             getMetricStreamMonitor().validate();
+            if (this.preprocessing != null) {
+                this.preprocessing.validate();
+            }
         } catch (Exception e) {
             throw new IllegalArgumentException("monitoringSubsystem: " + e.getMessage(), e);
         }
@@ -1,10 +1,13 @@
 package com.elastisys.autoscaler.core.monitoring.metricstreamer.api;
 
+import java.util.Optional;
+
 import org.joda.time.Interval;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultPage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
 import com.elastisys.scale.commons.eventbus.EventBus;
 
@@ -61,4 +64,35 @@ public interface MetricStream {
      *             If the query could not be executed.
      */
     public QueryResultSet query(Interval timeInterval, QueryOptions options) throws MetricStreamException;
+
+    /**
+     * Queries a {@link MetricStream} for its most recent {@link MetricValue}
+     * within a given time interval.
+     * <p/>
+     * This is a fast path for consumers that only care about the newest value
+     * of a stream. The default implementation runs a regular
+     * {@link #query(Interval, QueryOptions)} and picks the most recent value of
+     * the result. Implementations are encouraged to override it with a cheaper
+     * query, if the metric backend has one.
+     *
+     * @param timeInterval
+     *            Limits the query in time. A {@link MetricValue} with a
+     *            timestamp outside of this interval will not be returned.
+     * @return The most recent {@link MetricValue} in the interval, if any.
+     * @throws MetricStreamException
+     *             If the query could not be executed.
+     */
+    public default Optional<MetricValue> queryLatest(Interval timeInterval) throws MetricStreamException {
+        MetricValue latest = null;
+        QueryResultSet resultSet = query(timeInterval, null);
+        while (resultSet.hasNext()) {
+            QueryResultPage page = resultSet.fetchNext();
+            for (MetricValue value : page.getMetricValues()) {
+                if (latest == null || value.getTime().isAfter(latest.getTime())) {
+                    latest = value;
+                }
+            }
+        }
+        return Optional.ofNullable(latest);
+    }
 }
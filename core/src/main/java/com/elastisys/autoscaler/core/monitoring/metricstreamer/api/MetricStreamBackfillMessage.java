@@ -0,0 +1,95 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.api;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpStrategy;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.reader.MetricStreamReader;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.json.JsonUtils;
+
+/**
+ * Represents a collection of {@link MetricValue}s that were fetched for a
+ * certain {@link MetricStream} after newer values had already been delivered
+ * for that stream, for example when catching up on a gap in the stream with the
+ * {@link CatchUpStrategy#NEWEST_FIRST} strategy.
+ * <p/>
+ * {@link MetricStreamBackfillMessage}s are sent onto the {@link AutoScaler}
+ * {@link EventBus} separately from {@link MetricStreamMessage}s, so that
+ * consumers of {@link MetricStreamMessage}s can continue to rely on values
+ * being delivered in monotonically increasing time-stamp order. Consumers that
+ * keep a history of metric values may use backfills to fill in the gap. A
+ * {@link MetricStreamReader} hands backfilled values to its client as
+ * out-of-order values.
+ *
+ * @see MetricStreamMessage
+ */
+public class MetricStreamBackfillMessage {
+
+    /**
+     * The identifier of the {@link MetricStream} from which these
+     * {@link MetricValue}s were collected.
+     */
+    private final String id;
+    /**
+     * A collection of {@link MetricValue}s ordered in increasing order of time
+     * (oldest first).
+     */
+    private final List<MetricValue> metricValues;
+
+    /**
+     * Creates a {@link MetricStreamBackfillMessage}.
+     *
+     * @param id
+     *            The identifier of the {@link MetricStream} from which these
+     *            {@link MetricValue}s were collected.
+     * @param metricValues
+     *            A collection of {@link MetricValue}s ordered in increasing
+     *            order of time (oldest first).
+     */
+    public MetricStreamBackfillMessage(String id, List<MetricValue> metricValues) {
+        this.id = id;
+        this.metricValues = metricValues;
+    }
+
+    /**
+     * The identifier of the {@link MetricStream} from which these
+     * {@link MetricValue}s were collected.
+     *
+     * @return
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * A collection of {@link MetricValue}s ordered in increasing order of time
+     * (oldest first).
+     *
+     * @return
+     */
+    public List<MetricValue> getMetricValues() {
+        return this.metricValues;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id, this.metricValues);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof MetricStreamBackfillMessage) {
+            MetricStreamBackfillMessage that = (MetricStreamBackfillMessage) obj;
+            return Objects.equals(this.id, that.id) && Objects.equals(this.metricValues, that.metricValues);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+}
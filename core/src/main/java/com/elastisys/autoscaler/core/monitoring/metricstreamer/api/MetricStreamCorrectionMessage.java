@@ -0,0 +1,116 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.api;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.joda.time.DateTime;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.json.JsonUtils;
+
+/**
+ * Represents a collection of late-arriving {@link MetricValue}s of a certain
+ * {@link MetricStream}. That is, values that showed up in the metric backend
+ * after newer values of the stream had already been delivered, but that still
+ * fall within the stream's allowed lateness.
+ * <p/>
+ * {@link MetricStreamCorrectionMessage}s are sent onto the {@link AutoScaler}
+ * {@link EventBus} separately from {@link MetricStreamMessage}s, so that
+ * consumers of {@link MetricStreamMessage}s can continue to rely on values
+ * being delivered in monotonically increasing time-stamp order. Consumers that
+ * keep a history of metric values may use corrections to amend it.
+ *
+ * @see MetricStreamMessage
+ */
+public class MetricStreamCorrectionMessage {
+
+    /**
+     * The identifier of the {@link MetricStream} from which these
+     * {@link MetricValue}s were collected.
+     */
+    private final String id;
+    /**
+     * A collection of {@link MetricValue}s ordered in increasing order of time
+     * (oldest first).
+     */
+    private final List<MetricValue> metricValues;
+    /**
+     * The event-time watermark of the {@link MetricStream} after this message.
+     * All values of the stream with a time-stamp at or before the watermark
+     * have been delivered.
+     */
+    private final DateTime watermark;
+
+    /**
+     * Creates a {@link MetricStreamCorrectionMessage}.
+     *
+     * @param id
+     *            The identifier of the {@link MetricStream} from which these
+     *            {@link MetricValue}s were collected.
+     * @param metricValues
+     *            A collection of {@link MetricValue}s ordered in increasing
+     *            order of time (oldest first).
+     * @param watermark
+     *            The event-time watermark of the {@link MetricStream} after
+     *            this message. All values of the stream at or before the
+     *            watermark have been delivered.
+     */
+    public MetricStreamCorrectionMessage(String id, List<MetricValue> metricValues, DateTime watermark) {
+        this.id = id;
+        this.metricValues = metricValues;
+        this.watermark = watermark;
+    }
+
+    /**
+     * The identifier of the {@link MetricStream} from which these
+     * {@link MetricValue}s were collected.
+     *
+     * @return
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * A collection of {@link MetricValue}s ordered in increasing order of time
+     * (oldest first).
+     *
+     * @return
+     */
+    public List<MetricValue> getMetricValues() {
+        return this.metricValues;
+    }
+
+    /**
+     * The event-time watermark of the {@link MetricStream} after this message.
+     * All values of the stream with a time-stamp at or before the watermark
+     * have been delivered.
+     *
+     * @return
+     */
+    public DateTime getWatermark() {
+        return this.watermark;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id, this.metricValues, this.watermark);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof MetricStreamCorrectionMessage) {
+            MetricStreamCorrectionMessage that = (MetricStreamCorrectionMessage) obj;
+            return Objects.equals(this.id, that.id) && Objects.equals(this.metricValues, that.metricValues)
+                    && Objects.equals(this.watermark, that.watermark);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+}
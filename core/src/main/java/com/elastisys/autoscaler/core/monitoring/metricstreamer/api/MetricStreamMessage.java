@@ -2,6 +2,9 @@ package com.elastisys.autoscaler.core.monitoring.metricstreamer.api;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
@@ -30,9 +33,17 @@ public class MetricStreamMessage {
      * (oldest first).
      */
     private final List<MetricValue> metricValues;
+    /**
+     * The event-time watermark of the {@link MetricStream} after this message.
+     * All values of the stream with a time-stamp at or before the watermark
+     * have been delivered: no further values (nor
+     * {@link MetricStreamCorrectionMessage}s) will follow for that part of the
+     * stream. May be <code>null</code>, if not tracked by the sender.
+     */
+    private final DateTime watermark;
 
     /**
-     * Creates a {@link MetricStreamMessage}.
+     * Creates a {@link MetricStreamMessage} without a watermark.
      *
      * @param id
      *            The identifier of the {@link MetricStream} from which these
@@ -43,8 +54,27 @@ public class MetricStreamMessage {
      *
      */
     public MetricStreamMessage(String id, List<MetricValue> metricValues) {
+        this(id, metricValues, null);
+    }
+
+    /**
+     * Creates a {@link MetricStreamMessage}.
+     *
+     * @param id
+     *            The identifier of the {@link MetricStream} from which these
+     *            {@link MetricValue}s were collected.
+     * @param metricValues
+     *            A collection of {@link MetricValue}s ordered in increasing
+     *            order of time (oldest first).
+     * @param watermark
+     *            The event-time watermark of the {@link MetricStream} after
+     *            this message. All values of the stream at or before the
+     *            watermark have been delivered. May be <code>null</code>.
+     */
+    public MetricStreamMessage(String id, List<MetricValue> metricValues, DateTime watermark) {
         this.id = id;
         this.metricValues = metricValues;
+        this.watermark = watermark;
     }
 
     /**
@@ -67,16 +97,30 @@ public class MetricStreamMessage {
         return this.metricValues;
     }
 
+    /**
+     * The event-time watermark of the {@link MetricStream} after this message.
+     * All values of the stream with a time-stamp at or before the watermark
+     * have been delivered, so any time window that ends at or before the
+     * watermark is complete. {@link Optional#empty()} if not tracked by the
+     * sender.
+     *
+     * @return
+     */
+    public Optional<DateTime> getWatermark() {
+        return Optional.ofNullable(this.watermark);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(this.id, this.metricValues);
+        return Objects.hash(this.id, this.metricValues, this.watermark);
     }
 
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof MetricStreamMessage) {
             MetricStreamMessage that = (MetricStreamMessage) obj;
-            return Objects.equals(this.id, that.id) && Objects.equals(this.metricValues, that.metricValues);
+            return Objects.equals(this.id, that.id) && Objects.equals(this.metricValues, that.metricValues)
+                    && Objects.equals(this.watermark, that.watermark);
         }
         return false;
     }
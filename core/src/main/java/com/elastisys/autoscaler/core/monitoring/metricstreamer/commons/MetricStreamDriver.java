@@ -2,7 +2,10 @@ package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons;
 
 import static com.elastisys.scale.commons.util.precond.Preconditions.checkState;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 
@@ -70,15 +73,69 @@ public class MetricStreamDriver {
      */
     public MetricStreamDriver(Logger logger, ScheduledExecutorService executor, EventBus eventBus,
             List<MetricStream> metricStreams, TimeInterval pollInterval, TimeInterval firstQueryLookback) {
+        this(logger, executor, eventBus, metricStreams, pollInterval, firstQueryLookback, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a new {@link MetricStreamDriver}. It is in a passive state until
+     * {@link #start()} is called.
+     *
+     * @param logger
+     * @param executor
+     *            Task execution service for performing work in separate
+     *            threads.
+     * @param eventBus
+     *            The {@link EventBus} onto which collected metric values are
+     *            sent.
+     * @param metricStreams
+     *            The collection of {@link MetricStream}s for which metrics are
+     *            to be collected and published.
+     * @param pollInterval
+     *            The time interval between polling of {@link MetricStream}s.
+     * @param firstQueryLookback
+     *            How far back in time to look on the first query to a
+     *            {@link MetricStream}. May be <code>null</code>, in which case
+     *            {@value #DEFAULT_FIRST_QUERY_LOOKBACK} is used.
+     * @param streamSettings
+     *            The {@link MetricStreamSettings} of each {@link MetricStream},
+     *            keyed by stream id. Streams without settings use
+     *            {@link MetricStreamSettings#defaults()}.
+     */
+    public MetricStreamDriver(Logger logger, ScheduledExecutorService executor, EventBus eventBus,
+            List<MetricStream> metricStreams, TimeInterval pollInterval, TimeInterval firstQueryLookback,
+            Map<String, MetricStreamSettings> streamSettings) {
         this.logger = logger;
         this.executor = executor;
         this.pollInterval = pollInterval;
 
         this.metricStreamingLoop = new MetricStreamingLoop(this.logger, executor, eventBus, metricStreams,
-                firstQueryLookback);
+                firstQueryLookback, streamSettings);
         this.started = false;
     }
 
+    /**
+     * Takes over a number of {@link MetricStream}s, along with their streaming
+     * state, from a previous {@link MetricStreamDriver} that this driver
+     * replaces on re-configuration. The taken over streams continue from where
+     * they were left off by the previous driver, so unchanged streams are not
+     * re-queried from scratch. Any buffered values of their consumers hence
+     * remain valid.
+     * <p/>
+     * Must be called before this driver is started and after the previous
+     * driver has been stopped.
+     *
+     * @param previous
+     *            The {@link MetricStreamDriver} that this driver replaces.
+     * @param streamIds
+     *            The ids of the {@link MetricStream}s to take over. These
+     *            should be the streams whose definitions did not change.
+     */
+    public void takeOver(MetricStreamDriver previous, Collection<String> streamIds) {
+        checkState(!isStarted(), "attempt to take over metric streams after being started");
+        checkState(!previous.isStarted(), "attempt to take over metric streams from a started driver");
+        this.metricStreamingLoop.takeOver(previous.metricStreamingLoop, streamIds);
+    }
+
     /**
      * Starts the the main metric streaming loop, which means that the
      * {@link MetricStreamDriver} will start collecting and publishing metrics
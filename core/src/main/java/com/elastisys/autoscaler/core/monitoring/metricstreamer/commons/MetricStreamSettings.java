@@ -0,0 +1,122 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.joda.time.Interval;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamCorrectionMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpPolicy;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Controls how the {@link MetricStreamingLoop} polls a particular
+ * {@link MetricStream}.
+ */
+public class MetricStreamSettings {
+    /** Default value for {@link #allowedLateness}. */
+    public static final TimeInterval DEFAULT_ALLOWED_LATENESS = TimeInterval.seconds(0);
+
+    /** The settings of a {@link MetricStream} that has no settings of its own. */
+    private static final MetricStreamSettings DEFAULTS = new MetricStreamSettings(null, false, null);
+
+    /**
+     * How to catch up on a large gap in the stream's data. May be
+     * <code>null</code>. Default: {@link CatchUpPolicy#fetchAll()}.
+     */
+    private final CatchUpPolicy catchUp;
+    /**
+     * <code>true</code> if the stream is polled in latest-only mode, via
+     * {@link MetricStream#queryLatest(Interval)}.
+     */
+    private final boolean latestOnly;
+    /**
+     * How late values may arrive and still be delivered, as
+     * {@link MetricStreamCorrectionMessage}s. May be <code>null</code>.
+     * Default: {@link #DEFAULT_ALLOWED_LATENESS}.
+     */
+    private final TimeInterval allowedLateness;
+
+    /**
+     * Creates {@link MetricStreamSettings}.
+     *
+     * @param catchUp
+     *            How to catch up on a large gap in the stream's data. May be
+     *            <code>null</code>. Default: {@link CatchUpPolicy#fetchAll()}.
+     * @param latestOnly
+     *            <code>true</code> if the stream is to be polled in
+     *            latest-only mode. Only the most recent value of such a stream
+     *            is fetched and delivered on each poll.
+     * @param allowedLateness
+     *            How late values may arrive and still be delivered, as
+     *            {@link MetricStreamCorrectionMessage}s. May be
+     *            <code>null</code>. Default:
+     *            {@link #DEFAULT_ALLOWED_LATENESS}, which drops all late
+     *            arrivals.
+     */
+    public MetricStreamSettings(CatchUpPolicy catchUp, boolean latestOnly, TimeInterval allowedLateness) {
+        this.catchUp = catchUp;
+        this.latestOnly = latestOnly;
+        this.allowedLateness = allowedLateness;
+    }
+
+    /**
+     * Returns the {@link MetricStreamSettings} of a {@link MetricStream} that
+     * has no settings of its own: all data since the last observed value is
+     * fetched and late arrivals are dropped.
+     *
+     * @return
+     */
+    public static MetricStreamSettings defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * How to catch up on a large gap in the stream's data.
+     *
+     * @return
+     */
+    public CatchUpPolicy getCatchUp() {
+        return Optional.ofNullable(this.catchUp).orElse(CatchUpPolicy.fetchAll());
+    }
+
+    /**
+     * <code>true</code> if the stream is polled in latest-only mode.
+     *
+     * @return
+     */
+    public boolean isLatestOnly() {
+        return this.latestOnly;
+    }
+
+    /**
+     * How late values may arrive and still be delivered.
+     *
+     * @return
+     */
+    public TimeInterval getAllowedLateness() {
+        return Optional.ofNullable(this.allowedLateness).orElse(DEFAULT_ALLOWED_LATENESS);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getCatchUp(), this.latestOnly, getAllowedLateness());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof MetricStreamSettings) {
+            MetricStreamSettings that = (MetricStreamSettings) obj;
+            return Objects.equals(getCatchUp(), that.getCatchUp()) && this.latestOnly == that.latestOnly
+                    && Objects.equals(getAllowedLateness(), that.getAllowedLateness());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -3,11 +3,14 @@ package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons;
 import static java.lang.String.format;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -24,9 +27,16 @@ import org.slf4j.Logger;
 import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.metronome.api.MetronomeEvent;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamBackfillMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamCorrectionMessage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpPolicy;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpStrategy;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerOpenException;
 import com.elastisys.autoscaler.core.utils.stats.timeseries.TimeSeriesPredicates;
 import com.elastisys.scale.commons.eventbus.EventBus;
 import com.elastisys.scale.commons.json.types.TimeInterval;
@@ -46,6 +56,23 @@ import com.elastisys.scale.commons.util.time.UtcTime;
  * monotonically increasing time-stamp order to consumers. That is, any already
  * observed values or "late arrivals" that would be delivered out of order are
  * suppressed from delivery.
+ * <p/>
+ * Streams may be given an allowed lateness, in which case each query reaches
+ * back that far before the newest delivered value, and late arrivals within
+ * that window are delivered separately as
+ * {@link MetricStreamCorrectionMessage}s. Every message carries the stream's
+ * event-time watermark: the point in time up to which the stream is complete
+ * (the newest delivered value minus the allowed lateness). Values at or
+ * before the watermark are never delivered.
+ * <p/>
+ * When the time since the last observed value of a {@link MetricStream} grows
+ * large, for example after a metric backend outage, the stream's
+ * {@link CatchUpPolicy} decides how the gap is caught up on.
+ * <p/>
+ * Streams that are set up to be polled in latest-only mode are queried via
+ * {@link MetricStream#queryLatest(Interval)} and only have their most recent
+ * value delivered on each poll. This is much cheaper for streams whose
+ * consumers only care about the current value of the metric.
  *
  * @see MetricStreamDriver
  */
@@ -75,12 +102,36 @@ public class MetricStreamingLoop implements Runnable {
      */
     private final TimeInterval firstQueryLookback;
 
+    /**
+     * The {@link MetricStreamSettings} of each {@link MetricStream}, keyed by
+     * stream id. Streams without settings use
+     * {@link MetricStreamSettings#defaults()}.
+     */
+    private final Map<String, MetricStreamSettings> streamSettings;
+
     /**
      * Tracks the time-stamp of the most recent {@link MetricValue} published
      * for each {@link MetricStream}. This time-stamp becomes the start time of
      * the next query to the stream.
      */
     private final Map<MetricStream, DateTime> lastObservations;
+    /**
+     * Tracks the event-time watermark of each {@link MetricStream}. All values
+     * at or before the watermark have been delivered. This time-stamp becomes
+     * the start time of the next query to the stream.
+     */
+    private final Map<MetricStream, DateTime> watermarks;
+    /**
+     * The values delivered for each {@link MetricStream} that are more recent
+     * than its watermark, and hence may show up in later queries again.
+     */
+    private final Map<MetricStream, Set<MetricValue>> unsettledDeliveries;
+    /**
+     * Older parts of gaps to backfill for streams that are catching up with
+     * the {@link CatchUpStrategy#NEWEST_FIRST} strategy, once the newest data
+     * has been delivered.
+     */
+    private final Map<MetricStream, Interval> pendingBackfills;
     /** Contains fault details if the latest resize iteration failed. */
     private Optional<Throwable> lastFailure = Optional.empty();
 
@@ -132,14 +183,47 @@ public class MetricStreamingLoop implements Runnable {
      */
     public MetricStreamingLoop(Logger logger, ExecutorService executor, EventBus eventBus,
             List<MetricStream> metricStreams, TimeInterval firstQueryLookback) {
+        this(logger, executor, eventBus, metricStreams, firstQueryLookback, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a new {@link MetricStreamingLoop}.
+     *
+     * @param logger
+     *            The logger to use.
+     * @param executor
+     *            Task execution service for performing work in separate
+     *            threads.
+     * @param eventBus
+     *            The {@link EventBus} onto which collected metric values are
+     *            published.
+     * @param metricStreams
+     *            The collection of {@link MetricStream}s for which metrics are
+     *            to be collected and published.
+     * @param firstQueryLookback
+     *            How far back in time to look on the first query to a
+     *            {@link MetricStream}. May be <code>null</code>, in which case
+     *            {@value #DEFAULT_FIRST_QUERY_LOOKBACK} is used.
+     * @param streamSettings
+     *            The {@link MetricStreamSettings} of each {@link MetricStream},
+     *            keyed by stream id. Streams without settings use
+     *            {@link MetricStreamSettings#defaults()}.
+     */
+    public MetricStreamingLoop(Logger logger, ExecutorService executor, EventBus eventBus,
+            List<MetricStream> metricStreams, TimeInterval firstQueryLookback,
+            Map<String, MetricStreamSettings> streamSettings) {
         this.logger = logger;
         this.executor = executor;
         this.eventBus = eventBus;
 
         this.metricStreams = new ArrayList<>(metricStreams);
         this.firstQueryLookback = Optional.ofNullable(firstQueryLookback).orElse(DEFAULT_FIRST_QUERY_LOOKBACK);
+        this.streamSettings = new HashMap<>(streamSettings);
 
         this.lastObservations = new HashMap<>();
+        this.watermarks = new HashMap<>();
+        this.unsettledDeliveries = new HashMap<>();
+        this.pendingBackfills = new HashMap<>();
     }
 
     @Override
@@ -169,11 +253,61 @@ public class MetricStreamingLoop implements Runnable {
         return this.metricStreams;
     }
 
+    /**
+     * Takes over a number of {@link MetricStream}s, along with their streaming
+     * state, from a previous {@link MetricStreamingLoop} that this loop
+     * replaces. The taken over streams replace the streams with the same ids
+     * in this loop and continue from where the previous loop left off, rather
+     * than starting over with a first query lookback. This allows a
+     * re-configured {@link MetricStreamer} to keep streaming its unchanged
+     * streams without gaps or re-queries.
+     * <p/>
+     * Should be called after the previous loop has been stopped and before
+     * this loop is first run. Waits for any ongoing run of the previous loop
+     * to complete.
+     *
+     * @param previous
+     *            The {@link MetricStreamingLoop} that this loop replaces.
+     * @param streamIds
+     *            The ids of the {@link MetricStream}s to take over. Ids that
+     *            are not present in both loops are ignored.
+     */
+    public void takeOver(MetricStreamingLoop previous, Collection<String> streamIds) {
+        previous.loopLock.lock();
+        try {
+            List<String> takenOver = new ArrayList<>();
+            for (int i = 0; i < this.metricStreams.size(); i++) {
+                String streamId = this.metricStreams.get(i).getId();
+                Optional<MetricStream> previousStream = previous.metricStreams.stream()
+                        .filter(stream -> stream.getId().equals(streamId)).findFirst();
+                if (!streamIds.contains(streamId) || !previousStream.isPresent()) {
+                    continue;
+                }
+
+                MetricStream stream = previousStream.get();
+                this.metricStreams.set(i, stream);
+                if (previous.lastObservations.containsKey(stream)) {
+                    this.lastObservations.put(stream, previous.lastObservations.get(stream));
+                    this.watermarks.put(stream, previous.watermarks.get(stream));
+                }
+                if (previous.unsettledDeliveries.containsKey(stream)) {
+                    this.unsettledDeliveries.put(stream, new HashSet<>(previous.unsettledDeliveries.get(stream)));
+                }
+                takenOver.add(streamId);
+            }
+            this.logger.debug("took over metric streams {} from previous streaming loop", takenOver);
+        } finally {
+            previous.loopLock.unlock();
+        }
+    }
+
     /**
      * Retrieves and delivers new metric values for each of the registered
      * {@link MetricStream}s. Queries are carried out in parallel and values are
      * streamed back in order of increasing time stamp. Any "late arrivals" that
-     * would be delivered out of order for the stream are silently dropped.
+     * would be delivered out of order for the stream are delivered as
+     * corrections if within the stream's allowed lateness, and are otherwise
+     * silently dropped.
      *
      * @throws InterruptedException
      * @throws ExecutionException
@@ -202,11 +336,19 @@ public class MetricStreamingLoop implements Runnable {
                 List<MetricValue> metricValues = new ArrayList<>(metricRetrievals.get(stream).get());
                 int delivered = deliver(stream, metricValues);
                 numDeliveredValues += delivered;
+                Interval backfill = this.pendingBackfills.remove(stream);
+                if (backfill != null && delivered > 0) {
+                    startBackfill(stream, backfill);
+                }
             } catch (Throwable e) {
                 this.lastFailure = Optional.of(e);
-                this.logger.error(
-                        format("failed to deliver values for metric stream '%s': %s", stream.getId(), e.getMessage()),
-                        e);
+                if (isCircuitBreakerRejection(e)) {
+                    // backend known to be down: no need for a stack trace
+                    this.logger.warn("skipped metric stream '{}': {}", stream.getId(), e.getMessage());
+                } else {
+                    this.logger.error(format("failed to deliver values for metric stream '%s': %s", stream.getId(),
+                            e.getMessage()), e);
+                }
             }
         }
 
@@ -217,6 +359,22 @@ public class MetricStreamingLoop implements Runnable {
         }
     }
 
+    /**
+     * Returns <code>true</code> if a failed query was rejected by an open
+     * {@link CircuitBreaker} rather than attempted.
+     *
+     * @param e
+     * @return
+     */
+    private static boolean isCircuitBreakerRejection(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CircuitBreakerOpenException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Delivers any new metric values fetched for a certain {@link MetricStream}
      * to the {@link EventBus}. Returns the number of new values that were
@@ -225,28 +383,68 @@ public class MetricStreamingLoop implements Runnable {
      * <p/>
      * Furthermore, already observed values or "late arrivals" that would be
      * delivered out of order are filtered out. That is, values older than last
-     * observed value are filtered out.
+     * observed value are filtered out. Late arrivals that are more recent than
+     * the stream's watermark are delivered separately, as a
+     * {@link MetricStreamCorrectionMessage}.
      *
      * @param stream
      *            The {@link MetricStream} to stream values for.
      * @param metricValues
      *            The latest collection of {@link MetricValue}s collected for
      *            the given {@link MetricStream}.
-     * @return The number of new metric values that were delivered.
+     * @return The number of new (or late) metric values that were delivered.
      */
     private int deliver(MetricStream stream, List<MetricValue> metricValues) {
         Collections.sort(metricValues);
         List<MetricValue> newMetricValues = getNewMetricValues(metricValues, stream);
-        this.logger.debug(format("%s: %d out of %d metric values newer than %s to deliver", stream.getId(),
-                newMetricValues.size(), metricValues.size(), getLastObservation(stream).get(), stream.getMetric()));
-        if (newMetricValues.isEmpty()) {
+        List<MetricValue> lateMetricValues = getLateMetricValues(metricValues, stream);
+        this.logger.debug(format("%s: %d out of %d metric values newer than %s to deliver (%d late)", stream.getId(),
+                newMetricValues.size(), metricValues.size(), getLastObservation(stream).get(),
+                lateMetricValues.size()));
+        if (newMetricValues.isEmpty() && lateMetricValues.isEmpty()) {
             return 0;
         }
 
-        this.eventBus.post(new MetricStreamMessage(stream.getId(), newMetricValues));
-        DateTime lastObservation = newMetricValues.get(newMetricValues.size() - 1).getTime();
-        setLastObservation(stream, lastObservation);
-        return newMetricValues.size();
+        if (!newMetricValues.isEmpty()) {
+            DateTime lastObservation = newMetricValues.get(newMetricValues.size() - 1).getTime();
+            setLastObservation(stream, lastObservation);
+        }
+        DateTime watermark = advanceWatermark(stream, newMetricValues, lateMetricValues);
+        if (!lateMetricValues.isEmpty()) {
+            this.eventBus.post(new MetricStreamCorrectionMessage(stream.getId(), lateMetricValues, watermark));
+        }
+        if (!newMetricValues.isEmpty()) {
+            this.eventBus.post(new MetricStreamMessage(stream.getId(), newMetricValues, watermark));
+        }
+        return newMetricValues.size() + lateMetricValues.size();
+    }
+
+    /**
+     * Moves the watermark of a {@link MetricStream} up to its last observation
+     * minus its allowed lateness (the watermark never moves backwards) and
+     * records the delivered values that are more recent than the watermark.
+     *
+     * @param stream
+     * @param newMetricValues
+     *            The new values delivered for the stream.
+     * @param lateMetricValues
+     *            The late values delivered for the stream.
+     * @return The new watermark.
+     */
+    private DateTime advanceWatermark(MetricStream stream, List<MetricValue> newMetricValues,
+            List<MetricValue> lateMetricValues) {
+        long allowedLatenessMillis = getSettings(stream).getAllowedLateness().getMillis();
+        DateTime watermark = getLastObservation(stream).get().minus(allowedLatenessMillis);
+        if (watermark.isBefore(getWatermark(stream))) {
+            watermark = getWatermark(stream);
+        }
+        this.watermarks.put(stream, watermark);
+
+        Set<MetricValue> unsettled = this.unsettledDeliveries.computeIfAbsent(stream, s -> new HashSet<>());
+        unsettled.addAll(newMetricValues);
+        unsettled.addAll(lateMetricValues);
+        unsettled.removeIf(TimeSeriesPredicates.youngerThan(watermark).negate());
+        return watermark;
     }
 
     /**
@@ -257,6 +455,7 @@ public class MetricStreamingLoop implements Runnable {
      */
     private Map<MetricStream, Future<List<MetricValue>>> startMetricRetrievals() {
         Map<MetricStream, Future<List<MetricValue>>> metricRetrievals = new HashMap<>();
+        this.pendingBackfills.clear();
         // For each metric stream, get the values that have been reported
         // since the last fetch. Do this in separate threads for increased
         // concurrency.
@@ -270,8 +469,9 @@ public class MetricStreamingLoop implements Runnable {
 
     /**
      * Returns the next query interval for a given metric stream. That is, a
-     * query interval ranging from the last observed {@link MetricValue} in the
-     * metric stream to the present time.
+     * query interval ranging from the watermark of the metric stream to the
+     * present time. Unless the stream has an allowed lateness, the watermark
+     * is the time of the last observed {@link MetricValue} in the stream.
      *
      * @param stream
      * @return
@@ -280,9 +480,11 @@ public class MetricStreamingLoop implements Runnable {
         if (!getLastObservation(stream).isPresent()) {
             // first query to metric stream: determine initial query interval
             setLastObservation(stream, getInitialQueryStart());
+            this.watermarks.put(stream, getInitialQueryStart());
         }
 
-        return new Interval(getLastObservation(stream).get(), UtcTime.now());
+        // reach back to the watermark to pick up late arrivals, if allowed
+        return new Interval(getWatermark(stream), UtcTime.now());
     }
 
     /**
@@ -297,10 +499,86 @@ public class MetricStreamingLoop implements Runnable {
      * @return A handle to the started computation.
      */
     private Future<List<MetricValue>> startMetricRetrieval(final MetricStream stream, final Interval interval) {
-        this.logger.debug("querying stream {} for interval {} ...", stream.getId(), interval);
-        Callable<List<MetricValue>> fetchTask = new FetchTask(stream, interval, new QueryOptions());
-        Future<List<MetricValue>> metricRetrieval = this.executor.submit(fetchTask);
-        return metricRetrieval;
+        if (getSettings(stream).isLatestOnly()) {
+            // gaps need no catching up on: only the newest value is of interest
+            this.logger.debug("querying stream {} for latest value in interval {} ...", stream.getId(), interval);
+            return this.executor.submit(new FetchLatestTask(stream, interval));
+        }
+
+        CatchUpPolicy catchUpPolicy = getSettings(stream).getCatchUp();
+        long maxGapMillis = catchUpPolicy.getMaxGap().getMillis();
+        if (catchUpPolicy.getStrategy() == CatchUpStrategy.FETCH_ALL || interval.toDurationMillis() <= maxGapMillis) {
+            this.logger.debug("querying stream {} for interval {} ...", stream.getId(), interval);
+            Callable<List<MetricValue>> fetchTask = new FetchTask(stream, interval, new QueryOptions());
+            Future<List<MetricValue>> metricRetrieval = this.executor.submit(fetchTask);
+            return metricRetrieval;
+        }
+
+        // gap too large: fetch the newest part as usual and catch up on the
+        // remainder according to the stream's policy
+        DateTime splitPoint = interval.getEnd().minus(maxGapMillis);
+        Interval gap = new Interval(interval.getStart(), splitPoint);
+        Interval newest = new Interval(splitPoint, interval.getEnd());
+        Callable<List<MetricValue>> fetchNewest = new FetchTask(stream, newest, new QueryOptions());
+        switch (catchUpPolicy.getStrategy()) {
+        case DOWNSAMPLE:
+            this.logger.info("stream {} catching up: querying {} downsampled ({}) and {} raw", stream.getId(), gap,
+                    catchUpPolicy.getDownsample(), newest);
+            Callable<List<MetricValue>> fetchGap = new FetchTask(stream, gap,
+                    new QueryOptions(catchUpPolicy.getDownsample()));
+            return this.executor.submit(() -> {
+                List<MetricValue> values = fetchGap.call();
+                values.addAll(fetchNewest.call());
+                return values;
+            });
+        case NEWEST_FIRST:
+            this.logger.info("stream {} catching up: querying {} before backfilling {}", stream.getId(), newest, gap);
+            this.pendingBackfills.put(stream, gap);
+            return this.executor.submit(fetchNewest);
+        case SKIP:
+        default:
+            this.logger.warn("stream {} catching up: skipping {} and querying {}", stream.getId(), gap, newest);
+            return this.executor.submit(fetchNewest);
+        }
+    }
+
+    /**
+     * Starts an asynchronous task that fetches the values of a given
+     * {@link MetricStream} that are older than the values already delivered
+     * for the stream, and delivers them as a
+     * {@link MetricStreamBackfillMessage}.
+     *
+     * @param stream
+     * @param interval
+     *            The time interval to backfill.
+     */
+    private void startBackfill(MetricStream stream, Interval interval) {
+        this.logger.debug("backfilling stream {} for interval {} ...", stream.getId(), interval);
+        FetchTask fetchTask = new FetchTask(stream, interval, new QueryOptions());
+        this.executor.submit(() -> {
+            try {
+                List<MetricValue> values = fetchTask.call().stream()
+                        .filter(TimeSeriesPredicates.olderThan(interval.getEnd())).sorted()
+                        .collect(Collectors.toList());
+                this.logger.debug("{}: backfilling {} metric values", stream.getId(), values.size());
+                if (!values.isEmpty()) {
+                    this.eventBus.post(new MetricStreamBackfillMessage(stream.getId(), values));
+                }
+            } catch (Exception e) {
+                this.logger.warn(format("failed to backfill metric stream '%s' for interval %s: %s", stream.getId(),
+                        interval, e.getMessage()), e);
+            }
+        });
+    }
+
+    /**
+     * Returns the {@link MetricStreamSettings} of a given {@link MetricStream}.
+     *
+     * @param stream
+     * @return
+     */
+    private MetricStreamSettings getSettings(MetricStream stream) {
+        return this.streamSettings.getOrDefault(stream.getId(), MetricStreamSettings.defaults());
     }
 
     /**
@@ -323,6 +601,24 @@ public class MetricStreamingLoop implements Runnable {
         return newMetricValues;
     }
 
+    /**
+     * From a list of {@link MetricValue}s, picks out the late arrivals for a
+     * given {@link MetricStream} that are still to be delivered. That is, all
+     * {@link MetricValue}s with a time-stamp after the stream's watermark but
+     * not after its last observation, which have not already been delivered.
+     *
+     * @param possiblyOldMetricValues
+     * @param stream
+     * @return
+     */
+    private List<MetricValue> getLateMetricValues(List<MetricValue> possiblyOldMetricValues, MetricStream stream) {
+        DateTime lastObservationTime = getLastObservation(stream).get();
+        Set<MetricValue> unsettled = this.unsettledDeliveries.getOrDefault(stream, Collections.emptySet());
+        return possiblyOldMetricValues.stream().filter(TimeSeriesPredicates.youngerThan(getWatermark(stream)))
+                .filter(TimeSeriesPredicates.youngerThan(lastObservationTime).negate())
+                .filter(value -> !unsettled.contains(value)).collect(Collectors.toList());
+    }
+
     /**
      * @return The last exception that occurred, if any.
      */
@@ -361,6 +657,17 @@ public class MetricStreamingLoop implements Runnable {
         return Optional.ofNullable(this.lastObservations.get(stream));
     }
 
+    /**
+     * Returns the event-time watermark of a given {@link MetricStream}. All
+     * values of the stream at or before the watermark have been delivered.
+     *
+     * @param stream
+     * @return
+     */
+    private DateTime getWatermark(MetricStream stream) {
+        return this.watermarks.get(stream);
+    }
+
     /**
      * Determines the start time to use for the first query interval to a
      * {@link MetricStream} based on the amount of lookback requested.
@@ -396,4 +703,25 @@ public class MetricStreamingLoop implements Runnable {
             return results;
         }
     }
+
+    /**
+     * A callable task that queries a given {@link MetricStream} for its most
+     * recent value.
+     */
+    private static class FetchLatestTask implements Callable<List<MetricValue>> {
+        private final MetricStream stream;
+        private final Interval interval;
+
+        public FetchLatestTask(MetricStream stream, Interval interval) {
+            this.stream = stream;
+            this.interval = interval;
+        }
+
+        @Override
+        public List<MetricValue> call() throws Exception {
+            List<MetricValue> results = new ArrayList<>();
+            this.stream.queryLatest(this.interval).ifPresent(results::add);
+            return results;
+        }
+    }
 }
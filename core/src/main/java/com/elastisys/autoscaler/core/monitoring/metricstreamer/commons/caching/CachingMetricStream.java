@@ -0,0 +1,215 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+import org.joda.time.Duration;
+import org.joda.time.Interval;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.PageFetchException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultPage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching.QueryCache.Piece;
+
+/**
+ * A {@link MetricStream} decorator that serves queries for historical data
+ * from a {@link QueryCache} as far as possible, and only queries the decorated
+ * {@link MetricStream} for the parts of the query interval that are not
+ * cached. Fetched values are added to the {@link QueryCache}.
+ * <p/>
+ * Cached and fetched values are returned in time order, one page per cached
+ * sub-interval and one page per page of each fetch. A missing sub-interval
+ * is not fetched until its first page is requested.
+ * <p/>
+ * Queries with a {@link Downsample} hint, as well as queries when the
+ * {@link QueryCache} is disabled, are passed straight to the decorated
+ * {@link MetricStream}.
+ */
+public class CachingMetricStream implements MetricStream {
+
+    /** The {@link MetricStream} whose query results are cached. */
+    private final MetricStream delegate;
+    /** Holds cached values. May be shared with other {@link MetricStream}s. */
+    private final QueryCache cache;
+    /**
+     * The data settling time of the decorated {@link MetricStream}. Data more
+     * recent than this is never cached, since the decorated
+     * {@link MetricStream} does not fetch it.
+     */
+    private final Duration dataSettlingTime;
+
+    /**
+     * Creates a {@link CachingMetricStream}.
+     *
+     * @param delegate
+     *            The {@link MetricStream} whose query results are cached.
+     * @param cache
+     *            Holds cached values. May be shared with other
+     *            {@link MetricStream}s.
+     */
+    public CachingMetricStream(MetricStream delegate, QueryCache cache) {
+        this(delegate, cache, Duration.ZERO);
+    }
+
+    /**
+     * Creates a {@link CachingMetricStream} for a {@link MetricStream} that
+     * only fetches data older than a given data settling time.
+     *
+     * @param delegate
+     *            The {@link MetricStream} whose query results are cached.
+     * @param cache
+     *            Holds cached values. May be shared with other
+     *            {@link MetricStream}s.
+     * @param dataSettlingTime
+     *            The data settling time of the decorated {@link MetricStream}.
+     *            Data more recent than this is never cached.
+     */
+    public CachingMetricStream(MetricStream delegate, QueryCache cache, Duration dataSettlingTime) {
+        checkArgument(delegate != null, "cachingMetricStream: delegate cannot be null");
+        checkArgument(cache != null, "cachingMetricStream: cache cannot be null");
+        checkArgument(dataSettlingTime != null, "cachingMetricStream: dataSettlingTime cannot be null");
+        this.delegate = delegate;
+        this.cache = cache;
+        this.dataSettlingTime = dataSettlingTime;
+    }
+
+    @Override
+    public String getId() {
+        return this.delegate.getId();
+    }
+
+    @Override
+    public String getMetric() {
+        return this.delegate.getMetric();
+    }
+
+    @Override
+    public QueryResultSet query(Interval timeInterval, QueryOptions options) throws MetricStreamException {
+        if (!this.cache.isEnabled() || options != null && options.getDownsample().isPresent()) {
+            return this.delegate.query(timeInterval, options);
+        }
+        return new CachingResultSet(this.cache.plan(getId(), timeInterval), options);
+    }
+
+    @Override
+    public Optional<MetricValue> queryLatest(Interval timeInterval) throws MetricStreamException {
+        return this.delegate.queryLatest(timeInterval);
+    }
+
+    /**
+     * Returns the {@link MetricStream} whose query results are cached.
+     *
+     * @return
+     */
+    public MetricStream getDelegate() {
+        return this.delegate;
+    }
+
+    /**
+     * A {@link QueryResultSet} that returns the values of a sequence of cached
+     * and missing sub-intervals, fetching the missing ones as it goes.
+     */
+    private class CachingResultSet implements QueryResultSet {
+        private final Iterator<Piece> pieces;
+        private final QueryOptions options;
+
+        /** The missing sub-interval being fetched, if any. */
+        private Piece fetching;
+        /** The result set of {@link #fetching}. */
+        private QueryResultSet fetchResults;
+        /**
+         * The values fetched so far for {@link #fetching}, to be cached.
+         * <code>null</code> if too many to cache.
+         */
+        private List<MetricValue> fetched;
+
+        /**
+         * The values returned with the latest time stamp so far. Since both
+         * ends of a sub-interval are included, a value on the border between
+         * two sub-intervals may be seen twice.
+         */
+        private final Set<MetricValue> lastReturned = new HashSet<>();
+
+        public CachingResultSet(List<Piece> pieces, QueryOptions options) {
+            this.pieces = pieces.iterator();
+            this.options = options;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.fetchResults != null && this.fetchResults.hasNext() || this.pieces.hasNext();
+        }
+
+        @Override
+        public QueryResultPage fetchNext() throws NoSuchElementException, PageFetchException {
+            if (this.fetchResults == null || !this.fetchResults.hasNext()) {
+                Piece piece = this.pieces.next();
+                if (piece.isCached()) {
+                    return new QueryResultPage(deduplicate(piece.getValues()));
+                }
+                startFetching(piece);
+                if (!this.fetchResults.hasNext()) {
+                    // the delegate skipped the query (for example, since the
+                    // data is too recent to have settled): nothing to cache
+                    return new QueryResultPage(Collections.emptyList());
+                }
+            }
+
+            List<MetricValue> values = this.fetchResults.fetchNext().getMetricValues();
+            if (this.fetched != null) {
+                this.fetched.addAll(values);
+                if (this.fetched.size() > CachingMetricStream.this.cache.getMaxValues()) {
+                    // too much data to cache: stop buffering
+                    this.fetched = null;
+                }
+            }
+            if (!this.fetchResults.hasNext() && this.fetched != null) {
+                CachingMetricStream.this.cache.put(getId(), this.fetching.getInterval(), this.fetched,
+                        CachingMetricStream.this.dataSettlingTime);
+                this.fetched = null;
+            }
+            return new QueryResultPage(deduplicate(values));
+        }
+
+        private void startFetching(Piece piece) throws PageFetchException {
+            try {
+                this.fetchResults = CachingMetricStream.this.delegate.query(piece.getInterval(), this.options);
+            } catch (MetricStreamException e) {
+                throw new PageFetchException(
+                        String.format("failed to query %s for %s: %s", getId(), piece.getInterval(), e.getMessage()),
+                        e);
+            }
+            this.fetching = piece;
+            this.fetched = new ArrayList<>();
+        }
+
+        private List<MetricValue> deduplicate(List<MetricValue> values) {
+            List<MetricValue> unique = new ArrayList<>(values.size());
+            for (MetricValue value : values) {
+                if (this.lastReturned.contains(value)) {
+                    continue;
+                }
+                if (!this.lastReturned.isEmpty()
+                        && value.getTime().isAfter(this.lastReturned.iterator().next().getTime())) {
+                    this.lastReturned.clear();
+                }
+                this.lastReturned.add(value);
+                unique.add(value);
+            }
+            return unique;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.joda.time.Interval;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * A bounded store of already fetched historical data for the
+ * {@link MetricStream}s of a {@link MetricStreamer}.
+ * <p/>
+ * For each metric stream, the cache keeps a set of non-overlapping time
+ * intervals (segments) for which all values are known. A query is planned
+ * (see {@link #plan(String, Interval)}) as a sequence of cached and missing
+ * sub-intervals in time order, and once a missing sub-interval has been
+ * fetched, its values are added to the cache (see
+ * {@link #put(String, Interval, List, Duration)}), where they are merged with any
+ * adjacent segments.
+ * <p/>
+ * Only data that is older than the configured minimum age is cached. When the
+ * total number of cached values exceeds the configured maximum, the least
+ * recently used segments are evicted.
+ * <p/>
+ * Time intervals are treated as closed (that is, both end points are
+ * included), just like the queries sent by the {@link MetricStream}s.
+ * <p/>
+ * A {@link QueryCache} is meant to be shared by all streams of a
+ * {@link MetricStreamer}. Instances are thread-safe.
+ *
+ * @see CachingMetricStream
+ */
+public class QueryCache {
+    /** The cache settings. {@link Optional#empty()} means disabled. */
+    private volatile Optional<QueryCacheConfig> config = Optional.empty();
+
+    /** Cached segments per metric stream, keyed on segment start. */
+    private final Map<String, TreeMap<Long, Segment>> streams = new HashMap<>();
+    /**
+     * All cached segments (mapped to their metric stream) in order of least
+     * to most recent use.
+     */
+    private final LinkedHashMap<Segment, String> lruOrder = new LinkedHashMap<>(16, 0.75f, true);
+    /** The total number of cached values. */
+    private long size = 0;
+
+    /**
+     * Enables caching with the given settings, or disables it if
+     * {@link Optional#empty()} is given. All cached data is dropped, since the
+     * stream definitions may have changed.
+     *
+     * @param config
+     *            The cache settings.
+     */
+    public synchronized void configure(Optional<QueryCacheConfig> config) {
+        checkArgument(config != null, "queryCache: config cannot be null");
+        config.ifPresent(QueryCacheConfig::validate);
+        this.config = config;
+        clear();
+    }
+
+    /**
+     * Returns <code>true</code> if caching is enabled.
+     *
+     * @return
+     */
+    public boolean isEnabled() {
+        return this.config.isPresent();
+    }
+
+    /**
+     * Returns the maximum number of values that the cache holds, or zero if
+     * caching is disabled.
+     *
+     * @return
+     */
+    public long getMaxValues() {
+        return this.config.map(QueryCacheConfig::getMaxValues).orElse(0L);
+    }
+
+    /**
+     * Drops all cached data.
+     */
+    public synchronized void clear() {
+        this.streams.clear();
+        this.lruOrder.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Returns the total number of cached values.
+     *
+     * @return
+     */
+    public synchronized long size() {
+        return this.size;
+    }
+
+    /**
+     * Splits a query for a given metric stream into cached and missing
+     * sub-intervals, in time order.
+     *
+     * @param streamId
+     *            The queried metric stream.
+     * @param interval
+     *            The query interval.
+     * @return The sub-intervals. Their union is the query interval.
+     */
+    public synchronized List<Piece> plan(String streamId, Interval interval) {
+        List<Piece> pieces = new ArrayList<>();
+        long cursor = interval.getStartMillis();
+        long end = interval.getEndMillis();
+
+        TreeMap<Long, Segment> segments = this.streams.getOrDefault(streamId, new TreeMap<>());
+        Long first = segments.floorKey(cursor);
+        for (Segment segment : segments.tailMap(first != null ? first : cursor).values()) {
+            if (segment.start > end) {
+                break;
+            }
+            long overlapStart = Math.max(cursor, segment.start);
+            long overlapEnd = Math.min(end, segment.end);
+            if (overlapStart >= overlapEnd) {
+                continue;
+            }
+            if (overlapStart > cursor) {
+                pieces.add(Piece.missing(new Interval(cursor, overlapStart, interval.getChronology())));
+            }
+            pieces.add(Piece.cached(new Interval(overlapStart, overlapEnd, interval.getChronology()),
+                    segment.valuesWithin(overlapStart, overlapEnd)));
+            this.lruOrder.get(segment);
+            cursor = overlapEnd;
+        }
+        if (cursor < end || pieces.isEmpty()) {
+            pieces.add(Piece.missing(new Interval(cursor, end, interval.getChronology())));
+        }
+        return pieces;
+    }
+
+    /**
+     * Adds the fetched values of a (previously missing) time interval of a
+     * given metric stream to the cache. Only the part of the interval that is
+     * older than the configured minimum age is cached.
+     *
+     * @param streamId
+     *            The metric stream.
+     * @param interval
+     *            The fetched time interval.
+     * @param values
+     *            All values of the metric stream within the interval.
+     * @param minAge
+     *            A minimum age of cached data that applies to this metric
+     *            stream, in addition to the configured minimum age (the
+     *            largest of the two is used).
+     */
+    public synchronized void put(String streamId, Interval interval, List<MetricValue> values, Duration minAge) {
+        if (!this.config.isPresent()) {
+            return;
+        }
+        QueryCacheConfig config = this.config.get();
+
+        DateTime horizon = UtcTime.now().minus(Math.max(config.getMinAge().getMillis(), minAge.getMillis()));
+        long start = interval.getStartMillis();
+        long end = Math.min(interval.getEndMillis(), horizon.getMillis());
+        if (start >= end) {
+            return;
+        }
+        List<MetricValue> cacheable = values.stream().filter(value -> within(value, start, end))
+                .collect(Collectors.toList());
+        if (cacheable.size() > config.getMaxValues()) {
+            return;
+        }
+
+        // merge with overlapping and adjacent segments
+        TreeMap<Long, Segment> segments = this.streams.computeIfAbsent(streamId, id -> new TreeMap<>());
+        long mergedStart = start;
+        long mergedEnd = end;
+        List<MetricValue> mergedValues = new ArrayList<>(cacheable);
+        Iterator<Entry<Long, Segment>> candidates = segments.headMap(end, true).entrySet().iterator();
+        while (candidates.hasNext()) {
+            Segment segment = candidates.next().getValue();
+            if (segment.end < start) {
+                continue;
+            }
+            mergedStart = Math.min(mergedStart, segment.start);
+            mergedEnd = Math.max(mergedEnd, segment.end);
+            segment.values.stream().filter(value -> !within(value, start, end)).forEach(mergedValues::add);
+            candidates.remove();
+            this.lruOrder.remove(segment);
+            this.size -= segment.values.size();
+        }
+        Collections.sort(mergedValues);
+
+        Segment merged = new Segment(mergedStart, mergedEnd, mergedValues);
+        segments.put(mergedStart, merged);
+        this.lruOrder.put(merged, streamId);
+        this.size += mergedValues.size();
+        evict(config.getMaxValues());
+    }
+
+    /**
+     * Evicts the least recently used segments until the cache holds no more
+     * than a given number of values.
+     *
+     * @param maxValues
+     */
+    private void evict(long maxValues) {
+        Iterator<Entry<Segment, String>> lru = this.lruOrder.entrySet().iterator();
+        while (this.size > maxValues && lru.hasNext()) {
+            Entry<Segment, String> entry = lru.next();
+            Segment segment = entry.getKey();
+            TreeMap<Long, Segment> segments = this.streams.get(entry.getValue());
+            segments.remove(segment.start);
+            if (segments.isEmpty()) {
+                this.streams.remove(entry.getValue());
+            }
+            lru.remove();
+            this.size -= segment.values.size();
+        }
+    }
+
+    private static boolean within(MetricValue value, long start, long end) {
+        long time = value.getTime().getMillis();
+        return start <= time && time <= end;
+    }
+
+    /**
+     * A time interval for which all values of a metric stream are cached.
+     */
+    private static class Segment {
+        private final long start;
+        private final long end;
+        /** The values of the segment, in order of increasing time. */
+        private final List<MetricValue> values;
+
+        public Segment(long start, long end, List<MetricValue> values) {
+            this.start = start;
+            this.end = end;
+            this.values = values;
+        }
+
+        public List<MetricValue> valuesWithin(long start, long end) {
+            return this.values.stream().filter(value -> within(value, start, end)).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * A sub-interval of a query, which is either cached (its values are
+     * known) or missing (its values need to be fetched).
+     */
+    public static class Piece {
+        private final Interval interval;
+        /** The cached values. {@link Optional#empty()} if missing. */
+        private final Optional<List<MetricValue>> values;
+
+        private Piece(Interval interval, Optional<List<MetricValue>> values) {
+            this.interval = interval;
+            this.values = values;
+        }
+
+        static Piece cached(Interval interval, List<MetricValue> values) {
+            return new Piece(interval, Optional.of(values));
+        }
+
+        static Piece missing(Interval interval) {
+            return new Piece(interval, Optional.empty());
+        }
+
+        /**
+         * The time interval covered by this {@link Piece}.
+         *
+         * @return
+         */
+        public Interval getInterval() {
+            return this.interval;
+        }
+
+        /**
+         * Returns <code>true</code> if the values of this {@link Piece} are
+         * cached.
+         *
+         * @return
+         */
+        public boolean isCached() {
+            return this.values.isPresent();
+        }
+
+        /**
+         * The cached values of this {@link Piece}, in order of increasing
+         * time.
+         *
+         * @return
+         * @throws IllegalStateException
+         *             If the {@link Piece} is not cached.
+         */
+        public List<MetricValue> getValues() throws IllegalStateException {
+            return this.values.orElseThrow(() -> new IllegalStateException("piece is not cached"));
+        }
+    }
+}
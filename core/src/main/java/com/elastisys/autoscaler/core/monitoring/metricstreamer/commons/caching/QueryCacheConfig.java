@@ -0,0 +1,105 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Configuration for a {@link QueryCache}, which keeps already fetched
+ * historical data of metric streams so that queries for overlapping time
+ * intervals only need to fetch the parts that have not been seen before.
+ *
+ * @see QueryCache
+ */
+public class QueryCacheConfig {
+    /** Default value for {@link #maxValues}. */
+    public static final long DEFAULT_MAX_VALUES = 100000L;
+    /** Default value for {@link #minAge}. */
+    public static final TimeInterval DEFAULT_MIN_AGE = new TimeInterval(5L, TimeUnit.MINUTES);
+
+    /**
+     * The maximum number of metric values to keep in the cache (for all
+     * metric streams combined). This caps the memory used by the cache. A
+     * cached value takes up in the order of a couple of hundred bytes,
+     * depending on its tags. When exceeded, the least recently used data is
+     * evicted. May be <code>null</code>. Default: {@value #DEFAULT_MAX_VALUES}.
+     */
+    private final Long maxValues;
+
+    /**
+     * The minimum age of data for it to be cached. More recent data may still
+     * change (for example, due to late-arriving data points) and is always
+     * fetched from the metric backend. May be <code>null</code>. Default:
+     * {@link #DEFAULT_MIN_AGE}.
+     */
+    private final TimeInterval minAge;
+
+    /**
+     * Creates a {@link QueryCacheConfig}.
+     *
+     * @param maxValues
+     *            The maximum number of metric values to keep in the cache (for
+     *            all metric streams combined). May be <code>null</code>.
+     *            Default: {@value #DEFAULT_MAX_VALUES}.
+     * @param minAge
+     *            The minimum age of data for it to be cached. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_MIN_AGE}.
+     */
+    public QueryCacheConfig(Long maxValues, TimeInterval minAge) {
+        this.maxValues = maxValues;
+        this.minAge = minAge;
+    }
+
+    /**
+     * The maximum number of metric values to keep in the cache (for all
+     * metric streams combined).
+     *
+     * @return
+     */
+    public long getMaxValues() {
+        return Optional.ofNullable(this.maxValues).orElse(DEFAULT_MAX_VALUES);
+    }
+
+    /**
+     * The minimum age of data for it to be cached.
+     *
+     * @return
+     */
+    public TimeInterval getMinAge() {
+        return Optional.ofNullable(this.minAge).orElse(DEFAULT_MIN_AGE);
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            checkArgument(getMaxValues() > 0, "maxValues must be positive");
+            getMinAge().validate();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("queryCache: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getMaxValues(), getMinAge());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof QueryCacheConfig) {
+            QueryCacheConfig that = (QueryCacheConfig) obj;
+            return Objects.equals(getMaxValues(), that.getMaxValues())
+                    && Objects.equals(getMinAge(), that.getMinAge());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
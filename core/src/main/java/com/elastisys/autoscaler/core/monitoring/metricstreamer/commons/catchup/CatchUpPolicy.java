@@ -0,0 +1,143 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.DownsampleFunction;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamingLoop;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Controls how the {@link MetricStreamingLoop} catches up on a
+ * {@link MetricStream} with a large gap in its data, typically after a metric
+ * backend outage.
+ * <p/>
+ * Normally, each query to a {@link MetricStream} asks for all data since the
+ * last observed value. When that interval is longer than {@link #maxGap}, the
+ * {@link #strategy} decides what is done with the part of the interval that
+ * precedes the newest {@link #maxGap} of data, so that a current view of the
+ * metric can be regained within a single poll.
+ */
+public class CatchUpPolicy {
+    /** Default value for {@link #strategy}. */
+    public static final CatchUpStrategy DEFAULT_STRATEGY = CatchUpStrategy.FETCH_ALL;
+    /** Default value for {@link #maxGap}. */
+    public static final TimeInterval DEFAULT_MAX_GAP = new TimeInterval(10L, TimeUnit.MINUTES);
+    /** Default value for {@link #downsample}. */
+    public static final Downsample DEFAULT_DOWNSAMPLE = new Downsample(new TimeInterval(1L, TimeUnit.MINUTES),
+            DownsampleFunction.MEAN);
+
+    /**
+     * How to catch up on a gap that is longer than {@link #maxGap}. May be
+     * <code>null</code>. Default: {@link #DEFAULT_STRATEGY}.
+     */
+    private final CatchUpStrategy strategy;
+    /**
+     * The longest query interval that is fetched as usual. May be
+     * <code>null</code>. Default: {@link #DEFAULT_MAX_GAP}.
+     */
+    private final TimeInterval maxGap;
+    /**
+     * The downsampling to request for the older part of a gap with the
+     * {@link CatchUpStrategy#DOWNSAMPLE} strategy. May be <code>null</code>.
+     * Default: {@link #DEFAULT_DOWNSAMPLE}.
+     */
+    private final Downsample downsample;
+
+    /**
+     * Creates a {@link CatchUpPolicy}.
+     *
+     * @param strategy
+     *            How to catch up on a gap that is longer than {@code maxGap}.
+     *            May be <code>null</code>. Default: {@link #DEFAULT_STRATEGY}.
+     * @param maxGap
+     *            The longest query interval that is fetched as usual. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_MAX_GAP}.
+     * @param downsample
+     *            The downsampling to request for the older part of a gap with
+     *            the {@link CatchUpStrategy#DOWNSAMPLE} strategy. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_DOWNSAMPLE}.
+     */
+    public CatchUpPolicy(CatchUpStrategy strategy, TimeInterval maxGap, Downsample downsample) {
+        this.strategy = strategy;
+        this.maxGap = maxGap;
+        this.downsample = downsample;
+    }
+
+    /**
+     * Returns a {@link CatchUpPolicy} that always fetches all data since the
+     * last observed value.
+     *
+     * @return
+     */
+    public static CatchUpPolicy fetchAll() {
+        return new CatchUpPolicy(CatchUpStrategy.FETCH_ALL, null, null);
+    }
+
+    /**
+     * How to catch up on a gap that is longer than {@link #getMaxGap()}.
+     *
+     * @return
+     */
+    public CatchUpStrategy getStrategy() {
+        return Optional.ofNullable(this.strategy).orElse(DEFAULT_STRATEGY);
+    }
+
+    /**
+     * The longest query interval that is fetched as usual.
+     *
+     * @return
+     */
+    public TimeInterval getMaxGap() {
+        return Optional.ofNullable(this.maxGap).orElse(DEFAULT_MAX_GAP);
+    }
+
+    /**
+     * The downsampling to request for the older part of a gap with the
+     * {@link CatchUpStrategy#DOWNSAMPLE} strategy.
+     *
+     * @return
+     */
+    public Downsample getDownsample() {
+        return Optional.ofNullable(this.downsample).orElse(DEFAULT_DOWNSAMPLE);
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            getMaxGap().validate();
+            checkArgument(getMaxGap().getMillis() > 0, "maxGap must be positive");
+            checkArgument(getDownsample().getInterval() != null, "downsample: missing interval");
+            getDownsample().getInterval().validate();
+            checkArgument(getDownsample().getInterval().getMillis() > 0, "downsample: interval must be positive");
+            checkArgument(getDownsample().getFunction() != null, "downsample: missing function");
+        } catch (Exception e) {
+            throw new IllegalArgumentException("catchUp: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getStrategy(), getMaxGap(), getDownsample());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof CatchUpPolicy) {
+            CatchUpPolicy that = (CatchUpPolicy) obj;
+            return Objects.equals(getStrategy(), that.getStrategy()) && Objects.equals(getMaxGap(), that.getMaxGap())
+                    && Objects.equals(getDownsample(), that.getDownsample());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
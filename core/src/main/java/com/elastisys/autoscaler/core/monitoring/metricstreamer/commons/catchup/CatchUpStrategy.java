@@ -0,0 +1,31 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamBackfillMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+
+/**
+ * Describes how a metric stream catches up on a gap in its data that is longer
+ * than the {@link CatchUpPolicy#getMaxGap()}, typically after a metric backend
+ * outage.
+ *
+ * @see CatchUpPolicy
+ */
+public enum CatchUpStrategy {
+    /** Fetch all raw data in the gap in a single (possibly huge) query. */
+    FETCH_ALL,
+    /**
+     * Fetch and deliver the newest {@code maxGap} of data first. The remainder
+     * of the gap is fetched in the background and delivered as a
+     * {@link MetricStreamBackfillMessage}, since it is older than the values
+     * already delivered as {@link MetricStreamMessage}s.
+     */
+    NEWEST_FIRST,
+    /**
+     * Fetch the newest {@code maxGap} of data raw and the remainder of the gap
+     * with a {@link Downsample} query hint.
+     */
+    DOWNSAMPLE,
+    /** Only fetch the newest {@code maxGap} of data and skip the remainder. */
+    SKIP;
+}
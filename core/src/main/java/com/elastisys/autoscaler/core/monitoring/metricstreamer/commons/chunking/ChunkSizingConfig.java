@@ -0,0 +1,156 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Configuration for adaptive sizing of the sub-queries (chunks) that a long
+ * metric query is broken into.
+ * <p/>
+ * Rather than always fetching chunks of a metric stream's static
+ * {@code queryChunkSize}, chunks are sized to produce roughly
+ * {@link #targetPoints} data points (and, optionally, no more than
+ * {@link #targetResponseBytes} of response data) based on the data density
+ * observed in earlier responses for the same stream. The static
+ * {@code queryChunkSize} is used until the data density of a stream is known.
+ * It also acts as an upper bound, unless a {@link #maxChunkSize} is given, in
+ * which case the chunks of sparse streams may grow up to that size.
+ *
+ * @see QueryChunkPlanner
+ */
+public class ChunkSizingConfig {
+    /** Default value for {@link #targetPoints}. */
+    public static final int DEFAULT_TARGET_POINTS = 5000;
+    /** Default value for {@link #minChunkSize}. */
+    public static final TimeInterval DEFAULT_MIN_CHUNK_SIZE = new TimeInterval(1L, TimeUnit.MINUTES);
+
+    /**
+     * The number of data points to aim for in each chunk. May be
+     * <code>null</code>. Default: {@value #DEFAULT_TARGET_POINTS}.
+     */
+    private final Integer targetPoints;
+    /**
+     * The response size (in bytes) to aim for in each chunk. May be
+     * <code>null</code>, in which case chunks are only sized by
+     * {@link #targetPoints}. Only honored by metric streamers that can tell
+     * the size of responses.
+     */
+    private final Long targetResponseBytes;
+    /**
+     * The smallest chunk to ever query for. May be <code>null</code>. Default:
+     * {@link #DEFAULT_MIN_CHUNK_SIZE}.
+     */
+    private final TimeInterval minChunkSize;
+    /**
+     * The largest chunk to ever query for. May be <code>null</code>, in which
+     * case chunks never grow beyond the metric stream's
+     * {@code queryChunkSize}.
+     */
+    private final TimeInterval maxChunkSize;
+
+    /**
+     * Creates a {@link ChunkSizingConfig}.
+     *
+     * @param targetPoints
+     *            The number of data points to aim for in each chunk. May be
+     *            <code>null</code>. Default: {@value #DEFAULT_TARGET_POINTS}.
+     * @param targetResponseBytes
+     *            The response size (in bytes) to aim for in each chunk. May be
+     *            <code>null</code>, in which case chunks are only sized by
+     *            {@code targetPoints}.
+     * @param minChunkSize
+     *            The smallest chunk to ever query for. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_MIN_CHUNK_SIZE}.
+     * @param maxChunkSize
+     *            The largest chunk to ever query for. May be
+     *            <code>null</code>, in which case chunks never grow beyond the
+     *            metric stream's {@code queryChunkSize}.
+     */
+    public ChunkSizingConfig(Integer targetPoints, Long targetResponseBytes, TimeInterval minChunkSize,
+            TimeInterval maxChunkSize) {
+        this.targetPoints = targetPoints;
+        this.targetResponseBytes = targetResponseBytes;
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    /**
+     * The number of data points to aim for in each chunk.
+     *
+     * @return
+     */
+    public int getTargetPoints() {
+        return Optional.ofNullable(this.targetPoints).orElse(DEFAULT_TARGET_POINTS);
+    }
+
+    /**
+     * The response size (in bytes) to aim for in each chunk, if any.
+     *
+     * @return
+     */
+    public Optional<Long> getTargetResponseBytes() {
+        return Optional.ofNullable(this.targetResponseBytes);
+    }
+
+    /**
+     * The smallest chunk to ever query for.
+     *
+     * @return
+     */
+    public TimeInterval getMinChunkSize() {
+        return Optional.ofNullable(this.minChunkSize).orElse(DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * The largest chunk to ever query for, if any.
+     *
+     * @return
+     */
+    public Optional<TimeInterval> getMaxChunkSize() {
+        return Optional.ofNullable(this.maxChunkSize);
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            checkArgument(getTargetPoints() > 0, "targetPoints must be positive");
+            checkArgument(getTargetResponseBytes().orElse(1L) > 0, "targetResponseBytes must be positive");
+            getMinChunkSize().validate();
+            checkArgument(getMinChunkSize().getMillis() > 0, "minChunkSize must be positive");
+            if (getMaxChunkSize().isPresent()) {
+                getMaxChunkSize().get().validate();
+                checkArgument(getMaxChunkSize().get().getMillis() >= getMinChunkSize().getMillis(),
+                        "maxChunkSize must not be smaller than minChunkSize");
+            }
+        } catch (Exception e) {
+            throw new IllegalArgumentException("chunkSizing: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getTargetPoints(), this.targetResponseBytes, getMinChunkSize(), this.maxChunkSize);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof ChunkSizingConfig) {
+            ChunkSizingConfig that = (ChunkSizingConfig) obj;
+            return Objects.equals(getTargetPoints(), that.getTargetPoints())
+                    && Objects.equals(this.targetResponseBytes, that.targetResponseBytes)
+                    && Objects.equals(getMinChunkSize(), that.getMinChunkSize())
+                    && Objects.equals(this.maxChunkSize, that.maxChunkSize);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
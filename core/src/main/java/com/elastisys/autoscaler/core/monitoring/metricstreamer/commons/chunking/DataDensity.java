@@ -0,0 +1,59 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking;
+
+import java.util.Optional;
+
+/**
+ * Keeps a smoothed estimate of how much data a metric stream produces per
+ * millisecond of queried time, learned from earlier query responses.
+ * <p/>
+ * Estimates are exponentially weighted moving averages, so that the estimate
+ * follows changes in the stream's data rate (for example, when more hosts start
+ * reporting a metric) without over-reacting to a single sparse chunk.
+ * <p/>
+ * Thread-safe.
+ */
+class DataDensity {
+    /** Weight given to the most recent observation. */
+    static final double SMOOTHING = 0.3;
+
+    /** Data points per millisecond. <code>null</code> until observed. */
+    private Double pointsPerMilli = null;
+    /** Response bytes per millisecond. <code>null</code> until observed. */
+    private Double bytesPerMilli = null;
+
+    /**
+     * Records the size of the response to a query for a time interval of a
+     * given length.
+     *
+     * @param millis
+     *            The length of the queried time interval.
+     * @param points
+     *            The number of data points returned.
+     * @param responseBytes
+     *            The size of the response. A negative value means unknown.
+     */
+    public synchronized void observe(long millis, int points, long responseBytes) {
+        if (millis <= 0) {
+            return;
+        }
+        this.pointsPerMilli = smooth(this.pointsPerMilli, (double) points / millis);
+        if (responseBytes >= 0) {
+            this.bytesPerMilli = smooth(this.bytesPerMilli, (double) responseBytes / millis);
+        }
+    }
+
+    public synchronized Optional<Double> getPointsPerMilli() {
+        return Optional.ofNullable(this.pointsPerMilli);
+    }
+
+    public synchronized Optional<Double> getBytesPerMilli() {
+        return Optional.ofNullable(this.bytesPerMilli);
+    }
+
+    private static double smooth(Double estimate, double observation) {
+        if (estimate == null) {
+            return observation;
+        }
+        return SMOOTHING * observation + (1 - SMOOTHING) * estimate;
+    }
+}
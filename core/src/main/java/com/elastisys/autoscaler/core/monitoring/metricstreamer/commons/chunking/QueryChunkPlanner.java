@@ -0,0 +1,76 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.joda.time.Duration;
+import org.joda.time.Interval;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+
+/**
+ * Plans how a query spanning a long time interval is broken into chunks
+ * (sub-queries) that are fetched one at a time.
+ * <p/>
+ * Without a {@link ChunkSizingConfig}, every chunk is as large as the
+ * {@link MetricStream}'s chunk size (its {@code queryChunkSize}). With
+ * adaptive sizing enabled, the data density of each {@link MetricStream} is
+ * learned from the responses to earlier chunks and chunks are sized to return
+ * roughly the targeted number of data points (or bytes), which keeps responses
+ * from dense streams from growing huge. Chunks never shrink below the
+ * {@link ChunkSizingConfig#getMinChunkSize()} and never grow beyond the
+ * {@link ChunkSizingConfig#getMaxChunkSize()}, or beyond the stream's
+ * {@code queryChunkSize} when no maximum is given. Hence, a maximum chunk size
+ * needs to be given for sparse streams to be queried in fewer, larger chunks.
+ * <p/>
+ * A {@link QueryChunkPlanner} is meant to be shared by all streams of a
+ * {@link MetricStreamer} and retains what it has learned about a stream across
+ * reconfigurations.
+ */
+public class QueryChunkPlanner {
+    /** The chunk sizing settings. {@link Optional#empty()} means fixed. */
+    private volatile Optional<ChunkSizingConfig> config = Optional.empty();
+    /** Observed data density per metric stream. */
+    private final Map<String, DataDensity> densities = new ConcurrentHashMap<>();
+
+    /**
+     * Enables adaptive chunk sizing with the given settings, or disables it if
+     * {@link Optional#empty()} is given, and forgets the data density of any
+     * metric stream that is not among the given ones.
+     *
+     * @param config
+     *            The chunk sizing settings.
+     * @param streamIds
+     *            The metric streams that are still in use.
+     */
+    public void configure(Optional<ChunkSizingConfig> config, Collection<String> streamIds) {
+        checkArgument(config != null, "queryChunkPlanner: config cannot be null");
+        config.ifPresent(ChunkSizingConfig::validate);
+        this.config = config;
+        this.densities.keySet().retainAll(streamIds);
+    }
+
+    /**
+     * Plans the chunks of a query for a given metric stream.
+     *
+     * @param streamId
+     *            The queried metric stream.
+     * @param interval
+     *            The query interval.
+     * @param chunkSize
+     *            The stream's chunk size. Used while the data density of the
+     *            stream is unknown, and as the largest chunk to ever query for
+     *            unless the {@link ChunkSizingConfig} gives a maximum chunk
+     *            size.
+     * @return
+     */
+    public QueryChunks split(String streamId, Interval interval, Duration chunkSize) {
+        DataDensity density = this.densities.computeIfAbsent(streamId, id -> new DataDensity());
+        return new QueryChunks(interval, chunkSize, this.config, density);
+    }
+}
@@ -0,0 +1,120 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.joda.time.Interval;
+
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * The chunks (sub-query intervals) of a single query, planned one at a time by
+ * a {@link QueryChunkPlanner}.
+ * <p/>
+ * Each chunk is sized when it is requested via {@link #next()}, which allows
+ * the size of later chunks to take into account the response sizes reported
+ * for earlier chunks via {@link #observe(Interval, int, long)}.
+ * <p/>
+ * Not thread-safe: meant to be consumed by a single result set.
+ */
+public class QueryChunks {
+    /** The full query interval. */
+    private final Interval interval;
+    /**
+     * The size of chunks while the data density is unknown (and the upper
+     * bound unless the {@link ChunkSizingConfig} has a larger one).
+     */
+    private final Duration chunkSize;
+    /** The adaptive sizing settings. {@link Optional#empty()} means fixed. */
+    private final Optional<ChunkSizingConfig> config;
+    /** The observed data density of the queried stream. */
+    private final DataDensity density;
+
+    /** Start of the next chunk. */
+    private DateTime nextStart;
+
+    QueryChunks(Interval interval, Duration chunkSize, Optional<ChunkSizingConfig> config, DataDensity density) {
+        checkArgument(chunkSize.getMillis() > 0, "queryChunks: chunkSize must be positive");
+        this.interval = interval;
+        this.chunkSize = chunkSize;
+        this.config = config;
+        this.density = density;
+        this.nextStart = interval.getStart();
+    }
+
+    /**
+     * Returns <code>true</code> if there is still some part of the query
+     * interval left to query.
+     *
+     * @return
+     */
+    public boolean hasNext() {
+        return this.nextStart.isBefore(this.interval.getEnd());
+    }
+
+    /**
+     * Plans the next chunk to query.
+     *
+     * @return
+     * @throws NoSuchElementException
+     *             if the entire query interval has been covered.
+     */
+    public Interval next() throws NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("query interval has been exhausted");
+        }
+        DateTime start = this.nextStart;
+        DateTime end = start.plus(chunkSizeMillis());
+        if (end.isAfter(this.interval.getEnd())) {
+            end = this.interval.getEnd();
+        }
+        this.nextStart = end;
+        return new Interval(start, end);
+    }
+
+    /**
+     * Reports the size of the response to a chunk, to help size the chunks of
+     * this and later queries for the same metric stream.
+     *
+     * @param chunk
+     *            The queried chunk.
+     * @param points
+     *            The number of data points returned.
+     * @param responseBytes
+     *            The size of the response, or a negative value if unknown.
+     */
+    public void observe(Interval chunk, int points, long responseBytes) {
+        this.density.observe(chunk.toDurationMillis(), points, responseBytes);
+    }
+
+    private long chunkSizeMillis() {
+        long chunkMillis = this.chunkSize.getMillis();
+        if (!this.config.isPresent()) {
+            return chunkMillis;
+        }
+        ChunkSizingConfig config = this.config.get();
+
+        long maxMillis = config.getMaxChunkSize().map(TimeInterval::getMillis).orElse(chunkMillis);
+        Optional<Double> pointsPerMilli = this.density.getPointsPerMilli();
+        if (!pointsPerMilli.isPresent()) {
+            // nothing learned about the stream yet
+            return Math.min(chunkMillis, maxMillis);
+        }
+
+        // the sparser the stream, the larger the chunk (up to the maximum)
+        double millis = maxMillis;
+        if (pointsPerMilli.get() > 0) {
+            millis = Math.min(millis, config.getTargetPoints() / pointsPerMilli.get());
+        }
+        Optional<Double> bytesPerMilli = this.density.getBytesPerMilli();
+        if (config.getTargetResponseBytes().isPresent() && bytesPerMilli.isPresent() && bytesPerMilli.get() > 0) {
+            millis = Math.min(millis, config.getTargetResponseBytes().get() / bytesPerMilli.get());
+        }
+        long minMillis = Math.min(config.getMinChunkSize().getMillis(), maxMillis);
+        return Math.max(minMillis, (long) millis);
+    }
+}
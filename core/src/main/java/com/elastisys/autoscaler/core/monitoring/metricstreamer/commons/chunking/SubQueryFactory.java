@@ -0,0 +1,26 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking;
+
+import org.joda.time.Interval;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+
+/**
+ * Prepares the sub-query that fetches a single chunk of a query, as planned by
+ * {@link QueryChunks}.
+ *
+ * @param <Q>
+ *            The type of sub-query.
+ */
+@FunctionalInterface
+public interface SubQueryFactory<Q> {
+
+    /**
+     * Prepares the sub-query for a given chunk.
+     *
+     * @param chunk
+     *            The chunk (time interval) to query.
+     * @return
+     * @throws MetricStreamException
+     */
+    Q create(Interval chunk) throws MetricStreamException;
+}
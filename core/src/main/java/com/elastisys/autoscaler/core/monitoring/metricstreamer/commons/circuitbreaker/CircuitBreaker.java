@@ -0,0 +1,272 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * A circuit breaker that guards calls to a single backend endpoint (such as a
+ * metric database server), so that an unavailable backend costs next to
+ * nothing instead of having every query block a thread until it times out.
+ * <p/>
+ * The {@link CircuitBreaker} starts out {@link State#CLOSED}, letting all calls
+ * through. After {@link CircuitBreakerConfig#getFailureThreshold()}
+ * consecutive failures it goes {@link State#OPEN} and rejects all calls with a
+ * {@link CircuitBreakerOpenException}. Once
+ * {@link CircuitBreakerConfig#getResetTimeout()} has passed, the circuit goes
+ * {@link State#HALF_OPEN} and a single probe call is let through. If the probe
+ * succeeds the circuit is closed again, otherwise it is re-opened for another
+ * reset timeout.
+ * <p/>
+ * Callers either use {@link #call(Callable)}, or surround their backend calls
+ * with {@link #acquirePermission()} followed by {@link #onSuccess()} or
+ * {@link #onFailure(Throwable)}, which allows them to decide what failures
+ * indicate an unavailable backend (as opposed to, say, a malformed query).
+ *
+ * @see CircuitBreakerRegistry
+ */
+public class CircuitBreaker {
+    /** The states of a {@link CircuitBreaker}. */
+    public static enum State {
+        /** Calls are let through. */
+        CLOSED,
+        /** Calls are rejected. */
+        OPEN,
+        /** A single probe call is let through. */
+        HALF_OPEN
+    }
+
+    private final Logger logger;
+    /** The backend endpoint guarded by this {@link CircuitBreaker}. */
+    private final String endpoint;
+    /** Failure threshold and reset timeout. */
+    private CircuitBreakerConfig config;
+
+    private State state = State.CLOSED;
+    /** The number of failed calls since the last successful call. */
+    private int consecutiveFailures = 0;
+    /** The time when the circuit was last opened. */
+    private DateTime openedAt = null;
+    /** The time when the current half-open probe call was let through. */
+    private DateTime probeStartedAt = null;
+    /** The last failure reported to this {@link CircuitBreaker}. */
+    private Optional<Throwable> lastFailure = Optional.empty();
+
+    /**
+     * Creates a {@link CircuitBreaker} in {@link State#CLOSED} state.
+     *
+     * @param logger
+     * @param endpoint
+     *            The backend endpoint guarded by this {@link CircuitBreaker}.
+     * @param config
+     *            Failure threshold and reset timeout.
+     */
+    public CircuitBreaker(Logger logger, String endpoint, CircuitBreakerConfig config) {
+        checkArgument(logger != null, "circuitBreaker: logger cannot be null");
+        checkArgument(endpoint != null, "circuitBreaker: endpoint cannot be null");
+        checkArgument(config != null, "circuitBreaker: config cannot be null");
+        config.validate();
+        this.logger = logger;
+        this.endpoint = endpoint;
+        this.config = config;
+    }
+
+    /**
+     * Runs a call through the {@link CircuitBreaker}. Any exception thrown by
+     * the call is counted as a failure.
+     *
+     * @param call
+     * @return The result of the call.
+     * @throws CircuitBreakerOpenException
+     *             If the call was rejected since the circuit is open.
+     * @throws Exception
+     *             Any exception thrown by the call.
+     */
+    public <T> T call(Callable<T> call) throws CircuitBreakerOpenException, Exception {
+        acquirePermission();
+        try {
+            T result = call.call();
+            onSuccess();
+            return result;
+        } catch (Exception e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Asks for permission to make a call to the backend. Returns if the call
+     * may proceed, in which case the caller must report the outcome via
+     * {@link #onSuccess()} or {@link #onFailure(Throwable)}.
+     *
+     * @throws CircuitBreakerOpenException
+     *             If the circuit is open.
+     */
+    public synchronized void acquirePermission() throws CircuitBreakerOpenException {
+        DateTime now = UtcTime.now();
+        switch (this.state) {
+        case CLOSED:
+            return;
+        case OPEN:
+            if (!now.isBefore(nextProbeTime())) {
+                this.logger.info("circuit breaker for {} half-open: probing backend", this.endpoint);
+                this.state = State.HALF_OPEN;
+                this.probeStartedAt = now;
+                return;
+            }
+            throw rejection();
+        case HALF_OPEN:
+            // only one probe at a time, unless the probe appears to be lost
+            if (!now.isBefore(this.probeStartedAt.plus(resetTimeoutMillis()))) {
+                this.probeStartedAt = now;
+                return;
+            }
+            throw rejection();
+        default:
+            throw new IllegalStateException("unrecognized circuit breaker state: " + this.state);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if a call to the backend would currently be
+     * permitted, without acquiring that permission. Can be used to skip the
+     * preparation of calls that would be rejected anyway.
+     *
+     * @return
+     */
+    public synchronized boolean isCallPermitted() {
+        DateTime now = UtcTime.now();
+        switch (this.state) {
+        case OPEN:
+            return !now.isBefore(nextProbeTime());
+        case HALF_OPEN:
+            return !now.isBefore(this.probeStartedAt.plus(resetTimeoutMillis()));
+        default:
+            return true;
+        }
+    }
+
+    /**
+     * Reports that a permitted call succeeded. Closes the circuit.
+     */
+    public synchronized void onSuccess() {
+        if (this.state != State.CLOSED) {
+            this.logger.info("circuit breaker for {} closed: backend has recovered", this.endpoint);
+        }
+        this.state = State.CLOSED;
+        this.consecutiveFailures = 0;
+        this.openedAt = null;
+        this.probeStartedAt = null;
+        this.lastFailure = Optional.empty();
+    }
+
+    /**
+     * Reports that a permitted call failed. Opens the circuit if the call was
+     * a half-open probe or if the failure threshold was reached.
+     *
+     * @param failure
+     *            The failure.
+     */
+    public synchronized void onFailure(Throwable failure) {
+        this.consecutiveFailures++;
+        this.lastFailure = Optional.ofNullable(failure);
+        if (this.state == State.HALF_OPEN || this.state == State.CLOSED
+                && this.consecutiveFailures >= this.config.getFailureThreshold()) {
+            open();
+        }
+    }
+
+    private void open() {
+        this.state = State.OPEN;
+        this.openedAt = UtcTime.now();
+        this.probeStartedAt = null;
+        this.logger.warn("circuit breaker for {} opened after {} consecutive failure(s): "
+                + "rejecting calls until {}. last failure: {}", this.endpoint, this.consecutiveFailures,
+                nextProbeTime(), lastFailureMessage());
+    }
+
+    private CircuitBreakerOpenException rejection() {
+        return new CircuitBreakerOpenException(String.format(
+                "circuit breaker for %s is %s since %s (next probe at %s) after %d consecutive failure(s): %s",
+                this.endpoint, this.state, this.openedAt, nextProbeTime(), this.consecutiveFailures,
+                lastFailureMessage()));
+    }
+
+    private DateTime nextProbeTime() {
+        if (this.state == State.HALF_OPEN) {
+            return this.probeStartedAt.plus(resetTimeoutMillis());
+        }
+        return this.openedAt.plus(resetTimeoutMillis());
+    }
+
+    private long resetTimeoutMillis() {
+        return this.config.getResetTimeout().getMillis();
+    }
+
+    private String lastFailureMessage() {
+        return this.lastFailure.map(Throwable::getMessage).orElse("unknown");
+    }
+
+    /**
+     * Updates the failure threshold and reset timeout of this
+     * {@link CircuitBreaker} without changing its state.
+     *
+     * @param config
+     */
+    public synchronized void setConfig(CircuitBreakerConfig config) {
+        checkArgument(config != null, "circuitBreaker: config cannot be null");
+        config.validate();
+        this.config = config;
+    }
+
+    /**
+     * Returns the backend endpoint guarded by this {@link CircuitBreaker}.
+     *
+     * @return
+     */
+    public String getEndpoint() {
+        return this.endpoint;
+    }
+
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return this.consecutiveFailures;
+    }
+
+    /**
+     * Returns the time when the circuit was opened, if it isn't
+     * {@link State#CLOSED}.
+     *
+     * @return
+     */
+    public synchronized Optional<DateTime> getOpenedAt() {
+        return Optional.ofNullable(this.openedAt);
+    }
+
+    /**
+     * Returns the last failure reported since the circuit was last closed.
+     *
+     * @return
+     */
+    public synchronized Optional<Throwable> getLastFailure() {
+        return this.lastFailure;
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (this.state == State.CLOSED) {
+            return String.format("%s: %s", this.endpoint, this.state);
+        }
+        return String.format("%s: %s since %s (next probe at %s), last failure: %s", this.endpoint, this.state,
+                this.openedAt, nextProbeTime(), lastFailureMessage());
+    }
+}
@@ -0,0 +1,114 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Configuration for the {@link CircuitBreaker}s that guard the queries that a
+ * metric streamer sends to its backend.
+ *
+ * @see CircuitBreaker
+ */
+public class CircuitBreakerConfig {
+    /** Default value for {@link #failureThreshold}. */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    /** Default value for {@link #resetTimeout}. */
+    public static final TimeInterval DEFAULT_RESET_TIMEOUT = new TimeInterval(30L, TimeUnit.SECONDS);
+
+    /**
+     * The number of consecutive failed calls to a backend that will open the
+     * circuit. May be <code>null</code>. Default:
+     * {@value #DEFAULT_FAILURE_THRESHOLD}.
+     */
+    private final Integer failureThreshold;
+
+    /**
+     * The time that an opened circuit rejects calls before a single probe call
+     * is let through to check if the backend has recovered. May be
+     * <code>null</code>. Default: {@link #DEFAULT_RESET_TIMEOUT}.
+     */
+    private final TimeInterval resetTimeout;
+
+    /**
+     * Creates a {@link CircuitBreakerConfig}.
+     *
+     * @param failureThreshold
+     *            The number of consecutive failed calls to a backend that will
+     *            open the circuit. May be <code>null</code>. Default:
+     *            {@value #DEFAULT_FAILURE_THRESHOLD}.
+     * @param resetTimeout
+     *            The time that an opened circuit rejects calls before a single
+     *            probe call is let through to check if the backend has
+     *            recovered. May be <code>null</code>. Default:
+     *            {@link #DEFAULT_RESET_TIMEOUT}.
+     */
+    public CircuitBreakerConfig(Integer failureThreshold, TimeInterval resetTimeout) {
+        this.failureThreshold = failureThreshold;
+        this.resetTimeout = resetTimeout;
+    }
+
+    /**
+     * The number of consecutive failed calls to a backend that will open the
+     * circuit.
+     *
+     * @return
+     */
+    public int getFailureThreshold() {
+        return Optional.ofNullable(this.failureThreshold).orElse(DEFAULT_FAILURE_THRESHOLD);
+    }
+
+    /**
+     * The time that an opened circuit rejects calls before a single probe call
+     * is let through to check if the backend has recovered.
+     *
+     * @return
+     */
+    public TimeInterval getResetTimeout() {
+        return Optional.ofNullable(this.resetTimeout).orElse(DEFAULT_RESET_TIMEOUT);
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            checkArgument(getFailureThreshold() >= 1, "failureThreshold must be at least 1");
+            getResetTimeout().validate();
+            checkArgument(getResetTimeout().getMillis() > 0, "resetTimeout must be positive");
+        } catch (Exception e) {
+            throw new IllegalArgumentException("circuitBreaker: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a {@link CircuitBreakerConfig} with default settings.
+     *
+     * @return
+     */
+    public static CircuitBreakerConfig defaultConfig() {
+        return new CircuitBreakerConfig(null, null);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getFailureThreshold(), getResetTimeout());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof CircuitBreakerConfig) {
+            CircuitBreakerConfig that = (CircuitBreakerConfig) obj;
+            return Objects.equals(getFailureThreshold(), that.getFailureThreshold())
+                    && Objects.equals(getResetTimeout(), that.getResetTimeout());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -0,0 +1,15 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+
+/**
+ * Thrown when a call to a backend is rejected without being attempted, since
+ * the {@link CircuitBreaker} for the backend is open.
+ */
+public class CircuitBreakerOpenException extends MetricStreamException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,100 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker.State;
+
+/**
+ * Keeps one {@link CircuitBreaker} per backend endpoint for a
+ * {@link MetricStreamer}. All metric streams that query the same endpoint share
+ * its {@link CircuitBreaker}, so an outage is detected once rather than per
+ * stream.
+ * <p/>
+ * The registry is meant to outlive re-configurations of its
+ * {@link MetricStreamer}, so that the state of an endpoint is retained as long
+ * as it stays in use.
+ */
+public class CircuitBreakerRegistry {
+    private final Logger logger;
+    /** {@link CircuitBreaker}s keyed by endpoint. */
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    /** The configuration applied to all {@link CircuitBreaker}s. */
+    private volatile CircuitBreakerConfig config;
+
+    /**
+     * Creates a {@link CircuitBreakerRegistry} with default
+     * {@link CircuitBreakerConfig}.
+     *
+     * @param logger
+     */
+    public CircuitBreakerRegistry(Logger logger) {
+        this.logger = logger;
+        this.config = CircuitBreakerConfig.defaultConfig();
+    }
+
+    /**
+     * Sets the configuration to use for all (current and future)
+     * {@link CircuitBreaker}s, and forgets about any endpoint that is not
+     * among the given ones.
+     *
+     * @param config
+     *            The {@link CircuitBreakerConfig} to apply.
+     * @param endpointsInUse
+     *            The endpoints that are still in use.
+     */
+    public synchronized void configure(CircuitBreakerConfig config, List<String> endpointsInUse) {
+        checkArgument(config != null, "circuitBreakerRegistry: config cannot be null");
+        config.validate();
+        this.config = config;
+        this.circuitBreakers.keySet().retainAll(endpointsInUse);
+        this.circuitBreakers.values().forEach(circuitBreaker -> circuitBreaker.setConfig(config));
+    }
+
+    /**
+     * Returns the {@link CircuitBreaker} for a given endpoint, creating it if
+     * needed.
+     *
+     * @param endpoint
+     * @return
+     */
+    public CircuitBreaker get(String endpoint) {
+        return this.circuitBreakers.computeIfAbsent(endpoint,
+                key -> new CircuitBreaker(this.logger, key, this.config));
+    }
+
+    /**
+     * Returns all {@link CircuitBreaker}s in the registry.
+     *
+     * @return
+     */
+    public List<CircuitBreaker> getCircuitBreakers() {
+        return new ArrayList<>(this.circuitBreakers.values());
+    }
+
+    /**
+     * Returns a fault that describes all circuits that are not closed, or
+     * {@link Optional#empty()} if all circuits are closed. Suitable for
+     * reporting as last fault in a {@link MetricStreamer}'s status.
+     *
+     * @return
+     */
+    public Optional<Throwable> getOpenCircuitFault() {
+        List<CircuitBreaker> open = getCircuitBreakers().stream().filter(breaker -> breaker.getState() != State.CLOSED)
+                .collect(Collectors.toList());
+        if (open.isEmpty()) {
+            return Optional.empty();
+        }
+        String details = open.stream().map(CircuitBreaker::toString).collect(Collectors.joining("; "));
+        return Optional.of(new CircuitBreakerOpenException("unavailable backend(s): " + details));
+    }
+}
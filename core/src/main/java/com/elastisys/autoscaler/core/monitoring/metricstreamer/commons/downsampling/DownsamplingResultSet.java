@@ -0,0 +1,97 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.downsampling;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.PageFetchException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultPage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+
+/**
+ * A {@link QueryResultSet} that downsamples the values of another
+ * {@link QueryResultSet} on the client side, page by page, as they are
+ * fetched. It allows a {@link MetricStream} to honor a {@link Downsample}
+ * query hint even when its metric backend cannot downsample.
+ * <p/>
+ * Each page holds the buckets that were completed by the corresponding page
+ * of the wrapped {@link QueryResultSet} (which may be none). The last bucket
+ * of each series is returned in a final page of its own once the wrapped
+ * {@link QueryResultSet} has been exhausted.
+ *
+ * @see StreamingDownsampler
+ */
+public class DownsamplingResultSet implements QueryResultSet {
+
+    /** The {@link QueryResultSet} whose values are downsampled. */
+    private final QueryResultSet resultSet;
+    /** Downsamples the values of {@link #resultSet}. */
+    private final StreamingDownsampler downsampler;
+    /**
+     * The last downsampled value of each series, once {@link #resultSet} has
+     * been exhausted. <code>null</code> until then.
+     */
+    private List<MetricValue> lastPage;
+
+    /**
+     * Creates a {@link DownsamplingResultSet}.
+     *
+     * @param resultSet
+     *            The {@link QueryResultSet} whose values are downsampled.
+     * @param downsample
+     *            The sampling interval and function to use.
+     */
+    public DownsamplingResultSet(QueryResultSet resultSet, Downsample downsample) {
+        checkArgument(resultSet != null, "downsamplingResultSet: resultSet cannot be null");
+        this.resultSet = resultSet;
+        this.downsampler = new StreamingDownsampler(downsample);
+    }
+
+    /**
+     * Wraps a {@link QueryResultSet} in a {@link DownsamplingResultSet} if the
+     * given {@link QueryOptions} carry a {@link Downsample} hint. Otherwise,
+     * the {@link QueryResultSet} is returned as-is.
+     *
+     * @param resultSet
+     * @param options
+     *            May be <code>null</code>.
+     * @return
+     */
+    public static QueryResultSet honoring(QueryResultSet resultSet, QueryOptions options) {
+        if (options == null || !options.getDownsample().isPresent()) {
+            return resultSet;
+        }
+        return new DownsamplingResultSet(resultSet, options.getDownsample().get());
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.resultSet.hasNext()) {
+            return true;
+        }
+        if (this.lastPage == null) {
+            this.lastPage = this.downsampler.flush();
+        }
+        return !this.lastPage.isEmpty();
+    }
+
+    @Override
+    public QueryResultPage fetchNext() throws NoSuchElementException, PageFetchException {
+        if (this.resultSet.hasNext()) {
+            QueryResultPage page = this.resultSet.fetchNext();
+            return new QueryResultPage(this.downsampler.apply(page.getMetricValues()));
+        }
+        if (!hasNext()) {
+            throw new NoSuchElementException("no more pages in result set");
+        }
+        List<MetricValue> lastPage = this.lastPage;
+        this.lastPage = Collections.emptyList();
+        return new QueryResultPage(lastPage);
+    }
+}
@@ -0,0 +1,208 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.downsampling;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.DownsampleFunction;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+
+/**
+ * Downsamples batches of {@link MetricValue}s into fixed time windows
+ * (buckets), each of which is reduced to a single {@link MetricValue} using a
+ * {@link DownsampleFunction}. Buckets are aligned to whole multiples of the
+ * sampling interval (counted from the epoch) and the downsampled value carries
+ * the start time of its bucket.
+ * <p/>
+ * Values with different tags belong to different series (such as the series
+ * of a query that groups by a tag) and are downsampled separately. That is,
+ * each series has buckets of its own.
+ * <p/>
+ * The bucket that the last value of a series in a batch falls into is kept
+ * open, since the next batch may contain more values for it, and is only
+ * emitted once a later value of the series is seen or {@link #flush()} is
+ * called. Only a running aggregate of each open bucket is kept, so memory use
+ * does not grow with the number of values in a bucket.
+ * <p/>
+ * Values are expected to arrive in order of increasing time, as they do in the
+ * pages of a {@link QueryResultSet}. A value that belongs to a bucket of its
+ * series that has already been emitted is dropped.
+ * <p/>
+ * Instances are not thread-safe.
+ */
+public class StreamingDownsampler {
+
+    /** The length of a bucket in milliseconds. */
+    private final long intervalMillis;
+    /** Reduces the values in a bucket to a single value. */
+    private final DownsampleFunction function;
+
+    /** The state of each series seen so far, keyed by the series' tags. */
+    private final Map<Map<String, String>, Series> series;
+
+    /**
+     * Creates a {@link StreamingDownsampler}.
+     *
+     * @param downsample
+     *            The sampling interval and function to use.
+     */
+    public StreamingDownsampler(Downsample downsample) {
+        checkArgument(downsample != null, "downsampler: downsample cannot be null");
+        checkArgument(downsample.getInterval() != null, "downsampler: missing interval");
+        checkArgument(downsample.getFunction() != null, "downsampler: missing function");
+        checkArgument(downsample.getInterval().getMillis() > 0, "downsampler: interval must be positive");
+        this.intervalMillis = downsample.getInterval().getMillis();
+        this.function = downsample.getFunction();
+        this.series = new HashMap<>();
+    }
+
+    /**
+     * Adds a batch of values and returns the buckets that were completed by
+     * it, in order of increasing time.
+     *
+     * @param values
+     *            A batch of values.
+     * @return The downsampled values of all completed buckets.
+     */
+    public List<MetricValue> apply(List<MetricValue> values) {
+        List<MetricValue> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+
+        List<MetricValue> completed = new ArrayList<>();
+        for (MetricValue value : sorted) {
+            long bucketStart = Math.floorDiv(value.getTime().getMillis(), this.intervalMillis) * this.intervalMillis;
+            Series series = this.series.computeIfAbsent(value.getTags(), tags -> new Series());
+            series.add(bucketStart, value).ifPresent(completed::add);
+        }
+        Collections.sort(completed);
+        return completed;
+    }
+
+    /**
+     * Emits the currently open buckets of all series, in order of increasing
+     * time. Call when no more values are to be added.
+     *
+     * @return
+     */
+    public List<MetricValue> flush() {
+        List<MetricValue> flushed = new ArrayList<>();
+        for (Series series : this.series.values()) {
+            series.flush().ifPresent(flushed::add);
+        }
+        Collections.sort(flushed);
+        return flushed;
+    }
+
+    /**
+     * The buckets of a single series of values (that is, of values with the
+     * same tags).
+     */
+    private class Series {
+        /** The currently open bucket. <code>null</code> if there is none. */
+        private Bucket open;
+        /** The start (in epoch millis) of the last emitted bucket. */
+        private Long lastEmitted;
+
+        /**
+         * Adds a value to the bucket starting at a given time and returns the
+         * previously open bucket, if it was completed by the value.
+         *
+         * @param bucketStart
+         * @param value
+         * @return
+         */
+        public Optional<MetricValue> add(long bucketStart, MetricValue value) {
+            if (this.lastEmitted != null && bucketStart <= this.lastEmitted) {
+                // late arrival for a bucket that has already been emitted
+                return Optional.empty();
+            }
+            Optional<MetricValue> completed = Optional.empty();
+            if (this.open != null && bucketStart != this.open.start) {
+                if (bucketStart < this.open.start) {
+                    // late arrival for an earlier bucket that was never seen
+                    return Optional.empty();
+                }
+                completed = flush();
+            }
+            if (this.open == null) {
+                this.open = new Bucket(bucketStart, value);
+            } else {
+                this.open.add(value);
+            }
+            return completed;
+        }
+
+        public Optional<MetricValue> flush() {
+            if (this.open == null) {
+                return Optional.empty();
+            }
+            MetricValue downsampled = this.open.reduce(StreamingDownsampler.this.function);
+            this.lastEmitted = this.open.start;
+            this.open = null;
+            return Optional.of(downsampled);
+        }
+    }
+
+    /**
+     * Running aggregate of the values that fall into a single time window.
+     */
+    private static class Bucket {
+        /** The start of the time window, in epoch millis. */
+        private final long start;
+        private final String metric;
+        /** The tags of the series that the bucket belongs to. */
+        private final Map<String, String> tags;
+        private long count;
+        private double sum;
+        private double min;
+        private double max;
+
+        public Bucket(long start, MetricValue first) {
+            this.start = start;
+            this.metric = first.getMetric();
+            this.tags = new HashMap<>(first.getTags());
+            this.count = 1;
+            this.sum = first.getValue();
+            this.min = first.getValue();
+            this.max = first.getValue();
+        }
+
+        public void add(MetricValue value) {
+            this.count++;
+            this.sum += value.getValue();
+            this.min = Math.min(this.min, value.getValue());
+            this.max = Math.max(this.max, value.getValue());
+        }
+
+        public MetricValue reduce(DownsampleFunction function) {
+            double value;
+            switch (function) {
+            case MIN:
+                value = this.min;
+                break;
+            case MAX:
+                value = this.max;
+                break;
+            case SUM:
+                value = this.sum;
+                break;
+            case MEAN:
+                value = this.sum / this.count;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("unrecognized downsample function '%s'", function));
+            }
+            return new MetricValue(this.metric, value, new DateTime(this.start, DateTimeZone.UTC), this.tags);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging;
+
+/**
+ * Caps the extra load caused by hedged requests at a fraction of all requests.
+ * <p/>
+ * Every request earns the budget a fraction of a token, and every hedged
+ * request spends a whole token. To allow for short bursts of slow responses,
+ * up to {@value #MAX_TOKENS} unspent tokens are saved.
+ * <p/>
+ * Thread-safe.
+ */
+class HedgingBudget {
+    /** The maximum number of tokens that can be saved up. */
+    static final double MAX_TOKENS = 10.0;
+
+    /** The fraction of a token earned for every request. */
+    private double tokensPerRequest;
+    /** Currently available tokens. */
+    private double tokens = 0.0;
+
+    /**
+     * Creates a {@link HedgingBudget}.
+     *
+     * @param maxExtraLoad
+     *            The maximum number of hedged requests, as a fraction of all
+     *            requests.
+     */
+    public HedgingBudget(double maxExtraLoad) {
+        this.tokensPerRequest = maxExtraLoad;
+    }
+
+    /**
+     * Changes the maximum number of hedged requests, as a fraction of all
+     * requests.
+     *
+     * @param maxExtraLoad
+     */
+    public synchronized void setMaxExtraLoad(double maxExtraLoad) {
+        this.tokensPerRequest = maxExtraLoad;
+    }
+
+    /**
+     * Records that a (non-hedged) request is about to be made.
+     */
+    public synchronized void onRequest() {
+        this.tokens = Math.min(MAX_TOKENS, this.tokens + this.tokensPerRequest);
+    }
+
+    /**
+     * Attempts to spend a token on a hedged request.
+     *
+     * @return <code>true</code> if a hedged request may be made,
+     *         <code>false</code> if the budget is exhausted.
+     */
+    public synchronized boolean tryAcquire() {
+        if (this.tokens < 1.0) {
+            return false;
+        }
+        this.tokens -= 1.0;
+        return true;
+    }
+}
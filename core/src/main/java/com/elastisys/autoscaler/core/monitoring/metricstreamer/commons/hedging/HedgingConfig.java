@@ -0,0 +1,189 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Configuration for hedged requests, which are issued by a
+ * {@link RequestHedger} when a metric query takes longer than usual for its
+ * metric stream.
+ *
+ * @see RequestHedger
+ */
+public class HedgingConfig {
+    /** Default value for {@link #latencyPercentile}. */
+    public static final double DEFAULT_LATENCY_PERCENTILE = 95.0;
+    /** Default value for {@link #minSamples}. */
+    public static final int DEFAULT_MIN_SAMPLES = 20;
+    /** Default value for {@link #maxExtraLoad}. */
+    public static final double DEFAULT_MAX_EXTRA_LOAD = 0.05;
+    /** Default value for {@link #maxConcurrentHedges}. */
+    public static final int DEFAULT_MAX_CONCURRENT_HEDGES = 4;
+    /** Default value for {@link #queryTimeout}. */
+    public static final TimeInterval DEFAULT_QUERY_TIMEOUT = new TimeInterval(30L, TimeUnit.SECONDS);
+
+    /**
+     * The latency percentile (of recent queries for a given metric stream)
+     * after which a duplicate query is issued. May be <code>null</code>.
+     * Default: {@value #DEFAULT_LATENCY_PERCENTILE}.
+     */
+    private final Double latencyPercentile;
+
+    /**
+     * The number of latency observations needed for a metric stream before
+     * hedging starts. May be <code>null</code>. Default:
+     * {@value #DEFAULT_MIN_SAMPLES}.
+     */
+    private final Integer minSamples;
+
+    /**
+     * The maximum number of hedged requests, as a fraction of all requests.
+     * For example, {@code 0.05} allows at most one hedged request for every
+     * twenty requests. May be <code>null</code>. Default:
+     * {@value #DEFAULT_MAX_EXTRA_LOAD}.
+     */
+    private final Double maxExtraLoad;
+
+    /**
+     * The maximum number of hedged requests that can be outstanding at any
+     * time. Hedged requests beyond this limit are delayed until an earlier
+     * hedged request completes. May be <code>null</code>. Default:
+     * {@value #DEFAULT_MAX_CONCURRENT_HEDGES}.
+     */
+    private final Integer maxConcurrentHedges;
+
+    /**
+     * The maximum time to wait for an outstanding hedged request after the
+     * original request has failed. May be <code>null</code>. Default:
+     * {@link #DEFAULT_QUERY_TIMEOUT}.
+     */
+    private final TimeInterval queryTimeout;
+
+    /**
+     * Creates a {@link HedgingConfig}.
+     *
+     * @param latencyPercentile
+     *            The latency percentile (of recent queries for a given metric
+     *            stream) after which a duplicate query is issued. May be
+     *            <code>null</code>. Default:
+     *            {@value #DEFAULT_LATENCY_PERCENTILE}.
+     * @param minSamples
+     *            The number of latency observations needed for a metric stream
+     *            before hedging starts. May be <code>null</code>. Default:
+     *            {@value #DEFAULT_MIN_SAMPLES}.
+     * @param maxExtraLoad
+     *            The maximum number of hedged requests, as a fraction of all
+     *            requests. May be <code>null</code>. Default:
+     *            {@value #DEFAULT_MAX_EXTRA_LOAD}.
+     * @param maxConcurrentHedges
+     *            The maximum number of hedged requests that can be outstanding
+     *            at any time. May be <code>null</code>. Default:
+     *            {@value #DEFAULT_MAX_CONCURRENT_HEDGES}.
+     * @param queryTimeout
+     *            The maximum time to wait for an outstanding hedged request
+     *            after the original request has failed. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_QUERY_TIMEOUT}.
+     */
+    public HedgingConfig(Double latencyPercentile, Integer minSamples, Double maxExtraLoad,
+            Integer maxConcurrentHedges, TimeInterval queryTimeout) {
+        this.latencyPercentile = latencyPercentile;
+        this.minSamples = minSamples;
+        this.maxExtraLoad = maxExtraLoad;
+        this.maxConcurrentHedges = maxConcurrentHedges;
+        this.queryTimeout = queryTimeout;
+    }
+
+    /**
+     * The latency percentile (of recent queries for a given metric stream)
+     * after which a duplicate query is issued.
+     *
+     * @return
+     */
+    public double getLatencyPercentile() {
+        return Optional.ofNullable(this.latencyPercentile).orElse(DEFAULT_LATENCY_PERCENTILE);
+    }
+
+    /**
+     * The number of latency observations needed for a metric stream before
+     * hedging starts.
+     *
+     * @return
+     */
+    public int getMinSamples() {
+        return Optional.ofNullable(this.minSamples).orElse(DEFAULT_MIN_SAMPLES);
+    }
+
+    /**
+     * The maximum number of hedged requests, as a fraction of all requests.
+     *
+     * @return
+     */
+    public double getMaxExtraLoad() {
+        return Optional.ofNullable(this.maxExtraLoad).orElse(DEFAULT_MAX_EXTRA_LOAD);
+    }
+
+    /**
+     * The maximum number of hedged requests that can be outstanding at any
+     * time.
+     *
+     * @return
+     */
+    public int getMaxConcurrentHedges() {
+        return Optional.ofNullable(this.maxConcurrentHedges).orElse(DEFAULT_MAX_CONCURRENT_HEDGES);
+    }
+
+    /**
+     * The maximum time to wait for an outstanding hedged request after the
+     * original request has failed.
+     *
+     * @return
+     */
+    public TimeInterval getQueryTimeout() {
+        return Optional.ofNullable(this.queryTimeout).orElse(DEFAULT_QUERY_TIMEOUT);
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            checkArgument(0 < getLatencyPercentile() && getLatencyPercentile() < 100,
+                    "latencyPercentile must be in range (0,100)");
+            checkArgument(1 <= getMinSamples() && getMinSamples() <= LatencyHistory.CAPACITY,
+                    "minSamples must be in range [1,%s]", LatencyHistory.CAPACITY);
+            checkArgument(0 < getMaxExtraLoad() && getMaxExtraLoad() <= 1, "maxExtraLoad must be in range (0,1]");
+            checkArgument(getMaxConcurrentHedges() >= 1, "maxConcurrentHedges must be at least 1");
+            getQueryTimeout().validate();
+            checkArgument(getQueryTimeout().getMillis() > 0, "queryTimeout must be positive");
+        } catch (Exception e) {
+            throw new IllegalArgumentException("hedging: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getLatencyPercentile(), getMinSamples(), getMaxExtraLoad(), getMaxConcurrentHedges(),
+                getQueryTimeout());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof HedgingConfig) {
+            HedgingConfig that = (HedgingConfig) obj;
+            return Objects.equals(getLatencyPercentile(), that.getLatencyPercentile())
+                    && Objects.equals(getMinSamples(), that.getMinSamples())
+                    && Objects.equals(getMaxExtraLoad(), that.getMaxExtraLoad())
+                    && Objects.equals(getMaxConcurrentHedges(), that.getMaxConcurrentHedges())
+                    && Objects.equals(getQueryTimeout(), that.getQueryTimeout());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -0,0 +1,64 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Keeps the latencies of the {@value #CAPACITY} most recent requests for a
+ * metric stream, and answers percentile queries over them.
+ * <p/>
+ * Thread-safe.
+ */
+public class LatencyHistory {
+    /** The number of latency observations kept. */
+    public static final int CAPACITY = 100;
+
+    /** Circular buffer of latency observations (in milliseconds). */
+    private final long[] latencies = new long[CAPACITY];
+    /** The total number of observations recorded. */
+    private long observations = 0;
+
+    /**
+     * Records the latency of a request.
+     *
+     * @param latencyMillis
+     */
+    public synchronized void record(long latencyMillis) {
+        this.latencies[(int) (this.observations % CAPACITY)] = latencyMillis;
+        this.observations++;
+    }
+
+    /**
+     * Returns the number of latency observations currently kept.
+     *
+     * @return
+     */
+    public synchronized int size() {
+        return (int) Math.min(this.observations, CAPACITY);
+    }
+
+    /**
+     * Returns a given (nearest-rank) percentile of the kept latencies, or
+     * {@link Optional#empty()} if there are fewer than {@code minSamples}
+     * observations.
+     *
+     * @param percentile
+     *            A percentile in the range {@code (0, 100]}.
+     * @param minSamples
+     *            The least number of observations required.
+     * @return
+     */
+    public synchronized Optional<Long> percentile(double percentile, int minSamples) {
+        checkArgument(0 < percentile && percentile <= 100, "percentile must be in range (0,100]");
+        int size = size();
+        if (size == 0 || size < minSamples) {
+            return Optional.empty();
+        }
+        long[] sorted = Arrays.copyOf(this.latencies, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+        return Optional.of(sorted[Math.max(rank, 1) - 1]);
+    }
+}
@@ -0,0 +1,26 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging;
+
+/**
+ * A single attempt at sending a request to a metric backend, which may be
+ * raced against a duplicate attempt by a {@link RequestHedger}.
+ *
+ * @param <T>
+ *            The type of response.
+ */
+public interface RequestAttempt<T> {
+
+    /**
+     * Sends the request and waits for the response.
+     *
+     * @return The response.
+     * @throws Exception
+     */
+    T execute() throws Exception;
+
+    /**
+     * Aborts the request, if it is still in progress, to free up the resources
+     * it holds. Called from a different thread than {@link #execute()} when
+     * another attempt has won the race.
+     */
+    void abort();
+}
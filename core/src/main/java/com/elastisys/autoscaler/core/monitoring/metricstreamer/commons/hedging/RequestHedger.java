@@ -0,0 +1,339 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+
+/**
+ * Executes metric backend requests with optional hedging, to cut the tail
+ * latency of metric queries.
+ * <p/>
+ * The latency of every successful request is recorded per {@link MetricStream}.
+ * When hedging is enabled and a request has been outstanding for longer than
+ * the configured percentile of its stream's recent latencies, a duplicate
+ * request is sent. The first successful response wins and the other request
+ * is aborted. The number of duplicate requests is capped by a budget shared
+ * by all streams of the owning {@link MetricStreamer}.
+ * <p/>
+ * The original request is always executed on the calling thread. Hedged
+ * requests are executed on a dedicated thread pool owned by the
+ * {@link RequestHedger}, which is bounded by
+ * {@link HedgingConfig#getMaxConcurrentHedges()}. The pool is only created
+ * once hedging is enabled. Hedging therefore never competes with the callers
+ * for threads, and a saturated hedging pool only delays (or skips) hedged
+ * requests. Note that a hedged request can only cut
+ * the latency of a call if the original {@link RequestAttempt} can be
+ * aborted. Otherwise, the caller waits for the original request to complete
+ * or fail, and the hedged response is used in case of failure.
+ */
+public class RequestHedger {
+    /** The time that an idle hedging thread is kept alive. */
+    private static final long HEDGING_THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+    /** A shared {@link RequestHedger} that never hedges requests. */
+    private static final RequestHedger DISABLED = new DisabledRequestHedger();
+
+    private final Logger logger;
+    /**
+     * Runs hedged request attempts. <code>null</code> until hedging is first
+     * enabled.
+     */
+    private volatile ScheduledThreadPoolExecutor hedgingPool;
+
+    /** The hedging settings. {@link Optional#empty()} means disabled. */
+    private volatile Optional<HedgingConfig> config = Optional.empty();
+    /** Caps the number of hedged requests. */
+    private final HedgingBudget budget = new HedgingBudget(HedgingConfig.DEFAULT_MAX_EXTRA_LOAD);
+    /** Recent request latencies per metric stream. */
+    private final Map<String, LatencyHistory> latencies = new ConcurrentHashMap<>();
+
+    /** The number of hedged requests sent. */
+    private final AtomicLong hedgedRequests = new AtomicLong(0);
+    /** The number of hedged requests that beat the original request. */
+    private final AtomicLong hedgeWins = new AtomicLong(0);
+
+    /**
+     * Creates a {@link RequestHedger} with hedging disabled.
+     *
+     * @param logger
+     */
+    public RequestHedger(Logger logger) {
+        checkArgument(logger != null, "requestHedger: logger cannot be null");
+        this.logger = logger;
+    }
+
+    /**
+     * Returns a shared {@link RequestHedger} that never hedges requests, but
+     * executes every request on the calling thread. It cannot be configured.
+     *
+     * @return
+     */
+    public static RequestHedger disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Enables hedging with the given settings, or disables it if
+     * {@link Optional#empty()} is given, and forgets the latency history of
+     * any metric stream that is not among the given ones.
+     *
+     * @param config
+     *            The hedging settings.
+     * @param streamIds
+     *            The metric streams that are still in use.
+     */
+    public synchronized void configure(Optional<HedgingConfig> config, Collection<String> streamIds) {
+        checkArgument(config != null, "requestHedger: config cannot be null");
+        if (config.isPresent()) {
+            config.get().validate();
+            this.budget.setMaxExtraLoad(config.get().getMaxExtraLoad());
+            if (this.hedgingPool == null) {
+                this.hedgingPool = createHedgingPool(config.get().getMaxConcurrentHedges());
+            } else {
+                this.hedgingPool.setCorePoolSize(config.get().getMaxConcurrentHedges());
+            }
+        }
+        this.config = config;
+        this.latencies.keySet().retainAll(streamIds);
+    }
+
+    /**
+     * Creates the thread pool that runs hedged request attempts.
+     *
+     * @param maxConcurrentHedges
+     *            The number of threads in the pool.
+     * @return
+     */
+    private static ScheduledThreadPoolExecutor createHedgingPool(int maxConcurrentHedges) {
+        ScheduledThreadPoolExecutor hedgingPool = new ScheduledThreadPoolExecutor(maxConcurrentHedges,
+                new BasicThreadFactory.Builder().namingPattern("request-hedger-%d").daemon(true).build());
+        hedgingPool.setKeepAliveTime(HEDGING_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        hedgingPool.allowCoreThreadTimeOut(true);
+        // don't keep hedges of completed requests around until their delay
+        hedgingPool.setRemoveOnCancelPolicy(true);
+        return hedgingPool;
+    }
+
+    /**
+     * Sends a request for a given metric stream, hedging it if needed.
+     *
+     * @param streamId
+     *            The metric stream that the request is made for.
+     * @param attempts
+     *            Creates request attempts. Called once for the original
+     *            request and once more if a hedged request is sent.
+     * @return The first successful response.
+     * @throws Exception
+     *             The failure of the original request, if all attempts failed.
+     */
+    public <T> T execute(String streamId, Supplier<RequestAttempt<T>> attempts) throws Exception {
+        LatencyHistory history = this.latencies.computeIfAbsent(streamId, id -> new LatencyHistory());
+        Optional<HedgingConfig> config = this.config;
+
+        Optional<Long> hedgeDelay = Optional.empty();
+        if (config.isPresent()) {
+            this.budget.onRequest();
+            hedgeDelay = history.percentile(config.get().getLatencyPercentile(), config.get().getMinSamples());
+        }
+
+        long start = System.nanoTime();
+        T response;
+        if (hedgeDelay.isPresent()) {
+            response = race(streamId, attempts, hedgeDelay.get(), config.get().getQueryTimeout().getMillis());
+        } else {
+            response = attempts.get().execute();
+        }
+        history.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return response;
+    }
+
+    /**
+     * Executes the original request on the calling thread, while a hedged
+     * request is scheduled to be sent on the hedging pool if the original
+     * request is still outstanding after {@code hedgeDelayMillis}.
+     *
+     * @param streamId
+     * @param attempts
+     * @param hedgeDelayMillis
+     *            The time after which a hedged request is sent.
+     * @param timeoutMillis
+     *            The maximum time to wait for an outstanding hedged request
+     *            after the original request has failed.
+     * @return
+     * @throws Exception
+     */
+    private <T> T race(String streamId, Supplier<RequestAttempt<T>> attempts, long hedgeDelayMillis,
+            long timeoutMillis) throws Exception {
+        RequestAttempt<T> original = attempts.get();
+        Hedge<T> hedge = new Hedge<>(streamId, attempts, original, hedgeDelayMillis);
+        ScheduledFuture<?> scheduledHedge = this.hedgingPool.schedule(hedge, hedgeDelayMillis,
+                TimeUnit.MILLISECONDS);
+        try {
+            T response;
+            try {
+                response = original.execute();
+            } catch (Exception originalFailure) {
+                if (hedge.cancel()) {
+                    // no hedged request was sent
+                    throw originalFailure;
+                }
+                try {
+                    return hedge.response.get(timeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException | TimeoutException e) {
+                    // prefer reporting the failure of the original attempt
+                    throw originalFailure;
+                }
+            }
+            if (hedge.cancel() || hedge.winner.compareAndSet(null, original)) {
+                return response;
+            }
+            // hedged request won, but original could not be aborted in time
+            return hedge.response.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            scheduledHedge.cancel(false);
+            hedge.abort();
+        }
+    }
+
+    private static Exception asException(Throwable cause) {
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        return new ExecutionException(cause);
+    }
+
+    /**
+     * Returns the number of hedged requests sent so far.
+     *
+     * @return
+     */
+    public long getHedgedRequests() {
+        return this.hedgedRequests.get();
+    }
+
+    /**
+     * Returns the number of hedged requests that beat the original request.
+     *
+     * @return
+     */
+    public long getHedgeWins() {
+        return this.hedgeWins.get();
+    }
+
+    /**
+     * A hedged request, which is sent on the hedging pool (if the budget
+     * allows) unless it is cancelled before its delay has passed.
+     */
+    private class Hedge<T> implements Runnable {
+        private final String streamId;
+        private final Supplier<RequestAttempt<T>> attempts;
+        private final RequestAttempt<T> original;
+        private final long hedgeDelayMillis;
+
+        /**
+         * Set once the hedge has either been sent (or denied by the budget)
+         * or been cancelled, whichever happens first.
+         */
+        private final AtomicBoolean decided = new AtomicBoolean(false);
+        /** The hedged request attempt. <code>null</code> until sent. */
+        private volatile RequestAttempt<T> attempt;
+        /** The first attempt to succeed. */
+        private final AtomicReference<RequestAttempt<T>> winner = new AtomicReference<>();
+        /** The outcome of the hedged request, once it has completed. */
+        private final CompletableFuture<T> response = new CompletableFuture<>();
+
+        public Hedge(String streamId, Supplier<RequestAttempt<T>> attempts, RequestAttempt<T> original,
+                long hedgeDelayMillis) {
+            this.streamId = streamId;
+            this.attempts = attempts;
+            this.original = original;
+            this.hedgeDelayMillis = hedgeDelayMillis;
+        }
+
+        @Override
+        public void run() {
+            if (!this.decided.compareAndSet(false, true)) {
+                return;
+            }
+            if (!RequestHedger.this.budget.tryAcquire()) {
+                this.response.completeExceptionally(new IllegalStateException("hedging budget exhausted"));
+                return;
+            }
+            RequestHedger.this.logger.debug(
+                    "request for stream {} outstanding for more than {} ms: sending hedged request", this.streamId,
+                    this.hedgeDelayMillis);
+            try {
+                this.attempt = this.attempts.get();
+                RequestHedger.this.hedgedRequests.incrementAndGet();
+                T hedgedResponse = this.attempt.execute();
+                if (this.winner.compareAndSet(null, this.attempt)) {
+                    RequestHedger.this.hedgeWins.incrementAndGet();
+                    this.original.abort();
+                }
+                this.response.complete(hedgedResponse);
+            } catch (Throwable e) {
+                this.response.completeExceptionally(asException(e));
+            }
+        }
+
+        /**
+         * Prevents the hedged request from being sent, unless it already has
+         * been.
+         *
+         * @return <code>true</code> if no hedged request will be sent.
+         */
+        public boolean cancel() {
+            return this.decided.compareAndSet(false, true) || this.attempt == null && this.response.isDone();
+        }
+
+        /**
+         * Aborts the hedged request if it has been sent but not yet completed.
+         */
+        public void abort() {
+            RequestAttempt<T> attempt = this.attempt;
+            if (attempt != null && !this.response.isDone()) {
+                attempt.abort();
+            }
+        }
+    }
+
+    /**
+     * A {@link RequestHedger} that never hedges requests and never records
+     * their latencies.
+     */
+    private static class DisabledRequestHedger extends RequestHedger {
+        public DisabledRequestHedger() {
+            super(LoggerFactory.getLogger(RequestHedger.class));
+        }
+
+        @Override
+        public void configure(Optional<HedgingConfig> config, Collection<String> streamIds) {
+            throw new UnsupportedOperationException("requestHedger: a disabled request hedger cannot be configured");
+        }
+
+        @Override
+        public <T> T execute(String streamId, Supplier<RequestAttempt<T>> attempts) throws Exception {
+            return attempts.get().execute();
+        }
+    }
+}
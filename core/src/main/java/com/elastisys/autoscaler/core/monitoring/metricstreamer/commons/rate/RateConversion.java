@@ -0,0 +1,22 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate;
+
+/**
+ * Describes how a {@link StreamingRateConverter} interprets the metric values
+ * that it converts to change rates.
+ *
+ * @see StreamingRateConverter
+ */
+public enum RateConversion {
+    /**
+     * The metric value may go up or down. A decrease results in a negative
+     * change rate.
+     */
+    GAUGE,
+    /**
+     * The metric value is a monotonically increasing counter. A decrease is
+     * taken to mean that the counter has been reset (for example, due to a
+     * restart of the process that reports it), in which case the counter is
+     * assumed to have restarted from zero.
+     */
+    COUNTER;
+}
@@ -0,0 +1,111 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import org.joda.time.Interval;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.PageFetchException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultPage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+
+/**
+ * A {@link MetricStream} decorator that converts the values of another
+ * {@link MetricStream} to change rates on the client side, which allows any
+ * metric stream to expose a counter metric as a rate without support for
+ * derivative queries in the metric backend.
+ * <p/>
+ * A single {@link StreamingRateConverter} is shared by all queries, which
+ * means that rates are calculated across result pages as well as across
+ * consecutive queries (such as those made by a {@code MetricStreamingLoop}).
+ */
+public class RateConvertingMetricStream implements MetricStream {
+
+    /** The {@link MetricStream} whose values are converted. */
+    private final MetricStream delegate;
+    /** Converts the values of {@link #delegate}. */
+    private final StreamingRateConverter converter;
+
+    /**
+     * Creates a {@link RateConvertingMetricStream}.
+     *
+     * @param delegate
+     *            The {@link MetricStream} whose values are converted.
+     * @param conversion
+     *            Describes how metric values are interpreted.
+     */
+    public RateConvertingMetricStream(MetricStream delegate, RateConversion conversion) {
+        checkArgument(delegate != null, "rateConvertingMetricStream: delegate cannot be null");
+        this.delegate = delegate;
+        this.converter = new StreamingRateConverter(conversion);
+    }
+
+    @Override
+    public String getId() {
+        return this.delegate.getId();
+    }
+
+    @Override
+    public String getMetric() {
+        return this.delegate.getMetric();
+    }
+
+    @Override
+    public QueryResultSet query(Interval timeInterval, QueryOptions options) throws MetricStreamException {
+        return new RateConvertingResultSet(this.delegate.query(timeInterval, options));
+    }
+
+    /**
+     * Converts the most recent value of the delegate {@link MetricStream} to a
+     * rate, using the value seen by the previous query as reference.
+     */
+    @Override
+    public Optional<MetricValue> queryLatest(Interval timeInterval) throws MetricStreamException {
+        Optional<MetricValue> latest = this.delegate.queryLatest(timeInterval);
+        if (!latest.isPresent()) {
+            return Optional.empty();
+        }
+        List<MetricValue> rates = this.converter.apply(Collections.singletonList(latest.get()));
+        return rates.isEmpty() ? Optional.empty() : Optional.of(rates.get(0));
+    }
+
+    /**
+     * Returns the {@link MetricStream} whose values are converted.
+     *
+     * @return
+     */
+    public MetricStream getDelegate() {
+        return this.delegate;
+    }
+
+    /**
+     * A {@link QueryResultSet} that converts each page of another
+     * {@link QueryResultSet} as it is fetched.
+     */
+    private class RateConvertingResultSet implements QueryResultSet {
+        private final QueryResultSet resultSet;
+
+        public RateConvertingResultSet(QueryResultSet resultSet) {
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.resultSet.hasNext();
+        }
+
+        @Override
+        public QueryResultPage fetchNext() throws NoSuchElementException, PageFetchException {
+            QueryResultPage page = this.resultSet.fetchNext();
+            return new QueryResultPage(RateConvertingMetricStream.this.converter.apply(page.getMetricValues()));
+        }
+    }
+}
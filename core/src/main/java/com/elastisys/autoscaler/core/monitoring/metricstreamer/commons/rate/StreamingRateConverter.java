@@ -0,0 +1,113 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.RateConverter;
+
+/**
+ * Converts batches of {@link MetricValue}s from absolute values to change
+ * rates (per second), while remembering the last value seen so that a rate can
+ * also be calculated for the first value of the next batch:
+ *
+ * <pre>
+ * rate[i] = (v(t[i]) - v(t[i - 1])) / (t[i] - t[i - 1])
+ * </pre>
+ *
+ * Unlike the {@link RateConverter}, which needs at least two values in every
+ * batch and loses one value per batch, a {@link StreamingRateConverter} only
+ * loses the very first value of a {@link MetricStream}. It is intended to be
+ * fed consecutive batches of a single {@link MetricStream}, such as the result
+ * pages of successive queries. A batch that does not follow the last value
+ * seen (for example, a query for older data) is converted on its own and does
+ * not affect the remembered value.
+ * <p/>
+ * With {@link RateConversion#COUNTER}, a decrease in value is treated as a
+ * counter reset and the rate is calculated as if the counter had restarted
+ * from zero.
+ * <p/>
+ * Values are converted in order of increasing time. A value with the same
+ * timestamp as the value preceding it is dropped.
+ * <p/>
+ * Instances are thread-safe.
+ */
+public class StreamingRateConverter implements Function<List<MetricValue>, List<MetricValue>> {
+
+    /** Describes how metric values are interpreted. */
+    private final RateConversion conversion;
+
+    /**
+     * The most recent value seen. <code>null</code> until the first value has
+     * been seen.
+     */
+    private MetricValue last;
+
+    /**
+     * Creates a {@link StreamingRateConverter}.
+     *
+     * @param conversion
+     *            Describes how metric values are interpreted.
+     */
+    public StreamingRateConverter(RateConversion conversion) {
+        checkArgument(conversion != null, "rateConverter: conversion cannot be null");
+        this.conversion = conversion;
+    }
+
+    @Override
+    public synchronized List<MetricValue> apply(List<MetricValue> values) {
+        Objects.requireNonNull(values, "values is null");
+        if (values.isEmpty()) {
+            return new ArrayList<>();
+        }
+        values = new ArrayList<>(values);
+        Collections.sort(values);
+
+        MetricValue previous = null;
+        if (this.last != null && this.last.getTime().isBefore(values.get(0).getTime())) {
+            previous = this.last;
+        }
+
+        List<MetricValue> rateValues = new ArrayList<>(values.size());
+        for (MetricValue next : values) {
+            if (previous == null) {
+                previous = next;
+                continue;
+            }
+            if (!next.getTime().isAfter(previous.getTime())) {
+                continue;
+            }
+            rateValues.add(next.withValue(rate(previous, next)));
+            previous = next;
+        }
+
+        // only ever move forward in time
+        if (this.last == null || previous.getTime().isAfter(this.last.getTime())) {
+            this.last = previous;
+        }
+        return rateValues;
+    }
+
+    /**
+     * Forgets the last value seen.
+     */
+    public synchronized void reset() {
+        this.last = null;
+    }
+
+    private double rate(MetricValue previous, MetricValue next) {
+        double seconds = (next.getTime().getMillis() - previous.getTime().getMillis()) / 1000.0;
+        double delta = next.getValue() - previous.getValue();
+        if (this.conversion == RateConversion.COUNTER && delta < 0) {
+            // counter was reset: assume it restarted from zero
+            delta = next.getValue();
+        }
+        return delta / seconds;
+    }
+}
@@ -4,11 +4,16 @@ import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgume
 
 import java.util.Collection;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.joda.time.DateTime;
+
 import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamBackfillMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamCorrectionMessage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
 import com.elastisys.scale.commons.eventbus.EventBus;
 import com.elastisys.scale.commons.eventbus.Subscriber;
@@ -18,6 +23,16 @@ import com.elastisys.scale.commons.eventbus.Subscriber;
  * {@link MetricStream} by listening for {@link MetricStreamMessage}s sent onto
  * an {@link EventBus} that originate from the given {@link MetricStream}.
  * <p/>
+ * Late-arriving values, delivered in {@link MetricStreamCorrectionMessage}s,
+ * and backfilled values, delivered in {@link MetricStreamBackfillMessage}s,
+ * are only read by a {@link MetricStreamReader} that has been created to read
+ * out-of-order values. Such values are kept apart from the regular (in-order)
+ * values and are consumed via {@link #popOutOfOrderTo(Collection)}. This
+ * allows clients that keep a history of values to amend it with the
+ * out-of-order values. Clients that only handle values in increasing
+ * time-stamp order should not read out-of-order values, since nothing would
+ * consume them.
+ * <p/>
  * The {@link #start()} method must be invoked before use. Until it is called
  * the {@link MetricStreamReader} is in a passive state.
  */
@@ -35,10 +50,27 @@ public class MetricStreamReader {
      * the client of this {@link MetricStreamReader}.
      */
     private final Queue<MetricValue> metricValueQueue;
+    /**
+     * Queue holding out-of-order {@link MetricValue}s (that is, values that
+     * are older than values that have already been read) read but not yet
+     * consumed (popped) by the client of this {@link MetricStreamReader}.
+     */
+    private final Queue<MetricValue> outOfOrderQueue;
+    /**
+     * The most recent event-time watermark received for the
+     * {@link MetricStream}. <code>null</code> if none has been received.
+     */
+    private volatile DateTime watermark;
+    /**
+     * <code>true</code> if out-of-order {@link MetricValue}s are read (into
+     * {@link #outOfOrderQueue}), <code>false</code> if they are ignored.
+     */
+    private final boolean readOutOfOrder;
     private boolean started;
 
     /**
-     * Creates a new {@link MetricStreamReader}.
+     * Creates a new {@link MetricStreamReader} that ignores out-of-order
+     * {@link MetricValue}s.
      *
      * @param eventBus
      *            The {@link EventBus} that this {@link MetricStreamReader}
@@ -46,11 +78,29 @@ public class MetricStreamReader {
      * @param metricStream
      */
     public MetricStreamReader(EventBus eventBus, MetricStream metricStream) {
+        this(eventBus, metricStream, false);
+    }
+
+    /**
+     * Creates a new {@link MetricStreamReader}.
+     *
+     * @param eventBus
+     *            The {@link EventBus} that this {@link MetricStreamReader}
+     *            listens to.
+     * @param metricStream
+     * @param readOutOfOrder
+     *            <code>true</code> if out-of-order {@link MetricValue}s (late
+     *            arrivals and backfills) are to be read. If so, the client must
+     *            consume them via {@link #popOutOfOrderTo(Collection)}.
+     */
+    public MetricStreamReader(EventBus eventBus, MetricStream metricStream, boolean readOutOfOrder) {
         checkArgument(eventBus != null, "eventBus cannot be null");
         checkArgument(metricStream != null, "metricStream cannot be null");
         this.eventBus = eventBus;
         this.metricStream = metricStream;
         this.metricValueQueue = new ConcurrentLinkedQueue<>();
+        this.outOfOrderQueue = new ConcurrentLinkedQueue<>();
+        this.readOutOfOrder = readOutOfOrder;
 
         this.started = false;
     }
@@ -75,6 +125,16 @@ public class MetricStreamReader {
         return this.metricStream;
     }
 
+    /**
+     * Returns <code>true</code> if this {@link MetricStreamReader} reads
+     * out-of-order {@link MetricValue}s (late arrivals and backfills).
+     *
+     * @return
+     */
+    public boolean isReadingOutOfOrder() {
+        return this.readOutOfOrder;
+    }
+
     /**
      * Starts listening to the {@link EventBus} for values published by the
      * {@link MetricStream}.
@@ -137,6 +197,37 @@ public class MetricStreamReader {
         }
     }
 
+    /**
+     * Consumes all out-of-order {@link MetricValue}s in the reader's buffer.
+     * These are values that are older than values that have already been read
+     * from the {@link MetricStream} (such as late arrivals or backfills), and
+     * they are added to the destination in the order they were read. If there
+     * are no out-of-order values (which is always the case unless this
+     * {@link MetricStreamReader} reads out-of-order values) nothing gets
+     * written to the destination collection.
+     *
+     * @param destination
+     *            Destination collection.
+     */
+    public void popOutOfOrderTo(Collection<MetricValue> destination) {
+        while (!this.outOfOrderQueue.isEmpty()) {
+            destination.add(this.outOfOrderQueue.remove());
+        }
+    }
+
+    /**
+     * Returns the most recent event-time watermark received for the
+     * {@link MetricStream}. All values of the stream at or before the
+     * watermark have been read, so a time window that ends at or before the
+     * watermark is complete. {@link Optional#empty()} if the stream does not
+     * publish watermarks or if no values have been read yet.
+     *
+     * @return
+     */
+    public Optional<DateTime> getWatermark() {
+        return Optional.ofNullable(this.watermark);
+    }
+
     /**
      * Indicates if this {@link MetricStreamReader} has been started or not.
      * When in a stopped state the {@link MetricStreamReader} will be
@@ -166,6 +257,56 @@ public class MetricStreamReader {
 
         if (this.metricStream.getId().equals(message.getId())) {
             this.metricValueQueue.addAll(message.getMetricValues());
+            message.getWatermark().ifPresent(this::advanceWatermark);
+        }
+    }
+
+    /**
+     * When started, this method will be called whenever late-arriving metric
+     * values are posted to the {@link EventBus}.
+     *
+     * @param message
+     */
+    @Subscriber
+    public void onMetricStreamCorrectionMessage(MetricStreamCorrectionMessage message) {
+        if (!isStarted()) {
+            return;
+        }
+
+        if (this.metricStream.getId().equals(message.getId())) {
+            if (this.readOutOfOrder) {
+                this.outOfOrderQueue.addAll(message.getMetricValues());
+            }
+            advanceWatermark(message.getWatermark());
+        }
+    }
+
+    /**
+     * When started, this method will be called whenever backfilled metric
+     * values are posted to the {@link EventBus}.
+     *
+     * @param message
+     */
+    @Subscriber
+    public void onMetricStreamBackfillMessage(MetricStreamBackfillMessage message) {
+        if (!isStarted() || !this.readOutOfOrder) {
+            return;
+        }
+
+        if (this.metricStream.getId().equals(message.getId())) {
+            this.outOfOrderQueue.addAll(message.getMetricValues());
+        }
+    }
+
+    /**
+     * Moves the watermark forward (but never backwards, since messages may be
+     * delivered out of order).
+     *
+     * @param watermark
+     */
+    private synchronized void advanceWatermark(DateTime watermark) {
+        if (this.watermark == null || watermark.isAfter(this.watermark)) {
+            this.watermark = watermark;
         }
     }
 }
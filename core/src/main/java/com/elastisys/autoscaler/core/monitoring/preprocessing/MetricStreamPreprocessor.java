@@ -0,0 +1,187 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.ServiceStatus;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.config.PreprocessedStreamDefinition;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.config.PreprocessingConfig;
+import com.elastisys.scale.commons.eventbus.EventBus;
+
+/**
+ * A {@link MetricStreamer} that publishes {@link PreprocessedMetricStream}s:
+ * cleaned-up versions of metric streams published by other
+ * {@link MetricStreamer}s.
+ * <p/>
+ * A preprocessed stream may use a metric stream of any of the input
+ * {@link MetricStreamer}s, or a preprocessed stream declared before it, as
+ * input.
+ */
+public class MetricStreamPreprocessor implements MetricStreamer<PreprocessingConfig> {
+    private final Logger logger;
+    /** {@link EventBus} on which to listen for and publish metrics. */
+    private final EventBus eventBus;
+    /** The {@link MetricStreamer}s whose streams can be preprocessed. */
+    private final List<MetricStreamer<?>> inputMetricStreamers;
+
+    private boolean started;
+    /** The configuration set for the {@link MetricStreamPreprocessor}. */
+    private PreprocessingConfig config;
+    /** The current list of published {@link MetricStream}s. */
+    private final List<PreprocessedMetricStream> metricStreams;
+
+    /**
+     * Creates a {@link MetricStreamPreprocessor}.
+     *
+     * @param logger
+     * @param eventBus
+     *            {@link EventBus} on which to listen for and publish metrics.
+     * @param inputMetricStreamers
+     *            The {@link MetricStreamer}s whose streams can be
+     *            preprocessed.
+     */
+    public MetricStreamPreprocessor(Logger logger, EventBus eventBus, List<MetricStreamer<?>> inputMetricStreamers) {
+        this.logger = logger;
+        this.eventBus = eventBus;
+        this.inputMetricStreamers = Optional.ofNullable(inputMetricStreamers).orElse(Collections.emptyList());
+
+        this.started = false;
+        this.config = null;
+        this.metricStreams = new CopyOnWriteArrayList<>();
+    }
+
+    @Override
+    public void validate(PreprocessingConfig configuration) throws IllegalArgumentException {
+        checkArgument(configuration != null, "preprocessing: missing configuration");
+        configuration.validate();
+        buildMetricStreams(configuration.getMetricStreams());
+    }
+
+    @Override
+    public void configure(PreprocessingConfig newConfig) throws IllegalArgumentException {
+        validate(newConfig);
+
+        boolean needsRestart = isStarted();
+        if (needsRestart) {
+            stop();
+        }
+
+        List<PreprocessedMetricStream> newMetricStreams = buildMetricStreams(newConfig.getMetricStreams());
+        this.config = newConfig;
+        this.metricStreams.clear();
+        this.metricStreams.addAll(newMetricStreams);
+
+        if (needsRestart) {
+            start();
+        }
+    }
+
+    private List<PreprocessedMetricStream> buildMetricStreams(List<PreprocessedStreamDefinition> streamDefs)
+            throws IllegalArgumentException {
+        List<MetricStream> declaredStreams = new ArrayList<>();
+        for (MetricStreamer<?> metricStreamer : this.inputMetricStreamers) {
+            declaredStreams.addAll(metricStreamer.getMetricStreams());
+        }
+
+        List<PreprocessedMetricStream> newMetricStreams = new ArrayList<>();
+        for (PreprocessedStreamDefinition streamDef : streamDefs) {
+            Optional<MetricStream> inputStream = declaredStreams.stream()
+                    .filter(it -> it.getId().equals(streamDef.getInputStream())).findFirst();
+            checkArgument(inputStream.isPresent(),
+                    "preprocessing: metricStream %s references inputStream %s, which is neither defined "
+                            + "by a metricStreamer nor a prior declared preprocessed stream",
+                    streamDef.getId(), streamDef.getInputStream());
+
+            PreprocessedMetricStream stream = new PreprocessedMetricStream(this.logger, this.eventBus, streamDef,
+                    inputStream.get());
+            newMetricStreams.add(stream);
+            declaredStreams.add(stream);
+        }
+        return newMetricStreams;
+    }
+
+    @Override
+    public void start() throws IllegalStateException {
+        ensureConfigured();
+        if (isStarted()) {
+            return;
+        }
+
+        for (PreprocessedMetricStream metricStream : this.metricStreams) {
+            metricStream.start();
+        }
+        this.started = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+
+        for (PreprocessedMetricStream metricStream : this.metricStreams) {
+            metricStream.stop();
+        }
+        this.started = false;
+    }
+
+    @Override
+    public ServiceStatus getStatus() {
+        return new ServiceStatus.Builder().started(isStarted()).build();
+    }
+
+    @Override
+    public PreprocessingConfig getConfiguration() {
+        return this.config;
+    }
+
+    @Override
+    public Class<PreprocessingConfig> getConfigurationClass() {
+        return PreprocessingConfig.class;
+    }
+
+    @Override
+    public List<MetricStream> getMetricStreams() {
+        ensureConfigured();
+        return Collections.unmodifiableList(this.metricStreams);
+    }
+
+    @Override
+    public MetricStream getMetricStream(String id) throws IllegalArgumentException {
+        ensureConfigured();
+        Optional<PreprocessedMetricStream> match = this.metricStreams.stream().filter(it -> it.getId().equals(id))
+                .findFirst();
+        if (!match.isPresent()) {
+            throw new IllegalArgumentException(String.format("no metric stream with id %s found", id));
+        }
+        return match.get();
+    }
+
+    /**
+     * A no-op. Preprocessed streams are fed by their input streams.
+     */
+    @Override
+    public void fetch() throws MetricStreamException, IllegalStateException {
+        ensureConfigured();
+        checkState(isStarted(), "attempt to use metric streamer before being started");
+    }
+
+    private boolean isStarted() {
+        return this.started;
+    }
+
+    private void ensureConfigured() throws IllegalStateException {
+        checkState(this.config != null, "attempt to use metric streamer before being configured");
+    }
+}
@@ -0,0 +1,147 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.joda.time.Interval;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.PageFetchException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultPage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.config.PreprocessedStreamDefinition;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.eventbus.Subscriber;
+
+/**
+ * A {@link MetricStream} whose values are those of an input
+ * {@link MetricStream}, passed through a {@link PreprocessingPipeline}.
+ * <p/>
+ * When started, the {@link PreprocessedMetricStream} listens for
+ * {@link MetricStreamMessage}s from its input stream on the {@link EventBus},
+ * feeds every new value through its pipeline exactly once, and publishes the
+ * output values in {@link MetricStreamMessage}s of its own.
+ * <p/>
+ * Queries for historical values are run against the input stream and the
+ * result is passed through a fresh pipeline, so that historical values are
+ * preprocessed in the same way as new values.
+ */
+public class PreprocessedMetricStream implements MetricStream {
+
+    private final Logger logger;
+    private final EventBus eventBus;
+    /** Declares the stream. */
+    private final PreprocessedStreamDefinition definition;
+    /** The stream whose values are preprocessed. */
+    private final MetricStream inputStream;
+    /** Processes new values from {@link #inputStream}. */
+    private final PreprocessingPipeline pipeline;
+
+    /**
+     * Creates a {@link PreprocessedMetricStream}.
+     *
+     * @param logger
+     * @param eventBus
+     *            The {@link EventBus} on which to listen for input values and
+     *            on which to publish preprocessed values.
+     * @param definition
+     *            Declares the stream.
+     * @param inputStream
+     *            The stream whose values are preprocessed.
+     */
+    public PreprocessedMetricStream(Logger logger, EventBus eventBus, PreprocessedStreamDefinition definition,
+            MetricStream inputStream) {
+        this.logger = logger;
+        this.eventBus = eventBus;
+        this.definition = definition;
+        this.inputStream = inputStream;
+        this.pipeline = definition.createPipeline();
+    }
+
+    @Override
+    public String getId() {
+        return this.definition.getId();
+    }
+
+    @Override
+    public String getMetric() {
+        return this.inputStream.getMetric();
+    }
+
+    @Override
+    public QueryResultSet query(Interval timeInterval, QueryOptions options) throws MetricStreamException {
+        return new PreprocessedResultSet(this.inputStream.query(timeInterval, options),
+                this.definition.createPipeline());
+    }
+
+    /**
+     * Registers with the {@link EventBus} to start processing values.
+     */
+    public void start() {
+        this.logger.debug("metric stream {} now preprocessing values from {}", getId(), this.inputStream.getId());
+        this.eventBus.register(this);
+    }
+
+    /**
+     * Unregisters from the {@link EventBus}.
+     */
+    public void stop() {
+        this.logger.debug("stopping metric stream {}", getId());
+        this.eventBus.unregister(this);
+    }
+
+    /**
+     * Called whenever a metric batch is sent on the {@link EventBus}.
+     *
+     * @param message
+     */
+    @Subscriber
+    public void onMetricStreamMessage(MetricStreamMessage message) {
+        if (!this.inputStream.getId().equals(message.getId())) {
+            return;
+        }
+
+        List<MetricValue> input = new ArrayList<>(message.getMetricValues());
+        Collections.sort(input);
+        List<MetricValue> output;
+        synchronized (this.pipeline) {
+            output = this.pipeline.processAll(input);
+        }
+        this.logger.debug("{}: {} value(s) in, {} value(s) out", getId(), message.getMetricValues().size(),
+                output.size());
+        if (!output.isEmpty()) {
+            this.eventBus.post(new MetricStreamMessage(getId(), output, message.getWatermark().orElse(null)));
+        }
+    }
+
+    /**
+     * A {@link QueryResultSet} that passes each page of another
+     * {@link QueryResultSet} through a {@link PreprocessingPipeline}.
+     */
+    private static class PreprocessedResultSet implements QueryResultSet {
+        private final QueryResultSet resultSet;
+        private final PreprocessingPipeline pipeline;
+
+        public PreprocessedResultSet(QueryResultSet resultSet, PreprocessingPipeline pipeline) {
+            this.resultSet = resultSet;
+            this.pipeline = pipeline;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.resultSet.hasNext();
+        }
+
+        @Override
+        public QueryResultPage fetchNext() throws NoSuchElementException, PageFetchException {
+            return new QueryResultPage(this.pipeline.processAll(this.resultSet.fetchNext().getMetricValues()));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing;
+
+import java.util.List;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+
+/**
+ * An incremental operator in a {@link PreprocessingPipeline}, which is fed the
+ * {@link MetricValue}s of a metric stream one at a time, in order of
+ * increasing time.
+ * <p/>
+ * Each fed value may produce any number of output values. For example, a
+ * filter may drop a value while a resampler may produce several values. An
+ * operator is expected to keep a bounded state and to process each value in
+ * constant (amortized) time.
+ * <p/>
+ * Implementations are not required to be thread-safe.
+ */
+public interface PreprocessingOperator {
+
+    /**
+     * Feeds the next {@link MetricValue} to the operator.
+     *
+     * @param value
+     *            The next {@link MetricValue}. Expected to be newer than any
+     *            previously fed value. Values that are not may be dropped.
+     * @return The output values produced (possibly none), in order of
+     *         increasing time.
+     */
+    List<MetricValue> process(MetricValue value);
+}
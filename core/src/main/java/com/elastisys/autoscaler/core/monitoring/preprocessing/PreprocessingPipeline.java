@@ -0,0 +1,70 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+
+/**
+ * A chain of {@link PreprocessingOperator}s, where the output values of each
+ * operator are fed to the next.
+ */
+public class PreprocessingPipeline implements PreprocessingOperator {
+
+    /** The chained operators, in order of application. */
+    private final List<PreprocessingOperator> operators;
+
+    /**
+     * Creates a {@link PreprocessingPipeline}.
+     *
+     * @param operators
+     *            The chained operators, in order of application. An empty
+     *            pipeline passes values through as-is.
+     */
+    public PreprocessingPipeline(List<PreprocessingOperator> operators) {
+        this.operators = new ArrayList<>(operators);
+    }
+
+    /**
+     * Creates a {@link PreprocessingPipeline}.
+     *
+     * @param operators
+     *            The chained operators, in order of application.
+     */
+    public PreprocessingPipeline(PreprocessingOperator... operators) {
+        this(Arrays.asList(operators));
+    }
+
+    @Override
+    public List<MetricValue> process(MetricValue value) {
+        List<MetricValue> values = Arrays.asList(value);
+        for (PreprocessingOperator operator : this.operators) {
+            List<MetricValue> output = new ArrayList<>();
+            for (MetricValue input : values) {
+                output.addAll(operator.process(input));
+            }
+            if (output.isEmpty()) {
+                return output;
+            }
+            values = output;
+        }
+        return values;
+    }
+
+    /**
+     * Feeds a batch of {@link MetricValue}s, sorted in order of increasing
+     * time, to the pipeline.
+     *
+     * @param values
+     * @return The output values produced (possibly none), in order of
+     *         increasing time.
+     */
+    public List<MetricValue> processAll(List<MetricValue> values) {
+        List<MetricValue> output = new ArrayList<>();
+        for (MetricValue value : values) {
+            output.addAll(process(value));
+        }
+        return output;
+    }
+}
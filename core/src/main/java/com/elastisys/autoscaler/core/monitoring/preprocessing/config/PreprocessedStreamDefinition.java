@@ -0,0 +1,110 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import com.elastisys.autoscaler.core.monitoring.preprocessing.PreprocessedMetricStream;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.PreprocessingOperator;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.PreprocessingPipeline;
+import com.elastisys.scale.commons.json.JsonUtils;
+
+/**
+ * Declares a {@link PreprocessedMetricStream}: a metric stream whose values
+ * are those of an input metric stream, passed through a chain of
+ * {@link PreprocessingStep}s.
+ *
+ * @see PreprocessingConfig
+ */
+public class PreprocessedStreamDefinition {
+    /** The id of the preprocessed metric stream. Required. */
+    private final String id;
+    /**
+     * The id of the metric stream whose values are preprocessed. Required.
+     */
+    private final String inputStream;
+    /**
+     * The preprocessing steps, in order of application. May be
+     * <code>null</code>, which passes values through as-is.
+     */
+    private final List<PreprocessingStep> steps;
+
+    /**
+     * Creates a {@link PreprocessedStreamDefinition}.
+     *
+     * @param id
+     *            The id of the preprocessed metric stream. Required.
+     * @param inputStream
+     *            The id of the metric stream whose values are preprocessed.
+     *            Required.
+     * @param steps
+     *            The preprocessing steps, in order of application. May be
+     *            <code>null</code>.
+     */
+    public PreprocessedStreamDefinition(String id, String inputStream, List<PreprocessingStep> steps) {
+        this.id = id;
+        this.inputStream = inputStream;
+        this.steps = steps;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public String getInputStream() {
+        return this.inputStream;
+    }
+
+    public List<PreprocessingStep> getSteps() {
+        return Optional.ofNullable(this.steps).orElse(Collections.emptyList());
+    }
+
+    /**
+     * Creates a new {@link PreprocessingPipeline} (with empty state) that
+     * carries out the {@link #steps}.
+     *
+     * @return
+     */
+    public PreprocessingPipeline createPipeline() {
+        List<PreprocessingOperator> operators = getSteps().stream().map(PreprocessingStep::createOperator)
+                .collect(Collectors.toCollection(ArrayList::new));
+        return new PreprocessingPipeline(operators);
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            checkArgument(this.id != null, "missing id");
+            checkArgument(this.inputStream != null, "missing inputStream");
+            checkArgument(!this.id.equals(this.inputStream), "inputStream cannot be the stream itself");
+            getSteps().forEach(PreprocessingStep::validate);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("metricStream: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id, this.inputStream, getSteps());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PreprocessedStreamDefinition) {
+            PreprocessedStreamDefinition that = (PreprocessedStreamDefinition) obj;
+            return Objects.equals(this.id, that.id) //
+                    && Objects.equals(this.inputStream, that.inputStream) //
+                    && Objects.equals(getSteps(), that.getSteps());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
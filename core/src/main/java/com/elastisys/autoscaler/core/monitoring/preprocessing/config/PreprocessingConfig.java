@@ -0,0 +1,70 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import com.elastisys.autoscaler.core.monitoring.preprocessing.MetricStreamPreprocessor;
+import com.elastisys.scale.commons.json.JsonUtils;
+
+/**
+ * Configuration for the {@link MetricStreamPreprocessor}.
+ */
+public class PreprocessingConfig {
+
+    /**
+     * The preprocessed metric streams to publish. May be <code>null</code>.
+     */
+    private final List<PreprocessedStreamDefinition> metricStreams;
+
+    /**
+     * Creates a {@link PreprocessingConfig}.
+     *
+     * @param metricStreams
+     *            The preprocessed metric streams to publish. May be
+     *            <code>null</code>.
+     */
+    public PreprocessingConfig(List<PreprocessedStreamDefinition> metricStreams) {
+        this.metricStreams = metricStreams;
+    }
+
+    public List<PreprocessedStreamDefinition> getMetricStreams() {
+        return Optional.ofNullable(this.metricStreams).orElse(Collections.emptyList());
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            Set<String> ids = new HashSet<>();
+            for (PreprocessedStreamDefinition metricStream : getMetricStreams()) {
+                metricStream.validate();
+                checkArgument(ids.add(metricStream.getId()), "duplicate metricStream id: %s", metricStream.getId());
+            }
+        } catch (Exception e) {
+            throw new IllegalArgumentException("preprocessing: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getMetricStreams());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PreprocessingConfig) {
+            PreprocessingConfig that = (PreprocessingConfig) obj;
+            return Objects.equals(getMetricStreams(), that.getMetricStreams());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+}
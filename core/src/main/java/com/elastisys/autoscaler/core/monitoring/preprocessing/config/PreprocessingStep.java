@@ -0,0 +1,259 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.joda.time.Duration;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConversion;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.PreprocessingOperator;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.EwmaSmoother;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.GapFiller;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.OutlierRejector;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.RateOperator;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.Resampler;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Declares a single step in the preprocessing of a metric stream. Which of the
+ * parameters apply depends on the {@link #type} of the step.
+ *
+ * @see PreprocessedStreamDefinition
+ */
+public class PreprocessingStep {
+    /** Default value for {@link #window}. */
+    public static final int DEFAULT_WINDOW = 30;
+    /** Default value for {@link #rateConversion}. */
+    public static final RateConversion DEFAULT_RATE_CONVERSION = RateConversion.GAUGE;
+
+    /** The kind of step. Required. */
+    private final PreprocessingStepType type;
+    /**
+     * {@link PreprocessingStepType#OUTLIER_FILTER}: the number of recent values
+     * to judge a value against. May be <code>null</code>. Default:
+     * {@value #DEFAULT_WINDOW}.
+     */
+    private final Integer window;
+    /**
+     * {@link PreprocessingStepType#EWMA}: the weight given to the most recent
+     * value. A value in {@code (0, 1]}. Required for
+     * {@link PreprocessingStepType#EWMA}.
+     */
+    private final Double alpha;
+    /**
+     * {@link PreprocessingStepType#RATE}: describes how metric values are
+     * interpreted. May be <code>null</code>. Default:
+     * {@link #DEFAULT_RATE_CONVERSION}.
+     */
+    private final RateConversion rateConversion;
+    /**
+     * {@link PreprocessingStepType#GAP_FILL} and
+     * {@link PreprocessingStepType#RESAMPLE}: the distance between values.
+     * Required for those step types.
+     */
+    private final TimeInterval step;
+    /**
+     * {@link PreprocessingStepType#GAP_FILL} and
+     * {@link PreprocessingStepType#RESAMPLE}: the longest gap to fill or
+     * interpolate across. May be <code>null</code>, which means no limit.
+     */
+    private final TimeInterval maxGap;
+
+    /**
+     * Creates a {@link PreprocessingStep}.
+     *
+     * @param type
+     *            The kind of step. Required.
+     * @param window
+     *            {@link PreprocessingStepType#OUTLIER_FILTER}: the number of
+     *            recent values to judge a value against. May be
+     *            <code>null</code>.
+     * @param alpha
+     *            {@link PreprocessingStepType#EWMA}: the weight given to the
+     *            most recent value.
+     * @param rateConversion
+     *            {@link PreprocessingStepType#RATE}: describes how metric
+     *            values are interpreted. May be <code>null</code>.
+     * @param step
+     *            {@link PreprocessingStepType#GAP_FILL} and
+     *            {@link PreprocessingStepType#RESAMPLE}: the distance between
+     *            values.
+     * @param maxGap
+     *            {@link PreprocessingStepType#GAP_FILL} and
+     *            {@link PreprocessingStepType#RESAMPLE}: the longest gap to
+     *            fill or interpolate across. May be <code>null</code>.
+     */
+    public PreprocessingStep(PreprocessingStepType type, Integer window, Double alpha, RateConversion rateConversion,
+            TimeInterval step, TimeInterval maxGap) {
+        this.type = type;
+        this.window = window;
+        this.alpha = alpha;
+        this.rateConversion = rateConversion;
+        this.step = step;
+        this.maxGap = maxGap;
+    }
+
+    /**
+     * Creates a {@link PreprocessingStepType#OUTLIER_FILTER} step.
+     *
+     * @param window
+     * @return
+     */
+    public static PreprocessingStep outlierFilter(int window) {
+        return new PreprocessingStep(PreprocessingStepType.OUTLIER_FILTER, window, null, null, null, null);
+    }
+
+    /**
+     * Creates a {@link PreprocessingStepType#EWMA} step.
+     *
+     * @param alpha
+     * @return
+     */
+    public static PreprocessingStep ewma(double alpha) {
+        return new PreprocessingStep(PreprocessingStepType.EWMA, null, alpha, null, null, null);
+    }
+
+    /**
+     * Creates a {@link PreprocessingStepType#RATE} step.
+     *
+     * @param rateConversion
+     * @return
+     */
+    public static PreprocessingStep rate(RateConversion rateConversion) {
+        return new PreprocessingStep(PreprocessingStepType.RATE, null, null, rateConversion, null, null);
+    }
+
+    /**
+     * Creates a {@link PreprocessingStepType#GAP_FILL} step.
+     *
+     * @param step
+     * @param maxGap
+     *            May be <code>null</code>.
+     * @return
+     */
+    public static PreprocessingStep gapFill(TimeInterval step, TimeInterval maxGap) {
+        return new PreprocessingStep(PreprocessingStepType.GAP_FILL, null, null, null, step, maxGap);
+    }
+
+    /**
+     * Creates a {@link PreprocessingStepType#RESAMPLE} step.
+     *
+     * @param step
+     * @param maxGap
+     *            May be <code>null</code>.
+     * @return
+     */
+    public static PreprocessingStep resample(TimeInterval step, TimeInterval maxGap) {
+        return new PreprocessingStep(PreprocessingStepType.RESAMPLE, null, null, null, step, maxGap);
+    }
+
+    public PreprocessingStepType getType() {
+        return this.type;
+    }
+
+    public int getWindow() {
+        return Optional.ofNullable(this.window).orElse(DEFAULT_WINDOW);
+    }
+
+    public Double getAlpha() {
+        return this.alpha;
+    }
+
+    public RateConversion getRateConversion() {
+        return Optional.ofNullable(this.rateConversion).orElse(DEFAULT_RATE_CONVERSION);
+    }
+
+    public TimeInterval getStep() {
+        return this.step;
+    }
+
+    public Optional<TimeInterval> getMaxGap() {
+        return Optional.ofNullable(this.maxGap);
+    }
+
+    /**
+     * Creates a new {@link PreprocessingOperator} (with empty state) that
+     * carries out this step.
+     *
+     * @return
+     */
+    public PreprocessingOperator createOperator() {
+        switch (this.type) {
+        case OUTLIER_FILTER:
+            return new OutlierRejector(getWindow());
+        case EWMA:
+            return new EwmaSmoother(this.alpha);
+        case RATE:
+            return new RateOperator(getRateConversion());
+        case GAP_FILL:
+            return new GapFiller(duration(this.step), getMaxGap().map(PreprocessingStep::duration));
+        case RESAMPLE:
+            return new Resampler(duration(this.step), getMaxGap().map(PreprocessingStep::duration));
+        default:
+            throw new IllegalArgumentException("unrecognized preprocessing step type: " + this.type);
+        }
+    }
+
+    private static Duration duration(TimeInterval interval) {
+        return Duration.millis(interval.getMillis());
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            checkArgument(this.type != null, "missing type");
+            switch (this.type) {
+            case OUTLIER_FILTER:
+                checkArgument(getWindow() >= 2, "window must be at least 2");
+                break;
+            case EWMA:
+                checkArgument(this.alpha != null, "%s requires alpha", this.type);
+                checkArgument(0.0 < this.alpha && this.alpha <= 1.0, "alpha must be in range (0, 1]");
+                break;
+            case RATE:
+                break;
+            case GAP_FILL:
+            case RESAMPLE:
+                checkArgument(this.step != null, "%s requires step", this.type);
+                this.step.validate();
+                checkArgument(this.step.getMillis() > 0, "step must be positive");
+                if (this.maxGap != null) {
+                    this.maxGap.validate();
+                    checkArgument(this.maxGap.getMillis() >= this.step.getMillis(),
+                            "maxGap must not be shorter than step");
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unrecognized type: " + this.type);
+            }
+        } catch (Exception e) {
+            throw new IllegalArgumentException("step: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.type, this.window, this.alpha, this.rateConversion, this.step, this.maxGap);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PreprocessingStep) {
+            PreprocessingStep that = (PreprocessingStep) obj;
+            return Objects.equals(this.type, that.type) //
+                    && Objects.equals(this.window, that.window) //
+                    && Objects.equals(this.alpha, that.alpha) //
+                    && Objects.equals(this.rateConversion, that.rateConversion) //
+                    && Objects.equals(this.step, that.step) //
+                    && Objects.equals(this.maxGap, that.maxGap);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
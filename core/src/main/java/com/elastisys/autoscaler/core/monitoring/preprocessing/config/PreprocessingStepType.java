@@ -0,0 +1,23 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing.config;
+
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.EwmaSmoother;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.GapFiller;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.OutlierRejector;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.RateOperator;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.Resampler;
+
+/**
+ * The kinds of {@link PreprocessingStep}s that are available.
+ */
+public enum PreprocessingStepType {
+    /** Drops outliers. See {@link OutlierRejector}. */
+    OUTLIER_FILTER,
+    /** Exponentially weighted moving average. See {@link EwmaSmoother}. */
+    EWMA,
+    /** Conversion to change rate. See {@link RateOperator}. */
+    RATE,
+    /** Carries values forward across gaps. See {@link GapFiller}. */
+    GAP_FILL,
+    /** Resamples values to a fixed step. See {@link Resampler}. */
+    RESAMPLE;
+}
@@ -0,0 +1,51 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing.operators;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.PreprocessingOperator;
+
+/**
+ * A {@link PreprocessingOperator} that smooths values with an exponentially
+ * weighted moving average:
+ *
+ * <pre>
+ * s[0] = v[0]
+ * s[i] = alpha * v[i] + (1 - alpha) * s[i - 1]
+ * </pre>
+ */
+public class EwmaSmoother implements PreprocessingOperator {
+
+    /**
+     * The weight given to the most recent value. A value in {@code (0, 1]},
+     * where {@code 1} means no smoothing.
+     */
+    private final double alpha;
+    /** The current average. <code>null</code> until the first value. */
+    private Double average;
+
+    /**
+     * Creates an {@link EwmaSmoother}.
+     *
+     * @param alpha
+     *            The weight given to the most recent value. A value in
+     *            {@code (0, 1]}, where {@code 1} means no smoothing.
+     */
+    public EwmaSmoother(double alpha) {
+        checkArgument(0.0 < alpha && alpha <= 1.0, "ewmaSmoother: alpha must be in range (0, 1]");
+        this.alpha = alpha;
+    }
+
+    @Override
+    public List<MetricValue> process(MetricValue value) {
+        if (this.average == null) {
+            this.average = value.getValue();
+        } else {
+            this.average = this.alpha * value.getValue() + (1 - this.alpha) * this.average;
+        }
+        return Collections.singletonList(value.withValue(this.average));
+    }
+}
@@ -0,0 +1,75 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing.operators;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.PreprocessingOperator;
+
+/**
+ * A {@link PreprocessingOperator} that fills gaps in a metric stream by
+ * carrying the last value forward. Whenever two consecutive values are more
+ * than one {@code step} apart, copies of the earlier value are inserted at
+ * {@code step} intervals.
+ * <p/>
+ * Gaps longer than {@code maxGap} (if set) are left as-is, since carrying a
+ * value forward across a long outage would hide the outage rather than
+ * bridge it.
+ */
+public class GapFiller implements PreprocessingOperator {
+
+    /** The largest tolerated distance between two consecutive values. */
+    private final Duration step;
+    /** The longest gap to fill. {@link Optional#empty()} means no limit. */
+    private final Optional<Duration> maxGap;
+
+    /** The last value seen. <code>null</code> until the first value. */
+    private MetricValue last;
+
+    /**
+     * Creates a {@link GapFiller}.
+     *
+     * @param step
+     *            The largest tolerated distance between two consecutive
+     *            values.
+     * @param maxGap
+     *            The longest gap to fill. {@link Optional#empty()} means no
+     *            limit.
+     */
+    public GapFiller(Duration step, Optional<Duration> maxGap) {
+        checkArgument(step != null && step.getMillis() > 0, "gapFiller: step must be positive");
+        checkArgument(maxGap != null, "gapFiller: maxGap cannot be null");
+        this.step = step;
+        this.maxGap = maxGap;
+    }
+
+    @Override
+    public List<MetricValue> process(MetricValue value) {
+        if (this.last != null && !value.getTime().isAfter(this.last.getTime())) {
+            return Collections.emptyList();
+        }
+
+        List<MetricValue> output = new ArrayList<>();
+        if (this.last != null && isFillable(new Duration(this.last.getTime(), value.getTime()))) {
+            DateTime fillTime = this.last.getTime().plus(this.step);
+            while (fillTime.isBefore(value.getTime())) {
+                output.add(new MetricValue(this.last.getMetric(), this.last.getValue(), fillTime, this.last.getTags()));
+                fillTime = fillTime.plus(this.step);
+            }
+        }
+        output.add(value);
+        this.last = value;
+        return output;
+    }
+
+    private boolean isFillable(Duration gap) {
+        return gap.isLongerThan(this.step) && !(this.maxGap.isPresent() && gap.isLongerThan(this.maxGap.get()));
+    }
+}
@@ -0,0 +1,93 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing.operators;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.PreprocessingOperator;
+import com.elastisys.autoscaler.core.utils.stats.timeseries.TimeSeriesPredicates;
+import com.elastisys.autoscaler.core.utils.stats.timeseries.impl.OutlierFilteredTimeSeries;
+
+/**
+ * A {@link PreprocessingOperator} that drops outliers. A value is considered
+ * an outlier if it is an outlier (according to
+ * {@link TimeSeriesPredicates.IsOutlier}) with respect to a sliding window of
+ * the most recent values.
+ * <p/>
+ * This is the incremental counterpart of the {@link OutlierFilteredTimeSeries}:
+ * the mean and variance of the window are maintained as running sums, so each
+ * value is processed in constant time.
+ * <p/>
+ * All values, including outliers, enter the window. That way, a lasting shift
+ * in level is accepted after a few values rather than rejected forever.
+ */
+public class OutlierRejector implements PreprocessingOperator {
+    static final Logger LOG = LoggerFactory.getLogger(OutlierRejector.class);
+
+    /** Ring buffer holding the values in the window. */
+    private final double[] window;
+    /** The index in {@link #window} to write the next value to. */
+    private int next = 0;
+    /** The number of values in {@link #window}. */
+    private int size = 0;
+    /** The sum of the values in the window. */
+    private double sum = 0.0;
+    /** The sum of the squared values in the window. */
+    private double sumOfSquares = 0.0;
+
+    /**
+     * Creates an {@link OutlierRejector}.
+     *
+     * @param windowSize
+     *            The number of recent values to judge a value against. No
+     *            value is rejected until the window is full.
+     */
+    public OutlierRejector(int windowSize) {
+        checkArgument(windowSize >= 2, "outlierRejector: windowSize must be at least 2");
+        this.window = new double[windowSize];
+    }
+
+    @Override
+    public List<MetricValue> process(MetricValue value) {
+        boolean outlier = isOutlier(value);
+        add(value.getValue());
+        if (outlier) {
+            LOG.debug("dropping outlier {}", value);
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(value);
+    }
+
+    private boolean isOutlier(MetricValue value) {
+        if (this.size < this.window.length) {
+            return false;
+        }
+        double mean = this.sum / this.size;
+        // sample variance (clamped to guard against rounding errors)
+        double variance = Math.max(0.0, (this.sumOfSquares - this.size * mean * mean) / (this.size - 1));
+        double standardDeviation = Math.sqrt(variance);
+        if (standardDeviation == 0.0) {
+            return false;
+        }
+        return TimeSeriesPredicates.isOutlier(mean, standardDeviation, this.size).test(value);
+    }
+
+    private void add(double value) {
+        if (this.size == this.window.length) {
+            double evicted = this.window[this.next];
+            this.sum -= evicted;
+            this.sumOfSquares -= evicted * evicted;
+        } else {
+            this.size++;
+        }
+        this.window[this.next] = value;
+        this.sum += value;
+        this.sumOfSquares += value * value;
+        this.next = (this.next + 1) % this.window.length;
+    }
+}
@@ -0,0 +1,36 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing.operators;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConversion;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.StreamingRateConverter;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.PreprocessingOperator;
+
+/**
+ * A {@link PreprocessingOperator} that converts values to change rates (per
+ * second). No value is produced for the first value.
+ *
+ * @see StreamingRateConverter
+ */
+public class RateOperator implements PreprocessingOperator {
+
+    /** Carries the previous value between calls. */
+    private final StreamingRateConverter converter;
+
+    /**
+     * Creates a {@link RateOperator}.
+     *
+     * @param conversion
+     *            Describes how metric values are interpreted.
+     */
+    public RateOperator(RateConversion conversion) {
+        this.converter = new StreamingRateConverter(conversion);
+    }
+
+    @Override
+    public List<MetricValue> process(MetricValue value) {
+        return this.converter.apply(Collections.singletonList(value));
+    }
+}
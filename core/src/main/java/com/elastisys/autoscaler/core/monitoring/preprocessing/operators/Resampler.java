@@ -0,0 +1,103 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing.operators;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Duration;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.PreprocessingOperator;
+
+/**
+ * A {@link PreprocessingOperator} that resamples a metric stream to evenly
+ * spaced values, one every {@code step}. Output values are aligned to whole
+ * multiples of {@code step} (counted from the epoch), and their values are
+ * linearly interpolated between the input values surrounding them.
+ * <p/>
+ * No values are interpolated across a gap between input values that is
+ * longer than {@code maxGap} (if set).
+ */
+public class Resampler implements PreprocessingOperator {
+
+    /** The distance between output values. */
+    private final Duration step;
+    /**
+     * The longest gap to interpolate across. {@link Optional#empty()} means no
+     * limit.
+     */
+    private final Optional<Duration> maxGap;
+
+    /** The last input value seen. <code>null</code> until the first value. */
+    private MetricValue previous;
+    /** The time (in epoch millis) of the next output value. */
+    private long nextOutputTime;
+
+    /**
+     * Creates a {@link Resampler}.
+     *
+     * @param step
+     *            The distance between output values.
+     * @param maxGap
+     *            The longest gap to interpolate across.
+     *            {@link Optional#empty()} means no limit.
+     */
+    public Resampler(Duration step, Optional<Duration> maxGap) {
+        checkArgument(step != null && step.getMillis() > 0, "resampler: step must be positive");
+        checkArgument(maxGap != null, "resampler: maxGap cannot be null");
+        this.step = step;
+        this.maxGap = maxGap;
+    }
+
+    @Override
+    public List<MetricValue> process(MetricValue value) {
+        long time = value.getTime().getMillis();
+        if (this.previous != null && time <= this.previous.getTime().getMillis()) {
+            return Collections.emptyList();
+        }
+
+        List<MetricValue> output = new ArrayList<>();
+        if (this.previous == null || isTooLongGap(new Duration(this.previous.getTime(), value.getTime()))) {
+            // (re)start at the first output time at or after this value
+            this.nextOutputTime = alignUp(time);
+        } else {
+            long previousTime = this.previous.getTime().getMillis();
+            double slope = (value.getValue() - this.previous.getValue()) / (time - previousTime);
+            while (this.nextOutputTime < time) {
+                double interpolated = this.previous.getValue() + slope * (this.nextOutputTime - previousTime);
+                output.add(at(value, interpolated, this.nextOutputTime));
+                this.nextOutputTime += this.step.getMillis();
+            }
+        }
+        if (this.nextOutputTime == time) {
+            output.add(at(value, value.getValue(), time));
+            this.nextOutputTime += this.step.getMillis();
+        }
+        this.previous = value;
+        return output;
+    }
+
+    private boolean isTooLongGap(Duration gap) {
+        return this.maxGap.isPresent() && gap.isLongerThan(this.maxGap.get());
+    }
+
+    /**
+     * Returns the first multiple of {@link #step} at or after a given time.
+     *
+     * @param millis
+     * @return
+     */
+    private long alignUp(long millis) {
+        long stepMillis = this.step.getMillis();
+        return Math.floorDiv(millis + stepMillis - 1, stepMillis) * stepMillis;
+    }
+
+    private static MetricValue at(MetricValue template, double value, long millis) {
+        return new MetricValue(template.getMetric(), value, new DateTime(millis, DateTimeZone.UTC), template.getTags());
+    }
+}
@@ -29,7 +29,10 @@ import com.elastisys.scale.commons.net.alerter.Alert;
  * and alerts on suspiciously low activity.
  * <p/>
  * Whenever too long periods of metric stream inactivity is detected, an
- * {@link Alert} is sent on the {@link AutoScaler} 's {@link EventBus}.
+ * {@link Alert} is sent on the {@link AutoScaler} 's {@link EventBus}. The
+ * health of each {@link MetricStreamer} (which, for instance, reports open
+ * circuit breakers for unavailable backends) is checked in the same pass and
+ * changes are alerted on.
  */
 public class MetricStreamMonitor implements Service<MetricStreamMonitorConfig> {
 
@@ -43,6 +46,8 @@ public class MetricStreamMonitor implements Service<MetricStreamMonitorConfig> {
 
     /** The tracker of stream activity. */
     private final StreamActivityChecker streamActivityChecker;
+    /** The tracker of metric streamer health. */
+    private final StreamerHealthChecker streamerHealthChecker;
 
     @Inject
     public MetricStreamMonitor(Logger logger, EventBus eventBus, ScheduledExecutorService executor,
@@ -51,6 +56,7 @@ public class MetricStreamMonitor implements Service<MetricStreamMonitorConfig> {
         this.executor = executor;
 
         this.streamActivityChecker = new StreamActivityChecker(logger, monitoringSubsystem, eventBus);
+        this.streamerHealthChecker = new StreamerHealthChecker(logger, monitoringSubsystem, eventBus);
 
         this.config = null;
     }
@@ -89,7 +95,10 @@ public class MetricStreamMonitor implements Service<MetricStreamMonitorConfig> {
         TimeInterval checkInterval = config().getCheckInterval();
 
         this.streamActivityChecker.start();
-        Runnable activityCheckTask = () -> this.streamActivityChecker.alertOnActivityChange(maxTolerableInactivity);
+        Runnable activityCheckTask = () -> {
+            this.streamActivityChecker.alertOnActivityChange(maxTolerableInactivity);
+            this.streamerHealthChecker.alertOnHealthChange();
+        };
 
         this.activityCheckerTask = this.executor.scheduleAtFixedRate(activityCheckTask, checkInterval.getTime(),
                 checkInterval.getTime(), checkInterval.getUnit());
@@ -0,0 +1,124 @@
+package com.elastisys.autoscaler.core.monitoring.streammonitor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.alerter.api.types.AlertTopics;
+import com.elastisys.autoscaler.core.api.types.ServiceStatus;
+import com.elastisys.autoscaler.core.api.types.ServiceStatus.Health;
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.AlertSeverity;
+import com.elastisys.scale.commons.util.collection.Maps;
+import com.elastisys.scale.commons.util.time.UtcTime;
+import com.google.gson.JsonElement;
+
+/**
+ * Tracks the reported {@link ServiceStatus} of each {@link MetricStreamer} and
+ * emits {@link Alert}s on the {@link EventBus} when a {@link MetricStreamer}
+ * goes from good to bad health (for example, when a {@link CircuitBreaker} for
+ * its backend opens) and when it recovers.
+ *
+ * @see MetricStreamMonitor
+ */
+public class StreamerHealthChecker {
+
+    /** {@link Alert} tag used for a metric streamer identifier. */
+    static final String METRIC_STREAMER = "metricStreamer";
+    /** {@link Alert} tag used for a metric streamer health. */
+    static final String METRIC_STREAMER_HEALTH = "metricStreamerHealth";
+
+    private final Logger logger;
+    /**
+     * The {@link MonitoringSubsystem}, whose {@link MetricStreamer}s are to be
+     * checked.
+     */
+    private final MonitoringSubsystem<?> monitoringSubsystem;
+    /** The {@link EventBus} on which to send health {@link Alert}s. */
+    private final EventBus eventBus;
+
+    /** The last observed {@link Health} of each {@link MetricStreamer}. */
+    private final Map<MetricStreamer<?>, Health> lastObservedHealth;
+
+    /**
+     * Creates a {@link StreamerHealthChecker}.
+     *
+     * @param logger
+     *            A {@link Logger} instance.
+     * @param monitoringSubsystem
+     *            The {@link MonitoringSubsystem}, whose {@link MetricStreamer}s
+     *            are to be checked.
+     * @param eventBus
+     *            The {@link EventBus} on which to send health {@link Alert}s.
+     */
+    public StreamerHealthChecker(Logger logger, MonitoringSubsystem<?> monitoringSubsystem, EventBus eventBus) {
+        this.logger = logger;
+        this.monitoringSubsystem = monitoringSubsystem;
+        this.eventBus = eventBus;
+        this.lastObservedHealth = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Checks the health of all {@link MetricStreamer}s and sends out a warning
+     * {@link Alert} for every {@link MetricStreamer} that has turned unhealthy
+     * since the last check, and a notice {@link Alert} for every
+     * {@link MetricStreamer} that has recovered.
+     */
+    public void alertOnHealthChange() {
+        this.logger.debug("checking metric streamer health ...");
+
+        List<MetricStreamer<?>> metricStreamers = this.monitoringSubsystem.getMetricStreamers();
+        // forget about all tracked metric streamers that are no longer in use
+        this.lastObservedHealth.keySet().retainAll(metricStreamers);
+
+        for (MetricStreamer<?> metricStreamer : metricStreamers) {
+            try {
+                checkHealth(metricStreamer);
+            } catch (Exception e) {
+                this.logger.error(String.format("failed to check health of metric streamer %s: %s",
+                        name(metricStreamer), e.getMessage()), e);
+            }
+        }
+    }
+
+    private void checkHealth(MetricStreamer<?> metricStreamer) {
+        ServiceStatus status = metricStreamer.getStatus();
+        Health previousHealth = this.lastObservedHealth.getOrDefault(metricStreamer, Health.OK);
+        this.lastObservedHealth.put(metricStreamer, status.getHealth());
+        if (status.getHealth() == previousHealth) {
+            return;
+        }
+
+        if (status.getHealth() == Health.NOT_OK) {
+            String message = String.format("metric streamer %s is unhealthy: %s", name(metricStreamer),
+                    status.getHealthDetail());
+            this.logger.warn(message);
+            sendAlert(metricStreamer, AlertSeverity.WARN, message, Health.NOT_OK);
+        } else {
+            String message = String.format("previously unhealthy metric streamer %s appears to have recovered",
+                    name(metricStreamer));
+            this.logger.info(message);
+            sendAlert(metricStreamer, AlertSeverity.NOTICE, message, Health.OK);
+        }
+    }
+
+    private void sendAlert(MetricStreamer<?> metricStreamer, AlertSeverity severity, String message, Health health) {
+        Map<String, JsonElement> tags = Maps.of( //
+                METRIC_STREAMER, JsonUtils.toJson(name(metricStreamer)), //
+                METRIC_STREAMER_HEALTH, JsonUtils.toJson(health.name()));
+        Alert alert = new Alert(AlertTopics.STREAMER_HEALTH_UPDATE.getTopicPath(), severity, UtcTime.now(), message,
+                null, tags);
+        this.eventBus.post(alert);
+    }
+
+    private static String name(MetricStreamer<?> metricStreamer) {
+        return metricStreamer.getClass().getSimpleName();
+    }
+}
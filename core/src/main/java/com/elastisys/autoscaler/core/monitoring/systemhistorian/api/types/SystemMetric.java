@@ -64,6 +64,34 @@ public enum SystemMetric {
      * values reported by different {@link AutoScaler} instances.
      */
     COMPUTE_UNIT_PREDICTION("autoscaler.prediction.computeunit"),
+    /**
+     * A metric used to report that a {@link Predictor} did not produce its
+     * prediction within its deadline (and was left out of the <i>aggregate
+     * prediction</i>). The reported value is the deadline in milliseconds.
+     * <p/>
+     * Note: the {@code predictor} tag identifies the {@link Predictor}.
+     */
+    PREDICTOR_DEADLINE_MISSED("autoscaler.predictor.deadline.missed"),
+    /**
+     * A metric used to report the internal state estimate of a
+     * {@link Predictor} that tracks the monitored metric with a state-space
+     * model (such as the filtered level of the metric and its rate of change).
+     * <p/>
+     * Note: the {@code predictor} tag identifies the {@link Predictor}, the
+     * {@code metric} tag the tracked metric and the {@code component} tag the
+     * reported component of the state.
+     */
+    PREDICTOR_STATE_ESTIMATE("autoscaler.predictor.state.estimate"),
+    /**
+     * A metric used to report the uncertainty (as a standard deviation) of the
+     * internal state estimate of a {@link Predictor} (see
+     * {@link #PREDICTOR_STATE_ESTIMATE}).
+     * <p/>
+     * Note: the {@code predictor} tag identifies the {@link Predictor}, the
+     * {@code metric} tag the tracked metric and the {@code component} tag the
+     * reported component of the state.
+     */
+    PREDICTOR_STATE_UNCERTAINTY("autoscaler.predictor.state.uncertainty"),
     /**
      * A metric used to report the minimum capacity limit active at a certain
      * point in time.
@@ -100,7 +128,31 @@ public enum SystemMetric {
      * Note: tags can be used on the {@link SystemMetricEvent} to differentiate
      * values reported by different {@link AutoScaler} instances.
      */
-    CLOUDPOOL_SIZE_CHANGED("autoscaler.cloudpool.size.changed");
+    CLOUDPOOL_SIZE_CHANGED("autoscaler.cloudpool.size.changed"),
+    /**
+     * A metric used to report the number of events queued in a lane of the
+     * {@link AutoScaler}'s {@link EventBus} (when a ring-buffer based
+     * {@link EventBus} is in use).
+     * <p/>
+     * Note: the {@code lane} tag identifies the reporting lane.
+     */
+    EVENTBUS_QUEUE_DEPTH("autoscaler.eventbus.queue.depth"),
+    /**
+     * A metric used to report the largest number of events that have been
+     * queued at once in a lane of the {@link AutoScaler}'s {@link EventBus}
+     * (when a ring-buffer based {@link EventBus} is in use).
+     * <p/>
+     * Note: the {@code lane} tag identifies the reporting lane.
+     */
+    EVENTBUS_MAX_QUEUE_DEPTH("autoscaler.eventbus.queue.depth.max"),
+    /**
+     * A metric used to report the total number of events that a lane of the
+     * {@link AutoScaler}'s {@link EventBus} has dropped because the lane was
+     * full (when a ring-buffer based {@link EventBus} is in use).
+     * <p/>
+     * Note: the {@code lane} tag identifies the reporting lane.
+     */
+    EVENTBUS_DROPPED_EVENTS("autoscaler.eventbus.dropped");
 
     private final String metricName;
 
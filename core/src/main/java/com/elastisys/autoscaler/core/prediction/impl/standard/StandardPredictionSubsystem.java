@@ -11,10 +11,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
@@ -64,6 +67,16 @@ import com.google.inject.name.Names;
  * scaling decisions, etc. Finally, the currently active capacity limit (if any)
  * is applied to the aggregate prediction to produce a <i>bounded capacity</i>
  * (which is capped by the min and max limit of the capacity limit).
+ * <p/>
+ * The {@link Predictor}s run in parallel, and each of them is given a deadline
+ * (see {@link StandardPredictionSubsystemConfig#getPredictorDeadline()}) to
+ * produce its prediction. A {@link Predictor} that misses its deadline is left
+ * out of the aggregate prediction (and an alert is raised), which bounds the
+ * time spent in the prediction pipeline regardless of how slow any single
+ * {@link Predictor} is. Since a {@link Predictor} that is stuck (for example,
+ * blocked on a lock) may not respond to cancellation, a {@link Predictor} whose
+ * prediction from an earlier run is still executing is skipped rather than
+ * having yet another prediction task occupy a thread of the executor.
  *
  * @see Predictor
  */
@@ -93,6 +106,8 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
     private Optional<StandardPredictionSubsystemConfig> config = Optional.empty();
     /** Contains fault details of the latest prediction run failure. */
     private Optional<Throwable> lastFailure = Optional.empty();
+    /** The most recently started prediction task of each {@link Predictor}. */
+    private final Map<Predictor, PredictionTask> latestTasks = new ConcurrentHashMap<>();
 
     @Inject
     public StandardPredictionSubsystem(Logger logger, EventBus bus, ScheduledExecutorService executorService,
@@ -132,16 +147,10 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
     public synchronized void configure(StandardPredictionSubsystemConfig config) throws IllegalArgumentException {
         this.logger.debug("applying configuration ...");
 
-        boolean needsRestart = isStarted();
-        if (needsRestart) {
-            stop();
-        }
-
+        // note: no restart needed, since configure cannot interleave with
+        // predict and the predictor registry only (re)starts the predictors
+        // that are affected by the new configuration
         apply(config);
-
-        if (needsRestart) {
-            start();
-        }
     }
 
     @Override
@@ -221,9 +230,11 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
 
         try {
             List<Predictor> predictors = this.predictorRegistry.getStartedPredictors();
+            long deadlineMillis = this.config.get().getPredictorDeadline().getMillis();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
             Map<Predictor, Future<Optional<Prediction>>> predictions = startPredictions(predictors, poolSize,
-                    predictionTime);
-            Map<Predictor, Optional<Prediction>> capacityPredictions = await(predictions);
+                    predictionTime, deadlineMillis);
+            Map<Predictor, Optional<Prediction>> capacityPredictions = await(predictions, deadline, deadlineMillis);
             Map<Predictor, Optional<Prediction>> computeUnitPredictions = map(capacityPredictions);
             Optional<Double> aggregatePrediction = aggregate(computeUnitPredictions, predictionTime);
             this.logger.debug("Aggregate prediction (CU): {}", aggregatePrediction);
@@ -256,6 +267,10 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
      * Starts capacity prediction tasks for a collection of {@link Predictor}s.
      * Each prediction is executed as a separate sub-task (in a separate
      * {@link Thread}).
+     * <p/>
+     * A {@link Predictor} whose prediction task from an earlier run is still
+     * executing (that is, it did not respond to being cancelled when it missed
+     * its deadline) is skipped and reported as having missed its deadline.
      *
      * @param predictors
      *            The {@link Predictor}s to execute.
@@ -264,15 +279,26 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
      *            if the cloud pool size could not be determined.
      * @param predictionTime
      *            The time for which to predict capacity.
+     * @param deadlineMillis
+     *            The predictor deadline in milliseconds. Used for reporting.
      * @return The prediction task execution handles (as {@link Future}
      *         objects).
      */
     private Map<Predictor, Future<Optional<Prediction>>> startPredictions(List<Predictor> predictors,
-            Optional<PoolSizeSummary> poolSize, DateTime predictionTime) {
+            Optional<PoolSizeSummary> poolSize, DateTime predictionTime, long deadlineMillis) {
+        // forget about tasks of predictors that are no longer started
+        this.latestTasks.keySet().retainAll(predictors);
+
         Map<Predictor, Future<Optional<Prediction>>> predictions = new HashMap<>();
         for (Predictor predictor : predictors) {
+            PredictionTask previousTask = this.latestTasks.get(predictor);
+            if (previousTask != null && previousTask.isRunning()) {
+                previousPredictionStillRunning(predictor, deadlineMillis);
+                continue;
+            }
             this.logger.debug("Launching predictor " + predictor.getConfiguration().getId());
             PredictionTask task = new PredictionTask(predictor, poolSize, predictionTime);
+            this.latestTasks.put(predictor, task);
             predictions.put(predictor, this.executorService.submit(task));
         }
         return predictions;
@@ -280,16 +306,23 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
 
     /**
      * Awaits completion of a collection of capacity prediction tasks and
-     * returns their results.
+     * returns their results. Tasks that have not completed by the deadline are
+     * cancelled and left out of the returned results.
      *
      * @param predictionTasks
      *            The capacity prediction tasks to await.
-     * @return The result of the capacity predictions.
+     * @param deadline
+     *            The {@link System#nanoTime()} by which the tasks must have
+     *            completed.
+     * @param deadlineMillis
+     *            The deadline, relative to when the tasks were started, in
+     *            milliseconds. Used for reporting.
+     * @return The result of the capacity predictions that completed in time.
      * @throws InterruptedException
      * @throws ExecutionException
      */
-    private Map<Predictor, Optional<Prediction>> await(Map<Predictor, Future<Optional<Prediction>>> predictionTasks)
-            throws InterruptedException, ExecutionException {
+    private Map<Predictor, Optional<Prediction>> await(Map<Predictor, Future<Optional<Prediction>>> predictionTasks,
+            long deadline, long deadlineMillis) throws InterruptedException, ExecutionException {
         Map<Predictor, Optional<Prediction>> predictionResults = new HashMap<>();
         for (Entry<Predictor, Future<Optional<Prediction>>> task : predictionTasks.entrySet()) {
             Predictor predictor = task.getKey();
@@ -297,14 +330,57 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
             // the current prediction pipeline execution to be aborted. It is
             // better that we fail early/hard than risking more subtle errors
             // downstream.
-            Optional<Prediction> result = task.getValue().get();
-            predictionResults.put(predictor, result);
+            try {
+                long remainingNanos = Math.max(0, deadline - System.nanoTime());
+                Optional<Prediction> result = task.getValue().get(remainingNanos, TimeUnit.NANOSECONDS);
+                predictionResults.put(predictor, result);
+            } catch (TimeoutException e) {
+                task.getValue().cancel(true);
+                deadlineMissed(predictor, deadlineMillis);
+            }
         }
         logPredictionResults(predictionResults);
         this.systemMetricPoster.postPredictionResults(predictionResults);
         return predictionResults;
     }
 
+    /**
+     * Reports that a {@link Predictor} did not produce its prediction within
+     * its deadline, by posting an {@link Alert} and a system metric.
+     *
+     * @param predictor
+     * @param deadlineMillis
+     */
+    private void deadlineMissed(Predictor predictor, long deadlineMillis) {
+        String predictorId = predictor.getConfiguration().getId();
+        String message = String.format("predictor %s missed its deadline", predictorId);
+        String detail = String.format("predictor %s did not produce a prediction within %d ms "
+                + "and was left out of the aggregate prediction", predictorId, deadlineMillis);
+        this.logger.warn(detail);
+        this.eventBus.post(new Alert(AlertTopics.PREDICTOR_DEADLINE_MISSED.getTopicPath(), AlertSeverity.WARN,
+                UtcTime.now(), message, detail));
+        this.systemMetricPoster.postPredictorDeadlineMissed(predictor, deadlineMillis);
+    }
+
+    /**
+     * Reports that a {@link Predictor} was skipped since its prediction task
+     * from an earlier run is still executing, by posting an {@link Alert} and a
+     * system metric.
+     *
+     * @param predictor
+     * @param deadlineMillis
+     */
+    private void previousPredictionStillRunning(Predictor predictor, long deadlineMillis) {
+        String predictorId = predictor.getConfiguration().getId();
+        String message = String.format("predictor %s missed its deadline", predictorId);
+        String detail = String.format("predictor %s is still executing an earlier prediction "
+                + "and was left out of the aggregate prediction", predictorId);
+        this.logger.warn(detail);
+        this.eventBus.post(new Alert(AlertTopics.PREDICTOR_DEADLINE_MISSED.getTopicPath(), AlertSeverity.WARN,
+                UtcTime.now(), message, detail));
+        this.systemMetricPoster.postPredictorDeadlineMissed(predictor, deadlineMillis);
+    }
+
     private void logPredictionResults(Map<Predictor, Optional<Prediction>> predictionResults) {
         List<String> results = new ArrayList<>();
         for (Entry<Predictor, Optional<Prediction>> predictionResult : predictionResults.entrySet()) {
@@ -368,6 +444,9 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
      * <p/>
      * If no aggregate prediction was received, the currently active capacity
      * limit (if any) is applied to bound the current pool size.
+     * <p/>
+     * The minimum of any capacity limit that becomes active within the
+     * configured capacity limit lead time is applied ahead of time.
      *
      * @param poolSizePrediction
      *            The <i>aggregate prediction</i> that is to be bounded.
@@ -381,6 +460,7 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
      */
     private Optional<Integer> limit(Optional<Double> poolSizePrediction, DateTime predictionTime,
             Optional<PoolSizeSummary> currentPoolSize) {
+        long capacityLimitLeadTime = this.config.get().getCapacityLimitLeadTime().getMillis();
         if (!poolSizePrediction.isPresent() && currentPoolSize.isPresent()) {
             // for the case where we don't have any prediction but we have a
             // known pool size, we use the current desired pool size as our
@@ -389,10 +469,12 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
             int desiredSize = currentPoolSize.get().getDesiredSize();
             this.logger.info("prediction absent, applying capacity limit " + "to current desired pool size: {}",
                     desiredSize);
-            return this.capacityLimitRegistry.limit(Optional.of(new Double(desiredSize)), predictionTime);
+            return this.capacityLimitRegistry.limit(Optional.of(new Double(desiredSize)), predictionTime,
+                    capacityLimitLeadTime);
         }
 
-        Optional<Integer> boundedPrediction = this.capacityLimitRegistry.limit(poolSizePrediction, predictionTime);
+        Optional<Integer> boundedPrediction = this.capacityLimitRegistry.limit(poolSizePrediction, predictionTime,
+                capacityLimitLeadTime);
         this.systemMetricPoster.postBoundedPrediction(boundedPrediction);
         return boundedPrediction;
     }
@@ -426,6 +508,8 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
         private final Predictor predictor;
         private final Optional<PoolSizeSummary> poolSize;
         private final DateTime predictionTime;
+        /** <code>true</code> while the prediction is executing. */
+        private volatile boolean running = false;
 
         public PredictionTask(Predictor predictor, Optional<PoolSizeSummary> poolSize, DateTime predictionTime) {
             this.predictor = predictor;
@@ -435,7 +519,23 @@ public class StandardPredictionSubsystem implements PredictionSubsystem<Standard
 
         @Override
         public Optional<Prediction> call() throws Exception {
-            return this.predictor.predict(this.poolSize, this.predictionTime);
+            this.running = true;
+            try {
+                return this.predictor.predict(this.poolSize, this.predictionTime);
+            } finally {
+                this.running = false;
+            }
+        }
+
+        /**
+         * Returns <code>true</code> if the prediction is currently executing.
+         * Note that this may be the case even after the task has been
+         * cancelled, if the executing thread does not respond to interruption.
+         *
+         * @return
+         */
+        public boolean isRunning() {
+            return this.running;
         }
     }
 
@@ -59,6 +59,21 @@ public class SystemMetricPoster {
         }
     }
 
+    /**
+     * Posts a note on the {@link AutoScaler} {@link EventBus} that a
+     * {@link Predictor} did not produce its prediction within a given
+     * deadline.
+     *
+     * @param predictor
+     * @param deadlineMillis
+     *            The deadline that the {@link Predictor} missed.
+     */
+    public void postPredictorDeadlineMissed(Predictor predictor, long deadlineMillis) {
+        Map<String, String> tags = Maps.of("predictor", predictor.getConfiguration().getId());
+        postSystemMetric(new MetricValue(SystemMetric.PREDICTOR_DEADLINE_MISSED.getMetricName(), deadlineMillis,
+                UtcTime.now(), tags));
+    }
+
     /**
      * Posts a <i>aggregate prediction</i> on the {@link AutoScaler}
      * {@link EventBus}.
@@ -5,28 +5,30 @@ import static com.elastisys.scale.commons.util.precond.Preconditions.checkState;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
-import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.inject.Inject;
-import javax.script.Compilable;
+import javax.script.Bindings;
 import javax.script.CompiledScript;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
 
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 
 import com.elastisys.autoscaler.core.api.Configurable;
+import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
 import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
 import com.elastisys.autoscaler.core.prediction.api.types.PredictionUnit;
 import com.elastisys.autoscaler.core.prediction.impl.standard.StandardPredictionSubsystem;
 import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
 import com.elastisys.autoscaler.core.prediction.impl.standard.config.AggregatorConfig;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
 import com.elastisys.scale.commons.json.JsonUtils;
 
 /**
@@ -74,20 +76,67 @@ import com.elastisys.scale.commons.json.JsonUtils;
  * </pre>
  *
  * It returns the highest prediction.
+ * <p/>
+ * The aggregation expression is compiled once, when the {@link Aggregator} is
+ * configured. Every aggregation evaluates the compiled expression against a
+ * set of script variables that is reused between aggregations. Scripts are
+ * compiled through a {@link CompiledScriptCache}, which lets aggregators of
+ * different {@link AutoScaler} instances share the same compiled expression.
  *
  * @see StandardPredictionSubsystem
  * @see AggregatorConfig
  *
  */
 public class Aggregator implements Configurable<AggregatorConfig> {
+    /**
+     * The script variable through which the JSON-encoded
+     * {@link AggregatorInput} is passed to the {@link #INPUT_SCRIPT}.
+     */
+    private static final String INPUT_JSON_VARIABLE = "__aggregatorInput";
+    /**
+     * Script that sets up the input variables of the aggregation expression
+     * (see the class-level javadoc) from a JSON-encoded
+     * {@link AggregatorInput}.
+     */
+    private static final String INPUT_SCRIPT = "var input = JSON.parse(" + INPUT_JSON_VARIABLE + ");\n"
+            + "input.predictions.forEach(function (p) { this[p.predictor] = p; }, this);";
+
     private final Logger logger;
+    /** The cache through which scripts are compiled. */
+    private final CompiledScriptCache scriptCache;
 
     /** The {@link Aggregator} configuration. */
     private AggregatorConfig config;
 
-    @Inject
+    /** The compiled {@link #INPUT_SCRIPT}. */
+    private CompiledScript inputScript;
+    /** The compiled aggregation expression of the current configuration. */
+    private CompiledScript expression;
+    /**
+     * The script variables that the aggregation expression is evaluated
+     * against. Reused between aggregations.
+     */
+    private Bindings bindings;
+    /**
+     * The predictor variables that were set up in {@link #bindings} by the
+     * latest aggregation.
+     */
+    private final Set<String> predictorVariables = new HashSet<>();
+
+    /**
+     * Creates an {@link Aggregator} with a {@link CompiledScriptCache} of its
+     * own.
+     *
+     * @param logger
+     */
     public Aggregator(Logger logger) {
+        this(logger, new CompiledScriptCache());
+    }
+
+    @Inject
+    public Aggregator(Logger logger, CompiledScriptCache scriptCache) {
         this.logger = logger;
+        this.scriptCache = scriptCache;
     }
 
     @Override
@@ -100,9 +149,17 @@ public class Aggregator implements Configurable<AggregatorConfig> {
     }
 
     @Override
-    public void configure(AggregatorConfig configuration) throws IllegalArgumentException {
+    public synchronized void configure(AggregatorConfig configuration) throws IllegalArgumentException {
         validate(configuration);
 
+        if (this.inputScript == null) {
+            this.inputScript = compileJavaScript(INPUT_SCRIPT);
+        }
+        this.expression = compileJavaScript(configuration.getExpression());
+        // start out with fresh script variables for the new expression. the
+        // compiled scripts may be shared, so the variables must be our own.
+        this.bindings = this.expression.getEngine().createBindings();
+        this.predictorVariables.clear();
         this.config = configuration;
     }
 
@@ -129,8 +186,8 @@ public class Aggregator implements Configurable<AggregatorConfig> {
      *         JavaScript.
      * @throws AggregatorException
      */
-    public Optional<Double> aggregate(Map<Predictor, Optional<Prediction>> predictions, DateTime predictionTime)
-            throws AggregatorException {
+    public synchronized Optional<Double> aggregate(Map<Predictor, Optional<Prediction>> predictions,
+            DateTime predictionTime) throws AggregatorException {
         ensureConfigured();
 
         if (predictions.isEmpty()) {
@@ -144,13 +201,9 @@ public class Aggregator implements Configurable<AggregatorConfig> {
         }
 
         try {
-            ScriptEngine scriptEngine = createScriptEngine();
-
-            String initScript = aggregatorInputScript(predictions, predictionTime);
-            this.logger.debug("executing aggregator init script:\n{}", initScript.toString());
-            scriptEngine.eval(initScript);
-            this.logger.debug(String.format("executing aggregator script:\n%s", this.config.getExpression()));
-            Object returnValue = scriptEngine.eval(this.config.getExpression());
+            setInputVariables(predictions, predictionTime);
+            this.logger.debug("executing aggregator script:\n{}", this.config.getExpression());
+            Object returnValue = this.expression.eval(this.bindings);
             Double result = validateOutput(returnValue);
             return Optional.ofNullable(result);
         } catch (Exception e) {
@@ -181,36 +234,41 @@ public class Aggregator implements Configurable<AggregatorConfig> {
     }
 
     /**
-     * Returns an initialization script that sets the input variables to be used
-     * by for the aggregator script. See the class-level javadoc for a detailed
-     * description of the script input parameters.
+     * Sets the input variables to be used by the aggregator script. See the
+     * class-level javadoc for a detailed description of the script input
+     * parameters.
      *
      * @param predictionMap
      * @param predictionTime
-     * @return
+     * @throws ScriptException
      */
-    private String aggregatorInputScript(Map<Predictor, Optional<Prediction>> predictionMap, DateTime predictionTime) {
-        StringWriter initScript = new StringWriter();
-
+    private void setInputVariables(Map<Predictor, Optional<Prediction>> predictionMap, DateTime predictionTime)
+            throws ScriptException {
         List<PredictorOutput> predictions = new ArrayList<>();
         for (Entry<Predictor, Optional<Prediction>> predictionEntry : predictionMap.entrySet()) {
             String predictorId = predictionEntry.getKey().getConfiguration().getId();
             Prediction predictionResult = predictionEntry.getValue().get();
-            double predictionValue = predictionResult.getValue();
-            PredictorOutput prediction = new PredictorOutput(predictorId, predictionValue);
-            predictions.add(prediction);
-            // add variable for predictor to context
-            initScript.write(String.format("var %s = %s;\n", predictorId, prediction.toJson()));
+            predictions.add(new PredictorOutput(predictorId, predictionResult.getValue()));
         }
-        AggregatorInput aggregatorInput = new AggregatorInput(predictionTime, predictions);
-        // add 'input' variable to context
-        initScript.write(String.format("var input = %s;\n", aggregatorInput.toJson()));
-        return initScript.toString();
+
+        // predictors of the previous aggregation may no longer be present
+        for (String predictorVariable : this.predictorVariables) {
+            this.bindings.remove(predictorVariable);
+        }
+        this.predictorVariables.clear();
+
+        String aggregatorInput = new AggregatorInput(predictionTime, predictions).toJson();
+        this.logger.debug("setting aggregator script input:\n{}", aggregatorInput);
+        this.bindings.put(INPUT_JSON_VARIABLE, aggregatorInput);
+        this.inputScript.eval(this.bindings);
+        this.bindings.remove(INPUT_JSON_VARIABLE);
+        predictions.forEach(prediction -> this.predictorVariables.add(prediction.getPredictor()));
     }
 
     /**
-     * Compiles a java script. Throws a {@link IllegalArgumentException} on
-     * failure to do so.
+     * Compiles a java script (or fetches it from the
+     * {@link CompiledScriptCache}). Throws a {@link IllegalArgumentException}
+     * on failure to do so.
      *
      * @param javascript
      *            The JavaScipt to be compiled.
@@ -218,24 +276,14 @@ public class Aggregator implements Configurable<AggregatorConfig> {
      * @throws IllegalArgumentException
      */
     private CompiledScript compileJavaScript(String javascript) throws IllegalArgumentException {
-        Compilable compiler = (Compilable) createScriptEngine();
         try {
-            return compiler.compile(javascript);
+            return this.scriptCache.compile(javascript);
         } catch (Exception e) {
             throw new IllegalArgumentException(
                     format("aggregator: failed to compile javascript expression: %s", javascript), e);
         }
     }
 
-    /**
-     * Creates a new JavaScript {@link ScriptEngine}.
-     *
-     * @return
-     */
-    private ScriptEngine createScriptEngine() {
-        return new ScriptEngineManager().getEngineByName("JavaScript");
-    }
-
     private void ensureConfigured() {
         checkState(this.config != null, "aggregator: cannot operate without an aggregator expression set");
     }
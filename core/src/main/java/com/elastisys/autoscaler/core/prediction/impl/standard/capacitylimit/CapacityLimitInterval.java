@@ -0,0 +1,101 @@
+package com.elastisys.autoscaler.core.prediction.impl.standard.capacitylimit;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.CapacityLimitConfig;
+import com.elastisys.scale.commons.json.JsonUtils;
+
+/**
+ * An entry in a {@link CapacityLimitTimeline}: a time interval during which
+ * one particular capacity limit (or no capacity limit at all) is active.
+ *
+ * @see CapacityLimitTimeline
+ */
+public class CapacityLimitInterval {
+    /** The start of the interval (inclusive). */
+    private final DateTime start;
+    /** The end of the interval (exclusive). */
+    private final DateTime end;
+    /**
+     * The capacity limit that is active during the interval. May be
+     * <code>null</code>, if no capacity limit is active.
+     */
+    private final CapacityLimitConfig limit;
+
+    /**
+     * Creates a {@link CapacityLimitInterval}.
+     *
+     * @param start
+     *            The start of the interval (inclusive).
+     * @param end
+     *            The end of the interval (exclusive).
+     * @param limit
+     *            The capacity limit that is active during the interval. May be
+     *            <code>null</code>, if no capacity limit is active.
+     */
+    public CapacityLimitInterval(DateTime start, DateTime end, CapacityLimitConfig limit) {
+        this.start = start;
+        this.end = end;
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the start of the interval (inclusive).
+     *
+     * @return
+     */
+    public DateTime getStart() {
+        return this.start;
+    }
+
+    /**
+     * Returns the end of the interval (exclusive).
+     *
+     * @return
+     */
+    public DateTime getEnd() {
+        return this.end;
+    }
+
+    /**
+     * Returns the capacity limit that is active during the interval, if any.
+     *
+     * @return
+     */
+    public Optional<CapacityLimitConfig> getLimit() {
+        return Optional.ofNullable(this.limit);
+    }
+
+    /**
+     * Returns <code>true</code> if the given time falls within this interval.
+     *
+     * @param time
+     * @return
+     */
+    public boolean contains(DateTime time) {
+        return !time.isBefore(this.start) && time.isBefore(this.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.start, this.end, this.limit);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof CapacityLimitInterval) {
+            CapacityLimitInterval that = (CapacityLimitInterval) obj;
+            return Objects.equals(this.start, that.start) && Objects.equals(this.end, that.end)
+                    && Objects.equals(this.limit, that.limit);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -1,10 +1,7 @@
 package com.elastisys.autoscaler.core.prediction.impl.standard.capacitylimit;
 
 import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
-import static java.util.Collections.reverseOrder;
-
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -38,6 +35,18 @@ import com.google.inject.TypeLiteral;
  * prediction, a capacity limit rule, produces a <i>bounded prediction</i> that
  * restricts the prediction to make sure it stays within the min and max limit
  * of the currently active capacity limit rule.
+ * <p/>
+ * The capacity limit schedules are compiled once, when the configuration is
+ * applied, and are used to build a {@link CapacityLimitTimeline} of capacity
+ * limit activations, from which the active limit at a given time is looked up.
+ * A new timeline is built whenever a lookup falls outside of the current one.
+ * <p/>
+ * Since newly requested machines need some time to boot before they are in
+ * service, the {@link CapacityLimitRegistry} can be asked to look ahead on the
+ * timeline for a given <i>lead time</i> and apply the minimum of any capacity
+ * limit that becomes active within that time early (see
+ * {@link #limit(Optional, DateTime, long)}). This way, a scheduled capacity
+ * raise is in service by the time that the schedule says it should be.
  *
  * @see CapacityLimitConfig
  * @see StandardPredictionSubsystem
@@ -48,6 +57,12 @@ public class CapacityLimitRegistry implements Configurable<List<CapacityLimitCon
 
     private List<CapacityLimitConfig> capacityLimits = new CopyOnWriteArrayList<>();
 
+    /**
+     * Timeline of capacity limit activations. Built on demand and discarded
+     * whenever the configuration changes. May be <code>null</code>.
+     */
+    private volatile CapacityLimitTimeline timeline = null;
+
     @Inject
     public CapacityLimitRegistry(Logger logger, EventBus eventBus) {
         this.logger = logger;
@@ -69,7 +84,10 @@ public class CapacityLimitRegistry implements Configurable<List<CapacityLimitCon
     @Override
     public void configure(List<CapacityLimitConfig> configuration) throws IllegalArgumentException {
         validate(configuration);
-        this.capacityLimits = new CopyOnWriteArrayList<CapacityLimitConfig>(configuration);
+        synchronized (this) {
+            this.capacityLimits = new CopyOnWriteArrayList<CapacityLimitConfig>(configuration);
+            this.timeline = null;
+        }
     }
 
     @Override
@@ -99,17 +117,56 @@ public class CapacityLimitRegistry implements Configurable<List<CapacityLimitCon
      *         is active at the given time.
      */
     public Optional<Integer> limit(Optional<Double> prediction, DateTime timestamp) {
+        return limit(prediction, timestamp, 0);
+    }
+
+    /**
+     * Applies the capacity limit active at a given time (if any) to a
+     * prediction, to produce a <i>bounded prediction</i>, while making sure
+     * that the bounded prediction also satisfies the minimum of any capacity
+     * limit that becomes active within a given lead time.
+     * <p/>
+     * Note that an upcoming minimum takes precedence over the maximum of the
+     * currently active capacity limit, since it is applied in anticipation of
+     * the upcoming capacity limit replacing the current one.
+     *
+     * @param prediction
+     *            The prediction to be bounded.
+     * @param timestamp
+     *            The time stamp used to determine what capacity limit to
+     *            activate.
+     * @param leadTimeMillis
+     *            The lead time (in milliseconds) to look ahead for upcoming
+     *            capacity limits. Typically the time it takes to bring a new
+     *            machine into service. A lead time of zero disables look-ahead.
+     * @return The (bounded) prediction after applying the capacity limit that
+     *         is active at the given time and the minimum of any upcoming
+     *         capacity limit.
+     */
+    public Optional<Integer> limit(Optional<Double> prediction, DateTime timestamp, long leadTimeMillis) {
+        checkArgument(leadTimeMillis >= 0, "capacity limit lead time must not be negative");
         if (!prediction.isPresent()) {
             return Optional.empty();
         }
         // apply currently active limit (if any)
+        int boundedPrediction;
         Optional<CapacityLimitConfig> activeLimit = getActiveLimit(timestamp);
         if (activeLimit.isPresent()) {
             postActiveLimits(activeLimit.get(), timestamp);
-            return apply(activeLimit.get(), prediction.get());
+            boundedPrediction = apply(activeLimit.get(), prediction.get()).get();
+        } else {
+            Double roundedUp = Math.ceil(prediction.get());
+            boundedPrediction = roundedUp.intValue();
+        }
+
+        // apply minimum of upcoming limits (if any) ahead of time
+        Optional<CapacityLimitConfig> upcomingLimit = getUpcomingLimit(timestamp, leadTimeMillis);
+        if (upcomingLimit.isPresent() && upcomingLimit.get().getMin() > boundedPrediction) {
+            this.logger.info("raising prediction {} to minimum {} of capacity limit '{}' active within {} ms",
+                    boundedPrediction, upcomingLimit.get().getMin(), upcomingLimit.get().getId(), leadTimeMillis);
+            boundedPrediction = upcomingLimit.get().getMin();
         }
-        Double roundedUp = Math.ceil(prediction.get());
-        return Optional.of(roundedUp.intValue());
+        return Optional.of(boundedPrediction);
     }
 
     /**
@@ -122,14 +179,67 @@ public class CapacityLimitRegistry implements Configurable<List<CapacityLimitCon
      *         specified point in time.
      */
     private Optional<CapacityLimitConfig> getActiveLimit(DateTime timestamp) {
-        List<CapacityLimitConfig> limits = new ArrayList<>(this.capacityLimits);
-        Collections.sort(limits, reverseOrder());
-        for (CapacityLimitConfig limit : limits) {
-            if (limit.inEffectAt(timestamp)) {
-                return Optional.of(limit);
+        return getTimeline(timestamp).getActiveLimit(timestamp);
+    }
+
+    /**
+     * Returns the capacity limit (if any) with the highest minimum of the ones
+     * that will be active at some point within a given lead time.
+     *
+     * @param timestamp
+     *            The start of the lead time.
+     * @param leadTimeMillis
+     *            The length of the lead time in milliseconds.
+     * @return
+     */
+    private Optional<CapacityLimitConfig> getUpcomingLimit(DateTime timestamp, long leadTimeMillis) {
+        if (leadTimeMillis == 0) {
+            return Optional.empty();
+        }
+        DateTime until = timestamp.plus(leadTimeMillis);
+        List<CapacityLimitConfig> upcomingLimits = getTimeline(timestamp, until).getActiveLimits(timestamp, until);
+        return upcomingLimits.stream().max(Comparator.comparingInt(CapacityLimitConfig::getMin));
+    }
+
+    /**
+     * Returns a {@link CapacityLimitTimeline} of capacity limit activations
+     * that covers a certain point in time (and a limited horizon after that).
+     *
+     * @param timestamp
+     *            The time instant that the timeline needs to cover.
+     * @return
+     */
+    public CapacityLimitTimeline getTimeline(DateTime timestamp) {
+        return getTimeline(timestamp, timestamp);
+    }
+
+    /**
+     * Returns a {@link CapacityLimitTimeline} of capacity limit activations
+     * that covers a certain time interval.
+     *
+     * @param from
+     *            The start of the time interval that the timeline needs to
+     *            cover.
+     * @param until
+     *            The end of the time interval that the timeline needs to
+     *            cover.
+     * @return
+     */
+    private CapacityLimitTimeline getTimeline(DateTime from, DateTime until) {
+        CapacityLimitTimeline current = this.timeline;
+        if (current != null && current.covers(from) && current.covers(until)) {
+            return current;
+        }
+        synchronized (this) {
+            current = this.timeline;
+            if (current == null || !current.covers(from) || !current.covers(until)) {
+                current = CapacityLimitTimeline.build(this.capacityLimits, from, until);
+                this.logger.debug("built capacity limit timeline for [{}, {}) with {} interval(s)", current.getStart(),
+                        current.getEnd(), current.getIntervals().size());
+                this.timeline = current;
             }
+            return current;
         }
-        return Optional.empty();
     }
 
     private Optional<Integer> apply(CapacityLimitConfig limit, double prediction) {
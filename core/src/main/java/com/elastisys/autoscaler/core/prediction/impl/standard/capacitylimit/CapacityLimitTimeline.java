@@ -0,0 +1,297 @@
+package com.elastisys.autoscaler.core.prediction.impl.standard.capacitylimit;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+import static java.util.Collections.reverseOrder;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+
+import com.cronutils.model.Cron;
+import com.cronutils.model.field.CronField;
+import com.cronutils.model.field.CronFieldName;
+import com.cronutils.model.field.expression.Always;
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.CapacityLimitConfig;
+import com.elastisys.scale.commons.json.JsonUtils;
+
+/**
+ * A precomputed timeline of capacity limit activations over a limited time
+ * horizon. The timeline is a sorted sequence of {@link CapacityLimitInterval}s,
+ * each of which states what capacity limit (if any) is active during that
+ * interval. This allows the active capacity limit at a given time to be looked
+ * up through a binary search, rather than by evaluating the schedule of every
+ * capacity limit.
+ * <p/>
+ * The timeline is built by evaluating the capacity limit schedules at a fixed
+ * resolution. The resolution is chosen to be the coarsest one at which all
+ * schedules are constant within each step. For example, for a schedule that
+ * matches every second and every minute of certain hours ({@code * * 10-21 ? *
+ * FRI *}), the timeline is evaluated once per hour. A timeline spans (at
+ * least) {@link #STEPS} such steps.
+ *
+ * @see CapacityLimitRegistry
+ */
+public class CapacityLimitTimeline {
+    /** The (minimum) number of resolution steps that a timeline spans. */
+    public static final int STEPS = 1440;
+
+    /** The start of the timeline (inclusive). */
+    private final DateTime start;
+    /** The end of the timeline (exclusive). */
+    private final DateTime end;
+    /** The capacity limit activations, in order of increasing time. */
+    private final List<CapacityLimitInterval> intervals;
+
+    /**
+     * Creates a {@link CapacityLimitTimeline}.
+     *
+     * @param start
+     *            The start of the timeline (inclusive).
+     * @param end
+     *            The end of the timeline (exclusive).
+     * @param intervals
+     *            The capacity limit activations, in order of increasing time.
+     *            Together, they must cover the entire timeline.
+     */
+    public CapacityLimitTimeline(DateTime start, DateTime end, List<CapacityLimitInterval> intervals) {
+        this.start = start;
+        this.end = end;
+        this.intervals = new ArrayList<>(intervals);
+    }
+
+    /**
+     * Builds a {@link CapacityLimitTimeline} for a collection of capacity
+     * limits that starts at (or slightly before) a given point in time.
+     *
+     * @param limits
+     *            The capacity limits. If more than one limit is active at the
+     *            same time, the highest ranked one wins.
+     * @param from
+     *            The time from which the timeline is to be built. The timeline
+     *            start is aligned with the timeline resolution, and may
+     *            therefore be slightly earlier.
+     * @return
+     */
+    public static CapacityLimitTimeline build(List<CapacityLimitConfig> limits, DateTime from) {
+        return build(limits, from, from);
+    }
+
+    /**
+     * Builds a {@link CapacityLimitTimeline} for a collection of capacity
+     * limits that starts at (or slightly before) a given point in time and
+     * that spans at least until another point in time.
+     *
+     * @param limits
+     *            The capacity limits. If more than one limit is active at the
+     *            same time, the highest ranked one wins.
+     * @param from
+     *            The time from which the timeline is to be built. The timeline
+     *            start is aligned with the timeline resolution, and may
+     *            therefore be slightly earlier.
+     * @param until
+     *            A point in time that the timeline needs to cover. If it lies
+     *            beyond {@link #STEPS} resolution steps from the start, the
+     *            timeline is extended to cover it.
+     * @return
+     */
+    public static CapacityLimitTimeline build(List<CapacityLimitConfig> limits, DateTime from, DateTime until) {
+        requireNonNull(limits, "capacity limits cannot be null");
+        requireNonNull(from, "timeline start cannot be null");
+        requireNonNull(until, "timeline end cannot be null");
+
+        List<CapacityLimitConfig> rankedLimits = new ArrayList<>(limits);
+        Collections.sort(rankedLimits, reverseOrder());
+
+        long resolution = resolutionMillis(rankedLimits);
+        long startMillis = from.getMillis() - Math.floorMod(from.getMillis(), resolution);
+        long steps = Math.max(STEPS, (until.getMillis() - startMillis) / resolution + 1);
+        DateTime start = new DateTime(startMillis, DateTimeZone.UTC);
+        DateTime end = new DateTime(startMillis + steps * resolution, DateTimeZone.UTC);
+
+        List<CapacityLimitInterval> intervals = new ArrayList<>();
+        DateTime intervalStart = start;
+        CapacityLimitConfig intervalLimit = activeLimit(rankedLimits, start);
+        for (long step = 1; step < steps; step++) {
+            DateTime time = new DateTime(startMillis + step * resolution, DateTimeZone.UTC);
+            CapacityLimitConfig limit = activeLimit(rankedLimits, time);
+            if (limit != intervalLimit) {
+                intervals.add(new CapacityLimitInterval(intervalStart, time, intervalLimit));
+                intervalStart = time;
+                intervalLimit = limit;
+            }
+        }
+        intervals.add(new CapacityLimitInterval(intervalStart, end, intervalLimit));
+
+        return new CapacityLimitTimeline(start, end, intervals);
+    }
+
+    /**
+     * Returns the start of the timeline (inclusive).
+     *
+     * @return
+     */
+    public DateTime getStart() {
+        return this.start;
+    }
+
+    /**
+     * Returns the end of the timeline (exclusive).
+     *
+     * @return
+     */
+    public DateTime getEnd() {
+        return this.end;
+    }
+
+    /**
+     * Returns the capacity limit activations, in order of increasing time.
+     *
+     * @return
+     */
+    public List<CapacityLimitInterval> getIntervals() {
+        return Collections.unmodifiableList(this.intervals);
+    }
+
+    /**
+     * Returns <code>true</code> if the given point in time is covered by this
+     * timeline.
+     *
+     * @param time
+     * @return
+     */
+    public boolean covers(DateTime time) {
+        return !time.isBefore(this.start) && time.isBefore(this.end);
+    }
+
+    /**
+     * Returns the capacity limit (if any) that is active at a certain point in
+     * time.
+     *
+     * @param time
+     *            The point in time of interest. Must be covered by this
+     *            timeline.
+     * @return
+     * @throws IllegalArgumentException
+     *             If the point in time is not covered by this timeline.
+     */
+    public Optional<CapacityLimitConfig> getActiveLimit(DateTime time) throws IllegalArgumentException {
+        return this.intervals.get(indexOf(time)).getLimit();
+    }
+
+    /**
+     * Returns the capacity limits that are active at some point during a given
+     * time interval, in order of activation.
+     *
+     * @param from
+     *            The start of the time interval (inclusive). Must be covered by
+     *            this timeline.
+     * @param until
+     *            The end of the time interval (inclusive). Must be covered by
+     *            this timeline.
+     * @return
+     * @throws IllegalArgumentException
+     *             If the time interval is not covered by this timeline.
+     */
+    public List<CapacityLimitConfig> getActiveLimits(DateTime from, DateTime until) throws IllegalArgumentException {
+        checkArgument(!until.isBefore(from), "time interval end must not be before its start");
+        int last = indexOf(until);
+        List<CapacityLimitConfig> limits = new ArrayList<>();
+        for (int i = indexOf(from); i <= last; i++) {
+            this.intervals.get(i).getLimit().ifPresent(limits::add);
+        }
+        return limits;
+    }
+
+    /**
+     * Returns the index of the {@link CapacityLimitInterval} that contains a
+     * given point in time.
+     *
+     * @param time
+     * @return
+     * @throws IllegalArgumentException
+     *             If the point in time is not covered by this timeline.
+     */
+    private int indexOf(DateTime time) throws IllegalArgumentException {
+        if (!covers(time)) {
+            throw new IllegalArgumentException(
+                    String.format("%s is outside of capacity limit timeline [%s, %s)", time, this.start, this.end));
+        }
+
+        // find the last interval that starts at or before the given time
+        int low = 0;
+        int high = this.intervals.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (this.intervals.get(mid).getStart().isAfter(time)) {
+                high = mid - 1;
+            } else {
+                low = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the highest ranked capacity limit that is active at a given time,
+     * or <code>null</code> if none is active.
+     *
+     * @param rankedLimits
+     *            Capacity limits in order of decreasing rank.
+     * @param time
+     * @return
+     */
+    private static CapacityLimitConfig activeLimit(List<CapacityLimitConfig> rankedLimits, DateTime time) {
+        for (CapacityLimitConfig limit : rankedLimits) {
+            if (limit.inEffectAt(time)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the coarsest resolution (in milliseconds) at which all of the
+     * given capacity limit schedules are constant within each step.
+     *
+     * @param limits
+     * @return
+     */
+    private static long resolutionMillis(List<CapacityLimitConfig> limits) {
+        long resolution = DateTimeConstants.MILLIS_PER_DAY;
+        for (CapacityLimitConfig limit : limits) {
+            Cron schedule = CapacityLimitConfig.parseCronExpression(limit.getSchedule());
+            if (!matchesAlways(schedule, CronFieldName.SECOND)) {
+                return DateTimeConstants.MILLIS_PER_SECOND;
+            } else if (!matchesAlways(schedule, CronFieldName.MINUTE)) {
+                resolution = Math.min(resolution, DateTimeConstants.MILLIS_PER_MINUTE);
+            } else if (!matchesAlways(schedule, CronFieldName.HOUR)) {
+                resolution = Math.min(resolution, DateTimeConstants.MILLIS_PER_HOUR);
+            }
+        }
+        return resolution;
+    }
+
+    /**
+     * Returns <code>true</code> if a given field of a cron schedule matches
+     * every value ({@code *}).
+     *
+     * @param schedule
+     * @param field
+     * @return
+     */
+    private static boolean matchesAlways(Cron schedule, CronFieldName field) {
+        CronField cronField = schedule.retrieve(field);
+        return cronField == null || cronField.getExpression() instanceof Always;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -2,12 +2,13 @@ package com.elastisys.autoscaler.core.prediction.impl.standard.config;
 
 import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Comparator;
 import java.util.Objects;
 
 import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
 
 import com.cronutils.model.Cron;
 import com.cronutils.model.CronType;
@@ -90,6 +91,12 @@ public class CapacityLimitConfig implements Comparable<CapacityLimitConfig> {
      */
     private final Integer max;
 
+    /**
+     * The compiled {@link #schedule}. Created on first use, to avoid parsing
+     * the cron expression on every evaluation.
+     */
+    private transient ExecutionTime executionTime;
+
     public CapacityLimitConfig(String id, long rank, String schedule, int min, int max) {
         this.id = id;
         this.rank = rank;
@@ -130,9 +137,21 @@ public class CapacityLimitConfig implements Comparable<CapacityLimitConfig> {
      *         in effect, <code>false</code> otherwise.
      */
     public boolean inEffectAt(DateTime time) {
-        ZonedDateTime timestamp = ZonedDateTime.parse(time.withZone(DateTimeZone.UTC).toString());
-        ExecutionTime cronSchedule = ExecutionTime.forCron(parseCronExpression(this.schedule));
-        return cronSchedule.isMatch(timestamp);
+        ZonedDateTime timestamp = ZonedDateTime.ofInstant(Instant.ofEpochMilli(time.getMillis()), ZoneOffset.UTC);
+        return executionTime().isMatch(timestamp);
+    }
+
+    /**
+     * Returns the compiled schedule of this capacity limit, compiling it on
+     * first use.
+     *
+     * @return
+     */
+    private ExecutionTime executionTime() {
+        if (this.executionTime == null) {
+            this.executionTime = ExecutionTime.forCron(parseCronExpression(this.schedule));
+        }
+        return this.executionTime;
     }
 
     /**
@@ -1,10 +1,13 @@
 package com.elastisys.autoscaler.core.prediction.impl.standard.config;
 
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
 import com.elastisys.autoscaler.core.prediction.impl.standard.StandardPredictionSubsystem;
@@ -36,6 +39,13 @@ public class StandardPredictionSubsystemConfig {
             TimeInterval.seconds(0));
     /** Default vlaue for {@link #capacityLimits}. */
     public static final List<CapacityLimitConfig> DEFAULT_CAPACITY_LIMITS = Collections.emptyList();
+    /** Default value for {@link #predictorDeadline}. */
+    public static final TimeInterval DEFAULT_PREDICTOR_DEADLINE = new TimeInterval(30L, TimeUnit.SECONDS);
+    /**
+     * Default value for {@link #capacityLimitLeadTime}. Disables capacity
+     * limit look-ahead.
+     */
+    public static final TimeInterval DEFAULT_CAPACITY_LIMIT_LEAD_TIME = TimeInterval.seconds(0);
 
     /**
      * A list of configurations, one for each {@link Predictor}. May be
@@ -63,6 +73,21 @@ public class StandardPredictionSubsystemConfig {
      * be <code>null</code>. Default: no capacity limits set.
      */
     private final List<CapacityLimitConfig> capacityLimits;
+    /**
+     * The maximum time that each {@link Predictor} is given to produce its
+     * prediction in a resize iteration. A {@link Predictor} that misses its
+     * deadline is left out of the aggregate prediction. May be
+     * <code>null</code>. Default: {@link #DEFAULT_PREDICTOR_DEADLINE}.
+     */
+    private final TimeInterval predictorDeadline;
+    /**
+     * The time it takes to bring new capacity into service. The minimum of any
+     * capacity limit that becomes active within this time is applied ahead of
+     * time, so that the scheduled capacity is in service when the capacity
+     * limit takes effect. May be <code>null</code>. Default:
+     * {@link #DEFAULT_CAPACITY_LIMIT_LEAD_TIME}.
+     */
+    private final TimeInterval capacityLimitLeadTime;
 
     /**
      * Creates a {@link StandardPredictionSubsystemConfig}.
@@ -85,15 +110,29 @@ public class StandardPredictionSubsystemConfig {
      *            The list of scheduled capacity limit rules used to bound
      *            predictions. May be <code>null</code>. Default: no capacity
      *            limits set.
+     * @param predictorDeadline
+     *            The maximum time that each {@link Predictor} is given to
+     *            produce its prediction in a resize iteration. A
+     *            {@link Predictor} that misses its deadline is left out of the
+     *            aggregate prediction. May be <code>null</code>. Default:
+     *            {@link #DEFAULT_PREDICTOR_DEADLINE}.
+     * @param capacityLimitLeadTime
+     *            The time it takes to bring new capacity into service. The
+     *            minimum of any capacity limit that becomes active within this
+     *            time is applied ahead of time. May be <code>null</code>.
+     *            Default: {@link #DEFAULT_CAPACITY_LIMIT_LEAD_TIME}.
      */
     public StandardPredictionSubsystemConfig(List<PredictorConfig> predictors,
             List<CapacityMappingConfig> capacityMappings, AggregatorConfig aggregator,
-            ScalingPoliciesConfig scalingPolicies, List<CapacityLimitConfig> capacityLimits) {
+            ScalingPoliciesConfig scalingPolicies, List<CapacityLimitConfig> capacityLimits,
+            TimeInterval predictorDeadline, TimeInterval capacityLimitLeadTime) {
         this.predictors = predictors;
         this.capacityMappings = capacityMappings;
         this.aggregator = aggregator;
         this.scalingPolicies = scalingPolicies;
         this.capacityLimits = capacityLimits;
+        this.predictorDeadline = predictorDeadline;
+        this.capacityLimitLeadTime = capacityLimitLeadTime;
     }
 
     /**
@@ -144,6 +183,27 @@ public class StandardPredictionSubsystemConfig {
         return Optional.ofNullable(this.capacityLimits).orElse(DEFAULT_CAPACITY_LIMITS);
     }
 
+    /**
+     * Returns the maximum time that each {@link Predictor} is given to produce
+     * its prediction in a resize iteration.
+     *
+     * @return
+     */
+    public TimeInterval getPredictorDeadline() {
+        return Optional.ofNullable(this.predictorDeadline).orElse(DEFAULT_PREDICTOR_DEADLINE);
+    }
+
+    /**
+     * Returns the time it takes to bring new capacity into service. The
+     * minimum of any capacity limit that becomes active within this time is
+     * applied ahead of time.
+     *
+     * @return
+     */
+    public TimeInterval getCapacityLimitLeadTime() {
+        return Optional.ofNullable(this.capacityLimitLeadTime).orElse(DEFAULT_CAPACITY_LIMIT_LEAD_TIME);
+    }
+
     /**
      * Validates that all expected configuration fields are present. Throws an
      * {@link IllegalArgumenException} if any field is missing.
@@ -158,6 +218,11 @@ public class StandardPredictionSubsystemConfig {
             getAggregator().validate();
             getCapacityLimits().forEach(limit -> limit.validate());
             getScalingPolicies().validate();
+            getPredictorDeadline().validate();
+            checkArgument(getPredictorDeadline().getMillis() > 0, "predictorDeadline: must be a non-zero duration");
+            getCapacityLimitLeadTime().validate();
+            checkArgument(getCapacityLimitLeadTime().getMillis() >= 0,
+                    "capacityLimitLeadTime: must be a non-negative duration");
         } catch (Exception e) {
             throw new IllegalArgumentException("predictionSubsystem: " + e.getMessage(), e);
         }
@@ -166,7 +231,7 @@ public class StandardPredictionSubsystemConfig {
     @Override
     public int hashCode() {
         return Objects.hash(this.aggregator, this.capacityLimits, this.capacityMappings, this.scalingPolicies,
-                this.predictors);
+                this.predictors, this.predictorDeadline, this.capacityLimitLeadTime);
     }
 
     @Override
@@ -177,7 +242,9 @@ public class StandardPredictionSubsystemConfig {
                     && Objects.equals(this.capacityLimits, that.capacityLimits)
                     && Objects.equals(this.capacityMappings, that.capacityMappings)
                     && Objects.equals(this.scalingPolicies, that.scalingPolicies)
-                    && Objects.equals(this.predictors, that.predictors);
+                    && Objects.equals(this.predictors, that.predictors)
+                    && Objects.equals(this.predictorDeadline, that.predictorDeadline)
+                    && Objects.equals(this.capacityLimitLeadTime, that.capacityLimitLeadTime);
         }
         return false;
     }
@@ -199,6 +266,8 @@ public class StandardPredictionSubsystemConfig {
         private AggregatorConfig aggregator;
         private ScalingPoliciesConfig scalingPolicies;
         private List<CapacityLimitConfig> capacityLimits;
+        private TimeInterval predictorDeadline;
+        private TimeInterval capacityLimitLeadTime;
 
         private Builder() {
             this.predictors = new ArrayList<>();
@@ -207,6 +276,8 @@ public class StandardPredictionSubsystemConfig {
             this.scalingPolicies = new ScalingPoliciesConfig(ScalingPoliciesConfig.DEFAULT_MACHINE_DELTA_TOLERANCE,
                     ScalingPoliciesConfig.DEFAULT_OVERPROVISIONING_GRACE_PERIOD);
             this.capacityLimits = new ArrayList<>();
+            this.predictorDeadline = null;
+            this.capacityLimitLeadTime = null;
         }
 
         public static Builder create() {
@@ -215,7 +286,7 @@ public class StandardPredictionSubsystemConfig {
 
         public StandardPredictionSubsystemConfig build() {
             return new StandardPredictionSubsystemConfig(this.predictors, this.capacityMappings, this.aggregator,
-                    this.scalingPolicies, this.capacityLimits);
+                    this.scalingPolicies, this.capacityLimits, this.predictorDeadline, this.capacityLimitLeadTime);
         }
 
         public Builder withPredictor(String id, Class<? extends Predictor> predictorType, State state, String metric,
@@ -263,5 +334,15 @@ public class StandardPredictionSubsystemConfig {
             this.capacityLimits = capacityLimits;
             return this;
         }
+
+        public Builder withPredictorDeadline(TimeInterval predictorDeadline) {
+            this.predictorDeadline = predictorDeadline;
+            return this;
+        }
+
+        public Builder withCapacityLimitLeadTime(TimeInterval capacityLimitLeadTime) {
+            this.capacityLimitLeadTime = capacityLimitLeadTime;
+            return this;
+        }
     }
 }
@@ -74,6 +74,11 @@ public abstract class AbstractPredictor implements Predictor {
 
     /** <code>true</code> if this {@link Predictor} is started. */
     private boolean started;
+    /**
+     * The {@link MetricStreamReader} handed to the subclass on the latest
+     * start. <code>null</code> if never started.
+     */
+    private MetricStreamReader metricReader;
     /** Holds the latest failure (if any). */
     private Optional<Throwable> lastFailure = Optional.empty();
 
@@ -119,6 +124,15 @@ public abstract class AbstractPredictor implements Predictor {
 
         synchronized (this.lock) {
             boolean wasStarted = isStarted();
+            if (wasStarted && readsSameMetricStream(newConfig)) {
+                // keep the metric reader running, so that no values are missed
+                // and any values it has buffered are kept
+                this.logger.debug("{} re-configured without restart: metric stream unchanged", getId());
+                applyConfig(newConfig);
+                this.config = newConfig;
+                return;
+            }
+
             if (wasStarted) {
                 stop();
             }
@@ -132,6 +146,26 @@ public abstract class AbstractPredictor implements Predictor {
         }
     }
 
+    /**
+     * Returns <code>true</code> if a new configuration leaves this started
+     * {@link Predictor} reading the very same {@link MetricStream}, in which
+     * case it can be re-configured without being restarted.
+     *
+     * @param newConfig
+     * @return
+     */
+    private boolean readsSameMetricStream(PredictorConfig newConfig) {
+        if (newConfig.getState() != State.STARTED || !newConfig.getMetricStream().equals(getMetricStreamId())) {
+            return false;
+        }
+        // a re-configured metric streamer may have replaced the stream
+        try {
+            return getMetricStream(newConfig.getMetricStream()) == this.metricReader.getMetricStream();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
     @Override
     public final PredictorConfig getConfiguration() {
         return this.config;
@@ -151,8 +185,9 @@ public abstract class AbstractPredictor implements Predictor {
             return;
         }
 
-        MetricStreamReader metricReader = new MetricStreamReader(getEventBus(), getMetricStream());
-        onStart(metricReader);
+        this.metricReader = new MetricStreamReader(getEventBus(), getMetricStream(getMetricStreamId()),
+                readsOutOfOrderValues());
+        onStart(this.metricReader);
         this.started = true;
         this.logger.info(getClass().getSimpleName() + " started.");
     }
@@ -216,16 +251,24 @@ public abstract class AbstractPredictor implements Predictor {
         }
     }
 
+    private String getMetricStreamId() {
+        checkState(isConfigured(), "attempt to get metric stream before being configured");
+        return this.config.getMetricStream();
+    }
+
     /**
-     * Returns the {@link MetricStream} that this {@link Predictor} is
-     * configured to read metrics from.
+     * Returns the {@link MetricStream} with a given id from the
+     * {@link MonitoringSubsystem}.
+     * <p/>
+     * Subclasses that read additional {@link MetricStream}s (besides the one
+     * handed to {@link #onStart}) can use this method to look them up.
      *
+     * @param metricStreamId
      * @return
+     * @throws IllegalArgumentException
+     *             If no such {@link MetricStream} was found.
      */
-    private MetricStream getMetricStream() {
-        checkState(isConfigured(), "attempt to get metric stream before being configured");
-
-        String metricStreamId = this.config.getMetricStream();
+    protected MetricStream getMetricStream(String metricStreamId) throws IllegalArgumentException {
         for (MetricStreamer<?> metricStreamer : this.monitoringSubsystem.getMetricStreamers()) {
             try {
                 return metricStreamer.getMetricStream(metricStreamId);
@@ -236,6 +279,20 @@ public abstract class AbstractPredictor implements Predictor {
         throw new IllegalArgumentException(String.format("no metric stream with id %s was found", metricStreamId));
     }
 
+    /**
+     * Returns <code>true</code> if the {@link MetricStreamReader} handed to
+     * {@link #onStart} is to read out-of-order values (late arrivals and
+     * backfills). Subclasses that override this to return <code>true</code>
+     * must consume those values via
+     * {@link MetricStreamReader#popOutOfOrderTo(java.util.Collection)}, or
+     * they pile up. Default: <code>false</code>.
+     *
+     * @return
+     */
+    protected boolean readsOutOfOrderValues() {
+        return false;
+    }
+
     /**
      * Returns the {@link AutoScaler} {@link EventBus} from which
      * {@link MetricStream} values can consumed (by listening for
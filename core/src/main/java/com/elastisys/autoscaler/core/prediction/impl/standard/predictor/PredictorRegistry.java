@@ -120,23 +120,17 @@ public class PredictorRegistry implements Service<List<PredictorConfig>> {
         validate(predictorConfigs);
         validateMetricStreamExistence(predictorConfigs);
 
-        boolean needsRestart = isStarted();
-
-        if (needsRestart) {
-            stop();
-        }
-
+        // note: the registry is not restarted. only added and modified
+        // predictors are (re)started, whereas unchanged predictors are left
+        // running.
         apply(predictorConfigs);
-
-        if (needsRestart) {
-            start();
-        }
     }
 
     private void apply(List<PredictorConfig> newConfiguration) throws IllegalArgumentException {
         PredictorRegistryConfigDiff configDiff = new PredictorRegistryConfigDiff(this.config, newConfiguration);
         if (!configDiff.isDifferent()) {
             this.logger.info("Ignoring received configuration, " + "since it is equal to the existing one.");
+            refreshPredictors(configDiff.unchanged());
             return;
         }
 
@@ -144,6 +138,7 @@ public class PredictorRegistry implements Service<List<PredictorConfig>> {
             addPredictors(configDiff.added());
             deletePredictors(configDiff.deleted());
             modifyPredictors(configDiff.modified());
+            refreshPredictors(configDiff.unchanged());
         } catch (Exception e) {
             throw new IllegalArgumentException("predictors: " + e.getMessage(), e);
         }
@@ -206,6 +201,7 @@ public class PredictorRegistry implements Service<List<PredictorConfig>> {
         Predictor predictorInstance = this.predictorFactory.create(predictorConfig.getType());
         predictorInstance.configure(predictorConfig);
         this.predictors.add(predictorInstance);
+        startIfRequested(predictorInstance);
     }
 
     private void deletePredictors(List<PredictorConfig> deletedConfigs) {
@@ -232,6 +228,37 @@ public class PredictorRegistry implements Service<List<PredictorConfig>> {
             }
             this.logger.debug("updating configuration for predictor {} to {}", predictorId, modifiedConfig);
             predictor.get().configure(modifiedConfig);
+            // a predictor that is configured into started state is not started
+            // by configure unless it was already started
+            startIfRequested(predictor.get());
+        }
+    }
+
+    /**
+     * Re-applies the (unchanged) configuration of started {@link Predictor}s.
+     * This allows a {@link Predictor} to switch over to a new instance of its
+     * {@link MetricStream}, in case the {@link MetricStreamer} that publishes
+     * it has been re-configured. A {@link Predictor} whose {@link MetricStream}
+     * is the same is left running.
+     *
+     * @param unchangedConfigs
+     */
+    private void refreshPredictors(List<PredictorConfig> unchangedConfigs) {
+        this.predictors.stream().filter(withConfigIn(unchangedConfigs)).filter(PredictorPredicates.isStarted())
+                .forEach(predictor -> predictor.configure(predictor.getConfiguration()));
+    }
+
+    /**
+     * Starts a {@link Predictor} if this {@link PredictorRegistry} is started
+     * and the {@link Predictor} is configured to be in {@link State#STARTED}
+     * state.
+     *
+     * @param predictor
+     */
+    private void startIfRequested(Predictor predictor) {
+        if (isStarted() && predictor.getConfiguration().getState() == State.STARTED) {
+            this.logger.debug("starting predictor {}", predictor.getConfiguration().getId());
+            predictor.start();
         }
     }
 
@@ -352,6 +379,16 @@ public class PredictorRegistry implements Service<List<PredictorConfig>> {
                     .filter(it -> !this.oldConfigs.contains(it)).collect(Collectors.toList());
             return withModifiedContent;
         }
+
+        /**
+         * Returns the {@link PredictorConfig}s that are identical in the old
+         * and new configuration.
+         *
+         * @return
+         */
+        public List<PredictorConfig> unchanged() {
+            return this.newConfigs.stream().filter(this.oldConfigs::contains).collect(Collectors.toList());
+        }
     }
 
     /**
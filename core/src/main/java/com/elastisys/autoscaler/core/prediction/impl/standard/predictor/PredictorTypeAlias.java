@@ -19,7 +19,31 @@ public enum PredictorTypeAlias {
      * latest observed metric value as the predicted future value (using a
      * "tomorrow will probably be very similar to today"-style heuristic).
      */
-    ReactivePredictor("com.elastisys.autoscaler.predictors.reactive.ReactivePredictor");
+    ReactivePredictor("com.elastisys.autoscaler.predictors.reactive.ReactivePredictor"),
+    /**
+     * A {@link Predictor} that forecasts the monitored metric with a
+     * Holt-Winters (triple exponential smoothing) model, which captures the
+     * level, trend and seasonal (for example, daily) variations of the metric.
+     */
+    HoltWintersPredictor("com.elastisys.autoscaler.predictors.holtwinters.HoltWintersPredictor"),
+    /**
+     * A {@link Predictor} that fits a straight line to the metric values
+     * observed within a sliding time window, and extrapolates it to the
+     * prediction time.
+     */
+    LinearTrendPredictor("com.elastisys.autoscaler.predictors.lineartrend.LinearTrendPredictor"),
+    /**
+     * A compute unit {@link Predictor} that models the machine pool as a
+     * multi-server queue, and sizes it from the observed request arrival rate
+     * and service time to meet a response time target.
+     */
+    QueueingPredictor("com.elastisys.autoscaler.predictors.queueing.QueueingPredictor"),
+    /**
+     * A {@link Predictor} that smooths the monitored metric with a
+     * constant-velocity Kalman filter, and extrapolates the filtered level and
+     * rate of change to the prediction time.
+     */
+    KalmanPredictor("com.elastisys.autoscaler.predictors.kalman.KalmanPredictor");
 
     /**
      * The full {@link Predictor} class name that this
@@ -0,0 +1,233 @@
+package com.elastisys.autoscaler.core.utils.script;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.autoscaler.core.autoscaler.factory.AutoScalerFactory;
+
+/**
+ * A cache of compiled JavaScripts, keyed by script source. A single
+ * {@link CompiledScriptCache} is owned by an {@link AutoScalerFactory} and
+ * shared by all {@link AutoScaler} instances it creates, which means that
+ * instances created from the same blueprint compile each of their (join,
+ * aggregation, ...) scripts only once.
+ * <p/>
+ * All scripts are compiled by a single {@link ScriptEngine}, which is created
+ * on first use, one script at a time. A request for a script that is already
+ * being compiled waits for that compilation to complete rather than compiling
+ * the script again. This bounds the CPU spent on compilation when a large
+ * number of instances are restored at once. The number of cached scripts is
+ * bounded as well: when full, the least recently used script is evicted.
+ * <p/>
+ * A {@link CompiledScript} returned by the cache may be shared by several
+ * threads and must therefore always be evaluated against {@link Bindings} of
+ * its own, created via {@code script.getEngine().createBindings()}. Each such
+ * {@link Bindings} gets a separate global scope, which makes concurrent
+ * evaluations of the same {@link CompiledScript} safe.
+ *
+ * @see CompiledScriptCacheStats
+ */
+public class CompiledScriptCache {
+    /** The default maximum number of cached scripts. */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    /** The maximum number of cached scripts. */
+    private final int maxSize;
+    /** Creates the {@link ScriptEngine} that compiles scripts. */
+    private final Supplier<ScriptEngine> scriptEngineFactory;
+
+    /**
+     * The cached scripts, keyed by source, in least-recently-used order. Guarded
+     * by itself.
+     */
+    private final LinkedHashMap<String, CompiledScript> scripts;
+    /** Ongoing compilations, keyed by source. */
+    private final ConcurrentMap<String, FutureTask<CompiledScript>> compilations;
+    /**
+     * Lock that serializes compilations. Also guards {@link #scriptEngine}.
+     */
+    private final Object compileLock = new Object();
+    /** The {@link ScriptEngine} that compiles scripts. Created on first use. */
+    private ScriptEngine scriptEngine;
+
+    /** Number of lookups that were served without compiling the script. */
+    private final AtomicLong hits = new AtomicLong();
+    /** Number of lookups that required the script to be compiled. */
+    private final AtomicLong misses = new AtomicLong();
+    /** Number of scripts that have been evicted from the cache. */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a {@link CompiledScriptCache} holding at most
+     * {@link #DEFAULT_MAX_SIZE} scripts.
+     */
+    public CompiledScriptCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a {@link CompiledScriptCache}.
+     *
+     * @param maxSize
+     *            The maximum number of cached scripts. Must be positive.
+     */
+    public CompiledScriptCache(int maxSize) {
+        this(maxSize, () -> new ScriptEngineManager().getEngineByName("JavaScript"));
+    }
+
+    /**
+     * Creates a {@link CompiledScriptCache} that compiles scripts with a
+     * {@link ScriptEngine} created by a given factory.
+     *
+     * @param maxSize
+     *            The maximum number of cached scripts. Must be positive.
+     * @param scriptEngineFactory
+     *            Creates the {@link ScriptEngine} that compiles scripts. The
+     *            created {@link ScriptEngine} must be {@link Compilable}.
+     */
+    CompiledScriptCache(int maxSize, Supplier<ScriptEngine> scriptEngineFactory) {
+        checkArgument(maxSize > 0, "scriptCache: maxSize must be positive");
+        this.maxSize = maxSize;
+        this.scriptEngineFactory = requireNonNull(scriptEngineFactory, "scriptEngineFactory cannot be null");
+
+        this.scripts = new LinkedHashMap<String, CompiledScript>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+                if (size() > CompiledScriptCache.this.maxSize) {
+                    CompiledScriptCache.this.evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.compilations = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the compiled form of a given script, compiling it unless it is
+     * already cached.
+     *
+     * @param source
+     *            The script source.
+     * @return The {@link CompiledScript}.
+     * @throws ScriptException
+     *             If the script could not be compiled.
+     */
+    public CompiledScript compile(String source) throws ScriptException {
+        requireNonNull(source, "script source cannot be null");
+
+        CompiledScript script = lookup(source);
+        if (script != null) {
+            this.hits.incrementAndGet();
+            return script;
+        }
+
+        FutureTask<CompiledScript> compilation = new FutureTask<>(() -> compileAndCache(source));
+        FutureTask<CompiledScript> ongoing = this.compilations.putIfAbsent(source, compilation);
+        if (ongoing != null) {
+            // another thread is already compiling the script
+            this.hits.incrementAndGet();
+            return await(ongoing);
+        }
+
+        this.misses.incrementAndGet();
+        try {
+            compilation.run();
+            return await(compilation);
+        } finally {
+            this.compilations.remove(source, compilation);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     *
+     * @return
+     */
+    public CompiledScriptCacheStats getStats() {
+        int size;
+        synchronized (this.scripts) {
+            size = this.scripts.size();
+        }
+        return new CompiledScriptCacheStats(size, this.maxSize, this.hits.get(), this.misses.get(),
+                this.evictions.get());
+    }
+
+    /**
+     * Returns the maximum number of cached scripts.
+     *
+     * @return
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    private CompiledScript lookup(String source) {
+        synchronized (this.scripts) {
+            return this.scripts.get(source);
+        }
+    }
+
+    private CompiledScript compileAndCache(String source) throws ScriptException {
+        synchronized (this.compileLock) {
+            // may have been compiled by a compilation that just completed
+            CompiledScript script = lookup(source);
+            if (script != null) {
+                return script;
+            }
+
+            script = ((Compilable) scriptEngine()).compile(source);
+            synchronized (this.scripts) {
+                this.scripts.put(source, script);
+            }
+            return script;
+        }
+    }
+
+    private ScriptEngine scriptEngine() throws ScriptException {
+        if (this.scriptEngine == null) {
+            this.scriptEngine = this.scriptEngineFactory.get();
+            if (this.scriptEngine == null) {
+                throw new ScriptException("no JavaScript engine available");
+            }
+        }
+        return this.scriptEngine;
+    }
+
+    private static CompiledScript await(FutureTask<CompiledScript> compilation) throws ScriptException {
+        try {
+            return compilation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScriptException("interrupted while waiting for script to be compiled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ScriptException) {
+                throw (ScriptException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ScriptException(e);
+        }
+    }
+}
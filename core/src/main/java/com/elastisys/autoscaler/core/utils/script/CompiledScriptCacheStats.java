@@ -0,0 +1,103 @@
+package com.elastisys.autoscaler.core.utils.script;
+
+import java.util.Objects;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+
+/**
+ * A snapshot of the statistics of a {@link CompiledScriptCache}.
+ *
+ * @see CompiledScriptCache#getStats()
+ */
+public class CompiledScriptCacheStats {
+    /** The number of currently cached scripts. */
+    private final int size;
+    /** The maximum number of cached scripts. */
+    private final int maxSize;
+    /** Number of lookups that were served without compiling the script. */
+    private final long hits;
+    /** Number of lookups that required the script to be compiled. */
+    private final long misses;
+    /** Number of scripts that have been evicted from the cache. */
+    private final long evictions;
+    /**
+     * The fraction of lookups that were served without compiling the script.
+     * {@code 0.0} if no lookups have been made.
+     */
+    private final double hitRate;
+
+    /**
+     * Creates a {@link CompiledScriptCacheStats}.
+     *
+     * @param size
+     *            The number of currently cached scripts.
+     * @param maxSize
+     *            The maximum number of cached scripts.
+     * @param hits
+     *            Number of lookups that were served without compiling the
+     *            script.
+     * @param misses
+     *            Number of lookups that required the script to be compiled.
+     * @param evictions
+     *            Number of scripts that have been evicted from the cache.
+     */
+    public CompiledScriptCacheStats(int size, int maxSize, long hits, long misses, long evictions) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        long lookups = hits + misses;
+        this.hitRate = lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getMisses() {
+        return this.misses;
+    }
+
+    public long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Returns the fraction of lookups that were served without compiling the
+     * script. {@code 0.0} if no lookups have been made.
+     *
+     * @return
+     */
+    public double getHitRate() {
+        return this.hitRate;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.size, this.maxSize, this.hits, this.misses, this.evictions);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof CompiledScriptCacheStats) {
+            CompiledScriptCacheStats that = (CompiledScriptCacheStats) obj;
+            return this.size == that.size && this.maxSize == that.maxSize && this.hits == that.hits
+                    && this.misses == that.misses && this.evictions == that.evictions;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+}
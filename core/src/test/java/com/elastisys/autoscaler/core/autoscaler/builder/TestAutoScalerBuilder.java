@@ -30,6 +30,10 @@ import com.elastisys.autoscaler.core.autoscaler.builder.stubs.NoOpCloudPoolProxy
 import com.elastisys.autoscaler.core.autoscaler.builder.stubs.NoOpMetronomeStub;
 import com.elastisys.autoscaler.core.autoscaler.builder.stubs.NoOpMonitoringSubsystemStub;
 import com.elastisys.autoscaler.core.autoscaler.builder.stubs.NoOpPredictionSubsystemStub;
+import com.elastisys.autoscaler.core.autoscaler.eventbus.EventBusType;
+import com.elastisys.autoscaler.core.autoscaler.eventbus.RingBufferEventBus;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.eventbus.impl.AsynchronousEventBus;
 
 /**
  * Verifies the behavior of the {@link AutoScalerBuilder}.
@@ -294,6 +298,24 @@ public class TestAutoScalerBuilder {
         assertThat(autoScaler.getLogger(), is(customLogger));
     }
 
+    /**
+     * The {@link EventBus} implementation should be selectable, with the
+     * {@link AsynchronousEventBus} being the default.
+     */
+    @Test
+    public void buildWithEventBusType() {
+        AutoScaler defaultBus = buildDefaultAutoScaler("autoscaler1");
+        assertThat(defaultBus.getBus() instanceof AsynchronousEventBus, is(true));
+
+        AutoScaler ringBus = defaultBuilder("autoscaler2").withEventBusType(EventBusType.RING_BUFFER).build();
+        assertThat(ringBus.getBus() instanceof RingBufferEventBus, is(true));
+        // event bus type should carry over to copies
+        AutoScaler copy = AutoScalerBuilder.newBuilderFromSource(ringBus).build();
+        assertThat(copy.getBus() instanceof RingBufferEventBus, is(true));
+        ((RingBufferEventBus) ringBus.getBus()).stop();
+        ((RingBufferEventBus) copy.getBus()).stop();
+    }
+
     /**
      * Verify that {@link AutoScalerBuilder#newBuilderFromSource(AutoScaler)}
      * creates instances that blueprint-copies of an {@link AutoScaler}. That
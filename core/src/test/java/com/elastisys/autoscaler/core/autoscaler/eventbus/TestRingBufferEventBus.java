@@ -0,0 +1,333 @@
+package com.elastisys.autoscaler.core.autoscaler.eventbus;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetric;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetricEvent;
+import com.elastisys.scale.commons.eventbus.Subscriber;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercises the {@link RingBufferEventBus}.
+ */
+public class TestRingBufferEventBus {
+    private static final Logger LOG = LoggerFactory.getLogger(TestRingBufferEventBus.class);
+
+    /** Object under test. */
+    private RingBufferEventBus eventBus;
+
+    @Before
+    public void beforeTestMethod() {
+        this.eventBus = RingBufferEventBus.newBuilder(LOG, Executors.defaultThreadFactory())
+                .withLane("strings", String.class, WaitStrategy.BLOCKING)
+                .withLane("numbers", Number.class, WaitStrategy.SLEEPING).withDefaultWaitStrategy(WaitStrategy.YIELDING)
+                .build();
+        this.eventBus.start();
+    }
+
+    @After
+    public void afterTestMethod() {
+        this.eventBus.stop();
+    }
+
+    /**
+     * Events should only be delivered to subscriber methods that accept their
+     * type.
+     */
+    @Test
+    public void deliverToSubscribersByType() throws Exception {
+        RecordingListener listener = new RecordingListener(2, 1);
+        this.eventBus.register(listener);
+
+        this.eventBus.post("a");
+        this.eventBus.post(1);
+        this.eventBus.post("b");
+
+        assertTrue(listener.await());
+        assertThat(listener.strings, is(Arrays.asList("a", "b")));
+        assertThat(listener.integers, is(Arrays.asList(1)));
+    }
+
+    /**
+     * Subscriber methods that accept a super type of an event, as well as
+     * subscriber methods declared in super classes, should receive the event.
+     */
+    @Test
+    public void deliverToSupertypeSubscribers() throws Exception {
+        CatchAllListener listener = new CatchAllListener(3);
+        this.eventBus.register(listener);
+
+        this.eventBus.post("a");
+        this.eventBus.post(1);
+        this.eventBus.post(2.0);
+
+        assertTrue(listener.await());
+        assertThat(listener.objects.size(), is(3));
+        assertTrue(listener.objects.containsAll(Arrays.asList("a", 1, 2.0)));
+    }
+
+    /**
+     * Events within a lane should be delivered in posting order.
+     */
+    @Test
+    public void deliverInOrderWithinLane() throws Exception {
+        int events = 10000;
+        RecordingListener listener = new RecordingListener(0, events);
+        this.eventBus.register(listener);
+
+        for (int i = 0; i < events; i++) {
+            this.eventBus.post(i);
+        }
+
+        assertTrue(listener.await());
+        for (int i = 0; i < events; i++) {
+            assertThat(listener.integers.get(i), is(i));
+        }
+        assertThat(this.eventBus.getStatistics().get("numbers").getDelivered(), is((long) events));
+        assertThat(this.eventBus.getStatistics().get("strings").getDelivered(), is(0L));
+    }
+
+    /**
+     * Once unregistered, a listener should no longer receive events.
+     */
+    @Test
+    public void unregister() throws Exception {
+        RecordingListener listener = new RecordingListener(1, 0);
+        this.eventBus.register(listener);
+        this.eventBus.post("a");
+        assertTrue(listener.await());
+
+        this.eventBus.unregister(listener);
+        this.eventBus.post("b");
+        // wait for a later event on the same lane to be delivered
+        RecordingListener other = new RecordingListener(1, 0);
+        this.eventBus.register(other);
+        this.eventBus.post("c");
+        assertTrue(other.await());
+
+        assertThat(listener.strings, is(Arrays.asList("a")));
+    }
+
+    /**
+     * A listener that is registered twice should only get each event once.
+     */
+    @Test
+    public void registerTwice() throws Exception {
+        RecordingListener listener = new RecordingListener(1, 0);
+        this.eventBus.register(listener);
+        this.eventBus.register(listener);
+        this.eventBus.post("a");
+        this.eventBus.stop();
+
+        assertThat(listener.strings, is(Arrays.asList("a")));
+    }
+
+    /**
+     * While stopped, events should be dispatched on the posting thread.
+     */
+    @Test
+    public void dispatchSynchronouslyWhenStopped() {
+        this.eventBus.stop();
+        assertThat(this.eventBus.isStarted(), is(false));
+
+        RecordingListener listener = new RecordingListener(1, 0);
+        this.eventBus.register(listener);
+        this.eventBus.post("a");
+        assertThat(listener.strings, is(Arrays.asList("a")));
+    }
+
+    /**
+     * An exception thrown by one subscriber should neither stop delivery to
+     * other subscribers nor kill the consumer thread.
+     */
+    @Test
+    public void failingSubscriber() throws Exception {
+        this.eventBus.register(new FailingListener());
+        RecordingListener listener = new RecordingListener(2, 0);
+        this.eventBus.register(listener);
+
+        this.eventBus.post("a");
+        this.eventBus.post("b");
+
+        assertTrue(listener.await());
+        assertThat(listener.strings, is(Arrays.asList("a", "b")));
+    }
+
+    /**
+     * When a lane stays full for longer than the offer timeout, events should
+     * be dropped and counted.
+     */
+    @Test
+    public void dropEventsWhenLaneIsFull() throws Exception {
+        this.eventBus.stop();
+        this.eventBus = RingBufferEventBus.newBuilder(LOG, Executors.defaultThreadFactory()).withRingCapacity(2)
+                .withBatchSize(1).withOfferTimeout(new TimeInterval(50L, TimeUnit.MILLISECONDS)).build();
+        this.eventBus.start();
+        BlockingListener listener = new BlockingListener();
+        this.eventBus.register(listener);
+
+        // first event blocks the consumer, next two fill the ring
+        for (int i = 0; i < 5; i++) {
+            this.eventBus.post("event-" + i);
+        }
+        LaneStatistics statistics = this.eventBus.getStatistics().get(RingBufferEventBus.DEFAULT_LANE);
+        assertThat(statistics.getCapacity(), is(2));
+        assertThat(statistics.getDropped(), is(2L));
+
+        listener.release.countDown();
+        this.eventBus.stop();
+        assertThat(listener.received.size(), is(3));
+    }
+
+    /**
+     * The queue depth, maximum queue depth and number of dropped events of
+     * each lane should be reported as separate metric values, which are only
+     * tagged with the lane.
+     */
+    @Test
+    public void reportLaneMetrics() throws Exception {
+        this.eventBus.stop();
+        this.eventBus = RingBufferEventBus.newBuilder(LOG, Executors.defaultThreadFactory())
+                .withLane("strings", String.class, WaitStrategy.SLEEPING)
+                .withMetricReportInterval(new TimeInterval(10L, TimeUnit.MILLISECONDS)).build();
+        this.eventBus.start();
+        SystemMetricListener listener = new SystemMetricListener(6);
+        this.eventBus.register(listener);
+
+        this.eventBus.post("a");
+        assertTrue(listener.await());
+
+        Map<String, Set<String>> metricsByLane = new HashMap<>();
+        for (MetricValue value : listener.values) {
+            assertThat(value.getTags().keySet(), is(Collections.singleton("lane")));
+            metricsByLane.computeIfAbsent(value.getTags().get("lane"), lane -> new HashSet<>()).add(value.getMetric());
+            if (value.getMetric().equals(SystemMetric.EVENTBUS_DROPPED_EVENTS.getMetricName())) {
+                assertThat(value.getValue(), is(0.0));
+            }
+        }
+        Set<String> laneMetrics = new HashSet<>(Arrays.asList(SystemMetric.EVENTBUS_QUEUE_DEPTH.getMetricName(),
+                SystemMetric.EVENTBUS_MAX_QUEUE_DEPTH.getMetricName(),
+                SystemMetric.EVENTBUS_DROPPED_EVENTS.getMetricName()));
+        assertThat(metricsByLane.get("strings"), is(laneMetrics));
+        assertThat(metricsByLane.get(RingBufferEventBus.DEFAULT_LANE), is(laneMetrics));
+    }
+
+    public static class RecordingListener {
+        private final List<String> strings = new CopyOnWriteArrayList<>();
+        private final List<Integer> integers = new CopyOnWriteArrayList<>();
+        private final CountDownLatch expected;
+
+        public RecordingListener(int expectedStrings, int expectedIntegers) {
+            this.expected = new CountDownLatch(expectedStrings + expectedIntegers);
+        }
+
+        @Subscriber
+        public void onString(String event) {
+            this.strings.add(event);
+            this.expected.countDown();
+        }
+
+        @Subscriber
+        public void onInteger(Integer event) {
+            this.integers.add(event);
+            this.expected.countDown();
+        }
+
+        public boolean await() throws InterruptedException {
+            return this.expected.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public static abstract class AbstractCatchAllListener {
+        protected final List<Object> objects = new CopyOnWriteArrayList<>();
+
+        @Subscriber
+        public void onEvent(Object event) {
+            this.objects.add(event);
+            received();
+        }
+
+        protected abstract void received();
+    }
+
+    public static class CatchAllListener extends AbstractCatchAllListener {
+        private final CountDownLatch expected;
+
+        public CatchAllListener(int expectedEvents) {
+            this.expected = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        protected void received() {
+            this.expected.countDown();
+        }
+
+        public boolean await() throws InterruptedException {
+            return this.expected.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class FailingListener {
+        @Subscriber
+        public void onString(String event) {
+            throw new IllegalStateException("failed to handle " + event);
+        }
+    }
+
+    public static class BlockingListener {
+        private final List<Object> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Subscriber
+        public void onEvent(Object event) throws InterruptedException {
+            this.received.add(event);
+            this.release.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class SystemMetricListener {
+        private final List<MetricValue> values = new CopyOnWriteArrayList<>();
+        /** The distinct lane and metric name combinations received. */
+        private final Set<String> received = ConcurrentHashMap.newKeySet();
+        private final CountDownLatch expected;
+
+        public SystemMetricListener(int expectedLaneMetrics) {
+            this.expected = new CountDownLatch(expectedLaneMetrics);
+        }
+
+        @Subscriber
+        public void onSystemMetric(SystemMetricEvent event) {
+            MetricValue value = event.getValue();
+            this.values.add(value);
+            if (this.received.add(value.getTags().get("lane") + "/" + value.getMetric())) {
+                this.expected.countDown();
+            }
+        }
+
+        public boolean await() throws InterruptedException {
+            return this.expected.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
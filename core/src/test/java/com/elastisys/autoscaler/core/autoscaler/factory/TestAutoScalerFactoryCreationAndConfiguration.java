@@ -16,6 +16,7 @@ import org.junit.Test;
 
 import com.elastisys.autoscaler.core.addon.FakeAddon;
 import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
 import com.elastisys.scale.commons.util.collection.Maps;
 import com.elastisys.scale.commons.util.file.FileUtils;
 
@@ -119,6 +120,26 @@ public class TestAutoScalerFactoryCreationAndConfiguration {
         AutoScalerFactory.launch(new AutoScalerFactoryConfig(dir.getAbsolutePath(), null));
     }
 
+    @Test
+    public void createFactoryWithScriptCacheSize() {
+        AutoScalerFactoryConfig config = new AutoScalerFactoryConfig(storageDir.getAbsolutePath(), null, 10);
+        AutoScalerFactory factory = AutoScalerFactory.launch(config);
+        assertThat(factory.getConfiguration().getScriptCacheSize(), is(10));
+        assertThat(factory.getScriptCacheStats().getMaxSize(), is(10));
+    }
+
+    @Test
+    public void createFactoryWithDefaultScriptCacheSize() {
+        AutoScalerFactoryConfig config = new AutoScalerFactoryConfig(storageDir.getAbsolutePath(), null);
+        AutoScalerFactory factory = AutoScalerFactory.launch(config);
+        assertThat(factory.getScriptCacheStats().getMaxSize(), is(CompiledScriptCache.DEFAULT_MAX_SIZE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createFactoryWithNonPositiveScriptCacheSize() {
+        AutoScalerFactory.launch(new AutoScalerFactoryConfig(storageDir.getAbsolutePath(), null, 0));
+    }
+
     @Test(expected = NullPointerException.class)
     public void createConfigWithNullPath() {
         new AutoScalerFactoryConfig(null, null);
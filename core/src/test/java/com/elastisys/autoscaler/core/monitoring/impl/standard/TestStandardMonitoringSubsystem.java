@@ -1,6 +1,7 @@
 package com.elastisys.autoscaler.core.monitoring.impl.standard;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -360,6 +361,36 @@ public class TestStandardMonitoringSubsystem {
         assertThat(metricStreamMonitor.getConfiguration(), is(newMetricStreamMonitorConfig));
     }
 
+    /**
+     * A {@link MetricStreamer} that is declared with the same type at the same
+     * position in a new configuration should be re-configured rather than
+     * replaced, so that it can keep streaming its unchanged metric streams.
+     */
+    @Test
+    public void reconfigureReusesMetricStreamersOfSameType() {
+        StandardMonitoringSubsystemConfig config = new StandardMonitoringSubsystemConfig(
+                Arrays.asList(new MetricStreamerConfig(VALID_METRIC_STREAMER_CLASS, validMetricStreamerStubConfig())),
+                new SystemHistorianConfig(VALID_SYSTEM_HISTORIAN_CLASS, validSystemHistorianStubConfig()),
+                validMetricStreamMonitorConfig());
+        this.monitoringSubsystem.validate(config);
+        this.monitoringSubsystem.configure(config);
+        MetricStreamer<?> metricStreamer = this.monitoringSubsystem.getMetricStreamers().get(0);
+
+        // re-configure with same metric streamer type and a second streamer
+        StandardMonitoringSubsystemConfig newConfig = new StandardMonitoringSubsystemConfig(
+                Arrays.asList(new MetricStreamerConfig(VALID_METRIC_STREAMER_CLASS, validMetricStreamerStub2Config()),
+                        new MetricStreamerConfig(NoOpMetricStreamerStub.class.getName(), new JsonObject())),
+                new SystemHistorianConfig(VALID_SYSTEM_HISTORIAN_CLASS, validSystemHistorianStubConfig()),
+                validMetricStreamMonitorConfig());
+        this.monitoringSubsystem.validate(newConfig);
+        this.monitoringSubsystem.configure(newConfig);
+
+        List<MetricStreamer<?>> metricStreamers = this.monitoringSubsystem.getMetricStreamers();
+        assertThat(metricStreamers.size(), is(2));
+        assertThat(metricStreamers.get(0), is(sameInstance(metricStreamer)));
+        assertThat(JsonUtils.toJson(metricStreamers.get(0).getConfiguration()), is(validMetricStreamerStub2Config()));
+    }
+
     /**
      * A configuration should either be entirely applied or not applied at all.
      * If either sub-configuration fails to be validated/applied, the prior
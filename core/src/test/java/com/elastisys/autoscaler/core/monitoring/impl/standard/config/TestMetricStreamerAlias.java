@@ -25,6 +25,10 @@ public class TestMetricStreamerAlias {
                 is("com.elastisys.autoscaler.metricstreamers.influxdb.InfluxdbMetricStreamer"));
         assertThat(MetricStreamerAlias.MetricStreamJoiner.getQualifiedClassName(),
                 is("com.elastisys.autoscaler.metricstreamers.streamjoiner.MetricStreamJoiner"));
+        assertThat(MetricStreamerAlias.FileReplayMetricStreamer.getQualifiedClassName(),
+                is("com.elastisys.autoscaler.metricstreamers.filereplay.FileReplayMetricStreamer"));
+        assertThat(MetricStreamerAlias.PrometheusMetricStreamer.getQualifiedClassName(),
+                is("com.elastisys.autoscaler.metricstreamers.prometheus.PrometheusMetricStreamer"));
 
     }
 }
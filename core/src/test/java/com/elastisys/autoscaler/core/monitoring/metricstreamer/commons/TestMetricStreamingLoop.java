@@ -1,15 +1,22 @@
 package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons;
 
 import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.isA;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -24,11 +31,16 @@ import org.slf4j.LoggerFactory;
 import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.metronome.api.MetronomeEvent;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamBackfillMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamCorrectionMessage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.EmptyResultSet;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.SinglePageResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpPolicy;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpStrategy;
 import com.elastisys.scale.commons.eventbus.EventBus;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 import com.elastisys.scale.commons.util.time.FrozenTime;
@@ -171,6 +183,40 @@ public class TestMetricStreamingLoop {
         verify(stream).query(expectedInterval, new QueryOptions());
     }
 
+    /**
+     * A {@link MetricStreamingLoop} that takes over metric streams from a
+     * previous {@link MetricStreamingLoop} should keep the previous
+     * {@link MetricStream} instances and continue streaming them from where
+     * they were left off. Streams that are not taken over are started afresh.
+     */
+    @Test
+    public void takeOverMetricStreams() {
+        MetricStream unchanged = mockedStream("http.req.count");
+        MetricStream changed = mockedStream("cpu.usage");
+        TimeInterval firstQueryLookback = new TimeInterval(5L, TimeUnit.MINUTES);
+        MetricStreamingLoop previous = new MetricStreamingLoop(this.logger, this.executor, this.eventBusMock,
+                asList(unchanged, changed), firstQueryLookback);
+        prepareResponse(unchanged, result(value(unchanged, 1.0, secondsAgo(30))));
+        prepareResponse(changed, result(value(changed, 1.0, secondsAgo(30))));
+        previous.run();
+
+        MetricStream unchangedReplacement = mockedStream("http.req.count");
+        MetricStream changedReplacement = mockedStream("cpu.usage");
+        prepareResponse(changedReplacement, result());
+        this.loop = new MetricStreamingLoop(this.logger, this.executor, this.eventBusMock,
+                asList(unchangedReplacement, changedReplacement), firstQueryLookback);
+        this.loop.takeOver(previous, asList("http.req.count.stream"));
+        assertThat(this.loop.getMetricStreams(), is(asList(unchanged, changedReplacement)));
+
+        prepareResponse(unchanged, result());
+        this.loop.run();
+        // taken over stream continues from its last observation
+        verify(unchanged).query(new Interval(secondsAgo(30), FrozenTime.now()), new QueryOptions());
+        verify(unchangedReplacement, never()).query(any(), any());
+        // other stream starts over
+        verify(changedReplacement).query(new Interval(minutesAgo(5), FrozenTime.now()), new QueryOptions());
+    }
+
     /**
      * Observed {@link MetricValue} are to be delivered on the {@link EventBus}.
      */
@@ -186,7 +232,7 @@ public class TestMetricStreamingLoop {
         this.loop.run();
 
         // verify that the values were reported onto the event bus
-        verify(this.eventBusMock).post(new MetricStreamMessage(stream.getId(), asList(datapoint1, datapoint2)));
+        verify(this.eventBusMock).post(message(stream, datapoint1, datapoint2));
     }
 
     /**
@@ -208,8 +254,7 @@ public class TestMetricStreamingLoop {
 
         // verify that the values were reported onto the event bus in
         // chronological order
-        verify(this.eventBusMock)
-                .post(new MetricStreamMessage(stream.getId(), asList(datapoint1, datapoint2, datapoint3)));
+        verify(this.eventBusMock).post(message(stream, datapoint1, datapoint2, datapoint3));
     }
 
     /**
@@ -227,7 +272,7 @@ public class TestMetricStreamingLoop {
         MetricValue datapoint1 = value(stream, 1.0, secondsAgo(30));
         prepareResponse(stream, result(datapoint1));
         this.loop.run();
-        verify(this.eventBusMock).post(new MetricStreamMessage(stream.getId(), asList(datapoint1)));
+        verify(this.eventBusMock).post(message(stream, datapoint1));
 
         FrozenTime.tick(60);
 
@@ -237,7 +282,7 @@ public class TestMetricStreamingLoop {
         prepareResponse(stream, result(lateDatapoint, datapoint2));
         this.loop.run();
         // verify that late datapoint was filtered out
-        verify(this.eventBusMock).post(new MetricStreamMessage(stream.getId(), asList(datapoint2)));
+        verify(this.eventBusMock).post(message(stream, datapoint2));
 
     }
 
@@ -265,8 +310,8 @@ public class TestMetricStreamingLoop {
         // verify that two separate messages are sent on metric stream and that
         // stream identifier is clearly stated to indicate the metric stream
         // source
-        verify(this.eventBusMock).post(new MetricStreamMessage(stream1.getId(), asList(stream1Point1)));
-        verify(this.eventBusMock).post(new MetricStreamMessage(stream2.getId(), asList(stream2Point1, stream2Point2)));
+        verify(this.eventBusMock).post(message(stream1, stream1Point1));
+        verify(this.eventBusMock).post(message(stream2, stream2Point1, stream2Point2));
 
     }
 
@@ -337,6 +382,207 @@ public class TestMetricStreamingLoop {
         verify(this.eventBusMock, times(1)).post(MetronomeEvent.RESIZE_ITERATION);
     }
 
+    /**
+     * A gap that is shorter than the {@link CatchUpPolicy} max gap should be
+     * fetched as usual.
+     */
+    @Test
+    public void catchUpNotNeededForShortGap() {
+        MetricStream stream = mockedStream("http.req.count");
+        this.loop = new MetricStreamingLoop(this.logger, this.executor, this.eventBusMock, asList(stream), null,
+                catchUp(stream, CatchUpStrategy.SKIP));
+
+        MetricValue datapoint1 = value(stream, 1.0, secondsAgo(30));
+        prepareResponse(stream, result(datapoint1));
+        this.loop.run();
+
+        FrozenTime.tick(300);
+        prepareResponse(stream, result());
+        this.loop.run();
+        verify(stream).query(new Interval(datapoint1.getTime(), FrozenTime.now()), new QueryOptions());
+    }
+
+    /**
+     * With the {@link CatchUpStrategy#SKIP} strategy, only the newest part of a
+     * large gap should be fetched.
+     */
+    @Test
+    public void catchUpBySkippingGap() {
+        MetricStream stream = mockedStream("http.req.count");
+        this.loop = new MetricStreamingLoop(this.logger, this.executor, this.eventBusMock, asList(stream), null,
+                catchUp(stream, CatchUpStrategy.SKIP));
+
+        prepareResponse(stream, result(value(stream, 1.0, secondsAgo(30))));
+        this.loop.run();
+
+        // outage
+        FrozenTime.tick(3600);
+        MetricValue afterOutage = value(stream, 2.0, secondsAgo(30));
+        prepareResponse(stream, result(afterOutage));
+        this.loop.run();
+
+        verify(stream).query(new Interval(minutesAgo(10), FrozenTime.now()), new QueryOptions());
+        verify(this.eventBusMock).post(message(stream, afterOutage));
+    }
+
+    /**
+     * With the {@link CatchUpStrategy#DOWNSAMPLE} strategy, the older part of a
+     * large gap should be fetched with a {@link Downsample} hint and delivered
+     * together with the newest data.
+     */
+    @Test
+    public void catchUpByDownsamplingGap() {
+        MetricStream stream = mockedStream("http.req.count");
+        this.loop = new MetricStreamingLoop(this.logger, this.executor, this.eventBusMock, asList(stream), null,
+                catchUp(stream, CatchUpStrategy.DOWNSAMPLE));
+
+        MetricValue beforeOutage = value(stream, 1.0, secondsAgo(30));
+        prepareResponse(stream, result(beforeOutage));
+        this.loop.run();
+
+        // outage
+        FrozenTime.tick(3600);
+        Interval gap = new Interval(beforeOutage.getTime(), minutesAgo(10));
+        Interval newest = new Interval(minutesAgo(10), FrozenTime.now());
+        MetricValue downsampled = value(stream, 1.5, minutesAgo(30));
+        MetricValue afterOutage = value(stream, 2.0, secondsAgo(30));
+        when(stream.query(gap, new QueryOptions(CatchUpPolicy.DEFAULT_DOWNSAMPLE))).thenReturn(result(downsampled));
+        when(stream.query(newest, new QueryOptions())).thenReturn(result(afterOutage));
+        this.loop.run();
+
+        verify(this.eventBusMock).post(message(stream, downsampled, afterOutage));
+    }
+
+    /**
+     * With the {@link CatchUpStrategy#NEWEST_FIRST} strategy, the newest part of
+     * a large gap should be delivered first and the older part should be
+     * backfilled in the background.
+     */
+    @Test
+    public void catchUpByFetchingNewestFirst() {
+        MetricStream stream = mockedStream("http.req.count");
+        this.loop = new MetricStreamingLoop(this.logger, this.executor, this.eventBusMock, asList(stream), null,
+                catchUp(stream, CatchUpStrategy.NEWEST_FIRST));
+
+        MetricValue beforeOutage = value(stream, 1.0, secondsAgo(30));
+        prepareResponse(stream, result(beforeOutage));
+        this.loop.run();
+
+        // outage
+        FrozenTime.tick(3600);
+        Interval gap = new Interval(beforeOutage.getTime(), minutesAgo(10));
+        Interval newest = new Interval(minutesAgo(10), FrozenTime.now());
+        MetricValue inGap = value(stream, 1.5, minutesAgo(30));
+        MetricValue afterOutage = value(stream, 2.0, secondsAgo(30));
+        when(stream.query(gap, new QueryOptions())).thenReturn(result(inGap));
+        when(stream.query(newest, new QueryOptions())).thenReturn(result(afterOutage));
+        this.loop.run();
+
+        verify(this.eventBusMock).post(message(stream, afterOutage));
+        verify(this.eventBusMock, timeout(5000)).post(new MetricStreamBackfillMessage(stream.getId(), asList(inGap)));
+    }
+
+    /**
+     * A latest-only stream should only have its most recent value fetched
+     * (and delivered), without any catch-up, no matter how large the gap since
+     * the last observation.
+     */
+    @Test
+    public void latestOnlyStream() {
+        MetricStream stream = mockedStream("http.req.count");
+        this.loop = new MetricStreamingLoop(this.logger, this.executor, this.eventBusMock, asList(stream), null,
+                Collections.singletonMap(stream.getId(),
+                        new MetricStreamSettings(catchUpPolicy(CatchUpStrategy.NEWEST_FIRST), true, null)));
+
+        MetricValue latest = value(stream, 1.0, secondsAgo(30));
+        when(stream.queryLatest(argThat(isA(Interval.class)))).thenReturn(Optional.of(latest));
+        this.loop.run();
+        verify(this.eventBusMock).post(message(stream, latest));
+
+        // outage
+        FrozenTime.tick(3600);
+        MetricValue afterOutage = value(stream, 2.0, secondsAgo(30));
+        when(stream.queryLatest(argThat(isA(Interval.class)))).thenReturn(Optional.of(afterOutage));
+        this.loop.run();
+        verify(stream).queryLatest(new Interval(latest.getTime(), FrozenTime.now()));
+        verify(this.eventBusMock).post(message(stream, afterOutage));
+
+        verify(stream, never()).query(any(Interval.class), any(QueryOptions.class));
+    }
+
+    /**
+     * With an allowed lateness, each query should reach back to the watermark
+     * and late arrivals within the allowed lateness should be delivered (once)
+     * as corrections. Values at or before the watermark should be dropped.
+     */
+    @Test
+    public void deliverLateArrivalsAsCorrections() {
+        MetricStream stream = mockedStream("http.req.count");
+        this.loop = new MetricStreamingLoop(this.logger, this.executor, this.eventBusMock, asList(stream), null,
+                Collections.singletonMap(stream.getId(),
+                        new MetricStreamSettings(null, false, new TimeInterval(120L, TimeUnit.SECONDS))));
+
+        MetricValue datapoint1 = value(stream, 1.0, secondsAgo(30));
+        prepareResponse(stream, result(datapoint1));
+        this.loop.run();
+        DateTime watermark = datapoint1.getTime().minusSeconds(120);
+        verify(this.eventBusMock).post(new MetricStreamMessage(stream.getId(), asList(datapoint1), watermark));
+
+        FrozenTime.tick(60);
+        MetricValue tooLate = value(stream, 1.0, watermark);
+        MetricValue late = value(stream, 1.0, datapoint1.getTime().minusSeconds(10));
+        MetricValue datapoint2 = value(stream, 2.0, secondsAgo(30));
+        prepareResponse(stream, result(tooLate, late, datapoint1, datapoint2));
+        this.loop.run();
+        verify(stream).query(new Interval(watermark, FrozenTime.now()), new QueryOptions());
+        DateTime newWatermark = datapoint2.getTime().minusSeconds(120);
+        verify(this.eventBusMock).post(new MetricStreamCorrectionMessage(stream.getId(), asList(late), newWatermark));
+        verify(this.eventBusMock).post(new MetricStreamMessage(stream.getId(), asList(datapoint2), newWatermark));
+
+        // late arrivals that are already delivered, but not yet past the
+        // watermark, are not delivered again
+        FrozenTime.tick(30);
+        prepareResponse(stream, result(late, datapoint2));
+        this.loop.run();
+        verify(this.eventBusMock, times(1)).post(argThat(isA(MetricStreamCorrectionMessage.class)));
+        verify(this.eventBusMock, times(2)).post(MetronomeEvent.RESIZE_ITERATION);
+    }
+
+    /**
+     * Creates a {@link MetricStreamMessage} for a given {@link MetricStream}
+     * with no allowed lateness, where the watermark is the time of the newest
+     * value.
+     *
+     * @param stream
+     * @param values
+     * @return
+     */
+    private MetricStreamMessage message(MetricStream stream, MetricValue... values) {
+        return new MetricStreamMessage(stream.getId(), asList(values), values[values.length - 1].getTime());
+    }
+
+    /**
+     * Creates {@link MetricStreamSettings} for a given {@link MetricStream}
+     * with a {@link CatchUpPolicy} that has a max gap of 10 minutes.
+     *
+     * @param stream
+     * @param strategy
+     * @return
+     */
+    private Map<String, MetricStreamSettings> catchUp(MetricStream stream, CatchUpStrategy strategy) {
+        return Collections.singletonMap(stream.getId(), new MetricStreamSettings(catchUpPolicy(strategy), false, null));
+    }
+
+    /**
+     * Creates a {@link CatchUpPolicy} with a max gap of 10 minutes.
+     *
+     * @param strategy
+     * @return
+     */
+    private CatchUpPolicy catchUpPolicy(CatchUpStrategy strategy) {
+        return new CatchUpPolicy(strategy, new TimeInterval(10L, TimeUnit.MINUTES), null);
+    }
+
     /**
      * Creates a mock {@link MetricStream} collecting values for a given metric.
      *
@@ -0,0 +1,148 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching;
+
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.time;
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.value;
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.values;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.Duration;
+import org.joda.time.Interval;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.DownsampleFunction;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.SinglePageResultSet;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+
+/**
+ * Exercises the {@link CachingMetricStream}.
+ */
+public class TestCachingMetricStream {
+
+    private final MetricStream delegate = mock(MetricStream.class);
+    private QueryCache cache;
+
+    @Before
+    public void beforeTestMethod() {
+        FrozenTime.setFixed(time(3600));
+        when(this.delegate.getId()).thenReturn("stream");
+        this.cache = new QueryCache();
+        this.cache.configure(Optional.of(new QueryCacheConfig(100L, new TimeInterval(5L, TimeUnit.MINUTES))));
+    }
+
+    /**
+     * Only the parts of a query that have not been fetched before should be
+     * passed on to the decorated stream, and the values should be returned in
+     * time order without duplicates.
+     */
+    @Test
+    public void onlyFetchMissingIntervals() {
+        QueryOptions options = new QueryOptions();
+        when(this.delegate.query(interval(100, 200), options))
+                .thenReturn(results(value(1.0, 100), value(2.0, 150), value(3.0, 200)));
+        CachingMetricStream stream = new CachingMetricStream(this.delegate, this.cache);
+        assertThat(fetchAll(stream.query(interval(100, 200), options)),
+                is(values(value(1.0, 100), value(2.0, 150), value(3.0, 200))));
+        verify(this.delegate).query(interval(100, 200), options);
+
+        when(this.delegate.query(interval(0, 100), options)).thenReturn(results(value(0.0, 50), value(1.0, 100)));
+        when(this.delegate.query(interval(200, 300), options)).thenReturn(results(value(3.0, 200), value(4.0, 250)));
+        assertThat(fetchAll(stream.query(interval(0, 300), options)), is(values(value(0.0, 50), value(1.0, 100),
+                value(2.0, 150), value(3.0, 200), value(4.0, 250))));
+        verify(this.delegate).query(interval(0, 100), options);
+        verify(this.delegate).query(interval(200, 300), options);
+
+        // everything is cached now
+        assertThat(fetchAll(stream.query(interval(0, 300), options)), is(values(value(0.0, 50), value(1.0, 100),
+                value(2.0, 150), value(3.0, 200), value(4.0, 250))));
+        verify(this.delegate, never()).query(interval(0, 300), options);
+        assertThat(this.cache.size(), is(5L));
+    }
+
+    /**
+     * Data that has not yet settled should not be cached.
+     */
+    @Test
+    public void doNotCacheUnsettledData() {
+        QueryOptions options = new QueryOptions();
+        when(this.delegate.query(interval(3000, 3300), options)).thenReturn(results(value(1.0, 3100)));
+        CachingMetricStream stream = new CachingMetricStream(this.delegate, this.cache, Duration.standardMinutes(10));
+        assertThat(fetchAll(stream.query(interval(3000, 3300), options)), is(values(value(1.0, 3100))));
+        assertThat(this.cache.size(), is(0L));
+    }
+
+    /**
+     * Downsampled queries should not be cached.
+     */
+    @Test
+    public void bypassCacheForDownsampledQueries() {
+        QueryOptions options = new QueryOptions(
+                new Downsample(new TimeInterval(1L, TimeUnit.MINUTES), DownsampleFunction.MEAN));
+        QueryResultSet results = results(value(1.0, 100));
+        when(this.delegate.query(interval(0, 200), options)).thenReturn(results);
+
+        CachingMetricStream stream = new CachingMetricStream(this.delegate, this.cache);
+        assertThat(stream.query(interval(0, 200), options), is(sameInstance(results)));
+        assertThat(this.cache.size(), is(0L));
+    }
+
+    /**
+     * With caching disabled, queries should go straight to the decorated
+     * stream.
+     */
+    @Test
+    public void bypassCacheWhenDisabled() {
+        this.cache.configure(Optional.empty());
+        QueryOptions options = new QueryOptions();
+        QueryResultSet results = results(value(1.0, 100));
+        when(this.delegate.query(interval(0, 200), options)).thenReturn(results);
+
+        CachingMetricStream stream = new CachingMetricStream(this.delegate, this.cache);
+        assertThat(stream.query(interval(0, 200), options), is(sameInstance(results)));
+    }
+
+    /**
+     * A missing interval should not be fetched until its page is requested.
+     */
+    @Test
+    public void fetchLazily() {
+        QueryOptions options = new QueryOptions();
+        CachingMetricStream stream = new CachingMetricStream(this.delegate, this.cache);
+        stream.query(interval(0, 100), options);
+        verify(this.delegate, never()).query(any(Interval.class), any(QueryOptions.class));
+    }
+
+    private static Interval interval(long startSeconds, long endSeconds) {
+        return new Interval(time(startSeconds), time(endSeconds));
+    }
+
+    private static QueryResultSet results(MetricValue... values) {
+        return new SinglePageResultSet(values(values));
+    }
+
+    private static List<MetricValue> fetchAll(QueryResultSet resultSet) {
+        List<MetricValue> values = new ArrayList<>();
+        while (resultSet.hasNext()) {
+            values.addAll(resultSet.fetchNext().getMetricValues());
+        }
+        return values;
+    }
+}
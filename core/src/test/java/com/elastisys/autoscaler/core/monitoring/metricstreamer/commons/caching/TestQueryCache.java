@@ -0,0 +1,199 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching;
+
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.time;
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.value;
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.values;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.Duration;
+import org.joda.time.Interval;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching.QueryCache.Piece;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+
+/**
+ * Exercises the {@link QueryCache}.
+ */
+public class TestQueryCache {
+
+    private static final QueryCacheConfig CONFIG = new QueryCacheConfig(100L, new TimeInterval(5L, TimeUnit.MINUTES));
+
+    private QueryCache cache;
+
+    @Before
+    public void beforeTestMethod() {
+        FrozenTime.setFixed(time(3600));
+        this.cache = new QueryCache();
+        this.cache.configure(Optional.of(CONFIG));
+    }
+
+    /**
+     * A disabled cache should never cache anything.
+     */
+    @Test
+    public void disabled() {
+        this.cache.configure(Optional.empty());
+        assertFalse(this.cache.isEnabled());
+        assertThat(this.cache.getMaxValues(), is(0L));
+
+        this.cache.put("s", interval(0, 100), values(value(1.0, 50)), Duration.ZERO);
+        assertThat(this.cache.size(), is(0L));
+        List<Piece> pieces = this.cache.plan("s", interval(0, 100));
+        assertThat(pieces.size(), is(1));
+        assertMissing(pieces.get(0), interval(0, 100));
+    }
+
+    /**
+     * With nothing cached, the whole query interval is missing.
+     */
+    @Test
+    public void planWithEmptyCache() {
+        List<Piece> pieces = this.cache.plan("s", interval(0, 100));
+        assertThat(pieces.size(), is(1));
+        assertMissing(pieces.get(0), interval(0, 100));
+    }
+
+    /**
+     * Queries should be split into cached and missing sub-intervals.
+     */
+    @Test
+    public void planAroundCachedSegments() {
+        this.cache.put("s", interval(100, 200), values(value(1.0, 100), value(2.0, 150), value(3.0, 200)),
+                Duration.ZERO);
+        this.cache.put("s", interval(300, 400), values(value(4.0, 350)), Duration.ZERO);
+        assertThat(this.cache.size(), is(4L));
+
+        List<Piece> pieces = this.cache.plan("s", interval(0, 500));
+        assertThat(pieces.size(), is(5));
+        assertMissing(pieces.get(0), interval(0, 100));
+        assertCached(pieces.get(1), interval(100, 200), values(value(1.0, 100), value(2.0, 150), value(3.0, 200)));
+        assertMissing(pieces.get(2), interval(200, 300));
+        assertCached(pieces.get(3), interval(300, 400), values(value(4.0, 350)));
+        assertMissing(pieces.get(4), interval(400, 500));
+
+        // a query within a cached segment only returns the values within it
+        pieces = this.cache.plan("s", interval(120, 180));
+        assertThat(pieces.size(), is(1));
+        assertCached(pieces.get(0), interval(120, 180), values(value(2.0, 150)));
+
+        // other streams are not affected
+        pieces = this.cache.plan("other", interval(0, 500));
+        assertThat(pieces.size(), is(1));
+        assertMissing(pieces.get(0), interval(0, 500));
+    }
+
+    /**
+     * Overlapping and adjacent segments should be merged into one, where the
+     * most recently fetched values win.
+     */
+    @Test
+    public void mergeSegments() {
+        this.cache.put("s", interval(0, 100), values(value(1.0, 0), value(2.0, 100)), Duration.ZERO);
+        this.cache.put("s", interval(100, 200), values(value(3.0, 100), value(4.0, 200)), Duration.ZERO);
+        this.cache.put("s", interval(150, 300), values(value(5.0, 200), value(6.0, 300)), Duration.ZERO);
+        assertThat(this.cache.size(), is(4L));
+
+        List<Piece> pieces = this.cache.plan("s", interval(0, 300));
+        assertThat(pieces.size(), is(1));
+        assertCached(pieces.get(0), interval(0, 300),
+                values(value(1.0, 0), value(3.0, 100), value(5.0, 200), value(6.0, 300)));
+    }
+
+    /**
+     * Data more recent than the configured minimum age should not be cached.
+     */
+    @Test
+    public void onlyCacheSettledData() {
+        // now is 3600, so everything after 3300 is too recent
+        this.cache.put("s", interval(3000, 3500), values(value(1.0, 3100), value(2.0, 3400)), Duration.ZERO);
+        assertThat(this.cache.size(), is(1L));
+
+        List<Piece> pieces = this.cache.plan("s", interval(3000, 3500));
+        assertThat(pieces.size(), is(2));
+        assertCached(pieces.get(0), interval(3000, 3300), values(value(1.0, 3100)));
+        assertMissing(pieces.get(1), interval(3300, 3500));
+    }
+
+    /**
+     * A minimum age given on put that is longer than the configured one
+     * should take precedence.
+     */
+    @Test
+    public void onlyCacheSettledDataWithStreamMinAge() {
+        this.cache.put("s", interval(3000, 3500), values(value(1.0, 3100), value(2.0, 3400)),
+                Duration.standardMinutes(10));
+        assertThat(this.cache.size(), is(0L));
+    }
+
+    /**
+     * When full, the least recently used segments should be evicted.
+     */
+    @Test
+    public void evictLeastRecentlyUsed() {
+        this.cache.configure(Optional.of(new QueryCacheConfig(4L, null)));
+        this.cache.put("a", interval(0, 100), values(value(1.0, 0), value(2.0, 100)), Duration.ZERO);
+        this.cache.put("b", interval(0, 100), values(value(1.0, 0), value(2.0, 100)), Duration.ZERO);
+        // use a, making b the least recently used
+        this.cache.plan("a", interval(0, 100));
+
+        this.cache.put("c", interval(0, 100), values(value(1.0, 0), value(2.0, 100)), Duration.ZERO);
+        assertThat(this.cache.size(), is(4L));
+        assertTrue(this.cache.plan("a", interval(0, 100)).get(0).isCached());
+        assertFalse(this.cache.plan("b", interval(0, 100)).get(0).isCached());
+        assertTrue(this.cache.plan("c", interval(0, 100)).get(0).isCached());
+    }
+
+    /**
+     * Results that do not fit in the cache should not be cached at all.
+     */
+    @Test
+    public void skipTooLargeResults() {
+        this.cache.configure(Optional.of(new QueryCacheConfig(2L, null)));
+        this.cache.put("s", interval(0, 100), values(value(1.0, 0), value(2.0, 50), value(3.0, 100)),
+                Duration.ZERO);
+        assertThat(this.cache.size(), is(0L));
+    }
+
+    /**
+     * Re-configuring should drop all cached data.
+     */
+    @Test
+    public void reconfigureClearsCache() {
+        this.cache.put("s", interval(0, 100), values(value(1.0, 50)), Duration.ZERO);
+        assertThat(this.cache.size(), is(1L));
+
+        this.cache.configure(Optional.of(CONFIG));
+        assertThat(this.cache.size(), is(0L));
+        assertFalse(this.cache.plan("s", interval(0, 100)).get(0).isCached());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configureWithIllegalConfig() {
+        this.cache.configure(Optional.of(new QueryCacheConfig(0L, null)));
+    }
+
+    private static Interval interval(long startSeconds, long endSeconds) {
+        return new Interval(time(startSeconds), time(endSeconds));
+    }
+
+    private static void assertMissing(Piece piece, Interval interval) {
+        assertFalse(piece.isCached());
+        assertThat(piece.getInterval(), is(interval));
+    }
+
+    private static void assertCached(Piece piece, Interval interval, List<?> values) {
+        assertTrue(piece.isCached());
+        assertThat(piece.getInterval(), is(interval));
+        assertThat(piece.getValues(), is(values));
+    }
+}
@@ -0,0 +1,191 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.joda.time.Interval;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link QueryChunkPlanner}.
+ */
+public class TestQueryChunkPlanner {
+
+    private static final String STREAM = "cpu.stream";
+    private static final DateTime START = UtcTime.parse("2017-01-01T00:00:00.000Z");
+    private static final Duration MAX_CHUNK = Duration.standardHours(1);
+
+    /** Object under test. */
+    private QueryChunkPlanner planner;
+
+    @Before
+    public void beforeTestMethod() {
+        this.planner = new QueryChunkPlanner();
+    }
+
+    /**
+     * Without adaptive chunk sizing, the query interval should be split into
+     * chunks of the maximum chunk size.
+     */
+    @Test
+    public void fixedChunks() {
+        Interval interval = new Interval(START, START.plusMinutes(150));
+        List<Interval> chunks = consume(this.planner.split(STREAM, interval, MAX_CHUNK));
+
+        assertThat(chunks, is(Arrays.asList(//
+                new Interval(START, START.plusMinutes(60)), //
+                new Interval(START.plusMinutes(60), START.plusMinutes(120)), //
+                new Interval(START.plusMinutes(120), START.plusMinutes(150)))));
+    }
+
+    /**
+     * With adaptive chunk sizing, chunks should shrink to produce roughly the
+     * targeted number of points once the stream's data density is known.
+     */
+    @Test
+    public void shrinkChunksForDenseStream() {
+        ChunkSizingConfig config = new ChunkSizingConfig(600, null, new TimeInterval(10L, TimeUnit.SECONDS), null);
+        this.planner.configure(Optional.of(config), Arrays.asList(STREAM));
+
+        // stream produces 1000 points/minute: first chunk has no estimate
+        QueryChunks chunks = this.planner.split(STREAM, new Interval(START, START.plusHours(3)), MAX_CHUNK);
+        Interval first = chunks.next();
+        assertThat(first, is(new Interval(START, START.plusMinutes(60))));
+        chunks.observe(first, 60000, -1);
+
+        // 600 points at 1000 points/minute
+        Interval second = chunks.next();
+        assertThat(second.toDurationMillis(), is(TimeUnit.SECONDS.toMillis(36)));
+
+        // stream suddenly grows much denser: never below the minimum chunk size
+        chunks.observe(second, 36000, -1);
+        assertThat(chunks.next().toDurationMillis(), is(TimeUnit.SECONDS.toMillis(10)));
+    }
+
+    /**
+     * Without a maximum chunk size, chunks should never grow beyond the
+     * stream's chunk size, even for a sparse stream.
+     */
+    @Test
+    public void neverExceedMaxChunkSize() {
+        this.planner.configure(Optional.of(new ChunkSizingConfig(600, null, null, null)), Arrays.asList(STREAM));
+
+        QueryChunks chunks = this.planner.split(STREAM, new Interval(START, START.plusHours(3)), MAX_CHUNK);
+        chunks.observe(chunks.next(), 10, -1);
+        assertThat(chunks.next(), is(new Interval(START.plusMinutes(60), START.plusMinutes(120))));
+    }
+
+    /**
+     * With a maximum chunk size, chunks should grow for a sparse stream to
+     * produce roughly the targeted number of points, but never beyond the
+     * maximum chunk size.
+     */
+    @Test
+    public void growChunksForSparseStream() {
+        ChunkSizingConfig config = new ChunkSizingConfig(600, null, null, new TimeInterval(12L, TimeUnit.HOURS));
+        this.planner.configure(Optional.of(config), Arrays.asList(STREAM));
+
+        // stream produces 100 points/hour: first chunk has no estimate
+        QueryChunks chunks = this.planner.split(STREAM, new Interval(START, START.plusDays(2)), MAX_CHUNK);
+        Interval first = chunks.next();
+        assertThat(first, is(new Interval(START, START.plusMinutes(60))));
+        chunks.observe(first, 100, -1);
+
+        // 600 points at 100 points/hour
+        Interval second = chunks.next();
+        assertThat(second, is(new Interval(START.plusHours(1), START.plusHours(7))));
+
+        // stream goes quiet: never beyond the maximum chunk size
+        chunks.observe(second, 0, -1);
+        chunks.observe(second, 0, -1);
+        chunks.observe(second, 0, -1);
+        assertThat(chunks.next(), is(new Interval(START.plusHours(7), START.plusHours(19))));
+
+        // an empty stream is queried in chunks of the maximum chunk size
+        this.planner.configure(Optional.of(config), Collections.emptyList());
+        this.planner.configure(Optional.of(config), Arrays.asList(STREAM));
+        chunks = this.planner.split(STREAM, new Interval(START, START.plusDays(2)), MAX_CHUNK);
+        chunks.observe(chunks.next(), 0, -1);
+        assertThat(chunks.next(), is(new Interval(START.plusHours(1), START.plusHours(13))));
+    }
+
+    /**
+     * When a target response size is given, the chunk size should be limited
+     * by whichever target is hit first.
+     */
+    @Test
+    public void limitByResponseSize() {
+        ChunkSizingConfig config = new ChunkSizingConfig(6000, 100000L, new TimeInterval(1L, TimeUnit.SECONDS), null);
+        this.planner.configure(Optional.of(config), Arrays.asList(STREAM));
+
+        // 100 points/minute, but 1 MB/minute
+        QueryChunks chunks = this.planner.split(STREAM, new Interval(START, START.plusHours(3)), MAX_CHUNK);
+        chunks.observe(chunks.next(), 6000, 60000000L);
+        assertThat(chunks.next().toDurationMillis(), is(TimeUnit.SECONDS.toMillis(6)));
+    }
+
+    /**
+     * The learned data density of a stream should be retained by later
+     * queries and across reconfigurations, but forgotten for streams that are
+     * no longer in use.
+     */
+    @Test
+    public void retainDensityAcrossQueries() {
+        ChunkSizingConfig config = new ChunkSizingConfig(600, null, null, null);
+        this.planner.configure(Optional.of(config), Arrays.asList(STREAM));
+        QueryChunks chunks = this.planner.split(STREAM, new Interval(START, START.plusHours(3)), MAX_CHUNK);
+        chunks.observe(chunks.next(), 6000, -1);
+
+        // 600 points at 100 points/minute
+        this.planner.configure(Optional.of(config), Arrays.asList(STREAM));
+        chunks = this.planner.split(STREAM, new Interval(START, START.plusHours(3)), MAX_CHUNK);
+        assertThat(chunks.next().toDurationMillis(), is(TimeUnit.MINUTES.toMillis(6)));
+
+        // stream no longer in use
+        this.planner.configure(Optional.of(config), Collections.emptyList());
+        chunks = this.planner.split(STREAM, new Interval(START, START.plusHours(3)), MAX_CHUNK);
+        assertThat(chunks.next().toDurationMillis(), is(MAX_CHUNK.getMillis()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configureWithIllegalTargetPoints() {
+        this.planner.configure(Optional.of(new ChunkSizingConfig(0, null, null, null)), Arrays.asList(STREAM));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configureWithMaxChunkSizeBelowMinChunkSize() {
+        ChunkSizingConfig config = new ChunkSizingConfig(600, null, new TimeInterval(10L, TimeUnit.MINUTES),
+                new TimeInterval(5L, TimeUnit.MINUTES));
+        this.planner.configure(Optional.of(config), Arrays.asList(STREAM));
+    }
+
+    @Test
+    public void emptyInterval() {
+        QueryChunks chunks = this.planner.split(STREAM, new Interval(START, START), MAX_CHUNK);
+        assertFalse(chunks.hasNext());
+    }
+
+    private static List<Interval> consume(QueryChunks chunks) {
+        List<Interval> intervals = new ArrayList<>();
+        while (chunks.hasNext()) {
+            Interval chunk = chunks.next();
+            chunks.observe(chunk, 1000, -1);
+            intervals.add(chunk);
+        }
+        return intervals;
+    }
+}
@@ -0,0 +1,179 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker.State;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link CircuitBreaker}.
+ */
+public class TestCircuitBreaker {
+    private static final Logger LOG = LoggerFactory.getLogger(TestCircuitBreaker.class);
+
+    private static final CircuitBreakerConfig CONFIG = new CircuitBreakerConfig(2,
+            new TimeInterval(30L, TimeUnit.SECONDS));
+
+    /** Object under test. */
+    private CircuitBreaker circuitBreaker;
+
+    @Before
+    public void beforeTestMethod() {
+        FrozenTime.setFixed(UtcTime.parse("2017-01-01T12:00:00.000Z"));
+        this.circuitBreaker = new CircuitBreaker(LOG, "http://localhost:8086", CONFIG);
+    }
+
+    /**
+     * The circuit should stay closed until the failure threshold is reached.
+     */
+    @Test
+    public void openOnFailureThreshold() throws Exception {
+        assertThat(this.circuitBreaker.getState(), is(State.CLOSED));
+
+        failedCall();
+        assertThat(this.circuitBreaker.getState(), is(State.CLOSED));
+        assertThat(this.circuitBreaker.getConsecutiveFailures(), is(1));
+
+        failedCall();
+        assertThat(this.circuitBreaker.getState(), is(State.OPEN));
+        assertThat(this.circuitBreaker.getOpenedAt().get(), is(UtcTime.now()));
+        assertThat(this.circuitBreaker.isCallPermitted(), is(false));
+    }
+
+    /**
+     * A successful call should reset the count of consecutive failures.
+     */
+    @Test
+    public void successResetsFailureCount() throws Exception {
+        failedCall();
+        this.circuitBreaker.call(() -> "ok");
+        failedCall();
+
+        assertThat(this.circuitBreaker.getState(), is(State.CLOSED));
+        assertThat(this.circuitBreaker.getConsecutiveFailures(), is(1));
+    }
+
+    /**
+     * An open circuit should reject calls without running them.
+     */
+    @Test
+    public void rejectCallsWhenOpen() throws Exception {
+        failedCall();
+        failedCall();
+
+        try {
+            this.circuitBreaker.call(() -> {
+                fail("call should not have been let through");
+                return null;
+            });
+            fail("expected to be rejected");
+        } catch (CircuitBreakerOpenException e) {
+            // expected
+        }
+        assertThat(this.circuitBreaker.getConsecutiveFailures(), is(2));
+    }
+
+    /**
+     * After the reset timeout, a single probe should be let through. A
+     * successful probe closes the circuit.
+     */
+    @Test
+    public void successfulProbeClosesCircuit() throws Exception {
+        failedCall();
+        failedCall();
+
+        FrozenTime.tick(29);
+        assertThat(this.circuitBreaker.isCallPermitted(), is(false));
+        FrozenTime.tick(1);
+        assertThat(this.circuitBreaker.isCallPermitted(), is(true));
+
+        this.circuitBreaker.acquirePermission();
+        assertThat(this.circuitBreaker.getState(), is(State.HALF_OPEN));
+        // only one probe at a time
+        assertThat(this.circuitBreaker.isCallPermitted(), is(false));
+
+        this.circuitBreaker.onSuccess();
+        assertThat(this.circuitBreaker.getState(), is(State.CLOSED));
+        assertThat(this.circuitBreaker.getConsecutiveFailures(), is(0));
+        assertThat(this.circuitBreaker.getOpenedAt().isPresent(), is(false));
+        assertThat(this.circuitBreaker.getLastFailure().isPresent(), is(false));
+    }
+
+    /**
+     * A failed probe should re-open the circuit for another reset timeout.
+     */
+    @Test
+    public void failedProbeReopensCircuit() throws Exception {
+        failedCall();
+        failedCall();
+
+        FrozenTime.tick(30);
+        failedCall();
+        assertThat(this.circuitBreaker.getState(), is(State.OPEN));
+        assertThat(this.circuitBreaker.getOpenedAt().get(), is(UtcTime.now()));
+        assertThat(this.circuitBreaker.isCallPermitted(), is(false));
+
+        FrozenTime.tick(30);
+        assertThat(this.circuitBreaker.isCallPermitted(), is(true));
+    }
+
+    /**
+     * If a probe never reports its outcome, another probe should be allowed
+     * after the reset timeout.
+     */
+    @Test
+    public void lostProbe() throws Exception {
+        failedCall();
+        failedCall();
+
+        FrozenTime.tick(30);
+        this.circuitBreaker.acquirePermission();
+        assertThat(this.circuitBreaker.isCallPermitted(), is(false));
+
+        FrozenTime.tick(30);
+        assertThat(this.circuitBreaker.isCallPermitted(), is(true));
+        this.circuitBreaker.acquirePermission();
+        assertThat(this.circuitBreaker.getState(), is(State.HALF_OPEN));
+    }
+
+    /**
+     * A config change should apply to the current state.
+     */
+    @Test
+    public void reconfigure() throws Exception {
+        failedCall();
+        failedCall();
+
+        this.circuitBreaker.setConfig(new CircuitBreakerConfig(2, new TimeInterval(10L, TimeUnit.SECONDS)));
+        FrozenTime.tick(10);
+        assertThat(this.circuitBreaker.isCallPermitted(), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithInvalidConfig() {
+        new CircuitBreaker(LOG, "http://localhost:8086", new CircuitBreakerConfig(0, null));
+    }
+
+    private void failedCall() throws Exception {
+        try {
+            this.circuitBreaker.call(() -> {
+                throw new IOException("connection refused");
+            });
+            fail("expected call to fail");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker.State;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link CircuitBreakerRegistry}.
+ */
+public class TestCircuitBreakerRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(TestCircuitBreakerRegistry.class);
+
+    /** Object under test. */
+    private CircuitBreakerRegistry registry;
+
+    @Before
+    public void beforeTestMethod() {
+        FrozenTime.setFixed(UtcTime.parse("2017-01-01T12:00:00.000Z"));
+        this.registry = new CircuitBreakerRegistry(LOG);
+    }
+
+    /**
+     * There should be one {@link CircuitBreaker} per endpoint.
+     */
+    @Test
+    public void oneCircuitBreakerPerEndpoint() {
+        CircuitBreaker a = this.registry.get("http://a:8086");
+        assertThat(this.registry.get("http://a:8086"), is(sameInstance(a)));
+        assertThat(this.registry.get("http://b:8086"), is(not(sameInstance(a))));
+        assertThat(this.registry.getCircuitBreakers().size(), is(2));
+    }
+
+    /**
+     * A fault should be reported for as long as any circuit isn't closed.
+     */
+    @Test
+    public void openCircuitFault() {
+        assertThat(this.registry.getOpenCircuitFault().isPresent(), is(false));
+
+        CircuitBreaker breaker = this.registry.get("http://a:8086");
+        for (int i = 0; i < CircuitBreakerConfig.DEFAULT_FAILURE_THRESHOLD; i++) {
+            breaker.onFailure(new IOException("connection refused"));
+        }
+        assertThat(breaker.getState(), is(State.OPEN));
+        assertThat(this.registry.getOpenCircuitFault().isPresent(), is(true));
+        assertThat(this.registry.getOpenCircuitFault().get().getMessage(), containsString("http://a:8086"));
+        assertThat(this.registry.getOpenCircuitFault().get().getMessage(), containsString("connection refused"));
+
+        breaker.onSuccess();
+        assertThat(this.registry.getOpenCircuitFault().isPresent(), is(false));
+    }
+
+    /**
+     * On re-configuration, state should be kept for endpoints that are still
+     * in use, whereas other endpoints should be forgotten.
+     */
+    @Test
+    public void configure() {
+        CircuitBreaker a = this.registry.get("http://a:8086");
+        a.onFailure(new IOException("connection refused"));
+        CircuitBreaker b = this.registry.get("http://b:8086");
+
+        CircuitBreakerConfig newConfig = new CircuitBreakerConfig(1, new TimeInterval(5L, TimeUnit.SECONDS));
+        this.registry.configure(newConfig, Arrays.asList("http://a:8086"));
+
+        assertThat(this.registry.getCircuitBreakers().size(), is(1));
+        assertThat(this.registry.get("http://a:8086"), is(sameInstance(a)));
+        assertThat(a.getConsecutiveFailures(), is(1));
+        assertThat(this.registry.get("http://b:8086"), is(not(sameInstance(b))));
+
+        // new config applies to retained circuit breaker
+        a.onFailure(new IOException("connection refused"));
+        assertThat(a.getState(), is(State.OPEN));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configureWithInvalidConfig() {
+        this.registry.configure(new CircuitBreakerConfig(-1, null), Arrays.asList("http://a:8086"));
+    }
+}
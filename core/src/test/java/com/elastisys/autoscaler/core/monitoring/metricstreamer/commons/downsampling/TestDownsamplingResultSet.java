@@ -0,0 +1,92 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.downsampling;
+
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.value;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.DownsampleFunction;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultPage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.EmptyResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.SinglePageResultSet;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercises the {@link DownsamplingResultSet}.
+ */
+public class TestDownsamplingResultSet {
+
+    private static final Downsample DOWNSAMPLE = new Downsample(new TimeInterval(10L, TimeUnit.SECONDS),
+            DownsampleFunction.MEAN);
+
+    /**
+     * Each page should hold the buckets completed by the corresponding page of
+     * the wrapped result set, and the last bucket should be returned in a
+     * final page.
+     */
+    @Test
+    public void downsamplePageByPage() {
+        QueryResultSet pages = mock(QueryResultSet.class);
+        when(pages.hasNext()).thenReturn(true, true, true, true, false);
+        when(pages.fetchNext()).thenReturn(page(value(1.0, 1), value(3.0, 5), value(5.0, 12)),
+                page(value(7.0, 15), value(9.0, 22)));
+
+        DownsamplingResultSet resultSet = new DownsamplingResultSet(pages, DOWNSAMPLE);
+        assertTrue(resultSet.hasNext());
+        assertThat(resultSet.fetchNext(), is(page(value(2.0, 0))));
+        assertTrue(resultSet.hasNext());
+        assertThat(resultSet.fetchNext(), is(page(value(6.0, 10))));
+        assertTrue(resultSet.hasNext());
+        assertThat(resultSet.fetchNext(), is(page(value(9.0, 20))));
+        assertFalse(resultSet.hasNext());
+    }
+
+    /**
+     * An empty result set should stay empty.
+     */
+    @Test
+    public void downsampleEmptyResultSet() {
+        DownsamplingResultSet resultSet = new DownsamplingResultSet(new EmptyResultSet(), DOWNSAMPLE);
+        assertFalse(resultSet.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void fetchBeyondLastPage() {
+        DownsamplingResultSet resultSet = new DownsamplingResultSet(
+                new SinglePageResultSet(asList(value(1.0, 1))), DOWNSAMPLE);
+        resultSet.fetchNext();
+        resultSet.fetchNext();
+        resultSet.fetchNext();
+    }
+
+    /**
+     * Only queries with a {@link Downsample} hint should be downsampled.
+     */
+    @Test
+    public void honoring() {
+        QueryResultSet resultSet = new SinglePageResultSet(Collections.emptyList());
+        assertThat(DownsamplingResultSet.honoring(resultSet, null), is(sameInstance(resultSet)));
+        assertThat(DownsamplingResultSet.honoring(resultSet, new QueryOptions()), is(sameInstance(resultSet)));
+        assertTrue(DownsamplingResultSet.honoring(resultSet,
+                new QueryOptions(DOWNSAMPLE)) instanceof DownsamplingResultSet);
+    }
+
+    private static QueryResultPage page(MetricValue... values) {
+        return new QueryResultPage(asList(values));
+    }
+}
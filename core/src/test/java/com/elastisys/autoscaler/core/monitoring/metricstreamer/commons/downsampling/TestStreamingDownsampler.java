@@ -0,0 +1,145 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.downsampling;
+
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.value;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.DownsampleFunction;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.collection.Maps;
+
+/**
+ * Exercises the {@link StreamingDownsampler}.
+ */
+public class TestStreamingDownsampler {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithoutDownsample() {
+        new StreamingDownsampler(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithZeroInterval() {
+        new StreamingDownsampler(new Downsample(new TimeInterval(0L, TimeUnit.SECONDS), DownsampleFunction.MEAN));
+    }
+
+    /**
+     * Values should be grouped into buckets aligned to whole multiples of the
+     * interval and each bucket should be emitted (with its start time) once a
+     * later value is seen.
+     */
+    @Test
+    public void bucketing() {
+        StreamingDownsampler downsampler = downsampler(10, DownsampleFunction.MEAN);
+        assertThat(downsampler.apply(asList(value(1.0, 12), value(3.0, 15), value(5.0, 21))),
+                is(asList(value(2.0, 10))));
+        assertThat(downsampler.flush(), is(asList(value(5.0, 20))));
+        assertThat(downsampler.flush(), is(empty()));
+    }
+
+    /**
+     * Each {@link DownsampleFunction} should reduce a bucket accordingly.
+     */
+    @Test
+    public void downsampleFunctions() {
+        List<MetricValue> values = asList(value(4.0, 0), value(1.0, 3), value(7.0, 6));
+        assertThat(downsampleAll(downsampler(10, DownsampleFunction.MIN), values), is(asList(value(1.0, 0))));
+        assertThat(downsampleAll(downsampler(10, DownsampleFunction.MAX), values), is(asList(value(7.0, 0))));
+        assertThat(downsampleAll(downsampler(10, DownsampleFunction.SUM), values), is(asList(value(12.0, 0))));
+        assertThat(downsampleAll(downsampler(10, DownsampleFunction.MEAN), values), is(asList(value(4.0, 0))));
+    }
+
+    /**
+     * A bucket that spans two batches should be emitted as a single value.
+     */
+    @Test
+    public void bucketAcrossBatches() {
+        StreamingDownsampler downsampler = downsampler(10, DownsampleFunction.SUM);
+        assertThat(downsampler.apply(asList(value(1.0, 0), value(2.0, 8))), is(empty()));
+        assertThat(downsampler.apply(Collections.emptyList()), is(empty()));
+        assertThat(downsampler.apply(asList(value(3.0, 9), value(4.0, 10))), is(asList(value(6.0, 0))));
+        assertThat(downsampler.flush(), is(asList(value(4.0, 10))));
+    }
+
+    /**
+     * Empty buckets should not produce any values.
+     */
+    @Test
+    public void gapsInData() {
+        StreamingDownsampler downsampler = downsampler(10, DownsampleFunction.MAX);
+        assertThat(downsampler.apply(asList(value(1.0, 5), value(2.0, 45), value(3.0, 61))),
+                is(asList(value(1.0, 0), value(2.0, 40))));
+    }
+
+    /**
+     * Values that arrive after their bucket has been emitted should be
+     * dropped. Values within a batch should be processed in order of time.
+     */
+    @Test
+    public void lateArrivals() {
+        StreamingDownsampler downsampler = downsampler(10, DownsampleFunction.SUM);
+        assertThat(downsampler.apply(asList(value(2.0, 15), value(1.0, 5))), is(asList(value(1.0, 0))));
+        assertThat(downsampler.apply(asList(value(100.0, 7), value(3.0, 18))), is(empty()));
+        assertThat(downsampler.flush(), is(asList(value(5.0, 10))));
+    }
+
+    /**
+     * Values with different tags should be downsampled as separate series,
+     * with buckets of their own, and downsampled values should keep the tags
+     * of their series.
+     */
+    @Test
+    public void taggedSeries() {
+        DateTime time = new DateTime(0, DateTimeZone.UTC);
+        Map<String, String> hostA = Maps.of("host", "a");
+        Map<String, String> hostB = Maps.of("host", "b");
+
+        StreamingDownsampler downsampler = downsampler(10, DownsampleFunction.MEAN);
+        // interleaved values of the two series
+        List<MetricValue> completed = downsampler.apply(asList( //
+                new MetricValue("metric", 1.0, time.plusSeconds(1), hostA), //
+                new MetricValue("metric", 10.0, time.plusSeconds(2), hostB), //
+                new MetricValue("metric", 3.0, time.plusSeconds(3), hostA), //
+                new MetricValue("metric", 30.0, time.plusSeconds(12), hostB), //
+                new MetricValue("metric", 20.0, time.plusSeconds(4), hostB)));
+        assertThat(completed, is(asList(new MetricValue("metric", 15.0, time, hostB))));
+
+        // a bucket of one series should stay open when another series moves on
+        completed = downsampler.apply(asList( //
+                new MetricValue("metric", 5.0, time.plusSeconds(9), hostA), //
+                new MetricValue("metric", 7.0, time.plusSeconds(21), hostA)));
+        assertThat(completed, is(asList(new MetricValue("metric", 3.0, time, hostA))));
+
+        assertThat(downsampler.flush(), is(asList( //
+                new MetricValue("metric", 30.0, time.plusSeconds(10), hostB), //
+                new MetricValue("metric", 7.0, time.plusSeconds(20), hostA))));
+        assertThat(downsampler.flush(), is(empty()));
+    }
+
+    private static StreamingDownsampler downsampler(long intervalSeconds, DownsampleFunction function) {
+        return new StreamingDownsampler(new Downsample(new TimeInterval(intervalSeconds, TimeUnit.SECONDS), function));
+    }
+
+    private static List<MetricValue> downsampleAll(StreamingDownsampler downsampler, List<MetricValue> values) {
+        List<MetricValue> downsampled = new ArrayList<>(downsampler.apply(values));
+        downsampled.addAll(downsampler.flush());
+        return downsampled;
+    }
+
+    private static List<MetricValue> empty() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,263 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercises the {@link RequestHedger}.
+ */
+public class TestRequestHedger {
+    private static final Logger LOG = LoggerFactory.getLogger(TestRequestHedger.class);
+
+    private static final String STREAM = "cpu.stream";
+
+    /** Object under test. */
+    private RequestHedger hedger;
+
+    @Before
+    public void beforeTestMethod() {
+        this.hedger = new RequestHedger(LOG);
+    }
+
+    /**
+     * With hedging disabled, every request should be sent exactly once.
+     */
+    @Test
+    public void disabled() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+        for (int i = 0; i < 50; i++) {
+            assertThat(this.hedger.execute(STREAM, () -> {
+                attempts.incrementAndGet();
+                return new FakeAttempt(0, "ok");
+            }), is("ok"));
+        }
+        assertThat(attempts.get(), is(50));
+        assertThat(this.hedger.getHedgedRequests(), is(0L));
+    }
+
+    /**
+     * The shared disabled {@link RequestHedger} should execute every request
+     * exactly once on the calling thread and refuse to be configured.
+     */
+    @Test
+    public void sharedDisabledHedger() throws Exception {
+        RequestHedger disabled = RequestHedger.disabled();
+        assertThat(RequestHedger.disabled(), is(sameInstance(disabled)));
+
+        AtomicInteger attempts = new AtomicInteger(0);
+        Thread caller = Thread.currentThread();
+        for (int i = 0; i < 50; i++) {
+            assertThat(disabled.execute(STREAM, () -> {
+                attempts.incrementAndGet();
+                assertThat(Thread.currentThread(), is(caller));
+                return new FakeAttempt(0, "ok");
+            }), is("ok"));
+        }
+        assertThat(attempts.get(), is(50));
+        assertThat(disabled.getHedgedRequests(), is(0L));
+
+        try {
+            disabled.configure(Optional.of(new HedgingConfig(90.0, 10, 1.0, null, null)), Arrays.asList(STREAM));
+            fail("a disabled request hedger should not be configurable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    /**
+     * A request that is slower than the latency percentile should be hedged,
+     * and the faster hedged request should win and abort the original.
+     */
+    @Test
+    public void hedgeSlowRequest() throws Exception {
+        this.hedger.configure(Optional.of(new HedgingConfig(90.0, 10, 1.0, null, null)), Arrays.asList(STREAM));
+        warmUp(10);
+
+        AtomicInteger attempts = new AtomicInteger(0);
+        FakeAttempt slow = new FakeAttempt(5000, "slow");
+        FakeAttempt fast = new FakeAttempt(0, "fast");
+        long start = System.nanoTime();
+        String response = this.hedger.execute(STREAM, () -> attempts.getAndIncrement() == 0 ? slow : fast);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(response, is("fast"));
+        assertTrue(elapsedMillis < 2000);
+        assertThat(this.hedger.getHedgedRequests(), is(1L));
+        assertThat(this.hedger.getHedgeWins(), is(1L));
+        assertTrue(slow.aborted.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * No hedged requests should be sent once the budget is exhausted.
+     */
+    @Test
+    public void respectBudget() throws Exception {
+        // budget of one hedge every tenth request
+        this.hedger.configure(Optional.of(new HedgingConfig(50.0, 10, 0.1, null, null)), Arrays.asList(STREAM));
+        warmUp(10);
+
+        // the budget has earned (close to) one token during warm-up
+        this.hedger.execute(STREAM, () -> new FakeAttempt(100, "ok"));
+        assertThat(this.hedger.getHedgedRequests(), is(1L));
+        this.hedger.execute(STREAM, () -> new FakeAttempt(100, "ok"));
+        assertThat(this.hedger.getHedgedRequests(), is(1L));
+    }
+
+    /**
+     * If all attempts fail, the failure of the original request should be
+     * reported.
+     */
+    @Test
+    public void allAttemptsFail() throws Exception {
+        this.hedger.configure(Optional.of(new HedgingConfig(90.0, 10, 1.0, null, null)), Arrays.asList(STREAM));
+        warmUp(10);
+
+        AtomicInteger attempts = new AtomicInteger(0);
+        try {
+            this.hedger.execute(STREAM, () -> {
+                int attempt = attempts.getAndIncrement();
+                return new RequestAttempt<String>() {
+                    @Override
+                    public String execute() throws Exception {
+                        Thread.sleep(attempt == 0 ? 200 : 0);
+                        throw new IOException("attempt " + attempt + " failed");
+                    }
+
+                    @Override
+                    public void abort() {
+                    }
+                };
+            });
+            fail("expected to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("attempt 0 failed"));
+        }
+        assertThat(attempts.get(), is(2));
+    }
+
+    /**
+     * Requests should complete even when every thread of the caller's
+     * executor is busy executing a request, since the original request runs
+     * on the calling thread and hedged requests run on the hedger's own pool.
+     */
+    @Test
+    public void saturatedExecutor() throws Exception {
+        // at most one outstanding hedged request
+        this.hedger.configure(Optional.of(new HedgingConfig(90.0, 10, 1.0, 1, null)), Arrays.asList(STREAM));
+        warmUp(10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // keep all executor threads busy with slow requests
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                responses.add(executor.submit(() -> this.hedger.execute(STREAM, () -> new FakeAttempt(300, "ok"))));
+            }
+            for (Future<String> response : responses) {
+                assertThat(response.get(10, TimeUnit.SECONDS), is("ok"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * When the original request fails, an outstanding hedged request should
+     * only be awaited for the query timeout.
+     */
+    @Test
+    public void boundedWaitForHedgeAfterFailure() throws Exception {
+        TimeInterval queryTimeout = new TimeInterval(200L, TimeUnit.MILLISECONDS);
+        this.hedger.configure(Optional.of(new HedgingConfig(90.0, 10, 1.0, null, queryTimeout)),
+                Arrays.asList(STREAM));
+        warmUp(10);
+
+        AtomicInteger attempts = new AtomicInteger(0);
+        FakeAttempt hung = new FakeAttempt(60000, "hung");
+        long start = System.nanoTime();
+        try {
+            this.hedger.execute(STREAM, () -> attempts.getAndIncrement() == 0 ? new FailingAttempt(100) : hung);
+            fail("expected to fail");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("original failed"));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < 5000);
+        assertThat(attempts.get(), is(2));
+        // the outstanding hedged request should have been aborted
+        assertTrue(hung.aborted.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Records latency observations for {@link #STREAM}.
+     */
+    private void warmUp(int requests) throws Exception {
+        for (int i = 0; i < requests; i++) {
+            this.hedger.execute(STREAM, () -> new FakeAttempt(0, "ok"));
+        }
+    }
+
+    private static class FailingAttempt implements RequestAttempt<String> {
+        private final long delayMillis;
+
+        public FailingAttempt(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public String execute() throws Exception {
+            Thread.sleep(this.delayMillis);
+            throw new IOException("original failed");
+        }
+
+        @Override
+        public void abort() {
+        }
+    }
+
+    private static class FakeAttempt implements RequestAttempt<String> {
+        private final long delayMillis;
+        private final String response;
+        private final CountDownLatch aborted = new CountDownLatch(1);
+
+        public FakeAttempt(long delayMillis, String response) {
+            this.delayMillis = delayMillis;
+            this.response = response;
+        }
+
+        @Override
+        public String execute() throws Exception {
+            if (this.aborted.await(this.delayMillis, TimeUnit.MILLISECONDS)) {
+                throw new IOException("aborted");
+            }
+            return this.response;
+        }
+
+        @Override
+        public void abort() {
+            this.aborted.countDown();
+        }
+    }
+}
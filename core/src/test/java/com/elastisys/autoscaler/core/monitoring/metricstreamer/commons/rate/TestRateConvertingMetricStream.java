@@ -0,0 +1,74 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate;
+
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.time;
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.value;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.joda.time.Interval;
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultPage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+
+/**
+ * Exercises the {@link RateConvertingMetricStream}.
+ */
+public class TestRateConvertingMetricStream {
+
+    private final MetricStream delegate = mock(MetricStream.class);
+
+    /**
+     * Rates should be calculated across result pages and across queries.
+     */
+    @Test
+    public void convertAcrossPagesAndQueries() throws Exception {
+        RateConvertingMetricStream stream = new RateConvertingMetricStream(this.delegate, RateConversion.COUNTER);
+
+        when(this.delegate.query(any(Interval.class), any(QueryOptions.class))).thenReturn(
+                pages(asList(value(1.0, 1), value(3.0, 2)), asList(value(5.0, 3))),
+                pages(asList(value(1.0, 5))));
+
+        assertThat(fetchAll(stream.query(new Interval(time(0), time(4)), null)),
+                is(asList(value(2.0, 2), value(2.0, 3))));
+        // counter reset since last query
+        assertThat(fetchAll(stream.query(new Interval(time(4), time(6)), null)), is(asList(value(0.5, 5))));
+    }
+
+    private static List<MetricValue> fetchAll(QueryResultSet resultSet) throws Exception {
+        List<MetricValue> values = new ArrayList<>();
+        while (resultSet.hasNext()) {
+            values.addAll(resultSet.fetchNext().getMetricValues());
+        }
+        return values;
+    }
+
+    @SafeVarargs
+    private static QueryResultSet pages(List<MetricValue>... pages) {
+        Iterator<List<MetricValue>> iterator = Arrays.asList(pages).iterator();
+        return new QueryResultSet() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public QueryResultPage fetchNext() throws NoSuchElementException {
+                return new QueryResultPage(iterator.next());
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate;
+
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.value;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+
+/**
+ * Exercises the {@link StreamingRateConverter}.
+ */
+public class TestStreamingRateConverter {
+
+    @Test(expected = NullPointerException.class)
+    public void applyOnNull() {
+        new StreamingRateConverter(RateConversion.GAUGE).apply(null);
+    }
+
+    /**
+     * The first value ever seen cannot be converted, but should be remembered
+     * for the next batch.
+     */
+    @Test
+    public void applyOnSingleValueBatches() {
+        StreamingRateConverter converter = new StreamingRateConverter(RateConversion.GAUGE);
+        assertThat(converter.apply(asList(value(2.0, 1))), is(empty()));
+        assertThat(converter.apply(Collections.emptyList()), is(empty()));
+        assertThat(converter.apply(asList(value(4.0, 2))), is(asList(value(2.0, 2))));
+        assertThat(converter.apply(asList(value(10.0, 4))), is(asList(value(3.0, 4))));
+    }
+
+    /**
+     * The rate should be calculated across batch boundaries.
+     */
+    @Test
+    public void applyAcrossBatches() {
+        StreamingRateConverter converter = new StreamingRateConverter(RateConversion.GAUGE);
+        assertThat(converter.apply(asList(value(2.0, 1), value(4.0, 2))), is(asList(value(2.0, 2))));
+        assertThat(converter.apply(asList(value(8.0, 3), value(6.0, 5))), is(asList(value(4.0, 3), value(-1.0, 5))));
+    }
+
+    /**
+     * With {@link RateConversion#COUNTER}, a decrease should be treated as a
+     * counter that restarted from zero.
+     */
+    @Test
+    public void counterReset() {
+        StreamingRateConverter converter = new StreamingRateConverter(RateConversion.COUNTER);
+        assertThat(converter.apply(asList(value(100.0, 1), value(110.0, 2))), is(asList(value(10.0, 2))));
+        // reset between batches
+        assertThat(converter.apply(asList(value(4.0, 4), value(10.0, 5))), is(asList(value(2.0, 4), value(6.0, 5))));
+    }
+
+    /**
+     * A batch that does not follow the last value seen (such as a query for
+     * older data) should be converted on its own and not move the converter
+     * back in time.
+     */
+    @Test
+    public void applyOnOlderBatch() {
+        StreamingRateConverter converter = new StreamingRateConverter(RateConversion.GAUGE);
+        converter.apply(asList(value(10.0, 10), value(20.0, 11)));
+
+        assertThat(converter.apply(asList(value(1.0, 1), value(2.0, 2))), is(asList(value(1.0, 2))));
+        // converter should still continue from t=11
+        assertThat(converter.apply(asList(value(30.0, 12))), is(asList(value(10.0, 12))));
+    }
+
+    /**
+     * Unsorted batches should be sorted and duplicate timestamps dropped.
+     */
+    @Test
+    public void applyOnUnsortedBatch() {
+        StreamingRateConverter converter = new StreamingRateConverter(RateConversion.GAUGE);
+        assertThat(converter.apply(asList(value(8.0, 3), value(2.0, 1), value(4.0, 2), value(5.0, 2))),
+                is(asList(value(2.0, 2), value(4.0, 3))));
+    }
+
+    @Test
+    public void reset() {
+        StreamingRateConverter converter = new StreamingRateConverter(RateConversion.GAUGE);
+        converter.apply(asList(value(2.0, 1)));
+        converter.reset();
+        assertThat(converter.apply(asList(value(4.0, 2))), is(empty()));
+    }
+
+    private static List<MetricValue> empty() {
+        return Collections.emptyList();
+    }
+}
@@ -12,12 +12,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 import org.joda.time.DateTime;
 import org.junit.Test;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamBackfillMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamCorrectionMessage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
 import com.elastisys.scale.commons.eventbus.EventBus;
 
@@ -45,6 +48,7 @@ public class TestMetricStreamReader {
 
         assertThat(this.reader.isStarted(), is(false));
         assertThat(this.reader.isEmpty(), is(true));
+        assertThat(this.reader.isReadingOutOfOrder(), is(false));
     }
 
     /**
@@ -199,6 +203,113 @@ public class TestMetricStreamReader {
         assertThat(this.reader.isEmpty(), is(true));
     }
 
+    /**
+     * The {@link MetricStreamReader} should keep track of the most recent
+     * watermark published for its {@link MetricStream}.
+     */
+    @Test
+    public void trackWatermark() {
+        this.reader.start();
+        when(this.metricStream.getId()).thenReturn("stream.id");
+        assertThat(this.reader.getWatermark(), is(Optional.empty()));
+
+        this.reader.onMetricStreamMessage(new MetricStreamMessage("stream.id", values(value(1)), new DateTime(1)));
+        assertThat(this.reader.getWatermark(), is(Optional.of(new DateTime(1))));
+        // messages without watermark or from other streams do not affect it
+        this.reader.onMetricStreamMessage(new MetricStreamMessage("stream.id", values(value(2))));
+        this.reader.onMetricStreamMessage(new MetricStreamMessage("other.stream.id", values(value(4)), new DateTime(4)));
+        assertThat(this.reader.getWatermark(), is(Optional.of(new DateTime(1))));
+
+        this.reader.onMetricStreamMessage(new MetricStreamMessage("stream.id", values(value(3)), new DateTime(3)));
+        assertThat(this.reader.getWatermark(), is(Optional.of(new DateTime(3))));
+    }
+
+    /**
+     * Late-arriving values should be kept apart from the regular values, and
+     * the watermark they carry should be tracked.
+     */
+    @Test
+    public void readLateValues() {
+        this.reader = new MetricStreamReader(this.eventBus, this.metricStream, true);
+        this.reader.start();
+        when(this.metricStream.getId()).thenReturn("stream.id");
+
+        this.reader.onMetricStreamMessage(new MetricStreamMessage("stream.id", values(value(5)), new DateTime(2)));
+        this.reader.onMetricStreamCorrectionMessage(
+                new MetricStreamCorrectionMessage("stream.id", values(value(3), value(4)), new DateTime(3)));
+        // should ignore corrections from other streams
+        this.reader.onMetricStreamCorrectionMessage(
+                new MetricStreamCorrectionMessage("other.stream.id", values(value(1)), new DateTime(6)));
+        assertThat(this.reader.getWatermark(), is(Optional.of(new DateTime(3))));
+
+        List<MetricValue> regular = new ArrayList<>();
+        this.reader.popTo(regular);
+        assertThat(regular, is(values(value(5))));
+        List<MetricValue> late = new ArrayList<>();
+        this.reader.popOutOfOrderTo(late);
+        assertThat(late, is(values(value(3), value(4))));
+
+        // nothing left to pop
+        late.clear();
+        this.reader.popOutOfOrderTo(late);
+        assertThat(late.isEmpty(), is(true));
+
+        // watermark should never move backwards
+        this.reader.onMetricStreamMessage(new MetricStreamMessage("stream.id", values(value(6)), new DateTime(2)));
+        assertThat(this.reader.getWatermark(), is(Optional.of(new DateTime(3))));
+    }
+
+    /**
+     * Backfilled values should be kept apart from the regular values, together
+     * with any late-arriving values.
+     */
+    @Test
+    public void readBackfilledValues() {
+        this.reader = new MetricStreamReader(this.eventBus, this.metricStream, true);
+        this.reader.start();
+        when(this.metricStream.getId()).thenReturn("stream.id");
+
+        this.reader.onMetricStreamMessage(new MetricStreamMessage("stream.id", values(value(5), value(6))));
+        this.reader.onMetricStreamBackfillMessage(
+                new MetricStreamBackfillMessage("stream.id", values(value(1), value(2))));
+        // should ignore backfills from other streams
+        this.reader.onMetricStreamBackfillMessage(
+                new MetricStreamBackfillMessage("other.stream.id", values(value(3))));
+        this.reader.onMetricStreamCorrectionMessage(
+                new MetricStreamCorrectionMessage("stream.id", values(value(4)), new DateTime(4)));
+
+        List<MetricValue> regular = new ArrayList<>();
+        this.reader.popTo(regular);
+        assertThat(regular, is(values(value(5), value(6))));
+        List<MetricValue> outOfOrder = new ArrayList<>();
+        this.reader.popOutOfOrderTo(outOfOrder);
+        assertThat(outOfOrder, is(values(value(1), value(2), value(4))));
+        // backfills carry no watermark
+        assertThat(this.reader.getWatermark(), is(Optional.of(new DateTime(4))));
+    }
+
+    /**
+     * A reader that has not been set up to read out-of-order values should
+     * not buffer late or backfilled values (since nothing would consume
+     * them), but should still track the watermark.
+     */
+    @Test
+    public void ignoreOutOfOrderValuesUnlessAskedFor() {
+        this.reader.start();
+        when(this.metricStream.getId()).thenReturn("stream.id");
+
+        for (int i = 0; i < 1000; i++) {
+            this.reader.onMetricStreamCorrectionMessage(
+                    new MetricStreamCorrectionMessage("stream.id", values(value(i)), new DateTime(i)));
+            this.reader.onMetricStreamBackfillMessage(new MetricStreamBackfillMessage("stream.id", values(value(i))));
+        }
+        assertThat(this.reader.getWatermark(), is(Optional.of(new DateTime(999))));
+
+        List<MetricValue> outOfOrder = new ArrayList<>();
+        this.reader.popOutOfOrderTo(outOfOrder);
+        assertThat(outOfOrder.isEmpty(), is(true));
+    }
+
     /**
      * Any calls to onMetricStreamMessage should be ignored when in a stopped
      * state.
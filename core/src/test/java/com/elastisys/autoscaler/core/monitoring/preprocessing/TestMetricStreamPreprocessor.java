@@ -0,0 +1,107 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing;
+
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.value;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.config.PreprocessedStreamDefinition;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.config.PreprocessingConfig;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.config.PreprocessingStep;
+import com.elastisys.scale.commons.eventbus.EventBus;
+
+/**
+ * Exercises the {@link MetricStreamPreprocessor}.
+ */
+public class TestMetricStreamPreprocessor {
+    private static final Logger LOG = LoggerFactory.getLogger(TestMetricStreamPreprocessor.class);
+
+    private EventBus eventBus = mock(EventBus.class);
+    private MetricStreamer<?> inputStreamer = mock(MetricStreamer.class);
+    private MetricStream inputStream = mock(MetricStream.class);
+
+    /** Object under test. */
+    private MetricStreamPreprocessor preprocessor;
+
+    @Before
+    public void beforeTestMethod() {
+        when(this.inputStream.getId()).thenReturn("cpu.stream");
+        when(this.inputStream.getMetric()).thenReturn("cpu");
+        when(this.inputStreamer.getMetricStreams()).thenReturn(asList(this.inputStream));
+
+        this.preprocessor = new MetricStreamPreprocessor(LOG, this.eventBus, asList(this.inputStreamer));
+    }
+
+    /**
+     * A preprocessed stream may use a prior declared preprocessed stream as
+     * input.
+     */
+    @Test
+    public void configure() {
+        this.preprocessor.configure(new PreprocessingConfig(asList(
+                new PreprocessedStreamDefinition("cpu.smooth", "cpu.stream", asList(PreprocessingStep.ewma(0.5))),
+                new PreprocessedStreamDefinition("cpu.filtered", "cpu.smooth",
+                        asList(PreprocessingStep.outlierFilter(10))))));
+
+        assertThat(this.preprocessor.getMetricStreams().size(), is(2));
+        assertThat(this.preprocessor.getMetricStream("cpu.smooth").getMetric(), is("cpu"));
+        assertThat(this.preprocessor.getMetricStream("cpu.filtered").getMetric(), is("cpu"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configureWithUnknownInputStream() {
+        this.preprocessor.configure(new PreprocessingConfig(asList(
+                new PreprocessedStreamDefinition("mem.smooth", "mem.stream", asList(PreprocessingStep.ewma(0.5))))));
+    }
+
+    /**
+     * New values of the input stream should be preprocessed and published
+     * under the id of the preprocessed stream.
+     */
+    @Test
+    public void preprocessNewValues() {
+        this.preprocessor.configure(new PreprocessingConfig(asList(
+                new PreprocessedStreamDefinition("cpu.smooth", "cpu.stream", asList(PreprocessingStep.ewma(0.5))))));
+        this.preprocessor.start();
+        PreprocessedMetricStream stream = (PreprocessedMetricStream) this.preprocessor.getMetricStream("cpu.smooth");
+        verify(this.eventBus).register(stream);
+
+        List<MetricValue> values = asList(value(8.0, 2), value(4.0, 1));
+        stream.onMetricStreamMessage(new MetricStreamMessage("cpu.stream", values));
+        verify(this.eventBus).post(new MetricStreamMessage("cpu.smooth", asList(value(4.0, 1), value(6.0, 2))));
+
+        // values of other streams are ignored
+        stream.onMetricStreamMessage(new MetricStreamMessage("mem.stream", values));
+        verify(this.eventBus).post(any());
+
+        this.preprocessor.stop();
+        verify(this.eventBus).unregister(stream);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void useBeforeConfigured() {
+        this.preprocessor.getMetricStreams();
+    }
+
+    @Test
+    public void stopBeforeStarted() {
+        this.preprocessor.stop();
+        verify(this.eventBus, never()).unregister(any());
+    }
+}
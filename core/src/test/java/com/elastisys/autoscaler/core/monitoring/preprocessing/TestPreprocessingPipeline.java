@@ -0,0 +1,109 @@
+package com.elastisys.autoscaler.core.monitoring.preprocessing;
+
+import static com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.ConverterTestUtils.value;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.joda.time.Duration;
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConversion;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.EwmaSmoother;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.GapFiller;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.OutlierRejector;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.RateOperator;
+import com.elastisys.autoscaler.core.monitoring.preprocessing.operators.Resampler;
+
+/**
+ * Exercises the {@link PreprocessingPipeline} and its operators.
+ */
+public class TestPreprocessingPipeline {
+
+    /**
+     * A pipeline without operators should pass values through unchanged.
+     */
+    @Test
+    public void emptyPipeline() {
+        PreprocessingPipeline pipeline = new PreprocessingPipeline(Collections.emptyList());
+        List<MetricValue> values = asList(value(1.0, 1), value(2.0, 2));
+        assertThat(pipeline.processAll(values), is(values));
+    }
+
+    /**
+     * Once its window is full, the {@link OutlierRejector} should drop values
+     * that deviate too much from the recent values.
+     */
+    @Test
+    public void outlierRejection() {
+        PreprocessingPipeline pipeline = new PreprocessingPipeline(new OutlierRejector(4));
+        List<MetricValue> values = asList(value(10.0, 1), value(11.0, 2), value(10.0, 3), value(11.0, 4),
+                value(100.0, 5), value(10.0, 6));
+        assertThat(pipeline.processAll(values),
+                is(asList(value(10.0, 1), value(11.0, 2), value(10.0, 3), value(11.0, 4), value(10.0, 6))));
+    }
+
+    /**
+     * The {@link EwmaSmoother} should start at the first value and then
+     * exponentially weigh in new values.
+     */
+    @Test
+    public void ewmaSmoothing() {
+        PreprocessingPipeline pipeline = new PreprocessingPipeline(new EwmaSmoother(0.5));
+        assertThat(pipeline.processAll(asList(value(4.0, 1), value(8.0, 2), value(0.0, 3))),
+                is(asList(value(4.0, 1), value(6.0, 2), value(3.0, 3))));
+    }
+
+    /**
+     * The {@link GapFiller} should carry the last value forward across gaps,
+     * but not across gaps longer than maxGap.
+     */
+    @Test
+    public void gapFilling() {
+        PreprocessingPipeline pipeline = new PreprocessingPipeline(
+                new GapFiller(Duration.standardSeconds(10), Optional.of(Duration.standardSeconds(60))));
+        assertThat(pipeline.processAll(asList(value(1.0, 0), value(2.0, 10), value(3.0, 40))),
+                is(asList(value(1.0, 0), value(2.0, 10), value(2.0, 20), value(2.0, 30), value(3.0, 40))));
+        // too long gap: left as is
+        assertThat(pipeline.processAll(asList(value(4.0, 140))), is(asList(value(4.0, 140))));
+        // out-of-order values are dropped
+        assertThat(pipeline.processAll(asList(value(5.0, 130))), is(empty()));
+    }
+
+    /**
+     * The {@link Resampler} should produce epoch-aligned values, linearly
+     * interpolated from the input values.
+     */
+    @Test
+    public void resampling() {
+        PreprocessingPipeline pipeline = new PreprocessingPipeline(
+                new Resampler(Duration.standardSeconds(10), Optional.empty()));
+        assertThat(pipeline.processAll(asList(value(0.0, 5), value(10.0, 15), value(20.0, 20), value(50.0, 50))),
+                is(asList(value(5.0, 10), value(20.0, 20), value(30.0, 30), value(40.0, 40), value(50.0, 50))));
+    }
+
+    /**
+     * Operators should be applied in order, each one fed the output of the
+     * previous one.
+     */
+    @Test
+    public void chainedOperators() {
+        PreprocessingPipeline pipeline = new PreprocessingPipeline(new RateOperator(RateConversion.COUNTER),
+                new EwmaSmoother(0.5));
+        // counter increasing by 10, 30, and then being reset
+        List<MetricValue> output = new ArrayList<>();
+        output.addAll(pipeline.processAll(asList(value(0.0, 0), value(10.0, 1))));
+        output.addAll(pipeline.processAll(asList(value(40.0, 2), value(2.0, 3))));
+        assertThat(output, is(asList(value(10.0, 1), value(20.0, 2), value(11.0, 3))));
+    }
+
+    private static List<MetricValue> empty() {
+        return Collections.emptyList();
+    }
+}
@@ -6,6 +6,7 @@ import static org.mockito.Mockito.when;
 import java.util.Arrays;
 import java.util.List;
 
+import com.elastisys.autoscaler.core.api.types.ServiceStatus;
 import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
@@ -28,6 +29,7 @@ public class MetricStreamMonitorUtils {
         when(monitoringSubsystem.getMetricStreamers()).thenReturn(Arrays.asList(mockMetricStreamer));
         // the mock metric streamer publishes our fake metric streams
         when(mockMetricStreamer.getMetricStreams()).thenReturn(metricStreams);
+        when(mockMetricStreamer.getStatus()).thenReturn(new ServiceStatus.Builder().started(true).build());
         for (MetricStream metricStream : metricStreams) {
             when(mockMetricStreamer.getMetricStream(metricStream.getId())).thenReturn(metricStream);
         }
@@ -0,0 +1,91 @@
+package com.elastisys.autoscaler.core.monitoring.streammonitor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.alerter.api.types.AlertTopics;
+import com.elastisys.autoscaler.core.api.types.ServiceStatus;
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.testutils.EventbusListener;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.eventbus.impl.SynchronousEventBus;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.AlertSeverity;
+
+/**
+ * Exercises the {@link StreamerHealthChecker}.
+ */
+public class TestStreamerHealthChecker {
+    private static final Logger logger = LoggerFactory.getLogger(TestStreamerHealthChecker.class);
+
+    private static final ServiceStatus HEALTHY = new ServiceStatus.Builder().started(true).build();
+    private static final ServiceStatus UNHEALTHY = new ServiceStatus.Builder().started(true)
+            .lastFault(new Exception("unavailable backend(s): http://localhost:8086: OPEN")).build();
+
+    private final EventBus eventBus = new SynchronousEventBus(logger);
+    private EventbusListener eventBusListener;
+    private MetricStreamer<?> metricStreamer;
+
+    /** Object under test. */
+    private StreamerHealthChecker healthChecker;
+
+    @Before
+    public void onSetup() {
+        this.eventBusListener = new EventbusListener();
+        this.eventBus.register(this.eventBusListener);
+
+        this.metricStreamer = mock(MetricStreamer.class);
+        MonitoringSubsystem<?> monitoringSubsystem = mock(MonitoringSubsystem.class);
+        when(monitoringSubsystem.getMetricStreamers()).thenReturn(Arrays.asList(this.metricStreamer));
+
+        this.healthChecker = new StreamerHealthChecker(logger, monitoringSubsystem, this.eventBus);
+    }
+
+    /**
+     * No alerts should be sent for as long as the {@link MetricStreamer} stays
+     * healthy.
+     */
+    @Test
+    public void noAlertWhileHealthy() {
+        when(this.metricStreamer.getStatus()).thenReturn(HEALTHY);
+        this.healthChecker.alertOnHealthChange();
+        this.healthChecker.alertOnHealthChange();
+
+        assertThat(this.eventBusListener.size(), is(0));
+    }
+
+    /**
+     * A warning should be sent once when the {@link MetricStreamer} turns
+     * unhealthy, and a notice once it recovers.
+     */
+    @Test
+    public void alertOnHealthChange() {
+        when(this.metricStreamer.getStatus()).thenReturn(UNHEALTHY);
+        this.healthChecker.alertOnHealthChange();
+        assertThat(this.eventBusListener.size(), is(1));
+        Alert alert = this.eventBusListener.getEventsOfType(Alert.class).get(0);
+        assertThat(alert.getTopic(), is(AlertTopics.STREAMER_HEALTH_UPDATE.getTopicPath()));
+        assertThat(alert.getSeverity(), is(AlertSeverity.WARN));
+
+        // still unhealthy: no new alert
+        this.healthChecker.alertOnHealthChange();
+        assertThat(this.eventBusListener.size(), is(1));
+
+        when(this.metricStreamer.getStatus()).thenReturn(HEALTHY);
+        this.healthChecker.alertOnHealthChange();
+        assertThat(this.eventBusListener.size(), is(2));
+        alert = this.eventBusListener.getEventsOfType(Alert.class).get(1);
+        assertThat(alert.getTopic(), is(AlertTopics.STREAMER_HEALTH_UPDATE.getTopicPath()));
+        assertThat(alert.getSeverity(), is(AlertSeverity.NOTICE));
+    }
+}
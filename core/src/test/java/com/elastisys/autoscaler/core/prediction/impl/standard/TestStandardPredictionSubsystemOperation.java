@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.joda.time.DateTime;
 import org.junit.Before;
@@ -33,11 +34,14 @@ import com.elastisys.autoscaler.core.prediction.impl.standard.stubs.AbsentComput
 import com.elastisys.autoscaler.core.prediction.impl.standard.stubs.ConstantCapacityPredictor;
 import com.elastisys.autoscaler.core.prediction.impl.standard.stubs.ConstantComputeUnitPredictor;
 import com.elastisys.autoscaler.core.prediction.impl.standard.stubs.FailingPredictor;
+import com.elastisys.autoscaler.core.prediction.impl.standard.stubs.SlowPredictor;
+import com.elastisys.autoscaler.core.prediction.impl.standard.stubs.StuckPredictor;
 import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
 import com.elastisys.scale.commons.eventbus.EventBus;
 import com.elastisys.scale.commons.eventbus.Subscriber;
 import com.elastisys.scale.commons.eventbus.impl.AsynchronousEventBus;
 import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
 import com.elastisys.scale.commons.util.file.FileUtils;
 import com.elastisys.scale.commons.util.time.UtcTime;
 import com.google.gson.JsonObject;
@@ -298,6 +302,89 @@ public class TestStandardPredictionSubsystemOperation {
         assertThat(status.getHealthDetail(), is(notNullValue()));
     }
 
+    /**
+     * A {@link Predictor} that does not produce its prediction within the
+     * predictor deadline should be left out of the aggregate prediction,
+     * rather than holding up the prediction pipeline.
+     */
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void predictWithPredictorMissingDeadline() throws Exception {
+        // predictors need to run in parallel
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+        try {
+            MetricStreamer metricStreamer = PredictionTestUtils.createMetricStreamerStub("cpu.user.rate");
+            this.predictionSubsystem = new StandardPredictionSubsystem(logger, this.bus, executor,
+                    PredictionTestUtils.createMonitoringSubsystemStub(metricStreamer), FileUtils.cwd());
+
+            StandardPredictionSubsystemConfig config = StandardPredictionSubsystemConfig.Builder.create()
+                    .withPredictor("p1", ConstantCapacityPredictor.class, State.STARTED, "cpu.user.rate",
+                            parseJsonString("{'constant.prediction': 500}"))
+                    .withPredictor("p2", SlowPredictor.class, State.STARTED, "cpu.user.rate",
+                            parseJsonString("{'constant.prediction': 900, 'sleep.millis': 5000}"))
+                    .withCapacityMapping("cpu.user.rate", 100.0).withAggregator("p1.prediction;")
+                    .withPredictorDeadline(new TimeInterval(200L, TimeUnit.MILLISECONDS)).build();
+            configureAndStart(config);
+
+            long start = System.currentTimeMillis();
+            Optional<Integer> prediction = this.predictionSubsystem.predict(emptyPool(), UtcTime.now());
+            long duration = System.currentTimeMillis() - start;
+
+            // slow predictor should not have been awaited
+            assertTrue(duration < 5000L);
+            assertTrue(prediction.isPresent());
+            assertThat(prediction.get(), is(5));
+            assertThat(this.predictionSubsystem.getStatus().getHealth(), is(Health.OK));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A {@link Predictor} that does not respond to cancellation after missing
+     * its deadline should not be invoked again until its earlier prediction
+     * has completed, or else every prediction run would occupy yet another
+     * executor thread.
+     */
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void skipPredictorWithPredictionStillRunning() throws Exception {
+        StuckPredictor.reset();
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(4);
+        try {
+            MetricStreamer metricStreamer = PredictionTestUtils.createMetricStreamerStub("cpu.user.rate");
+            this.predictionSubsystem = new StandardPredictionSubsystem(logger, this.bus, executor,
+                    PredictionTestUtils.createMonitoringSubsystemStub(metricStreamer), FileUtils.cwd());
+
+            StandardPredictionSubsystemConfig config = StandardPredictionSubsystemConfig.Builder.create()
+                    .withPredictor("p1", ConstantCapacityPredictor.class, State.STARTED, "cpu.user.rate",
+                            parseJsonString("{'constant.prediction': 500}"))
+                    .withPredictor("p2", StuckPredictor.class, State.STARTED, "cpu.user.rate",
+                            parseJsonString("{'constant.prediction': 900}"))
+                    .withCapacityMapping("cpu.user.rate", 100.0).withAggregator("p1.prediction;")
+                    .withPredictorDeadline(new TimeInterval(200L, TimeUnit.MILLISECONDS)).build();
+            configureAndStart(config);
+
+            // p2 gets stuck and misses its deadline
+            assertThat(this.predictionSubsystem.predict(emptyPool(), UtcTime.now()).get(), is(5));
+            assertThat(StuckPredictor.getInvocations(), is(1));
+
+            // p2 should be skipped as long as its earlier prediction is running
+            assertThat(this.predictionSubsystem.predict(emptyPool(), UtcTime.now()).get(), is(5));
+            assertThat(this.predictionSubsystem.predict(emptyPool(), UtcTime.now()).get(), is(5));
+            assertThat(StuckPredictor.getInvocations(), is(1));
+
+            // once the earlier prediction has completed, p2 is invoked again
+            StuckPredictor.release();
+            Thread.sleep(100);
+            assertThat(this.predictionSubsystem.predict(emptyPool(), UtcTime.now()).get(), is(5));
+            assertThat(StuckPredictor.getInvocations(), is(2));
+        } finally {
+            StuckPredictor.release();
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * When no {@link Predictor} can produce a prediction (for example, due to
      * lack of metrics) the current pool size should be used as prediction if
@@ -7,6 +7,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
 import java.util.HashMap;
@@ -197,6 +198,40 @@ public class TestAggregatorOperation {
         this.aggregator.aggregate(inputPredictions(5.0, 2.0), UtcTime.now());
     }
 
+    /**
+     * The compiled aggregation expression should be evaluated against the
+     * input of each aggregation.
+     */
+    @Test
+    public void executeRepeatedAggregations() throws Exception {
+        AggregatorConfig config = config(maxAggregatorExpression());
+        this.aggregator.validate(config);
+        this.aggregator.configure(config);
+
+        assertThat(this.aggregator.aggregate(inputPredictions(1.2, 4.3, 3.2), UtcTime.now()).get(), is(4.3));
+        assertThat(this.aggregator.aggregate(inputPredictions(1.0, 2.0), UtcTime.now()).get(), is(2.0));
+        assertThat(this.aggregator.aggregate(inputPredictions(7.5), UtcTime.now()).get(), is(7.5));
+    }
+
+    /**
+     * The variables of predictors that were part of an earlier aggregation
+     * must not be available to later aggregations.
+     */
+    @Test
+    public void predictorVariablesAreNotKeptBetweenAggregations() throws Exception {
+        AggregatorConfig config = config("p2.prediction");
+        this.aggregator.validate(config);
+        this.aggregator.configure(config);
+
+        assertThat(this.aggregator.aggregate(inputPredictions(5.0, 2.0), UtcTime.now()).get(), is(2.0));
+        try {
+            this.aggregator.aggregate(inputPredictions(5.0), UtcTime.now());
+            fail("aggregation expected to fail on missing p2 variable");
+        } catch (AggregatorException e) {
+            // expected
+        }
+    }
+
     /**
      * Constructs a collection of dummy predictions that can be passed as input
      * to an {@link Aggregator}'s {@link Aggregator#aggregate(Map, DateTime)}
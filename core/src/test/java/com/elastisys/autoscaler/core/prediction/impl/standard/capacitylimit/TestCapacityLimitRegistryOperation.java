@@ -113,6 +113,45 @@ public class TestCapacityLimitRegistryOperation {
         assertThat(this.limitRegistry.limit(prediction100, fridayNoon).get(), is(14));
     }
 
+    /**
+     * With a lead time, the minimum of a capacity limit that becomes active
+     * within the lead time should be applied ahead of time.
+     */
+    @Test
+    public void limitWithLeadTime() {
+        this.limitRegistry.configure(configs(config("l1", 1, "* * * * * ? *", 2, 4),
+                config("l2", 2, "* * 8-17 ? * MON-FRI *", 20, 30)));
+        Optional<Double> prediction1 = Optional.of(1.0);
+        long fiveMinutes = 5 * 60 * 1000L;
+
+        // without lead time, only the active limit (l1) applies
+        assertThat(this.limitRegistry.limit(prediction1, UtcTime.parse("2013-01-07T07:57:00.000Z")).get(), is(2));
+
+        // upcoming minimum of l2 is applied within the lead time (and takes
+        // precedence over the max of the active limit)
+        assertThat(this.limitRegistry.limit(prediction1, UtcTime.parse("2013-01-07T07:54:59.000Z"), fiveMinutes)
+                .get(), is(2));
+        assertThat(this.limitRegistry.limit(prediction1, UtcTime.parse("2013-01-07T07:55:00.000Z"), fiveMinutes)
+                .get(), is(20));
+        assertThat(this.limitRegistry.limit(prediction1, UtcTime.parse("2013-01-07T07:57:00.000Z"), fiveMinutes)
+                .get(), is(20));
+        // once active, l2 bounds the prediction as usual
+        assertThat(this.limitRegistry.limit(Optional.of(100.0), UtcTime.parse("2013-01-07T12:00:00.000Z"),
+                fiveMinutes).get(), is(30));
+
+        // upcoming limits do not lower the prediction ahead of time
+        assertThat(this.limitRegistry.limit(prediction1, UtcTime.parse("2013-01-07T17:57:00.000Z"), fiveMinutes)
+                .get(), is(20));
+        assertThat(this.limitRegistry.limit(prediction1, UtcTime.parse("2013-01-07T18:00:00.000Z"), fiveMinutes)
+                .get(), is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void limitWithNegativeLeadTime() {
+        this.limitRegistry.configure(configs(config("l1", 1, "* * * * * ? *", 2, 4)));
+        this.limitRegistry.limit(Optional.of(1.0), UtcTime.now(), -1);
+    }
+
     /**
      * Make sure that when fed a fractional prediction, the resulting prediction
      * is always rounded up to the nearest higher integer value.
@@ -0,0 +1,135 @@
+package com.elastisys.autoscaler.core.prediction.impl.standard.capacitylimit;
+
+import static com.elastisys.autoscaler.core.prediction.impl.standard.capacitylimit.CapacityLimitTestUtils.config;
+import static com.elastisys.autoscaler.core.prediction.impl.standard.capacitylimit.CapacityLimitTestUtils.configs;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.CapacityLimitConfig;
+
+/**
+ * Exercises the {@link CapacityLimitTimeline}.
+ */
+public class TestCapacityLimitTimeline {
+
+    private static final DateTime FRIDAY_NOON = new DateTime("2017-03-03T12:34:56.000Z", DateTimeZone.UTC);
+
+    @Test
+    public void buildWithoutLimits() {
+        CapacityLimitTimeline timeline = CapacityLimitTimeline.build(Collections.emptyList(), FRIDAY_NOON);
+
+        assertThat(timeline.covers(FRIDAY_NOON), is(true));
+        assertThat(timeline.getIntervals().size(), is(1));
+        assertThat(timeline.getActiveLimit(FRIDAY_NOON), is(Optional.empty()));
+    }
+
+    /**
+     * An always-active limit can be evaluated once per day, and should result
+     * in a single interval.
+     */
+    @Test
+    public void buildWithAlwaysActiveLimit() {
+        CapacityLimitConfig always = config("always", 1, "* * * * * ? *", 1, 10);
+        CapacityLimitTimeline timeline = CapacityLimitTimeline.build(configs(always), FRIDAY_NOON);
+
+        // timeline start is aligned to day resolution
+        assertThat(timeline.getStart(), is(new DateTime("2017-03-03T00:00:00.000Z", DateTimeZone.UTC)));
+        assertThat(timeline.getEnd(), is(timeline.getStart().plusDays(CapacityLimitTimeline.STEPS)));
+        assertThat(timeline.getIntervals().size(), is(1));
+        assertThat(timeline.getActiveLimit(FRIDAY_NOON), is(Optional.of(always)));
+    }
+
+    /**
+     * The highest ranked of the active limits should be the one in effect.
+     */
+    @Test
+    public void buildWithScheduledLimits() {
+        CapacityLimitConfig baseline = config("baseline", 1, "* * * * * ? *", 1, 10);
+        CapacityLimitConfig fridays = config("fridays", 2, "* * 10-21 ? * FRI *", 5, 20);
+        CapacityLimitTimeline timeline = CapacityLimitTimeline.build(configs(baseline, fridays), FRIDAY_NOON);
+
+        // timeline start is aligned to hour resolution
+        assertThat(timeline.getStart(), is(new DateTime("2017-03-03T12:00:00.000Z", DateTimeZone.UTC)));
+        assertThat(timeline.getEnd(), is(timeline.getStart().plusHours(CapacityLimitTimeline.STEPS)));
+
+        assertThat(timeline.getActiveLimit(FRIDAY_NOON), is(Optional.of(fridays)));
+        assertThat(timeline.getActiveLimit(time("2017-03-03T21:59:59")), is(Optional.of(fridays)));
+        assertThat(timeline.getActiveLimit(time("2017-03-03T22:00:00")), is(Optional.of(baseline)));
+        assertThat(timeline.getActiveLimit(time("2017-03-09T23:59:59")), is(Optional.of(baseline)));
+        assertThat(timeline.getActiveLimit(time("2017-03-10T10:00:00")), is(Optional.of(fridays)));
+
+        // intervals are contiguous and alternate between limits
+        List<CapacityLimitInterval> intervals = timeline.getIntervals();
+        assertThat(intervals.get(0),
+                is(new CapacityLimitInterval(timeline.getStart(), time("2017-03-03T22:00:00"), fridays)));
+        assertThat(intervals.get(1),
+                is(new CapacityLimitInterval(time("2017-03-03T22:00:00"), time("2017-03-10T10:00:00"), baseline)));
+        for (int i = 1; i < intervals.size(); i++) {
+            assertThat(intervals.get(i).getStart(), is(intervals.get(i - 1).getEnd()));
+        }
+        assertThat(intervals.get(intervals.size() - 1).getEnd(), is(timeline.getEnd()));
+    }
+
+    /**
+     * The timeline should agree with the capacity limit schedules for
+     * schedules with second resolution.
+     */
+    @Test
+    public void buildWithSecondResolution() {
+        CapacityLimitConfig everyOtherSecond = config("even", 1, "0/2 * * * * ? *", 1, 10);
+        CapacityLimitTimeline timeline = CapacityLimitTimeline.build(configs(everyOtherSecond), FRIDAY_NOON);
+
+        assertThat(timeline.getStart(), is(FRIDAY_NOON));
+        assertThat(timeline.getEnd(), is(FRIDAY_NOON.plusSeconds(CapacityLimitTimeline.STEPS)));
+        for (int i = 0; i < 120; i++) {
+            DateTime time = FRIDAY_NOON.plusSeconds(i).plusMillis(500);
+            assertThat(timeline.getActiveLimit(time).isPresent(), is(everyOtherSecond.inEffectAt(time)));
+        }
+    }
+
+    @Test
+    public void getActiveLimitsDuringInterval() {
+        CapacityLimitConfig baseline = config("baseline", 1, "* * * * * ? *", 1, 10);
+        CapacityLimitConfig fridays = config("fridays", 2, "* * 10-21 ? * FRI *", 5, 20);
+        CapacityLimitTimeline timeline = CapacityLimitTimeline.build(configs(baseline, fridays), FRIDAY_NOON);
+
+        assertThat(timeline.getActiveLimits(FRIDAY_NOON, time("2017-03-03T21:59:59")), is(configs(fridays)));
+        assertThat(timeline.getActiveLimits(FRIDAY_NOON, time("2017-03-03T22:00:00")),
+                is(configs(fridays, baseline)));
+        assertThat(timeline.getActiveLimits(time("2017-03-10T09:55:00"), time("2017-03-10T10:00:00")),
+                is(configs(baseline, fridays)));
+    }
+
+    /**
+     * A timeline should be extended to cover a requested end time beyond its
+     * regular span.
+     */
+    @Test
+    public void buildWithExtendedSpan() {
+        CapacityLimitConfig everyOtherSecond = config("even", 1, "0/2 * * * * ? *", 1, 10);
+        DateTime until = FRIDAY_NOON.plusHours(1);
+        CapacityLimitTimeline timeline = CapacityLimitTimeline.build(configs(everyOtherSecond), FRIDAY_NOON, until);
+
+        assertThat(timeline.covers(until), is(true));
+        assertThat(timeline.getActiveLimit(until).isPresent(), is(everyOtherSecond.inEffectAt(until)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lookupOutsideOfTimeline() {
+        CapacityLimitConfig always = config("always", 1, "* * * * * ? *", 1, 10);
+        CapacityLimitTimeline timeline = CapacityLimitTimeline.build(configs(always), FRIDAY_NOON);
+        timeline.getActiveLimit(timeline.getEnd());
+    }
+
+    private static DateTime time(String utcTime) {
+        return new DateTime(utcTime + ".000Z", DateTimeZone.UTC);
+    }
+}
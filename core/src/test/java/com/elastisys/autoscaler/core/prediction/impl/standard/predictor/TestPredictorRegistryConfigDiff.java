@@ -173,6 +173,19 @@ public class TestPredictorRegistryConfigDiff {
         assertThat(diff.modified(), is(configs(p2Modified)));
     }
 
+    /**
+     * Only configurations that are identical in both the old and new
+     * configuration should be considered unchanged.
+     */
+    @Test
+    public void unchangedConfigs() {
+        assertThat(diff(null, null).unchanged(), is(configs()));
+        assertThat(diff(configs(p1, p2), configs(p1, p2)).unchanged(), is(configs(p1, p2)));
+        assertThat(diff(configs(p1, p2, p3), configs(p1, p2Modified, p3)).unchanged(), is(configs(p1, p3)));
+        assertThat(diff(configs(p1, p2), configs(p2Modified, p3)).unchanged(), is(configs()));
+        assertThat(diff(configs(p1, p2), configs(p3, p2)).unchanged(), is(configs(p2)));
+    }
+
     private PredictorRegistryConfigDiff diff(List<PredictorConfig> oldconf, List<PredictorConfig> newconf) {
         return new PredictorRegistryConfigDiff(oldconf, newconf);
     }
@@ -4,9 +4,11 @@ import static com.elastisys.autoscaler.core.api.types.ServiceStatus.State.STARTE
 import static com.elastisys.autoscaler.core.api.types.ServiceStatus.State.STOPPED;
 import static com.elastisys.autoscaler.core.prediction.impl.standard.predictor.PredictionTestUtils.predictorConfig;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -21,6 +23,7 @@ import com.elastisys.autoscaler.core.api.types.ServiceStatus.Health;
 import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
 import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
 import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
 import com.elastisys.autoscaler.core.prediction.impl.standard.stubs.PredictorStub;
 import com.elastisys.scale.commons.eventbus.EventBus;
@@ -171,6 +174,36 @@ public class TestPredictorRegistryOperation {
         assertThat(this.predictorRegistry.getStartedPredictors().size(), is(1));
     }
 
+    /**
+     * Re-configuring a started {@link PredictorRegistry} should only (re)start
+     * the predictors affected by the new configuration. Unchanged predictors
+     * should be left running.
+     */
+    @Test
+    public void reconfigureWhileStarted() throws Exception {
+        PredictorConfig p2Started = predictorConfig("p2", PredictorStub.class, STARTED, "metric2.stream",
+                new JsonObject());
+        this.predictorRegistry.configure(PredictionTestUtils.configs(p1Started));
+        this.predictorRegistry.start();
+        Predictor p1 = this.predictorRegistry.getStartedPredictors().get(0);
+
+        // add a started predictor
+        this.predictorRegistry.configure(PredictionTestUtils.configs(p1Started, p2Started));
+        assertThat(this.predictorRegistry.getStatus(), is(started()));
+        assertThat(this.predictorRegistry.getStartedPredictors().size(), is(2));
+        // unchanged predictor is kept
+        assertThat(this.predictorRegistry.getPredictors().get(0), is(sameInstance(p1)));
+
+        // modify predictor into stopped state
+        this.predictorRegistry.configure(PredictionTestUtils.configs(p1Started, p2Stopped));
+        assertThat(this.predictorRegistry.getStartedPredictors(), is(Arrays.asList(p1)));
+
+        // modify predictor into started state
+        this.predictorRegistry.configure(PredictionTestUtils.configs(p1Started, p2Started));
+        assertThat(this.predictorRegistry.getStartedPredictors().size(), is(2));
+        assertThat(this.predictorRegistry.getPredictors().get(0), is(sameInstance(p1)));
+    }
+
     private ServiceStatus started() {
         return new ServiceStatus(State.STARTED, Health.OK);
     }
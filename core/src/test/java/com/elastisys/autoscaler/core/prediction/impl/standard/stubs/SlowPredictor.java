@@ -0,0 +1,44 @@
+package com.elastisys.autoscaler.core.prediction.impl.standard.stubs;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.prediction.api.PredictionException;
+import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
+import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * A stubbed {@link Predictor}, intended for test use, that predicts a constant
+ * value (just like the {@link ConstantCapacityPredictor}), but only after
+ * sleeping for the number of milliseconds given by the {@code sleep.millis}
+ * configuration parameter.
+ */
+public class SlowPredictor extends ConstantCapacityPredictor {
+
+    @Inject
+    public SlowPredictor(Logger logger, EventBus eventBus, MonitoringSubsystem monitoringSubsystem) {
+        super(logger, eventBus, monitoringSubsystem);
+    }
+
+    @Override
+    public Optional<Prediction> doPrediction(Optional<PoolSizeSummary> poolSize, DateTime predictionTime)
+            throws PredictionException {
+        JsonObject jsonParameters = (JsonObject) getConfiguration().getParameters();
+        JsonElement sleepMillis = jsonParameters.get("sleep.millis");
+        try {
+            Thread.sleep(sleepMillis != null ? sleepMillis.getAsLong() : 0L);
+        } catch (InterruptedException e) {
+            throw new PredictionException("interrupted while predicting", e);
+        }
+        return super.doPrediction(poolSize, predictionTime);
+    }
+}
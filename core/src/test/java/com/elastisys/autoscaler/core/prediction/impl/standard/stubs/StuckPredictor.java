@@ -0,0 +1,76 @@
+package com.elastisys.autoscaler.core.prediction.impl.standard.stubs;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.prediction.api.PredictionException;
+import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
+import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
+import com.elastisys.scale.commons.eventbus.EventBus;
+
+/**
+ * A stubbed {@link Predictor}, intended for test use, that predicts a constant
+ * value (just like the {@link ConstantCapacityPredictor}), but only after
+ * having been released via {@link #release()}. While blocked, it does not
+ * respond to interruption (which is similar to a {@link Predictor} that waits
+ * to enter a {@code synchronized} block).
+ */
+public class StuckPredictor extends ConstantCapacityPredictor {
+    private static CountDownLatch releaseLatch = new CountDownLatch(1);
+    private static final AtomicInteger invocations = new AtomicInteger(0);
+
+    @Inject
+    public StuckPredictor(Logger logger, EventBus eventBus, MonitoringSubsystem monitoringSubsystem) {
+        super(logger, eventBus, monitoringSubsystem);
+    }
+
+    @Override
+    public Optional<Prediction> doPrediction(Optional<PoolSizeSummary> poolSize, DateTime predictionTime)
+            throws PredictionException {
+        invocations.incrementAndGet();
+        boolean released = false;
+        while (!released) {
+            try {
+                releaseLatch.await();
+                released = true;
+            } catch (InterruptedException e) {
+                // ignore interruption
+            }
+        }
+        return super.doPrediction(poolSize, predictionTime);
+    }
+
+    /**
+     * Blocks subsequent predictions until {@link #release()} is called and
+     * resets the invocation count.
+     */
+    public static void reset() {
+        releaseLatch = new CountDownLatch(1);
+        invocations.set(0);
+    }
+
+    /**
+     * Releases all blocked predictions.
+     */
+    public static void release() {
+        releaseLatch.countDown();
+    }
+
+    /**
+     * Returns the number of predictions that have been started since the last
+     * {@link #reset()}.
+     *
+     * @return
+     */
+    public static int getInvocations() {
+        return invocations.get();
+    }
+}
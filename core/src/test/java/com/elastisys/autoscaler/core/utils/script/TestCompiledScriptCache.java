@@ -0,0 +1,163 @@
+package com.elastisys.autoscaler.core.utils.script;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Exercises the {@link CompiledScriptCache}.
+ */
+public class TestCompiledScriptCache {
+
+    /** Mocked script engine that compiles scripts. */
+    private ScriptEngine scriptEngine;
+    /** Number of {@link ScriptEngine}s created by the cache. */
+    private final AtomicInteger createdEngines = new AtomicInteger();
+
+    private CompiledScriptCache cache;
+
+    @Before
+    public void beforeTestMethod() throws ScriptException {
+        this.scriptEngine = mock(ScriptEngine.class, withSettings().extraInterfaces(Compilable.class));
+        when(((Compilable) this.scriptEngine).compile(anyString()))
+                .thenAnswer(invocation -> mock(CompiledScript.class));
+        this.cache = new CompiledScriptCache(2, () -> {
+            this.createdEngines.incrementAndGet();
+            return this.scriptEngine;
+        });
+    }
+
+    /**
+     * A script should only be compiled on first lookup.
+     */
+    @Test
+    public void compileOnlyOnFirstLookup() throws ScriptException {
+        CompiledScript first = this.cache.compile("1 + 1");
+        CompiledScript second = this.cache.compile("1 + 1");
+
+        assertThat(second, is(sameInstance(first)));
+        verify((Compilable) this.scriptEngine, times(1)).compile("1 + 1");
+        assertThat(this.cache.getStats(), is(new CompiledScriptCacheStats(1, 2, 1, 1, 0)));
+        assertThat(this.cache.getStats().getHitRate(), is(0.5));
+    }
+
+    /**
+     * All scripts should be compiled by the same {@link ScriptEngine}.
+     */
+    @Test
+    public void scriptEngineIsShared() throws ScriptException {
+        this.cache.compile("1 + 1");
+        this.cache.compile("2 + 2");
+        this.cache.compile("3 + 3");
+
+        assertThat(this.createdEngines.get(), is(1));
+    }
+
+    /**
+     * When full, the least recently used script should be evicted.
+     */
+    @Test
+    public void evictLeastRecentlyUsed() throws ScriptException {
+        CompiledScript a = this.cache.compile("a");
+        CompiledScript b = this.cache.compile("b");
+        // a is now more recently used than b
+        this.cache.compile("a");
+        this.cache.compile("c");
+
+        assertThat(this.cache.getStats().getSize(), is(2));
+        assertThat(this.cache.getStats().getEvictions(), is(1L));
+        assertThat(this.cache.compile("a"), is(sameInstance(a)));
+        // b was evicted and needs to be compiled again
+        assertThat(this.cache.compile("b"), is(not(sameInstance(b))));
+        verify((Compilable) this.scriptEngine, times(2)).compile("b");
+    }
+
+    /**
+     * A script that fails to compile should not be cached.
+     */
+    @Test
+    public void compilationFailure() throws ScriptException {
+        when(((Compilable) this.scriptEngine).compile("1 +")).thenThrow(new ScriptException("syntax error"));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                this.cache.compile("1 +");
+                fail("expected to fail");
+            } catch (ScriptException e) {
+                // expected
+            }
+        }
+        verify((Compilable) this.scriptEngine, times(2)).compile("1 +");
+        assertThat(this.cache.getStats().getSize(), is(0));
+    }
+
+    /**
+     * Concurrent lookups of the same script should result in a single
+     * compilation.
+     */
+    @Test
+    public void concurrentLookups() throws Exception {
+        CountDownLatch compilationStarted = new CountDownLatch(1);
+        CountDownLatch releaseCompilation = new CountDownLatch(1);
+        CompiledScript compiled = mock(CompiledScript.class);
+        when(((Compilable) this.scriptEngine).compile("slow")).thenAnswer(invocation -> {
+            compilationStarted.countDown();
+            releaseCompilation.await();
+            return compiled;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CompiledScript>> lookups = new ArrayList<>();
+            lookups.add(executor.submit(() -> this.cache.compile("slow")));
+            compilationStarted.await();
+            for (int i = 0; i < 3; i++) {
+                lookups.add(executor.submit(() -> this.cache.compile("slow")));
+            }
+            releaseCompilation.countDown();
+
+            for (Future<CompiledScript> lookup : lookups) {
+                assertThat(lookup.get(), is(sameInstance(compiled)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify((Compilable) this.scriptEngine, times(1)).compile("slow");
+        assertThat(this.cache.getStats().getMisses(), is(1L));
+        assertThat(this.cache.getStats().getHits(), is(3L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithNonPositiveMaxSize() {
+        new CompiledScriptCache(0);
+    }
+
+    @Test
+    public void statsWithoutLookups() {
+        assertThat(this.cache.getStats().getHitRate(), is(0.0));
+    }
+}
@@ -4,8 +4,12 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -17,6 +21,8 @@ import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamDriver;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConversion;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConvertingMetricStream;
 import com.elastisys.autoscaler.metricstreamers.ceilometer.config.CeilometerMetricStreamDefinition;
 import com.elastisys.autoscaler.metricstreamers.ceilometer.config.CeilometerMetricStreamerConfig;
 import com.elastisys.autoscaler.metricstreamers.ceilometer.stream.CeilometerMetricStream;
@@ -78,6 +84,8 @@ public class CeilometerMetricStreamer implements MetricStreamer<CeilometerMetric
             return;
         }
 
+        Set<String> unchangedStreams = unchangedStreams(configuration);
+        MetricStreamDriver previousDriver = this.metricStreamDriver;
         boolean needsRestart = isStarted();
         if (needsRestart) {
             stop();
@@ -87,6 +95,10 @@ public class CeilometerMetricStreamer implements MetricStreamer<CeilometerMetric
         TimeInterval firstQueryLookback = null;
         this.metricStreamDriver = new MetricStreamDriver(this.logger, this.executor, this.eventBus, buildStreams(),
                 configuration.getPollInterval(), firstQueryLookback);
+        if (previousDriver != null) {
+            // keep streaming unchanged streams from where they were left off
+            this.metricStreamDriver.takeOver(previousDriver, unchangedStreams);
+        }
 
         if (needsRestart) {
             start();
@@ -96,16 +108,46 @@ public class CeilometerMetricStreamer implements MetricStreamer<CeilometerMetric
 
     private List<MetricStream> buildStreams() {
         List<MetricStream> metricStreams = new ArrayList<>();
-        for (CeilometerMetricStreamDefinition streamDefinition : this.config.getMetricStreams()) {
-            MetricStreamConfig config = new MetricStreamConfig(this.config.getAuth(), this.config.getRegion(),
-                    streamDefinition);
+        for (MetricStreamConfig config : streamConfigs(this.config)) {
+            CeilometerMetricStreamDefinition streamDefinition = config.getStreamDefinition();
             OSClientFactory clientFactory = new OSClientFactory(
                     new ApiAccessConfig(config.getAuth(), config.getRegion()));
-            metricStreams.add(new CeilometerMetricStream(this.logger, clientFactory, streamDefinition));
+            MetricStream metricStream = new CeilometerMetricStream(this.logger, clientFactory, streamDefinition);
+            if (streamDefinition.isConvertToRate()) {
+                // convert on the client side, carrying the last value across
+                // queries to not lose a rate at every query boundary
+                metricStream = new RateConvertingMetricStream(metricStream, RateConversion.GAUGE);
+            }
+            metricStreams.add(metricStream);
         }
         return metricStreams;
     }
 
+    private static List<MetricStreamConfig> streamConfigs(CeilometerMetricStreamerConfig config) {
+        List<MetricStreamConfig> streamConfigs = new ArrayList<>();
+        for (CeilometerMetricStreamDefinition streamDefinition : config.getMetricStreams()) {
+            streamConfigs.add(new MetricStreamConfig(config.getAuth(), config.getRegion(), streamDefinition));
+        }
+        return streamConfigs;
+    }
+
+    /**
+     * Returns the ids of the metric streams that are identically set up in the
+     * current and a new configuration. The re-configured
+     * {@link MetricStreamDriver} can take over such streams as they are.
+     *
+     * @param newConfig
+     * @return
+     */
+    private Set<String> unchangedStreams(CeilometerMetricStreamerConfig newConfig) {
+        if (this.config == null) {
+            return Collections.emptySet();
+        }
+        Set<MetricStreamConfig> currentStreams = new HashSet<>(streamConfigs(this.config));
+        return streamConfigs(newConfig).stream().filter(currentStreams::contains)
+                .map(stream -> stream.getStreamDefinition().getId()).collect(Collectors.toSet());
+    }
+
     @Override
     public CeilometerMetricStreamerConfig getConfiguration() {
         return this.config;
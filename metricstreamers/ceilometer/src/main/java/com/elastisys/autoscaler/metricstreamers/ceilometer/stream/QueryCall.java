@@ -14,7 +14,6 @@ import org.openstack4j.model.telemetry.Statistics;
 import org.slf4j.Logger;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
-import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.RateConverter;
 import com.elastisys.autoscaler.metricstreamers.ceilometer.config.CeilometerFunction;
 import com.elastisys.autoscaler.metricstreamers.ceilometer.config.CeilometerMetricStreamDefinition;
 import com.elastisys.autoscaler.metricstreamers.ceilometer.config.Downsampling;
@@ -56,16 +55,6 @@ public class QueryCall implements Callable<List<MetricValue>> {
         this.logger.debug("retrieved {} values from Ceilometer for stream {}, metric {}, period {}: {}",
                 metricValues.size(), this.stream.getId(), this.stream.getMeter(), this.interval, metricValues);
 
-        // (optionally) apply rate conversion
-        if (this.stream.isConvertToRate()) {
-            if (metricValues.size() < 2) {
-                this.logger.warn("not enough metric values to calculate rate. will wait for more values.");
-                return Collections.emptyList();
-            }
-            metricValues = new RateConverter().apply(metricValues);
-            this.logger.debug("stream {} values after rate conversion: {}", this.stream.getId(), metricValues);
-        }
-
         return metricValues;
     }
 
@@ -4,8 +4,12 @@ import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgume
 import static com.elastisys.scale.commons.util.precond.Preconditions.checkState;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -17,6 +21,8 @@ import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamDriver;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConversion;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConvertingMetricStream;
 import com.elastisys.autoscaler.metricstreamers.cloudwatch.config.CloudWatchMetricStreamDefinition;
 import com.elastisys.autoscaler.metricstreamers.cloudwatch.config.CloudWatchMetricStreamerConfig;
 import com.elastisys.autoscaler.metricstreamers.cloudwatch.stream.CloudWatchMetricStream;
@@ -75,6 +81,8 @@ public class CloudWatchMetricStreamer implements MetricStreamer<CloudWatchMetric
             return;
         }
 
+        Set<String> unchangedStreams = unchangedStreams(configuration);
+        MetricStreamDriver previousDriver = this.metricStreamDriver;
         boolean needsRestart = isStarted();
         if (needsRestart) {
             stop();
@@ -84,6 +92,10 @@ public class CloudWatchMetricStreamer implements MetricStreamer<CloudWatchMetric
         TimeInterval firstQueryLookback = null;
         this.metricStreamDriver = new MetricStreamDriver(this.logger, this.executor, this.eventBus, buildStreams(),
                 configuration.getPollInterval(), firstQueryLookback);
+        if (previousDriver != null) {
+            // keep streaming unchanged streams from where they were left off
+            this.metricStreamDriver.takeOver(previousDriver, unchangedStreams);
+        }
 
         if (needsRestart) {
             start();
@@ -93,14 +105,45 @@ public class CloudWatchMetricStreamer implements MetricStreamer<CloudWatchMetric
 
     private List<MetricStream> buildStreams() {
         List<MetricStream> metricStreams = new ArrayList<>();
-        for (CloudWatchMetricStreamDefinition streamDefinition : this.config.getMetricStreams()) {
-            MetricStreamConfig metricSteamConf = new MetricStreamConfig(this.config.getAccessKeyId(),
-                    this.config.getSecretAccessKey(), this.config.getRegion(), streamDefinition);
-            metricStreams.add(new CloudWatchMetricStream(this.logger, metricSteamConf));
+        for (MetricStreamConfig metricSteamConf : streamConfigs(this.config)) {
+            CloudWatchMetricStreamDefinition streamDefinition = metricSteamConf.getMetricStreamDef();
+            MetricStream metricStream = new CloudWatchMetricStream(this.logger, metricSteamConf);
+            if (streamDefinition.isConvertToRate()) {
+                // convert on the client side, carrying the last value across
+                // queries to not lose a rate at every query boundary
+                metricStream = new RateConvertingMetricStream(metricStream, RateConversion.GAUGE);
+            }
+            metricStreams.add(metricStream);
         }
         return metricStreams;
     }
 
+    private static List<MetricStreamConfig> streamConfigs(CloudWatchMetricStreamerConfig config) {
+        List<MetricStreamConfig> streamConfigs = new ArrayList<>();
+        for (CloudWatchMetricStreamDefinition streamDefinition : config.getMetricStreams()) {
+            streamConfigs.add(new MetricStreamConfig(config.getAccessKeyId(), config.getSecretAccessKey(),
+                    config.getRegion(), streamDefinition));
+        }
+        return streamConfigs;
+    }
+
+    /**
+     * Returns the ids of the metric streams that are identically set up in the
+     * current and a new configuration. The re-configured
+     * {@link MetricStreamDriver} can take over such streams as they are.
+     *
+     * @param newConfig
+     * @return
+     */
+    private Set<String> unchangedStreams(CloudWatchMetricStreamerConfig newConfig) {
+        if (this.config == null) {
+            return Collections.emptySet();
+        }
+        Set<MetricStreamConfig> currentStreams = new HashSet<>(streamConfigs(this.config));
+        return streamConfigs(newConfig).stream().filter(currentStreams::contains)
+                .map(stream -> stream.getMetricStreamDef().getId()).collect(Collectors.toSet());
+    }
+
     @Override
     public CloudWatchMetricStreamerConfig getConfiguration() {
         return this.config;
@@ -1,7 +1,6 @@
 package com.elastisys.autoscaler.metricstreamers.cloudwatch.stream;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 
@@ -10,7 +9,6 @@ import org.slf4j.Logger;
 
 import com.amazonaws.services.cloudwatch.model.GetMetricStatisticsResult;
 import com.elastisys.autoscaler.core.api.types.MetricValue;
-import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.RateConverter;
 import com.elastisys.autoscaler.metricstreamers.cloudwatch.config.CloudWatchMetricStreamDefinition;
 import com.elastisys.autoscaler.metricstreamers.cloudwatch.converters.MetricValueConverter;
 import com.elastisys.autoscaler.metricstreamers.cloudwatch.tasks.GetMetricStatisticsTask;
@@ -57,18 +55,6 @@ public class QueryCall implements Callable<List<MetricValue>> {
 
         this.logger.debug("retrieved {} values from CloudWatch for stream {}, metric {}, period {}",
                 metricValues.size(), stream.getId(), stream.getMetric(), this.queryInterval);
-
-        // (optionally) apply rate conversion
-        if (stream.isConvertToRate()) {
-            if (metricValues.size() < 2) {
-                // too few values to calculate a rate: return empty list and
-                // await more metric values in coming iterations
-                this.logger.warn("not enough metric values to calculate rate.");
-                return Collections.emptyList();
-            }
-            metricValues = new RateConverter().apply(metricValues);
-            this.logger.debug("stream {} values after rate conversion: {}", stream.getId(), metricValues);
-        }
         return metricValues;
     }
 
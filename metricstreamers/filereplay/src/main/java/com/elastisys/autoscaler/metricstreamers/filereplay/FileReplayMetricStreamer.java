@@ -0,0 +1,244 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkState;
+import static java.lang.String.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.api.types.ServiceStatus;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamDriver;
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.FileReplayMetricStreamerConfig;
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.MetricStreamDefinition;
+import com.elastisys.autoscaler.metricstreamers.filereplay.stream.FileReplayMetricStream;
+import com.elastisys.autoscaler.metricstreamers.filereplay.trace.TraceFile;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * A {@link MetricStreamer} that replays metrics from local CSV or line
+ * protocol files, which makes it possible to run simulations and tests
+ * against recorded traces without a metric database server.
+ * <p/>
+ * Each metric file is memory-mapped and indexed by time when the
+ * {@link FileReplayMetricStreamer} is configured (see {@link TraceFile}), so
+ * that queries can be served at in-memory speed also for very large files. A
+ * metric file shared by several {@link MetricStream}s is only opened once.
+ */
+public class FileReplayMetricStreamer implements MetricStreamer<FileReplayMetricStreamerConfig> {
+
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+    private final EventBus eventBus;
+
+    /** The currently set configuration. */
+    private FileReplayMetricStreamerConfig config;
+    /**
+     * The {@link MetricStreamDriver} which collects metrics for each of the
+     * configured {@link MetricStream}s.
+     */
+    private MetricStreamDriver metricStreamDriver;
+    /** The open metric files of the current configuration. */
+    private final List<TraceFile> traceFiles = new ArrayList<>();
+
+    /**
+     * Creates a new instance. The new instance will be in an unconfigured and
+     * stopped state.
+     *
+     * @param logger
+     *            {@link Logger} to use.
+     * @param executor
+     *            Task execution service for performing work in separate
+     *            threads.
+     * @param eventBus
+     *            The {@link EventBus} on which to send out collected
+     *            {@link MetricValue}s.
+     */
+    @Inject
+    public FileReplayMetricStreamer(Logger logger, ScheduledExecutorService executor, EventBus eventBus) {
+        this.logger = logger;
+        this.executor = executor;
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public void validate(FileReplayMetricStreamerConfig configuration) throws IllegalArgumentException {
+        checkArgument(configuration != null, "metricStreamer: missing configuration");
+        configuration.validate();
+    }
+
+    @Override
+    public void configure(FileReplayMetricStreamerConfig configuration) throws IllegalArgumentException {
+        validate(configuration);
+
+        if (configuration.equals(this.config)) {
+            this.logger.debug("no configuration changes. ignoring new config ...");
+            return;
+        }
+
+        List<TraceFile> traceFiles = new ArrayList<>();
+        List<MetricStream> metricStreams = buildStreams(configuration, traceFiles);
+
+        boolean needsRestart = isStarted();
+        if (needsRestart) {
+            stop();
+        }
+
+        closeTraceFiles();
+        this.traceFiles.addAll(traceFiles);
+        this.config = configuration;
+        TimeInterval firstQueryLookback = null;
+        this.metricStreamDriver = new MetricStreamDriver(this.logger, this.executor, this.eventBus, metricStreams,
+                configuration.getPollInterval(), firstQueryLookback);
+
+        if (needsRestart) {
+            start();
+        }
+    }
+
+    /**
+     * Opens the metric files of a configuration and creates its
+     * {@link MetricStream}s. If any metric file cannot be opened, the files
+     * that were opened are closed again.
+     *
+     * @param configuration
+     * @param traceFiles
+     *            Receives the opened metric files.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    private List<MetricStream> buildStreams(FileReplayMetricStreamerConfig configuration, List<TraceFile> traceFiles)
+            throws IllegalArgumentException {
+        Map<File, TraceFile> openFiles = new HashMap<>();
+        List<MetricStream> metricStreams = new ArrayList<>();
+        try {
+            for (MetricStreamDefinition definition : configuration.getMetricStreams()) {
+                TraceFile traceFile = openFiles.get(definition.getFile());
+                if (traceFile == null) {
+                    traceFile = open(definition, configuration.getIndexInterval());
+                    openFiles.put(definition.getFile(), traceFile);
+                    traceFiles.add(traceFile);
+                }
+                metricStreams.add(new FileReplayMetricStream(definition, traceFile));
+            }
+        } catch (IllegalArgumentException e) {
+            close(traceFiles);
+            throw new IllegalArgumentException(format("metricStreamer: %s", e.getMessage()), e);
+        }
+        return metricStreams;
+    }
+
+    private TraceFile open(MetricStreamDefinition definition, int indexInterval) throws IllegalArgumentException {
+        this.logger.debug("opening metric file {} ...", definition.getFile());
+        try {
+            TraceFile traceFile = new TraceFile(definition.getFile(), definition.getFormat(), indexInterval);
+            this.logger.debug("opened metric file {}", definition.getFile());
+            return traceFile;
+        } catch (IOException e) {
+            throw new IllegalArgumentException(
+                    format("failed to open metric file %s: %s", definition.getFile(), e.getMessage()), e);
+        }
+    }
+
+    private void closeTraceFiles() {
+        close(this.traceFiles);
+        this.traceFiles.clear();
+    }
+
+    private void close(List<TraceFile> traceFiles) {
+        for (TraceFile traceFile : traceFiles) {
+            try {
+                traceFile.close();
+            } catch (IOException e) {
+                this.logger.warn("failed to close metric file {}: {}", traceFile.getFile(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public FileReplayMetricStreamerConfig getConfiguration() {
+        return this.config;
+    }
+
+    @Override
+    public void start() throws IllegalStateException {
+        ensureConfigured();
+        if (isStarted()) {
+            return;
+        }
+        this.metricStreamDriver.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        this.metricStreamDriver.stop();
+    }
+
+    @Override
+    public ServiceStatus getStatus() {
+        return new ServiceStatus.Builder().started(isStarted()).build();
+    }
+
+    @Override
+    public Class<FileReplayMetricStreamerConfig> getConfigurationClass() {
+        return FileReplayMetricStreamerConfig.class;
+    }
+
+    @Override
+    public List<MetricStream> getMetricStreams() {
+        ensureConfigured();
+
+        return this.metricStreamDriver.getMetricStreams();
+    }
+
+    @Override
+    public MetricStream getMetricStream(String metricStreamId) throws IllegalArgumentException {
+        ensureConfigured();
+        for (MetricStream stream : getMetricStreams()) {
+            if (stream.getId().equals(metricStreamId)) {
+                return stream;
+            }
+        }
+        throw new IllegalArgumentException("unrecognized metric stream: " + metricStreamId);
+    }
+
+    @Override
+    public void fetch() throws MetricStreamException, IllegalStateException {
+        ensureStarted();
+        this.metricStreamDriver.fetch();
+    }
+
+    private void ensureConfigured() {
+        checkState(isConfigured(), "attempt to use metric streamer before being configured");
+    }
+
+    private void ensureStarted() {
+        ensureConfigured();
+        checkState(isStarted(), "attempt to use metric streamer before being started");
+    }
+
+    private boolean isStarted() {
+        return this.metricStreamDriver != null && this.metricStreamDriver.isStarted();
+    }
+
+    private boolean isConfigured() {
+        return this.config != null;
+    }
+}
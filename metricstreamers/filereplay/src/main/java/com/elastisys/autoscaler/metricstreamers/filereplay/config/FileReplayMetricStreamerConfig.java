@@ -0,0 +1,158 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.metricstreamers.filereplay.FileReplayMetricStreamer;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * A configuration for a {@link FileReplayMetricStreamer}, declaring its
+ * {@link MetricStream}s.
+ *
+ * @see FileReplayMetricStreamer
+ */
+public class FileReplayMetricStreamerConfig {
+    /** Default value for {@link #pollInterval}. */
+    public static final TimeInterval DEFAULT_POLL_INTERVAL = new TimeInterval(30L, TimeUnit.SECONDS);
+    /** Default value for {@link #indexInterval}. */
+    public static final int DEFAULT_INDEX_INTERVAL = 1024;
+
+    /**
+     * The polling interval for metric streams. Defines how often the
+     * {@link FileReplayMetricStreamer} will fetch new metric values for its
+     * {@link MetricStream}s. May be <code>null</code>. Default:
+     * {@link #DEFAULT_POLL_INTERVAL}.
+     */
+    private final TimeInterval pollInterval;
+
+    /**
+     * The number of lines between consecutive entries in the time index that
+     * is built for each metric file when it is opened. A smaller value makes
+     * queries skip more of the file at the expense of a larger index. May be
+     * <code>null</code>. Default: {@value #DEFAULT_INDEX_INTERVAL}.
+     */
+    private final Integer indexInterval;
+
+    /**
+     * Declares the {@link MetricStream}s that the
+     * {@link FileReplayMetricStreamer} publishes.
+     */
+    private final List<MetricStreamDefinition> metricStreams;
+
+    /**
+     * Creates a {@link FileReplayMetricStreamerConfig}.
+     *
+     * @param pollInterval
+     *            The polling interval for metric streams. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_POLL_INTERVAL}.
+     * @param indexInterval
+     *            The number of lines between consecutive entries in the time
+     *            index that is built for each metric file when it is opened.
+     *            May be <code>null</code>. Default:
+     *            {@value #DEFAULT_INDEX_INTERVAL}.
+     * @param metricStreams
+     *            Declares the {@link MetricStream}s that the
+     *            {@link FileReplayMetricStreamer} publishes.
+     */
+    public FileReplayMetricStreamerConfig(TimeInterval pollInterval, Integer indexInterval,
+            List<MetricStreamDefinition> metricStreams) {
+        this.pollInterval = pollInterval;
+        this.indexInterval = indexInterval;
+        this.metricStreams = metricStreams;
+    }
+
+    /**
+     * The polling interval for metric streams. Defines how often the
+     * {@link FileReplayMetricStreamer} will fetch new metric values for its
+     * {@link MetricStream}s.
+     *
+     * @return
+     */
+    public TimeInterval getPollInterval() {
+        return Optional.ofNullable(this.pollInterval).orElse(DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * The number of lines between consecutive entries in the time index of
+     * each metric file.
+     *
+     * @return
+     */
+    public int getIndexInterval() {
+        return Optional.ofNullable(this.indexInterval).orElse(DEFAULT_INDEX_INTERVAL);
+    }
+
+    /**
+     * The {@link MetricStream} declarations of the
+     * {@link FileReplayMetricStreamer}.
+     *
+     * @return
+     */
+    public List<MetricStreamDefinition> getMetricStreams() {
+        return Optional.ofNullable(this.metricStreams).orElse(Collections.emptyList());
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            getPollInterval().validate();
+            checkArgument(getIndexInterval() > 0, "indexInterval must be positive");
+            getMetricStreams().forEach(s -> {
+                try {
+                    s.validate();
+                } catch (IllegalArgumentException e) {
+                    if (s.getId() != null) {
+                        // make error message a bit more clear if an id is
+                        // available
+                        throw new IllegalArgumentException(s.getId() + ": " + e.getMessage(), e);
+                    }
+                    throw e;
+                }
+            });
+
+            ensureUniqueStreamIds();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("FileReplayMetricStreamer config: " + e.getMessage(), e);
+        }
+    }
+
+    private void ensureUniqueStreamIds() throws IllegalArgumentException {
+        Set<String> uniqueIds = new HashSet<>();
+        getMetricStreams().forEach(s -> {
+            if (uniqueIds.contains(s.getId())) {
+                throw new IllegalArgumentException(String.format("duplicate metricStream id: %s", s.getId()));
+            }
+            uniqueIds.add(s.getId());
+        });
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getPollInterval(), getIndexInterval(), getMetricStreams());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof FileReplayMetricStreamerConfig) {
+            FileReplayMetricStreamerConfig that = (FileReplayMetricStreamerConfig) obj;
+            return Objects.equals(getPollInterval(), that.getPollInterval()) //
+                    && Objects.equals(getIndexInterval(), that.getIndexInterval()) //
+                    && Objects.equals(getMetricStreams(), that.getMetricStreams());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
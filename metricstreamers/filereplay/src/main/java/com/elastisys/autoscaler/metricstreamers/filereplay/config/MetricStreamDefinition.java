@@ -0,0 +1,234 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.metricstreamers.filereplay.FileReplayMetricStreamer;
+import com.elastisys.scale.commons.json.JsonUtils;
+
+/**
+ * Describes a {@link MetricStream} published by the
+ * {@link FileReplayMetricStreamer}. More specifically, it declares the metric
+ * file to read values from and which values of the file belong to the metric
+ * stream.
+ *
+ * @see FileReplayMetricStreamerConfig
+ */
+public class MetricStreamDefinition {
+    /** Default value for {@link #format}. */
+    public static final TraceFormat DEFAULT_FORMAT = TraceFormat.CSV;
+    /** Default value for {@link #field} for {@link TraceFormat#LINE_PROTOCOL}. */
+    public static final String DEFAULT_LINE_PROTOCOL_FIELD = "value";
+
+    /**
+     * The id of the metric stream. This is the id that will be used by clients
+     * wishing to subscribe to this metric stream. Required.
+     */
+    private final String id;
+
+    /**
+     * The name of the metric produced by this metric stream. This is the metric
+     * that will be set for produced {@link MetricValue}s. Optional. If left
+     * out, {@link #id} is used.
+     */
+    private final String metric;
+
+    /**
+     * The path of the metric file to replay. The file must be sorted in order
+     * of increasing time. Required.
+     */
+    private final String file;
+
+    /**
+     * The format of the metric {@link #file}. May be <code>null</code>.
+     * Default: {@link #DEFAULT_FORMAT}.
+     */
+    private final TraceFormat format;
+
+    /**
+     * The measurement whose points belong to the metric stream. Required for
+     * {@link TraceFormat#LINE_PROTOCOL}, ignored for {@link TraceFormat#CSV}.
+     */
+    private final String measurement;
+
+    /**
+     * The field that holds the metric values. For {@link TraceFormat#CSV}, this
+     * is the name of a column in the header row, and defaults to the first
+     * column after the time stamp column. For
+     * {@link TraceFormat#LINE_PROTOCOL}, this is a field key, and defaults to
+     * {@value #DEFAULT_LINE_PROTOCOL_FIELD}. May be <code>null</code>.
+     */
+    private final String field;
+
+    /**
+     * Tags that a line must have to belong to the metric stream. For
+     * {@link TraceFormat#CSV}, keys are column names. May be
+     * <code>null</code>, in which case all lines of the file belong to the
+     * metric stream.
+     */
+    private final Map<String, String> tags;
+
+    /**
+     * Creates a {@link MetricStreamDefinition}.
+     *
+     * @param id
+     *            The id of the metric stream. This is the id that will be used
+     *            by clients wishing to subscribe to this metric stream.
+     *            Required.
+     * @param metric
+     *            The name of the metric produced by this metric stream. This is
+     *            the metric that will be set for produced {@link MetricValue}s.
+     *            Optional. If left out, {@code id} is used.
+     * @param file
+     *            The path of the metric file to replay. The file must be sorted
+     *            in order of increasing time. Required.
+     * @param format
+     *            The format of the metric file. May be <code>null</code>.
+     *            Default: {@link #DEFAULT_FORMAT}.
+     * @param measurement
+     *            The measurement whose points belong to the metric stream.
+     *            Required for {@link TraceFormat#LINE_PROTOCOL}, ignored for
+     *            {@link TraceFormat#CSV}.
+     * @param field
+     *            The field that holds the metric values. For
+     *            {@link TraceFormat#CSV}, this is the name of a column in the
+     *            header row, and defaults to the first column after the time
+     *            stamp column. For {@link TraceFormat#LINE_PROTOCOL}, this is a
+     *            field key, and defaults to
+     *            {@value #DEFAULT_LINE_PROTOCOL_FIELD}. May be
+     *            <code>null</code>.
+     * @param tags
+     *            Tags that a line must have to belong to the metric stream. For
+     *            {@link TraceFormat#CSV}, keys are column names. May be
+     *            <code>null</code>.
+     */
+    public MetricStreamDefinition(String id, String metric, String file, TraceFormat format, String measurement,
+            String field, Map<String, String> tags) {
+        this.id = id;
+        this.metric = metric;
+        this.file = file;
+        this.format = format;
+        this.measurement = measurement;
+        this.field = field;
+        this.tags = tags;
+    }
+
+    /**
+     * The id of the metric stream. This is the id that will be used by clients
+     * wishing to subscribe to this metric stream.
+     *
+     * @return
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * The name of the metric produced by this metric stream. This is the metric
+     * that will be set for produced {@link MetricValue}s.
+     *
+     * @return
+     */
+    public String getMetric() {
+        return Optional.ofNullable(this.metric).orElse(this.id);
+    }
+
+    /**
+     * The metric file to replay.
+     *
+     * @return
+     */
+    public File getFile() {
+        return new File(this.file);
+    }
+
+    /**
+     * The format of the metric file.
+     *
+     * @return
+     */
+    public TraceFormat getFormat() {
+        return Optional.ofNullable(this.format).orElse(DEFAULT_FORMAT);
+    }
+
+    /**
+     * The measurement whose points belong to the metric stream (only used for
+     * {@link TraceFormat#LINE_PROTOCOL}).
+     *
+     * @return
+     */
+    public String getMeasurement() {
+        return this.measurement;
+    }
+
+    /**
+     * The field that holds the metric values. For {@link TraceFormat#CSV},
+     * {@link Optional#empty()} means the first column after the time stamp
+     * column.
+     *
+     * @return
+     */
+    public Optional<String> getField() {
+        if (this.field == null && getFormat() == TraceFormat.LINE_PROTOCOL) {
+            return Optional.of(DEFAULT_LINE_PROTOCOL_FIELD);
+        }
+        return Optional.ofNullable(this.field);
+    }
+
+    /**
+     * Tags that a line must have to belong to the metric stream.
+     *
+     * @return
+     */
+    public Map<String, String> getTags() {
+        return Optional.ofNullable(this.tags).orElse(Collections.emptyMap());
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            checkArgument(this.id != null, "no id given");
+            checkArgument(this.file != null, "no file given");
+            if (getFormat() == TraceFormat.LINE_PROTOCOL) {
+                checkArgument(this.measurement != null, "no measurement given");
+            }
+            getTags().forEach((key, value) -> {
+                checkArgument(key != null, "tags: null key given");
+                checkArgument(value != null, "tags: null value given for %s", key);
+            });
+        } catch (Exception e) {
+            throw new IllegalArgumentException("metricStream: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id, getMetric(), this.file, getFormat(), this.measurement, getField(), getTags());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof MetricStreamDefinition) {
+            MetricStreamDefinition that = (MetricStreamDefinition) obj;
+            return Objects.equals(this.id, that.id) //
+                    && Objects.equals(getMetric(), that.getMetric()) //
+                    && Objects.equals(this.file, that.file) //
+                    && Objects.equals(getFormat(), that.getFormat()) //
+                    && Objects.equals(this.measurement, that.measurement) //
+                    && Objects.equals(getField(), that.getField()) //
+                    && Objects.equals(getTags(), that.getTags());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -0,0 +1,20 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay.config;
+
+/**
+ * The supported formats of the metric files replayed by a
+ * {@code FileReplayMetricStreamer}.
+ */
+public enum TraceFormat {
+    /**
+     * Comma-separated values with a header row naming the columns. The first
+     * column holds the time stamp of each row, either as an ISO-8601 time
+     * stamp or as milliseconds since the epoch.
+     */
+    CSV,
+    /**
+     * InfluxDB line protocol, with one point per line on the form
+     * {@code <measurement>[,<tag>=<value>...] <field>=<value>[,<field>=<value>...] <timestamp>},
+     * where the time stamp is given in nanoseconds since the epoch.
+     */
+    LINE_PROTOCOL;
+}
@@ -0,0 +1,212 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay.stream;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.PageFetchException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultPage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.MetricStreamDefinition;
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.TraceFormat;
+import com.elastisys.autoscaler.metricstreamers.filereplay.trace.Csv;
+import com.elastisys.autoscaler.metricstreamers.filereplay.trace.LineProtocolPoint;
+import com.elastisys.autoscaler.metricstreamers.filereplay.trace.TraceFile;
+
+/**
+ * A {@link MetricStream} that reads its values from a {@link TraceFile}.
+ * <p/>
+ * A query seeks to the start of the query interval in the {@link TraceFile}
+ * and reads lines until the end of the interval is passed, one page of at
+ * most {@link #PAGE_SIZE} values at a time. {@link Downsample} hints are
+ * ignored.
+ */
+public class FileReplayMetricStream implements MetricStream {
+    /** The maximum number of values in a page of query results. */
+    public static final int PAGE_SIZE = 1000;
+
+    /** Declares the metric stream. */
+    private final MetricStreamDefinition definition;
+    /** The metric file to read values from. */
+    private final TraceFile traceFile;
+
+    /** The column holding values of a {@link TraceFormat#CSV} file. */
+    private final int valueColumn;
+    /** Tag columns (and their required values) of a {@link TraceFormat#CSV} file. */
+    private final Map<Integer, String> tagColumns = new HashMap<>();
+
+    /**
+     * Creates a {@link FileReplayMetricStream}.
+     *
+     * @param definition
+     *            Declares the metric stream.
+     * @param traceFile
+     *            The metric file to read values from. Must be of the format
+     *            given by the {@link MetricStreamDefinition}.
+     * @throws IllegalArgumentException
+     *             If a {@link TraceFormat#CSV} file lacks a column named in
+     *             the {@link MetricStreamDefinition}.
+     */
+    public FileReplayMetricStream(MetricStreamDefinition definition, TraceFile traceFile)
+            throws IllegalArgumentException {
+        checkArgument(definition != null, "metricStream: definition cannot be null");
+        checkArgument(traceFile != null, "metricStream: traceFile cannot be null");
+        checkArgument(traceFile.getFormat() == definition.getFormat(), "metricStream: traceFile has format %s",
+                traceFile.getFormat());
+        this.definition = definition;
+        this.traceFile = traceFile;
+
+        if (definition.getFormat() == TraceFormat.CSV) {
+            List<String> header = traceFile.getHeader();
+            this.valueColumn = definition.getField().map(field -> column(header, field)).orElse(1);
+            checkArgument(this.valueColumn < header.size(), "metricStream: %s has no value column",
+                    traceFile.getFile());
+            for (Entry<String, String> tag : definition.getTags().entrySet()) {
+                this.tagColumns.put(column(header, tag.getKey()), tag.getValue());
+            }
+        } else {
+            this.valueColumn = -1;
+        }
+    }
+
+    private int column(List<String> header, String name) throws IllegalArgumentException {
+        int column = header.indexOf(name);
+        checkArgument(column >= 0, "metricStream: %s has no column named %s", this.traceFile.getFile(), name);
+        return column;
+    }
+
+    @Override
+    public String getId() {
+        return this.definition.getId();
+    }
+
+    @Override
+    public String getMetric() {
+        return this.definition.getMetric();
+    }
+
+    @Override
+    public QueryResultSet query(Interval timeInterval, QueryOptions options) throws MetricStreamException {
+        checkArgument(timeInterval != null, "query: timeInterval cannot be null");
+        return new ReplayResultSet(timeInterval);
+    }
+
+    /**
+     * Converts a line of the metric file to a {@link MetricValue}, if it
+     * belongs to this metric stream.
+     *
+     * @param line
+     * @param time
+     *            The time stamp of the line.
+     * @return
+     * @throws IllegalArgumentException
+     *             If the line is malformed.
+     */
+    private Optional<MetricValue> toMetricValue(String line, DateTime time) throws IllegalArgumentException {
+        if (this.definition.getFormat() == TraceFormat.LINE_PROTOCOL) {
+            LineProtocolPoint point = LineProtocolPoint.parse(line);
+            if (!point.getMeasurement().equals(this.definition.getMeasurement())
+                    || !point.getTags().entrySet().containsAll(this.definition.getTags().entrySet())) {
+                return Optional.empty();
+            }
+            return point.getNumericField(this.definition.getField().get())
+                    .map(value -> new MetricValue(getMetric(), value, time, point.getTags()));
+        }
+
+        List<String> columns = Csv.split(line);
+        for (Entry<Integer, String> tag : this.tagColumns.entrySet()) {
+            if (tag.getKey() >= columns.size() || !tag.getValue().equals(columns.get(tag.getKey()))) {
+                return Optional.empty();
+            }
+        }
+        if (this.valueColumn >= columns.size() || columns.get(this.valueColumn).isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            double value = Double.parseDouble(columns.get(this.valueColumn));
+            return Optional.of(new MetricValue(getMetric(), value, time, this.definition.getTags()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(format("non-numerical value in line '%s'", line), e);
+        }
+    }
+
+    /**
+     * A {@link QueryResultSet} that reads the lines of the query interval
+     * from the {@link TraceFile} as pages are fetched.
+     */
+    private class ReplayResultSet implements QueryResultSet {
+        private final Interval interval;
+        /** Positioned after the lines read so far. */
+        private TraceFile.Cursor cursor;
+        /** The next page, if read ahead by {@link #hasNext()}. */
+        private List<MetricValue> nextPage;
+        /** Set when the end of the query interval has been passed. */
+        private boolean done = false;
+
+        public ReplayResultSet(Interval interval) {
+            this.interval = interval;
+        }
+
+        @Override
+        public boolean hasNext() throws PageFetchException {
+            if (this.nextPage == null) {
+                this.nextPage = readPage();
+            }
+            return !this.nextPage.isEmpty();
+        }
+
+        @Override
+        public QueryResultPage fetchNext() throws NoSuchElementException, PageFetchException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("no more pages");
+            }
+            QueryResultPage page = new QueryResultPage(this.nextPage);
+            this.nextPage = null;
+            return page;
+        }
+
+        private List<MetricValue> readPage() throws PageFetchException {
+            List<MetricValue> values = new ArrayList<>();
+            try {
+                if (this.cursor == null) {
+                    this.cursor = FileReplayMetricStream.this.traceFile.seek(this.interval.getStart());
+                }
+                while (!this.done && values.size() < PAGE_SIZE && this.cursor.hasNext()) {
+                    String line = this.cursor.next();
+                    long time = FileReplayMetricStream.this.traceFile.timestamp(line);
+                    if (time < this.interval.getStartMillis()) {
+                        continue;
+                    }
+                    if (time > this.interval.getEndMillis()) {
+                        this.done = true;
+                        break;
+                    }
+                    toMetricValue(line, new DateTime(time, DateTimeZone.UTC)).ifPresent(values::add);
+                }
+                if (!this.cursor.hasNext()) {
+                    this.done = true;
+                }
+            } catch (IllegalArgumentException e) {
+                throw new PageFetchException(format("failed to read %s from %s: %s", getId(),
+                        FileReplayMetricStream.this.traceFile.getFile(), e.getMessage()), e);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses lines of comma-separated values.
+ */
+public class Csv {
+
+    private Csv() {
+        throw new IllegalStateException("not instantiable");
+    }
+
+    /**
+     * Splits a line into its (trimmed) columns. A column may be enclosed in
+     * double quotes, in which case it may contain commas, and double quotes
+     * are escaped by doubling them.
+     *
+     * @param line
+     * @return
+     */
+    public static List<String> split(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append(c);
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    column.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(column.toString().trim());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString().trim());
+        return columns;
+    }
+}
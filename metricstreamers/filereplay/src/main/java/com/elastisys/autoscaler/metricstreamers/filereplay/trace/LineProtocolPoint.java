@@ -0,0 +1,165 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay.trace;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A point parsed from a line of InfluxDB line protocol, on the form
+ * {@code <measurement>[,<tag>=<value>...] <field>=<value>[,<field>=<value>...] <timestamp>}.
+ * <p/>
+ * Commas, spaces and equal signs in measurements, tags and field keys may be
+ * escaped with a backslash. String field values are enclosed in double quotes.
+ */
+public class LineProtocolPoint {
+    private final String measurement;
+    private final Map<String, String> tags;
+    /** Raw field values. String values retain their enclosing quotes. */
+    private final Map<String, String> fields;
+
+    private LineProtocolPoint(String measurement, Map<String, String> tags, Map<String, String> fields) {
+        this.measurement = measurement;
+        this.tags = tags;
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a line of line protocol.
+     *
+     * @param line
+     * @return
+     * @throws IllegalArgumentException
+     *             If the line is malformed.
+     */
+    public static LineProtocolPoint parse(String line) throws IllegalArgumentException {
+        Parser parser = new Parser(line);
+        String measurement = parser.token(", ");
+        checkArgument(!measurement.isEmpty(), "no measurement in line '%s'", line);
+        Map<String, String> tags = new HashMap<>();
+        while (parser.skip(',')) {
+            String key = parser.token("=");
+            checkArgument(parser.skip('='), "malformed tag in line '%s'", line);
+            tags.put(key, parser.token(", "));
+        }
+        checkArgument(parser.skip(' '), "no fields in line '%s'", line);
+
+        Map<String, String> fields = new HashMap<>();
+        do {
+            String key = parser.token("=");
+            checkArgument(parser.skip('='), "malformed field in line '%s'", line);
+            fields.put(key, parser.fieldValue());
+        } while (parser.skip(','));
+        return new LineProtocolPoint(measurement, tags, fields);
+    }
+
+    public String getMeasurement() {
+        return this.measurement;
+    }
+
+    public Map<String, String> getTags() {
+        return this.tags;
+    }
+
+    /**
+     * Returns the value of a numerical field, or {@link Optional#empty()} if
+     * the point has no such field or if the field is a string or boolean.
+     *
+     * @param key
+     * @return
+     */
+    public Optional<Double> getNumericField(String key) {
+        String value = this.fields.get(key);
+        if (value == null || value.startsWith("\"")) {
+            return Optional.empty();
+        }
+        if (value.endsWith("i") || value.endsWith("u")) {
+            // integer field
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return Optional.of(Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            // boolean field
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Splits a line of line protocol into tokens.
+     */
+    private static class Parser {
+        private final String line;
+        private int position = 0;
+
+        public Parser(String line) {
+            this.line = line;
+        }
+
+        /**
+         * Skips the given character if it is next.
+         *
+         * @param c
+         * @return <code>true</code> if the character was skipped.
+         */
+        public boolean skip(char c) {
+            if (this.position < this.line.length() && this.line.charAt(this.position) == c) {
+                this.position++;
+                if (c == ' ') {
+                    while (this.position < this.line.length() && this.line.charAt(this.position) == ' ') {
+                        this.position++;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Reads an unescaped token up to (but not including) the first
+         * unescaped occurrence of any of the given delimiters.
+         *
+         * @param delimiters
+         * @return
+         */
+        public String token(String delimiters) {
+            StringBuilder token = new StringBuilder();
+            while (this.position < this.line.length()) {
+                char c = this.line.charAt(this.position);
+                if (c == '\\' && this.position + 1 < this.line.length()) {
+                    token.append(this.line.charAt(this.position + 1));
+                    this.position += 2;
+                    continue;
+                }
+                if (delimiters.indexOf(c) >= 0) {
+                    break;
+                }
+                token.append(c);
+                this.position++;
+            }
+            return token.toString();
+        }
+
+        /**
+         * Reads a raw field value, which is either a quoted string or a
+         * number or boolean.
+         *
+         * @return
+         */
+        public String fieldValue() {
+            if (this.position < this.line.length() && this.line.charAt(this.position) == '"') {
+                int start = this.position++;
+                while (this.position < this.line.length() && this.line.charAt(this.position) != '"') {
+                    if (this.line.charAt(this.position) == '\\') {
+                        this.position++;
+                    }
+                    this.position++;
+                }
+                this.position = Math.min(this.position + 1, this.line.length());
+                return this.line.substring(start, this.position);
+            }
+            return token(", ");
+        }
+    }
+}
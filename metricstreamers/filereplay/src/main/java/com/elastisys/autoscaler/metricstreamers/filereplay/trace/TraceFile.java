@@ -0,0 +1,357 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay.trace;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+import static java.lang.String.format;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.joda.time.DateTime;
+
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.TraceFormat;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * A read-only view of a (possibly very large) metric file, whose lines are
+ * sorted in order of increasing time.
+ * <p/>
+ * The file is memory-mapped (in segments, since a single mapping cannot exceed
+ * 2 GB) and, when opened, a sparse time index is built, which holds the time
+ * stamp and offset of every {@code indexInterval}:th line. A
+ * {@link #seek(DateTime)} binary-searches the index to find a line shortly
+ * before the sought time, from which the file is read sequentially. Hence, a
+ * query only needs to read the lines of the queried time interval (plus at
+ * most {@code indexInterval} lines). Note that, to keep opening fast, only the
+ * indexed lines are checked to be sorted by time.
+ * <p/>
+ * Blank lines and lines starting with {@code #} are ignored. For
+ * {@link TraceFormat#CSV}, the first line is a header row naming the columns.
+ * <p/>
+ * Instances are thread-safe.
+ */
+public class TraceFile implements Closeable {
+    /** The maximum size of a memory-mapped segment of the file. */
+    static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    /** The metric file. */
+    private final File file;
+    /** The format of the metric file. */
+    private final TraceFormat format;
+    /** The open channel of the metric file. */
+    private final FileChannel channel;
+    /** The size of each memory-mapped segment (except the last). */
+    private final long segmentSize;
+    /** The memory-mapped segments of the file, in order. */
+    private final MappedByteBuffer[] segments;
+    /** The size of the file in bytes. */
+    private final long size;
+
+    /** The column names of a {@link TraceFormat#CSV} file. */
+    private final List<String> header;
+    /** The offset of the first line after the header (if any). */
+    private final long dataStart;
+
+    /** Time stamps (in epoch millis) of the indexed lines. */
+    private final long[] indexTimes;
+    /** Offsets of the indexed lines. */
+    private final long[] indexOffsets;
+
+    /**
+     * Opens a metric file and builds its time index.
+     *
+     * @param file
+     *            The metric file.
+     * @param format
+     *            The format of the metric file.
+     * @param indexInterval
+     *            The number of lines between consecutive entries in the time
+     *            index.
+     * @throws IOException
+     *             If the file could not be read.
+     * @throws IllegalArgumentException
+     *             If the indexed lines are not sorted by time or a time stamp
+     *             could not be parsed.
+     */
+    public TraceFile(File file, TraceFormat format, int indexInterval) throws IOException, IllegalArgumentException {
+        this(file, format, indexInterval, MAX_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens a metric file and builds its time index, using memory-mapped
+     * segments of a given size.
+     *
+     * @param file
+     * @param format
+     * @param indexInterval
+     * @param segmentSize
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    TraceFile(File file, TraceFormat format, int indexInterval, long segmentSize)
+            throws IOException, IllegalArgumentException {
+        checkArgument(file != null, "traceFile: file cannot be null");
+        checkArgument(format != null, "traceFile: format cannot be null");
+        checkArgument(indexInterval > 0, "traceFile: indexInterval must be positive");
+        checkArgument(0 < segmentSize && segmentSize <= MAX_SEGMENT_SIZE, "traceFile: illegal segmentSize");
+        this.file = file;
+        this.format = format;
+        this.segmentSize = segmentSize;
+
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            this.size = this.channel.size();
+            int segmentCount = (int) ((this.size + segmentSize - 1) / segmentSize);
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long position = i * segmentSize;
+                this.segments[i] = this.channel.map(MapMode.READ_ONLY, position,
+                        Math.min(segmentSize, this.size - position));
+            }
+
+            long offset = nextLine(0);
+            if (format == TraceFormat.CSV && offset < this.size) {
+                long end = endOfLine(offset);
+                this.header = Collections.unmodifiableList(Csv.split(readLine(offset, end)));
+                offset = nextLine(end + 1);
+            } else {
+                this.header = Collections.emptyList();
+            }
+            this.dataStart = offset;
+
+            // build sparse time index
+            long[] times = new long[16];
+            long[] offsets = new long[16];
+            int indexSize = 0;
+            long lineNumber = 0;
+            while (offset < this.size) {
+                long end = endOfLine(offset);
+                if (lineNumber % indexInterval == 0) {
+                    long time = timestamp(readLine(offset, end));
+                    if (indexSize > 0 && time < times[indexSize - 1]) {
+                        throw new IllegalArgumentException(
+                                format("%s: lines are not sorted by time (line at offset %d)", file, offset));
+                    }
+                    if (indexSize == times.length) {
+                        times = Arrays.copyOf(times, 2 * indexSize);
+                        offsets = Arrays.copyOf(offsets, 2 * indexSize);
+                    }
+                    times[indexSize] = time;
+                    offsets[indexSize] = offset;
+                    indexSize++;
+                }
+                lineNumber++;
+                offset = nextLine(end + 1);
+            }
+            this.indexTimes = Arrays.copyOf(times, indexSize);
+            this.indexOffsets = Arrays.copyOf(offsets, indexSize);
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The metric file.
+     *
+     * @return
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * The format of the metric file.
+     *
+     * @return
+     */
+    public TraceFormat getFormat() {
+        return this.format;
+    }
+
+    /**
+     * The column names of a {@link TraceFormat#CSV} file. Empty for other
+     * formats.
+     *
+     * @return
+     */
+    public List<String> getHeader() {
+        return this.header;
+    }
+
+    /**
+     * The number of entries in the time index.
+     *
+     * @return
+     */
+    int getIndexSize() {
+        return this.indexTimes.length;
+    }
+
+    /**
+     * Returns a {@link Cursor} positioned at a line that is no later than the
+     * first line with a time stamp at or after the given time.
+     *
+     * @param time
+     * @return
+     */
+    public Cursor seek(DateTime time) {
+        long millis = time.getMillis();
+        // find the first indexed line at or after the sought time. the line
+        // before it is strictly earlier than the sought time.
+        int low = 0;
+        int high = this.indexTimes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.indexTimes[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return new Cursor(low > 0 ? this.indexOffsets[low - 1] : this.dataStart);
+    }
+
+    /**
+     * Returns the time stamp (in epoch millis) of a line of the metric file.
+     *
+     * @param line
+     * @return
+     * @throws IllegalArgumentException
+     *             If no time stamp could be parsed from the line.
+     */
+    public long timestamp(String line) throws IllegalArgumentException {
+        try {
+            if (this.format == TraceFormat.LINE_PROTOCOL) {
+                String nanos = line.substring(line.lastIndexOf(' ') + 1).trim();
+                return Long.parseLong(nanos) / 1000000L;
+            }
+            int comma = line.indexOf(',');
+            String time = (comma < 0 ? line : line.substring(0, comma)).replace("\"", "").trim();
+            if (time.matches("-?\\d+")) {
+                return Long.parseLong(time);
+            }
+            return UtcTime.parse(time).getMillis();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(format("%s: failed to parse time stamp of line '%s': %s", this.file,
+                    line, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Releases the file. Note that the memory mappings are released when
+     * garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private byte byteAt(long position) {
+        return this.segments[(int) (position / this.segmentSize)].get((int) (position % this.segmentSize));
+    }
+
+    /**
+     * Returns the offset of the first line at or after the given offset that
+     * is neither blank nor a comment, or the file size if there is none.
+     *
+     * @param offset
+     *            The start of a line.
+     * @return
+     */
+    private long nextLine(long offset) {
+        long position = offset;
+        while (position < this.size) {
+            byte next = byteAt(position);
+            if (next == '\n') {
+                offset = ++position;
+            } else if (next == '#' && position == offset) {
+                offset = position = endOfLine(position) + 1;
+            } else if (Character.isWhitespace(next)) {
+                position++;
+            } else {
+                return offset;
+            }
+        }
+        return this.size;
+    }
+
+    /**
+     * Returns the offset of the line feed that ends the line at the given
+     * offset, or the file size if the line is not terminated.
+     *
+     * @param offset
+     * @return
+     */
+    private long endOfLine(long offset) {
+        while (offset < this.size) {
+            MappedByteBuffer segment = this.segments[(int) (offset / this.segmentSize)];
+            int limit = segment.limit();
+            for (int i = (int) (offset % this.segmentSize); i < limit; i++) {
+                if (segment.get(i) == '\n') {
+                    return offset - offset % this.segmentSize + i;
+                }
+            }
+            offset = offset - offset % this.segmentSize + limit;
+        }
+        return this.size;
+    }
+
+    private String readLine(long start, long end) {
+        if (end > start && byteAt(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[(int) (end - start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = byteAt(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the lines of the metric file sequentially from a given offset. A
+     * {@link Cursor} is not thread-safe.
+     */
+    public class Cursor {
+        /** The offset of the next line. */
+        private long offset;
+
+        private Cursor(long offset) {
+            this.offset = nextLine(offset);
+        }
+
+        /**
+         * Returns <code>true</code> if there are more lines to read.
+         *
+         * @return
+         */
+        public boolean hasNext() {
+            return this.offset < TraceFile.this.size;
+        }
+
+        /**
+         * Reads the next line.
+         *
+         * @return
+         * @throws NoSuchElementException
+         */
+        public String next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("end of file reached");
+            }
+            long end = endOfLine(this.offset);
+            String line = readLine(this.offset, end);
+            this.offset = nextLine(end + 1);
+            return line;
+        }
+    }
+}
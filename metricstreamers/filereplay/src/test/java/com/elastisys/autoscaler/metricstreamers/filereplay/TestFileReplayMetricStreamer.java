@@ -0,0 +1,156 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.FileReplayMetricStreamerConfig;
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.MetricStreamDefinition;
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.TraceFormat;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the basic operations (configure/start/stop/fetch) of the
+ * {@link FileReplayMetricStreamer}.
+ */
+public class TestFileReplayMetricStreamer {
+    private static final Logger LOG = LoggerFactory.getLogger(TestFileReplayMetricStreamer.class);
+    private static final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private final EventBus eventBus = mock(EventBus.class);
+
+    /** Object under test. */
+    private FileReplayMetricStreamer metricStreamer;
+
+    @Before
+    public void beforeTestMethod() {
+        FrozenTime.setFixed(UtcTime.parse("2017-01-01T12:00:00.000Z"));
+        this.metricStreamer = new FileReplayMetricStreamer(LOG, executor, this.eventBus);
+    }
+
+    /**
+     * Make sure configuring produces the right {@link MetricStream}s.
+     */
+    @Test
+    public void configure() throws Exception {
+        assertThat(this.metricStreamer.getConfiguration(), is(nullValue()));
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STOPPED));
+
+        String file = write("time,cpu,mem", "2017-01-01T11:58:00.000Z,0.5,100").getPath();
+        FileReplayMetricStreamerConfig config = config(streamDef("cpu.stream", file, "cpu"),
+                streamDef("mem.stream", file, "mem"));
+        this.metricStreamer.configure(config);
+        assertThat(this.metricStreamer.getConfiguration(), is(config));
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STOPPED));
+
+        assertThat(this.metricStreamer.getMetricStreams().size(), is(2));
+        assertThat(this.metricStreamer.getMetricStream("mem.stream").getMetric(), is("mem.stream"));
+    }
+
+    /**
+     * A fetch should replay the values of the metric file up until the
+     * current time.
+     */
+    @Test
+    public void fetch() throws Exception {
+        String file = write("time,value", //
+                "2017-01-01T11:50:00.000Z,1", //
+                "2017-01-01T11:58:00.000Z,2", //
+                "2017-01-01T11:59:00.000Z,3", //
+                "2017-01-01T12:01:00.000Z,4").getPath();
+        this.metricStreamer.configure(config(streamDef("stream", file, null)));
+        this.metricStreamer.start();
+
+        this.metricStreamer.fetch();
+
+        // the metric stream message is followed by a resize iteration trigger
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(this.eventBus, atLeastOnce()).post(events.capture());
+        MetricStreamMessage message = (MetricStreamMessage) events.getAllValues().get(0);
+        assertThat(message.getId(), is("stream"));
+        assertThat(message.getMetricValues(), is(Arrays.asList(//
+                new MetricValue("stream", 2, UtcTime.parse("2017-01-01T11:58:00.000Z")),
+                new MetricValue("stream", 3, UtcTime.parse("2017-01-01T11:59:00.000Z")))));
+    }
+
+    @Test
+    public void startAndStop() throws Exception {
+        String file = write("time,value").getPath();
+        this.metricStreamer.configure(config(streamDef("stream", file, null)));
+
+        this.metricStreamer.start();
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STARTED));
+        this.metricStreamer.stop();
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STOPPED));
+        // stop should be idempotent
+        this.metricStreamer.stop();
+    }
+
+    /**
+     * A metric file that does not exist should be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void configureWithMissingFile() {
+        this.metricStreamer.configure(config(streamDef("stream", "/no/such/file.csv", null)));
+    }
+
+    /**
+     * A metric file that is not sorted by time should be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void configureWithUnsortedFile() throws IOException {
+        String file = write("time,value", "2000,1", "1000,2").getPath();
+        int indexInterval = 1;
+        this.metricStreamer.configure(new FileReplayMetricStreamerConfig(TimeInterval.seconds(10), indexInterval,
+                Arrays.asList(streamDef("stream", file, null))));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fetchBeforeStarted() throws IOException {
+        this.metricStreamer.configure(config(streamDef("stream", write("time,value").getPath(), null)));
+        this.metricStreamer.fetch();
+    }
+
+    private File write(String... lines) throws IOException {
+        File file = this.tempDir.newFile();
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static FileReplayMetricStreamerConfig config(MetricStreamDefinition... streamDefs) {
+        return new FileReplayMetricStreamerConfig(TimeInterval.seconds(10), null, Arrays.asList(streamDefs));
+    }
+
+    private static MetricStreamDefinition streamDef(String id, String file, String field) {
+        return new MetricStreamDefinition(id, null, file, TraceFormat.CSV, null, field, null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.elastisys.scale.commons.util.collection.Maps;
+
+/**
+ * Exercise the {@link MetricStreamDefinition}.
+ */
+public class TestMetricStreamDefinition {
+
+    private static final String ID = "req.count.stream";
+    private static final String METRIC = "req.count";
+    private static final String FILE = "/var/traces/requests.lp";
+    private static final String MEASUREMENT = "requests";
+    private static final String FIELD = "count";
+    private static final Map<String, String> TAGS = Maps.of("host", "web-1");
+
+    /**
+     * Verify basic sanity of a complete (and correct) configuration: it should
+     * validate and return correct values for its constituents parts.
+     */
+    @Test
+    public void correctCompleteConfig() {
+        MetricStreamDefinition streamDef = new MetricStreamDefinition(ID, METRIC, FILE, TraceFormat.LINE_PROTOCOL,
+                MEASUREMENT, FIELD, TAGS);
+        streamDef.validate();
+
+        assertThat(streamDef.getId(), is(ID));
+        assertThat(streamDef.getMetric(), is(METRIC));
+        assertThat(streamDef.getFile(), is(new File(FILE)));
+        assertThat(streamDef.getFormat(), is(TraceFormat.LINE_PROTOCOL));
+        assertThat(streamDef.getMeasurement(), is(MEASUREMENT));
+        assertThat(streamDef.getField(), is(Optional.of(FIELD)));
+        assertThat(streamDef.getTags(), is(TAGS));
+    }
+
+    /**
+     * {@code metric}, {@code format}, {@code field} and {@code tags} are
+     * optional.
+     */
+    @Test
+    public void defaults() {
+        MetricStreamDefinition streamDef = new MetricStreamDefinition(ID, null, FILE, null, null, null, null);
+        streamDef.validate();
+
+        assertThat(streamDef.getMetric(), is(ID));
+        assertThat(streamDef.getFormat(), is(MetricStreamDefinition.DEFAULT_FORMAT));
+        // for CSV, the first column after the time stamp is the default
+        assertThat(streamDef.getField(), is(Optional.empty()));
+        assertThat(streamDef.getTags(), is(Collections.emptyMap()));
+
+        streamDef = new MetricStreamDefinition(ID, null, FILE, TraceFormat.LINE_PROTOCOL, MEASUREMENT, null, null);
+        streamDef.validate();
+        assertThat(streamDef.getField(), is(Optional.of(MetricStreamDefinition.DEFAULT_LINE_PROTOCOL_FIELD)));
+    }
+
+    /**
+     * {@code id} is a required field.
+     */
+    @Test
+    public void missingId() {
+        try {
+            new MetricStreamDefinition(null, METRIC, FILE, TraceFormat.CSV, null, FIELD, TAGS).validate();
+            fail("expected to fail validation");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("no id given"));
+        }
+    }
+
+    /**
+     * {@code file} is a required field.
+     */
+    @Test
+    public void missingFile() {
+        try {
+            new MetricStreamDefinition(ID, METRIC, null, TraceFormat.CSV, null, FIELD, TAGS).validate();
+            fail("expected to fail validation");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("no file given"));
+        }
+    }
+
+    /**
+     * {@code measurement} is required for line protocol files.
+     */
+    @Test
+    public void missingMeasurementForLineProtocol() {
+        // not needed for CSV
+        new MetricStreamDefinition(ID, METRIC, FILE, TraceFormat.CSV, null, FIELD, TAGS).validate();
+
+        try {
+            new MetricStreamDefinition(ID, METRIC, FILE, TraceFormat.LINE_PROTOCOL, null, FIELD, TAGS).validate();
+            fail("expected to fail validation");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("no measurement given"));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay.stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.PageFetchException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.MetricStreamDefinition;
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.TraceFormat;
+import com.elastisys.autoscaler.metricstreamers.filereplay.trace.TraceFile;
+import com.elastisys.scale.commons.util.collection.Maps;
+
+/**
+ * Exercises the {@link FileReplayMetricStream}.
+ */
+public class TestFileReplayMetricStream {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    /**
+     * A query should only return the values of the query interval (including
+     * both ends) from the selected column.
+     */
+    @Test
+    public void queryCsv() throws IOException {
+        File file = write("time,cpu,mem", "1000,0.1,10", "2000,0.2,20", "3000,0.3,30", "4000,0.4,40");
+        MetricStreamDefinition definition = new MetricStreamDefinition("mem.stream", "mem", file.getPath(),
+                TraceFormat.CSV, null, "mem", null);
+        try (TraceFile traceFile = new TraceFile(file, TraceFormat.CSV, 2)) {
+            FileReplayMetricStream stream = new FileReplayMetricStream(definition, traceFile);
+
+            assertThat(fetchAll(stream.query(interval(2000, 3000), new QueryOptions())),
+                    is(Arrays.asList(value("mem", 20, 2000), value("mem", 30, 3000))));
+            assertThat(fetchAll(stream.query(interval(0, 10000), null)).size(), is(4));
+            assertThat(fetchAll(stream.query(interval(5000, 10000), null)), is(Collections.emptyList()));
+        }
+    }
+
+    /**
+     * By default, the first column after the time stamp holds the values.
+     * Tag columns should select the lines of the metric stream.
+     */
+    @Test
+    public void queryCsvWithTags() throws IOException {
+        File file = write("time,value,host", "1000,1,a", "1000,2,b", "2000,3,a", "2000,,b");
+        Map<String, String> tags = Maps.of("host", "a");
+        MetricStreamDefinition definition = new MetricStreamDefinition("stream", null, file.getPath(), null, null,
+                null, tags);
+        try (TraceFile traceFile = new TraceFile(file, TraceFormat.CSV, 2)) {
+            FileReplayMetricStream stream = new FileReplayMetricStream(definition, traceFile);
+            assertThat(fetchAll(stream.query(interval(0, 5000), null)),
+                    is(Arrays.asList(value("stream", 1, 1000, tags), value("stream", 3, 2000, tags))));
+        }
+    }
+
+    /**
+     * A CSV file must have the columns referenced by the
+     * {@link MetricStreamDefinition}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void csvWithMissingColumn() throws IOException {
+        File file = write("time,value", "1000,1");
+        MetricStreamDefinition definition = new MetricStreamDefinition("stream", null, file.getPath(), null, null,
+                "cpu", null);
+        try (TraceFile traceFile = new TraceFile(file, TraceFormat.CSV, 2)) {
+            new FileReplayMetricStream(definition, traceFile);
+        }
+    }
+
+    /**
+     * Only numerical values of the given measurement, field and tags should
+     * be returned.
+     */
+    @Test
+    public void queryLineProtocol() throws IOException {
+        File file = write(//
+                "requests,host=a count=1i,path=\"/a b,c\" 1000000000", //
+                "requests,host=b count=2i 1000000000", //
+                "latency,host=a count=3 2000000000", //
+                "requests,host=a,dc=x count=4.5 2000000000", //
+                "requests,host=a ok=true 3000000000", //
+                "requests,host=a count=6 3000000000");
+        MetricStreamDefinition definition = new MetricStreamDefinition("stream", "requests", file.getPath(),
+                TraceFormat.LINE_PROTOCOL, "requests", "count", Maps.of("host", "a"));
+        try (TraceFile traceFile = new TraceFile(file, TraceFormat.LINE_PROTOCOL, 2)) {
+            FileReplayMetricStream stream = new FileReplayMetricStream(definition, traceFile);
+            assertThat(fetchAll(stream.query(interval(0, 5000), null)),
+                    is(Arrays.asList(value("requests", 1, 1000, Maps.of("host", "a")),
+                            value("requests", 4.5, 2000, Maps.of("host", "a", "dc", "x")),
+                            value("requests", 6, 3000, Maps.of("host", "a")))));
+        }
+    }
+
+    /**
+     * Large query results should be returned in pages.
+     */
+    @Test
+    public void paging() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("time,value");
+        int count = 2 * FileReplayMetricStream.PAGE_SIZE + 10;
+        for (int i = 0; i < count; i++) {
+            lines.add(i + "," + i);
+        }
+        File file = write(lines.toArray(new String[0]));
+        MetricStreamDefinition definition = new MetricStreamDefinition("stream", null, file.getPath(), null, null,
+                null, null);
+        try (TraceFile traceFile = new TraceFile(file, TraceFormat.CSV, 100)) {
+            FileReplayMetricStream stream = new FileReplayMetricStream(definition, traceFile);
+            QueryResultSet resultSet = stream.query(interval(0, count), null);
+            assertThat(resultSet.fetchNext().getMetricValues().size(), is(FileReplayMetricStream.PAGE_SIZE));
+            assertThat(resultSet.fetchNext().getMetricValues().size(), is(FileReplayMetricStream.PAGE_SIZE));
+            assertThat(resultSet.fetchNext().getMetricValues().size(), is(10));
+            assertFalse(resultSet.hasNext());
+        }
+    }
+
+    /**
+     * A malformed value should fail the page fetch.
+     */
+    @Test(expected = PageFetchException.class)
+    public void malformedValue() throws IOException {
+        File file = write("time,value", "1000,one");
+        MetricStreamDefinition definition = new MetricStreamDefinition("stream", null, file.getPath(), null, null,
+                null, null);
+        try (TraceFile traceFile = new TraceFile(file, TraceFormat.CSV, 2)) {
+            fetchAll(new FileReplayMetricStream(definition, traceFile).query(interval(0, 5000), null));
+        }
+    }
+
+    private File write(String... lines) throws IOException {
+        File file = this.tempDir.newFile();
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static Interval interval(long startMillis, long endMillis) {
+        return new Interval(new DateTime(startMillis, DateTimeZone.UTC), new DateTime(endMillis, DateTimeZone.UTC));
+    }
+
+    private static MetricValue value(String metric, double value, long millis) {
+        return value(metric, value, millis, Collections.emptyMap());
+    }
+
+    private static MetricValue value(String metric, double value, long millis, Map<String, String> tags) {
+        return new MetricValue(metric, value, new DateTime(millis, DateTimeZone.UTC), tags);
+    }
+
+    private static List<MetricValue> fetchAll(QueryResultSet resultSet) {
+        List<MetricValue> values = new ArrayList<>();
+        while (resultSet.hasNext()) {
+            values.addAll(resultSet.fetchNext().getMetricValues());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,162 @@
+package com.elastisys.autoscaler.metricstreamers.filereplay.trace;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.elastisys.autoscaler.metricstreamers.filereplay.config.TraceFormat;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link TraceFile}.
+ */
+public class TestTraceFile {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    /**
+     * The header row of a CSV file should be parsed, and seeking should
+     * position the cursor at or before the first line at the sought time.
+     */
+    @Test
+    public void seekInCsvFile() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("time,value");
+        for (int i = 0; i < 100; i++) {
+            lines.add(String.format("%d,%d", i * 1000, i));
+        }
+        try (TraceFile traceFile = new TraceFile(write(lines), TraceFormat.CSV, 10)) {
+            assertThat(traceFile.getHeader(), is(Arrays.asList("time", "value")));
+            assertThat(traceFile.getIndexSize(), is(10));
+
+            assertThat(firstLineAtOrAfter(traceFile, new DateTime(0)), is("0,0"));
+            assertThat(firstLineAtOrAfter(traceFile, new DateTime(55000)), is("55000,55"));
+            assertThat(firstLineAtOrAfter(traceFile, new DateTime(54500)), is("55000,55"));
+            assertThat(firstLineAtOrAfter(traceFile, new DateTime(99000)), is("99000,99"));
+            assertThat(firstLineAtOrAfter(traceFile, new DateTime(100000)), is(nullValue()));
+
+            // the cursor should start at the closest preceding index entry
+            assertThat(traceFile.seek(new DateTime(55000)).next(), is("50000,50"));
+            assertThat(traceFile.seek(new DateTime(60000)).next(), is("50000,50"));
+            assertThat(traceFile.seek(new DateTime(60001)).next(), is("60000,60"));
+        }
+    }
+
+    /**
+     * Several lines may share the same time stamp, also across index entries.
+     */
+    @Test
+    public void seekWithDuplicateTimestamps() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("time,value");
+        for (int i = 0; i < 20; i++) {
+            lines.add(String.format("%d,%d", i < 5 ? 0 : 1000, i));
+        }
+        try (TraceFile traceFile = new TraceFile(write(lines), TraceFormat.CSV, 3)) {
+            assertThat(firstLineAtOrAfter(traceFile, new DateTime(1000)), is("1000,5"));
+        }
+    }
+
+    /**
+     * ISO-8601 and epoch millisecond time stamps are supported for CSV, and
+     * nanosecond time stamps for line protocol.
+     */
+    @Test
+    public void timestamps() throws IOException {
+        try (TraceFile csv = new TraceFile(write(Arrays.asList("time,value")), TraceFormat.CSV, 1)) {
+            assertThat(csv.timestamp("2017-01-01T12:00:00.000Z,1.0"),
+                    is(UtcTime.parse("2017-01-01T12:00:00.000Z").getMillis()));
+            assertThat(csv.timestamp("\"1483272000000\",1.0"), is(1483272000000L));
+        }
+        try (TraceFile lineProtocol = new TraceFile(write(Collections.emptyList()), TraceFormat.LINE_PROTOCOL, 1)) {
+            assertThat(lineProtocol.timestamp("cpu,host=a value=1.0 1483272000000000000"), is(1483272000000L));
+        }
+    }
+
+    /**
+     * Blank lines and comments should be skipped.
+     */
+    @Test
+    public void skipBlankLinesAndComments() throws IOException {
+        List<String> lines = Arrays.asList("# DML", "", "cpu value=1 1000000000", "  ", "# comment",
+                "cpu value=2 2000000000");
+        try (TraceFile traceFile = new TraceFile(write(lines), TraceFormat.LINE_PROTOCOL, 1)) {
+            assertThat(traceFile.getIndexSize(), is(2));
+            TraceFile.Cursor cursor = traceFile.seek(new DateTime(0));
+            assertThat(cursor.next(), is("cpu value=1 1000000000"));
+            assertThat(cursor.next(), is("cpu value=2 2000000000"));
+            assertFalse(cursor.hasNext());
+        }
+    }
+
+    /**
+     * Lines should be read correctly also when they cross the border between
+     * two memory-mapped segments of the file.
+     */
+    @Test
+    public void readAcrossSegments() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("time,value");
+        for (int i = 0; i < 100; i++) {
+            lines.add(String.format("%d,%d", i * 1000, i));
+        }
+        try (TraceFile traceFile = new TraceFile(write(lines), TraceFormat.CSV, 7, 16)) {
+            TraceFile.Cursor cursor = traceFile.seek(new DateTime(0));
+            List<String> read = new ArrayList<>();
+            read.add("time,value");
+            while (cursor.hasNext()) {
+                read.add(cursor.next());
+            }
+            assertThat(read, is(lines));
+        }
+    }
+
+    /**
+     * A file that is not sorted by time should be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectUnsortedFile() throws IOException {
+        new TraceFile(write(Arrays.asList("time,value", "2000,1", "1000,2")), TraceFormat.CSV, 1);
+    }
+
+    /**
+     * A line without a valid time stamp should be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectMalformedTimestamp() throws IOException {
+        new TraceFile(write(Arrays.asList("cpu value=1 yesterday")), TraceFormat.LINE_PROTOCOL, 1);
+    }
+
+    private File write(List<String> lines) throws IOException {
+        File file = this.tempDir.newFile();
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String firstLineAtOrAfter(TraceFile traceFile, DateTime time) {
+        TraceFile.Cursor cursor = traceFile.seek(time);
+        while (cursor.hasNext()) {
+            String line = cursor.next();
+            if (traceFile.timestamp(line) >= time.getMillis()) {
+                return line;
+            }
+        }
+        return null;
+    }
+}
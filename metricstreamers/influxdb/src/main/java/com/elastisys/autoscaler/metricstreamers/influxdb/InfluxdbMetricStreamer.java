@@ -4,11 +4,17 @@ import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgume
 import static com.elastisys.scale.commons.util.precond.Preconditions.checkState;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
+import org.joda.time.Duration;
 import org.slf4j.Logger;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
@@ -17,6 +23,13 @@ import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamDriver;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamSettings;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching.CachingMetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching.QueryCache;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunkPlanner;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerRegistry;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.RequestHedger;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConvertingMetricStream;
 import com.elastisys.autoscaler.metricstreamers.influxdb.config.InfluxdbMetricStreamerConfig;
 import com.elastisys.autoscaler.metricstreamers.influxdb.config.MetricStreamDefinition;
 import com.elastisys.autoscaler.metricstreamers.influxdb.stream.InfluxdbMetricStream;
@@ -40,6 +53,26 @@ public class InfluxdbMetricStreamer implements MetricStreamer<InfluxdbMetricStre
      * configured {@link MetricStream}s.
      */
     private MetricStreamDriver metricStreamDriver;
+    /**
+     * Circuit breakers for the InfluxDB server endpoint(s) queried by the
+     * {@link MetricStream}s. Retained across re-configurations.
+     */
+    private final CircuitBreakerRegistry circuitBreakers;
+    /**
+     * Hedges slow queries for all {@link MetricStream}s. Retained across
+     * re-configurations.
+     */
+    private final RequestHedger requestHedger;
+    /**
+     * Plans the chunks of long queries for all {@link MetricStream}s. Retained
+     * across re-configurations.
+     */
+    private final QueryChunkPlanner chunkPlanner;
+    /**
+     * Caches already fetched historical data for all {@link MetricStream}s.
+     * Cleared on re-configuration.
+     */
+    private final QueryCache queryCache;
 
     /**
      * Creates a new instance. The new instance will be in an unconfigured and
@@ -59,6 +92,10 @@ public class InfluxdbMetricStreamer implements MetricStreamer<InfluxdbMetricStre
         this.logger = logger;
         this.executor = executor;
         this.eventBus = eventBus;
+        this.circuitBreakers = new CircuitBreakerRegistry(logger);
+        this.requestHedger = new RequestHedger(logger);
+        this.chunkPlanner = new QueryChunkPlanner();
+        this.queryCache = new QueryCache();
     }
 
     @Override
@@ -76,15 +113,25 @@ public class InfluxdbMetricStreamer implements MetricStreamer<InfluxdbMetricStre
             return;
         }
 
+        Set<String> unchangedStreams = unchangedStreams(configuration);
+        MetricStreamDriver previousDriver = this.metricStreamDriver;
         boolean needsRestart = isStarted();
         if (needsRestart) {
             stop();
         }
 
         this.config = configuration;
+        this.circuitBreakers.configure(configuration.getCircuitBreaker(), endpoints());
+        this.requestHedger.configure(configuration.getHedging(), streamIds());
+        this.chunkPlanner.configure(configuration.getChunkSizing(), streamIds());
+        this.queryCache.configure(configuration.getQueryCache());
         TimeInterval firstQueryLookback = null;
         this.metricStreamDriver = new MetricStreamDriver(this.logger, this.executor, this.eventBus, buildStreams(),
-                configuration.getPollInterval(), firstQueryLookback);
+                configuration.getPollInterval(), firstQueryLookback, streamSettings());
+        if (previousDriver != null) {
+            // keep streaming unchanged streams from where they were left off
+            this.metricStreamDriver.takeOver(previousDriver, unchangedStreams);
+        }
 
         if (needsRestart) {
             start();
@@ -93,14 +140,83 @@ public class InfluxdbMetricStreamer implements MetricStreamer<InfluxdbMetricStre
 
     private List<MetricStream> buildStreams() {
         List<MetricStream> metricStreams = new ArrayList<>();
-        for (MetricStreamDefinition streamDefinition : this.config.getMetricStreams()) {
-            MetricStreamConfig config = new MetricStreamConfig(this.config.getHost(), this.config.getPort(),
-                    this.config.getSecurity(), streamDefinition);
-            metricStreams.add(new InfluxdbMetricStream(this.logger, config));
+        for (MetricStreamConfig config : streamConfigs()) {
+            MetricStream metricStream = new InfluxdbMetricStream(this.logger, config,
+                    this.circuitBreakers.get(config.getBaseUrl()), this.requestHedger, this.chunkPlanner);
+            metricStream = new CachingMetricStream(metricStream, this.queryCache, dataSettlingTime(config));
+            if (config.getStreamDefinition().getRateConversion().isPresent()) {
+                metricStream = new RateConvertingMetricStream(metricStream,
+                        config.getStreamDefinition().getRateConversion().get());
+            }
+            metricStreams.add(metricStream);
         }
         return metricStreams;
     }
 
+    /**
+     * Returns the data settling time of a metric stream, which is the least
+     * age of data that the metric stream fetches.
+     *
+     * @param config
+     * @return
+     */
+    private static Duration dataSettlingTime(MetricStreamConfig config) {
+        TimeInterval dataSettlingTime = config.getStreamDefinition().getDataSettlingTime();
+        return dataSettlingTime != null ? Duration.millis(dataSettlingTime.getMillis()) : Duration.ZERO;
+    }
+
+    private List<MetricStreamConfig> streamConfigs() {
+        return streamConfigs(this.config);
+    }
+
+    private static List<MetricStreamConfig> streamConfigs(InfluxdbMetricStreamerConfig config) {
+        List<MetricStreamConfig> streamConfigs = new ArrayList<>();
+        for (MetricStreamDefinition streamDefinition : config.getMetricStreams()) {
+            streamConfigs.add(new MetricStreamConfig(config.getHost(), config.getPort(), config.getSecurity(),
+                    streamDefinition));
+        }
+        return streamConfigs;
+    }
+
+    /**
+     * Returns the ids of the metric streams that are identically set up in the
+     * current and a new configuration. The re-configured
+     * {@link MetricStreamDriver} can take over such streams as they are.
+     *
+     * @param newConfig
+     * @return
+     */
+    private Set<String> unchangedStreams(InfluxdbMetricStreamerConfig newConfig) {
+        if (this.config == null) {
+            return Collections.emptySet();
+        }
+        Set<MetricStreamConfig> currentStreams = new HashSet<>(streamConfigs());
+        return streamConfigs(newConfig).stream().filter(currentStreams::contains)
+                .map(stream -> stream.getStreamDefinition().getId()).collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the InfluxDB server endpoints that are queried with the current
+     * configuration.
+     *
+     * @return
+     */
+    private List<String> endpoints() {
+        return streamConfigs().stream().map(MetricStreamConfig::getBaseUrl).distinct().collect(Collectors.toList());
+    }
+
+    private Map<String, MetricStreamSettings> streamSettings() {
+        return this.config.getMetricStreams().stream()
+                .collect(Collectors.toMap(MetricStreamDefinition::getId, stream -> new MetricStreamSettings(
+                        stream.getCatchUp(), stream.isLatestOnly(), stream.getAllowedLateness().orElse(null)),
+                        (a, b) -> a));
+    }
+
+    private List<String> streamIds() {
+        return this.config.getMetricStreams().stream().map(MetricStreamDefinition::getId)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public InfluxdbMetricStreamerConfig getConfiguration() {
         return this.config;
@@ -125,7 +241,8 @@ public class InfluxdbMetricStreamer implements MetricStreamer<InfluxdbMetricStre
 
     @Override
     public ServiceStatus getStatus() {
-        return new ServiceStatus.Builder().started(isStarted()).build();
+        return new ServiceStatus.Builder().started(isStarted()).lastFault(this.circuitBreakers.getOpenCircuitFault())
+                .build();
     }
 
     @Override
@@ -9,6 +9,10 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching.QueryCacheConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.ChunkSizingConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.HedgingConfig;
 import com.elastisys.autoscaler.metricstreamers.influxdb.InfluxdbMetricStreamer;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.json.types.TimeInterval;
@@ -46,7 +50,35 @@ public class InfluxdbMetricStreamerConfig {
     private final List<MetricStreamDefinition> metricStreams;
 
     /**
-     * Creates an {@link InfluxdbMetricStreamerConfig}.
+     * Controls when queries to the InfluxDB server are to be suspended due to
+     * the server being unavailable. May be <code>null</code>, in which case
+     * default settings are used.
+     */
+    private final CircuitBreakerConfig circuitBreaker;
+
+    /**
+     * Settings for hedging slow queries with duplicate queries. May be
+     * <code>null</code>, in which case queries are not hedged.
+     */
+    private final HedgingConfig hedging;
+
+    /**
+     * Settings for adaptively sizing the chunks that long queries are broken
+     * into. May be <code>null</code>, in which case every chunk is
+     * {@code queryChunkSize} long.
+     */
+    private final ChunkSizingConfig chunkSizing;
+
+    /**
+     * Settings for caching already fetched historical data, so that queries
+     * for overlapping time intervals only fetch what has not been fetched
+     * before. May be <code>null</code>, in which case nothing is cached.
+     */
+    private final QueryCacheConfig queryCache;
+
+    /**
+     * Creates an {@link InfluxdbMetricStreamerConfig} with default circuit
+     * breaker settings.
      *
      * @param host
      *            InfluxDB server host name/IP address. Required.
@@ -64,11 +96,141 @@ public class InfluxdbMetricStreamerConfig {
      */
     public InfluxdbMetricStreamerConfig(String host, int port, SecurityConfig security, TimeInterval pollInterval,
             List<MetricStreamDefinition> metricStreams) {
+        this(host, port, security, pollInterval, metricStreams, null);
+    }
+
+    /**
+     * Creates an {@link InfluxdbMetricStreamerConfig}.
+     *
+     * @param host
+     *            InfluxDB server host name/IP address. Required.
+     * @param port
+     *            InfluxDB server port. Required.
+     * @param security
+     *            Security settings for connecting with the server. Optional. If
+     *            left out, the InfluxDB server is assumed to run over HTTP and
+     *            no client authentication will be used.
+     * @param pollInterval
+     *            The polling interval for metric streams.
+     * @param metricStreams
+     *            The collection of published {@link MetricStream}s. May be
+     *            <code>null</code>.
+     * @param circuitBreaker
+     *            Controls when queries to the InfluxDB server are to be
+     *            suspended due to the server being unavailable. May be
+     *            <code>null</code>, in which case default settings are used.
+     */
+    public InfluxdbMetricStreamerConfig(String host, int port, SecurityConfig security, TimeInterval pollInterval,
+            List<MetricStreamDefinition> metricStreams, CircuitBreakerConfig circuitBreaker) {
+        this(host, port, security, pollInterval, metricStreams, circuitBreaker, null);
+    }
+
+    /**
+     * Creates an {@link InfluxdbMetricStreamerConfig}.
+     *
+     * @param host
+     *            InfluxDB server host name/IP address. Required.
+     * @param port
+     *            InfluxDB server port. Required.
+     * @param security
+     *            Security settings for connecting with the server. Optional. If
+     *            left out, the InfluxDB server is assumed to run over HTTP and
+     *            no client authentication will be used.
+     * @param pollInterval
+     *            The polling interval for metric streams.
+     * @param metricStreams
+     *            The collection of published {@link MetricStream}s. May be
+     *            <code>null</code>.
+     * @param circuitBreaker
+     *            Controls when queries to the InfluxDB server are to be
+     *            suspended due to the server being unavailable. May be
+     *            <code>null</code>, in which case default settings are used.
+     * @param hedging
+     *            Settings for hedging slow queries with duplicate queries. May
+     *            be <code>null</code>, in which case queries are not hedged.
+     */
+    public InfluxdbMetricStreamerConfig(String host, int port, SecurityConfig security, TimeInterval pollInterval,
+            List<MetricStreamDefinition> metricStreams, CircuitBreakerConfig circuitBreaker, HedgingConfig hedging) {
+        this(host, port, security, pollInterval, metricStreams, circuitBreaker, hedging, null);
+    }
+
+    /**
+     * Creates an {@link InfluxdbMetricStreamerConfig}.
+     *
+     * @param host
+     *            InfluxDB server host name/IP address. Required.
+     * @param port
+     *            InfluxDB server port. Required.
+     * @param security
+     *            Security settings for connecting with the server. Optional. If
+     *            left out, the InfluxDB server is assumed to run over HTTP and
+     *            no client authentication will be used.
+     * @param pollInterval
+     *            The polling interval for metric streams.
+     * @param metricStreams
+     *            The collection of published {@link MetricStream}s. May be
+     *            <code>null</code>.
+     * @param circuitBreaker
+     *            Controls when queries to the InfluxDB server are to be
+     *            suspended due to the server being unavailable. May be
+     *            <code>null</code>, in which case default settings are used.
+     * @param hedging
+     *            Settings for hedging slow queries with duplicate queries. May
+     *            be <code>null</code>, in which case queries are not hedged.
+     * @param chunkSizing
+     *            Settings for adaptively sizing the chunks that long queries
+     *            are broken into. May be <code>null</code>, in which case every
+     *            chunk is {@code queryChunkSize} long.
+     */
+    public InfluxdbMetricStreamerConfig(String host, int port, SecurityConfig security, TimeInterval pollInterval,
+            List<MetricStreamDefinition> metricStreams, CircuitBreakerConfig circuitBreaker, HedgingConfig hedging,
+            ChunkSizingConfig chunkSizing) {
+        this(host, port, security, pollInterval, metricStreams, circuitBreaker, hedging, chunkSizing, null);
+    }
+
+    /**
+     * Creates an {@link InfluxdbMetricStreamerConfig}.
+     *
+     * @param host
+     *            InfluxDB server host name/IP address. Required.
+     * @param port
+     *            InfluxDB server port. Required.
+     * @param security
+     *            Security settings for connecting with the server. Optional. If
+     *            left out, the InfluxDB server is assumed to run over HTTP and
+     *            no client authentication will be used.
+     * @param pollInterval
+     *            The polling interval for metric streams.
+     * @param metricStreams
+     *            The collection of published {@link MetricStream}s. May be
+     *            <code>null</code>.
+     * @param circuitBreaker
+     *            Controls when queries to the InfluxDB server are to be
+     *            suspended due to the server being unavailable. May be
+     *            <code>null</code>, in which case default settings are used.
+     * @param hedging
+     *            Settings for hedging slow queries with duplicate queries. May
+     *            be <code>null</code>, in which case queries are not hedged.
+     * @param chunkSizing
+     *            Settings for adaptively sizing the chunks that long queries
+     *            are broken into. May be <code>null</code>, in which case every
+     *            chunk is {@code queryChunkSize} long.
+     * @param queryCache
+     *            Settings for caching already fetched historical data. May be
+     *            <code>null</code>, in which case nothing is cached.
+     */
+    public InfluxdbMetricStreamerConfig(String host, int port, SecurityConfig security, TimeInterval pollInterval,
+            List<MetricStreamDefinition> metricStreams, CircuitBreakerConfig circuitBreaker, HedgingConfig hedging,
+            ChunkSizingConfig chunkSizing, QueryCacheConfig queryCache) {
         this.host = host;
         this.port = port;
         this.security = security;
         this.pollInterval = pollInterval;
         this.metricStreams = metricStreams;
+        this.circuitBreaker = circuitBreaker;
+        this.hedging = hedging;
+        this.chunkSizing = chunkSizing;
+        this.queryCache = queryCache;
     }
 
     /**
@@ -118,6 +280,47 @@ public class InfluxdbMetricStreamerConfig {
         return Optional.ofNullable(this.metricStreams).orElse(Collections.emptyList());
     }
 
+    /**
+     * Controls when queries to the InfluxDB server are to be suspended due to
+     * the server being unavailable.
+     *
+     * @return
+     */
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return Optional.ofNullable(this.circuitBreaker).orElse(CircuitBreakerConfig.defaultConfig());
+    }
+
+    /**
+     * Settings for hedging slow queries with duplicate queries.
+     * {@link Optional#empty()} means that queries are not hedged.
+     *
+     * @return
+     */
+    public Optional<HedgingConfig> getHedging() {
+        return Optional.ofNullable(this.hedging);
+    }
+
+    /**
+     * Settings for adaptively sizing the chunks that long queries are broken
+     * into. {@link Optional#empty()} means that every chunk is
+     * {@code queryChunkSize} long.
+     *
+     * @return
+     */
+    public Optional<ChunkSizingConfig> getChunkSizing() {
+        return Optional.ofNullable(this.chunkSizing);
+    }
+
+    /**
+     * Settings for caching already fetched historical data.
+     * {@link Optional#empty()} means that nothing is cached.
+     *
+     * @return
+     */
+    public Optional<QueryCacheConfig> getQueryCache() {
+        return Optional.ofNullable(this.queryCache);
+    }
+
     public void validate() throws IllegalArgumentException {
         try {
             checkArgument(this.host != null, "no host given");
@@ -127,6 +330,10 @@ public class InfluxdbMetricStreamerConfig {
             }
             getPollInterval().validate();
             getMetricStreams().forEach(stream -> stream.validate());
+            getCircuitBreaker().validate();
+            getHedging().ifPresent(HedgingConfig::validate);
+            getChunkSizing().ifPresent(ChunkSizingConfig::validate);
+            getQueryCache().ifPresent(QueryCacheConfig::validate);
         } catch (Exception e) {
             throw new IllegalArgumentException("metricStreamer: influxdb: " + e.getMessage(), e);
         }
@@ -134,7 +341,8 @@ public class InfluxdbMetricStreamerConfig {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.host, this.port, getSecurity(), getPollInterval(), this.metricStreams);
+        return Objects.hash(this.host, this.port, getSecurity(), getPollInterval(), this.metricStreams,
+                getCircuitBreaker(), this.hedging, this.chunkSizing, this.queryCache);
     }
 
     @Override
@@ -144,7 +352,11 @@ public class InfluxdbMetricStreamerConfig {
             return Objects.equals(this.host, that.host) && Objects.equals(this.port, that.port)
                     && Objects.equals(getSecurity(), that.getSecurity())
                     && Objects.equals(getPollInterval(), that.getPollInterval())
-                    && Objects.equals(this.metricStreams, that.metricStreams);
+                    && Objects.equals(this.metricStreams, that.metricStreams)
+                    && Objects.equals(getCircuitBreaker(), that.getCircuitBreaker())
+                    && Objects.equals(this.hedging, that.hedging)
+                    && Objects.equals(this.chunkSizing, that.chunkSizing)
+                    && Objects.equals(this.queryCache, that.queryCache);
         }
         return false;
     }
@@ -10,6 +10,10 @@ import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpPolicy;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpStrategy;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConversion;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConvertingMetricStream;
 import com.elastisys.autoscaler.metricstreamers.influxdb.InfluxdbMetricStreamer;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.json.types.TimeInterval;
@@ -75,6 +79,43 @@ public class MetricStreamDefinition {
      */
     private final TimeInterval queryChunkSize;
 
+    /**
+     * Controls how the metric stream catches up on a large gap in its data,
+     * such as after an InfluxDB outage. May be <code>null</code>, in which
+     * case all data since the last observed value is fetched. With the
+     * {@link CatchUpStrategy#DOWNSAMPLE} strategy, the downsampling is carried
+     * out on the client side.
+     */
+    private final CatchUpPolicy catchUp;
+
+    /**
+     * When set, the stream feeds the change rate (per second) of the query
+     * results rather than their absolute values. The conversion is done on
+     * the client side, which allows counter metrics to be exposed as rates
+     * without {@code DERIVATIVE} queries. May be <code>null</code>, in which
+     * case values are fed as-is.
+     *
+     * @see RateConvertingMetricStream
+     */
+    private final RateConversion rateConversion;
+
+    /**
+     * When <code>true</code>, the stream is polled in latest-only mode: each
+     * poll only fetches (and feeds) the most recent value of the query, which
+     * is much cheaper than fetching all values since the previous poll. Suits
+     * streams whose consumers only care about the current value of the
+     * metric. May be <code>null</code>. Default: <code>false</code>.
+     */
+    private final Boolean latestOnly;
+
+    /**
+     * How late a value may show up in InfluxDB (relative to the newest value
+     * delivered for the stream) and still be delivered, as a correction. Each
+     * poll reaches back this far to pick up late arrivals. May be
+     * <code>null</code>, in which case late arrivals are dropped.
+     */
+    private final TimeInterval allowedLateness;
+
     /**
      * Creates an {@link MetricStreamDefinition}.
      *
@@ -125,12 +166,168 @@ public class MetricStreamDefinition {
      */
     public MetricStreamDefinition(String id, String metricName, String database, Query query,
             TimeInterval dataSettlingTime, TimeInterval queryChunkSize) {
+        this(id, metricName, database, query, dataSettlingTime, queryChunkSize, null, null);
+    }
+
+    /**
+     * Creates an {@link MetricStreamDefinition}.
+     *
+     * @param id
+     *            The id of the metric stream. This is the id that will be used
+     *            by clients wishing to subscribe to this metric stream.
+     *            Required.
+     * @param metricName
+     *            The metric name that will be assigned to the
+     *            {@link MetricValue}s produced by this stream. Optional.
+     *            Default: {@link #id}.
+     * @param database
+     *            The InfluxDB database to query. Required.
+     * @param query
+     *            The InfluxDB {@code SELECT} query to be used to fetch new
+     *            metrics values. Required.
+     * @param dataSettlingTime
+     *            The minimum age of requested data points. May be
+     *            <code>null</code>.
+     * @param queryChunkSize
+     *            The maximum time period that a single query will attempt to
+     *            fetch in a single call. May be <code>null</code>. Default:
+     *            {@value #DEFAULT_QUERY_CHUNK_SIZE}.
+     * @param catchUp
+     *            Controls how the metric stream catches up on a large gap in
+     *            its data, such as after an InfluxDB outage. May be
+     *            <code>null</code>, in which case all data since the last
+     *            observed value is fetched.
+     */
+    public MetricStreamDefinition(String id, String metricName, String database, Query query,
+            TimeInterval dataSettlingTime, TimeInterval queryChunkSize, CatchUpPolicy catchUp) {
+        this(id, metricName, database, query, dataSettlingTime, queryChunkSize, catchUp, null);
+    }
+
+    /**
+     * Creates an {@link MetricStreamDefinition}.
+     *
+     * @param id
+     *            The id of the metric stream. Required.
+     * @param metricName
+     *            The metric name that will be assigned to the
+     *            {@link MetricValue}s produced by this stream. Optional.
+     *            Default: {@link #id}.
+     * @param database
+     *            The InfluxDB database to query. Required.
+     * @param query
+     *            The InfluxDB {@code SELECT} query to be used to fetch new
+     *            metrics values. Required.
+     * @param dataSettlingTime
+     *            The minimum age of requested data points. May be
+     *            <code>null</code>.
+     * @param queryChunkSize
+     *            The maximum time period that a single query will attempt to
+     *            fetch in a single call. May be <code>null</code>. Default:
+     *            {@value #DEFAULT_QUERY_CHUNK_SIZE}.
+     * @param catchUp
+     *            Controls how the metric stream catches up on a large gap in
+     *            its data. May be <code>null</code>.
+     * @param rateConversion
+     *            When set, the stream feeds the change rate (per second) of
+     *            the query results rather than their absolute values. May be
+     *            <code>null</code>, in which case values are fed as-is.
+     */
+    public MetricStreamDefinition(String id, String metricName, String database, Query query,
+            TimeInterval dataSettlingTime, TimeInterval queryChunkSize, CatchUpPolicy catchUp,
+            RateConversion rateConversion) {
+        this(id, metricName, database, query, dataSettlingTime, queryChunkSize, catchUp, rateConversion, null);
+    }
+
+    /**
+     * Creates an {@link MetricStreamDefinition}.
+     *
+     * @param id
+     *            The id of the metric stream. Required.
+     * @param metricName
+     *            The metric name that will be assigned to the
+     *            {@link MetricValue}s produced by this stream. Optional.
+     *            Default: {@link #id}.
+     * @param database
+     *            The InfluxDB database to query. Required.
+     * @param query
+     *            The InfluxDB {@code SELECT} query to be used to fetch new
+     *            metrics values. Required.
+     * @param dataSettlingTime
+     *            The minimum age of requested data points. May be
+     *            <code>null</code>.
+     * @param queryChunkSize
+     *            The maximum time period that a single query will attempt to
+     *            fetch in a single call. May be <code>null</code>. Default:
+     *            {@value #DEFAULT_QUERY_CHUNK_SIZE}.
+     * @param catchUp
+     *            Controls how the metric stream catches up on a large gap in
+     *            its data. May be <code>null</code>.
+     * @param rateConversion
+     *            When set, the stream feeds the change rate (per second) of
+     *            the query results rather than their absolute values. May be
+     *            <code>null</code>, in which case values are fed as-is.
+     * @param latestOnly
+     *            When <code>true</code>, each poll only fetches the most
+     *            recent value of the query. May be <code>null</code>.
+     *            Default: <code>false</code>.
+     */
+    public MetricStreamDefinition(String id, String metricName, String database, Query query,
+            TimeInterval dataSettlingTime, TimeInterval queryChunkSize, CatchUpPolicy catchUp,
+            RateConversion rateConversion, Boolean latestOnly) {
+        this(id, metricName, database, query, dataSettlingTime, queryChunkSize, catchUp, rateConversion, latestOnly,
+                null);
+    }
+
+    /**
+     * Creates an {@link MetricStreamDefinition}.
+     *
+     * @param id
+     *            The id of the metric stream. Required.
+     * @param metricName
+     *            The metric name that will be assigned to the
+     *            {@link MetricValue}s produced by this stream. Optional.
+     *            Default: {@link #id}.
+     * @param database
+     *            The InfluxDB database to query. Required.
+     * @param query
+     *            The InfluxDB {@code SELECT} query to be used to fetch new
+     *            metrics values. Required.
+     * @param dataSettlingTime
+     *            The minimum age of requested data points. May be
+     *            <code>null</code>.
+     * @param queryChunkSize
+     *            The maximum time period that a single query will attempt to
+     *            fetch in a single call. May be <code>null</code>. Default:
+     *            {@value #DEFAULT_QUERY_CHUNK_SIZE}.
+     * @param catchUp
+     *            Controls how the metric stream catches up on a large gap in
+     *            its data. May be <code>null</code>.
+     * @param rateConversion
+     *            When set, the stream feeds the change rate (per second) of
+     *            the query results rather than their absolute values. May be
+     *            <code>null</code>, in which case values are fed as-is.
+     * @param latestOnly
+     *            When <code>true</code>, each poll only fetches the most
+     *            recent value of the query. May be <code>null</code>.
+     *            Default: <code>false</code>.
+     * @param allowedLateness
+     *            How late a value may show up and still be delivered, as a
+     *            correction. May be <code>null</code>, in which case late
+     *            arrivals are dropped.
+     */
+    public MetricStreamDefinition(String id, String metricName, String database, Query query,
+            TimeInterval dataSettlingTime, TimeInterval queryChunkSize, CatchUpPolicy catchUp,
+            RateConversion rateConversion, Boolean latestOnly, TimeInterval allowedLateness) {
         this.id = id;
         this.metricName = metricName;
         this.database = database;
         this.query = query;
         this.dataSettlingTime = dataSettlingTime;
         this.queryChunkSize = queryChunkSize;
+        this.catchUp = catchUp;
+        this.rateConversion = rateConversion;
+        this.latestOnly = latestOnly;
+        this.allowedLateness = allowedLateness;
     }
 
     /**
@@ -214,6 +411,46 @@ public class MetricStreamDefinition {
         return Optional.ofNullable(this.queryChunkSize).orElse(DEFAULT_QUERY_CHUNK_SIZE);
     }
 
+    /**
+     * Controls how the metric stream catches up on a large gap in its data,
+     * such as after an InfluxDB outage.
+     *
+     * @return
+     */
+    public CatchUpPolicy getCatchUp() {
+        return Optional.ofNullable(this.catchUp).orElse(CatchUpPolicy.fetchAll());
+    }
+
+    /**
+     * The client-side rate conversion to apply to query results, if any.
+     *
+     * @return
+     */
+    public Optional<RateConversion> getRateConversion() {
+        return Optional.ofNullable(this.rateConversion);
+    }
+
+    /**
+     * <code>true</code> if the stream is to be polled in latest-only mode,
+     * where each poll only fetches the most recent value of the query.
+     *
+     * @return
+     */
+    public boolean isLatestOnly() {
+        return Optional.ofNullable(this.latestOnly).orElse(false);
+    }
+
+    /**
+     * How late a value may show up (relative to the newest value delivered
+     * for the stream) and still be delivered, as a correction.
+     * {@link Optional#empty()} means that late arrivals are dropped.
+     *
+     * @return
+     */
+    public Optional<TimeInterval> getAllowedLateness() {
+        return Optional.ofNullable(this.allowedLateness);
+    }
+
     /**
      * Checks the validity of field values. Throws an
      * {@link IllegalArgumentException} if necessary conditions are not
@@ -246,6 +483,16 @@ public class MetricStreamDefinition {
             }
 
             checkArgument(getQueryChunkSize().getMillis() > 0, "queryChunkSize must be a non-zero duration");
+
+            getCatchUp().validate();
+
+            if (this.allowedLateness != null) {
+                try {
+                    this.allowedLateness.validate();
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("allowedLateness: " + e.getMessage(), e);
+                }
+            }
         } catch (Exception e) {
             throw new IllegalArgumentException("metricStream: " + e.getMessage(), e);
         }
@@ -254,7 +501,7 @@ public class MetricStreamDefinition {
     @Override
     public int hashCode() {
         return Objects.hash(this.id, this.metricName, this.database, this.query, this.dataSettlingTime,
-                this.queryChunkSize);
+                this.queryChunkSize, this.catchUp, this.rateConversion, isLatestOnly(), this.allowedLateness);
     }
 
     @Override
@@ -266,7 +513,11 @@ public class MetricStreamDefinition {
                     && Objects.equals(this.database, that.database) //
                     && Objects.equals(this.query, that.query) //
                     && Objects.equals(this.dataSettlingTime, that.dataSettlingTime) //
-                    && Objects.equals(this.queryChunkSize, that.queryChunkSize);
+                    && Objects.equals(this.queryChunkSize, that.queryChunkSize) //
+                    && Objects.equals(this.catchUp, that.catchUp) //
+                    && Objects.equals(this.rateConversion, that.rateConversion) //
+                    && Objects.equals(isLatestOnly(), that.isLatestOnly()) //
+                    && Objects.equals(this.allowedLateness, that.allowedLateness);
         }
         return false;
     }
@@ -285,7 +536,7 @@ public class MetricStreamDefinition {
      */
     public MetricStreamDefinition withQuery(Query query) {
         return new MetricStreamDefinition(this.id, this.metricName, this.database, query, this.dataSettlingTime,
-                this.queryChunkSize);
+                this.queryChunkSize, this.catchUp, this.rateConversion, this.latestOnly, this.allowedLateness);
     }
 
     /**
@@ -297,7 +548,7 @@ public class MetricStreamDefinition {
      */
     public MetricStreamDefinition withDataSettlingTime(TimeInterval dataSettlingTime) {
         return new MetricStreamDefinition(this.id, this.metricName, this.database, this.query, dataSettlingTime,
-                this.queryChunkSize);
+                this.queryChunkSize, this.catchUp, this.rateConversion, this.latestOnly, this.allowedLateness);
     }
 
     /**
@@ -309,7 +560,54 @@ public class MetricStreamDefinition {
      */
     public MetricStreamDefinition withQueryChunkSize(TimeInterval queryChunkSize) {
         return new MetricStreamDefinition(this.id, this.metricName, this.database, this.query, this.dataSettlingTime,
-                queryChunkSize);
+                queryChunkSize, this.catchUp, this.rateConversion, this.latestOnly, this.allowedLateness);
     }
 
+    /**
+     * Creates a field-by-field copy of this object but sets a different
+     * catch-up policy in the returned copy.
+     *
+     * @param catchUp
+     * @return
+     */
+    public MetricStreamDefinition withCatchUp(CatchUpPolicy catchUp) {
+        return new MetricStreamDefinition(this.id, this.metricName, this.database, this.query, this.dataSettlingTime,
+                this.queryChunkSize, catchUp, this.rateConversion, this.latestOnly, this.allowedLateness);
+    }
+
+    /**
+     * Creates a field-by-field copy of this object but sets a different rate
+     * conversion in the returned copy.
+     *
+     * @param rateConversion
+     * @return
+     */
+    public MetricStreamDefinition withRateConversion(RateConversion rateConversion) {
+        return new MetricStreamDefinition(this.id, this.metricName, this.database, this.query, this.dataSettlingTime,
+                this.queryChunkSize, this.catchUp, rateConversion, this.latestOnly, this.allowedLateness);
+    }
+
+    /**
+     * Creates a field-by-field copy of this object but sets a different
+     * latest-only mode in the returned copy.
+     *
+     * @param latestOnly
+     * @return
+     */
+    public MetricStreamDefinition withLatestOnly(Boolean latestOnly) {
+        return new MetricStreamDefinition(this.id, this.metricName, this.database, this.query, this.dataSettlingTime,
+                this.queryChunkSize, this.catchUp, this.rateConversion, latestOnly, this.allowedLateness);
+    }
+
+    /**
+     * Creates a field-by-field copy of this object but sets a different
+     * allowed lateness in the returned copy.
+     *
+     * @param allowedLateness
+     * @return
+     */
+    public MetricStreamDefinition withAllowedLateness(TimeInterval allowedLateness) {
+        return new MetricStreamDefinition(this.id, this.metricName, this.database, this.query, this.dataSettlingTime,
+                this.queryChunkSize, this.catchUp, this.rateConversion, this.latestOnly, allowedLateness);
+    }
 }
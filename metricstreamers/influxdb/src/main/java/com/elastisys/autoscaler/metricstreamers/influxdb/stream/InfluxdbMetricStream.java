@@ -1,26 +1,34 @@
 package com.elastisys.autoscaler.metricstreamers.influxdb.stream;
 
 import java.net.URI;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import org.joda.time.DateTime;
 import org.joda.time.Duration;
 import org.joda.time.Interval;
 import org.slf4j.Logger;
 
+import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.EmptyResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunkPlanner;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunks;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerOpenException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.downsampling.DownsamplingResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.RequestHedger;
 import com.elastisys.autoscaler.metricstreamers.influxdb.config.MetricStreamDefinition;
 import com.elastisys.autoscaler.metricstreamers.influxdb.config.SecurityConfig;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 import com.elastisys.scale.commons.net.http.Http;
 import com.elastisys.scale.commons.net.http.HttpBuilder;
 import com.elastisys.scale.commons.net.url.UrlUtils;
-import com.elastisys.scale.commons.util.time.TimeUtils;
 import com.elastisys.scale.commons.util.time.UtcTime;
 
 /**
@@ -30,10 +38,53 @@ public class InfluxdbMetricStream implements MetricStream {
 
     private final Logger logger;
     private final MetricStreamConfig config;
+    /**
+     * Guards the queries sent to the InfluxDB server. May be shared with other
+     * {@link MetricStream}s that query the same server.
+     */
+    private final CircuitBreaker circuitBreaker;
+    /** Hedges slow queries. May be shared with other {@link MetricStream}s. */
+    private final RequestHedger requestHedger;
+    /**
+     * Breaks long queries into chunks. May be shared with other
+     * {@link MetricStream}s.
+     */
+    private final QueryChunkPlanner chunkPlanner;
 
+    /**
+     * Creates an {@link InfluxdbMetricStream} with a {@link CircuitBreaker} of
+     * its own and without request hedging.
+     *
+     * @param logger
+     * @param config
+     */
     public InfluxdbMetricStream(Logger logger, MetricStreamConfig config) {
+        this(logger, config, new CircuitBreaker(logger, config.getBaseUrl(), CircuitBreakerConfig.defaultConfig()),
+                RequestHedger.disabled(), new QueryChunkPlanner());
+    }
+
+    /**
+     * Creates an {@link InfluxdbMetricStream}.
+     *
+     * @param logger
+     * @param config
+     * @param circuitBreaker
+     *            Guards the queries sent to the InfluxDB server. May be shared
+     *            with other {@link MetricStream}s that query the same server.
+     * @param requestHedger
+     *            Hedges slow queries. May be shared with other
+     *            {@link MetricStream}s.
+     * @param chunkPlanner
+     *            Breaks long queries into chunks. May be shared with other
+     *            {@link MetricStream}s.
+     */
+    public InfluxdbMetricStream(Logger logger, MetricStreamConfig config, CircuitBreaker circuitBreaker,
+            RequestHedger requestHedger, QueryChunkPlanner chunkPlanner) {
         this.logger = logger;
         this.config = config;
+        this.circuitBreaker = circuitBreaker;
+        this.requestHedger = requestHedger;
+        this.chunkPlanner = chunkPlanner;
     }
 
     @Override
@@ -50,39 +101,99 @@ public class InfluxdbMetricStream implements MetricStream {
     public QueryResultSet query(Interval interval, QueryOptions options) throws MetricStreamException {
         MetricStreamDefinition streamDef = stream();
 
-        // make sure we don't request too recent (unsettled) data
-        TimeInterval dataSettlingTime = streamDef.getDataSettlingTime();
-        if (dataSettlingTime != null) {
-            DateTime dataSettledPoint = UtcTime.now().minus(dataSettlingTime.getMillis());
-            if (interval.isAfter(dataSettledPoint)) {
-                this.logger.info("ignoring influxdb metric retrieval: requested time interval {} requests data "
-                        + "more recent than the stream's data settling point {}", interval, dataSettledPoint);
-                return new EmptyResultSet();
-            }
-            // adjust end of interval to not request too recent (unsettled) data
-            if (interval.getEnd().isAfter(dataSettledPoint)) {
-                this.logger.debug("adjusting query interval end to not exceed data settling point (%s)",
-                        dataSettledPoint);
-                interval = new Interval(interval.getStart(), dataSettledPoint);
-            }
+        Optional<Interval> settledInterval = settledInterval(interval);
+        if (!settledInterval.isPresent()) {
+            return new EmptyResultSet();
         }
+        interval = settledInterval.get();
 
-        // no support for custom downsampling
-        if (options != null && options.getDownsample().isPresent()) {
-            this.logger.info("ignoring query hint: {}", options.getDownsample().get());
-        }
+        ensureCallPermitted();
 
         Http httpClient = prepareHttpClient();
         // breaks query into chunks which are incrementally fetched in case of a
         // query spanning a long time-frame
-        List<Interval> subQueryIntervals = TimeUtils.splitInterval(interval, queryChunkSize());
-        List<QueryCall> subQueries = new ArrayList<>();
-        for (Interval subQueryInterval : subQueryIntervals) {
-            String query = InfluxdbQueryBuilder.buildQuery(streamDef, subQueryInterval);
+        QueryChunks chunks = this.chunkPlanner.split(getId(), interval, queryChunkSize());
+        QueryResultSet resultSet = new LazyInfluxdbResultSet(this.logger, chunks, chunk -> {
+            String query = InfluxdbQueryBuilder.buildQuery(streamDef, chunk);
             this.logger.debug("preparing (sub)query: {}", query);
-            subQueries.add(new QueryCall(this.logger, httpClient, queryUrl(query), streamDef.getMetricName()));
+            return new QueryCall(this.logger, httpClient, queryUrl(query), streamDef.getMetricName(),
+                    this.circuitBreaker, this.requestHedger, getId());
+        });
+
+        // influxdb queries cannot be downsampled by query hints (the select
+        // statement is given by the stream definition), so any requested
+        // downsampling is carried out on the client side
+        return DownsamplingResultSet.honoring(resultSet, options);
+    }
+
+    /**
+     * Fetches the most recent value with a single query that has InfluxDB
+     * order the results by descending time and limit them to one row.
+     */
+    @Override
+    public Optional<MetricValue> queryLatest(Interval interval) throws MetricStreamException {
+        MetricStreamDefinition streamDef = stream();
+
+        Optional<Interval> settledInterval = settledInterval(interval);
+        if (!settledInterval.isPresent()) {
+            return Optional.empty();
+        }
+
+        ensureCallPermitted();
+
+        String query = InfluxdbQueryBuilder.buildLatestQuery(streamDef, settledInterval.get());
+        this.logger.debug("preparing latest value query: {}", query);
+        QueryCall queryCall = new QueryCall(this.logger, prepareHttpClient(), queryUrl(query),
+                streamDef.getMetricName(), this.circuitBreaker, this.requestHedger, getId());
+        List<MetricValue> values;
+        try {
+            values = queryCall.call();
+        } catch (Exception e) {
+            throw new MetricStreamException(String.format("failed to query influxdb for latest value of stream %s: %s",
+                    getId(), e.getMessage()), e);
+        }
+        return values.isEmpty() ? Optional.empty() : Optional.of(Collections.max(values));
+    }
+
+    /**
+     * Adjusts a query interval to not request too recent (unsettled) data,
+     * according to the stream's data settling time. Returns
+     * {@link Optional#empty()} if the entire interval is too recent.
+     *
+     * @param interval
+     * @return
+     */
+    private Optional<Interval> settledInterval(Interval interval) {
+        TimeInterval dataSettlingTime = stream().getDataSettlingTime();
+        if (dataSettlingTime == null) {
+            return Optional.of(interval);
+        }
+
+        DateTime dataSettledPoint = UtcTime.now().minus(dataSettlingTime.getMillis());
+        if (interval.isAfter(dataSettledPoint)) {
+            this.logger.info("ignoring influxdb metric retrieval: requested time interval {} requests data "
+                    + "more recent than the stream's data settling point {}", interval, dataSettledPoint);
+            return Optional.empty();
+        }
+        // adjust end of interval to not request too recent (unsettled) data
+        if (interval.getEnd().isAfter(dataSettledPoint)) {
+            this.logger.debug("adjusting query interval end to not exceed data settling point (%s)", dataSettledPoint);
+            return Optional.of(new Interval(interval.getStart(), dataSettledPoint));
+        }
+        return Optional.of(interval);
+    }
+
+    /**
+     * Fails fast rather than preparing queries that would be rejected by the
+     * {@link CircuitBreaker}.
+     *
+     * @throws CircuitBreakerOpenException
+     */
+    private void ensureCallPermitted() throws CircuitBreakerOpenException {
+        if (!this.circuitBreaker.isCallPermitted()) {
+            throw new CircuitBreakerOpenException(String.format("not querying influxdb for stream %s: %s", getId(),
+                    this.circuitBreaker));
         }
-        return new LazyInfluxdbResultSet(this.logger, subQueries);
     }
 
     private URI queryUrl(String query) throws MetricStreamException {
@@ -129,12 +240,7 @@ public class InfluxdbMetricStream implements MetricStream {
      * @return
      */
     private String queryUrl(MetricStreamConfig config) {
-        String protocol = "http";
-        if (config.getSecurity().isPresent()) {
-            protocol = config.getSecurity().get().useHttps() ? "https" : "http";
-        }
-        String url = String.format("%s://%s:%d/query", protocol, config.getHost(), config.getPort());
-        return url;
+        return config.getBaseUrl() + "/query";
     }
 
     private MetricStreamDefinition stream() {
@@ -59,4 +59,23 @@ class InfluxdbQueryBuilder {
 
         return q.toString();
     }
+
+    /**
+     * Builds an InfluxDB query language {@code SELECT} statement that only
+     * returns the most recent row of the metric stream's query within a given
+     * time interval.
+     * <p/>
+     * The stream's query is kept as is (so any aggregation and
+     * {@code GROUP BY time()} clause still applies), but the result is ordered
+     * by descending time and limited to a single row.
+     *
+     * @param stream
+     *            The metric stream that defines how to query InfluxDB.
+     * @param interval
+     *            The time interval that the query should span.
+     * @return A {@code SELECT} statement that can be used to query InfluxDB.
+     */
+    public static String buildLatestQuery(MetricStreamDefinition stream, Interval interval) {
+        return buildQuery(stream, interval) + " ORDER BY time DESC LIMIT 1";
+    }
 }
@@ -84,6 +84,21 @@ public class MetricStreamConfig {
         return this.security;
     }
 
+    /**
+     * Returns the base URL of the InfluxDB server, such as
+     * {@code http://localhost:8086}. Identifies the server endpoint that the
+     * {@link MetricStream} queries.
+     *
+     * @return
+     */
+    public String getBaseUrl() {
+        String protocol = "http";
+        if (this.security.isPresent()) {
+            protocol = this.security.get().useHttps() ? "https" : "http";
+        }
+        return String.format("%s://%s:%d", protocol, this.host, this.port);
+    }
+
     /**
      * Describes what query to run for this particular {@link MetricStream}s.
      *
@@ -12,6 +12,10 @@ import org.apache.http.client.methods.HttpGet;
 import org.slf4j.Logger;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.RequestAttempt;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.RequestHedger;
 import com.elastisys.autoscaler.metricstreamers.influxdb.resultset.ResultSet;
 import com.elastisys.autoscaler.metricstreamers.influxdb.stream.errors.InfluxdbConnectException;
 import com.elastisys.scale.commons.net.http.Http;
@@ -19,33 +23,64 @@ import com.elastisys.scale.commons.net.http.HttpRequestResponse;
 
 /**
  * Executes a single remote query against a particular InfluxDB server.
+ * <p/>
+ * The query is guarded by a {@link CircuitBreaker}. Connection failures and
+ * server errors (5xx) count as failures, whereas client errors (4xx), which
+ * indicate a bad query rather than an unavailable server, do not. The HTTP
+ * request may be hedged by a {@link RequestHedger} when the server is slow to
+ * respond.
  */
 public class QueryCall implements Callable<List<MetricValue>> {
     private final Logger logger;
     private final Http httpClient;
     private final URI queryUrl;
     private final String metricName;
+    private final CircuitBreaker circuitBreaker;
+    private final RequestHedger requestHedger;
+    /** The metric stream that the query is made for. */
+    private final String streamId;
+    /** The size of the response body. Negative until a response is received. */
+    private volatile long responseBytes = -1;
 
     public QueryCall(Logger logger, Http httpClient, URI queryUrl, String metricName) {
+        this(logger, httpClient, queryUrl, metricName,
+                new CircuitBreaker(logger, queryUrl.getAuthority(), CircuitBreakerConfig.defaultConfig()),
+                RequestHedger.disabled(), metricName);
+    }
+
+    public QueryCall(Logger logger, Http httpClient, URI queryUrl, String metricName, CircuitBreaker circuitBreaker,
+            RequestHedger requestHedger, String streamId) {
         this.logger = logger;
         this.httpClient = httpClient;
         this.queryUrl = queryUrl;
         this.metricName = metricName;
+        this.circuitBreaker = circuitBreaker;
+        this.requestHedger = requestHedger;
+        this.streamId = streamId;
     }
 
     @Override
     public List<MetricValue> call() throws Exception {
         HttpRequestResponse response;
+        this.circuitBreaker.acquirePermission();
         try {
             this.logger.debug("sending query: {}", this.queryUrl, null);
-            response = this.httpClient.execute(new HttpGet(this.queryUrl));
+            response = this.requestHedger.execute(this.streamId, () -> new QueryAttempt());
             if (this.logger.isTraceEnabled()) {
                 this.logger.trace("response: {}", response.getResponseBody());
             }
+            this.circuitBreaker.onSuccess();
+            this.responseBytes = response.getResponseBody().length();
         } catch (HttpResponseException e) {
+            if (e.getStatusCode() >= 500) {
+                this.circuitBreaker.onFailure(e);
+            } else {
+                this.circuitBreaker.onSuccess();
+            }
             throw new InfluxdbConnectException(
                     format("influxdb server responded with %d status code:\n%s", e.getStatusCode(), e.getMessage()), e);
         } catch (IOException e) {
+            this.circuitBreaker.onFailure(e);
             throw new InfluxdbConnectException("failed to send query to influxdb: " + e.getMessage(), e);
         }
 
@@ -54,4 +89,33 @@ public class QueryCall implements Callable<List<MetricValue>> {
         return new ResultSetConverter(this.metricName).toMetricValues(resultSet);
     }
 
+    /**
+     * Returns the size (in characters) of the response body received by the
+     * last {@link #call()}, or a negative value if no response has been
+     * received.
+     *
+     * @return
+     */
+    public long getResponseBytes() {
+        return this.responseBytes;
+    }
+
+    /**
+     * A single HTTP request for the query, which can be aborted if a hedged
+     * request completes first.
+     */
+    private class QueryAttempt implements RequestAttempt<HttpRequestResponse> {
+        private final HttpGet request = new HttpGet(QueryCall.this.queryUrl);
+
+        @Override
+        public HttpRequestResponse execute() throws Exception {
+            return QueryCall.this.httpClient.execute(this.request);
+        }
+
+        @Override
+        public void abort() {
+            this.request.abort();
+        }
+    }
+
 }
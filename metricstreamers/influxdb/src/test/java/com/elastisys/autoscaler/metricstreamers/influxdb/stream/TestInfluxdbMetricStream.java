@@ -11,6 +11,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -22,7 +23,6 @@ import org.joda.time.DateTime;
 import org.joda.time.Interval;
 import org.junit.After;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -230,6 +230,26 @@ public class TestInfluxdbMetricStream {
                 "SELECT \"system\" FROM \"cpu\" WHERE '2016-01-01T11:55:00.000Z' <= time AND time <= '2016-01-01T11:58:00.000Z'"));
     }
 
+    /**
+     * A latest value query should only ask InfluxDB for the most recent row
+     * and return the most recent of the received values.
+     */
+    @Test
+    public void queryLatest() throws Exception {
+        FakeInfluxdbQueryEndpoint influxdbFake = createInfluxdbFake(RESPONSE);
+        this.server = startNoAuthHttpServer(influxdbFake, this.port);
+
+        Query query = Query.builder().select("\"system\"").from("\"cpu\"").build();
+        InfluxdbMetricStream metricStream = new InfluxdbMetricStream(LOG, new MetricStreamConfig("localhost", this.port,
+                null,
+                streamDef("cpu.system", "mydb", query).withDataSettlingTime(new TimeInterval(2L, TimeUnit.MINUTES))));
+        Optional<MetricValue> latest = metricStream.queryLatest(lastFiveMins());
+
+        assertThat(influxdbFake.getLastCallParameters().get("q").get(0), is(
+                "SELECT \"system\" FROM \"cpu\" WHERE '2016-01-01T11:55:00.000Z' <= time AND time <= '2016-01-01T11:58:00.000Z' ORDER BY time DESC LIMIT 1"));
+        assertThat(latest.get(), is(new MetricValue("cpu.system", 0.3, UtcTime.parse("2016-01-01T11:59:00.000Z"))));
+    }
+
     /**
      * As long as the query interval is shorter than the max query chunk size,
      * query won't be split into sub-queries.
@@ -447,30 +467,32 @@ public class TestInfluxdbMetricStream {
     }
 
     /**
-     * When query specifies a downsampling parameter, that should take
-     * precedence over the one configured for the stream.
+     * When query specifies a downsampling parameter, the stream query should
+     * be left unchanged (there is no straight-forward way to apply a different
+     * downsampling interval and function to the configured select statement),
+     * but the query result should be downsampled on the client side.
      */
     @Test
-    @Ignore // TODO: with the current query config, there is no straight-forward
-            // way to apply a different downsampling interval and function. a
-            // more restrictive query format is needed to support downsampling
-            // hints, but would the sacrifice be worth it?
     public void queryHints() throws Exception {
         FakeInfluxdbQueryEndpoint influxdbFake = createInfluxdbFake(RESPONSE);
         this.server = startNoAuthHttpServer(influxdbFake, this.port);
 
-        Query query = Query.builder().select("mean(\"system\")").from("\"cpu\"").groupBy("time(1m) fill(none)").build();
+        Query query = Query.builder().select("system").from("cpu").build();
         InfluxdbMetricStream metricStream = new InfluxdbMetricStream(LOG,
-                new MetricStreamConfig("localhost", this.port, null, streamDef("cpu.stream", "mydb", query)));
+                new MetricStreamConfig("localhost", this.port, null, streamDef("cpu.system", "mydb", query)));
 
-        // give downsampling as a query hint => should override stream config
+        // give downsampling as a query hint
         QueryOptions queryOptions = new QueryOptions(
                 new Downsample(new TimeInterval(5L, TimeUnit.MINUTES), DownsampleFunction.MAX));
         QueryResultSet resultSet = metricStream.query(lastFiveMins(), queryOptions);
-        resultSet.fetchNext();
+        List<MetricValue> values = new ArrayList<>();
+        while (resultSet.hasNext()) {
+            values.addAll(resultSet.fetchNext().getMetricValues());
+        }
         assertThat(influxdbFake.getLastCallParameters().get("q").get(0), is(
-                "SELECT max(\"value\") FROM \"cpu\" WHERE '2016-01-01T11:55:00.000Z' <= time AND time <= '2016-01-01T12:00:00.000Z' GROUP BY time(300s) fill(none)"));
-
+                "SELECT system FROM cpu WHERE '2016-01-01T11:55:00.000Z' <= time AND time <= '2016-01-01T12:00:00.000Z'"));
+        // all response values (11:55, 11:58 and 11:59) fall in the same bucket
+        assertThat(values, is(asList(new MetricValue("cpu.system", 0.3, UtcTime.parse("2016-01-01T11:55:00.000Z")))));
     }
 
     /**
@@ -73,6 +73,20 @@ public class TestInfluxdbQueryBuilder {
                 "SELECT non_negative_derivative(max(requests),1s) FROM nginx WHERE '2016-09-15T12:00:00.000Z' <= time AND time <= '2016-09-15T13:00:00.000Z' AND region =~ /us-*/ GROUP BY time(5m) fill(none)"));
     }
 
+    /**
+     * A latest value query should keep the stream's query but only ask for
+     * the most recent row.
+     */
+    @Test
+    public void latestQuery() {
+        Interval interval = new Interval(UtcTime.parse("2016-09-15T12:00:00.000Z"),
+                UtcTime.parse("2016-09-15T13:00:00.000Z"));
+        Query query = Query.builder().select("mean(requests)").from("nginx").groupBy("time(1m) fill(none)").build();
+
+        assertThat(InfluxdbQueryBuilder.buildLatestQuery(streamDef(query), interval), is(
+                "SELECT mean(requests) FROM nginx WHERE '2016-09-15T12:00:00.000Z' <= time AND time <= '2016-09-15T13:00:00.000Z' GROUP BY time(1m) fill(none) ORDER BY time DESC LIMIT 1"));
+    }
+
     /**
      * A query time interval must be specified.
      */
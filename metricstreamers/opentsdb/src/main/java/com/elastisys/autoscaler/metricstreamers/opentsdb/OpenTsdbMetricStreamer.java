@@ -4,11 +4,19 @@ import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgume
 import static com.elastisys.scale.commons.util.precond.Preconditions.checkState;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
+import org.joda.time.Duration;
 import org.slf4j.Logger;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
@@ -17,6 +25,14 @@ import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamDriver;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamSettings;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching.CachingMetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching.QueryCache;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunkPlanner;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerRegistry;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.RequestHedger;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConvertingMetricStream;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.client.impl.OpenTsdbHttpQueryClient;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.config.OpenTsdbMetricStreamDefinition;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.config.OpenTsdbMetricStreamerConfig;
@@ -41,6 +57,26 @@ public class OpenTsdbMetricStreamer implements MetricStreamer<OpenTsdbMetricStre
      * configured {@link MetricStream}s.
      */
     private MetricStreamDriver metricStreamDriver;
+    /**
+     * Circuit breaker for the OpenTSDB server endpoint queried by the
+     * {@link MetricStream}s. Retained across re-configurations.
+     */
+    private final CircuitBreakerRegistry circuitBreakers;
+    /**
+     * Hedges slow queries for all {@link MetricStream}s. Retained across
+     * re-configurations.
+     */
+    private final RequestHedger requestHedger;
+    /**
+     * Plans the chunks of long queries for all {@link MetricStream}s. Retained
+     * across re-configurations.
+     */
+    private final QueryChunkPlanner chunkPlanner;
+    /**
+     * Caches already fetched historical data for all {@link MetricStream}s.
+     * Cleared on re-configuration.
+     */
+    private final QueryCache queryCache;
 
     /**
      * Creates a new instance. The new instance will be in an unconfigured and
@@ -60,6 +96,10 @@ public class OpenTsdbMetricStreamer implements MetricStreamer<OpenTsdbMetricStre
         this.logger = logger;
         this.executor = executor;
         this.eventBus = eventBus;
+        this.circuitBreakers = new CircuitBreakerRegistry(logger);
+        this.requestHedger = new RequestHedger(logger);
+        this.chunkPlanner = new QueryChunkPlanner();
+        this.queryCache = new QueryCache();
     }
 
     @Override
@@ -77,15 +117,32 @@ public class OpenTsdbMetricStreamer implements MetricStreamer<OpenTsdbMetricStre
             return;
         }
 
+        Set<String> unchangedStreams = unchangedStreams(configuration);
+        MetricStreamDriver previousDriver = this.metricStreamDriver;
         boolean needsRestart = isStarted();
         if (needsRestart) {
             stop();
         }
 
         this.config = configuration;
+        this.circuitBreakers.configure(configuration.getCircuitBreaker(), Arrays.asList(endpoint()));
+        List<String> streamIds = configuration.getMetricStreams().stream().map(OpenTsdbMetricStreamDefinition::getId)
+                .collect(Collectors.toList());
+        this.requestHedger.configure(configuration.getHedging(), streamIds);
+        this.chunkPlanner.configure(configuration.getChunkSizing(), streamIds);
+        this.queryCache.configure(configuration.getQueryCache());
+        Map<String, MetricStreamSettings> streamSettings = new HashMap<>();
+        for (OpenTsdbMetricStreamDefinition stream : configuration.getMetricStreams()) {
+            streamSettings.putIfAbsent(stream.getId(), new MetricStreamSettings(stream.getCatchUp(),
+                    stream.isLatestOnly(), stream.getAllowedLateness().orElse(null)));
+        }
         TimeInterval firstQueryLookback = null;
         this.metricStreamDriver = new MetricStreamDriver(this.logger, this.executor, this.eventBus, buildStreams(),
-                configuration.getPollInterval(), firstQueryLookback);
+                configuration.getPollInterval(), firstQueryLookback, streamSettings);
+        if (previousDriver != null) {
+            // keep streaming unchanged streams from where they were left off
+            this.metricStreamDriver.takeOver(previousDriver, unchangedStreams);
+        }
 
         if (needsRestart) {
             start();
@@ -95,14 +152,57 @@ public class OpenTsdbMetricStreamer implements MetricStreamer<OpenTsdbMetricStre
 
     private List<MetricStream> buildStreams() {
         List<MetricStream> metricStreams = new ArrayList<>();
-        for (OpenTsdbMetricStreamDefinition streamDefinition : this.config.getMetricStreams()) {
-            MetricStreamConfig config = new MetricStreamConfig(this.config.getOpenTsdbHost(),
-                    this.config.getOpenTsdbPort(), streamDefinition);
-            metricStreams.add(new OpenTsdbMetricStream(this.logger, new OpenTsdbHttpQueryClient(this.logger), config));
+        CircuitBreaker circuitBreaker = this.circuitBreakers.get(endpoint());
+        for (MetricStreamConfig config : streamConfigs(this.config)) {
+            OpenTsdbMetricStreamDefinition streamDefinition = config.getStreamDefinition();
+            MetricStream metricStream = new OpenTsdbMetricStream(this.logger, new OpenTsdbHttpQueryClient(this.logger),
+                    config, circuitBreaker, this.requestHedger, this.chunkPlanner);
+            metricStream = new CachingMetricStream(metricStream, this.queryCache,
+                    Duration.millis(streamDefinition.getDataSettlingTime().getMillis()));
+            if (streamDefinition.getRateConversion().isPresent()) {
+                metricStream = new RateConvertingMetricStream(metricStream, streamDefinition.getRateConversion().get());
+            }
+            metricStreams.add(metricStream);
         }
         return metricStreams;
     }
 
+    private static List<MetricStreamConfig> streamConfigs(OpenTsdbMetricStreamerConfig config) {
+        List<MetricStreamConfig> streamConfigs = new ArrayList<>();
+        for (OpenTsdbMetricStreamDefinition streamDefinition : config.getMetricStreams()) {
+            streamConfigs.add(
+                    new MetricStreamConfig(config.getOpenTsdbHost(), config.getOpenTsdbPort(), streamDefinition));
+        }
+        return streamConfigs;
+    }
+
+    /**
+     * Returns the ids of the metric streams that are identically set up in the
+     * current and a new configuration. The re-configured
+     * {@link MetricStreamDriver} can take over such streams as they are.
+     *
+     * @param newConfig
+     * @return
+     */
+    private Set<String> unchangedStreams(OpenTsdbMetricStreamerConfig newConfig) {
+        if (this.config == null) {
+            return Collections.emptySet();
+        }
+        Set<MetricStreamConfig> currentStreams = new HashSet<>(streamConfigs(this.config));
+        return streamConfigs(newConfig).stream().filter(currentStreams::contains)
+                .map(stream -> stream.getStreamDefinition().getId()).collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the OpenTSDB server endpoint that is queried with the current
+     * configuration.
+     *
+     * @return
+     */
+    private String endpoint() {
+        return "http://" + this.config.getOpenTsdbHost() + ":" + this.config.getOpenTsdbPort();
+    }
+
     @Override
     public OpenTsdbMetricStreamerConfig getConfiguration() {
         return this.config;
@@ -128,7 +228,8 @@ public class OpenTsdbMetricStreamer implements MetricStreamer<OpenTsdbMetricStre
 
     @Override
     public ServiceStatus getStatus() {
-        return new ServiceStatus.Builder().started(isStarted()).build();
+        return new ServiceStatus.Builder().started(isStarted()).lastFault(this.circuitBreakers.getOpenCircuitFault())
+                .build();
     }
 
     @Override
@@ -1,6 +1,9 @@
 package com.elastisys.autoscaler.metricstreamers.opentsdb.client;
 
 import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.http.client.methods.HttpGet;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
 
@@ -30,5 +33,69 @@ public interface OpenTsdbQueryClient {
      * @throws Exception
      *             If the query execution failed.
      */
-    List<MetricValue> query(String queryUrl) throws Exception;
-}
\ No newline at end of file
+    default List<MetricValue> query(String queryUrl) throws Exception {
+        return query(queryUrl, request -> {
+        });
+    }
+
+    /**
+     * Executes a query against an OpenTSDB server, handing the HTTP request
+     * to a callback before it is sent, so that the caller can abort it.
+     * <p/>
+     * The returned {@link MetricValue}s are sorted in order of increasing time
+     * stamp.
+     *
+     * @param queryUrl
+     *            A complete OpenTSDB query URL. The query URL must adhere to
+     *            the <a href="http://opentsdb.net/http-api.html">OpenTSDB HTTP
+     *            API</a>.
+     * @param requestCallback
+     *            Receives the HTTP request before it is sent. Calling
+     *            {@link HttpGet#abort()} on the request makes the query fail.
+     * @return The list of metric values that the query generated, sorted in
+     *         order of increasing time.
+     * @throws Exception
+     *             If the query execution failed.
+     */
+    List<MetricValue> query(String queryUrl, Consumer<HttpGet> requestCallback) throws Exception;
+
+    /**
+     * Executes a last data point query (against OpenTSDB's
+     * {@code /api/query/last} endpoint), which returns the most recent data
+     * point of each matching time-series.
+     * <p/>
+     * The returned {@link MetricValue}s are sorted in order of increasing time
+     * stamp.
+     *
+     * @param queryUrl
+     *            A complete OpenTSDB last data point query URL.
+     * @return The most recent metric value of each time-series that matched
+     *         the query, sorted in order of increasing time.
+     * @throws Exception
+     *             If the query execution failed.
+     */
+    default List<MetricValue> queryLast(String queryUrl) throws Exception {
+        return queryLast(queryUrl, request -> {
+        });
+    }
+
+    /**
+     * Executes a last data point query (against OpenTSDB's
+     * {@code /api/query/last} endpoint), handing the HTTP request to a
+     * callback before it is sent, so that the caller can abort it.
+     * <p/>
+     * The returned {@link MetricValue}s are sorted in order of increasing time
+     * stamp.
+     *
+     * @param queryUrl
+     *            A complete OpenTSDB last data point query URL.
+     * @param requestCallback
+     *            Receives the HTTP request before it is sent. Calling
+     *            {@link HttpGet#abort()} on the request makes the query fail.
+     * @return The most recent metric value of each time-series that matched
+     *         the query, sorted in order of increasing time.
+     * @throws Exception
+     *             If the query execution failed.
+     */
+    List<MetricValue> queryLast(String queryUrl, Consumer<HttpGet> requestCallback) throws Exception;
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpResponseException;
@@ -54,19 +55,33 @@ public class OpenTsdbHttpQueryClient implements OpenTsdbQueryClient {
     }
 
     @Override
-    public List<MetricValue> query(String queryUrl) throws Exception {
+    public List<MetricValue> query(String queryUrl, Consumer<HttpGet> requestCallback) throws Exception {
         this.logger.debug("Query URL: " + queryUrl);
         URI encodedUrl = UrlUtils.encodeHttpUrl(queryUrl);
         this.logger.trace("Encoded query URL: " + encodedUrl);
 
-        String response = doGet(encodedUrl.toString());
+        String response = doGet(encodedUrl.toString(), requestCallback);
         List<MetricValue> metricValues = parseMetricValues(response);
         Collections.sort(metricValues);
         return metricValues;
     }
 
-    private String doGet(final String queryUrl) throws Exception {
-        HttpRequestResponse response = Http.builder().build().execute(new HttpGet(queryUrl));
+    @Override
+    public List<MetricValue> queryLast(String queryUrl, Consumer<HttpGet> requestCallback) throws Exception {
+        this.logger.debug("Last data point query URL: " + queryUrl);
+        URI encodedUrl = UrlUtils.encodeHttpUrl(queryUrl);
+        this.logger.trace("Encoded query URL: " + encodedUrl);
+
+        String response = doGet(encodedUrl.toString(), requestCallback);
+        List<MetricValue> metricValues = OpenTsdbMetricValueParser.parseLastDataPoints(response);
+        Collections.sort(metricValues);
+        return metricValues;
+    }
+
+    private String doGet(final String queryUrl, Consumer<HttpGet> requestCallback) throws Exception {
+        HttpGet request = new HttpGet(queryUrl);
+        requestCallback.accept(request);
+        HttpRequestResponse response = Http.builder().build().execute(request);
         // check status code on response (should be 200)
         int statusCode = response.getStatusCode();
         if (statusCode != HttpStatus.SC_OK) {
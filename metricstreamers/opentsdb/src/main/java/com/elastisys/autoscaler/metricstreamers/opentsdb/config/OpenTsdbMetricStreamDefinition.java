@@ -16,6 +16,9 @@ import org.joda.time.Interval;
 import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpPolicy;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConversion;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConvertingMetricStream;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.OpenTsdbMetricStreamer;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.query.DownsamplingSpecification;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.query.MetricAggregator;
@@ -110,6 +113,42 @@ public class OpenTsdbMetricStreamDefinition {
      */
     private final TimeInterval queryChunkSize;
 
+    /**
+     * Controls how the metric stream catches up on a large gap in its data,
+     * such as after an OpenTSDB outage. May be <code>null</code>, in which
+     * case all data since the last observed value is fetched.
+     */
+    private final CatchUpPolicy catchUp;
+
+    /**
+     * When set, the stream feeds the change rate (per second) of the metric,
+     * calculated on the client side. Unlike {@link #convertToRate}, the rate
+     * is calculated across query boundaries and counter resets can be
+     * detected. Cannot be combined with {@link #convertToRate}. May be
+     * <code>null</code>.
+     *
+     * @see RateConvertingMetricStream
+     */
+    private final RateConversion rateConversion;
+
+    /**
+     * When <code>true</code>, the stream is polled in latest-only mode: each
+     * poll only fetches (and feeds) the most recent value of the metric, which
+     * is much cheaper than fetching all values since the previous poll. When
+     * possible (no down-sampling, server-side rate conversion or data settling
+     * time), the value is fetched from OpenTSDB's {@code /api/query/last}
+     * endpoint. May be <code>null</code>. Default: <code>false</code>.
+     */
+    private final Boolean latestOnly;
+
+    /**
+     * How late a value may show up in OpenTSDB (relative to the newest value
+     * delivered for the stream) and still be delivered, as a correction. Each
+     * poll reaches back this far to pick up late arrivals. May be
+     * <code>null</code>, in which case late arrivals are dropped.
+     */
+    private final TimeInterval allowedLateness;
+
     /**
      * Constructs a new {@link OpenTsdbMetricStreamDefinition}.
      *
@@ -165,6 +204,188 @@ public class OpenTsdbMetricStreamDefinition {
     public OpenTsdbMetricStreamDefinition(String id, String metric, MetricAggregator aggregator, Boolean convertToRate,
             DownsamplingSpecification downsampling, Map<String, List<String>> tags, TimeInterval dataSettlingTime,
             TimeInterval queryChunkSize) {
+        this(id, metric, aggregator, convertToRate, downsampling, tags, dataSettlingTime, queryChunkSize, null);
+    }
+
+    /**
+     * Constructs a new {@link OpenTsdbMetricStreamDefinition}.
+     *
+     * @param id
+     *            The id of the metric stream. Required.
+     * @param metric
+     *            The OpenTSDB metric that the metric stream retrieves
+     *            {@link MetricValue}s for. Required.
+     * @param aggregator
+     *            The aggregation function used to aggregate {@link MetricValue}
+     *            s in the metric stream. Required.
+     * @param convertToRate
+     *            When <code>true</code> the stream will feed the change rate of
+     *            the metric, rather than the absolute values of the metric.
+     *            Optional. Default: {@link #DEFAULT_RATE_CONVERSION}.
+     * @param downsampling
+     *            The down-sampling to apply to {@link MetricValue}s in the
+     *            metric stream. May be <code>null</code>.
+     * @param tags
+     *            The collection of tags used to filter the {@link MetricValue}s
+     *            returned from the metric stream. May be <code>null</code>.
+     * @param dataSettlingTime
+     *            The minimum age (in seconds) of requested data points. If
+     *            <code>null</code>, a settling time of zero is assumed.
+     * @param queryChunkSize
+     *            The maximum time period that a single query against the
+     *            OpenTSDB server will attempt to fetch in a single call. May be
+     *            <code>null</code>. Default: {@value #DEFAULT_QUERY_CHUNK_SIZE}.
+     * @param catchUp
+     *            Controls how the metric stream catches up on a large gap in
+     *            its data, such as after an OpenTSDB outage. May be
+     *            <code>null</code>, in which case all data since the last
+     *            observed value is fetched.
+     */
+    public OpenTsdbMetricStreamDefinition(String id, String metric, MetricAggregator aggregator, Boolean convertToRate,
+            DownsamplingSpecification downsampling, Map<String, List<String>> tags, TimeInterval dataSettlingTime,
+            TimeInterval queryChunkSize, CatchUpPolicy catchUp) {
+        this(id, metric, aggregator, convertToRate, downsampling, tags, dataSettlingTime, queryChunkSize, catchUp,
+                null);
+    }
+
+    /**
+     * Constructs a new {@link OpenTsdbMetricStreamDefinition}.
+     *
+     * @param id
+     *            The id of the metric stream. Required.
+     * @param metric
+     *            The OpenTSDB metric that the metric stream retrieves
+     *            {@link MetricValue}s for. Required.
+     * @param aggregator
+     *            The aggregation function used to aggregate {@link MetricValue}
+     *            s in the metric stream. Required.
+     * @param convertToRate
+     *            When <code>true</code> the stream will feed the change rate of
+     *            the metric, as calculated by OpenTSDB. Optional. Default:
+     *            {@link #DEFAULT_RATE_CONVERSION}.
+     * @param downsampling
+     *            The down-sampling to apply to {@link MetricValue}s in the
+     *            metric stream. May be <code>null</code>.
+     * @param tags
+     *            The collection of tags used to filter the {@link MetricValue}s
+     *            returned from the metric stream. May be <code>null</code>.
+     * @param dataSettlingTime
+     *            The minimum age (in seconds) of requested data points. If
+     *            <code>null</code>, a settling time of zero is assumed.
+     * @param queryChunkSize
+     *            The maximum time period that a single query against the
+     *            OpenTSDB server will attempt to fetch in a single call. May be
+     *            <code>null</code>. Default: {@value #DEFAULT_QUERY_CHUNK_SIZE}.
+     * @param catchUp
+     *            Controls how the metric stream catches up on a large gap in
+     *            its data. May be <code>null</code>.
+     * @param rateConversion
+     *            When set, the stream feeds the change rate (per second) of
+     *            the metric, calculated on the client side. Cannot be combined
+     *            with {@code convertToRate}. May be <code>null</code>.
+     */
+    public OpenTsdbMetricStreamDefinition(String id, String metric, MetricAggregator aggregator, Boolean convertToRate,
+            DownsamplingSpecification downsampling, Map<String, List<String>> tags, TimeInterval dataSettlingTime,
+            TimeInterval queryChunkSize, CatchUpPolicy catchUp, RateConversion rateConversion) {
+        this(id, metric, aggregator, convertToRate, downsampling, tags, dataSettlingTime, queryChunkSize, catchUp,
+                rateConversion, null);
+    }
+
+    /**
+     * Constructs a new {@link OpenTsdbMetricStreamDefinition}.
+     *
+     * @param id
+     *            The id of the metric stream. Required.
+     * @param metric
+     *            The OpenTSDB metric that the metric stream retrieves
+     *            {@link MetricValue}s for. Required.
+     * @param aggregator
+     *            The aggregation function used to aggregate {@link MetricValue}
+     *            s in the metric stream. Required.
+     * @param convertToRate
+     *            When <code>true</code> the stream will feed the change rate of
+     *            the metric, as calculated by OpenTSDB. Optional. Default:
+     *            {@link #DEFAULT_RATE_CONVERSION}.
+     * @param downsampling
+     *            The down-sampling to apply to {@link MetricValue}s in the
+     *            metric stream. May be <code>null</code>.
+     * @param tags
+     *            The collection of tags used to filter the {@link MetricValue}s
+     *            returned from the metric stream. May be <code>null</code>.
+     * @param dataSettlingTime
+     *            The minimum age (in seconds) of requested data points. If
+     *            <code>null</code>, a settling time of zero is assumed.
+     * @param queryChunkSize
+     *            The maximum time period that a single query against the
+     *            OpenTSDB server will attempt to fetch in a single call. May be
+     *            <code>null</code>. Default: {@value #DEFAULT_QUERY_CHUNK_SIZE}.
+     * @param catchUp
+     *            Controls how the metric stream catches up on a large gap in
+     *            its data. May be <code>null</code>.
+     * @param rateConversion
+     *            When set, the stream feeds the change rate (per second) of
+     *            the metric, calculated on the client side. Cannot be combined
+     *            with {@code convertToRate}. May be <code>null</code>.
+     * @param latestOnly
+     *            When <code>true</code>, each poll only fetches the most
+     *            recent value of the metric. May be <code>null</code>.
+     *            Default: <code>false</code>.
+     */
+    public OpenTsdbMetricStreamDefinition(String id, String metric, MetricAggregator aggregator, Boolean convertToRate,
+            DownsamplingSpecification downsampling, Map<String, List<String>> tags, TimeInterval dataSettlingTime,
+            TimeInterval queryChunkSize, CatchUpPolicy catchUp, RateConversion rateConversion, Boolean latestOnly) {
+        this(id, metric, aggregator, convertToRate, downsampling, tags, dataSettlingTime, queryChunkSize, catchUp,
+                rateConversion, latestOnly, null);
+    }
+
+    /**
+     * Constructs a new {@link OpenTsdbMetricStreamDefinition}.
+     *
+     * @param id
+     *            The id of the metric stream. Required.
+     * @param metric
+     *            The OpenTSDB metric that the metric stream retrieves
+     *            {@link MetricValue}s for. Required.
+     * @param aggregator
+     *            The aggregation function used to aggregate {@link MetricValue}
+     *            s in the metric stream. Required.
+     * @param convertToRate
+     *            When <code>true</code> the stream will feed the change rate of
+     *            the metric, as calculated by OpenTSDB. Optional. Default:
+     *            {@link #DEFAULT_RATE_CONVERSION}.
+     * @param downsampling
+     *            The down-sampling to apply to {@link MetricValue}s in the
+     *            metric stream. May be <code>null</code>.
+     * @param tags
+     *            The collection of tags used to filter the {@link MetricValue}s
+     *            returned from the metric stream. May be <code>null</code>.
+     * @param dataSettlingTime
+     *            The minimum age (in seconds) of requested data points. If
+     *            <code>null</code>, a settling time of zero is assumed.
+     * @param queryChunkSize
+     *            The maximum time period that a single query against the
+     *            OpenTSDB server will attempt to fetch in a single call. May be
+     *            <code>null</code>. Default: {@value #DEFAULT_QUERY_CHUNK_SIZE}.
+     * @param catchUp
+     *            Controls how the metric stream catches up on a large gap in
+     *            its data. May be <code>null</code>.
+     * @param rateConversion
+     *            When set, the stream feeds the change rate (per second) of
+     *            the metric, calculated on the client side. Cannot be combined
+     *            with {@code convertToRate}. May be <code>null</code>.
+     * @param latestOnly
+     *            When <code>true</code>, each poll only fetches the most
+     *            recent value of the metric. May be <code>null</code>.
+     *            Default: <code>false</code>.
+     * @param allowedLateness
+     *            How late a value may show up and still be delivered, as a
+     *            correction. May be <code>null</code>, in which case late
+     *            arrivals are dropped.
+     */
+    public OpenTsdbMetricStreamDefinition(String id, String metric, MetricAggregator aggregator, Boolean convertToRate,
+            DownsamplingSpecification downsampling, Map<String, List<String>> tags, TimeInterval dataSettlingTime,
+            TimeInterval queryChunkSize, CatchUpPolicy catchUp, RateConversion rateConversion, Boolean latestOnly,
+            TimeInterval allowedLateness) {
         this.id = id;
         this.metric = metric;
         this.aggregator = aggregator;
@@ -173,6 +394,10 @@ public class OpenTsdbMetricStreamDefinition {
         this.tags = tags;
         this.dataSettlingTime = dataSettlingTime;
         this.queryChunkSize = queryChunkSize;
+        this.catchUp = catchUp;
+        this.rateConversion = rateConversion;
+        this.latestOnly = latestOnly;
+        this.allowedLateness = allowedLateness;
     }
 
     /**
@@ -272,6 +497,59 @@ public class OpenTsdbMetricStreamDefinition {
         return Optional.ofNullable(this.queryChunkSize).orElse(DEFAULT_QUERY_CHUNK_SIZE);
     }
 
+    /**
+     * Controls how the metric stream catches up on a large gap in its data,
+     * such as after an OpenTSDB outage.
+     *
+     * @return
+     */
+    public CatchUpPolicy getCatchUp() {
+        return Optional.ofNullable(this.catchUp).orElse(CatchUpPolicy.fetchAll());
+    }
+
+    /**
+     * The client-side rate conversion to apply to query results, if any.
+     *
+     * @return
+     */
+    public Optional<RateConversion> getRateConversion() {
+        return Optional.ofNullable(this.rateConversion);
+    }
+
+    /**
+     * <code>true</code> if the stream is to be polled in latest-only mode,
+     * where each poll only fetches the most recent value of the metric.
+     *
+     * @return
+     */
+    public boolean isLatestOnly() {
+        return Optional.ofNullable(this.latestOnly).orElse(false);
+    }
+
+    /**
+     * How late a value may show up (relative to the newest value delivered
+     * for the stream) and still be delivered, as a correction.
+     * {@link Optional#empty()} means that late arrivals are dropped.
+     *
+     * @return
+     */
+    public Optional<TimeInterval> getAllowedLateness() {
+        return Optional.ofNullable(this.allowedLateness);
+    }
+
+    /**
+     * Returns <code>true</code> if the most recent value of the stream can be
+     * fetched with a last data point query (see {@link #makeLastQuery(Interval)}).
+     * This is not the case for streams that are down-sampled, converted to
+     * rate by OpenTSDB, or that have a data settling time, since last data
+     * point queries always return raw, up-to-date values.
+     *
+     * @return
+     */
+    public boolean supportsLastQuery() {
+        return this.downsampling == null && !isConvertToRate() && getDataSettlingTime().getMillis() == 0;
+    }
+
     /**
      * Builds an OpenTSDB query string from this
      * {@link OpenTsdbMetricStreamDefinition}, or throws an exception in case
@@ -336,6 +614,30 @@ public class OpenTsdbMetricStreamDefinition {
         return builder.build();
     }
 
+    /**
+     * Builds an OpenTSDB query string for the most recent data point of each
+     * time-series of this {@link OpenTsdbMetricStreamDefinition}, to be sent to
+     * OpenTSDB's {@code /api/query/last} endpoint.
+     *
+     * @param interval
+     *            The time interval that the query is intended to cover. Limits
+     *            how far back in time OpenTSDB scans for data points.
+     * @return The query string. Note that the returned query is not a complete
+     *         URL. More specifically, it does not include the host/port-part of
+     *         a full URL.
+     * @throws RuntimeException
+     *             if a OpenTSDB query could not be built.
+     */
+    public String makeLastQuery(Interval interval) throws RuntimeException {
+        checkArgument(interval != null, "query interval cannot be null");
+
+        OpenTsdbQueryBuilder builder = new OpenTsdbQueryBuilder().withMetric(this.metric).withInterval(interval);
+        if (this.tags != null) {
+            builder.withTags(this.tags);
+        }
+        return builder.buildLastQuery();
+    }
+
     /**
      * Returns the current point in time before which data points can be
      * regarded as "settled" (according to the {@link #dataSettlingTime} of the
@@ -400,6 +702,10 @@ public class OpenTsdbMetricStreamDefinition {
             checkArgument(this.aggregator != null, "missing aggregator");
             checkArgument(getDataSettlingTime().getMillis() >= 0, "dataSettlingTime must be non-negative");
             checkArgument(getQueryChunkSize().getMillis() > 0, "queryChunkSize must be a non-zero duration");
+            getCatchUp().validate();
+            getAllowedLateness().ifPresent(TimeInterval::validate);
+            checkArgument(!(isConvertToRate() && getRateConversion().isPresent()),
+                    "convertToRate and rateConversion are mutually exclusive");
 
             getTags().forEach((key, value) -> ensureValidIdentifier(key));
 
@@ -412,7 +718,8 @@ public class OpenTsdbMetricStreamDefinition {
     @Override
     public int hashCode() {
         return Objects.hash(this.id, this.metric, this.aggregator, this.convertToRate, this.downsampling, this.tags,
-                this.dataSettlingTime, this.queryChunkSize);
+                this.dataSettlingTime, this.queryChunkSize, this.catchUp, this.rateConversion, isLatestOnly(),
+                this.allowedLateness);
     }
 
     @Override
@@ -424,7 +731,11 @@ public class OpenTsdbMetricStreamDefinition {
                     && Objects.equals(this.convertToRate, that.convertToRate)
                     && Objects.equals(this.downsampling, that.downsampling) && Objects.equals(this.tags, that.tags)
                     && Objects.equals(this.dataSettlingTime, that.dataSettlingTime)
-                    && Objects.equals(this.queryChunkSize, that.queryChunkSize);
+                    && Objects.equals(this.queryChunkSize, that.queryChunkSize)
+                    && Objects.equals(this.catchUp, that.catchUp)
+                    && Objects.equals(this.rateConversion, that.rateConversion)
+                    && Objects.equals(isLatestOnly(), that.isLatestOnly())
+                    && Objects.equals(this.allowedLateness, that.allowedLateness);
         }
         return false;
     }
@@ -458,7 +769,8 @@ public class OpenTsdbMetricStreamDefinition {
      */
     public OpenTsdbMetricStreamDefinition withDownsampling(DownsamplingSpecification downsampling) {
         return new OpenTsdbMetricStreamDefinition(this.id, this.metric, this.aggregator, this.convertToRate,
-                downsampling, this.tags, this.dataSettlingTime, this.queryChunkSize);
+                downsampling, this.tags, this.dataSettlingTime, this.queryChunkSize, this.catchUp,
+                this.rateConversion, this.latestOnly, this.allowedLateness);
     }
 
     /**
@@ -470,7 +782,8 @@ public class OpenTsdbMetricStreamDefinition {
      */
     public OpenTsdbMetricStreamDefinition withConverToRate(boolean convertToRate) {
         return new OpenTsdbMetricStreamDefinition(this.id, this.metric, this.aggregator, convertToRate,
-                this.downsampling, this.tags, this.dataSettlingTime, this.queryChunkSize);
+                this.downsampling, this.tags, this.dataSettlingTime, this.queryChunkSize, this.catchUp,
+                this.rateConversion, this.latestOnly, this.allowedLateness);
     }
 
     /**
@@ -482,7 +795,59 @@ public class OpenTsdbMetricStreamDefinition {
      */
     public OpenTsdbMetricStreamDefinition withTags(Map<String, List<String>> tags) {
         return new OpenTsdbMetricStreamDefinition(this.id, this.metric, this.aggregator, this.convertToRate,
-                this.downsampling, tags, this.dataSettlingTime, this.queryChunkSize);
+                this.downsampling, tags, this.dataSettlingTime, this.queryChunkSize, this.catchUp,
+                this.rateConversion, this.latestOnly, this.allowedLateness);
+    }
+
+    /**
+     * Creates a field-by-field copy of this object but sets a different
+     * catch-up policy in the returned copy.
+     *
+     * @param catchUp
+     * @return
+     */
+    public OpenTsdbMetricStreamDefinition withCatchUp(CatchUpPolicy catchUp) {
+        return new OpenTsdbMetricStreamDefinition(this.id, this.metric, this.aggregator, this.convertToRate,
+                this.downsampling, this.tags, this.dataSettlingTime, this.queryChunkSize, catchUp,
+                this.rateConversion, this.latestOnly, this.allowedLateness);
+    }
+
+    /**
+     * Creates a field-by-field copy of this object but sets a different
+     * client-side rate conversion in the returned copy.
+     *
+     * @param rateConversion
+     * @return
+     */
+    public OpenTsdbMetricStreamDefinition withRateConversion(RateConversion rateConversion) {
+        return new OpenTsdbMetricStreamDefinition(this.id, this.metric, this.aggregator, this.convertToRate,
+                this.downsampling, this.tags, this.dataSettlingTime, this.queryChunkSize, this.catchUp,
+                rateConversion, this.latestOnly, this.allowedLateness);
+    }
+
+    /**
+     * Creates a field-by-field copy of this object but sets a different
+     * latest-only mode in the returned copy.
+     *
+     * @param latestOnly
+     * @return
+     */
+    public OpenTsdbMetricStreamDefinition withLatestOnly(Boolean latestOnly) {
+        return new OpenTsdbMetricStreamDefinition(this.id, this.metric, this.aggregator, this.convertToRate,
+                this.downsampling, this.tags, this.dataSettlingTime, this.queryChunkSize, this.catchUp,
+                this.rateConversion, latestOnly, this.allowedLateness);
     }
 
+    /**
+     * Creates a field-by-field copy of this object but sets a different
+     * allowed lateness in the returned copy.
+     *
+     * @param allowedLateness
+     * @return
+     */
+    public OpenTsdbMetricStreamDefinition withAllowedLateness(TimeInterval allowedLateness) {
+        return new OpenTsdbMetricStreamDefinition(this.id, this.metric, this.aggregator, this.convertToRate,
+                this.downsampling, this.tags, this.dataSettlingTime, this.queryChunkSize, this.catchUp,
+                this.rateConversion, this.latestOnly, allowedLateness);
+    }
 }
@@ -10,6 +10,10 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.caching.QueryCacheConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.ChunkSizingConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.HedgingConfig;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.OpenTsdbMetricStreamer;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.json.types.TimeInterval;
@@ -43,6 +47,29 @@ public class OpenTsdbMetricStreamerConfig {
      * <code>null</code>.
      */
     private final List<OpenTsdbMetricStreamDefinition> metricStreams;
+    /**
+     * Controls when queries to the OpenTSDB server are to be suspended due to
+     * the server being unavailable. May be <code>null</code>, in which case
+     * default settings are used.
+     */
+    private final CircuitBreakerConfig circuitBreaker;
+    /**
+     * Settings for hedging slow queries with duplicate queries. May be
+     * <code>null</code>, in which case queries are not hedged.
+     */
+    private final HedgingConfig hedging;
+    /**
+     * Settings for adaptively sizing the chunks that long queries are broken
+     * into. May be <code>null</code>, in which case every chunk is
+     * {@code queryChunkSize} long.
+     */
+    private final ChunkSizingConfig chunkSizing;
+    /**
+     * Settings for caching already fetched historical data, so that queries
+     * for overlapping time intervals only fetch what has not been fetched
+     * before. May be <code>null</code>, in which case nothing is cached.
+     */
+    private final QueryCacheConfig queryCache;
 
     /**
      * Creates a new {@link OpenTsdbMetricStreamerConfig} with the specified
@@ -62,10 +89,137 @@ public class OpenTsdbMetricStreamerConfig {
      */
     public OpenTsdbMetricStreamerConfig(String openTsdbHost, Integer openTsdbPort, TimeInterval pollInterval,
             List<OpenTsdbMetricStreamDefinition> metricStreams) {
+        this(openTsdbHost, openTsdbPort, pollInterval, metricStreams, null);
+    }
+
+    /**
+     * Creates a new {@link OpenTsdbMetricStreamerConfig} with the specified
+     * configuration values.
+     *
+     * @param openTsdbHost
+     *            The host name or IP address of the OpenTSDB server to use.
+     * @param openTsdbPort
+     *            The IP port number of the OpenTSDB server to use. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_OPENTSDB_PORT}.
+     * @param pollInterval
+     *            The polling interval for metric streams. May be
+     *            <code>null</code>. Default is {@value #DEFAULT_POLL_INTERVAL}.
+     * @param metricStreams
+     *            The collection of published {@link MetricStream}s. May be
+     *            <code>null</code>.
+     * @param circuitBreaker
+     *            Controls when queries to the OpenTSDB server are to be
+     *            suspended due to the server being unavailable. May be
+     *            <code>null</code>, in which case default settings are used.
+     */
+    public OpenTsdbMetricStreamerConfig(String openTsdbHost, Integer openTsdbPort, TimeInterval pollInterval,
+            List<OpenTsdbMetricStreamDefinition> metricStreams, CircuitBreakerConfig circuitBreaker) {
+        this(openTsdbHost, openTsdbPort, pollInterval, metricStreams, circuitBreaker, null);
+    }
+
+    /**
+     * Creates a new {@link OpenTsdbMetricStreamerConfig} with the specified
+     * configuration values.
+     *
+     * @param openTsdbHost
+     *            The host name or IP address of the OpenTSDB server to use.
+     * @param openTsdbPort
+     *            The IP port number of the OpenTSDB server to use. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_OPENTSDB_PORT}.
+     * @param pollInterval
+     *            The polling interval for metric streams. May be
+     *            <code>null</code>. Default is {@value #DEFAULT_POLL_INTERVAL}.
+     * @param metricStreams
+     *            The collection of published {@link MetricStream}s. May be
+     *            <code>null</code>.
+     * @param circuitBreaker
+     *            Controls when queries to the OpenTSDB server are to be
+     *            suspended due to the server being unavailable. May be
+     *            <code>null</code>, in which case default settings are used.
+     * @param hedging
+     *            Settings for hedging slow queries with duplicate queries. May
+     *            be <code>null</code>, in which case queries are not hedged.
+     */
+    public OpenTsdbMetricStreamerConfig(String openTsdbHost, Integer openTsdbPort, TimeInterval pollInterval,
+            List<OpenTsdbMetricStreamDefinition> metricStreams, CircuitBreakerConfig circuitBreaker,
+            HedgingConfig hedging) {
+        this(openTsdbHost, openTsdbPort, pollInterval, metricStreams, circuitBreaker, hedging, null);
+    }
+
+    /**
+     * Creates a new {@link OpenTsdbMetricStreamerConfig} with the specified
+     * configuration values.
+     *
+     * @param openTsdbHost
+     *            The host name or IP address of the OpenTSDB server to use.
+     * @param openTsdbPort
+     *            The IP port number of the OpenTSDB server to use. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_OPENTSDB_PORT}.
+     * @param pollInterval
+     *            The polling interval for metric streams. May be
+     *            <code>null</code>. Default is {@value #DEFAULT_POLL_INTERVAL}.
+     * @param metricStreams
+     *            The collection of published {@link MetricStream}s. May be
+     *            <code>null</code>.
+     * @param circuitBreaker
+     *            Controls when queries to the OpenTSDB server are to be
+     *            suspended due to the server being unavailable. May be
+     *            <code>null</code>, in which case default settings are used.
+     * @param hedging
+     *            Settings for hedging slow queries with duplicate queries. May
+     *            be <code>null</code>, in which case queries are not hedged.
+     * @param chunkSizing
+     *            Settings for adaptively sizing the chunks that long queries
+     *            are broken into. May be <code>null</code>, in which case every
+     *            chunk is {@code queryChunkSize} long.
+     */
+    public OpenTsdbMetricStreamerConfig(String openTsdbHost, Integer openTsdbPort, TimeInterval pollInterval,
+            List<OpenTsdbMetricStreamDefinition> metricStreams, CircuitBreakerConfig circuitBreaker,
+            HedgingConfig hedging, ChunkSizingConfig chunkSizing) {
+        this(openTsdbHost, openTsdbPort, pollInterval, metricStreams, circuitBreaker, hedging, chunkSizing, null);
+    }
+
+    /**
+     * Creates a new {@link OpenTsdbMetricStreamerConfig} with the specified
+     * configuration values.
+     *
+     * @param openTsdbHost
+     *            The host name or IP address of the OpenTSDB server to use.
+     * @param openTsdbPort
+     *            The IP port number of the OpenTSDB server to use. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_OPENTSDB_PORT}.
+     * @param pollInterval
+     *            The polling interval for metric streams. May be
+     *            <code>null</code>. Default is {@value #DEFAULT_POLL_INTERVAL}.
+     * @param metricStreams
+     *            The collection of published {@link MetricStream}s. May be
+     *            <code>null</code>.
+     * @param circuitBreaker
+     *            Controls when queries to the OpenTSDB server are to be
+     *            suspended due to the server being unavailable. May be
+     *            <code>null</code>, in which case default settings are used.
+     * @param hedging
+     *            Settings for hedging slow queries with duplicate queries. May
+     *            be <code>null</code>, in which case queries are not hedged.
+     * @param chunkSizing
+     *            Settings for adaptively sizing the chunks that long queries
+     *            are broken into. May be <code>null</code>, in which case every
+     *            chunk is {@code queryChunkSize} long.
+     * @param queryCache
+     *            Settings for caching already fetched historical data. May be
+     *            <code>null</code>, in which case nothing is cached.
+     */
+    public OpenTsdbMetricStreamerConfig(String openTsdbHost, Integer openTsdbPort, TimeInterval pollInterval,
+            List<OpenTsdbMetricStreamDefinition> metricStreams, CircuitBreakerConfig circuitBreaker,
+            HedgingConfig hedging, ChunkSizingConfig chunkSizing, QueryCacheConfig queryCache) {
         this.openTsdbHost = openTsdbHost;
         this.openTsdbPort = openTsdbPort;
         this.pollInterval = pollInterval;
         this.metricStreams = metricStreams;
+        this.circuitBreaker = circuitBreaker;
+        this.hedging = hedging;
+        this.chunkSizing = chunkSizing;
+        this.queryCache = queryCache;
     }
 
     /**
@@ -104,6 +258,47 @@ public class OpenTsdbMetricStreamerConfig {
         return Optional.ofNullable(this.metricStreams).orElse(Collections.emptyList());
     }
 
+    /**
+     * Returns the settings that control when queries to the OpenTSDB server
+     * are to be suspended due to the server being unavailable.
+     *
+     * @return
+     */
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return Optional.ofNullable(this.circuitBreaker).orElse(CircuitBreakerConfig.defaultConfig());
+    }
+
+    /**
+     * Returns the settings for hedging slow queries with duplicate queries.
+     * {@link Optional#empty()} means that queries are not hedged.
+     *
+     * @return
+     */
+    public Optional<HedgingConfig> getHedging() {
+        return Optional.ofNullable(this.hedging);
+    }
+
+    /**
+     * Returns the settings for adaptively sizing the chunks that long queries
+     * are broken into. {@link Optional#empty()} means that every chunk is
+     * {@code queryChunkSize} long.
+     *
+     * @return
+     */
+    public Optional<ChunkSizingConfig> getChunkSizing() {
+        return Optional.ofNullable(this.chunkSizing);
+    }
+
+    /**
+     * Returns the settings for caching already fetched historical data.
+     * {@link Optional#empty()} means that nothing is cached.
+     *
+     * @return
+     */
+    public Optional<QueryCacheConfig> getQueryCache() {
+        return Optional.ofNullable(this.queryCache);
+    }
+
     /**
      * Returns a copy of this {@link OpenTsdbMetricStreamerConfig} with an
      * additional {@link OpenTsdbMetricStreamDefinition}. Note that the instance
@@ -119,7 +314,7 @@ public class OpenTsdbMetricStreamerConfig {
         List<OpenTsdbMetricStreamDefinition> newDefinitions = new ArrayList<>(this.metricStreams);
         newDefinitions.add(streamDefinition);
         return new OpenTsdbMetricStreamerConfig(this.openTsdbHost, this.openTsdbPort, this.pollInterval,
-                newDefinitions);
+                newDefinitions, this.circuitBreaker, this.hedging, this.chunkSizing, this.queryCache);
     }
 
     /**
@@ -137,6 +332,10 @@ public class OpenTsdbMetricStreamerConfig {
             for (OpenTsdbMetricStreamDefinition stream : getMetricStreams()) {
                 stream.validate();
             }
+            getCircuitBreaker().validate();
+            getHedging().ifPresent(HedgingConfig::validate);
+            getChunkSizing().ifPresent(ChunkSizingConfig::validate);
+            getQueryCache().ifPresent(QueryCacheConfig::validate);
         } catch (Exception e) {
             throw new IllegalArgumentException("metricStreamer: opentsdb: " + e.getMessage(), e);
         }
@@ -144,7 +343,8 @@ public class OpenTsdbMetricStreamerConfig {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.openTsdbHost, this.openTsdbPort, this.pollInterval, this.metricStreams);
+        return Objects.hash(this.openTsdbHost, this.openTsdbPort, this.pollInterval, this.metricStreams,
+                getCircuitBreaker(), this.hedging, this.chunkSizing, this.queryCache);
     }
 
     @Override
@@ -154,7 +354,11 @@ public class OpenTsdbMetricStreamerConfig {
             return Objects.equals(this.openTsdbHost, that.openTsdbHost)
                     && Objects.equals(this.openTsdbPort, that.openTsdbPort)
                     && Objects.equals(this.pollInterval, that.pollInterval)
-                    && Objects.equals(this.metricStreams, that.metricStreams);
+                    && Objects.equals(this.metricStreams, that.metricStreams)
+                    && Objects.equals(getCircuitBreaker(), that.getCircuitBreaker())
+                    && Objects.equals(this.hedging, that.hedging)
+                    && Objects.equals(this.chunkSizing, that.chunkSizing)
+                    && Objects.equals(this.queryCache, that.queryCache);
         }
         return false;
     }
@@ -2,8 +2,11 @@ package com.elastisys.autoscaler.metricstreamers.opentsdb.parser;
 
 import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -12,6 +15,9 @@ import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
 /**
  * Parses {@link MetricValue}s in OpenTSDB's ASCII format into
@@ -19,7 +25,8 @@ import com.elastisys.autoscaler.core.api.types.MetricValue;
  * <p/>
  * Refer to
  * <a href="http://opentsdb.net/http-api.html#/q_Output_formats">OpenTSDB output
- * formats</a> for more details.
+ * formats</a> for more details. Responses to last data point queries, which are
+ * always in JSON format, are parsed by {@link #parseLastDataPoints(String)}.
  */
 public class OpenTsdbMetricValueParser {
 
@@ -69,4 +76,37 @@ public class OpenTsdbMetricValueParser {
         return new MetricValue(metric, value, timestamp, tags);
     }
 
+    /**
+     * Parses the JSON response of an OpenTSDB last data point query (
+     * {@code /api/query/last}) into {@link MetricValue}s, one per matching
+     * time-series.
+     *
+     * @param json
+     *            The JSON response: an array of data point objects, each
+     *            carrying a {@code metric}, a {@code timestamp} (in
+     *            milliseconds), a {@code value} and (resolved) {@code tags}.
+     * @return The parsed {@link MetricValue}s.
+     */
+    public static List<MetricValue> parseLastDataPoints(String json) {
+        Objects.requireNonNull(json, "JSON response cannot be null");
+
+        List<MetricValue> values = new ArrayList<>();
+        for (JsonElement element : new JsonParser().parse(json).getAsJsonArray()) {
+            JsonObject datapoint = element.getAsJsonObject();
+            checkArgument(datapoint.has("metric") && datapoint.has("timestamp") && datapoint.has("value"),
+                    "last data point is missing one of metric, timestamp or value: %s", datapoint);
+
+            String metric = datapoint.get("metric").getAsString();
+            DateTime timestamp = new DateTime(datapoint.get("timestamp").getAsLong(), DateTimeZone.UTC);
+            double value = Double.parseDouble(datapoint.get("value").getAsString());
+            Map<String, String> tags = new HashMap<>();
+            if (datapoint.has("tags")) {
+                for (Entry<String, JsonElement> tag : datapoint.getAsJsonObject("tags").entrySet()) {
+                    tags.put(tag.getKey(), tag.getValue().getAsString());
+                }
+            }
+            values.add(new MetricValue(metric, value, timestamp, tags));
+        }
+        return values;
+    }
 }
@@ -315,6 +315,40 @@ public class OpenTsdbQueryBuilder {
         return sb.toString();
     }
 
+    /**
+     * Builds a query for the most recent data point of each time-series that
+     * matches the metric and tags of the {@link OpenTsdbQueryBuilder}, to be
+     * sent to OpenTSDB's {@code /api/query/last} endpoint. The start of the
+     * interval (if set) limits how far back in time OpenTSDB scans for data
+     * points. Aggregation, down-sampling and rate conversion do not apply to
+     * this kind of query.
+     * <p/>
+     * The response of a last data point query is a JSON document.
+     *
+     * @return The query string produced by the builder. As with
+     *         {@link #build()}, the host/port-part of the URL is not included.
+     * @throws RuntimeException
+     *             If the query could not be built.
+     */
+    public String buildLastQuery() throws RuntimeException {
+        Objects.requireNonNull(this.metric, "metric cannot be null");
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("/api/query/last?timeseries=").append(this.metric);
+        if (this.tags.isPresent()) {
+            sb.append('{');
+            sb.append(String.join(",", buildTagRecords(this.tags.get())));
+            sb.append('}');
+        }
+        if (this.interval.isPresent()) {
+            // back scan is specified in (whole) hours
+            long hours = TimeUnit.MILLISECONDS.toHours(this.interval.get().toDurationMillis()) + 1;
+            sb.append("&back_scan=").append(hours);
+        }
+        sb.append("&resolve=true");
+        return sb.toString();
+    }
+
     private List<String> buildTagRecords(Map<String, List<String>> tags) {
         Objects.requireNonNull(tags, "Tags cannot be null");
 
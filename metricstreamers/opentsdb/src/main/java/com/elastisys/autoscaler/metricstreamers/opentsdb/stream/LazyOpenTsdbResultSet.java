@@ -3,30 +3,41 @@ package com.elastisys.autoscaler.metricstreamers.opentsdb.stream;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import org.joda.time.Interval;
 import org.slf4j.Logger;
 
+import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.PageFetchException;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultPage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunks;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.SubQueryFactory;
 
 /**
  * A {@link QueryResultSet} that is comprised of a number of (sub)queries which
  * are fetched one-at-a-time when {@link #fetchNext()} is called.
+ * <p/>
+ * The time interval of each (sub)query is planned just before it is fetched,
+ * and the number of data points returned is reported back to the
+ * {@link QueryChunks}, so that chunk sizes can adapt to the density of the
+ * queried data.
  */
 public class LazyOpenTsdbResultSet implements QueryResultSet {
 
     private final Logger logger;
-    private final List<QueryCall> subQueries;
+    private final QueryChunks chunks;
+    private final SubQueryFactory<QueryCall> subQueries;
     private int nextQuery = 0;
 
-    public LazyOpenTsdbResultSet(Logger logger, List<QueryCall> subQueries) {
+    public LazyOpenTsdbResultSet(Logger logger, QueryChunks chunks, SubQueryFactory<QueryCall> subQueries) {
         this.logger = logger;
+        this.chunks = chunks;
         this.subQueries = subQueries;
     }
 
     @Override
     public boolean hasNext() {
-        return this.nextQuery < this.subQueries.size();
+        return this.chunks.hasNext();
     }
 
     @Override
@@ -35,10 +46,14 @@ public class LazyOpenTsdbResultSet implements QueryResultSet {
             throw new NoSuchElementException("result set has been exhausted");
         }
         int queryIndex = this.nextQuery++;
+        Interval chunk = this.chunks.next();
 
         try {
-            this.logger.debug("running subquery {} out of {}", queryIndex + 1, this.subQueries.size());
-            return new QueryResultPage(this.subQueries.get(queryIndex).call());
+            this.logger.debug("running subquery {} for {}", queryIndex + 1, chunk);
+            List<MetricValue> values = this.subQueries.create(chunk).call();
+            // response size is not known to the OpenTSDB client
+            this.chunks.observe(chunk, values.size(), -1);
+            return new QueryResultPage(values);
         } catch (Exception e) {
             throw new PageFetchException("failed to fetch result page: " + e.getMessage(), e);
         }
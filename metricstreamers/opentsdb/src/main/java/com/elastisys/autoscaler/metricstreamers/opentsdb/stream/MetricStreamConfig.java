@@ -69,6 +69,16 @@ public class MetricStreamConfig {
         return this.streamDefinition;
     }
 
+    /**
+     * Returns the base URL of the OpenTSDB server, such as
+     * {@code http://localhost:4242}.
+     *
+     * @return
+     */
+    public String getBaseUrl() {
+        return "http://" + this.host + ":" + this.port;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(this.host, this.port, this.streamDefinition);
@@ -1,23 +1,33 @@
 package com.elastisys.autoscaler.metricstreamers.opentsdb.stream;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.joda.time.DateTime;
 import org.joda.time.Duration;
 import org.joda.time.Interval;
 import org.slf4j.Logger;
 
+import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.EmptyResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunkPlanner;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunks;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerOpenException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.RequestHedger;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.client.OpenTsdbQueryClient;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.config.OpenTsdbMetricStreamDefinition;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.query.DownsamplingSpecification;
-import com.elastisys.scale.commons.util.time.TimeUtils;
+import com.elastisys.autoscaler.metricstreamers.opentsdb.query.MetricAggregator;
 
 /**
  * A {@link MetricStream} that retrieves values from an OpenTSDB server.
@@ -27,11 +37,33 @@ public class OpenTsdbMetricStream implements MetricStream {
     private final Logger logger;
     private final OpenTsdbQueryClient queryClient;
     private final MetricStreamConfig config;
+    /**
+     * Guards the queries sent to the OpenTSDB server. May be shared with other
+     * {@link MetricStream}s that query the same server.
+     */
+    private final CircuitBreaker circuitBreaker;
+    /** Hedges slow queries. May be shared with other {@link MetricStream}s. */
+    private final RequestHedger requestHedger;
+    /**
+     * Breaks long queries into chunks. May be shared with other
+     * {@link MetricStream}s.
+     */
+    private final QueryChunkPlanner chunkPlanner;
 
     public OpenTsdbMetricStream(Logger logger, OpenTsdbQueryClient queryClient, MetricStreamConfig config) {
+        this(logger, queryClient, config,
+                new CircuitBreaker(logger, config.getBaseUrl(), CircuitBreakerConfig.defaultConfig()),
+                RequestHedger.disabled(), new QueryChunkPlanner());
+    }
+
+    public OpenTsdbMetricStream(Logger logger, OpenTsdbQueryClient queryClient, MetricStreamConfig config,
+            CircuitBreaker circuitBreaker, RequestHedger requestHedger, QueryChunkPlanner chunkPlanner) {
         this.logger = logger;
         this.queryClient = queryClient;
         this.config = config;
+        this.circuitBreaker = circuitBreaker;
+        this.requestHedger = requestHedger;
+        this.chunkPlanner = chunkPlanner;
     }
 
     @Override
@@ -67,16 +99,102 @@ public class OpenTsdbMetricStream implements MetricStream {
                     new DownsamplingSpecification(customDownsampling.getInterval(), customDownsampling.getFunction()));
         }
 
+        ensureCallPermitted();
+
         // breaks query into chunks which are incrementally fetched in case of a
         // query spanning a long time-frame
-        List<Interval> subQueryIntervals = TimeUtils.splitInterval(interval, queryChunkSize());
-        List<QueryCall> subQueries = new ArrayList<>();
-        for (Interval subQueryInterval : subQueryIntervals) {
-            String queryUrl = buildQueryUrl(stream, subQueryInterval);
+        OpenTsdbMetricStreamDefinition queriedStream = stream;
+        QueryChunks chunks = this.chunkPlanner.split(getId(), interval, queryChunkSize());
+        return new LazyOpenTsdbResultSet(this.logger, chunks, chunk -> {
+            String queryUrl = buildQueryUrl(queriedStream, chunk);
             this.logger.debug("preparing (sub)query: {}", queryUrl);
-            subQueries.add(new QueryCall(this.queryClient, queryUrl, subQueryInterval));
+            return new QueryCall(this.queryClient, queryUrl, chunk, this.circuitBreaker, this.requestHedger, getId(),
+                    false);
+        });
+    }
+
+    /**
+     * Fetches the most recent value with a single last data point query (
+     * {@code /api/query/last}), when the stream definition allows it. The
+     * latest values of all matching time-series are aggregated on the client
+     * side, using the stream's {@link MetricAggregator}. Streams that are
+     * down-sampled, converted to rate by OpenTSDB, or that have a data settling
+     * time, fall back to a regular range query.
+     */
+    @Override
+    public Optional<MetricValue> queryLatest(Interval interval) throws MetricStreamException {
+        OpenTsdbMetricStreamDefinition stream = stream();
+        if (!stream.supportsLastQuery()) {
+            return MetricStream.super.queryLatest(interval);
+        }
+
+        ensureCallPermitted();
+
+        String queryUrl = this.config.getBaseUrl() + stream.makeLastQuery(interval);
+        this.logger.debug("preparing last data point query: {}", queryUrl);
+        List<MetricValue> values;
+        try {
+            values = new QueryCall(this.queryClient, queryUrl, interval, this.circuitBreaker, this.requestHedger,
+                    getId(), true).call();
+        } catch (Exception e) {
+            throw new MetricStreamException(String.format("failed to query OpenTSDB for latest value of stream %s: %s",
+                    getId(), e.getMessage()), e);
+        }
+        if (values.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(aggregate(stream.getMetric(), stream.getAggregator(), values));
+    }
+
+    /**
+     * Aggregates the latest values of a number of time-series into a single
+     * {@link MetricValue}, just like OpenTSDB would aggregate the series in a
+     * range query. The aggregate value carries the time stamp of the most
+     * recent value and the tags that all values have in common.
+     *
+     * @param metric
+     * @param aggregator
+     * @param values
+     *            The latest value of each time-series. Must not be empty.
+     * @return
+     */
+    static MetricValue aggregate(String metric, MetricAggregator aggregator, List<MetricValue> values) {
+        double aggregate;
+        switch (aggregator) {
+        case MIN:
+            aggregate = values.stream().mapToDouble(MetricValue::getValue).min().getAsDouble();
+            break;
+        case MAX:
+            aggregate = values.stream().mapToDouble(MetricValue::getValue).max().getAsDouble();
+            break;
+        case AVG:
+            aggregate = values.stream().mapToDouble(MetricValue::getValue).average().getAsDouble();
+            break;
+        case SUM:
+            aggregate = values.stream().mapToDouble(MetricValue::getValue).sum();
+            break;
+        default:
+            throw new IllegalArgumentException(String.format("unrecognized metric aggregator '%s'", aggregator));
+        }
+
+        Map<String, String> commonTags = new HashMap<>(values.get(0).getTags());
+        for (MetricValue value : values) {
+            commonTags.entrySet().retainAll(value.getTags().entrySet());
+        }
+        return new MetricValue(metric, aggregate, Collections.max(values).getTime(), commonTags);
+    }
+
+    /**
+     * Fails fast rather than preparing queries that would be rejected by the
+     * {@link CircuitBreaker}.
+     *
+     * @throws CircuitBreakerOpenException
+     */
+    private void ensureCallPermitted() throws CircuitBreakerOpenException {
+        if (!this.circuitBreaker.isCallPermitted()) {
+            throw new CircuitBreakerOpenException(
+                    String.format("not querying OpenTSDB for stream %s: %s", getId(), this.circuitBreaker));
         }
-        return new LazyOpenTsdbResultSet(this.logger, subQueries);
     }
 
     /**
@@ -92,7 +210,7 @@ public class OpenTsdbMetricStream implements MetricStream {
      */
     private String buildQueryUrl(OpenTsdbMetricStreamDefinition stream, Interval interval) {
         String query = stream.makeQuery(interval);
-        String queryUrl = "http://" + this.config.getHost() + ":" + this.config.getPort() + query;
+        String queryUrl = this.config.getBaseUrl() + query;
         return queryUrl;
     }
 
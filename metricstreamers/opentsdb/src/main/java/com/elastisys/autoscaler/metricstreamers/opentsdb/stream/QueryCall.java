@@ -1,17 +1,31 @@
 package com.elastisys.autoscaler.metricstreamers.opentsdb.stream;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.methods.HttpGet;
 import org.joda.time.Interval;
+import org.slf4j.LoggerFactory;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.RequestAttempt;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.RequestHedger;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.client.OpenTsdbQueryClient;
 
 /**
  * Executes a single remote query against a particular OpenTSDB server.
+ * <p/>
+ * The query is guarded by a {@link CircuitBreaker}. Connection failures and
+ * server errors (5xx) count as failures, whereas client errors (4xx) and other
+ * errors, which indicate a bad query rather than an unavailable server, do not.
+ * The query may be hedged by a {@link RequestHedger} when the server is slow to
+ * respond.
  */
 public class QueryCall implements Callable<List<MetricValue>> {
 
@@ -25,6 +39,17 @@ public class QueryCall implements Callable<List<MetricValue>> {
      * filtering out any data points outside of this interval.
      */
     private final Interval queryInterval;
+    /** Guards the query sent to the OpenTSDB server. */
+    private final CircuitBreaker circuitBreaker;
+    /** Hedges the query if the OpenTSDB server is slow to respond. */
+    private final RequestHedger requestHedger;
+    /** The metric stream that the query is made for. */
+    private final String streamId;
+    /**
+     * <code>true</code> if the query is a last data point query, to be
+     * executed via {@link OpenTsdbQueryClient#queryLast(String)}.
+     */
+    private final boolean lastQuery;
 
     /**
      * Creates a {@link QueryCall}.
@@ -40,14 +65,66 @@ public class QueryCall implements Callable<List<MetricValue>> {
      *            outside of this interval.
      */
     public QueryCall(OpenTsdbQueryClient queryClient, String queryUrl, Interval queryInterval) {
+        this(queryClient, queryUrl, queryInterval,
+                new CircuitBreaker(LoggerFactory.getLogger(QueryCall.class), queryUrl,
+                        CircuitBreakerConfig.defaultConfig()),
+                RequestHedger.disabled(), queryUrl, false);
+    }
+
+    /**
+     * Creates a {@link QueryCall}.
+     *
+     * @param queryClient
+     *            The client that will execute the query.
+     * @param queryUrl
+     *            The full OpenTSDB query URL.
+     * @param queryInterval
+     *            The interval that the query is intended to cover. OpenTSDB
+     *            sometimes returns to many data points, so the
+     *            {@link QueryCall} takes care of filtering out any data points
+     *            outside of this interval.
+     * @param circuitBreaker
+     *            Guards the query sent to the OpenTSDB server.
+     * @param requestHedger
+     *            Hedges the query if the OpenTSDB server is slow to respond.
+     * @param streamId
+     *            The metric stream that the query is made for.
+     * @param lastQuery
+     *            <code>true</code> if the query is a last data point query (
+     *            {@code /api/query/last}).
+     */
+    public QueryCall(OpenTsdbQueryClient queryClient, String queryUrl, Interval queryInterval,
+            CircuitBreaker circuitBreaker, RequestHedger requestHedger, String streamId, boolean lastQuery) {
         this.queryClient = queryClient;
         this.queryUrl = queryUrl;
         this.queryInterval = queryInterval;
+        this.circuitBreaker = circuitBreaker;
+        this.requestHedger = requestHedger;
+        this.streamId = streamId;
+        this.lastQuery = lastQuery;
     }
 
     @Override
     public List<MetricValue> call() throws Exception {
-        List<MetricValue> unfiltered = this.queryClient.query(this.queryUrl);
+        List<MetricValue> unfiltered;
+        this.circuitBreaker.acquirePermission();
+        try {
+            unfiltered = this.requestHedger.execute(this.streamId, () -> new QueryAttempt());
+            this.circuitBreaker.onSuccess();
+        } catch (HttpResponseException e) {
+            if (e.getStatusCode() >= 500) {
+                this.circuitBreaker.onFailure(e);
+            } else {
+                this.circuitBreaker.onSuccess();
+            }
+            throw e;
+        } catch (IOException e) {
+            this.circuitBreaker.onFailure(e);
+            throw e;
+        } catch (Exception e) {
+            this.circuitBreaker.onSuccess();
+            throw e;
+        }
         // OpenTSDB has a habit of returning too many data points.
         // Only include the ones within the query interval.
         List<MetricValue> filtered = unfiltered.stream()
@@ -56,4 +133,40 @@ public class QueryCall implements Callable<List<MetricValue>> {
         return filtered;
     }
 
+    /**
+     * A single attempt at running the query, whose HTTP request can be
+     * aborted if a hedged request completes first.
+     */
+    private class QueryAttempt implements RequestAttempt<List<MetricValue>> {
+        /** The HTTP request of the attempt, once it has been created. */
+        private volatile HttpGet request;
+        /** <code>true</code> if the attempt has been aborted. */
+        private volatile boolean aborted = false;
+
+        @Override
+        public List<MetricValue> execute() throws Exception {
+            if (QueryCall.this.lastQuery) {
+                return QueryCall.this.queryClient.queryLast(QueryCall.this.queryUrl, this::onRequest);
+            }
+            return QueryCall.this.queryClient.query(QueryCall.this.queryUrl, this::onRequest);
+        }
+
+        @Override
+        public void abort() {
+            this.aborted = true;
+            HttpGet request = this.request;
+            if (request != null) {
+                request.abort();
+            }
+        }
+
+        private void onRequest(HttpGet request) {
+            this.request = request;
+            // abort a request that is created after the attempt was aborted
+            if (this.aborted) {
+                request.abort();
+            }
+        }
+    }
+
 }
@@ -18,6 +18,7 @@ import org.joda.time.Interval;
 import org.junit.Test;
 
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.DownsampleFunction;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.rate.RateConversion;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.query.DownsamplingSpecification;
 import com.elastisys.autoscaler.metricstreamers.opentsdb.query.MetricAggregator;
 import com.elastisys.scale.commons.json.JsonUtils;
@@ -134,6 +135,15 @@ public class TestOpenTsdbMetricStreamDefinition {
                 DATA_SETTLING_TIME, illegalQueryChunkSize).validate();
     }
 
+    /**
+     * Server-side and client-side rate conversion cannot be combined.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void validateWithBothServerSideAndClientSideRateConversion() {
+        new OpenTsdbMetricStreamDefinition(ID, METRIC, MetricAggregator.MAX, true, DOWNSAMPLE, TAGS,
+                DATA_SETTLING_TIME, QUERY_CHUNK_SIZE, null, RateConversion.COUNTER).validate();
+    }
+
     /**
      * Tag keys must be valid opentsdb identifiers.
      */
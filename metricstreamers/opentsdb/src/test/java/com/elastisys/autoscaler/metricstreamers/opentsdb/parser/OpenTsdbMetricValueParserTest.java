@@ -2,7 +2,9 @@ package com.elastisys.autoscaler.metricstreamers.opentsdb.parser;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.joda.time.DateTime;
@@ -115,4 +117,27 @@ public class OpenTsdbMetricValueParserTest {
         OpenTsdbMetricValueParser.parseMetricValue("invaild.foo 12345 1.2 foo=a bar=b foo=c");
     }
 
+    /**
+     * Tests that a (resolved) response to a last data point query is parsed
+     * into one {@link MetricValue} per time-series.
+     */
+    @Test
+    public void parseLastDataPoints() {
+        String json = "[{\"metric\":\"proc.stat.cpu\",\"timestamp\":1297574486000,\"value\":\"54.2\","
+                + "\"tags\":{\"host\":\"foo\"},\"tsuid\":\"000001000001000001\"},"
+                + "{\"metric\":\"proc.stat.cpu\",\"timestamp\":1297574490000,\"value\":\"12\","
+                + "\"tags\":{\"host\":\"bar\"},\"tsuid\":\"000001000001000002\"}]";
+
+        Map<String, String> fooTags = new HashMap<>();
+        fooTags.put("host", "foo");
+        Map<String, String> barTags = new HashMap<>();
+        barTags.put("host", "bar");
+        List<MetricValue> expected = Arrays.asList(
+                new MetricValue("proc.stat.cpu", 54.2, new DateTime(1297574486000l, DateTimeZone.UTC), fooTags),
+                new MetricValue("proc.stat.cpu", 12.0, new DateTime(1297574490000l, DateTimeZone.UTC), barTags));
+
+        assertEquals(expected, OpenTsdbMetricValueParser.parseLastDataPoints(json));
+        assertEquals(Arrays.asList(), OpenTsdbMetricValueParser.parseLastDataPoints("[]"));
+    }
+
 }
@@ -199,6 +199,24 @@ public class TestOpenTsdbQueryBuilder {
         assertThat(actualQuery, equalTo(expectedQuery));
     }
 
+    @Test
+    public void lastDataPointQuery() {
+        String actualQuery = new OpenTsdbQueryBuilder().withMetric(METRIC).buildLastQuery();
+        assertThat(actualQuery, equalTo("/api/query/last?timeseries=proc.stat.cpu&resolve=true"));
+
+        // with tags
+        Map<String, List<String>> tags = Maps.of("host", Arrays.asList("foo"));
+        actualQuery = new OpenTsdbQueryBuilder().withMetric(METRIC).withTags(tags).buildLastQuery();
+        assertThat(actualQuery, equalTo("/api/query/last?timeseries=proc.stat.cpu{host=foo}&resolve=true"));
+
+        // with interval: back scan should cover the interval in whole hours
+        DateTime start = new DateTime("2013-03-18T22:30:00Z", DateTimeZone.UTC);
+        DateTime end = new DateTime("2013-03-19T00:00:00Z", DateTimeZone.UTC);
+        actualQuery = new OpenTsdbQueryBuilder().withMetric(METRIC).withInterval(new Interval(start, end))
+                .buildLastQuery();
+        assertThat(actualQuery, equalTo("/api/query/last?timeseries=proc.stat.cpu&back_scan=2&resolve=true"));
+    }
+
     private String correctQueryString(final Optional<String> intervalSpecification, final String metricSpecification) {
         if (intervalSpecification.isPresent()) {
             return "/q?" + intervalSpecification.get() + "&" + metricSpecification + "&ascii&nocache";
@@ -5,7 +5,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -16,6 +18,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import org.joda.time.DateTime;
@@ -69,7 +72,8 @@ public class TestOpenTsdbMetricStream {
         QueryResultSet resultSet = metricStream.query(lastFiveMins(), null);
         resultSet.fetchNext();
         verify(this.clientMock).query(
-                "http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:requests&ascii&nocache");
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:requests&ascii&nocache"),
+                any());
 
         // with rate conversion
         metricStream = new OpenTsdbMetricStream(LOG, this.clientMock,
@@ -77,7 +81,8 @@ public class TestOpenTsdbMetricStream {
         resultSet = metricStream.query(lastFiveMins(), null);
         resultSet.fetchNext();
         verify(this.clientMock).query(
-                "http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:rate:requests&ascii&nocache");
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:rate:requests&ascii&nocache"),
+                any());
 
         // with downsampling
         metricStream = new OpenTsdbMetricStream(LOG, this.clientMock, new MetricStreamConfig("opentsdb", 4242,
@@ -86,7 +91,8 @@ public class TestOpenTsdbMetricStream {
         resultSet = metricStream.query(lastFiveMins(), null);
         resultSet.fetchNext();
         verify(this.clientMock).query(
-                "http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:600s-avg:requests&ascii&nocache");
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:600s-avg:requests&ascii&nocache"),
+                any());
 
         // with tags
         Map<String, List<String>> tags = Maps.of("backend", asList("SOURCE"));
@@ -95,7 +101,8 @@ public class TestOpenTsdbMetricStream {
         resultSet = metricStream.query(lastFiveMins(), null);
         resultSet.fetchNext();
         verify(this.clientMock).query(
-                "http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:requests{backend=SOURCE}&ascii&nocache");
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:requests{backend=SOURCE}&ascii&nocache"),
+                any());
     }
 
     /**
@@ -111,12 +118,12 @@ public class TestOpenTsdbMetricStream {
 
         // should handle empty response
         List<MetricValue> emptyResponse = values();
-        when(this.clientMock.query(anyString())).thenReturn(emptyResponse);
+        when(this.clientMock.query(anyString(), any())).thenReturn(emptyResponse);
         assertThat(metricStream.query(lastFiveMins(), null).fetchNext().getMetricValues(), is(emptyResponse));
 
         // should handle non-empty response
         List<MetricValue> response = values(value(1, 20), value(2, 10));
-        when(this.clientMock.query(anyString())).thenReturn(response);
+        when(this.clientMock.query(anyString(), any())).thenReturn(response);
         assertThat(metricStream.query(lastFiveMins(), null).fetchNext().getMetricValues(), is(response));
     }
 
@@ -135,7 +142,7 @@ public class TestOpenTsdbMetricStream {
         MetricValue value2 = value(2, 40);
         MetricValue value3 = value(3, 20);
         List<MetricValue> response = values(value3, value1, value2);
-        when(this.clientMock.query(anyString())).thenReturn(response);
+        when(this.clientMock.query(anyString(), any())).thenReturn(response);
 
         // make sure values are returned in order
         assertThat(metricStream.query(lastFiveMins(), null).fetchNext().getMetricValues(),
@@ -166,7 +173,7 @@ public class TestOpenTsdbMetricStream {
         MetricValue tooNewValue2 = value(7, 10);
         List<MetricValue> response = values(tooOldValue1, tooOldValue2, value1, value2, value3, tooNewValue1,
                 tooNewValue2);
-        when(this.clientMock.query(anyString())).thenReturn(response);
+        when(this.clientMock.query(anyString(), any())).thenReturn(response);
 
         // make sure only the data points within the requested interval are
         // returned.
@@ -195,7 +202,8 @@ public class TestOpenTsdbMetricStream {
         // present time 12:00:00 but be truncated at the data settling point
         // (now - 2min == 11:58:00)
         verify(this.clientMock).query(
-                "http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-11:58:00&m=sum:requests&ascii&nocache");
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-11:58:00&m=sum:requests&ascii&nocache"),
+                any());
     }
 
     /**
@@ -238,7 +246,8 @@ public class TestOpenTsdbMetricStream {
         assertTrue(resultSet.hasNext());
         resultSet.fetchNext();
         verify(this.clientMock).query(
-                "http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:requests&ascii&nocache");
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:requests&ascii&nocache"),
+                any());
 
         assertFalse(resultSet.hasNext());
     }
@@ -263,21 +272,24 @@ public class TestOpenTsdbMetricStream {
         assertTrue(resultSet.hasNext());
         resultSet.fetchNext();
         verify(this.clientMock).query(
-                "http://opentsdb:4242/q?tz=UTC&start=2017/01/01-09:00:00&end=2017/01/01-10:00:00&m=sum:requests&ascii&nocache");
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-09:00:00&end=2017/01/01-10:00:00&m=sum:requests&ascii&nocache"),
+                any());
         reset(this.clientMock);
 
         // second sub-query
         assertTrue(resultSet.hasNext());
         resultSet.fetchNext();
         verify(this.clientMock).query(
-                "http://opentsdb:4242/q?tz=UTC&start=2017/01/01-10:00:00&end=2017/01/01-11:00:00&m=sum:requests&ascii&nocache");
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-10:00:00&end=2017/01/01-11:00:00&m=sum:requests&ascii&nocache"),
+                any());
         reset(this.clientMock);
 
         // third sub-query
         assertTrue(resultSet.hasNext());
         resultSet.fetchNext();
         verify(this.clientMock).query(
-                "http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:00:00&end=2017/01/01-11:30:00&m=sum:requests&ascii&nocache");
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:00:00&end=2017/01/01-11:30:00&m=sum:requests&ascii&nocache"),
+                any());
         reset(this.clientMock);
 
         assertFalse(resultSet.hasNext());
@@ -302,7 +314,55 @@ public class TestOpenTsdbMetricStream {
         QueryResultSet resultSet = metricStream.query(lastFiveMins(), queryOptions);
         resultSet.fetchNext();
         verify(this.clientMock).query(
-                "http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:300s-max:requests&ascii&nocache");
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:300s-max:requests&ascii&nocache"),
+                any());
+    }
+
+    /**
+     * The latest value should be fetched with a last data point query and the
+     * latest values of all matching time-series should be aggregated.
+     */
+    @Test
+    public void queryLatest() throws Exception {
+        OpenTsdbMetricStreamDefinition basicStream = new OpenTsdbMetricStreamDefinition("requests.stream", "requests",
+                MetricAggregator.SUM, false, null, null, null, null);
+        OpenTsdbMetricStream metricStream = new OpenTsdbMetricStream(LOG, this.clientMock,
+                new MetricStreamConfig("opentsdb", 4242, basicStream));
+
+        MetricValue host1 = value(1, 20).withTag("host", "host1");
+        MetricValue host2 = value(2, 10).withTag("host", "host2");
+        // too old to be within query interval
+        MetricValue host3 = value(4, 600).withTag("host", "host3");
+        when(this.clientMock.queryLast(anyString(), any())).thenReturn(values(host1, host2, host3));
+
+        assertThat(metricStream.queryLatest(lastFiveMins()), is(Optional.of(value(3, 10))));
+        verify(this.clientMock)
+                .queryLast(eq("http://opentsdb:4242/api/query/last?timeseries=requests&back_scan=1&resolve=true"), any());
+
+        // no values
+        when(this.clientMock.queryLast(anyString(), any())).thenReturn(values());
+        assertThat(metricStream.queryLatest(lastFiveMins()), is(Optional.empty()));
+    }
+
+    /**
+     * Streams whose values are processed by OpenTSDB (for example,
+     * down-sampled) cannot use last data point queries, but should fall back
+     * to fetching the latest value with a regular query.
+     */
+    @Test
+    public void queryLatestWithDownsampling() throws Exception {
+        OpenTsdbMetricStreamDefinition basicStream = new OpenTsdbMetricStreamDefinition("requests.stream", "requests",
+                MetricAggregator.SUM, false, null, null, null, null);
+        DownsamplingSpecification downsampling = new DownsamplingSpecification(new TimeInterval(1L, TimeUnit.MINUTES),
+                DownsampleFunction.MEAN);
+        OpenTsdbMetricStream metricStream = new OpenTsdbMetricStream(LOG, this.clientMock,
+                new MetricStreamConfig("opentsdb", 4242, basicStream.withDownsampling(downsampling)));
+
+        when(this.clientMock.query(anyString(), any())).thenReturn(values(value(1, 120), value(2, 60)));
+        assertThat(metricStream.queryLatest(lastFiveMins()), is(Optional.of(value(2, 60))));
+        verify(this.clientMock).query(
+                eq("http://opentsdb:4242/q?tz=UTC&start=2017/01/01-11:55:00&end=2017/01/01-12:00:00&m=sum:60s-avg:requests&ascii&nocache"),
+                any());
     }
 
     /**
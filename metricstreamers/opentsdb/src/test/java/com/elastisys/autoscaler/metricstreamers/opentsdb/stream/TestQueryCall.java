@@ -0,0 +1,131 @@
+package com.elastisys.autoscaler.metricstreamers.opentsdb.stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.http.client.methods.HttpGet;
+import org.joda.time.Interval;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.RequestAttempt;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.hedging.RequestHedger;
+import com.elastisys.autoscaler.metricstreamers.opentsdb.client.OpenTsdbQueryClient;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link QueryCall} with a mocked query client and request
+ * hedger.
+ */
+public class TestQueryCall {
+    private static final Logger LOG = LoggerFactory.getLogger(TestQueryCall.class);
+
+    private static final String QUERY_URL = "http://opentsdb:4242/q?m=sum:requests&ascii&nocache";
+
+    private final OpenTsdbQueryClient clientMock = mock(OpenTsdbQueryClient.class);
+    private final RequestHedger hedgerMock = mock(RequestHedger.class);
+
+    /** The HTTP requests handed out by the mocked query client. */
+    private final List<HttpGet> sentRequests = new ArrayList<>();
+
+    @Before
+    public void onSetup() throws Exception {
+        FrozenTime.setFixed(UtcTime.parse("2017-01-01T12:00:00.000Z"));
+
+        // the mocked client hands out a request and fails if it is aborted
+        when(this.clientMock.query(anyString(), any())).thenAnswer(new Answer<List<MetricValue>>() {
+            @Override
+            public List<MetricValue> answer(InvocationOnMock invocation) throws Throwable {
+                @SuppressWarnings("unchecked")
+                Consumer<HttpGet> requestCallback = (Consumer<HttpGet>) invocation.getArguments()[1];
+                HttpGet request = new HttpGet(QUERY_URL);
+                TestQueryCall.this.sentRequests.add(request);
+                requestCallback.accept(request);
+                if (request.isAborted()) {
+                    throw new IOException("request aborted");
+                }
+                return new ArrayList<>();
+            }
+        });
+    }
+
+    /**
+     * Aborting a query attempt should abort its HTTP request.
+     */
+    @Test
+    public void abortRequest() throws Exception {
+        when(this.hedgerMock.execute(eq("requests.stream"), any())).thenAnswer(new Answer<List<MetricValue>>() {
+            @Override
+            public List<MetricValue> answer(InvocationOnMock invocation) throws Throwable {
+                @SuppressWarnings("unchecked")
+                Supplier<RequestAttempt<List<MetricValue>>> attempts = (Supplier<RequestAttempt<List<MetricValue>>>) invocation
+                        .getArguments()[1];
+                RequestAttempt<List<MetricValue>> attempt = attempts.get();
+                List<MetricValue> response = attempt.execute();
+                // a losing attempt is aborted after its request was sent
+                attempt.abort();
+                return response;
+            }
+        });
+
+        queryCall().call();
+        assertThat(this.sentRequests.size(), is(1));
+        assertTrue(this.sentRequests.get(0).isAborted());
+    }
+
+    /**
+     * A query attempt that is aborted before its HTTP request is created
+     * should abort the request as soon as it is created.
+     */
+    @Test
+    public void abortBeforeRequest() throws Exception {
+        when(this.hedgerMock.execute(eq("requests.stream"), any())).thenAnswer(new Answer<List<MetricValue>>() {
+            @Override
+            public List<MetricValue> answer(InvocationOnMock invocation) throws Throwable {
+                @SuppressWarnings("unchecked")
+                Supplier<RequestAttempt<List<MetricValue>>> attempts = (Supplier<RequestAttempt<List<MetricValue>>>) invocation
+                        .getArguments()[1];
+                RequestAttempt<List<MetricValue>> attempt = attempts.get();
+                attempt.abort();
+                return attempt.execute();
+            }
+        });
+
+        try {
+            queryCall().call();
+            fail("aborted query expected to fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertThat(this.sentRequests.size(), is(1));
+        assertTrue(this.sentRequests.get(0).isAborted());
+    }
+
+    private QueryCall queryCall() {
+        Interval lastFiveMins = new Interval(UtcTime.now().minusMinutes(5), UtcTime.now());
+        return new QueryCall(this.clientMock, QUERY_URL, lastFiveMins,
+                new CircuitBreaker(LOG, QUERY_URL, CircuitBreakerConfig.defaultConfig()), this.hedgerMock,
+                "requests.stream", false);
+    }
+}
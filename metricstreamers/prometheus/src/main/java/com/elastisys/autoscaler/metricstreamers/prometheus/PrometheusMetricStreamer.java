@@ -0,0 +1,277 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkState;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.api.types.ServiceStatus;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamDriver;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunkPlanner;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerRegistry;
+import com.elastisys.autoscaler.metricstreamers.prometheus.config.MetricStreamDefinition;
+import com.elastisys.autoscaler.metricstreamers.prometheus.config.PrometheusMetricStreamerConfig;
+import com.elastisys.autoscaler.metricstreamers.prometheus.stream.HttpClientFactory;
+import com.elastisys.autoscaler.metricstreamers.prometheus.stream.MetricStreamConfig;
+import com.elastisys.autoscaler.metricstreamers.prometheus.stream.PrometheusMetricStream;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * A {@link MetricStreamer} that operates against a Prometheus server.
+ */
+public class PrometheusMetricStreamer implements MetricStreamer<PrometheusMetricStreamerConfig> {
+
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+    private final EventBus eventBus;
+
+    /** The currently set configuration. */
+    private PrometheusMetricStreamerConfig config;
+    /**
+     * The {@link MetricStreamDriver} which collects metrics for each of the
+     * configured {@link MetricStream}s.
+     */
+    private MetricStreamDriver metricStreamDriver;
+    /**
+     * The HTTP client shared by all {@link MetricStream}s, which pools the
+     * connections to the Prometheus server. Replaced when re-configured with
+     * new security settings.
+     */
+    private CloseableHttpClient httpClient;
+    /**
+     * Circuit breakers for the Prometheus server endpoint queried by the
+     * {@link MetricStream}s. Retained across re-configurations.
+     */
+    private final CircuitBreakerRegistry circuitBreakers;
+    /**
+     * Plans the chunks of long queries for all {@link MetricStream}s. Retained
+     * across re-configurations.
+     */
+    private final QueryChunkPlanner chunkPlanner;
+
+    /**
+     * Creates a new instance. The new instance will be in an unconfigured and
+     * stopped state.
+     *
+     * @param logger
+     *            {@link Logger} to use.
+     * @param executor
+     *            Task execution service for performing work in separate
+     *            threads.
+     * @param eventBus
+     *            The {@link EventBus} on which to send out collected
+     *            {@link MetricValue}s.
+     */
+    @Inject
+    public PrometheusMetricStreamer(Logger logger, ScheduledExecutorService executor, EventBus eventBus) {
+        this.logger = logger;
+        this.executor = executor;
+        this.eventBus = eventBus;
+        this.circuitBreakers = new CircuitBreakerRegistry(logger);
+        this.chunkPlanner = new QueryChunkPlanner();
+    }
+
+    @Override
+    public void validate(PrometheusMetricStreamerConfig configuration) throws IllegalArgumentException {
+        checkArgument(configuration != null, "metricStreamer: missing configuration");
+        configuration.validate();
+    }
+
+    @Override
+    public void configure(PrometheusMetricStreamerConfig configuration) throws IllegalArgumentException {
+        validate(configuration);
+
+        if (configuration.equals(this.config)) {
+            this.logger.debug("no configuration changes. ignoring new config ...");
+            return;
+        }
+
+        Set<String> unchangedStreams = unchangedStreams(configuration);
+        MetricStreamDriver previousDriver = this.metricStreamDriver;
+        boolean needsRestart = isStarted();
+        if (needsRestart) {
+            stop();
+        }
+
+        // the http client is kept unless the security settings change, since
+        // it is still used by any taken over streams
+        CloseableHttpClient oldHttpClient = null;
+        if (this.config == null || !this.config.getSecurity().equals(configuration.getSecurity())) {
+            oldHttpClient = this.httpClient;
+            this.httpClient = HttpClientFactory.create(configuration.getSecurity());
+        }
+        this.config = configuration;
+        this.circuitBreakers.configure(configuration.getCircuitBreaker(), endpoints());
+        this.chunkPlanner.configure(Optional.empty(), streamIds());
+        TimeInterval firstQueryLookback = null;
+        this.metricStreamDriver = new MetricStreamDriver(this.logger, this.executor, this.eventBus, buildStreams(),
+                configuration.getPollInterval(), firstQueryLookback);
+        if (previousDriver != null) {
+            // keep streaming unchanged streams from where they were left off
+            this.metricStreamDriver.takeOver(previousDriver, unchangedStreams);
+        }
+        closeQuietly(oldHttpClient);
+
+        if (needsRestart) {
+            start();
+        }
+    }
+
+    private List<MetricStream> buildStreams() {
+        List<MetricStream> metricStreams = new ArrayList<>();
+        for (MetricStreamConfig config : streamConfigs()) {
+            metricStreams.add(new PrometheusMetricStream(this.logger, config, this.httpClient,
+                    this.circuitBreakers.get(config.getBaseUrl()), this.chunkPlanner));
+        }
+        return metricStreams;
+    }
+
+    private List<MetricStreamConfig> streamConfigs() {
+        return streamConfigs(this.config);
+    }
+
+    private static List<MetricStreamConfig> streamConfigs(PrometheusMetricStreamerConfig config) {
+        List<MetricStreamConfig> streamConfigs = new ArrayList<>();
+        for (MetricStreamDefinition streamDefinition : config.getMetricStreams()) {
+            streamConfigs.add(new MetricStreamConfig(config.getHost(), config.getPort(), config.getSecurity(),
+                    streamDefinition));
+        }
+        return streamConfigs;
+    }
+
+    /**
+     * Returns the ids of the metric streams that are identically set up in the
+     * current and a new configuration. The re-configured
+     * {@link MetricStreamDriver} can take over such streams as they are.
+     *
+     * @param newConfig
+     * @return
+     */
+    private Set<String> unchangedStreams(PrometheusMetricStreamerConfig newConfig) {
+        if (this.config == null) {
+            return Collections.emptySet();
+        }
+        Set<MetricStreamConfig> currentStreams = new HashSet<>(streamConfigs());
+        return streamConfigs(newConfig).stream().filter(currentStreams::contains)
+                .map(stream -> stream.getStreamDefinition().getId()).collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the Prometheus server endpoints that are queried with the
+     * current configuration.
+     *
+     * @return
+     */
+    private List<String> endpoints() {
+        return streamConfigs().stream().map(MetricStreamConfig::getBaseUrl).distinct().collect(Collectors.toList());
+    }
+
+    private List<String> streamIds() {
+        return this.config.getMetricStreams().stream().map(MetricStreamDefinition::getId)
+                .collect(Collectors.toList());
+    }
+
+    private void closeQuietly(CloseableHttpClient httpClient) {
+        if (httpClient == null) {
+            return;
+        }
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            this.logger.warn("failed to close http client: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public PrometheusMetricStreamerConfig getConfiguration() {
+        return this.config;
+    }
+
+    @Override
+    public void start() throws IllegalStateException {
+        ensureConfigured();
+        if (isStarted()) {
+            return;
+        }
+        this.metricStreamDriver.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        this.metricStreamDriver.stop();
+    }
+
+    @Override
+    public ServiceStatus getStatus() {
+        return new ServiceStatus.Builder().started(isStarted()).lastFault(this.circuitBreakers.getOpenCircuitFault())
+                .build();
+    }
+
+    @Override
+    public Class<PrometheusMetricStreamerConfig> getConfigurationClass() {
+        return PrometheusMetricStreamerConfig.class;
+    }
+
+    @Override
+    public List<MetricStream> getMetricStreams() {
+        ensureConfigured();
+
+        return this.metricStreamDriver.getMetricStreams();
+    }
+
+    @Override
+    public MetricStream getMetricStream(String metricStreamId) throws IllegalArgumentException {
+        ensureConfigured();
+        for (MetricStream stream : getMetricStreams()) {
+            if (stream.getId().equals(metricStreamId)) {
+                return stream;
+            }
+        }
+        throw new IllegalArgumentException("unrecognized metric stream: " + metricStreamId);
+    }
+
+    @Override
+    public void fetch() throws MetricStreamException, IllegalStateException {
+        ensureStarted();
+        this.metricStreamDriver.fetch();
+    }
+
+    private void ensureConfigured() {
+        checkState(isConfigured(), "attempt to use metric streamer before being configured");
+    }
+
+    private void ensureStarted() {
+        ensureConfigured();
+        checkState(isStarted(), "attempt to use metric streamer before being started");
+    }
+
+    private boolean isStarted() {
+        return this.metricStreamDriver != null && this.metricStreamDriver.isStarted();
+    }
+
+    private boolean isConfigured() {
+        return this.config != null;
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Describes a {@link MetricStream} to be published by the
+ * {@code PrometheusMetricStreamer}. Values are fetched by evaluating a
+ * PromQL expression over the query interval via the Prometheus range query
+ * API ({@code /api/v1/query_range}).
+ *
+ * @see PrometheusMetricStreamerConfig
+ */
+public class MetricStreamDefinition {
+    /**
+     * The maximum number of points per time-series that Prometheus returns for
+     * a single range query.
+     */
+    public static final long MAX_POINTS_PER_SERIES = 11000L;
+    /** Default resolution of range queries, when none is specified. */
+    public static final TimeInterval DEFAULT_STEP = new TimeInterval(60L, TimeUnit.SECONDS);
+    /** Default value for {@link #queryChunkSize}. */
+    public static final TimeInterval DEFAULT_QUERY_CHUNK_SIZE = new TimeInterval(7L, TimeUnit.DAYS);
+
+    /**
+     * The id of the metric stream. This is the id that will be used by clients
+     * wishing to subscribe to this metric stream. Required.
+     */
+    private final String id;
+    /**
+     * The name of the metric produced by this metric stream. Optional. If left
+     * out, the {@link #id} value is used.
+     */
+    private final String metric;
+    /**
+     * The PromQL expression to evaluate, such as
+     * {@code sum(rate(http_requests_total{job="web"}[5m]))}. Required.
+     */
+    private final String query;
+    /**
+     * The resolution of range queries: the time between consecutive points of
+     * a returned time-series. Optional. Default: {@link #DEFAULT_STEP}. A query
+     * that is given a downsampling hint uses the downsampling interval as
+     * step.
+     */
+    private final TimeInterval step;
+    /**
+     * The minimum age of requested data points. When requesting recent
+     * aggregate metric data points, there is always a risk of seeing partial
+     * results. For example, when requesting the sum of the request rates of
+     * all servers, the values reported by some servers may not yet have been
+     * scraped. The data settling time prevents values from being fetched
+     * until they are older than this. May be <code>null</code>.
+     */
+    private final TimeInterval dataSettlingTime;
+    /**
+     * The maximum time period that a single query against Prometheus may
+     * cover. Queries over longer intervals are broken into several chunks.
+     * Optional. Default: {@link #DEFAULT_QUERY_CHUNK_SIZE}. Note that a chunk
+     * is further limited to {@link #MAX_POINTS_PER_SERIES} steps.
+     */
+    private final TimeInterval queryChunkSize;
+
+    /**
+     * Creates a {@link MetricStreamDefinition}.
+     *
+     * @param id
+     *            The id of the metric stream. This is the id that will be used
+     *            by clients wishing to subscribe to this metric stream.
+     *            Required.
+     * @param metric
+     *            The name of the metric produced by this metric stream.
+     *            Optional. If left out, the {@code id} value is used.
+     * @param query
+     *            The PromQL expression to evaluate. Required.
+     * @param step
+     *            The resolution of range queries. May be <code>null</code>.
+     * @param dataSettlingTime
+     *            The minimum age of requested data points. May be
+     *            <code>null</code>.
+     * @param queryChunkSize
+     *            The maximum time period that a single query against
+     *            Prometheus may cover. May be <code>null</code>.
+     */
+    public MetricStreamDefinition(String id, String metric, String query, TimeInterval step,
+            TimeInterval dataSettlingTime, TimeInterval queryChunkSize) {
+        this.id = id;
+        this.metric = metric;
+        this.query = query;
+        this.step = step;
+        this.dataSettlingTime = dataSettlingTime;
+        this.queryChunkSize = queryChunkSize;
+    }
+
+    /**
+     * The id of the metric stream. This is the id that will be used by clients
+     * wishing to subscribe to this metric stream.
+     *
+     * @return
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * The name of the metric produced by this metric stream.
+     *
+     * @return
+     */
+    public String getMetric() {
+        return Optional.ofNullable(this.metric).orElse(this.id);
+    }
+
+    /**
+     * The PromQL expression to evaluate.
+     *
+     * @return
+     */
+    public String getQuery() {
+        return this.query;
+    }
+
+    /**
+     * The resolution of range queries: the time between consecutive points of
+     * a returned time-series.
+     *
+     * @return
+     */
+    public TimeInterval getStep() {
+        return Optional.ofNullable(this.step).orElse(DEFAULT_STEP);
+    }
+
+    /**
+     * The minimum age of requested data points. May be <code>null</code>.
+     *
+     * @return
+     */
+    public TimeInterval getDataSettlingTime() {
+        return this.dataSettlingTime;
+    }
+
+    /**
+     * The maximum time period that a single query against Prometheus may
+     * cover.
+     *
+     * @return
+     */
+    public TimeInterval getQueryChunkSize() {
+        return Optional.ofNullable(this.queryChunkSize).orElse(DEFAULT_QUERY_CHUNK_SIZE);
+    }
+
+    /**
+     * Validates the configuration. Throws an {@link IllegalArgumentException}
+     * if validation fails.
+     */
+    public void validate() throws IllegalArgumentException {
+        try {
+            checkArgument(this.id != null, "no id specified");
+            checkArgument(this.query != null, "no query specified");
+            checkArgument(!this.query.trim().isEmpty(), "query cannot be empty string");
+            if (this.metric != null) {
+                checkArgument(!this.metric.isEmpty(), "metric cannot be empty string");
+            }
+            getStep().validate();
+            checkArgument(getStep().getMillis() > 0, "step must be a non-zero duration");
+            if (this.dataSettlingTime != null) {
+                try {
+                    this.dataSettlingTime.validate();
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("dataSettlingTime: " + e.getMessage(), e);
+                }
+            }
+            getQueryChunkSize().validate();
+            checkArgument(getQueryChunkSize().getMillis() > 0, "queryChunkSize must be a non-zero duration");
+        } catch (Exception e) {
+            throw new IllegalArgumentException("metricStream: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id, getMetric(), this.query, getStep(), this.dataSettlingTime,
+                getQueryChunkSize());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof MetricStreamDefinition) {
+            MetricStreamDefinition that = (MetricStreamDefinition) obj;
+            return Objects.equals(this.id, that.id) && Objects.equals(getMetric(), that.getMetric())
+                    && Objects.equals(this.query, that.query) && Objects.equals(getStep(), that.getStep())
+                    && Objects.equals(this.dataSettlingTime, that.dataSettlingTime)
+                    && Objects.equals(getQueryChunkSize(), that.getQueryChunkSize());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
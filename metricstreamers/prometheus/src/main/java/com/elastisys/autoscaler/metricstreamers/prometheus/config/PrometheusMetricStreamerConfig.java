@@ -0,0 +1,211 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.autoscaler.metricstreamers.prometheus.PrometheusMetricStreamer;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Represents a configuration for the {@link PrometheusMetricStreamer}.
+ *
+ * @see PrometheusMetricStreamer
+ */
+public class PrometheusMetricStreamerConfig {
+    /** Default poll interval when none is specified in configuration. */
+    static final TimeInterval DEFAULT_POLL_INTERVAL = new TimeInterval(30L, TimeUnit.SECONDS);
+
+    /** Prometheus server host name/IP address. Required. */
+    private final String host;
+    /** Prometheus server port. Required. */
+    private final int port;
+    /**
+     * Security settings for connecting with the server. Optional. If left out,
+     * the Prometheus server is assumed to run over HTTP and no client
+     * authentication will be used.
+     */
+    private final SecurityConfig security;
+
+    /**
+     * The polling interval for metric streams. Defaults to:
+     * {@link #DEFAULT_POLL_INTERVAL}.
+     */
+    private final TimeInterval pollInterval;
+
+    /**
+     * The collection of published {@link MetricStream}s. May be
+     * <code>null</code>.
+     */
+    private final List<MetricStreamDefinition> metricStreams;
+
+    /**
+     * Controls when queries to the Prometheus server are to be suspended due
+     * to the server being unavailable. May be <code>null</code>, in which case
+     * default settings are used.
+     */
+    private final CircuitBreakerConfig circuitBreaker;
+
+    /**
+     * Creates a {@link PrometheusMetricStreamerConfig} with default circuit
+     * breaker settings.
+     *
+     * @param host
+     *            Prometheus server host name/IP address. Required.
+     * @param port
+     *            Prometheus server port. Required.
+     * @param security
+     *            Security settings for connecting with the server. Optional. If
+     *            left out, the Prometheus server is assumed to run over HTTP
+     *            and no client authentication will be used.
+     * @param pollInterval
+     *            The polling interval for metric streams.
+     * @param metricStreams
+     *            The collection of published {@link MetricStream}s. May be
+     *            <code>null</code>.
+     */
+    public PrometheusMetricStreamerConfig(String host, int port, SecurityConfig security, TimeInterval pollInterval,
+            List<MetricStreamDefinition> metricStreams) {
+        this(host, port, security, pollInterval, metricStreams, null);
+    }
+
+    /**
+     * Creates a {@link PrometheusMetricStreamerConfig}.
+     *
+     * @param host
+     *            Prometheus server host name/IP address. Required.
+     * @param port
+     *            Prometheus server port. Required.
+     * @param security
+     *            Security settings for connecting with the server. Optional. If
+     *            left out, the Prometheus server is assumed to run over HTTP
+     *            and no client authentication will be used.
+     * @param pollInterval
+     *            The polling interval for metric streams.
+     * @param metricStreams
+     *            The collection of published {@link MetricStream}s. May be
+     *            <code>null</code>.
+     * @param circuitBreaker
+     *            Controls when queries to the Prometheus server are to be
+     *            suspended due to the server being unavailable. May be
+     *            <code>null</code>, in which case default settings are used.
+     */
+    public PrometheusMetricStreamerConfig(String host, int port, SecurityConfig security, TimeInterval pollInterval,
+            List<MetricStreamDefinition> metricStreams, CircuitBreakerConfig circuitBreaker) {
+        this.host = host;
+        this.port = port;
+        this.security = security;
+        this.pollInterval = pollInterval;
+        this.metricStreams = metricStreams;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Prometheus server host name/IP address.
+     *
+     * @return
+     */
+    public String getHost() {
+        return this.host;
+    }
+
+    /**
+     * Prometheus server port.
+     *
+     * @return
+     */
+    public int getPort() {
+        return this.port;
+    }
+
+    /**
+     * Security settings for connecting with the server. Optional. If left out,
+     * the Prometheus server is assumed to run over HTTP and no client
+     * authentication will be used.
+     *
+     * @return
+     */
+    public Optional<SecurityConfig> getSecurity() {
+        return Optional.ofNullable(this.security);
+    }
+
+    /**
+     * The polling interval for metric streams.
+     *
+     * @return
+     */
+    public TimeInterval getPollInterval() {
+        return Optional.ofNullable(this.pollInterval).orElse(DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * The collection of published {@link MetricStream}s.
+     *
+     * @return
+     */
+    public List<MetricStreamDefinition> getMetricStreams() {
+        return Optional.ofNullable(this.metricStreams).orElse(Collections.emptyList());
+    }
+
+    /**
+     * Controls when queries to the Prometheus server are to be suspended due
+     * to the server being unavailable.
+     *
+     * @return
+     */
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return Optional.ofNullable(this.circuitBreaker).orElse(CircuitBreakerConfig.defaultConfig());
+    }
+
+    public void validate() throws IllegalArgumentException {
+        try {
+            checkArgument(this.host != null, "no host given");
+            checkArgument(1 <= this.port && this.port <= 65535, "port must be in range [1,65535]");
+            if (this.security != null) {
+                this.security.validate();
+            }
+            getPollInterval().validate();
+            Set<String> streamIds = new HashSet<>();
+            for (MetricStreamDefinition stream : getMetricStreams()) {
+                stream.validate();
+                checkArgument(streamIds.add(stream.getId()), "duplicate metric stream id: %s", stream.getId());
+            }
+            getCircuitBreaker().validate();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("metricStreamer: prometheus: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.host, this.port, getSecurity(), getPollInterval(), this.metricStreams,
+                getCircuitBreaker());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PrometheusMetricStreamerConfig) {
+            PrometheusMetricStreamerConfig that = (PrometheusMetricStreamerConfig) obj;
+            return Objects.equals(this.host, that.host) && Objects.equals(this.port, that.port)
+                    && Objects.equals(getSecurity(), that.getSecurity())
+                    && Objects.equals(getPollInterval(), that.getPollInterval())
+                    && Objects.equals(this.metricStreams, that.metricStreams)
+                    && Objects.equals(getCircuitBreaker(), that.getCircuitBreaker());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+}
@@ -0,0 +1,227 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.parser;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.metricstreamers.prometheus.stream.errors.PrometheusQueryException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+/**
+ * Parses the JSON responses of the Prometheus query API into
+ * {@link MetricValue}s.
+ * <p/>
+ * The response is read as a stream of JSON tokens and each sample is converted
+ * to a {@link MetricValue} as soon as it has been read, so no intermediate
+ * JSON document tree is built. This keeps the memory footprint and garbage
+ * produced by large range query responses down. A range query response has the
+ * following structure:
+ *
+ * <pre>
+ * {
+ *   "status": "success",
+ *   "data": {
+ *     "resultType": "matrix",
+ *     "result": [
+ *       {
+ *         "metric": { "__name__": "up", "instance": "web-1:9100" },
+ *         "values": [ [ 1435781430.781, "1" ], [ 1435781445.781, "1" ] ]
+ *       }
+ *     ]
+ *   }
+ * }
+ * </pre>
+ *
+ * The labels of a time-series (except for {@code __name__}) become the tags of
+ * its {@link MetricValue}s. Samples that are not finite numbers ({@code NaN},
+ * {@code +Inf}, {@code -Inf}) are skipped. Instant query responses, in which
+ * each time-series carries a single {@code value}, are also accepted.
+ */
+public class QueryResponseParser {
+    /** The label that holds the metric name of a time-series. */
+    private static final String METRIC_NAME_LABEL = "__name__";
+
+    /**
+     * The metric name to set for the produced {@link MetricValue}s.
+     */
+    private final String metric;
+
+    /**
+     * Creates a {@link QueryResponseParser}.
+     *
+     * @param metric
+     *            The metric name to set for the produced {@link MetricValue}s.
+     */
+    public QueryResponseParser(String metric) {
+        this.metric = metric;
+    }
+
+    /**
+     * Parses a Prometheus query API response into {@link MetricValue}s.
+     *
+     * @param response
+     *            The JSON response. Not closed by this method.
+     * @return The {@link MetricValue}s of all time-series in the response.
+     * @throws PrometheusQueryException
+     *             If the response is an error response or is malformed.
+     * @throws IOException
+     *             If the response could not be read.
+     */
+    public List<MetricValue> parse(Reader response) throws PrometheusQueryException, IOException {
+        List<MetricValue> values = new ArrayList<>();
+        String status = null;
+        String errorType = null;
+        String error = null;
+
+        JsonReader reader = new JsonReader(response);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                case "status":
+                    status = reader.nextString();
+                    break;
+                case "errorType":
+                    errorType = reader.nextString();
+                    break;
+                case "error":
+                    error = reader.nextString();
+                    break;
+                case "data":
+                    parseData(reader, values);
+                    break;
+                default:
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new PrometheusQueryException("failed to parse prometheus response: " + e.getMessage(), e);
+        }
+
+        if (!"success".equals(status)) {
+            throw new PrometheusQueryException(
+                    format("prometheus query failed with status %s: %s: %s", status, errorType, error));
+        }
+        return values;
+    }
+
+    private void parseData(JsonReader reader, List<MetricValue> values) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("result") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    parseSeries(reader, values);
+                }
+                reader.endArray();
+            } else {
+                // resultType, or a scalar/string result
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Parses a single time-series and adds its samples to a list of values.
+     *
+     * @param reader
+     * @param values
+     * @throws IOException
+     */
+    private void parseSeries(JsonReader reader, List<MetricValue> values) throws IOException {
+        int firstSample = values.size();
+        Map<String, String> labels = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+            case "metric":
+                labels = parseLabels(reader);
+                break;
+            case "values":
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    parseSample(reader, labels, values);
+                }
+                reader.endArray();
+                break;
+            case "value":
+                parseSample(reader, labels, values);
+                break;
+            default:
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        // Prometheus writes the labels before the samples, but should they
+        // come after, the samples are tagged once the labels are known
+        if (labels != null && !labels.isEmpty()) {
+            for (int i = firstSample; i < values.size(); i++) {
+                MetricValue value = values.get(i);
+                if (value.getTags().isEmpty()) {
+                    values.set(i, value.withTags(labels));
+                }
+            }
+        }
+    }
+
+    private Map<String, String> parseLabels(JsonReader reader) throws IOException {
+        Map<String, String> labels = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String label = reader.nextName();
+            String value = reader.nextString();
+            if (!label.equals(METRIC_NAME_LABEL)) {
+                labels.put(label, value);
+            }
+        }
+        reader.endObject();
+        return Collections.unmodifiableMap(labels);
+    }
+
+    /**
+     * Parses a {@code [<unix time>, "<value>"]} sample.
+     *
+     * @param reader
+     * @param labels
+     *            The labels of the time-series. <code>null</code> if not yet
+     *            known.
+     * @param values
+     * @throws IOException
+     */
+    private void parseSample(JsonReader reader, Map<String, String> labels, List<MetricValue> values)
+            throws IOException {
+        reader.beginArray();
+        double seconds = reader.nextDouble();
+        String sample = reader.nextString();
+        reader.endArray();
+
+        if (sample.equals("NaN") || sample.endsWith("Inf")) {
+            return;
+        }
+        double value = Double.parseDouble(sample);
+        DateTime time = new DateTime(Math.round(seconds * 1000), DateTimeZone.UTC);
+        values.add(labels != null ? new MetricValue(this.metric, value, time, labels)
+                : new MetricValue(this.metric, value, time));
+    }
+}
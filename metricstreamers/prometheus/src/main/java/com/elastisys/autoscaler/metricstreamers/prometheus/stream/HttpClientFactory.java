@@ -0,0 +1,70 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.ssl.SSLContexts;
+
+import com.elastisys.autoscaler.metricstreamers.prometheus.config.SecurityConfig;
+import com.elastisys.scale.commons.net.ssl.BasicCredentials;
+
+/**
+ * Creates the HTTP clients used to query a Prometheus server.
+ * <p/>
+ * The created clients pool their connections, so that consecutive queries
+ * against the same server can reuse connections, and should be shared by all
+ * {@link PrometheusMetricStream}s that query the same server.
+ */
+public class HttpClientFactory {
+
+    private HttpClientFactory() {
+        throw new IllegalStateException("not instantiable");
+    }
+
+    /**
+     * Creates an HTTP client for connecting to Prometheus according to given
+     * security settings.
+     *
+     * @param security
+     *            Security settings for connecting with the server.
+     *            {@link Optional#empty()} means plain HTTP without client
+     *            authentication.
+     * @return
+     * @throws IllegalArgumentException
+     *             If the client could not be set up.
+     */
+    public static CloseableHttpClient create(Optional<SecurityConfig> security) throws IllegalArgumentException {
+        HttpClientBuilder builder = HttpClients.custom().useSystemProperties();
+        if (security.isPresent() && security.get().useHttps()) {
+            BasicCredentials auth = security.get().getAuth();
+            if (auth != null) {
+                // send credentials preemptively rather than awaiting a
+                // challenge, to save a round-trip per query
+                String credentials = auth.getUsername() + ":" + auth.getPassword();
+                String encoded = Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+                builder.setDefaultHeaders(
+                        Arrays.asList(new BasicHeader(HttpHeaders.AUTHORIZATION, "Basic " + encoded)));
+            }
+            if (!security.get().shouldVerifyCert()) {
+                try {
+                    builder.setSSLContext(
+                            SSLContexts.custom().loadTrustMaterial(null, (chain, authType) -> true).build());
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("failed to set up SSL context: " + e.getMessage(), e);
+                }
+            }
+            if (!security.get().shouldVerifyHost()) {
+                builder.setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE);
+            }
+        }
+        return builder.build();
+    }
+}
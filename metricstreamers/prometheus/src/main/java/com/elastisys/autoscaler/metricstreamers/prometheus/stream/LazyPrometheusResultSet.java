@@ -0,0 +1,62 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.stream;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.joda.time.Interval;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.PageFetchException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultPage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunks;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.SubQueryFactory;
+
+/**
+ * A {@link QueryResultSet} that is comprised of a number of (sub)queries which
+ * are fetched one-at-a-time when {@link #fetchNext()} is called.
+ * <p/>
+ * The time interval of each (sub)query is planned just before it is fetched,
+ * and the number of data points returned is reported back to the
+ * {@link QueryChunks}, so that chunk sizes can adapt to the density of the
+ * queried data.
+ */
+public class LazyPrometheusResultSet implements QueryResultSet {
+
+    private final Logger logger;
+    private final QueryChunks chunks;
+    private final SubQueryFactory<QueryCall> subQueries;
+    private int nextQuery = 0;
+
+    public LazyPrometheusResultSet(Logger logger, QueryChunks chunks, SubQueryFactory<QueryCall> subQueries) {
+        this.logger = logger;
+        this.chunks = chunks;
+        this.subQueries = subQueries;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.chunks.hasNext();
+    }
+
+    @Override
+    public QueryResultPage fetchNext() throws NoSuchElementException, PageFetchException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("result set has been exhausted");
+        }
+        int queryIndex = this.nextQuery++;
+        Interval chunk = this.chunks.next();
+
+        try {
+            this.logger.debug("running subquery {} for {}", queryIndex + 1, chunk);
+            List<MetricValue> values = this.subQueries.create(chunk).call();
+            // the response is parsed while streamed, so its size is not known
+            this.chunks.observe(chunk, values.size(), -1);
+            return new QueryResultPage(values);
+        } catch (Exception e) {
+            throw new PageFetchException("failed to fetch result page: " + e.getMessage(), e);
+        }
+    }
+
+}
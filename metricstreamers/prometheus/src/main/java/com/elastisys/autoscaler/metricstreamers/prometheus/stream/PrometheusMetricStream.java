@@ -0,0 +1,219 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.stream;
+
+import java.net.URI;
+import java.util.Optional;
+
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Duration;
+import org.joda.time.Interval;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.EmptyResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunkPlanner;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunks;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerOpenException;
+import com.elastisys.autoscaler.metricstreamers.prometheus.config.MetricStreamDefinition;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * A {@link MetricStream} that retrieves values from a Prometheus server via
+ * its range query API ({@code /api/v1/query_range}).
+ * <p/>
+ * Downsampling requested via {@link QueryOptions} is carried out by the
+ * Prometheus server: the downsampling interval is used as the {@code step} of
+ * the range query and the stream's expression is aggregated over each step
+ * (see {@link PrometheusQueryBuilder}). The evaluation points of a query are
+ * aligned on multiples of the step, so that consecutive queries evaluate (and
+ * aggregate) the same points.
+ */
+public class PrometheusMetricStream implements MetricStream {
+
+    private final Logger logger;
+    private final MetricStreamConfig config;
+    /**
+     * The client used to query the Prometheus server. May be shared with other
+     * {@link MetricStream}s that query the same server.
+     */
+    private final CloseableHttpClient httpClient;
+    /**
+     * Guards the queries sent to the Prometheus server. May be shared with
+     * other {@link MetricStream}s that query the same server.
+     */
+    private final CircuitBreaker circuitBreaker;
+    /**
+     * Breaks long queries into chunks. May be shared with other
+     * {@link MetricStream}s.
+     */
+    private final QueryChunkPlanner chunkPlanner;
+
+    /**
+     * Creates a {@link PrometheusMetricStream} with an HTTP client and a
+     * {@link CircuitBreaker} of its own.
+     *
+     * @param logger
+     * @param config
+     */
+    public PrometheusMetricStream(Logger logger, MetricStreamConfig config) {
+        this(logger, config, HttpClientFactory.create(config.getSecurity()),
+                new CircuitBreaker(logger, config.getBaseUrl(), CircuitBreakerConfig.defaultConfig()),
+                new QueryChunkPlanner());
+    }
+
+    /**
+     * Creates a {@link PrometheusMetricStream}.
+     *
+     * @param logger
+     * @param config
+     * @param httpClient
+     *            The client used to query the Prometheus server. May be
+     *            shared with other {@link MetricStream}s that query the same
+     *            server.
+     * @param circuitBreaker
+     *            Guards the queries sent to the Prometheus server. May be
+     *            shared with other {@link MetricStream}s that query the same
+     *            server.
+     * @param chunkPlanner
+     *            Breaks long queries into chunks. May be shared with other
+     *            {@link MetricStream}s.
+     */
+    public PrometheusMetricStream(Logger logger, MetricStreamConfig config, CloseableHttpClient httpClient,
+            CircuitBreaker circuitBreaker, QueryChunkPlanner chunkPlanner) {
+        this.logger = logger;
+        this.config = config;
+        this.httpClient = httpClient;
+        this.circuitBreaker = circuitBreaker;
+        this.chunkPlanner = chunkPlanner;
+    }
+
+    @Override
+    public String getId() {
+        return stream().getId();
+    }
+
+    @Override
+    public String getMetric() {
+        return stream().getMetric();
+    }
+
+    @Override
+    public QueryResultSet query(Interval interval, QueryOptions options) throws MetricStreamException {
+        MetricStreamDefinition streamDef = stream();
+
+        Optional<Interval> settledInterval = settledInterval(interval);
+        if (!settledInterval.isPresent()) {
+            return new EmptyResultSet();
+        }
+        interval = settledInterval.get();
+
+        Optional<Downsample> downsample = options != null ? options.getDownsample() : Optional.empty();
+        String expression = PrometheusQueryBuilder.buildExpression(streamDef, downsample);
+        TimeInterval step = PrometheusQueryBuilder.step(streamDef, downsample);
+        long stepMillis = step.getMillis();
+
+        // align the first evaluation point on a multiple of the step
+        long start = interval.getStartMillis();
+        long alignedStart = start % stepMillis == 0 ? start : start - start % stepMillis + stepMillis;
+        if (alignedStart > interval.getEndMillis()) {
+            return new EmptyResultSet();
+        }
+        Interval queryInterval = new Interval(new DateTime(alignedStart, DateTimeZone.UTC), interval.getEnd());
+
+        ensureCallPermitted();
+
+        // breaks query into chunks which are incrementally fetched in case of a
+        // query spanning a long time-frame. every chunk starts at an
+        // evaluation point, which is left out of the preceding chunk.
+        QueryChunks chunks = this.chunkPlanner.split(getId(), queryInterval, queryChunkSize(stepMillis));
+        return new LazyPrometheusResultSet(this.logger, chunks, chunk -> {
+            DateTime end = chunk.getEnd().equals(queryInterval.getEnd()) ? chunk.getEnd() : chunk.getEnd().minus(1);
+            URI queryUrl = queryUrl(expression, chunk.getStart(), end, step);
+            this.logger.debug("preparing (sub)query: {}", queryUrl);
+            return new QueryCall(this.logger, this.httpClient, queryUrl, streamDef.getMetric(), this.circuitBreaker);
+        });
+    }
+
+    /**
+     * Adjusts a query interval to not request too recent (unsettled) data,
+     * according to the stream's data settling time. Returns
+     * {@link Optional#empty()} if the entire interval is too recent.
+     *
+     * @param interval
+     * @return
+     */
+    private Optional<Interval> settledInterval(Interval interval) {
+        TimeInterval dataSettlingTime = stream().getDataSettlingTime();
+        if (dataSettlingTime == null) {
+            return Optional.of(interval);
+        }
+
+        DateTime dataSettledPoint = UtcTime.now().minus(dataSettlingTime.getMillis());
+        if (interval.isAfter(dataSettledPoint)) {
+            this.logger.info("ignoring prometheus metric retrieval: requested time interval {} requests data "
+                    + "more recent than the stream's data settling point {}", interval, dataSettledPoint);
+            return Optional.empty();
+        }
+        // adjust end of interval to not request too recent (unsettled) data
+        if (interval.getEnd().isAfter(dataSettledPoint)) {
+            this.logger.debug("adjusting query interval end to not exceed data settling point ({})",
+                    dataSettledPoint);
+            return Optional.of(new Interval(interval.getStart(), dataSettledPoint));
+        }
+        return Optional.of(interval);
+    }
+
+    /**
+     * Fails fast rather than preparing queries that would be rejected by the
+     * {@link CircuitBreaker}.
+     *
+     * @throws CircuitBreakerOpenException
+     */
+    private void ensureCallPermitted() throws CircuitBreakerOpenException {
+        if (!this.circuitBreaker.isCallPermitted()) {
+            throw new CircuitBreakerOpenException(
+                    String.format("not querying prometheus for stream %s: %s", getId(), this.circuitBreaker));
+        }
+    }
+
+    private URI queryUrl(String expression, DateTime start, DateTime end, TimeInterval step)
+            throws MetricStreamException {
+        try {
+            return new URIBuilder(this.config.getBaseUrl() + "/api/v1/query_range") //
+                    .addParameter("query", expression) //
+                    .addParameter("start", start.withZone(DateTimeZone.UTC).toString()) //
+                    .addParameter("end", end.withZone(DateTimeZone.UTC).toString()) //
+                    .addParameter("step", PrometheusQueryBuilder.duration(step)).build();
+        } catch (Exception e) {
+            throw new MetricStreamException("invalid prometheus query URL: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the size of query chunks: the stream's query chunk size, but no
+     * more than what keeps Prometheus below its limit of points per
+     * time-series, rounded down to a multiple of the step (so that every chunk
+     * starts at an evaluation point).
+     *
+     * @param stepMillis
+     * @return
+     */
+    private Duration queryChunkSize(long stepMillis) {
+        long maxChunkSize = Math.min(stream().getQueryChunkSize().getMillis(),
+                stepMillis * (MetricStreamDefinition.MAX_POINTS_PER_SERIES - 1));
+        return Duration.millis(Math.max(stepMillis, maxChunkSize - maxChunkSize % stepMillis));
+    }
+
+    private MetricStreamDefinition stream() {
+        return this.config.getStreamDefinition();
+    }
+}
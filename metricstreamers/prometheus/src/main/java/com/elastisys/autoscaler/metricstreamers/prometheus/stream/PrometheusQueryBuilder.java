@@ -0,0 +1,90 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.stream;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Optional;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.DownsampleFunction;
+import com.elastisys.autoscaler.metricstreamers.prometheus.config.MetricStreamDefinition;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * A builder of the PromQL expressions and parameters of Prometheus range
+ * queries, used by a {@link PrometheusMetricStream}.
+ *
+ * @see PrometheusMetricStream
+ */
+class PrometheusQueryBuilder {
+
+    /**
+     * Builds the PromQL expression to evaluate for a given metric stream.
+     * <p/>
+     * Without downsampling, the stream's expression is used as is. With
+     * downsampling, the stream's expression is wrapped in a subquery that
+     * aggregates it over each sampling interval with the
+     * {@code <aggregation>_over_time} function that corresponds to the
+     * {@link DownsampleFunction}. Together with a {@code step} equal to the
+     * sampling interval (see {@link #step(MetricStreamDefinition, Optional)}),
+     * this has Prometheus return a single, aggregated, point per sampling
+     * interval.
+     *
+     * @param stream
+     *            The metric stream that defines how to query Prometheus.
+     * @param downsample
+     *            Downsampling requested by the query hints, if any.
+     * @return
+     */
+    public static String buildExpression(MetricStreamDefinition stream, Optional<Downsample> downsample) {
+        checkArgument(stream != null, "buildExpression: stream cannot be null");
+        checkArgument(stream.getQuery() != null, "buildExpression: stream query cannot be null");
+        if (!downsample.isPresent()) {
+            return stream.getQuery();
+        }
+        return String.format("%s((%s)[%s:])", overTimeFunction(downsample.get().getFunction()), stream.getQuery(),
+                duration(downsample.get().getInterval()));
+    }
+
+    /**
+     * Returns the resolution of a range query for a given metric stream: the
+     * downsampling interval, if downsampling was requested, or else the step
+     * of the stream definition.
+     *
+     * @param stream
+     * @param downsample
+     * @return
+     */
+    public static TimeInterval step(MetricStreamDefinition stream, Optional<Downsample> downsample) {
+        return downsample.map(Downsample::getInterval).orElse(stream.getStep());
+    }
+
+    /**
+     * Formats a {@link TimeInterval} as a Prometheus duration, such as
+     * {@code 300s} or {@code 1500ms}.
+     *
+     * @param duration
+     * @return
+     */
+    public static String duration(TimeInterval duration) {
+        long millis = duration.getMillis();
+        if (millis % 1000 == 0) {
+            return (millis / 1000) + "s";
+        }
+        return millis + "ms";
+    }
+
+    private static String overTimeFunction(DownsampleFunction function) {
+        switch (function) {
+        case MIN:
+            return "min_over_time";
+        case MAX:
+            return "max_over_time";
+        case SUM:
+            return "sum_over_time";
+        case MEAN:
+            return "avg_over_time";
+        default:
+            throw new IllegalArgumentException(String.format("unrecognized downsample function '%s'", function));
+        }
+    }
+}
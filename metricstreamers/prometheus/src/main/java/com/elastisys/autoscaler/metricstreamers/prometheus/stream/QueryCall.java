@@ -0,0 +1,100 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.stream;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.autoscaler.metricstreamers.prometheus.parser.QueryResponseParser;
+import com.elastisys.autoscaler.metricstreamers.prometheus.stream.errors.PrometheusQueryException;
+
+/**
+ * Executes a single remote query against a particular Prometheus server.
+ * <p/>
+ * The response body is parsed into {@link MetricValue}s while it is being
+ * received, without first buffering it in memory.
+ * <p/>
+ * The query is guarded by a {@link CircuitBreaker}. Connection failures and
+ * server errors (5xx) count as failures, whereas client errors (4xx), which
+ * indicate a bad query rather than an unavailable server, do not.
+ */
+public class QueryCall implements Callable<List<MetricValue>> {
+    private final Logger logger;
+    private final CloseableHttpClient httpClient;
+    private final URI queryUrl;
+    private final String metric;
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * Creates a {@link QueryCall}.
+     *
+     * @param logger
+     * @param httpClient
+     *            The client that will execute the query.
+     * @param queryUrl
+     *            The full Prometheus query URL.
+     * @param metric
+     *            The metric name to set for the produced
+     *            {@link MetricValue}s.
+     * @param circuitBreaker
+     *            Guards the query sent to the Prometheus server.
+     */
+    public QueryCall(Logger logger, CloseableHttpClient httpClient, URI queryUrl, String metric,
+            CircuitBreaker circuitBreaker) {
+        this.logger = logger;
+        this.httpClient = httpClient;
+        this.queryUrl = queryUrl;
+        this.metric = metric;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public List<MetricValue> call() throws Exception {
+        this.circuitBreaker.acquirePermission();
+        this.logger.debug("sending query: {}", this.queryUrl);
+        try (CloseableHttpResponse response = this.httpClient.execute(new HttpGet(this.queryUrl))) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            List<MetricValue> values;
+            try {
+                // error responses also carry a json document, which holds the
+                // error message
+                values = parse(response.getEntity());
+            } catch (PrometheusQueryException e) {
+                if (statusCode >= 500) {
+                    this.circuitBreaker.onFailure(e);
+                } else {
+                    this.circuitBreaker.onSuccess();
+                }
+                throw new PrometheusQueryException(
+                        format("prometheus server responded with %d status code: %s", statusCode, e.getMessage()), e);
+            }
+            this.circuitBreaker.onSuccess();
+            return values;
+        } catch (IOException e) {
+            this.circuitBreaker.onFailure(e);
+            throw new PrometheusQueryException("failed to send query to prometheus: " + e.getMessage(), e);
+        }
+    }
+
+    private List<MetricValue> parse(HttpEntity entity) throws PrometheusQueryException, IOException {
+        if (entity == null) {
+            throw new PrometheusQueryException("empty response");
+        }
+        try (Reader body = new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8)) {
+            return new QueryResponseParser(this.metric).parse(body);
+        }
+    }
+}
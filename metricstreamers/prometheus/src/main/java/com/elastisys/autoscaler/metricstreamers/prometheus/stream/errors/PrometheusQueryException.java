@@ -0,0 +1,31 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.stream.errors;
+
+/**
+ * Thrown to indicate a problem with querying Prometheus, such as an error
+ * response to a malformed query (the details are in the message field of the
+ * exception).
+ */
+public class PrometheusQueryException extends RuntimeException {
+
+    public PrometheusQueryException() {
+        super();
+    }
+
+    public PrometheusQueryException(String message, Throwable cause, boolean enableSuppression,
+            boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+
+    public PrometheusQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public PrometheusQueryException(String message) {
+        super(message);
+    }
+
+    public PrometheusQueryException(Throwable cause) {
+        super(cause);
+    }
+
+}
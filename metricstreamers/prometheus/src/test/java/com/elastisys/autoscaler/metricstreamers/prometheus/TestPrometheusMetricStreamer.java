@@ -0,0 +1,182 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.metricstreamers.prometheus.config.MetricStreamDefinition;
+import com.elastisys.autoscaler.metricstreamers.prometheus.config.PrometheusMetricStreamerConfig;
+import com.elastisys.autoscaler.metricstreamers.prometheus.config.SecurityConfig;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.eventbus.impl.SynchronousEventBus;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercises the basic operations (configure/start/stop) of the
+ * {@link PrometheusMetricStreamer}.
+ */
+public class TestPrometheusMetricStreamer {
+    private static final Logger LOG = LoggerFactory.getLogger(TestPrometheusMetricStreamer.class);
+    private static final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+    private static final EventBus eventBus = new SynchronousEventBus(LOG);
+
+    /** Object under test. */
+    private PrometheusMetricStreamer metricStreamer;
+
+    @Before
+    public void beforeTestMethod() {
+        this.metricStreamer = new PrometheusMetricStreamer(LOG, executor, eventBus);
+    }
+
+    /**
+     * Make sure configuring produces the right {@link MetricStream}s.
+     */
+    @Test
+    public void configure() throws Exception {
+        assertThat(this.metricStreamer.getConfiguration(), is(nullValue()));
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STOPPED));
+
+        PrometheusMetricStreamerConfig config = config(minimalStreamDef("requests.stream", "http_requests_total"));
+        this.metricStreamer.configure(config);
+        assertThat(this.metricStreamer.getConfiguration(), is(config));
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STOPPED));
+
+        // check metric streams
+        assertThat(this.metricStreamer.getMetricStreams().size(), is(1));
+        assertThat(this.metricStreamer.getMetricStream("requests.stream").getMetric(), is("requests.stream"));
+    }
+
+    @Test
+    public void reconfigure() throws Exception {
+        PrometheusMetricStreamerConfig config = config(minimalStreamDef("requests.stream", "http_requests_total"));
+        this.metricStreamer.configure(config);
+        assertThat(this.metricStreamer.getConfiguration(), is(config));
+        assertThat(this.metricStreamer.getMetricStreams().size(), is(1));
+
+        PrometheusMetricStreamerConfig newConfig = config(
+                minimalStreamDef("cpu.system.stream", "node_cpu_seconds_total{mode=\"system\"}"),
+                minimalStreamDef("cpu.user.stream", "node_cpu_seconds_total{mode=\"user\"}"));
+        this.metricStreamer.configure(newConfig);
+        assertThat(this.metricStreamer.getConfiguration(), is(newConfig));
+        assertThat(this.metricStreamer.getMetricStreams().size(), is(2));
+    }
+
+    /**
+     * On re-configuration, metric streams that are unchanged should be kept,
+     * so that they can continue streaming from where they were left off.
+     */
+    @Test
+    public void reconfigureKeepsUnchangedStreams() throws Exception {
+        MetricStreamDefinition requests = minimalStreamDef("requests.stream", "http_requests_total");
+        MetricStreamDefinition cpu = minimalStreamDef("cpu.stream", "node_cpu_seconds_total");
+        this.metricStreamer.configure(config(requests, cpu));
+        MetricStream requestsStream = this.metricStreamer.getMetricStream("requests.stream");
+        MetricStream cpuStream = this.metricStreamer.getMetricStream("cpu.stream");
+
+        this.metricStreamer.configure(config(requests, minimalStreamDef("cpu.stream", "node_load1")));
+        assertThat(this.metricStreamer.getMetricStream("requests.stream"), is(sameInstance(requestsStream)));
+        assertThat(this.metricStreamer.getMetricStream("cpu.stream"), is(not(sameInstance(cpuStream))));
+    }
+
+    @Test
+    public void startAndStop() throws Exception {
+        PrometheusMetricStreamerConfig config = config(minimalStreamDef("requests.stream", "http_requests_total"));
+        this.metricStreamer.configure(config);
+        assertThat(this.metricStreamer.getConfiguration(), is(config));
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STOPPED));
+
+        // start
+        this.metricStreamer.start();
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STARTED));
+
+        // stop
+        this.metricStreamer.stop();
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STOPPED));
+        // stop should be idempotent
+        this.metricStreamer.stop();
+
+        // restart
+        this.metricStreamer.start();
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STARTED));
+        // start should be idempotent
+        this.metricStreamer.start();
+    }
+
+    /**
+     * A started metric streamer should be running after being re-configured.
+     */
+    @Test
+    public void reconfigureWhileStarted() throws Exception {
+        this.metricStreamer.configure(config(minimalStreamDef("requests.stream", "http_requests_total")));
+        this.metricStreamer.start();
+
+        this.metricStreamer.configure(config(minimalStreamDef("requests.stream", "rate(http_requests_total[1m])")));
+        assertThat(this.metricStreamer.getStatus().getState(), is(State.STARTED));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void startBeforeConfigured() {
+        this.metricStreamer.start();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getMetricStreamsBeforeConfigured() {
+        this.metricStreamer.getMetricStreams();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getMetricStreamBeforeConfigured() {
+        this.metricStreamer.getMetricStream("requests.stream");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fetchBeforeConfigured() {
+        this.metricStreamer.fetch();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fetchBeforeStarted() {
+        this.metricStreamer.configure(config(minimalStreamDef("requests.stream", "http_requests_total")));
+
+        this.metricStreamer.fetch();
+    }
+
+    private PrometheusMetricStreamerConfig config(MetricStreamDefinition... metricStreams) {
+        SecurityConfig security = null;
+        TimeInterval pollInterval = new TimeInterval(10L, TimeUnit.SECONDS);
+        return new PrometheusMetricStreamerConfig("prometheus", 9090, security, pollInterval,
+                Arrays.asList(metricStreams));
+    }
+
+    /**
+     * Creates a {@link MetricStreamDefinition} set up to query Prometheus with
+     * required parameters only.
+     *
+     * @param streamId
+     * @param query
+     * @return
+     */
+    private MetricStreamDefinition minimalStreamDef(String streamId, String query) {
+        String metric = null;
+        TimeInterval step = null;
+        TimeInterval dataSettlingTime = null;
+        TimeInterval queryChunkSize = null;
+
+        return new MetricStreamDefinition(streamId, metric, query, step, dataSettlingTime, queryChunkSize);
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercises the {@link MetricStreamDefinition}.
+ */
+public class TestMetricStreamDefinition {
+
+    private static final String QUERY = "sum(rate(http_requests_total[5m]))";
+
+    @Test
+    public void basicSanity() {
+        TimeInterval step = new TimeInterval(15L, TimeUnit.SECONDS);
+        TimeInterval dataSettlingTime = new TimeInterval(1L, TimeUnit.MINUTES);
+        TimeInterval queryChunkSize = new TimeInterval(1L, TimeUnit.DAYS);
+        MetricStreamDefinition stream = new MetricStreamDefinition("requests.stream", "requests", QUERY, step,
+                dataSettlingTime, queryChunkSize);
+        stream.validate();
+
+        assertThat(stream.getId(), is("requests.stream"));
+        assertThat(stream.getMetric(), is("requests"));
+        assertThat(stream.getQuery(), is(QUERY));
+        assertThat(stream.getStep(), is(step));
+        assertThat(stream.getDataSettlingTime(), is(dataSettlingTime));
+        assertThat(stream.getQueryChunkSize(), is(queryChunkSize));
+    }
+
+    /**
+     * Only id and query are required.
+     */
+    @Test
+    public void withDefaults() {
+        MetricStreamDefinition stream = new MetricStreamDefinition("requests.stream", null, QUERY, null, null, null);
+        stream.validate();
+
+        assertThat(stream.getMetric(), is("requests.stream"));
+        assertThat(stream.getStep(), is(MetricStreamDefinition.DEFAULT_STEP));
+        assertThat(stream.getDataSettlingTime(), is(nullValue()));
+        assertThat(stream.getQueryChunkSize(), is(MetricStreamDefinition.DEFAULT_QUERY_CHUNK_SIZE));
+    }
+
+    @Test
+    public void missingId() {
+        assertValidationFails(new MetricStreamDefinition(null, null, QUERY, null, null, null), "id");
+    }
+
+    @Test
+    public void missingQuery() {
+        assertValidationFails(new MetricStreamDefinition("id", null, null, null, null, null), "query");
+        assertValidationFails(new MetricStreamDefinition("id", null, " ", null, null, null), "query");
+    }
+
+    @Test
+    public void zeroStep() {
+        assertValidationFails(
+                new MetricStreamDefinition("id", null, QUERY, new TimeInterval(0L, TimeUnit.SECONDS), null, null),
+                "step");
+    }
+
+    private static void assertValidationFails(MetricStreamDefinition stream, String expectedMessage) {
+        try {
+            stream.validate();
+            fail("expected to fail validation");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("metricStream: "));
+            assertTrue(e.getMessage(), e.getMessage().contains(expectedMessage));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.config;
+
+import static com.elastisys.autoscaler.metricstreamers.prometheus.config.PrometheusMetricStreamerConfig.DEFAULT_POLL_INTERVAL;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercises {@link PrometheusMetricStreamerConfig}.
+ */
+public class TestPrometheusMetricStreamerConfig {
+
+    /**
+     * Verifies field access when specifying all fields, both mandatory and
+     * optional.
+     */
+    @Test
+    public void basicSanity() {
+        TimeInterval pollInterval = new TimeInterval(10L, TimeUnit.SECONDS);
+        SecurityConfig security = new SecurityConfig(true, null, true, true);
+        PrometheusMetricStreamerConfig config = new PrometheusMetricStreamerConfig("host", 9090, security,
+                pollInterval, validStreams());
+        config.validate();
+
+        assertThat(config.getHost(), is("host"));
+        assertThat(config.getPort(), is(9090));
+        assertThat(config.getSecurity().get(), is(security));
+        assertThat(config.getPollInterval(), is(pollInterval));
+        assertThat(config.getMetricStreams(), is(validStreams()));
+        assertThat(config.getCircuitBreaker(), is(CircuitBreakerConfig.defaultConfig()));
+    }
+
+    /**
+     * Only host and port are required.
+     */
+    @Test
+    public void withoutOptionalFields() {
+        SecurityConfig security = null;
+        TimeInterval pollInterval = null;
+        List<MetricStreamDefinition> streams = null;
+        PrometheusMetricStreamerConfig config = new PrometheusMetricStreamerConfig("host", 9090, security,
+                pollInterval, streams);
+        config.validate();
+
+        assertThat(config.getSecurity().isPresent(), is(false));
+        assertThat(config.getPollInterval(), is(DEFAULT_POLL_INTERVAL));
+        assertThat(config.getMetricStreams(), is(Collections.emptyList()));
+    }
+
+    @Test
+    public void missingHost() {
+        assertValidationFails(new PrometheusMetricStreamerConfig(null, 9090, null, null, null), "host");
+    }
+
+    @Test
+    public void illegalPort() {
+        assertValidationFails(new PrometheusMetricStreamerConfig("host", 0, null, null, null), "port");
+        assertValidationFails(new PrometheusMetricStreamerConfig("host", 65536, null, null, null), "port");
+    }
+
+    /**
+     * Metric stream definitions should be validated.
+     */
+    @Test
+    public void invalidStream() {
+        List<MetricStreamDefinition> streams = Arrays.asList(new MetricStreamDefinition("id", null, null, null,
+                null, null));
+        assertValidationFails(new PrometheusMetricStreamerConfig("host", 9090, null, null, streams), "query");
+    }
+
+    /**
+     * Metric stream ids must be unique.
+     */
+    @Test
+    public void duplicateStreamIds() {
+        List<MetricStreamDefinition> streams = Arrays.asList(
+                new MetricStreamDefinition("id", null, "up", null, null, null),
+                new MetricStreamDefinition("id", null, "down", null, null, null));
+        assertValidationFails(new PrometheusMetricStreamerConfig("host", 9090, null, null, streams), "duplicate");
+    }
+
+    private static void assertValidationFails(PrometheusMetricStreamerConfig config, String expectedMessage) {
+        try {
+            config.validate();
+            fail("expected to fail validation");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("metricStreamer: prometheus: "));
+            assertTrue(e.getMessage(), e.getMessage().contains(expectedMessage));
+        }
+    }
+
+    private static List<MetricStreamDefinition> validStreams() {
+        return Arrays.asList(new MetricStreamDefinition("requests.stream", "requests",
+                "sum(rate(http_requests_total[5m]))", null, null, null));
+    }
+}
@@ -0,0 +1,118 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.parser;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.metricstreamers.prometheus.stream.errors.PrometheusQueryException;
+import com.elastisys.scale.commons.util.collection.Maps;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link QueryResponseParser} on recorded Prometheus responses.
+ */
+public class TestQueryResponseParser {
+
+    private static final String RESPONSES_DIR = "src/test/resources/responses";
+
+    /**
+     * The samples of all time-series should be returned, tagged with the
+     * labels of their time-series (except for the metric name). Samples that
+     * are not finite numbers should be skipped.
+     */
+    @Test
+    public void parseMatrix() throws IOException {
+        List<MetricValue> values = parse("matrix.json");
+
+        assertThat(values, is(Arrays.asList( //
+                new MetricValue("requests", 10.0, UtcTime.parse("2016-01-01T12:00:00.000Z"),
+                        Maps.of("instance", "web-1:9100", "job", "web")),
+                new MetricValue("requests", 12.5, UtcTime.parse("2016-01-01T12:01:00.000Z"),
+                        Maps.of("instance", "web-1:9100", "job", "web")),
+                new MetricValue("requests", 7.0, UtcTime.parse("2016-01-01T12:00:00.500Z"),
+                        Maps.of("instance", "web-2:9100", "job", "web")))));
+    }
+
+    /**
+     * An aggregate expression produces a single time-series without labels.
+     */
+    @Test
+    public void parseAggregate() throws IOException {
+        List<MetricValue> values = parse("aggregate.json");
+
+        assertThat(values, is(Arrays.asList( //
+                new MetricValue("requests", 1.5, UtcTime.parse("2016-01-01T12:00:00.000Z")),
+                new MetricValue("requests", 2.5, UtcTime.parse("2016-01-01T12:01:00.000Z")),
+                new MetricValue("requests", 3.5, UtcTime.parse("2016-01-01T12:02:00.000Z")))));
+    }
+
+    @Test
+    public void parseEmptyResult() throws IOException {
+        assertThat(parse("empty.json"), is(Collections.emptyList()));
+    }
+
+    /**
+     * Values should be tagged even if the labels of a time-series would come
+     * after its samples.
+     */
+    @Test
+    public void parseWithLabelsAfterValues() throws IOException {
+        assertThat(parse("labels-after-values.json"), is(Arrays.asList(
+                new MetricValue("requests", 1.0, UtcTime.parse("2016-01-01T12:00:00.000Z"), Maps.of("job", "web")))));
+    }
+
+    /**
+     * Instant query responses carry a single value per time-series.
+     */
+    @Test
+    public void parseVector() throws IOException {
+        assertThat(parse("vector.json"), is(Arrays.asList(
+                new MetricValue("requests", 42.0, UtcTime.parse("2016-01-01T12:00:00.000Z"), Maps.of("job", "web")))));
+    }
+
+    /**
+     * An error response should be reported with its error message.
+     */
+    @Test
+    public void parseErrorResponse() throws IOException {
+        try {
+            parse("error.json");
+            fail("expected to fail");
+        } catch (PrometheusQueryException e) {
+            assertTrue(e.getMessage().contains("bad_data"));
+            assertTrue(e.getMessage().contains("parse error"));
+        }
+    }
+
+    @Test(expected = PrometheusQueryException.class)
+    public void parseMalformedResponse() throws IOException {
+        new QueryResponseParser("requests").parse(new StringReader("<html>Bad Gateway</html>"));
+    }
+
+    @Test(expected = PrometheusQueryException.class)
+    public void parseNonNumericalSample() throws IOException {
+        String response = "{\"status\": \"success\", \"data\": {\"resultType\": \"matrix\", "
+                + "\"result\": [{\"metric\": {}, \"values\": [[1451649600, \"one\"]]}]}}";
+        new QueryResponseParser("requests").parse(new StringReader(response));
+    }
+
+    private static List<MetricValue> parse(String responseFile) throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(RESPONSES_DIR, responseFile), StandardCharsets.UTF_8)) {
+            return new QueryResponseParser("requests").parse(reader);
+        }
+    }
+}
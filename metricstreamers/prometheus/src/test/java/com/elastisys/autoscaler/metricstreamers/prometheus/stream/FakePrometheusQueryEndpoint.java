@@ -0,0 +1,95 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.stream;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fake Prometheus server query endpoint intended for testing. It responds
+ * with recorded responses, which can be prepared via
+ * {@link #prepareResponse(int, File)}, and records the query parameters of all
+ * received calls.
+ */
+public class FakePrometheusQueryEndpoint extends HttpServlet {
+    private final static Logger LOG = LoggerFactory.getLogger(FakePrometheusQueryEndpoint.class);
+
+    /** The status code that will be used for received calls. */
+    private int nextStatusCode;
+    /** The response body that will be used for received calls. */
+    private String nextResponse;
+
+    /** The URL parameters of all received calls, in order of arrival. */
+    private final List<Map<String, String>> callParameters = new ArrayList<>();
+
+    public FakePrometheusQueryEndpoint(File responseFile) throws IOException {
+        prepareResponse(HttpServletResponse.SC_OK, responseFile);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String requestURI = req.getRequestURI();
+        LOG.info("fake prometheus received GET: {}", requestURI);
+
+        Map<String, String> parameters = new HashMap<>();
+        req.getParameterMap().forEach((p, v) -> parameters.put(p, v[0]));
+        synchronized (this.callParameters) {
+            this.callParameters.add(parameters);
+        }
+
+        resp.setContentType("application/json");
+        if (requestURI.equals("/api/v1/query_range")) {
+            resp.setStatus(this.nextStatusCode);
+            resp.getWriter().write(this.nextResponse);
+        } else {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    /**
+     * Prepares the response to return for received calls.
+     *
+     * @param statusCode
+     * @param responseFile
+     *            A file holding the response body.
+     * @throws IOException
+     */
+    public void prepareResponse(int statusCode, File responseFile) throws IOException {
+        this.nextStatusCode = statusCode;
+        this.nextResponse = new String(Files.readAllBytes(responseFile.toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the URL parameters of all calls received so far.
+     *
+     * @return
+     */
+    public List<Map<String, String>> getCallParameters() {
+        synchronized (this.callParameters) {
+            return new ArrayList<>(this.callParameters);
+        }
+    }
+
+    /**
+     * Returns the URL parameters of the last call to the servlet or
+     * <code>null</code> if no call has been received yet.
+     *
+     * @return
+     */
+    public Map<String, String> getLastCallParameters() {
+        List<Map<String, String>> calls = getCallParameters();
+        return calls.isEmpty() ? null : calls.get(calls.size() - 1);
+    }
+}
@@ -0,0 +1,252 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.eclipse.jetty.server.Server;
+import org.joda.time.DateTime;
+import org.joda.time.Interval;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.DownsampleFunction;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.PageFetchException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.chunking.QueryChunkPlanner;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreaker;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerConfig;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.circuitbreaker.CircuitBreakerOpenException;
+import com.elastisys.autoscaler.metricstreamers.prometheus.config.MetricStreamDefinition;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.net.host.HostUtils;
+import com.elastisys.scale.commons.server.ServletDefinition;
+import com.elastisys.scale.commons.server.ServletServerBuilder;
+import com.elastisys.scale.commons.util.collection.Maps;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link PrometheusMetricStream} against a fake Prometheus
+ * server that returns recorded responses.
+ */
+public class TestPrometheusMetricStream {
+    private static final Logger LOG = LoggerFactory.getLogger(TestPrometheusMetricStream.class);
+
+    /** Directory holding recorded Prometheus responses. */
+    private static final String RESPONSES_DIR = "src/test/resources/responses";
+    private static final File MATRIX_RESPONSE = new File(RESPONSES_DIR, "matrix.json");
+    private static final File EMPTY_RESPONSE = new File(RESPONSES_DIR, "empty.json");
+    private static final File ERROR_RESPONSE = new File(RESPONSES_DIR, "error.json");
+
+    private static final String QUERY = "sum(rate(http_requests_total{job=\"web\"}[5m]))";
+
+    /** The current system time set in the test. */
+    private static final DateTime NOW = UtcTime.parse("2016-01-01T12:00:00.000Z");
+
+    /** The local port where the server is set up to listen. */
+    private int port = HostUtils.findFreePorts(1).get(0);
+    /** The fake Prometheus server set up under the test. */
+    private Server server;
+    private FakePrometheusQueryEndpoint prometheusFake;
+    private CloseableHttpClient httpClient;
+
+    @Before
+    public void beforeTestMethod() throws Exception {
+        FrozenTime.setFixed(NOW);
+
+        this.prometheusFake = new FakePrometheusQueryEndpoint(MATRIX_RESPONSE);
+        ServletDefinition servlet = new ServletDefinition.Builder().servlet(this.prometheusFake).servletPath("/")
+                .build();
+        this.server = ServletServerBuilder.create().httpPort(this.port).addServlet(servlet).build();
+        this.server.start();
+
+        this.httpClient = HttpClientFactory.create(Optional.empty());
+    }
+
+    @After
+    public void onTeardown() throws Exception {
+        this.httpClient.close();
+        this.server.stop();
+        this.server.join();
+    }
+
+    /**
+     * The stream's expression should be evaluated over the query interval
+     * with the stream's step.
+     */
+    @Test
+    public void queryParameters() throws Exception {
+        PrometheusMetricStream metricStream = metricStream(streamDef(null, null), breaker());
+        metricStream.query(lastFiveMins(), null).fetchNext();
+
+        Map<String, String> parameters = this.prometheusFake.getLastCallParameters();
+        assertThat(parameters.get("query"), is(QUERY));
+        assertThat(parameters.get("start"), is("2016-01-01T11:55:00.000Z"));
+        assertThat(parameters.get("end"), is("2016-01-01T12:00:00.000Z"));
+        assertThat(parameters.get("step"), is("60s"));
+    }
+
+    /**
+     * The first evaluation point should be aligned on a multiple of the step,
+     * so that consecutive queries evaluate the same points.
+     */
+    @Test
+    public void alignStartOnStep() throws Exception {
+        PrometheusMetricStream metricStream = metricStream(streamDef(null, null), breaker());
+        metricStream.query(new Interval(NOW.minusSeconds(270), NOW), null).fetchNext();
+
+        assertThat(this.prometheusFake.getLastCallParameters().get("start"), is("2016-01-01T11:56:00.000Z"));
+        // a query interval without evaluation points should not be sent
+        assertThat(metricStream.query(new Interval(NOW.minusSeconds(30), NOW.minusSeconds(10)), null).hasNext(),
+                is(false));
+    }
+
+    /**
+     * A downsampling query hint should be carried out by the Prometheus
+     * server.
+     */
+    @Test
+    public void downsampling() throws Exception {
+        PrometheusMetricStream metricStream = metricStream(streamDef(null, null), breaker());
+        QueryOptions options = new QueryOptions(
+                new Downsample(new TimeInterval(5L, TimeUnit.MINUTES), DownsampleFunction.MAX));
+        metricStream.query(lastFiveMins(), options).fetchNext();
+
+        Map<String, String> parameters = this.prometheusFake.getLastCallParameters();
+        assertThat(parameters.get("query"), is("max_over_time((" + QUERY + ")[300s:])"));
+        assertThat(parameters.get("step"), is("300s"));
+    }
+
+    /**
+     * Response samples should be converted to {@link MetricValue}s of the
+     * stream's metric, tagged with their time-series labels.
+     */
+    @Test
+    public void resultParsing() throws Exception {
+        PrometheusMetricStream metricStream = metricStream(streamDef(null, null), breaker());
+        QueryResultSet resultSet = metricStream.query(lastFiveMins(), null);
+
+        List<MetricValue> values = resultSet.fetchNext().getMetricValues();
+        assertThat(values.size(), is(3));
+        assertThat(values.get(0), is(new MetricValue("requests", 10.0, UtcTime.parse("2016-01-01T12:00:00.000Z"),
+                Maps.of("instance", "web-1:9100", "job", "web"))));
+        assertThat(resultSet.hasNext(), is(false));
+    }
+
+    /**
+     * In case a data settling time was specified, the query time interval
+     * should always be adjusted to not include too recent (unsettled) data.
+     */
+    @Test
+    public void adjustQueryForDataSettlingTime() throws Exception {
+        TimeInterval dataSettlingTime = new TimeInterval(2L, TimeUnit.MINUTES);
+        PrometheusMetricStream metricStream = metricStream(streamDef(dataSettlingTime, null), breaker());
+        metricStream.query(lastFiveMins(), null).fetchNext();
+
+        assertThat(this.prometheusFake.getLastCallParameters().get("end"), is("2016-01-01T11:58:00.000Z"));
+    }
+
+    /**
+     * A query that is longer than the query chunk size should be split into
+     * several range queries, which do not overlap.
+     */
+    @Test
+    public void chunkedQuery() throws Exception {
+        this.prometheusFake.prepareResponse(200, EMPTY_RESPONSE);
+        TimeInterval queryChunkSize = new TimeInterval(1L, TimeUnit.HOURS);
+        PrometheusMetricStream metricStream = metricStream(streamDef(null, queryChunkSize), breaker());
+
+        QueryResultSet resultSet = metricStream.query(new Interval(NOW.minusHours(3), NOW), null);
+        while (resultSet.hasNext()) {
+            resultSet.fetchNext();
+        }
+
+        List<Map<String, String>> calls = this.prometheusFake.getCallParameters();
+        assertThat(calls.size(), is(3));
+        assertThat(calls.get(0).get("start"), is("2016-01-01T09:00:00.000Z"));
+        assertThat(calls.get(0).get("end"), is("2016-01-01T09:59:59.999Z"));
+        assertThat(calls.get(1).get("start"), is("2016-01-01T10:00:00.000Z"));
+        assertThat(calls.get(2).get("start"), is("2016-01-01T11:00:00.000Z"));
+        assertThat(calls.get(2).get("end"), is("2016-01-01T12:00:00.000Z"));
+    }
+
+    /**
+     * An error response to a bad query should be reported, but should not
+     * count as a server failure.
+     */
+    @Test
+    public void errorResponse() throws Exception {
+        this.prometheusFake.prepareResponse(400, ERROR_RESPONSE);
+        CircuitBreaker circuitBreaker = breaker();
+        PrometheusMetricStream metricStream = metricStream(streamDef(null, null), circuitBreaker);
+
+        for (int i = 0; i < 5; i++) {
+            try {
+                metricStream.query(lastFiveMins(), null).fetchNext();
+                fail("expected to fail");
+            } catch (PageFetchException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("bad_data"));
+            }
+        }
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    /**
+     * Repeated server errors should open the circuit breaker.
+     */
+    @Test
+    public void serverErrorsOpenCircuitBreaker() throws Exception {
+        this.prometheusFake.prepareResponse(503, ERROR_RESPONSE);
+        CircuitBreaker circuitBreaker = breaker();
+        PrometheusMetricStream metricStream = metricStream(streamDef(null, null), circuitBreaker);
+
+        for (int i = 0; i < CircuitBreakerConfig.DEFAULT_FAILURE_THRESHOLD; i++) {
+            try {
+                metricStream.query(lastFiveMins(), null).fetchNext();
+                fail("expected to fail");
+            } catch (PageFetchException e) {
+                // expected
+            }
+        }
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+        try {
+            metricStream.query(lastFiveMins(), null);
+            fail("expected to fail");
+        } catch (CircuitBreakerOpenException e) {
+            // expected
+        }
+    }
+
+    private PrometheusMetricStream metricStream(MetricStreamDefinition streamDef, CircuitBreaker circuitBreaker) {
+        MetricStreamConfig config = new MetricStreamConfig("localhost", this.port, null, streamDef);
+        return new PrometheusMetricStream(LOG, config, this.httpClient, circuitBreaker, new QueryChunkPlanner());
+    }
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker(LOG, "http://localhost:" + this.port, CircuitBreakerConfig.defaultConfig());
+    }
+
+    private static MetricStreamDefinition streamDef(TimeInterval dataSettlingTime, TimeInterval queryChunkSize) {
+        return new MetricStreamDefinition("requests.stream", "requests", QUERY, null, dataSettlingTime,
+                queryChunkSize);
+    }
+
+    private static Interval lastFiveMins() {
+        return new Interval(NOW.minusMinutes(5), NOW);
+    }
+}
@@ -0,0 +1,73 @@
+package com.elastisys.autoscaler.metricstreamers.prometheus.stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.DownsampleFunction;
+import com.elastisys.autoscaler.metricstreamers.prometheus.config.MetricStreamDefinition;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercises the {@link PrometheusQueryBuilder}.
+ */
+public class TestPrometheusQueryBuilder {
+
+    private static final String QUERY = "sum(rate(http_requests_total{job=\"web\"}[5m]))";
+
+    /**
+     * Without downsampling, the stream's expression and step should be used
+     * as is.
+     */
+    @Test
+    public void withoutDownsampling() {
+        MetricStreamDefinition stream = streamDef(new TimeInterval(15L, TimeUnit.SECONDS));
+
+        assertThat(PrometheusQueryBuilder.buildExpression(stream, Optional.empty()), is(QUERY));
+        assertThat(PrometheusQueryBuilder.step(stream, Optional.empty()), is(new TimeInterval(15L, TimeUnit.SECONDS)));
+        // default step
+        assertThat(PrometheusQueryBuilder.step(streamDef(null), Optional.empty()),
+                is(MetricStreamDefinition.DEFAULT_STEP));
+    }
+
+    /**
+     * Downsampling should be carried out by Prometheus, by aggregating the
+     * stream's expression over each step.
+     */
+    @Test
+    public void withDownsampling() {
+        MetricStreamDefinition stream = streamDef(new TimeInterval(15L, TimeUnit.SECONDS));
+        TimeInterval fiveMinutes = new TimeInterval(5L, TimeUnit.MINUTES);
+
+        assertThat(PrometheusQueryBuilder.buildExpression(stream, downsample(fiveMinutes, DownsampleFunction.MEAN)),
+                is("avg_over_time((" + QUERY + ")[300s:])"));
+        assertThat(PrometheusQueryBuilder.buildExpression(stream, downsample(fiveMinutes, DownsampleFunction.MIN)),
+                is("min_over_time((" + QUERY + ")[300s:])"));
+        assertThat(PrometheusQueryBuilder.buildExpression(stream, downsample(fiveMinutes, DownsampleFunction.MAX)),
+                is("max_over_time((" + QUERY + ")[300s:])"));
+        assertThat(PrometheusQueryBuilder.buildExpression(stream, downsample(fiveMinutes, DownsampleFunction.SUM)),
+                is("sum_over_time((" + QUERY + ")[300s:])"));
+
+        assertThat(PrometheusQueryBuilder.step(stream, downsample(fiveMinutes, DownsampleFunction.MEAN)),
+                is(fiveMinutes));
+    }
+
+    @Test
+    public void duration() {
+        assertThat(PrometheusQueryBuilder.duration(new TimeInterval(2L, TimeUnit.HOURS)), is("7200s"));
+        assertThat(PrometheusQueryBuilder.duration(new TimeInterval(1500L, TimeUnit.MILLISECONDS)), is("1500ms"));
+    }
+
+    private static Optional<Downsample> downsample(TimeInterval interval, DownsampleFunction function) {
+        return Optional.of(new Downsample(interval, function));
+    }
+
+    private static MetricStreamDefinition streamDef(TimeInterval step) {
+        return new MetricStreamDefinition("requests.stream", "requests", QUERY, step, null, null);
+    }
+}
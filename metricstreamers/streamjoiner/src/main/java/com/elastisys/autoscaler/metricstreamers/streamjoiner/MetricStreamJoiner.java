@@ -21,6 +21,7 @@ import com.elastisys.autoscaler.core.api.types.ServiceStatus;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
 import com.elastisys.autoscaler.metricstreamers.streamjoiner.config.MetricStreamDefinition;
 import com.elastisys.autoscaler.metricstreamers.streamjoiner.config.MetricStreamJoinerConfig;
 import com.elastisys.autoscaler.metricstreamers.streamjoiner.stream.JoiningMetricStream;
@@ -88,6 +89,11 @@ public class MetricStreamJoiner implements MetricStreamer<MetricStreamJoinerConf
      * streams.
      */
     private final List<MetricStreamer<?>> priorDeclaredMetricStreamers;
+    /**
+     * The cache through which join scripts that need a JavaScript engine are
+     * compiled.
+     */
+    private final CompiledScriptCache scriptCache;
     private boolean started;
 
     /** The configuration set for the {@link MetricStreamJoiner}. */
@@ -108,12 +114,35 @@ public class MetricStreamJoiner implements MetricStreamer<MetricStreamJoinerConf
      *            input streams. May be <code>null</code>, which is interpreted
      *            as an empty list.
      */
-    @Inject
     public MetricStreamJoiner(Logger logger, EventBus eventBus, List<MetricStreamer<?>> priorDeclaredMetricStreamers) {
+        this(logger, eventBus, priorDeclaredMetricStreamers, new CompiledScriptCache());
+    }
+
+    /**
+     * Creates a {@link MetricStreamJoiner}.
+     *
+     * @param logger
+     *            {@link Logger} instance.
+     * @param eventBus
+     *            {@link EventBus} on which to listen for metrics.
+     * @param priorDeclaredMetricStreamers
+     *            The list of {@link MetricStreamer}s declared prior to this
+     *            {@link MetricStreamer} and which can be used as references in
+     *            input streams. May be <code>null</code>, which is interpreted
+     *            as an empty list.
+     * @param scriptCache
+     *            The cache through which join scripts that need a JavaScript
+     *            engine are compiled. May be shared with other
+     *            {@link MetricStreamJoiner}s.
+     */
+    @Inject
+    public MetricStreamJoiner(Logger logger, EventBus eventBus, List<MetricStreamer<?>> priorDeclaredMetricStreamers,
+            CompiledScriptCache scriptCache) {
         this.logger = logger;
         this.eventBus = eventBus;
         this.priorDeclaredMetricStreamers = Optional.ofNullable(priorDeclaredMetricStreamers)
                 .orElse(Collections.emptyList());
+        this.scriptCache = scriptCache;
 
         this.started = false;
         this.config = null;
@@ -176,7 +205,7 @@ public class MetricStreamJoiner implements MetricStreamer<MetricStreamJoinerConf
             }
 
             JoiningMetricStreamConfig conf = new JoiningMetricStreamConfig(streamDef.getId(), streamDef.getMetric(),
-                    streamDef.getMaxTimeDiff(), inputStreams, streamDef.getCompiledJoinScript());
+                    streamDef.getMaxTimeDiff(), inputStreams, streamDef.getJoinFunction(this.scriptCache));
             newMetricStreams.add(new JoiningMetricStream(this.logger, this.eventBus, conf));
         }
 
@@ -1,8 +1,8 @@
 package com.elastisys.autoscaler.metricstreamers.streamjoiner.config;
 
 import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
-import static java.lang.String.format;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -10,14 +10,14 @@ import java.util.Optional;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import javax.script.Compilable;
 import javax.script.CompiledScript;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
 import com.elastisys.autoscaler.metricstreamers.streamjoiner.MetricStreamJoiner;
+import com.elastisys.autoscaler.metricstreamers.streamjoiner.join.JoinFunction;
+import com.elastisys.autoscaler.metricstreamers.streamjoiner.join.JoinFunctions;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 
@@ -197,14 +197,34 @@ public class MetricStreamDefinition {
      * @param javascript
      */
     public CompiledScript getCompiledJoinScript() throws IllegalArgumentException {
-        ScriptEngine engine = new ScriptEngineManager().getEngineByName("JavaScript");
-        Compilable compiler = (Compilable) engine;
-        try {
-            return compiler.compile(getJoinScript());
-        } catch (Exception e) {
-            throw new IllegalArgumentException(format("failed to compile javascript expression: %s", e.getMessage()),
-                    e);
-        }
+        return JoinFunctions.compileJavaScript(getJoinScript());
+    }
+
+    /**
+     * Returns the {@link #joinScript} compiled into a {@link JoinFunction}
+     * that is passed the values of the {@link #inputStreams}. If invalid, an
+     * {@link IllegalArgumentException} is thrown.
+     *
+     * @see JoinFunctions#compile(String, List)
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public JoinFunction getJoinFunction() throws IllegalArgumentException {
+        return JoinFunctions.compile(getJoinScript(), new ArrayList<>(this.inputStreams.keySet()));
+    }
+
+    /**
+     * Returns the {@link #joinScript} compiled into a {@link JoinFunction},
+     * like {@link #getJoinFunction()}, but fetches any JavaScript that needs
+     * to be compiled from a {@link CompiledScriptCache}.
+     *
+     * @param scriptCache
+     *            The cache through which JavaScripts are compiled.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public JoinFunction getJoinFunction(CompiledScriptCache scriptCache) throws IllegalArgumentException {
+        return JoinFunctions.compile(getJoinScript(), new ArrayList<>(this.inputStreams.keySet()), scriptCache);
     }
 
     @Override
@@ -251,7 +271,7 @@ public class MetricStreamDefinition {
             checkArgument(this.joinScript != null, "no joinScript given");
             checkArgument(!getJoinScript().trim().isEmpty(), "joinScript: cannot be empty");
             try {
-                getCompiledJoinScript();
+                getJoinFunction();
             } catch (Exception e) {
                 throw new IllegalArgumentException("joinScript: " + e.getMessage(), e);
             }
@@ -0,0 +1,48 @@
+package com.elastisys.autoscaler.metricstreamers.streamjoiner.join;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A {@link JoinFunction} for a join script that has been compiled by the
+ * {@link JoinExpressionCompiler} into a tree of closures. Evaluating it
+ * neither involves a script engine nor allocates any objects.
+ */
+public class ExpressionJoinFunction implements JoinFunction {
+
+    /** The metric stream aliases that the expression refers to. */
+    private final List<String> variables;
+    /**
+     * The compiled expression, which evaluates the join script for an array of
+     * variable values.
+     */
+    private final ToDoubleFunction<double[]> expression;
+
+    /**
+     * Creates an {@link ExpressionJoinFunction}.
+     *
+     * @param variables
+     *            The metric stream aliases that the expression refers to.
+     * @param expression
+     *            The compiled expression, which evaluates the join script for
+     *            an array of variable values.
+     */
+    public ExpressionJoinFunction(List<String> variables, ToDoubleFunction<double[]> expression) {
+        this.variables = Collections.unmodifiableList(
+                new ArrayList<>(Objects.requireNonNull(variables, "variables: must not be null")));
+        this.expression = Objects.requireNonNull(expression, "expression: must not be null");
+    }
+
+    @Override
+    public List<String> getVariables() {
+        return this.variables;
+    }
+
+    @Override
+    public double join(double[] values) {
+        return this.expression.applyAsDouble(values);
+    }
+}
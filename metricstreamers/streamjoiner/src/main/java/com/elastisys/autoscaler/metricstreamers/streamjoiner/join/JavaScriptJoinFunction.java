@@ -0,0 +1,67 @@
+package com.elastisys.autoscaler.metricstreamers.streamjoiner.join;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+
+import com.elastisys.autoscaler.metricstreamers.streamjoiner.stream.JoinScriptException;
+
+/**
+ * A {@link JoinFunction} that evaluates a join script with a JavaScript engine.
+ * Used for join scripts that cannot be handled by an
+ * {@link ExpressionJoinFunction}.
+ */
+public class JavaScriptJoinFunction implements JoinFunction {
+
+    /** The metric stream aliases that are passed to the script. */
+    private final List<String> variables;
+    /** The compiled join script. */
+    private final CompiledScript joinScript;
+
+    /**
+     * Creates a {@link JavaScriptJoinFunction}.
+     *
+     * @param variables
+     *            The metric stream aliases that are passed to the script.
+     * @param joinScript
+     *            The compiled join script.
+     */
+    public JavaScriptJoinFunction(List<String> variables, CompiledScript joinScript) {
+        this.variables = Collections.unmodifiableList(
+                new ArrayList<>(Objects.requireNonNull(variables, "variables: must not be null")));
+        this.joinScript = Objects.requireNonNull(joinScript, "joinScript: must not be null");
+    }
+
+    @Override
+    public List<String> getVariables() {
+        return this.variables;
+    }
+
+    @Override
+    public double join(double[] values) throws JoinScriptException {
+        Bindings bindings = this.joinScript.getEngine().createBindings();
+        for (int i = 0; i < this.variables.size(); i++) {
+            bindings.put(this.variables.get(i), values[i]);
+        }
+
+        Object result;
+        try {
+            result = this.joinScript.eval(bindings);
+        } catch (Exception e) {
+            throw new JoinScriptException(e.getMessage(), e);
+        }
+        if (result == null) {
+            throw new JoinScriptException(String.format("joinScript returned null (must return a number)"));
+        }
+        if (!Number.class.isAssignableFrom(result.getClass())) {
+            throw new JoinScriptException(
+                    String.format("joinScript returned a value of type %s (must return a number)", result.getClass()));
+        }
+        Number number = Number.class.cast(result);
+        return number.doubleValue();
+    }
+}
@@ -0,0 +1,582 @@
+package com.elastisys.autoscaler.metricstreamers.streamjoiner.join;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compiles join scripts that are written in a subset of JavaScript into
+ * {@link ExpressionJoinFunction}s, which evaluate the script as a tree of
+ * closures rather than with a script engine.
+ * <p/>
+ * The supported subset is a single numerical expression, optionally terminated
+ * by a semicolon, made up of:
+ * <ul>
+ * <li>number literals and metric stream aliases,</li>
+ * <li>the arithmetic operators {@code + - * / %} and unary {@code -} and
+ * {@code +},</li>
+ * <li>the comparison operators {@code < <= > >= == != === !==} applied to
+ * numbers,</li>
+ * <li>the logical operators {@code && || !} applied to conditions,</li>
+ * <li>the conditional operator {@code ?:} with numerical branches,</li>
+ * <li>the constants {@code Math.PI} and {@code Math.E} and the functions
+ * {@code Math.abs}, {@code ceil}, {@code exp}, {@code floor}, {@code log},
+ * {@code max}, {@code min}, {@code pow}, {@code round} and
+ * {@code sqrt}.</li>
+ * </ul>
+ * Within this subset, evaluation follows JavaScript semantics. Join scripts
+ * outside of the subset are not compiled, but are left to be evaluated by a
+ * JavaScript engine.
+ */
+public class JoinExpressionCompiler {
+
+    /** Punctuators, longest first to make sure the longest one matches. */
+    private static final List<String> PUNCTUATORS = Arrays.asList("===", "!==", "==", "!=", "<=", ">=", "&&", "||",
+            "++", "--", "<", ">", "+", "-", "*", "/", "%", "!", "?", ":", "(", ")", ",", ".", ";");
+
+    /** The metric stream aliases that may be referenced by the expression. */
+    private final List<String> variables;
+    /** The tokens of the join script being compiled. */
+    private final List<Token> tokens;
+    /** The position of the next token to parse. */
+    private int position;
+
+    private JoinExpressionCompiler(List<String> variables, List<Token> tokens) {
+        this.variables = variables;
+        this.tokens = tokens;
+        this.position = 0;
+    }
+
+    /**
+     * Compiles a join script into an {@link ExpressionJoinFunction}, if it is
+     * written in the supported subset of JavaScript.
+     *
+     * @param joinScript
+     *            The join script.
+     * @param variables
+     *            The metric stream aliases that may be referenced by the join
+     *            script.
+     * @return The compiled {@link JoinFunction} or {@link Optional#empty()} if
+     *         the join script falls outside of the supported subset.
+     */
+    public static Optional<JoinFunction> compile(String joinScript, List<String> variables) {
+        try {
+            JoinExpressionCompiler compiler = new JoinExpressionCompiler(variables, tokenize(joinScript));
+            ToDoubleFunction<double[]> expression = compiler.program();
+            return Optional.of(new ExpressionJoinFunction(variables, expression));
+        } catch (UnsupportedExpressionException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * program := expression ';'* EOF
+     */
+    private ToDoubleFunction<double[]> program() throws UnsupportedExpressionException {
+        ToDoubleFunction<double[]> expression = expression().asNumber();
+        while (accept(";")) {
+            // trailing empty statements are allowed
+        }
+        if (peek().type != TokenType.END) {
+            throw new UnsupportedExpressionException();
+        }
+        return expression;
+    }
+
+    /**
+     * expression := logicalOr ('?' expression ':' expression)?
+     */
+    private Operand expression() throws UnsupportedExpressionException {
+        Operand operand = logicalOr();
+        if (!accept("?")) {
+            return operand;
+        }
+        Predicate<double[]> condition = operand.asCondition();
+        ToDoubleFunction<double[]> whenTrue = expression().asNumber();
+        expect(":");
+        ToDoubleFunction<double[]> whenFalse = expression().asNumber();
+        return Operand.number(v -> condition.test(v) ? whenTrue.applyAsDouble(v) : whenFalse.applyAsDouble(v));
+    }
+
+    /**
+     * logicalOr := logicalAnd ('||' logicalAnd)*
+     */
+    private Operand logicalOr() throws UnsupportedExpressionException {
+        Operand left = logicalAnd();
+        while (accept("||")) {
+            Predicate<double[]> l = left.asBoolean();
+            Predicate<double[]> r = logicalAnd().asBoolean();
+            left = Operand.bool(v -> l.test(v) || r.test(v));
+        }
+        return left;
+    }
+
+    /**
+     * logicalAnd := equality ('&&' equality)*
+     */
+    private Operand logicalAnd() throws UnsupportedExpressionException {
+        Operand left = equality();
+        while (accept("&&")) {
+            Predicate<double[]> l = left.asBoolean();
+            Predicate<double[]> r = equality().asBoolean();
+            left = Operand.bool(v -> l.test(v) && r.test(v));
+        }
+        return left;
+    }
+
+    /**
+     * equality := relational (('==' | '!=' | '===' | '!==') relational)*
+     */
+    private Operand equality() throws UnsupportedExpressionException {
+        Operand left = relational();
+        while (true) {
+            if (accept("==") || accept("===")) {
+                ToDoubleFunction<double[]> l = left.asNumber();
+                ToDoubleFunction<double[]> r = relational().asNumber();
+                left = Operand.bool(v -> l.applyAsDouble(v) == r.applyAsDouble(v));
+            } else if (accept("!=") || accept("!==")) {
+                ToDoubleFunction<double[]> l = left.asNumber();
+                ToDoubleFunction<double[]> r = relational().asNumber();
+                left = Operand.bool(v -> l.applyAsDouble(v) != r.applyAsDouble(v));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    /**
+     * relational := additive (('<' | '<=' | '>' | '>=') additive)*
+     */
+    private Operand relational() throws UnsupportedExpressionException {
+        Operand left = additive();
+        while (true) {
+            if (accept("<")) {
+                ToDoubleFunction<double[]> l = left.asNumber();
+                ToDoubleFunction<double[]> r = additive().asNumber();
+                left = Operand.bool(v -> l.applyAsDouble(v) < r.applyAsDouble(v));
+            } else if (accept("<=")) {
+                ToDoubleFunction<double[]> l = left.asNumber();
+                ToDoubleFunction<double[]> r = additive().asNumber();
+                left = Operand.bool(v -> l.applyAsDouble(v) <= r.applyAsDouble(v));
+            } else if (accept(">")) {
+                ToDoubleFunction<double[]> l = left.asNumber();
+                ToDoubleFunction<double[]> r = additive().asNumber();
+                left = Operand.bool(v -> l.applyAsDouble(v) > r.applyAsDouble(v));
+            } else if (accept(">=")) {
+                ToDoubleFunction<double[]> l = left.asNumber();
+                ToDoubleFunction<double[]> r = additive().asNumber();
+                left = Operand.bool(v -> l.applyAsDouble(v) >= r.applyAsDouble(v));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    /**
+     * additive := multiplicative (('+' | '-') multiplicative)*
+     */
+    private Operand additive() throws UnsupportedExpressionException {
+        Operand left = multiplicative();
+        while (true) {
+            if (accept("+")) {
+                left = binary(left, multiplicative(), (a, b) -> a + b);
+            } else if (accept("-")) {
+                left = binary(left, multiplicative(), (a, b) -> a - b);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    /**
+     * multiplicative := unary (('*' | '/' | '%') unary)*
+     */
+    private Operand multiplicative() throws UnsupportedExpressionException {
+        Operand left = unary();
+        while (true) {
+            if (accept("*")) {
+                left = binary(left, unary(), (a, b) -> a * b);
+            } else if (accept("/")) {
+                left = binary(left, unary(), (a, b) -> a / b);
+            } else if (accept("%")) {
+                // same semantics as the JavaScript remainder operator
+                left = binary(left, unary(), (a, b) -> a % b);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    /**
+     * unary := ('-' | '+' | '!') unary | primary
+     */
+    private Operand unary() throws UnsupportedExpressionException {
+        if (accept("-")) {
+            ToDoubleFunction<double[]> operand = unary().asNumber();
+            return Operand.number(v -> -operand.applyAsDouble(v));
+        }
+        if (accept("+")) {
+            return Operand.number(unary().asNumber());
+        }
+        if (accept("!")) {
+            Predicate<double[]> operand = unary().asCondition();
+            return Operand.bool(v -> !operand.test(v));
+        }
+        return primary();
+    }
+
+    /**
+     * primary := number | alias | 'Math' '.' (constant | function '(' arguments
+     * ')') | '(' expression ')'
+     */
+    private Operand primary() throws UnsupportedExpressionException {
+        Token token = next();
+        switch (token.type) {
+        case NUMBER:
+            double constant = Double.parseDouble(token.text);
+            return Operand.number(v -> constant);
+        case IDENTIFIER:
+            int index = this.variables.indexOf(token.text);
+            if (index >= 0) {
+                return Operand.number(v -> v[index]);
+            }
+            if (token.text.equals("Math")) {
+                return math();
+            }
+            // would be a (global) variable that we do not know of
+            throw new UnsupportedExpressionException();
+        case PUNCTUATOR:
+            if (token.text.equals("(")) {
+                Operand operand = expression();
+                expect(")");
+                return operand;
+            }
+            throw new UnsupportedExpressionException();
+        default:
+            throw new UnsupportedExpressionException();
+        }
+    }
+
+    /**
+     * Parses a member of the JavaScript {@code Math} object.
+     */
+    private Operand math() throws UnsupportedExpressionException {
+        expect(".");
+        Token member = next();
+        if (member.type != TokenType.IDENTIFIER) {
+            throw new UnsupportedExpressionException();
+        }
+        if (!accept("(")) {
+            switch (member.text) {
+            case "PI":
+                return Operand.number(v -> Math.PI);
+            case "E":
+                return Operand.number(v -> Math.E);
+            default:
+                throw new UnsupportedExpressionException();
+            }
+        }
+
+        List<ToDoubleFunction<double[]>> args = arguments();
+        switch (member.text) {
+        case "abs":
+            return function(args, Math::abs);
+        case "ceil":
+            return function(args, Math::ceil);
+        case "exp":
+            return function(args, Math::exp);
+        case "floor":
+            return function(args, Math::floor);
+        case "log":
+            return function(args, Math::log);
+        case "round":
+            return function(args, JoinExpressionCompiler::round);
+        case "sqrt":
+            return function(args, Math::sqrt);
+        case "pow":
+            if (args.size() != 2) {
+                throw new UnsupportedExpressionException();
+            }
+            return binary(Operand.number(args.get(0)), Operand.number(args.get(1)), Math::pow);
+        case "max":
+            return fold(args, Double.NEGATIVE_INFINITY, Math::max);
+        case "min":
+            return fold(args, Double.POSITIVE_INFINITY, Math::min);
+        default:
+            throw new UnsupportedExpressionException();
+        }
+    }
+
+    /**
+     * arguments := (expression (',' expression)*)? ')'
+     */
+    private List<ToDoubleFunction<double[]>> arguments() throws UnsupportedExpressionException {
+        List<ToDoubleFunction<double[]>> args = new ArrayList<>();
+        if (accept(")")) {
+            return args;
+        }
+        do {
+            args.add(expression().asNumber());
+        } while (accept(","));
+        expect(")");
+        return args;
+    }
+
+    private static Operand binary(Operand left, Operand right, DoubleBinaryOperator operator)
+            throws UnsupportedExpressionException {
+        ToDoubleFunction<double[]> l = left.asNumber();
+        ToDoubleFunction<double[]> r = right.asNumber();
+        return Operand.number(v -> operator.applyAsDouble(l.applyAsDouble(v), r.applyAsDouble(v)));
+    }
+
+    private static Operand function(List<ToDoubleFunction<double[]>> args, DoubleUnaryOperator function)
+            throws UnsupportedExpressionException {
+        if (args.size() != 1) {
+            throw new UnsupportedExpressionException();
+        }
+        ToDoubleFunction<double[]> arg = args.get(0);
+        return Operand.number(v -> function.applyAsDouble(arg.applyAsDouble(v)));
+    }
+
+    private static Operand fold(List<ToDoubleFunction<double[]>> args, double identity,
+            DoubleBinaryOperator operator) {
+        @SuppressWarnings("unchecked")
+        ToDoubleFunction<double[]>[] operands = args.toArray(new ToDoubleFunction[0]);
+        return Operand.number(v -> {
+            double result = identity;
+            for (ToDoubleFunction<double[]> operand : operands) {
+                result = operator.applyAsDouble(result, operand.applyAsDouble(v));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Rounds a value like the JavaScript {@code Math.round} function: to the
+     * closest integer, with halves rounded towards positive infinity.
+     *
+     * @param value
+     * @return
+     */
+    static double round(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 0x1p52) {
+            // already an integer (or not a number)
+            return value;
+        }
+        double floor = Math.floor(value);
+        return value - floor >= 0.5 ? floor + 1 : floor;
+    }
+
+    private Token peek() {
+        return this.tokens.get(this.position);
+    }
+
+    private Token next() {
+        Token token = peek();
+        if (token.type != TokenType.END) {
+            this.position++;
+        }
+        return token;
+    }
+
+    /**
+     * Consumes the next token if it is a given punctuator.
+     *
+     * @param punctuator
+     * @return <code>true</code> if the punctuator was consumed.
+     */
+    private boolean accept(String punctuator) {
+        Token token = peek();
+        if (token.type == TokenType.PUNCTUATOR && token.text.equals(punctuator)) {
+            this.position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String punctuator) throws UnsupportedExpressionException {
+        if (!accept(punctuator)) {
+            throw new UnsupportedExpressionException();
+        }
+    }
+
+    /**
+     * Splits a join script into tokens.
+     *
+     * @param joinScript
+     * @return
+     * @throws UnsupportedExpressionException
+     *             If the join script contains characters outside of the
+     *             supported subset.
+     */
+    private static List<Token> tokenize(String joinScript) throws UnsupportedExpressionException {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < joinScript.length()) {
+            char c = joinScript.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isDigit(c) || c == '.' && i + 1 < joinScript.length()
+                    && Character.isDigit(joinScript.charAt(i + 1))) {
+                int end = numberEnd(joinScript, i);
+                tokens.add(new Token(TokenType.NUMBER, joinScript.substring(i, end)));
+                i = end;
+            } else if (isIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < joinScript.length() && isIdentifierPart(joinScript.charAt(end))) {
+                    end++;
+                }
+                tokens.add(new Token(TokenType.IDENTIFIER, joinScript.substring(i, end)));
+                i = end;
+            } else {
+                String punctuator = punctuatorAt(joinScript, i);
+                tokens.add(new Token(TokenType.PUNCTUATOR, punctuator));
+                i += punctuator.length();
+            }
+        }
+        tokens.add(new Token(TokenType.END, ""));
+        return tokens;
+    }
+
+    /**
+     * Returns the end position of a decimal number literal.
+     */
+    private static int numberEnd(String joinScript, int start) throws UnsupportedExpressionException {
+        int end = digitsEnd(joinScript, start);
+        if (end - start > 1 && joinScript.charAt(start) == '0') {
+            // for example, a (legacy) octal literal
+            throw new UnsupportedExpressionException();
+        }
+        if (end < joinScript.length() && joinScript.charAt(end) == '.') {
+            end = digitsEnd(joinScript, end + 1);
+        }
+        if (end < joinScript.length() && (joinScript.charAt(end) == 'e' || joinScript.charAt(end) == 'E')) {
+            int exponentStart = end + 1;
+            if (exponentStart < joinScript.length()
+                    && (joinScript.charAt(exponentStart) == '+' || joinScript.charAt(exponentStart) == '-')) {
+                exponentStart++;
+            }
+            end = digitsEnd(joinScript, exponentStart);
+            if (end == exponentStart) {
+                throw new UnsupportedExpressionException();
+            }
+        }
+        if (end < joinScript.length() && isIdentifierPart(joinScript.charAt(end))) {
+            // for example, a hexadecimal literal
+            throw new UnsupportedExpressionException();
+        }
+        return end;
+    }
+
+    private static int digitsEnd(String joinScript, int start) {
+        int end = start;
+        while (end < joinScript.length() && Character.isDigit(joinScript.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static String punctuatorAt(String joinScript, int position) throws UnsupportedExpressionException {
+        for (String punctuator : PUNCTUATORS) {
+            if (joinScript.startsWith(punctuator, position)) {
+                return punctuator;
+            }
+        }
+        throw new UnsupportedExpressionException();
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return c == '_' || c == '$' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || c >= '0' && c <= '9';
+    }
+
+    private enum TokenType {
+        NUMBER, IDENTIFIER, PUNCTUATOR, END
+    }
+
+    private static class Token {
+        private final TokenType type;
+        private final String text;
+
+        public Token(TokenType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+    }
+
+    /**
+     * A compiled (sub)expression, which either evaluates to a number or to a
+     * boolean.
+     */
+    private static class Operand {
+        private final ToDoubleFunction<double[]> number;
+        private final Predicate<double[]> bool;
+
+        private Operand(ToDoubleFunction<double[]> number, Predicate<double[]> bool) {
+            this.number = number;
+            this.bool = bool;
+        }
+
+        public static Operand number(ToDoubleFunction<double[]> number) {
+            return new Operand(number, null);
+        }
+
+        public static Operand bool(Predicate<double[]> bool) {
+            return new Operand(null, bool);
+        }
+
+        /**
+         * Returns the numerical expression. Booleans are not converted to
+         * numbers, since the result of such an expression would not be a
+         * number in JavaScript.
+         */
+        public ToDoubleFunction<double[]> asNumber() throws UnsupportedExpressionException {
+            if (this.number == null) {
+                throw new UnsupportedExpressionException();
+            }
+            return this.number;
+        }
+
+        /**
+         * Returns the boolean expression. Numbers are not converted, since the
+         * logical operators would produce a number in JavaScript.
+         */
+        public Predicate<double[]> asBoolean() throws UnsupportedExpressionException {
+            if (this.bool == null) {
+                throw new UnsupportedExpressionException();
+            }
+            return this.bool;
+        }
+
+        /**
+         * Returns the expression as a condition, where a number is
+         * <code>true</code> unless it is zero or NaN (like in JavaScript).
+         */
+        public Predicate<double[]> asCondition() {
+            if (this.bool != null) {
+                return this.bool;
+            }
+            ToDoubleFunction<double[]> number = this.number;
+            return v -> {
+                double value = number.applyAsDouble(v);
+                return value != 0 && !Double.isNaN(value);
+            };
+        }
+    }
+
+    /**
+     * Thrown to indicate that a join script falls outside of the supported
+     * subset of JavaScript.
+     */
+    private static class UnsupportedExpressionException extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+}
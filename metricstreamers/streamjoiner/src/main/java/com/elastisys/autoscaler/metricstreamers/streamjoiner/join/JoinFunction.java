@@ -0,0 +1,39 @@
+package com.elastisys.autoscaler.metricstreamers.streamjoiner.join;
+
+import java.util.List;
+
+import com.elastisys.autoscaler.metricstreamers.streamjoiner.stream.JoinScriptException;
+import com.elastisys.autoscaler.metricstreamers.streamjoiner.stream.JoiningMetricStream;
+
+/**
+ * A compiled join script, which joins the latest values observed on a number
+ * of input metric streams into a single value.
+ * <p/>
+ * The input values are passed in an array, in the order of the metric stream
+ * aliases returned by {@link #getVariables()}. This allows the caller (a
+ * {@link JoiningMetricStream}) to reuse the same array between joins.
+ *
+ * @see JoinFunctions
+ */
+public interface JoinFunction {
+
+    /**
+     * Returns the metric stream aliases that the join script refers to, in
+     * the order in which their values are passed to {@link #join(double[])}.
+     *
+     * @return
+     */
+    List<String> getVariables();
+
+    /**
+     * Joins a set of input values into a single value.
+     *
+     * @param values
+     *            The values of the metric stream aliases, in the order of
+     *            {@link #getVariables()}.
+     * @return The joined value.
+     * @throws JoinScriptException
+     *             If the join script failed or did not produce a number.
+     */
+    double join(double[] values) throws JoinScriptException;
+}
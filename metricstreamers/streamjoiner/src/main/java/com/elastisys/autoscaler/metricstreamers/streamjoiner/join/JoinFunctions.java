@@ -0,0 +1,95 @@
+package com.elastisys.autoscaler.metricstreamers.streamjoiner.join;
+
+import static java.lang.String.format;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.script.CompiledScript;
+
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
+
+/**
+ * Compiles join scripts into {@link JoinFunction}s.
+ */
+public class JoinFunctions {
+
+    private JoinFunctions() {
+        throw new UnsupportedOperationException(JoinFunctions.class + " not meant to be instantiated");
+    }
+
+    /**
+     * Compiles a join script into a {@link JoinFunction}. A join script that is
+     * written in the subset of JavaScript supported by the
+     * {@link JoinExpressionCompiler} is compiled into an
+     * {@link ExpressionJoinFunction}. Any other join script is compiled by a
+     * JavaScript engine into a {@link JavaScriptJoinFunction}.
+     *
+     * @param joinScript
+     *            The join script.
+     * @param variables
+     *            The metric stream aliases that are passed to the join script.
+     * @return
+     * @throws IllegalArgumentException
+     *             If the join script is not valid JavaScript.
+     */
+    public static JoinFunction compile(String joinScript, List<String> variables) throws IllegalArgumentException {
+        return compile(joinScript, variables, new CompiledScriptCache());
+    }
+
+    /**
+     * Compiles a join script into a {@link JoinFunction}, like
+     * {@link #compile(String, List)}, but fetches any JavaScript that needs to
+     * be compiled from a {@link CompiledScriptCache}.
+     *
+     * @param joinScript
+     *            The join script.
+     * @param variables
+     *            The metric stream aliases that are passed to the join script.
+     * @param scriptCache
+     *            The cache through which JavaScripts are compiled.
+     * @return
+     * @throws IllegalArgumentException
+     *             If the join script is not valid JavaScript.
+     */
+    public static JoinFunction compile(String joinScript, List<String> variables, CompiledScriptCache scriptCache)
+            throws IllegalArgumentException {
+        Optional<JoinFunction> expression = JoinExpressionCompiler.compile(joinScript, variables);
+        if (expression.isPresent()) {
+            return expression.get();
+        }
+        return new JavaScriptJoinFunction(variables, compileJavaScript(joinScript, scriptCache));
+    }
+
+    /**
+     * Compiles a JavaScript. If invalid, an {@link IllegalArgumentException} is
+     * thrown.
+     *
+     * @param javascript
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static CompiledScript compileJavaScript(String javascript) throws IllegalArgumentException {
+        return compileJavaScript(javascript, new CompiledScriptCache());
+    }
+
+    /**
+     * Compiles a JavaScript (or fetches it from a {@link CompiledScriptCache}).
+     * If invalid, an {@link IllegalArgumentException} is thrown.
+     *
+     * @param javascript
+     * @param scriptCache
+     *            The cache through which the JavaScript is compiled.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static CompiledScript compileJavaScript(String javascript, CompiledScriptCache scriptCache)
+            throws IllegalArgumentException {
+        try {
+            return scriptCache.compile(javascript);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(format("failed to compile javascript expression: %s", e.getMessage()),
+                    e);
+        }
+    }
+}
@@ -11,9 +11,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import javax.script.Bindings;
-import javax.script.ScriptException;
-
 import org.joda.time.DateTime;
 import org.joda.time.Duration;
 import org.joda.time.Interval;
@@ -29,6 +26,7 @@ import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryRe
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.EmptyResultSet;
 import com.elastisys.autoscaler.metricstreamers.streamjoiner.AlertTopic;
 import com.elastisys.autoscaler.metricstreamers.streamjoiner.config.MetricStreamDefinition;
+import com.elastisys.autoscaler.metricstreamers.streamjoiner.join.JoinFunction;
 import com.elastisys.scale.commons.eventbus.EventBus;
 import com.elastisys.scale.commons.eventbus.Subscriber;
 import com.elastisys.scale.commons.net.alerter.Alert;
@@ -66,6 +64,17 @@ public class JoiningMetricStream implements MetricStream {
      */
     private final Map<MetricStream, MetricValue> observations = new HashMap<>();
 
+    /**
+     * The input {@link MetricStream}s in the order in which their values are
+     * passed to the {@link JoinFunction}.
+     */
+    private final MetricStream[] joinInputStreams;
+    /**
+     * Holds the values passed to the {@link JoinFunction}. Reused between
+     * joins.
+     */
+    private final double[] joinInput;
+
     public JoiningMetricStream(Logger logger, EventBus eventBus, JoiningMetricStreamConfig config) {
         this.logger = logger;
         this.eventBus = eventBus;
@@ -74,6 +83,9 @@ public class JoiningMetricStream implements MetricStream {
         for (MetricStream inputStream : config.getInputStreams().values()) {
             this.observations.put(inputStream, null);
         }
+        this.joinInputStreams = config.getJoinFunction().getVariables().stream()
+                .map(alias -> config.getInputStreams().get(alias)).toArray(MetricStream[]::new);
+        this.joinInput = new double[this.joinInputStreams.length];
     }
 
     @Override
@@ -191,23 +203,13 @@ public class JoiningMetricStream implements MetricStream {
         return writer.toString();
     }
 
-    private double runJoinScript() throws ScriptException, JoinScriptException {
-        Bindings bindings = this.config.getJoinScript().getEngine().createBindings();
-        for (String inputStreamAlias : this.config.getInputStreams().keySet()) {
-            MetricStream inputStream = this.config.getInputStreams().get(inputStreamAlias);
-            MetricValue latestMetric = this.observations.get(inputStream);
-            bindings.put(inputStreamAlias, latestMetric.getValue());
-        }
-        Object result = this.config.getJoinScript().eval(bindings);
-        if (result == null) {
-            throw new JoinScriptException(String.format("joinScript returned null (must return a number)"));
-        }
-        if (!Number.class.isAssignableFrom(result.getClass())) {
-            throw new JoinScriptException(
-                    String.format("joinScript returned a value of type %s (must return a number)", result.getClass()));
+    private double runJoinScript() throws JoinScriptException {
+        synchronized (this.joinInput) {
+            for (int i = 0; i < this.joinInputStreams.length; i++) {
+                this.joinInput[i] = this.observations.get(this.joinInputStreams[i]).getValue();
+            }
+            return this.config.getJoinFunction().join(this.joinInput);
         }
-        Number number = Number.class.cast(result);
-        return number.doubleValue();
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.elastisys.autoscaler.metricstreamers.streamjoiner.stream;
 
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.Objects;
 
@@ -7,6 +8,8 @@ import javax.script.CompiledScript;
 
 import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.metricstreamers.streamjoiner.join.JavaScriptJoinFunction;
+import com.elastisys.autoscaler.metricstreamers.streamjoiner.join.JoinFunction;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 
 /**
@@ -30,8 +33,8 @@ public class JoiningMetricStreamConfig {
 
     /**
      * The maximum difference in time between observed metric stream values for
-     * the joined metric stream to apply its {@link #joinScript} and produce a
-     * new value. If stream metrics are farther apart than this, no new metric
+     * the joined metric stream to apply its {@link #joinFunction} and produce
+     * a new value. If stream metrics are farther apart than this, no new metric
      * value is produced on the joined stream.
      */
     private final TimeInterval maxTimeDiff;
@@ -43,9 +46,10 @@ public class JoiningMetricStreamConfig {
     private final Map<String, MetricStream> inputStreams;
 
     /**
-     * The JavaScript that will join values read from the {@link #inputStreams}.
+     * The compiled join script that will join values read from the
+     * {@link #inputStreams}.
      */
-    private final CompiledScript joinScript;
+    private final JoinFunction joinFunction;
 
     /**
      * Creates a {@link JoiningMetricStreamConfig}.
@@ -59,7 +63,7 @@ public class JoiningMetricStreamConfig {
      * @param maxTimeDiff
      *            The maximum difference in time between observed metric stream
      *            values for the joined metric stream to apply its
-     *            {@link #joinScript} and produce a new value. If stream metrics
+     *            {@link #joinFunction} and produce a new value. If stream metrics
      *            are farther apart than this, no new metric value is produced
      *            on the joined stream.
      * @param inputStreams
@@ -67,14 +71,53 @@ public class JoiningMetricStreamConfig {
      *            are <i>metric stream aliases</i> and values are
      *            {@link MetricStream}s.
      * @param joinScript
+     *            The JavaScript that will join values read from the
+     *            {@link #inputStreams}.
      */
     public JoiningMetricStreamConfig(String id, String metric, TimeInterval maxTimeDiff,
             Map<String, MetricStream> inputStreams, CompiledScript joinScript) {
+        this(id, metric, maxTimeDiff, inputStreams, new JavaScriptJoinFunction(
+                new ArrayList<>(Objects.requireNonNull(inputStreams, "inputStreams: must not be null").keySet()),
+                Objects.requireNonNull(joinScript, "joinScript: must not be null")));
+    }
+
+    /**
+     * Creates a {@link JoiningMetricStreamConfig}.
+     *
+     * @param id
+     *            The id of the metric stream. This is the id that will be used
+     *            by clients wishing to subscribe to this metric stream.
+     * @param metric
+     *            The name of the metric produced by this metric stream. This is
+     *            the metric that will be set for produced {@link MetricValue}s.
+     * @param maxTimeDiff
+     *            The maximum difference in time between observed metric stream
+     *            values for the joined metric stream to apply its
+     *            {@link #joinFunction} and produce a new value. If stream
+     *            metrics are farther apart than this, no new metric value is
+     *            produced on the joined stream.
+     * @param inputStreams
+     *            The input {@link MetricStream}s that are to be joined. Keys
+     *            are <i>metric stream aliases</i> and values are
+     *            {@link MetricStream}s.
+     * @param joinFunction
+     *            The compiled join script that will join values read from the
+     *            {@link #inputStreams}. Its variables must be aliases of the
+     *            {@link #inputStreams}.
+     */
+    public JoiningMetricStreamConfig(String id, String metric, TimeInterval maxTimeDiff,
+            Map<String, MetricStream> inputStreams, JoinFunction joinFunction) {
         this.id = Objects.requireNonNull(id, "id: must not be null");
         this.metric = Objects.requireNonNull(metric, "metric: must not be null");
         this.maxTimeDiff = Objects.requireNonNull(maxTimeDiff, "maxTimeDiff: must not be null");
         this.inputStreams = Objects.requireNonNull(inputStreams, "inputStreams: must not be null");
-        this.joinScript = Objects.requireNonNull(joinScript, "joinScript: must not be null");
+        this.joinFunction = Objects.requireNonNull(joinFunction, "joinFunction: must not be null");
+        for (String variable : joinFunction.getVariables()) {
+            if (!inputStreams.containsKey(variable)) {
+                throw new IllegalArgumentException(
+                        String.format("joinFunction: variable %s is not an inputStream alias", variable));
+            }
+        }
     }
 
     /**
@@ -99,8 +142,8 @@ public class JoiningMetricStreamConfig {
 
     /**
      * The maximum difference in time between observed metric stream values for
-     * the joined metric stream to apply its {@link #joinScript} and produce a
-     * new value. If stream metrics are farther apart than this, no new metric
+     * the joined metric stream to apply its {@link #joinFunction} and produce
+     * a new value. If stream metrics are farther apart than this, no new metric
      * value is produced on the joined stream.
      *
      * @return
@@ -120,12 +163,13 @@ public class JoiningMetricStreamConfig {
     }
 
     /**
-     * The JavaScript that will join values read from the {@link #inputStreams}.
+     * The compiled join script that will join values read from the
+     * {@link #inputStreams}.
      *
      * @return
      */
-    public CompiledScript getJoinScript() {
-        return this.joinScript;
+    public JoinFunction getJoinFunction() {
+        return this.joinFunction;
     }
 
 }
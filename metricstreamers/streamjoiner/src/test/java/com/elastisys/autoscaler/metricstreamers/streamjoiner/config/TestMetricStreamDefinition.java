@@ -17,6 +17,7 @@ import javax.script.CompiledScript;
 
 import org.junit.Test;
 
+import com.elastisys.autoscaler.metricstreamers.streamjoiner.join.ExpressionJoinFunction;
 import com.elastisys.autoscaler.metricstreamers.streamjoiner.stream.JoiningMetricStream;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 import com.elastisys.scale.commons.util.collection.Maps;
@@ -51,6 +52,8 @@ public class TestMetricStreamDefinition {
         assertThat(streamDef.getMaxTimeDiff(), is(MAX_TIME_DIFF));
         assertThat(streamDef.getJoinScript(), is(JOIN_SCRIPT.stream().collect(joining("\n"))));
         assertThat(streamDef.getCompiledJoinScript(), is(instanceOf(CompiledScript.class)));
+        // a simple arithmetic join script is compiled into a native expression
+        assertThat(streamDef.getJoinFunction(), is(instanceOf(ExpressionJoinFunction.class)));
     }
 
     /**
@@ -0,0 +1,128 @@
+package com.elastisys.autoscaler.metricstreamers.streamjoiner.join;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+/**
+ * Exercises the {@link JoinExpressionCompiler}.
+ */
+public class TestJoinExpressionCompiler {
+
+    private static final List<String> VARIABLES = Arrays.asList("a", "b", "c");
+    private static final double[] VALUES = { 4.0, 2.0, -3.0 };
+
+    @Test
+    public void arithmetic() throws Exception {
+        assertThat(eval("a + b"), is(6.0));
+        assertThat(eval("a - b"), is(2.0));
+        assertThat(eval("a * b"), is(8.0));
+        assertThat(eval("a / b"), is(2.0));
+        assertThat(eval("a % 3"), is(1.0));
+        assertThat(eval("-c"), is(3.0));
+        assertThat(eval("+a"), is(4.0));
+        assertThat(eval("1.5e1"), is(15.0));
+        assertThat(eval(".5 * a"), is(2.0));
+        // division by zero follows IEEE 754, like JavaScript
+        assertThat(eval("a / 0"), is(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void precedence() throws Exception {
+        assertThat(eval("a + b * c"), is(-2.0));
+        assertThat(eval("(a + b) * c"), is(-18.0));
+        assertThat(eval("a - b - c"), is(5.0));
+        assertThat(eval("a / b / 2"), is(1.0));
+        assertThat(eval("-a * -b"), is(8.0));
+    }
+
+    @Test
+    public void conditionals() throws Exception {
+        assertThat(eval("a > b ? a : b"), is(4.0));
+        assertThat(eval("a < b ? a : b"), is(2.0));
+        assertThat(eval("a >= 4 && b <= 2 ? 1 : 0"), is(1.0));
+        assertThat(eval("a == 4 || b != 2 ? 1 : 0"), is(1.0));
+        assertThat(eval("a === 3 ? 1 : 0"), is(0.0));
+        assertThat(eval("!(a > b) ? 1 : 0"), is(0.0));
+        assertThat(eval("c < 0 ? 0 : c > 10 ? 10 : c"), is(0.0));
+    }
+
+    @Test
+    public void mathFunctions() throws Exception {
+        assertThat(eval("Math.abs(c)"), is(3.0));
+        assertThat(eval("Math.max(a, b, c)"), is(4.0));
+        assertThat(eval("Math.min(a, b, c)"), is(-3.0));
+        assertThat(eval("Math.pow(a, b)"), is(16.0));
+        assertThat(eval("Math.sqrt(a)"), is(2.0));
+        assertThat(eval("Math.ceil(a / 3)"), is(2.0));
+        assertThat(eval("Math.floor(a / 3)"), is(1.0));
+        assertThat(eval("Math.exp(0)"), is(1.0));
+        assertThat(eval("Math.log(Math.E)"), is(1.0));
+        assertThat(eval("Math.PI"), is(Math.PI));
+    }
+
+    /**
+     * {@code Math.round} must round halves towards positive infinity, just
+     * like JavaScript does.
+     */
+    @Test
+    public void round() throws Exception {
+        assertThat(eval("Math.round(2.5)"), is(3.0));
+        assertThat(eval("Math.round(-2.5)"), is(-2.0));
+        assertThat(eval("Math.round(-2.6)"), is(-3.0));
+        assertThat(eval("Math.round(a / 3)"), is(1.0));
+    }
+
+    /**
+     * A trailing semicolon and surrounding whitespace is allowed.
+     */
+    @Test
+    public void trailingSemicolon() throws Exception {
+        assertThat(eval("  a + b;\n"), is(6.0));
+    }
+
+    @Test
+    public void variablesFollowGivenOrder() throws Exception {
+        JoinFunction function = JoinExpressionCompiler.compile("c - a", Arrays.asList("c", "a")).get();
+        assertThat(function.getVariables(), is(Arrays.asList("c", "a")));
+        assertThat(function.join(new double[] { 10.0, 3.0 }), is(7.0));
+    }
+
+    /**
+     * Scripts that fall outside of the supported subset should not be
+     * compiled, but left for a JavaScript engine to handle.
+     */
+    @Test
+    public void unsupportedScripts() {
+        assertUnsupported("'a'");
+        assertUnsupported("a > b");
+        assertUnsupported("var x = a + b; x");
+        assertUnsupported("a + d");
+        assertUnsupported("a++b");
+        assertUnsupported("0x10");
+        assertUnsupported("010");
+        assertUnsupported("Math.random()");
+        assertUnsupported("Math.abs(a, b)");
+        assertUnsupported("(a > b) + 1");
+        assertUnsupported("a +");
+        assertUnsupported("");
+    }
+
+    private static double eval(String joinScript) throws Exception {
+        Optional<JoinFunction> function = JoinExpressionCompiler.compile(joinScript, VARIABLES);
+        assertTrue("expected script to compile: " + joinScript, function.isPresent());
+        return function.get().join(VALUES);
+    }
+
+    private static void assertUnsupported(String joinScript) {
+        assertFalse("expected script not to compile: " + joinScript,
+                JoinExpressionCompiler.compile(joinScript, VARIABLES).isPresent());
+    }
+}
@@ -0,0 +1,276 @@
+package com.elastisys.autoscaler.predictors.holtwinters;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+
+import com.elastisys.autoscaler.core.utils.stats.timeseries.DataPoint;
+
+/**
+ * An incrementally updated Holt-Winters (triple exponential smoothing) model
+ * with additive trend and seasonality.
+ * <p/>
+ * Observations are aggregated into fixed-length steps (by taking the mean of
+ * all observations that fall within a step). The steps are aligned with the
+ * epoch, which means that the seasonal position of a step only depends on its
+ * time. Each completed step is folded into the smoothed level, trend and
+ * seasonal components, which means that updating the model is a constant-time
+ * operation. The only state that grows with the season length is the table of
+ * seasonal components (one per step of the season).
+ * <p/>
+ * The model is initialized from the first full season of observations: the
+ * level is set to the mean of the season, the trend to zero and the seasonal
+ * components to the deviation of each step from that mean. No forecasts can
+ * be made until then.
+ * <p/>
+ * Observations must arrive in (roughly) increasing time order. An observation
+ * that belongs to a step that precedes the step currently being aggregated is
+ * rejected. Steps for which no observations arrive are skipped by letting the
+ * model follow its own forecast.
+ *
+ * @see HoltWintersPredictor
+ */
+public class HoltWintersModel {
+    /** The length of a step in milliseconds. */
+    private final long stepMillis;
+    /** The number of steps in a season. */
+    private final int seasonSteps;
+    /** The smoothing factor for the level component. */
+    private final double alpha;
+    /** The smoothing factor for the trend component. */
+    private final double beta;
+    /** The smoothing factor for the seasonal component. */
+    private final double gamma;
+
+    /**
+     * The seasonal components, indexed by seasonal position. During
+     * initialization, this holds the raw step values of the first season.
+     */
+    private final double[] seasonal;
+    /** The smoothed level. */
+    private double level;
+    /** The smoothed trend (per step). */
+    private double trend;
+    /**
+     * The number of steps observed during initialization. The model is
+     * initialized once a full season of steps has been observed.
+     */
+    private int initSteps;
+
+    /**
+     * <code>true</code> if a step is currently being aggregated, in which case
+     * {@link #openStep}, {@link #openSum} and {@link #openCount} are set.
+     */
+    private boolean hasOpenStep;
+    /** The step currently being aggregated. */
+    private long openStep;
+    /** The sum of the observations in the step currently being aggregated. */
+    private double openSum;
+    /** The number of observations in the step currently being aggregated. */
+    private int openCount;
+    /** The most recent step that has been folded into the model. */
+    private Optional<Long> lastStep;
+
+    /**
+     * Creates a {@link HoltWintersModel} that has not yet observed any values.
+     *
+     * @param stepMillis
+     *            The length of a step in milliseconds. Observations are
+     *            aggregated into steps of this length.
+     * @param seasonSteps
+     *            The number of steps in a season. Must be at least two.
+     * @param alpha
+     *            The smoothing factor for the level component. Must be in the
+     *            range {@code [0, 1]}.
+     * @param beta
+     *            The smoothing factor for the trend component. Must be in the
+     *            range {@code [0, 1]}.
+     * @param gamma
+     *            The smoothing factor for the seasonal component. Must be in
+     *            the range {@code [0, 1]}.
+     */
+    public HoltWintersModel(long stepMillis, int seasonSteps, double alpha, double beta, double gamma) {
+        checkArgument(stepMillis > 0, "step length must be positive");
+        checkArgument(seasonSteps >= 2, "a season must be at least two steps long");
+        checkArgument(0.0 <= alpha && alpha <= 1.0, "alpha must be in range [0, 1]");
+        checkArgument(0.0 <= beta && beta <= 1.0, "beta must be in range [0, 1]");
+        checkArgument(0.0 <= gamma && gamma <= 1.0, "gamma must be in range [0, 1]");
+        this.stepMillis = stepMillis;
+        this.seasonSteps = seasonSteps;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+
+        this.seasonal = new double[seasonSteps];
+        this.initSteps = 0;
+        this.hasOpenStep = false;
+        this.lastStep = Optional.empty();
+    }
+
+    /**
+     * Adds an observation to the model.
+     *
+     * @param observation
+     *            The observation.
+     * @return <code>true</code> if the observation was added,
+     *         <code>false</code> if it was rejected for being too old (that
+     *         is, it belongs to a step that precedes the step currently being
+     *         aggregated).
+     */
+    public boolean add(DataPoint observation) {
+        Objects.requireNonNull(observation, "observation cannot be null");
+        long step = stepOf(observation.getTime());
+        if (this.hasOpenStep && step < this.openStep) {
+            return false;
+        }
+
+        if (this.hasOpenStep && step > this.openStep) {
+            double value = this.openSum / this.openCount;
+            fold(this.openStep, value);
+            skipTo(step, value);
+            this.hasOpenStep = false;
+        }
+
+        if (!this.hasOpenStep) {
+            this.hasOpenStep = true;
+            this.openStep = step;
+            this.openSum = 0.0;
+            this.openCount = 0;
+        }
+        this.openSum += observation.getValue();
+        this.openCount++;
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if the model has observed a full season of
+     * steps and is ready to produce forecasts.
+     *
+     * @return
+     */
+    public boolean isInitialized() {
+        return this.initSteps == this.seasonSteps;
+    }
+
+    /**
+     * Forecasts the value of the modelled series at a given point in time.
+     * Forecasts are made from the most recently completed step, which means
+     * that the observations of the step currently being aggregated are not
+     * taken into account.
+     *
+     * @param time
+     *            The point in time for which to make a forecast. A time that
+     *            does not lie beyond the most recently completed step is
+     *            forecasted as the step following it.
+     * @return The forecasted value, or an empty result if the model has not
+     *         yet been initialized.
+     */
+    public Optional<Double> forecast(DateTime time) {
+        if (!isInitialized()) {
+            return Optional.empty();
+        }
+        long last = this.lastStep.get();
+        long stepsAhead = Math.max(1, stepOf(time) - last);
+        return Optional.of(this.level + stepsAhead * this.trend + this.seasonal[positionOf(last + stepsAhead)]);
+    }
+
+    /**
+     * Returns the smoothed level of the model. Only meaningful once the model
+     * has been initialized.
+     *
+     * @return
+     */
+    public double getLevel() {
+        return this.level;
+    }
+
+    /**
+     * Returns the smoothed trend (per step) of the model. Only meaningful once
+     * the model has been initialized.
+     *
+     * @return
+     */
+    public double getTrend() {
+        return this.trend;
+    }
+
+    /**
+     * Folds a completed step into the model.
+     *
+     * @param step
+     * @param value
+     *            The (aggregated) value of the step.
+     */
+    private void fold(long step, double value) {
+        this.lastStep = Optional.of(step);
+        int position = positionOf(step);
+
+        if (!isInitialized()) {
+            this.seasonal[position] = value;
+            this.initSteps++;
+            if (isInitialized()) {
+                initialize();
+            }
+            return;
+        }
+
+        double previousLevel = this.level;
+        double previousSeasonal = this.seasonal[position];
+        this.level = this.alpha * (value - previousSeasonal) + (1 - this.alpha) * (previousLevel + this.trend);
+        this.trend = this.beta * (this.level - previousLevel) + (1 - this.beta) * this.trend;
+        this.seasonal[position] = this.gamma * (value - this.level) + (1 - this.gamma) * previousSeasonal;
+    }
+
+    /**
+     * Advances the model past any steps without observations that precede a
+     * given step.
+     * <p/>
+     * Before the model has been initialized, skipped steps are filled with the
+     * value of the last completed step. Thereafter, skipped steps are filled
+     * with the model's own forecast, which leaves the seasonal components and
+     * the trend unchanged and advances the level by the trend. This can be
+     * done in constant time, regardless of the number of skipped steps.
+     *
+     * @param step
+     *            The step that is about to be aggregated.
+     * @param lastValue
+     *            The value of the last completed step.
+     */
+    private void skipTo(long step, double lastValue) {
+        long last = this.lastStep.get();
+        while (!isInitialized() && last + 1 < step) {
+            fold(++last, lastValue);
+        }
+        if (last + 1 < step) {
+            this.level += (step - 1 - last) * this.trend;
+            this.lastStep = Optional.of(step - 1);
+        }
+    }
+
+    /**
+     * Initializes the level, trend and seasonal components from the first
+     * season of step values.
+     */
+    private void initialize() {
+        double sum = 0.0;
+        for (double value : this.seasonal) {
+            sum += value;
+        }
+        this.level = sum / this.seasonSteps;
+        this.trend = 0.0;
+        for (int i = 0; i < this.seasonSteps; i++) {
+            this.seasonal[i] -= this.level;
+        }
+    }
+
+    private long stepOf(DateTime time) {
+        return Math.floorDiv(time.getMillis(), this.stepMillis);
+    }
+
+    private int positionOf(long step) {
+        return (int) Math.floorMod(step, (long) this.seasonSteps);
+    }
+}
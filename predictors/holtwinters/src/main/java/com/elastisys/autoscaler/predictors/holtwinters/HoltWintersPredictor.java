@@ -0,0 +1,322 @@
+package com.elastisys.autoscaler.predictors.holtwinters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.joda.time.Interval;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.Downsample;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.DownsampleFunction;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.reader.MetricStreamReader;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.SystemHistorian;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetric;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetricEvent;
+import com.elastisys.autoscaler.core.prediction.api.PredictionException;
+import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
+import com.elastisys.autoscaler.core.prediction.api.types.PredictionUnit;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.core.prediction.impl.standard.predictor.AbstractPredictor;
+import com.elastisys.autoscaler.predictors.holtwinters.config.HoltWintersPredictorParams;
+import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * A {@link Predictor} that forecasts the monitored metric with a Holt-Winters
+ * (triple exponential smoothing) model, which captures the level, the trend
+ * and the seasonal variations (such as daily or weekly load cycles) of the
+ * metric. This allows predictable load ramps to be provisioned for before they
+ * happen, rather than after the fact.
+ * <p/>
+ * The {@link HoltWintersModel} is updated incrementally, at constant cost, as
+ * new metric values arrive on the {@link MetricStream}. Since the model needs
+ * a full season of observations before it can produce forecasts, the
+ * {@link MetricStream} is queried for historical values on start-up (covering
+ * a configurable warm-up period). The query runs in the background and no
+ * predictions are made until it has completed. Until a full season has been
+ * observed, the latest observed metric value is used as prediction.
+ * <p/>
+ * To keep some margin to the load curve a {@code safetyMargin} can optionally
+ * be set in the {@link HoltWintersPredictorParams}, which will add some extra
+ * padding to every prediction.
+ */
+public class HoltWintersPredictor extends AbstractPredictor {
+
+    /**
+     * Event bus onto which {@link Alert}s and {@link SystemMetricEvent}s can be
+     * posted.
+     */
+    private final EventBus eventBus;
+    /** Executor used to query the {@link MetricStream} for warm-up values. */
+    private final ExecutorService executor;
+
+    /** The {@link MetricStreamReader} from which metric values are read. */
+    private MetricStreamReader metricReader;
+
+    /** The currently set parameters. */
+    private HoltWintersPredictorParams params;
+
+    /** The model used to forecast metric values. */
+    private HoltWintersModel model;
+    /**
+     * Historical metric values that are being fetched to warm up the model.
+     * <code>null</code> when no warm-up query is in progress.
+     */
+    private Future<List<MetricValue>> warmUp;
+    /** The latest observed metric value. */
+    private MetricValue lastReading;
+
+    @Inject
+    public HoltWintersPredictor(Logger logger, EventBus eventBus, MonitoringSubsystem monitoringSubsystem,
+            ExecutorService executor) {
+        super(logger, eventBus, monitoringSubsystem);
+        this.eventBus = eventBus;
+        this.executor = executor;
+
+        this.params = null;
+        this.model = null;
+        this.warmUp = null;
+        this.lastReading = null;
+    }
+
+    @Override
+    public void validateConfig(PredictorConfig configuration) throws IllegalArgumentException {
+        try {
+            // validate predictor-specific part of configuration
+            HoltWintersPredictorParams parameters = effectiveParameters(configuration);
+            parameters.validate();
+        } catch (Exception e) {
+            throw new IllegalArgumentException(String.format("predictor %s: %s", configuration.getId(), e.getMessage()),
+                    e);
+        }
+    }
+
+    @Override
+    public void applyConfig(PredictorConfig newConfig) throws IllegalArgumentException {
+        validateConfig(newConfig);
+
+        HoltWintersPredictorParams newParams = effectiveParameters(newConfig);
+        if (newConfig.getParameters() == null) {
+            this.logger.debug("no predictor parameters given, using defaults: {}", newParams);
+        }
+        boolean modelChanged = !newParams.equals(this.params);
+        this.params = newParams;
+        if (isStarted() && modelChanged) {
+            // re-configured without restart: rebuild model with new parameters
+            resetModel();
+        }
+    }
+
+    @Override
+    public void onStart(MetricStreamReader metricReader) {
+        this.metricReader = metricReader;
+        // start reading before querying history, to not miss any values
+        metricReader.start();
+        resetModel();
+    }
+
+    @Override
+    public void onStop() {
+        this.metricReader.stop();
+        if (this.warmUp != null) {
+            this.warmUp.cancel(true);
+            this.warmUp = null;
+        }
+    }
+
+    @Override
+    public Optional<Prediction> doPrediction(Optional<PoolSizeSummary> poolSize, DateTime predictionTime)
+            throws PredictionException {
+        String streamId = this.metricReader.getMetricStream().getId();
+        if (!completeWarmUp()) {
+            this.logger.info("still querying metric stream '{}' for warm-up values, cannot make prediction.",
+                    streamId);
+            return Optional.empty();
+        }
+
+        List<MetricValue> newReadings = new ArrayList<>();
+        this.metricReader.popTo(newReadings);
+        this.logger.debug("{} new metric value(s) received", newReadings.size());
+        observe(newReadings);
+
+        if (this.lastReading == null) {
+            this.logger.warn("no metric value has been read yet from metric stream '{}', cannot make prediction.",
+                    streamId);
+            return Optional.empty();
+        }
+
+        this.logger.debug("latest metric value reading is: {}", this.lastReading);
+        String metric = this.metricReader.getMetricStream().getMetric();
+        reportLoadObservation(metric, this.lastReading.getValue());
+
+        Optional<Double> forecast = this.model.forecast(predictionTime);
+        if (!forecast.isPresent()) {
+            this.logger.debug("model has not yet observed a full season, predicting latest metric value");
+        } else {
+            this.logger.debug("forecast for {}: {} (level: {}, trend: {})", predictionTime, forecast.get(),
+                    this.model.getLevel(), this.model.getTrend());
+        }
+        // a downward trend must not result in negative load
+        double load = Math.max(0.0, forecast.orElse(this.lastReading.getValue()));
+        double prediction = marginPaddedPrediction(load);
+        return Optional.of(new Prediction(prediction, PredictionUnit.METRIC, metric, predictionTime));
+    }
+
+    /**
+     * Replaces the current model with a new one, and starts warming it up with
+     * historical values from the {@link MetricStream}.
+     */
+    private void resetModel() {
+        this.model = new HoltWintersModel(this.params.getSamplingInterval().getMillis(),
+                this.params.getSeasonSteps(), this.params.getAlpha(), this.params.getBeta(), this.params.getGamma());
+        this.lastReading = null;
+        if (this.warmUp != null) {
+            this.warmUp.cancel(true);
+            this.warmUp = null;
+        }
+
+        long warmUpMillis = this.params.getWarmUpPeriod().getMillis();
+        if (warmUpMillis == 0) {
+            return;
+        }
+        DateTime now = UtcTime.now();
+        Interval interval = new Interval(now.minus(warmUpMillis), now);
+        Downsample downsample = new Downsample(this.params.getSamplingInterval(), DownsampleFunction.MEAN);
+        MetricStream stream = this.metricReader.getMetricStream();
+        this.warmUp = this.executor.submit(() -> fetchHistory(stream, interval, new QueryOptions(downsample)));
+    }
+
+    /**
+     * Queries a {@link MetricStream} for historical values.
+     *
+     * @param stream
+     * @param interval
+     * @param options
+     * @return The historical values, sorted in order of increasing time.
+     * @throws Exception
+     */
+    private List<MetricValue> fetchHistory(MetricStream stream, Interval interval, QueryOptions options)
+            throws Exception {
+        this.logger.debug("querying metric stream '{}' for warm-up values over {}", stream.getId(), interval);
+        List<MetricValue> values = new ArrayList<>();
+        QueryResultSet resultSet = stream.query(interval, options);
+        while (resultSet.hasNext()) {
+            values.addAll(resultSet.fetchNext().getMetricValues());
+        }
+        Collections.sort(values);
+        return values;
+    }
+
+    /**
+     * Feeds the model with the result of the warm-up query, if it has
+     * completed.
+     *
+     * @return <code>true</code> if no warm-up query is in progress (anymore),
+     *         <code>false</code> if the warm-up query is still running.
+     */
+    private boolean completeWarmUp() {
+        if (this.warmUp == null) {
+            return true;
+        }
+        if (!this.warmUp.isDone()) {
+            return false;
+        }
+
+        try {
+            List<MetricValue> history = this.warmUp.get();
+            this.logger.debug("warming up model with {} historical metric value(s)", history.size());
+            observe(history);
+        } catch (ExecutionException | CancellationException e) {
+            this.logger.warn(String.format("failed to query metric stream for warm-up values, "
+                    + "proceeding without historical values: %s", e.getMessage()), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        this.warmUp = null;
+        return true;
+    }
+
+    /**
+     * Feeds a sequence of metric values to the model.
+     *
+     * @param values
+     *            Metric values, in order of increasing time.
+     */
+    private void observe(List<MetricValue> values) {
+        for (MetricValue value : values) {
+            if (!this.model.add(value)) {
+                this.logger.debug("ignoring out-of-order metric value: {}", value);
+                continue;
+            }
+            if (this.lastReading == null || !value.getTime().isBefore(this.lastReading.getTime())) {
+                this.lastReading = value;
+            }
+        }
+    }
+
+    private double marginPaddedPrediction(double load) {
+        double marginCoefficient = 1.0 + this.params.getSafetyMargin() / 100.0;
+        return load * marginCoefficient;
+    }
+
+    /**
+     * Pushes a load observation event for the {@link Predictor}'s metric onto
+     * the {@link AutoScaler} event bus to have the {@link SystemHistorian}
+     * record the observation.
+     *
+     * @param metric
+     *            The metric for which the load observation was made
+     * @param load
+     *            The load observation.
+     */
+    private void reportLoadObservation(String metric, double load) {
+        try {
+            String systemMetric = SystemMetric.CURRENT_LOAD.getMetricName();
+            Map<String, String> tags = new HashMap<>();
+            tags.put("predictor", getConfiguration().getId());
+            tags.put("metric", metric);
+            MetricValue dataPoint = new MetricValue(systemMetric, load, UtcTime.now(), tags);
+            this.eventBus.post(new SystemMetricEvent(dataPoint));
+        } catch (Exception e) {
+            this.logger.error(
+                    String.format("failed to push current load " + "observation onto event bus: %s", e.getMessage()),
+                    e);
+        }
+    }
+
+    /**
+     * Returns the {@link HoltWintersPredictorParams} associated with a given
+     * {@link PredictorConfig}, or returns a default
+     * {@link HoltWintersPredictorParams} in case no parameters were set.
+     *
+     * @param config
+     * @return
+     */
+    private HoltWintersPredictorParams effectiveParameters(PredictorConfig config) {
+        if (config.getParameters() == null) {
+            return HoltWintersPredictorParams.DEFAULT;
+        }
+        return HoltWintersPredictorParams.parse(config.getParameters());
+    }
+}
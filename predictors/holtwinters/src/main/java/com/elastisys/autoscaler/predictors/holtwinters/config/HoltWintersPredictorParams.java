@@ -0,0 +1,252 @@
+package com.elastisys.autoscaler.predictors.holtwinters.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.predictors.holtwinters.HoltWintersPredictor;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Class that represents the {@link HoltWintersPredictor}-specific parameters
+ * of the {@link PredictorConfig}.
+ * <p/>
+ * That is, {@link HoltWintersPredictorParams} is the Java representation of
+ * the {@link PredictorConfig#getParameters()} {@link JsonObject} for the
+ * {@link HoltWintersPredictor}.
+ */
+public class HoltWintersPredictorParams {
+    /** Default length of the steps that metric values are aggregated into. */
+    public static final TimeInterval DEFAULT_SAMPLING_INTERVAL = new TimeInterval(5L, TimeUnit.MINUTES);
+    /** Default length of a season (the period of the load cycle). */
+    public static final TimeInterval DEFAULT_SEASON_LENGTH = new TimeInterval(1L, TimeUnit.DAYS);
+    /** Default smoothing factor for the level component. */
+    public static final double DEFAULT_ALPHA = 0.3;
+    /** Default smoothing factor for the trend component. */
+    public static final double DEFAULT_BETA = 0.05;
+    /** Default smoothing factor for the seasonal component. */
+    public static final double DEFAULT_GAMMA = 0.2;
+
+    /**
+     * A default {@link HoltWintersPredictorParams} to use when none is
+     * explicitly set.
+     */
+    public static final HoltWintersPredictorParams DEFAULT = new HoltWintersPredictorParams(null, null, null, null,
+            null, null, null);
+
+    /**
+     * The length of the steps that metric values are aggregated into. May be
+     * <code>null</code>. Default: {@link #DEFAULT_SAMPLING_INTERVAL}.
+     */
+    private final TimeInterval samplingInterval;
+    /**
+     * The length of a season (the period of the load cycle). Must be a
+     * multiple of the {@link #samplingInterval}. May be <code>null</code>.
+     * Default: {@link #DEFAULT_SEASON_LENGTH}.
+     */
+    private final TimeInterval seasonLength;
+    /**
+     * The smoothing factor for the level component. May be <code>null</code>.
+     * Default: {@link #DEFAULT_ALPHA}.
+     */
+    private final Double alpha;
+    /**
+     * The smoothing factor for the trend component. May be <code>null</code>.
+     * Default: {@link #DEFAULT_BETA}.
+     */
+    private final Double beta;
+    /**
+     * The smoothing factor for the seasonal component. May be
+     * <code>null</code>. Default: {@link #DEFAULT_GAMMA}.
+     */
+    private final Double gamma;
+    /**
+     * How far back in time to query the metric stream for historical values
+     * on start-up. May be <code>null</code>. Default: two seasons.
+     */
+    private final TimeInterval warmUpPeriod;
+    /**
+     * The safety margin (in percent) to add to predictions. May be
+     * <code>null</code>. Default: {@code 0.0}.
+     */
+    private final Double safetyMargin;
+
+    /**
+     * Creates a new {@link HoltWintersPredictorParams}.
+     *
+     * @param samplingInterval
+     *            The length of the steps that metric values are aggregated
+     *            into. May be <code>null</code>. Default:
+     *            {@link #DEFAULT_SAMPLING_INTERVAL}.
+     * @param seasonLength
+     *            The length of a season (the period of the load cycle). Must
+     *            be a multiple of the {@code samplingInterval}. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_SEASON_LENGTH}.
+     * @param alpha
+     *            The smoothing factor for the level component. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_ALPHA}.
+     * @param beta
+     *            The smoothing factor for the trend component. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_BETA}.
+     * @param gamma
+     *            The smoothing factor for the seasonal component. May be
+     *            <code>null</code>. Default: {@link #DEFAULT_GAMMA}.
+     * @param warmUpPeriod
+     *            How far back in time to query the metric stream for
+     *            historical values on start-up. May be <code>null</code>.
+     *            Default: two seasons.
+     * @param safetyMargin
+     *            The safety margin (in percent) to add to predictions. May be
+     *            <code>null</code>. Default: {@code 0.0}.
+     */
+    public HoltWintersPredictorParams(TimeInterval samplingInterval, TimeInterval seasonLength, Double alpha,
+            Double beta, Double gamma, TimeInterval warmUpPeriod, Double safetyMargin) {
+        this.samplingInterval = samplingInterval;
+        this.seasonLength = seasonLength;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.warmUpPeriod = warmUpPeriod;
+        this.safetyMargin = safetyMargin;
+    }
+
+    /**
+     * Returns the length of the steps that metric values are aggregated into.
+     *
+     * @return
+     */
+    public TimeInterval getSamplingInterval() {
+        return Optional.ofNullable(this.samplingInterval).orElse(DEFAULT_SAMPLING_INTERVAL);
+    }
+
+    /**
+     * Returns the length of a season (the period of the load cycle).
+     *
+     * @return
+     */
+    public TimeInterval getSeasonLength() {
+        return Optional.ofNullable(this.seasonLength).orElse(DEFAULT_SEASON_LENGTH);
+    }
+
+    /**
+     * Returns the number of sampling intervals in a season.
+     *
+     * @return
+     */
+    public int getSeasonSteps() {
+        return (int) (getSeasonLength().getMillis() / getSamplingInterval().getMillis());
+    }
+
+    /**
+     * Returns the smoothing factor for the level component.
+     *
+     * @return
+     */
+    public double getAlpha() {
+        return Optional.ofNullable(this.alpha).orElse(DEFAULT_ALPHA);
+    }
+
+    /**
+     * Returns the smoothing factor for the trend component.
+     *
+     * @return
+     */
+    public double getBeta() {
+        return Optional.ofNullable(this.beta).orElse(DEFAULT_BETA);
+    }
+
+    /**
+     * Returns the smoothing factor for the seasonal component.
+     *
+     * @return
+     */
+    public double getGamma() {
+        return Optional.ofNullable(this.gamma).orElse(DEFAULT_GAMMA);
+    }
+
+    /**
+     * Returns how far back in time to query the metric stream for historical
+     * values on start-up.
+     *
+     * @return
+     */
+    public TimeInterval getWarmUpPeriod() {
+        if (this.warmUpPeriod == null) {
+            return new TimeInterval(2 * getSeasonLength().getMillis(), TimeUnit.MILLISECONDS);
+        }
+        return this.warmUpPeriod;
+    }
+
+    /**
+     * Returns the safety margin (in percent) to add to predictions.
+     *
+     * @return
+     */
+    public double getSafetyMargin() {
+        return Optional.ofNullable(this.safetyMargin).orElse(0.0);
+    }
+
+    /**
+     * Factory method that parses out an {@link HoltWintersPredictorParams}
+     * from a JSON representation, or fails with a {@link JsonSyntaxException}.
+     *
+     * @param jsonConfig
+     *            The JSON representation of the
+     *            {@link HoltWintersPredictorParams}.
+     * @return The parsed {@link HoltWintersPredictorParams}.
+     */
+    public static HoltWintersPredictorParams parse(JsonElement jsonConfig) {
+        return JsonUtils.toObject(jsonConfig, HoltWintersPredictorParams.class);
+    }
+
+    /**
+     * Performs basic validation of this {@link HoltWintersPredictorParams} and
+     * in case verification fails, an {@link IllegalArgumentException} is
+     * thrown.
+     */
+    public void validate() throws IllegalArgumentException {
+        long samplingMillis = getSamplingInterval().getMillis();
+        long seasonMillis = getSeasonLength().getMillis();
+        checkArgument(samplingMillis > 0, "samplingInterval must be positive");
+        checkArgument(seasonMillis % samplingMillis == 0, "seasonLength must be a multiple of samplingInterval");
+        checkArgument(seasonMillis / samplingMillis >= 2, "seasonLength must be at least two samplingIntervals");
+        checkArgument(seasonMillis / samplingMillis <= Integer.MAX_VALUE,
+                "seasonLength must not contain more than %s samplingIntervals", Integer.MAX_VALUE);
+        checkArgument(0.0 <= getAlpha() && getAlpha() <= 1.0, "alpha must be in range [0, 1]");
+        checkArgument(0.0 <= getBeta() && getBeta() <= 1.0, "beta must be in range [0, 1]");
+        checkArgument(0.0 <= getGamma() && getGamma() <= 1.0, "gamma must be in range [0, 1]");
+        checkArgument(getWarmUpPeriod().getMillis() >= 0, "warmUpPeriod must be a non-negative duration");
+        checkArgument(getSafetyMargin() >= 0.0, "safetyMargin must be a non-negative value");
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof HoltWintersPredictorParams) {
+            HoltWintersPredictorParams that = (HoltWintersPredictorParams) obj;
+            return Objects.equals(this.samplingInterval, that.samplingInterval)
+                    && Objects.equals(this.seasonLength, that.seasonLength) && Objects.equals(this.alpha, that.alpha)
+                    && Objects.equals(this.beta, that.beta) && Objects.equals(this.gamma, that.gamma)
+                    && Objects.equals(this.warmUpPeriod, that.warmUpPeriod)
+                    && Objects.equals(this.safetyMargin, that.safetyMargin);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.samplingInterval, this.seasonLength, this.alpha, this.beta, this.gamma,
+                this.warmUpPeriod, this.safetyMargin);
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -0,0 +1,142 @@
+package com.elastisys.autoscaler.predictors.holtwinters;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+
+/**
+ * Exercises the {@link HoltWintersModel}.
+ */
+public class TestHoltWintersModel {
+
+    private static final long STEP_MILLIS = 60 * 1000L;
+    private static final int SEASON_STEPS = 4;
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void forecastBeforeInitialization() {
+        HoltWintersModel model = new HoltWintersModel(STEP_MILLIS, SEASON_STEPS, 0.5, 0.1, 0.3);
+        assertThat(model.forecast(step(0)), is(Optional.empty()));
+
+        // three completed steps (the fourth step is still being aggregated)
+        for (int step = 0; step < SEASON_STEPS; step++) {
+            model.add(value(10.0, step));
+        }
+        assertThat(model.isInitialized(), is(false));
+        assertThat(model.forecast(step(SEASON_STEPS)), is(Optional.empty()));
+
+        model.add(value(10.0, SEASON_STEPS));
+        assertThat(model.isInitialized(), is(true));
+    }
+
+    /**
+     * A series that repeats the same season over and over should be forecast
+     * perfectly, also several seasons ahead.
+     */
+    @Test
+    public void forecastPurelySeasonalSeries() {
+        double[] season = { 10.0, 20.0, 40.0, 20.0 };
+        HoltWintersModel model = new HoltWintersModel(STEP_MILLIS, SEASON_STEPS, 0.5, 0.1, 0.3);
+        int steps = 5 * SEASON_STEPS;
+        for (int step = 0; step <= steps; step++) {
+            model.add(value(season[step % SEASON_STEPS], step));
+        }
+
+        assertEquals(0.0, model.getTrend(), DELTA);
+        for (int step = steps; step < steps + 2 * SEASON_STEPS; step++) {
+            assertEquals(season[step % SEASON_STEPS], model.forecast(step(step)).get(), DELTA);
+        }
+    }
+
+    /**
+     * The model should pick up a trend in the series and extrapolate it.
+     */
+    @Test
+    public void forecastTrendingSeries() {
+        double[] season = { 10.0, 20.0, 40.0, 20.0 };
+        HoltWintersModel model = new HoltWintersModel(STEP_MILLIS, SEASON_STEPS, 0.5, 0.5, 0.3);
+        int steps = 50 * SEASON_STEPS;
+        for (int step = 0; step <= steps; step++) {
+            model.add(value(season[step % SEASON_STEPS] + step, step));
+        }
+
+        assertEquals(1.0, model.getTrend(), 0.01);
+        int ahead = steps + 6;
+        assertEquals(season[ahead % SEASON_STEPS] + ahead, model.forecast(step(ahead)).get(), 0.1);
+    }
+
+    /**
+     * Observations within the same step should be aggregated into their mean.
+     */
+    @Test
+    public void aggregateObservationsWithinStep() {
+        HoltWintersModel model = new HoltWintersModel(STEP_MILLIS, 2, 0.5, 0.1, 0.3);
+        model.add(new MetricValue("metric", 10.0, step(0)));
+        model.add(new MetricValue("metric", 30.0, step(0).plusSeconds(30)));
+        model.add(value(20.0, 1));
+        model.add(value(20.0, 2));
+
+        // level is mean of first season, with no seasonal variation
+        assertThat(model.isInitialized(), is(true));
+        assertEquals(20.0, model.getLevel(), DELTA);
+        assertEquals(20.0, model.forecast(step(2)).get(), DELTA);
+    }
+
+    /**
+     * Steps without observations should be skipped by letting the model follow
+     * its own forecast, which leaves the forecast for later steps unchanged.
+     */
+    @Test
+    public void skipStepsWithoutObservations() {
+        HoltWintersModel gapless = new HoltWintersModel(STEP_MILLIS, SEASON_STEPS, 0.5, 0.5, 0.3);
+        HoltWintersModel gapped = new HoltWintersModel(STEP_MILLIS, SEASON_STEPS, 0.5, 0.5, 0.3);
+        for (int step = 0; step <= 20; step++) {
+            gapless.add(value(step, step));
+            gapped.add(value(step, step));
+        }
+
+        gapless.add(value(21.0, 21));
+        // a long gap
+        gapped.add(value(21.0, 1001));
+
+        assertEquals(gapless.getTrend(), gapped.getTrend(), DELTA);
+        assertEquals(gapless.forecast(step(2000)).get(), gapped.forecast(step(2000)).get(), 1e-6);
+    }
+
+    @Test
+    public void rejectObservationsFromCompletedSteps() {
+        HoltWintersModel model = new HoltWintersModel(STEP_MILLIS, SEASON_STEPS, 0.5, 0.1, 0.3);
+        assertThat(model.add(value(10.0, 5)), is(true));
+        assertThat(model.add(value(10.0, 6)), is(true));
+        // belongs to a completed step
+        assertThat(model.add(value(10.0, 5)), is(false));
+        // belongs to the step currently being aggregated
+        assertThat(model.add(value(10.0, 6)), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithTooShortSeason() {
+        new HoltWintersModel(STEP_MILLIS, 1, 0.5, 0.1, 0.3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithIllegalSmoothingFactor() {
+        new HoltWintersModel(STEP_MILLIS, SEASON_STEPS, 1.5, 0.1, 0.3);
+    }
+
+    private static DateTime step(int step) {
+        return new DateTime(step * STEP_MILLIS, DateTimeZone.UTC);
+    }
+
+    private static MetricValue value(double value, int step) {
+        return new MetricValue("metric", value, step(step));
+    }
+}
@@ -0,0 +1,282 @@
+package com.elastisys.autoscaler.predictors.holtwinters;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.any;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.Interval;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamException;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.SinglePageResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.reader.MetricStreamReader;
+import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
+import com.elastisys.autoscaler.core.prediction.api.types.PredictionUnit;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.predictors.holtwinters.config.HoltWintersPredictorParams;
+import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.eventbus.impl.SynchronousEventBus;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link HoltWintersPredictor}, by feeding it historical
+ * {@link MetricValue}s through {@link MetricStream} queries and pushing new
+ * {@link MetricValue}s onto the {@link Predictor}'s {@link MetricStream}, and
+ * asking the {@link Predictor} to make predictions.
+ */
+public class TestHoltWintersPredictorOperation {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestHoltWintersPredictorOperation.class);
+
+    private static final String METRIC_NAME = "http.request.rate";
+    private static final String METRIC_STREAM_ID = METRIC_NAME + ".stream";
+
+    /** A season of one hour, with four 15 minute steps. */
+    private static final double[] SEASON = { 10.0, 20.0, 40.0, 20.0 };
+    private static final TimeInterval SAMPLING_INTERVAL = new TimeInterval(15L, TimeUnit.MINUTES);
+    private static final TimeInterval SEASON_LENGTH = new TimeInterval(1L, TimeUnit.HOURS);
+
+    private static final double DELTA = 1e-9;
+
+    private final EventBus eventBus = new SynchronousEventBus(logger);
+    private final MonitoringSubsystem mockedMonitoringSubsystem = mock(MonitoringSubsystem.class);
+    private final MetricStream mockedMetricStream = mock(MetricStream.class);
+    private ExecutorService executor;
+
+    /** Object under test. */
+    private Predictor predictor;
+
+    @Before
+    public void onSetup() {
+        FrozenTime.setFixed(UtcTime.parse("2014-05-20T12:00:00.000Z"));
+        prepareMockedMetricStream();
+        this.executor = Executors.newSingleThreadExecutor();
+
+        this.predictor = new HoltWintersPredictor(logger, this.eventBus, this.mockedMonitoringSubsystem,
+                this.executor);
+    }
+
+    @After
+    public void onTeardown() {
+        this.executor.shutdownNow();
+    }
+
+    private void prepareMockedMetricStream() {
+        MetricStreamer mockedMetricStreamer = mock(MetricStreamer.class);
+        when(this.mockedMonitoringSubsystem.getMetricStreamers()).thenReturn(asList(mockedMetricStreamer));
+        when(mockedMetricStreamer.getMetricStream(Matchers.argThat(is(any(String.class)))))
+                .thenReturn(this.mockedMetricStream);
+
+        when(this.mockedMetricStream.getId()).thenReturn(METRIC_STREAM_ID);
+        when(this.mockedMetricStream.getMetric()).thenReturn(METRIC_NAME);
+    }
+
+    /**
+     * The {@link HoltWintersPredictor} can run with <code>null</code>
+     * parameters. If so, it uses a default config.
+     */
+    @Test
+    public void configureWithNullParameters() {
+        this.predictor.configure(
+                new PredictorConfig("p1", HoltWintersPredictor.class.getName(), State.STARTED, METRIC_STREAM_ID, null));
+    }
+
+    @Test
+    public void startAndStop() throws Exception {
+        this.predictor.configure(config(0.0));
+        assertThat(this.predictor.getStatus().getState(), is(State.STOPPED));
+        this.predictor.start();
+        assertThat(this.predictor.getStatus().getState(), is(State.STARTED));
+        this.predictor.stop();
+        assertThat(this.predictor.getStatus().getState(), is(State.STOPPED));
+    }
+
+    /**
+     * No prediction returned unless at least one {@link MetricValue} has been
+     * observed.
+     */
+    @Test
+    public void predictWithoutObservingAnyMetricValues() throws Exception {
+        history(new ArrayList<>());
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+        awaitWarmUp();
+
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(0), UtcTime.now().plusMinutes(30));
+        assertThat(prediction, is(Optional.empty()));
+    }
+
+    /**
+     * With historical values covering at least a season, the predictor should
+     * be able to forecast the seasonal variations of the metric right away.
+     */
+    @Test
+    public void predictAfterWarmUp() throws Exception {
+        history(seasons(2));
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+        awaitWarmUp();
+
+        DateTime predictionTime = UtcTime.now().plusMinutes(30);
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(0), predictionTime);
+        assertThat(prediction.isPresent(), is(true));
+        assertThat(prediction.get().getTimestamp(), is(predictionTime));
+        assertThat(prediction.get().getMetric(), is(METRIC_NAME));
+        assertThat(prediction.get().getUnit(), is(PredictionUnit.METRIC));
+        // predicts the peak of the season, although latest value is lower
+        assertEquals(SEASON[2], prediction.get().getValue(), DELTA);
+    }
+
+    @Test
+    public void predictWithSafetyMargin() throws Exception {
+        history(seasons(2));
+        this.predictor.configure(config(20.0));
+        this.predictor.start();
+        awaitWarmUp();
+
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(0), UtcTime.now().plusMinutes(30));
+        assertEquals(SEASON[2] * 1.20, prediction.get().getValue(), DELTA);
+    }
+
+    /**
+     * Until a full season has been observed, the latest observed metric value
+     * should be used as prediction.
+     */
+    @Test
+    public void predictBeforeFullSeasonObserved() throws Exception {
+        history(new ArrayList<>());
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+        awaitWarmUp();
+
+        DateTime now = UtcTime.now();
+        streamLoadMetric(new MetricValue(METRIC_NAME, 1.0, now.minusMinutes(20)));
+        streamLoadMetric(new MetricValue(METRIC_NAME, 3.0, now.minusSeconds(1)));
+
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(0), now.plusMinutes(30));
+        assertThat(prediction.isPresent(), is(true));
+        assertEquals(3.0, prediction.get().getValue(), DELTA);
+    }
+
+    /**
+     * A failure to fetch historical values should not prevent the predictor
+     * from making predictions from new metric values.
+     */
+    @Test
+    public void predictAfterFailedWarmUp() throws Exception {
+        when(this.mockedMetricStream.query(Matchers.any(Interval.class), Matchers.any(QueryOptions.class)))
+                .thenThrow(new MetricStreamException("connection refused"));
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+        awaitWarmUp();
+
+        streamLoadMetric(new MetricValue(METRIC_NAME, 3.0, UtcTime.now().minusSeconds(1)));
+
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(0), UtcTime.now().plusMinutes(30));
+        assertThat(prediction.isPresent(), is(true));
+        assertEquals(3.0, prediction.get().getValue(), DELTA);
+    }
+
+    /**
+     * The predictor does not rely on the current pool size and should be able
+     * to handle situations where it is missing.
+     */
+    @Test
+    public void predictWithUnknownPoolSize() throws Exception {
+        history(seasons(2));
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+        awaitWarmUp();
+
+        Optional<PoolSizeSummary> absentPoolSize = Optional.empty();
+        Optional<Prediction> prediction = this.predictor.predict(absentPoolSize, UtcTime.now().plusMinutes(30));
+        assertThat(prediction.isPresent(), is(true));
+    }
+
+    private PredictorConfig config(double safetyMargin) {
+        HoltWintersPredictorParams params = new HoltWintersPredictorParams(SAMPLING_INTERVAL, SEASON_LENGTH, 0.5, 0.1,
+                0.3, new TimeInterval(2L, TimeUnit.HOURS), safetyMargin);
+        return new PredictorConfig("p1", HoltWintersPredictor.class.getName(), State.STARTED, METRIC_STREAM_ID,
+                JsonUtils.toJson(params).getAsJsonObject());
+    }
+
+    /**
+     * Sets up the historical values returned by {@link MetricStream} queries.
+     *
+     * @param values
+     */
+    private void history(List<MetricValue> values) throws MetricStreamException {
+        when(this.mockedMetricStream.query(Matchers.any(Interval.class), Matchers.any(QueryOptions.class)))
+                .thenReturn(new SinglePageResultSet(values));
+    }
+
+    /**
+     * Returns a number of seasons of (one hour long) {@link #SEASON}s that end
+     * at the current time.
+     *
+     * @param seasons
+     * @return
+     */
+    private List<MetricValue> seasons(int seasons) {
+        List<MetricValue> values = new ArrayList<>();
+        DateTime start = UtcTime.now().minusHours(seasons);
+        for (int step = 0; step < seasons * SEASON.length; step++) {
+            DateTime time = start.plusMinutes(15 * step);
+            values.add(new MetricValue(METRIC_NAME, SEASON[step % SEASON.length], time));
+        }
+        return values;
+    }
+
+    /**
+     * Waits for the warm-up query that the predictor submitted on start to
+     * complete.
+     */
+    private void awaitWarmUp() throws Exception {
+        // the executor is single-threaded, so any warm-up query runs first
+        this.executor.submit(() -> {
+        }).get();
+    }
+
+    private Optional<PoolSizeSummary> machinePool(int size) {
+        return Optional.of(new PoolSizeSummary(size, size, size));
+    }
+
+    /**
+     * Pushes a {@link MetricValue} onto the {@link EventBus}, which the
+     * {@link Predictor}'s {@link MetricStreamReader} will capture.
+     *
+     * @param value
+     */
+    private void streamLoadMetric(MetricValue value) {
+        this.eventBus.post(new MetricStreamMessage(METRIC_STREAM_ID, asList(value)));
+    }
+}
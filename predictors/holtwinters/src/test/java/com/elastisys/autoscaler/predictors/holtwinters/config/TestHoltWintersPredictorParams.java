@@ -0,0 +1,94 @@
+package com.elastisys.autoscaler.predictors.holtwinters.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.google.gson.JsonObject;
+
+/**
+ * Exercises the {@link HoltWintersPredictorParams}.
+ */
+public class TestHoltWintersPredictorParams {
+
+    @Test
+    public void parseCompleteConfig() throws IOException {
+        HoltWintersPredictorParams params = parse("holtwinters/complete-config.json");
+        params.validate();
+
+        assertThat(params.getSamplingInterval(), is(new TimeInterval(10L, TimeUnit.MINUTES)));
+        assertThat(params.getSeasonLength(), is(new TimeInterval(7L, TimeUnit.DAYS)));
+        assertThat(params.getSeasonSteps(), is(7 * 24 * 6));
+        assertThat(params.getAlpha(), is(0.4));
+        assertThat(params.getBeta(), is(0.1));
+        assertThat(params.getGamma(), is(0.25));
+        assertThat(params.getWarmUpPeriod(), is(new TimeInterval(14L, TimeUnit.DAYS)));
+        assertThat(params.getSafetyMargin(), is(10.0));
+    }
+
+    /**
+     * All parameters are optional.
+     */
+    @Test
+    public void parseConfigRelyingOnDefaults() throws IOException {
+        HoltWintersPredictorParams params = parse("holtwinters/minimal-config.json");
+        params.validate();
+
+        assertThat(params, is(HoltWintersPredictorParams.DEFAULT));
+        assertThat(params.getSamplingInterval(), is(HoltWintersPredictorParams.DEFAULT_SAMPLING_INTERVAL));
+        assertThat(params.getSeasonLength(), is(HoltWintersPredictorParams.DEFAULT_SEASON_LENGTH));
+        assertThat(params.getSeasonSteps(), is(24 * 12));
+        assertThat(params.getAlpha(), is(HoltWintersPredictorParams.DEFAULT_ALPHA));
+        assertThat(params.getBeta(), is(HoltWintersPredictorParams.DEFAULT_BETA));
+        assertThat(params.getGamma(), is(HoltWintersPredictorParams.DEFAULT_GAMMA));
+        // defaults to two seasons
+        assertThat(params.getWarmUpPeriod().getMillis(), is(TimeUnit.DAYS.toMillis(2)));
+        assertThat(params.getSafetyMargin(), is(0.0));
+    }
+
+    /**
+     * A season must consist of a whole number of sampling intervals.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void withSeasonLengthNotMultipleOfSamplingInterval() {
+        new HoltWintersPredictorParams(new TimeInterval(7L, TimeUnit.MINUTES), new TimeInterval(1L, TimeUnit.HOURS),
+                null, null, null, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withTooShortSeason() {
+        new HoltWintersPredictorParams(new TimeInterval(1L, TimeUnit.HOURS), new TimeInterval(1L, TimeUnit.HOURS),
+                null, null, null, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withIllegalAlpha() {
+        new HoltWintersPredictorParams(null, null, 1.1, null, null, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withIllegalBeta() {
+        new HoltWintersPredictorParams(null, null, null, -0.1, null, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withIllegalGamma() {
+        new HoltWintersPredictorParams(null, null, null, null, 2.0, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withIllegalSafetyMargin() {
+        new HoltWintersPredictorParams(null, null, null, null, null, null, -1.0).validate();
+    }
+
+    private static HoltWintersPredictorParams parse(String resource) throws IOException {
+        JsonObject json = JsonUtils.parseJsonResource(resource).getAsJsonObject();
+        return HoltWintersPredictorParams.parse(json.get("parameters").getAsJsonObject());
+    }
+}
@@ -0,0 +1,273 @@
+package com.elastisys.autoscaler.predictors.kalman;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+
+import com.elastisys.autoscaler.core.utils.stats.timeseries.DataPoint;
+
+/**
+ * A Kalman filter that tracks a metric with a constant-velocity model: the
+ * state of the metric is its <i>level</i> and its <i>velocity</i> (rate of
+ * change per second), where the velocity is assumed to stay constant apart
+ * from random accelerations.
+ * <p/>
+ * Observed data points are assumed to be the level of the metric disturbed by
+ * measurement noise. Each observed data point updates the state estimate (and
+ * its covariance) in constant time, so the filter's cost does not depend on
+ * the number of data points observed.
+ * <p/>
+ * The noise of the model is characterized by:
+ * <ul>
+ * <li>the <i>measurement noise</i>: the standard deviation of the noise in
+ * observed data points. The higher it is compared to the process noise, the
+ * more the observed data points are smoothed.</li>
+ * <li>the <i>process noise</i>: the standard deviation of the random
+ * accelerations of the metric (per second squared), modeled as continuous
+ * white noise. The higher it is compared to the measurement noise, the faster
+ * the filter follows changes in the metric.</li>
+ * </ul>
+ * The filter is initialized from the first two observed data points. Data
+ * points must be observed in order of increasing time. A data point that is
+ * older than the most recently observed data point is rejected.
+ *
+ * @see KalmanPredictor
+ */
+public class ConstantVelocityKalmanFilter {
+    /** The variance of the measurement noise. */
+    private final double measurementVariance;
+    /** The spectral density of the (white noise) acceleration. */
+    private final double processVariance;
+
+    /** The most recently observed data point. <code>null</code> if none. */
+    private DataPoint latest;
+    /** <code>true</code> if the filter has been initialized. */
+    private boolean initialized;
+
+    /** The estimated level of the metric. */
+    private double level;
+    /** The estimated velocity (per second) of the metric. */
+    private double velocity;
+    /** The variance of the level estimate. */
+    private double levelVariance;
+    /** The covariance of the level and velocity estimates. */
+    private double covariance;
+    /** The variance of the velocity estimate. */
+    private double velocityVariance;
+
+    /**
+     * Creates a {@link ConstantVelocityKalmanFilter} that has not yet observed
+     * any data points.
+     *
+     * @param measurementNoise
+     *            The standard deviation of the noise in observed data points.
+     * @param processNoise
+     *            The standard deviation of the random accelerations of the
+     *            metric (per second squared).
+     */
+    public ConstantVelocityKalmanFilter(double measurementNoise, double processNoise) {
+        checkArgument(measurementNoise > 0.0, "measurement noise must be positive");
+        checkArgument(processNoise >= 0.0, "process noise must be non-negative");
+        this.measurementVariance = measurementNoise * measurementNoise;
+        this.processVariance = processNoise * processNoise;
+
+        this.latest = null;
+        this.initialized = false;
+    }
+
+    /**
+     * Updates the state estimate with an observed data point.
+     *
+     * @param dataPoint
+     *            The observed data point.
+     * @return <code>true</code> if the data point was observed,
+     *         <code>false</code> if it was rejected for being older than the
+     *         most recently observed data point.
+     */
+    public boolean observe(DataPoint dataPoint) {
+        Objects.requireNonNull(dataPoint, "data point cannot be null");
+        if (this.latest != null && dataPoint.getTime().isBefore(this.latest.getTime())) {
+            return false;
+        }
+
+        if (this.latest == null) {
+            this.latest = dataPoint;
+            return true;
+        }
+        double dt = secondsBetween(this.latest.getTime(), dataPoint.getTime());
+        if (!this.initialized) {
+            if (dt > 0.0) {
+                initialize(this.latest, dataPoint, dt);
+            }
+            // with coinciding times, start over from the new data point
+            this.latest = dataPoint;
+            return true;
+        }
+
+        // predict: propagate state and covariance to the observation time
+        this.level += dt * this.velocity;
+        this.levelVariance += 2 * dt * this.covariance + dt * dt * this.velocityVariance
+                + this.processVariance * dt * dt * dt / 3;
+        this.covariance += dt * this.velocityVariance + this.processVariance * dt * dt / 2;
+        this.velocityVariance += this.processVariance * dt;
+
+        // correct: blend in the observation in proportion to its certainty
+        double innovation = dataPoint.getValue() - this.level;
+        double innovationVariance = this.levelVariance + this.measurementVariance;
+        double levelGain = this.levelVariance / innovationVariance;
+        double velocityGain = this.covariance / innovationVariance;
+        this.level += levelGain * innovation;
+        this.velocity += velocityGain * innovation;
+        this.velocityVariance -= velocityGain * this.covariance;
+        this.levelVariance *= 1 - levelGain;
+        this.covariance *= 1 - levelGain;
+
+        this.latest = dataPoint;
+        return true;
+    }
+
+    /**
+     * Initializes the state estimate from the first two data points, which
+     * are at {@code dt} seconds from each other.
+     *
+     * @param first
+     * @param second
+     * @param dt
+     */
+    private void initialize(DataPoint first, DataPoint second, double dt) {
+        this.level = second.getValue();
+        this.velocity = (second.getValue() - first.getValue()) / dt;
+        this.levelVariance = this.measurementVariance;
+        this.covariance = this.measurementVariance / dt;
+        this.velocityVariance = 2 * this.measurementVariance / (dt * dt);
+        this.initialized = true;
+    }
+
+    /**
+     * Returns <code>true</code> if enough data points have been observed to
+     * estimate both the level and the velocity of the metric.
+     *
+     * @return
+     */
+    public boolean isInitialized() {
+        return this.initialized;
+    }
+
+    /**
+     * Returns the most recently observed data point, if any.
+     *
+     * @return
+     */
+    public Optional<DataPoint> getLatest() {
+        return Optional.ofNullable(this.latest);
+    }
+
+    /**
+     * Returns the current state estimate, as of the most recently observed
+     * data point. Absent until the filter has been initialized.
+     *
+     * @return
+     */
+    public Optional<Estimate> getEstimate() {
+        if (!this.initialized) {
+            return Optional.empty();
+        }
+        return Optional.of(new Estimate(this.level, this.velocity, Math.sqrt(this.levelVariance),
+                Math.sqrt(this.velocityVariance)));
+    }
+
+    /**
+     * Forecasts the level of the metric at a given point in time, by
+     * extrapolating the current state estimate. The uncertainty of the
+     * forecast grows with the distance from the most recently observed data
+     * point.
+     *
+     * @param time
+     *            The point in time to forecast. Times before the most recently
+     *            observed data point are forecast as of that data point.
+     * @return The forecast level of the metric. Absent until the filter has
+     *         been initialized.
+     */
+    public Optional<Estimate> forecast(DateTime time) {
+        if (!this.initialized) {
+            return Optional.empty();
+        }
+        double dt = Math.max(0.0, secondsBetween(this.latest.getTime(), time));
+        double level = this.level + dt * this.velocity;
+        double levelVariance = this.levelVariance + 2 * dt * this.covariance + dt * dt * this.velocityVariance
+                + this.processVariance * dt * dt * dt / 3;
+        double velocityVariance = this.velocityVariance + this.processVariance * dt;
+        return Optional.of(new Estimate(level, this.velocity, Math.sqrt(levelVariance), Math.sqrt(velocityVariance)));
+    }
+
+    private static double secondsBetween(DateTime from, DateTime to) {
+        return (to.getMillis() - from.getMillis()) / 1000.0;
+    }
+
+    /**
+     * An estimate of the level and velocity of a metric, together with the
+     * uncertainty (standard deviation) of each.
+     */
+    public static class Estimate {
+        /** The estimated level. */
+        private final double level;
+        /** The estimated velocity (per second). */
+        private final double velocity;
+        /** The standard deviation of the level estimate. */
+        private final double levelStdDev;
+        /** The standard deviation of the velocity estimate. */
+        private final double velocityStdDev;
+
+        public Estimate(double level, double velocity, double levelStdDev, double velocityStdDev) {
+            this.level = level;
+            this.velocity = velocity;
+            this.levelStdDev = levelStdDev;
+            this.velocityStdDev = velocityStdDev;
+        }
+
+        /**
+         * Returns the estimated level.
+         *
+         * @return
+         */
+        public double getLevel() {
+            return this.level;
+        }
+
+        /**
+         * Returns the estimated velocity (per second).
+         *
+         * @return
+         */
+        public double getVelocity() {
+            return this.velocity;
+        }
+
+        /**
+         * Returns the standard deviation of the level estimate.
+         *
+         * @return
+         */
+        public double getLevelStdDev() {
+            return this.levelStdDev;
+        }
+
+        /**
+         * Returns the standard deviation of the velocity estimate.
+         *
+         * @return
+         */
+        public double getVelocityStdDev() {
+            return this.velocityStdDev;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{level: %.4f (+/- %.4f), velocity: %.4f/s (+/- %.4f)}", this.level,
+                    this.levelStdDev, this.velocity, this.velocityStdDev);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.elastisys.autoscaler.predictors.kalman;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.reader.MetricStreamReader;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.SystemHistorian;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetric;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetricEvent;
+import com.elastisys.autoscaler.core.prediction.api.PredictionException;
+import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
+import com.elastisys.autoscaler.core.prediction.api.types.PredictionUnit;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.core.prediction.impl.standard.predictor.AbstractPredictor;
+import com.elastisys.autoscaler.core.utils.stats.timeseries.DataPoint;
+import com.elastisys.autoscaler.predictors.kalman.ConstantVelocityKalmanFilter.Estimate;
+import com.elastisys.autoscaler.predictors.kalman.config.KalmanPredictorParams;
+import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * A {@link Predictor} that tracks the monitored metric with a constant-velocity
+ * Kalman filter (see {@link ConstantVelocityKalmanFilter}) and extrapolates the
+ * filtered level and rate of change of the metric to the prediction time.
+ * <p/>
+ * The filter smooths out measurement noise, which keeps noisy metrics from
+ * making predictions flap, while still following real trends in the metric.
+ * Each observed metric value updates the filter in constant time.
+ * <p/>
+ * To keep some margin to the load curve, a number of standard deviations of
+ * forecast uncertainty can optionally be added to every prediction via the
+ * {@code uncertaintyMargin} in the {@link KalmanPredictorParams}.
+ * <p/>
+ * The filter's state estimate and its uncertainty are reported as
+ * {@link SystemMetric#PREDICTOR_STATE_ESTIMATE} and
+ * {@link SystemMetric#PREDICTOR_STATE_UNCERTAINTY} system metrics, whenever
+ * new metric values have been observed.
+ * <p/>
+ * Until two metric values (at different times) have been observed, the latest
+ * observed metric value is used as prediction.
+ */
+public class KalmanPredictor extends AbstractPredictor {
+
+    /**
+     * Event bus onto which {@link Alert}s and {@link SystemMetricEvent}s can be
+     * posted.
+     */
+    private final EventBus eventBus;
+
+    /** The {@link MetricStreamReader} from which metric values are read. */
+    private MetricStreamReader metricReader;
+
+    /** The currently set parameters. */
+    private KalmanPredictorParams params;
+
+    /** The filter that tracks the metric. */
+    private ConstantVelocityKalmanFilter filter;
+
+    @Inject
+    public KalmanPredictor(Logger logger, EventBus eventBus, MonitoringSubsystem monitoringSubsystem) {
+        super(logger, eventBus, monitoringSubsystem);
+        this.eventBus = eventBus;
+
+        this.params = null;
+        this.filter = null;
+    }
+
+    @Override
+    public void validateConfig(PredictorConfig configuration) throws IllegalArgumentException {
+        try {
+            // validate predictor-specific part of configuration
+            KalmanPredictorParams parameters = effectiveParameters(configuration);
+            parameters.validate();
+        } catch (Exception e) {
+            throw new IllegalArgumentException(String.format("predictor %s: %s", configuration.getId(), e.getMessage()),
+                    e);
+        }
+    }
+
+    @Override
+    public void applyConfig(PredictorConfig newConfig) throws IllegalArgumentException {
+        validateConfig(newConfig);
+
+        KalmanPredictorParams newParams = effectiveParameters(newConfig);
+        if (newConfig.getParameters() == null) {
+            this.logger.debug("no predictor parameters given, using defaults: {}", newParams);
+        }
+        boolean noiseChanged = this.params == null
+                || newParams.getMeasurementNoise() != this.params.getMeasurementNoise()
+                || newParams.getProcessNoise() != this.params.getProcessNoise();
+        this.params = newParams;
+        if (noiseChanged) {
+            this.filter = newFilter();
+        }
+    }
+
+    @Override
+    public void onStart(MetricStreamReader metricReader) {
+        this.metricReader = metricReader;
+        // metric stream may have changed: start over with a fresh filter
+        this.filter = newFilter();
+        metricReader.start();
+    }
+
+    @Override
+    public void onStop() {
+        this.metricReader.stop();
+    }
+
+    @Override
+    public Optional<Prediction> doPrediction(Optional<PoolSizeSummary> poolSize, DateTime predictionTime)
+            throws PredictionException {
+        List<MetricValue> newReadings = new ArrayList<>();
+        this.metricReader.popTo(newReadings);
+        this.logger.debug("{} new metric value(s) received", newReadings.size());
+        for (MetricValue reading : newReadings) {
+            if (!this.filter.observe(reading)) {
+                this.logger.debug("ignoring out-of-order metric value: {}", reading);
+            }
+        }
+
+        Optional<DataPoint> lastReading = this.filter.getLatest();
+        if (!lastReading.isPresent()) {
+            this.logger.warn("no metric value has been read yet from metric stream '{}', cannot make prediction.",
+                    this.metricReader.getMetricStream().getId());
+            return Optional.empty();
+        }
+
+        this.logger.debug("latest metric value reading is: {}", lastReading.get());
+        String metric = this.metricReader.getMetricStream().getMetric();
+        reportLoadObservation(metric, lastReading.get().getValue());
+
+        Optional<Estimate> forecast = this.filter.forecast(predictionTime);
+        if (!forecast.isPresent()) {
+            this.logger.debug("filter not yet initialized, predicting latest metric value");
+            return Optional.of(new Prediction(lastReading.get().getValue(), PredictionUnit.METRIC, metric,
+                    predictionTime));
+        }
+        if (!newReadings.isEmpty()) {
+            reportStateEstimate(metric, lastReading.get().getTime(), this.filter.getEstimate().get());
+        }
+
+        this.logger.debug("forecast for {}: {}", predictionTime, forecast.get());
+        double prediction = forecast.get().getLevel()
+                + this.params.getUncertaintyMargin() * forecast.get().getLevelStdDev();
+        return Optional.of(new Prediction(Math.max(0.0, prediction), PredictionUnit.METRIC, metric, predictionTime));
+    }
+
+    private ConstantVelocityKalmanFilter newFilter() {
+        return new ConstantVelocityKalmanFilter(this.params.getMeasurementNoise(), this.params.getProcessNoise());
+    }
+
+    /**
+     * Pushes a load observation event for the {@link Predictor}'s metric onto
+     * the {@link AutoScaler} event bus to have the {@link SystemHistorian}
+     * record the observation.
+     *
+     * @param metric
+     *            The metric for which the load observation was made
+     * @param load
+     *            The load observation.
+     */
+    private void reportLoadObservation(String metric, double load) {
+        try {
+            String systemMetric = SystemMetric.CURRENT_LOAD.getMetricName();
+            Map<String, String> tags = new HashMap<>();
+            tags.put("predictor", getConfiguration().getId());
+            tags.put("metric", metric);
+            MetricValue dataPoint = new MetricValue(systemMetric, load, UtcTime.now(), tags);
+            this.eventBus.post(new SystemMetricEvent(dataPoint));
+        } catch (Exception e) {
+            this.logger.error(
+                    String.format("failed to push current load " + "observation onto event bus: %s", e.getMessage()),
+                    e);
+        }
+    }
+
+    /**
+     * Pushes the filter's state estimate (level and velocity) and its
+     * uncertainty onto the {@link AutoScaler} event bus to have the
+     * {@link SystemHistorian} record them.
+     *
+     * @param metric
+     *            The metric that the filter tracks.
+     * @param time
+     *            The time of the state estimate.
+     * @param estimate
+     *            The state estimate.
+     */
+    private void reportStateEstimate(String metric, DateTime time, Estimate estimate) {
+        try {
+            postStateMetric(SystemMetric.PREDICTOR_STATE_ESTIMATE, metric, "level", estimate.getLevel(), time);
+            postStateMetric(SystemMetric.PREDICTOR_STATE_ESTIMATE, metric, "velocity", estimate.getVelocity(), time);
+            postStateMetric(SystemMetric.PREDICTOR_STATE_UNCERTAINTY, metric, "level", estimate.getLevelStdDev(),
+                    time);
+            postStateMetric(SystemMetric.PREDICTOR_STATE_UNCERTAINTY, metric, "velocity",
+                    estimate.getVelocityStdDev(), time);
+        } catch (Exception e) {
+            this.logger.error(String.format("failed to push state estimate onto event bus: %s", e.getMessage()), e);
+        }
+    }
+
+    private void postStateMetric(SystemMetric systemMetric, String metric, String component, double value,
+            DateTime time) {
+        Map<String, String> tags = new HashMap<>();
+        tags.put("predictor", getConfiguration().getId());
+        tags.put("metric", metric);
+        tags.put("component", component);
+        MetricValue dataPoint = new MetricValue(systemMetric.getMetricName(), value, time, tags);
+        this.eventBus.post(new SystemMetricEvent(dataPoint));
+    }
+
+    /**
+     * Returns the {@link KalmanPredictorParams} associated with a given
+     * {@link PredictorConfig}, or returns a default
+     * {@link KalmanPredictorParams} in case no parameters were set.
+     *
+     * @param config
+     * @return
+     */
+    private KalmanPredictorParams effectiveParameters(PredictorConfig config) {
+        if (config.getParameters() == null) {
+            return KalmanPredictorParams.DEFAULT;
+        }
+        return KalmanPredictorParams.parse(config.getParameters());
+    }
+}
@@ -0,0 +1,163 @@
+package com.elastisys.autoscaler.predictors.kalman.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.predictors.kalman.ConstantVelocityKalmanFilter;
+import com.elastisys.autoscaler.predictors.kalman.KalmanPredictor;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Class that represents the {@link KalmanPredictor}-specific parameters of the
+ * {@link PredictorConfig}.
+ * <p/>
+ * That is, {@link KalmanPredictorParams} is the Java representation of the
+ * {@link PredictorConfig#getParameters()} {@link JsonObject} for the
+ * {@link KalmanPredictor}.
+ * <p/>
+ * Only the ratio of the measurement noise to the process noise affects how
+ * much the metric is smoothed, so the noise parameters should be tuned to the
+ * scale and noisiness of the particular metric.
+ *
+ * @see ConstantVelocityKalmanFilter
+ */
+public class KalmanPredictorParams {
+    /** Default standard deviation of the noise in observed metric values. */
+    public static final double DEFAULT_MEASUREMENT_NOISE = 1.0;
+    /**
+     * Default standard deviation of the random accelerations of the metric
+     * (per second squared).
+     */
+    public static final double DEFAULT_PROCESS_NOISE = 0.01;
+    /**
+     * Default number of standard deviations of forecast uncertainty to add to
+     * predictions.
+     */
+    public static final double DEFAULT_UNCERTAINTY_MARGIN = 0.0;
+
+    /**
+     * A default {@link KalmanPredictorParams} to use when none is explicitly
+     * set.
+     */
+    public static final KalmanPredictorParams DEFAULT = new KalmanPredictorParams(null, null, null);
+
+    /**
+     * The standard deviation of the noise in observed metric values (in the
+     * unit of the metric). May be <code>null</code>. Default:
+     * {@link #DEFAULT_MEASUREMENT_NOISE}.
+     */
+    private final Double measurementNoise;
+    /**
+     * The standard deviation of the random accelerations of the metric (in
+     * the unit of the metric per second squared). May be <code>null</code>.
+     * Default: {@link #DEFAULT_PROCESS_NOISE}.
+     */
+    private final Double processNoise;
+    /**
+     * The number of standard deviations of forecast uncertainty to add to
+     * predictions. This keeps a margin to the load curve that grows with the
+     * uncertainty of the forecast. May be <code>null</code>. Default:
+     * {@link #DEFAULT_UNCERTAINTY_MARGIN}.
+     */
+    private final Double uncertaintyMargin;
+
+    /**
+     * Creates a new {@link KalmanPredictorParams}.
+     *
+     * @param measurementNoise
+     *            The standard deviation of the noise in observed metric values
+     *            (in the unit of the metric). May be <code>null</code>.
+     *            Default: {@link #DEFAULT_MEASUREMENT_NOISE}.
+     * @param processNoise
+     *            The standard deviation of the random accelerations of the
+     *            metric (in the unit of the metric per second squared). May be
+     *            <code>null</code>. Default: {@link #DEFAULT_PROCESS_NOISE}.
+     * @param uncertaintyMargin
+     *            The number of standard deviations of forecast uncertainty to
+     *            add to predictions. May be <code>null</code>. Default:
+     *            {@link #DEFAULT_UNCERTAINTY_MARGIN}.
+     */
+    public KalmanPredictorParams(Double measurementNoise, Double processNoise, Double uncertaintyMargin) {
+        this.measurementNoise = measurementNoise;
+        this.processNoise = processNoise;
+        this.uncertaintyMargin = uncertaintyMargin;
+    }
+
+    /**
+     * Returns the standard deviation of the noise in observed metric values.
+     *
+     * @return
+     */
+    public double getMeasurementNoise() {
+        return Optional.ofNullable(this.measurementNoise).orElse(DEFAULT_MEASUREMENT_NOISE);
+    }
+
+    /**
+     * Returns the standard deviation of the random accelerations of the
+     * metric (per second squared).
+     *
+     * @return
+     */
+    public double getProcessNoise() {
+        return Optional.ofNullable(this.processNoise).orElse(DEFAULT_PROCESS_NOISE);
+    }
+
+    /**
+     * Returns the number of standard deviations of forecast uncertainty to add
+     * to predictions.
+     *
+     * @return
+     */
+    public double getUncertaintyMargin() {
+        return Optional.ofNullable(this.uncertaintyMargin).orElse(DEFAULT_UNCERTAINTY_MARGIN);
+    }
+
+    /**
+     * Factory method that parses out an {@link KalmanPredictorParams} from a
+     * JSON representation, or fails with a {@link JsonSyntaxException}.
+     *
+     * @param jsonConfig
+     *            The JSON representation of the {@link KalmanPredictorParams}.
+     * @return The parsed {@link KalmanPredictorParams}.
+     */
+    public static KalmanPredictorParams parse(JsonElement jsonConfig) {
+        return JsonUtils.toObject(jsonConfig, KalmanPredictorParams.class);
+    }
+
+    /**
+     * Performs basic validation of this {@link KalmanPredictorParams} and in
+     * case verification fails, an {@link IllegalArgumentException} is thrown.
+     */
+    public void validate() throws IllegalArgumentException {
+        checkArgument(getMeasurementNoise() > 0.0, "measurementNoise must be positive");
+        checkArgument(getProcessNoise() >= 0.0, "processNoise must be a non-negative value");
+        checkArgument(getUncertaintyMargin() >= 0.0, "uncertaintyMargin must be a non-negative value");
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof KalmanPredictorParams) {
+            KalmanPredictorParams that = (KalmanPredictorParams) obj;
+            return Objects.equals(this.measurementNoise, that.measurementNoise)
+                    && Objects.equals(this.processNoise, that.processNoise)
+                    && Objects.equals(this.uncertaintyMargin, that.uncertaintyMargin);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.measurementNoise, this.processNoise, this.uncertaintyMargin);
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -0,0 +1,150 @@
+package com.elastisys.autoscaler.predictors.kalman;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.predictors.kalman.ConstantVelocityKalmanFilter.Estimate;
+
+/**
+ * Exercises the {@link ConstantVelocityKalmanFilter}.
+ */
+public class TestConstantVelocityKalmanFilter {
+
+    private static final DateTime START = new DateTime("2014-05-20T12:00:00.000Z", DateTimeZone.UTC);
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Two data points at different times are needed to estimate both level
+     * and velocity.
+     */
+    @Test
+    public void notInitializedBeforeTwoDataPoints() {
+        ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(1.0, 0.01);
+        assertThat(filter.getLatest(), is(Optional.empty()));
+        assertThat(filter.isInitialized(), is(false));
+
+        filter.observe(value(10.0, 0));
+        assertThat(filter.getLatest().get().getValue(), is(10.0));
+        assertThat(filter.isInitialized(), is(false));
+        assertThat(filter.getEstimate().isPresent(), is(false));
+        assertThat(filter.forecast(START.plusSeconds(60)).isPresent(), is(false));
+
+        // a data point at the same time is not enough
+        filter.observe(value(12.0, 0));
+        assertThat(filter.isInitialized(), is(false));
+        assertThat(filter.getLatest().get().getValue(), is(12.0));
+
+        filter.observe(value(22.0, 10));
+        assertThat(filter.isInitialized(), is(true));
+        Estimate estimate = filter.getEstimate().get();
+        assertEquals(22.0, estimate.getLevel(), DELTA);
+        assertEquals(1.0, estimate.getVelocity(), DELTA);
+        assertEquals(1.0, estimate.getLevelStdDev(), DELTA);
+    }
+
+    /**
+     * A noise-free linear series should be tracked exactly.
+     */
+    @Test
+    public void trackLinearSeries() {
+        ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(1.0, 0.01);
+        for (int second = 0; second <= 300; second += 10) {
+            filter.observe(value(100.0 + 0.5 * second, second));
+        }
+
+        Estimate estimate = filter.getEstimate().get();
+        assertEquals(250.0, estimate.getLevel(), DELTA);
+        assertEquals(0.5, estimate.getVelocity(), DELTA);
+        assertEquals(280.0, filter.forecast(START.plusSeconds(360)).get().getLevel(), DELTA);
+    }
+
+    /**
+     * Measurement noise around a constant level should be smoothed out.
+     */
+    @Test
+    public void smoothNoisySeries() {
+        ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(10.0, 0.001);
+        for (int i = 0; i < 100; i++) {
+            double noise = i % 2 == 0 ? 10.0 : -10.0;
+            filter.observe(value(50.0 + noise, 10 * i));
+        }
+
+        Estimate estimate = filter.getEstimate().get();
+        assertEquals(50.0, estimate.getLevel(), 2.0);
+        assertEquals(0.0, estimate.getVelocity(), 0.1);
+        assertTrue(estimate.getLevelStdDev() < 10.0);
+    }
+
+    /**
+     * The uncertainty of the state estimate should shrink as more data points
+     * are observed, and the uncertainty of a forecast should grow with the
+     * distance from the latest data point.
+     */
+    @Test
+    public void uncertainty() {
+        ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(5.0, 0.01);
+        filter.observe(value(50.0, 0));
+        filter.observe(value(50.0, 10));
+        double initialStdDev = filter.getEstimate().get().getLevelStdDev();
+        for (int second = 20; second <= 200; second += 10) {
+            filter.observe(value(50.0, second));
+        }
+        Estimate estimate = filter.getEstimate().get();
+        assertTrue(estimate.getLevelStdDev() < initialStdDev);
+
+        Estimate near = filter.forecast(START.plusSeconds(260)).get();
+        Estimate far = filter.forecast(START.plusSeconds(800)).get();
+        assertTrue(estimate.getLevelStdDev() < near.getLevelStdDev());
+        assertTrue(near.getLevelStdDev() < far.getLevelStdDev());
+    }
+
+    /**
+     * The higher the process noise relative to the measurement noise, the
+     * faster the filter should follow a change in the metric.
+     */
+    @Test
+    public void responsivenessGrowsWithProcessNoise() {
+        ConstantVelocityKalmanFilter sluggish = new ConstantVelocityKalmanFilter(10.0, 0.001);
+        ConstantVelocityKalmanFilter responsive = new ConstantVelocityKalmanFilter(10.0, 0.1);
+        for (int second = 0; second <= 300; second += 10) {
+            sluggish.observe(value(50.0, second));
+            responsive.observe(value(50.0, second));
+        }
+        // step change
+        for (int second = 310; second <= 360; second += 10) {
+            sluggish.observe(value(100.0, second));
+            responsive.observe(value(100.0, second));
+        }
+
+        double sluggishLevel = sluggish.getEstimate().get().getLevel();
+        double responsiveLevel = responsive.getEstimate().get().getLevel();
+        assertTrue(sluggishLevel > 50.0);
+        assertTrue(responsiveLevel > sluggishLevel);
+    }
+
+    @Test
+    public void rejectOutOfOrderDataPoints() {
+        ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(1.0, 0.01);
+        assertThat(filter.observe(value(1.0, 10)), is(true));
+        assertThat(filter.observe(value(2.0, 0)), is(false));
+        assertThat(filter.getLatest().get().getValue(), is(1.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithZeroMeasurementNoise() {
+        new ConstantVelocityKalmanFilter(0.0, 0.01);
+    }
+
+    private static MetricValue value(double value, int secondsFromStart) {
+        return new MetricValue("metric", value, START.plusSeconds(secondsFromStart));
+    }
+}
@@ -0,0 +1,301 @@
+package com.elastisys.autoscaler.predictors.kalman;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.any;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.reader.MetricStreamReader;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetric;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetricEvent;
+import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
+import com.elastisys.autoscaler.core.prediction.api.types.PredictionUnit;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.predictors.kalman.config.KalmanPredictorParams;
+import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.eventbus.Subscriber;
+import com.elastisys.scale.commons.eventbus.impl.SynchronousEventBus;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link KalmanPredictor}, by pushing {@link MetricValue}s onto
+ * the {@link Predictor}'s {@link MetricStream} and asking the
+ * {@link Predictor} to make predictions.
+ */
+public class TestKalmanPredictorOperation {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestKalmanPredictorOperation.class);
+
+    private static final String METRIC_NAME = "cpu.utilization";
+    private static final String METRIC_STREAM_ID = METRIC_NAME + ".stream";
+
+    private static final int HORIZON = 180;
+    private static final double DELTA = 1e-6;
+
+    private final EventBus eventBus = new SynchronousEventBus(logger);
+    private final MonitoringSubsystem mockedMonitoringSubsystem = mock(MonitoringSubsystem.class);
+
+    /** Collects the {@link SystemMetricEvent}s posted on the event bus. */
+    private final SystemMetricListener systemMetricListener = new SystemMetricListener();
+
+    /** Object under test. */
+    private Predictor predictor;
+
+    @Before
+    public void onSetup() {
+        FrozenTime.setFixed(UtcTime.parse("2014-05-20T12:00:00.000Z"));
+        prepareMockedMetricStream();
+        this.eventBus.register(this.systemMetricListener);
+
+        this.predictor = new KalmanPredictor(logger, this.eventBus, this.mockedMonitoringSubsystem);
+    }
+
+    private void prepareMockedMetricStream() {
+        MetricStreamer mockedMetricStreamer = mock(MetricStreamer.class);
+        when(this.mockedMonitoringSubsystem.getMetricStreamers()).thenReturn(asList(mockedMetricStreamer));
+        MetricStream mockedMetricStream = mock(MetricStream.class);
+        when(mockedMetricStreamer.getMetricStream(Matchers.argThat(is(any(String.class)))))
+                .thenReturn(mockedMetricStream);
+
+        when(mockedMetricStream.getId()).thenReturn(METRIC_STREAM_ID);
+        when(mockedMetricStream.getMetric()).thenReturn(METRIC_NAME);
+    }
+
+    /**
+     * The {@link KalmanPredictor} can run with <code>null</code> parameters.
+     * If so, it uses a default config.
+     */
+    @Test
+    public void configureWithNullParameters() {
+        this.predictor.configure(
+                new PredictorConfig("p1", KalmanPredictor.class.getName(), State.STARTED, METRIC_STREAM_ID, null));
+    }
+
+    @Test
+    public void startAndStop() throws Exception {
+        this.predictor.configure(config(0.0));
+        assertThat(this.predictor.getStatus().getState(), is(State.STOPPED));
+        this.predictor.start();
+        assertThat(this.predictor.getStatus().getState(), is(State.STARTED));
+        this.predictor.stop();
+        assertThat(this.predictor.getStatus().getState(), is(State.STOPPED));
+    }
+
+    /**
+     * No prediction returned unless at least one {@link MetricValue} has been
+     * observed.
+     */
+    @Test
+    public void predictWithoutObservingAnyMetricValues() throws Exception {
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+
+        assertThat(predict(), is(Optional.empty()));
+    }
+
+    /**
+     * Until the filter has been initialized, the latest observed metric value
+     * should be used as prediction.
+     */
+    @Test
+    public void predictWithSingleMetricValue() throws Exception {
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+        streamLoadMetric(42.0, UtcTime.now().minusSeconds(10));
+
+        assertEquals(42.0, predict().get().getValue(), DELTA);
+        assertTrue(stateEvents().isEmpty());
+    }
+
+    /**
+     * The filtered trend should be extrapolated to the prediction time.
+     */
+    @Test
+    public void predictLinearlyGrowingLoad() throws Exception {
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+
+        // load grows by one unit per ten seconds
+        DateTime now = UtcTime.now();
+        for (int second = 300; second >= 0; second -= 10) {
+            streamLoadMetric(100.0 - second / 10.0, now.minusSeconds(second));
+        }
+
+        DateTime predictionTime = now.plusSeconds(HORIZON);
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(0), predictionTime);
+        assertThat(prediction.get().getTimestamp(), is(predictionTime));
+        assertThat(prediction.get().getMetric(), is(METRIC_NAME));
+        assertThat(prediction.get().getUnit(), is(PredictionUnit.METRIC));
+        assertEquals(100.0 + HORIZON / 10.0, prediction.get().getValue(), DELTA);
+    }
+
+    /**
+     * Noise around a constant load should not make predictions flap.
+     */
+    @Test
+    public void predictNoisyLoad() throws Exception {
+        this.predictor.configure(new PredictorConfig("p1", KalmanPredictor.class.getName(), State.STARTED,
+                METRIC_STREAM_ID, JsonUtils.toJson(new KalmanPredictorParams(10.0, 0.001, 0.0)).getAsJsonObject()));
+        this.predictor.start();
+
+        List<Double> predictions = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            FrozenTime.tick(10);
+            double noise = i % 2 == 0 ? 10.0 : -10.0;
+            streamLoadMetric(50.0 + noise, UtcTime.now());
+            if (i >= 30) {
+                predictions.add(predict().get().getValue());
+            }
+        }
+
+        for (double prediction : predictions) {
+            assertEquals(50.0, prediction, 5.0);
+        }
+    }
+
+    /**
+     * An uncertainty margin should pad predictions with a number of standard
+     * deviations of the forecast uncertainty.
+     */
+    @Test
+    public void predictWithUncertaintyMargin() throws Exception {
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+        DateTime now = UtcTime.now();
+        streamLoadMetric(50.0, now.minusSeconds(20));
+        streamLoadMetric(54.0, now.minusSeconds(10));
+        streamLoadMetric(50.0, now);
+        double estimate = predict().get().getValue();
+
+        this.predictor.configure(config(2.0));
+        assertTrue(predict().get().getValue() > estimate);
+    }
+
+    /**
+     * The filter's state estimate and uncertainty should be reported as
+     * system metrics whenever new metric values have been observed.
+     */
+    @Test
+    public void reportStateEstimate() throws Exception {
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+        DateTime now = UtcTime.now();
+        streamLoadMetric(10.0, now.minusSeconds(10));
+        streamLoadMetric(20.0, now);
+        predict();
+
+        List<MetricValue> stateEvents = stateEvents();
+        assertThat(stateEvents.size(), is(4));
+        MetricValue level = stateEvent(SystemMetric.PREDICTOR_STATE_ESTIMATE, "level");
+        assertEquals(20.0, level.getValue(), DELTA);
+        assertThat(level.getTime(), is(now));
+        assertThat(level.getTags().get("predictor"), is("p1"));
+        assertThat(level.getTags().get("metric"), is(METRIC_NAME));
+        assertEquals(1.0, stateEvent(SystemMetric.PREDICTOR_STATE_ESTIMATE, "velocity").getValue(), DELTA);
+        assertEquals(KalmanPredictorParams.DEFAULT_MEASUREMENT_NOISE,
+                stateEvent(SystemMetric.PREDICTOR_STATE_UNCERTAINTY, "level").getValue(), DELTA);
+        assertTrue(stateEvent(SystemMetric.PREDICTOR_STATE_UNCERTAINTY, "velocity").getValue() > 0.0);
+
+        // no new metric values: nothing new to report
+        predict();
+        assertThat(stateEvents().size(), is(4));
+    }
+
+    /**
+     * Predictions should never be negative.
+     */
+    @Test
+    public void predictSteeplyFallingLoad() throws Exception {
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+        DateTime now = UtcTime.now();
+        for (int second = 30; second >= 0; second -= 10) {
+            streamLoadMetric(second, now.minusSeconds(second));
+        }
+
+        assertEquals(0.0, predict().get().getValue(), DELTA);
+    }
+
+    private Optional<Prediction> predict() throws Exception {
+        return this.predictor.predict(machinePool(0), UtcTime.now().plusSeconds(HORIZON));
+    }
+
+    private PredictorConfig config(double uncertaintyMargin) {
+        KalmanPredictorParams params = new KalmanPredictorParams(null, null, uncertaintyMargin);
+        return new PredictorConfig("p1", KalmanPredictor.class.getName(), State.STARTED, METRIC_STREAM_ID,
+                JsonUtils.toJson(params).getAsJsonObject());
+    }
+
+    private Optional<PoolSizeSummary> machinePool(int size) {
+        return Optional.of(new PoolSizeSummary(size, size, size));
+    }
+
+    /**
+     * Pushes a {@link MetricValue} onto the {@link EventBus}, which the
+     * {@link Predictor}'s {@link MetricStreamReader} will capture.
+     *
+     * @param value
+     * @param time
+     */
+    private void streamLoadMetric(double value, DateTime time) {
+        MetricValue metricValue = new MetricValue(METRIC_NAME, value, time);
+        this.eventBus.post(new MetricStreamMessage(METRIC_STREAM_ID, asList(metricValue)));
+    }
+
+    /**
+     * Returns the reported {@link SystemMetric#PREDICTOR_STATE_ESTIMATE} and
+     * {@link SystemMetric#PREDICTOR_STATE_UNCERTAINTY} values.
+     *
+     * @return
+     */
+    private List<MetricValue> stateEvents() {
+        List<String> stateMetrics = asList(SystemMetric.PREDICTOR_STATE_ESTIMATE.getMetricName(),
+                SystemMetric.PREDICTOR_STATE_UNCERTAINTY.getMetricName());
+        return this.systemMetricListener.values.stream().filter(value -> stateMetrics.contains(value.getMetric()))
+                .collect(Collectors.toList());
+    }
+
+    private MetricValue stateEvent(SystemMetric systemMetric, String component) {
+        return stateEvents().stream().filter(value -> value.getMetric().equals(systemMetric.getMetricName()))
+                .filter(value -> value.getTags().get("component").equals(component)).findFirst().get();
+    }
+
+    /**
+     * Collects the values of {@link SystemMetricEvent}s posted on the
+     * {@link EventBus}.
+     */
+    public static class SystemMetricListener {
+        private final List<MetricValue> values = new ArrayList<>();
+
+        @Subscriber
+        public void onEvent(SystemMetricEvent event) {
+            this.values.add(event.getValue());
+        }
+    }
+}
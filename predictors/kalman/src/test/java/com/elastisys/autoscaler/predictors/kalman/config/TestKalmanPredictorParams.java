@@ -0,0 +1,70 @@
+package com.elastisys.autoscaler.predictors.kalman.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.google.gson.JsonObject;
+
+/**
+ * Exercises the {@link KalmanPredictorParams}.
+ */
+public class TestKalmanPredictorParams {
+
+    @Test
+    public void parseCompleteConfig() throws IOException {
+        KalmanPredictorParams params = parse("kalman/complete-config.json");
+        params.validate();
+
+        assertThat(params.getMeasurementNoise(), is(5.0));
+        assertThat(params.getProcessNoise(), is(0.05));
+        assertThat(params.getUncertaintyMargin(), is(2.0));
+    }
+
+    /**
+     * All parameters are optional.
+     */
+    @Test
+    public void parseConfigRelyingOnDefaults() throws IOException {
+        KalmanPredictorParams params = parse("kalman/minimal-config.json");
+        params.validate();
+
+        assertThat(params, is(KalmanPredictorParams.DEFAULT));
+        assertThat(params.getMeasurementNoise(), is(KalmanPredictorParams.DEFAULT_MEASUREMENT_NOISE));
+        assertThat(params.getProcessNoise(), is(KalmanPredictorParams.DEFAULT_PROCESS_NOISE));
+        assertThat(params.getUncertaintyMargin(), is(KalmanPredictorParams.DEFAULT_UNCERTAINTY_MARGIN));
+    }
+
+    /**
+     * A process noise of zero is allowed: it models a metric with a constant
+     * rate of change.
+     */
+    @Test
+    public void withZeroProcessNoise() {
+        new KalmanPredictorParams(null, 0.0, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withZeroMeasurementNoise() {
+        new KalmanPredictorParams(0.0, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeProcessNoise() {
+        new KalmanPredictorParams(null, -0.1, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeUncertaintyMargin() {
+        new KalmanPredictorParams(null, null, -1.0).validate();
+    }
+
+    private static KalmanPredictorParams parse(String resource) throws IOException {
+        JsonObject json = JsonUtils.parseJsonResource(resource).getAsJsonObject();
+        return KalmanPredictorParams.parse(json.get("parameters").getAsJsonObject());
+    }
+}
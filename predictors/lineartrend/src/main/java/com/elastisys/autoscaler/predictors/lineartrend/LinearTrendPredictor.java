@@ -0,0 +1,216 @@
+package com.elastisys.autoscaler.predictors.lineartrend;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.reader.MetricStreamReader;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.SystemHistorian;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetric;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetricEvent;
+import com.elastisys.autoscaler.core.prediction.api.PredictionException;
+import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
+import com.elastisys.autoscaler.core.prediction.api.types.PredictionUnit;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.core.prediction.impl.standard.predictor.AbstractPredictor;
+import com.elastisys.autoscaler.core.utils.stats.timeseries.DataPoint;
+import com.elastisys.autoscaler.predictors.lineartrend.SlidingWindowRegression.Extrapolation;
+import com.elastisys.autoscaler.predictors.lineartrend.config.LinearTrendPredictorParams;
+import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * A {@link Predictor} that fits a straight line to the metric values observed
+ * within a sliding time window, and extrapolates it to the prediction time.
+ * This allows steadily rising load to be provisioned for ahead of time, rather
+ * than lagging behind it.
+ * <p/>
+ * The line fit is updated incrementally as new metric values arrive (see
+ * {@link SlidingWindowRegression}), so the cost of a prediction does not grow
+ * with the size of the window.
+ * <p/>
+ * Along with the extrapolated value, a prediction interval is calculated. By
+ * default, the upper bound of the prediction interval is used as prediction,
+ * which keeps a margin to the load curve that grows with the noisiness of the
+ * metric and with the distance to the prediction time. Predictions are clamped
+ * to a configurable range, to guard against wild extrapolations.
+ * <p/>
+ * Until enough metric values have been observed to fit a line, the latest
+ * observed metric value is used as prediction.
+ */
+public class LinearTrendPredictor extends AbstractPredictor {
+
+    /**
+     * Event bus onto which {@link Alert}s and {@link SystemMetricEvent}s can be
+     * posted.
+     */
+    private final EventBus eventBus;
+
+    /** The {@link MetricStreamReader} from which metric values are read. */
+    private MetricStreamReader metricReader;
+
+    /** The currently set parameters. */
+    private LinearTrendPredictorParams params;
+
+    /** The line fit to the metric values in the sliding window. */
+    private SlidingWindowRegression regression;
+
+    @Inject
+    public LinearTrendPredictor(Logger logger, EventBus eventBus, MonitoringSubsystem monitoringSubsystem) {
+        super(logger, eventBus, monitoringSubsystem);
+        this.eventBus = eventBus;
+
+        this.params = null;
+        this.regression = null;
+    }
+
+    @Override
+    public void validateConfig(PredictorConfig configuration) throws IllegalArgumentException {
+        try {
+            // validate predictor-specific part of configuration
+            LinearTrendPredictorParams parameters = effectiveParameters(configuration);
+            parameters.validate();
+        } catch (Exception e) {
+            throw new IllegalArgumentException(String.format("predictor %s: %s", configuration.getId(), e.getMessage()),
+                    e);
+        }
+    }
+
+    @Override
+    public void applyConfig(PredictorConfig newConfig) throws IllegalArgumentException {
+        validateConfig(newConfig);
+
+        LinearTrendPredictorParams newParams = effectiveParameters(newConfig);
+        if (newConfig.getParameters() == null) {
+            this.logger.debug("no predictor parameters given, using defaults: {}", newParams);
+        }
+        boolean windowChanged = this.params == null || !newParams.getWindow().equals(this.params.getWindow());
+        this.params = newParams;
+        if (windowChanged) {
+            this.regression = new SlidingWindowRegression(this.params.getWindow().getMillis());
+        }
+    }
+
+    @Override
+    public void onStart(MetricStreamReader metricReader) {
+        this.metricReader = metricReader;
+        // metric stream may have changed: start over with an empty window
+        this.regression = new SlidingWindowRegression(this.params.getWindow().getMillis());
+        metricReader.start();
+    }
+
+    @Override
+    public void onStop() {
+        this.metricReader.stop();
+    }
+
+    @Override
+    public Optional<Prediction> doPrediction(Optional<PoolSizeSummary> poolSize, DateTime predictionTime)
+            throws PredictionException {
+        List<MetricValue> newReadings = new ArrayList<>();
+        this.metricReader.popTo(newReadings);
+        this.logger.debug("{} new metric value(s) received", newReadings.size());
+        for (MetricValue reading : newReadings) {
+            if (!this.regression.add(reading)) {
+                this.logger.debug("ignoring out-of-order metric value: {}", reading);
+            }
+        }
+
+        Optional<DataPoint> lastReading = this.regression.getLatest();
+        if (!lastReading.isPresent()) {
+            this.logger.warn("no metric value has been read yet from metric stream '{}', cannot make prediction.",
+                    this.metricReader.getMetricStream().getId());
+            return Optional.empty();
+        }
+
+        this.logger.debug("latest metric value reading is: {}", lastReading.get());
+        String metric = this.metricReader.getMetricStream().getMetric();
+        reportLoadObservation(metric, lastReading.get().getValue());
+
+        double prediction;
+        Optional<Extrapolation> extrapolation = this.regression.extrapolate(predictionTime,
+                this.params.getConfidenceLevel());
+        if (!extrapolation.isPresent()) {
+            this.logger.debug("too few metric values in window ({}) to fit a line, predicting latest metric value",
+                    this.regression.size());
+            prediction = lastReading.get().getValue();
+        } else {
+            this.logger.debug("extrapolated value for {} (slope: {}/s): {}", predictionTime,
+                    this.regression.getSlope(), extrapolation.get());
+            Extrapolation value = extrapolation.get();
+            prediction = this.params.isPredictUpperBound() ? value.getUpperBound() : value.getEstimate();
+        }
+
+        return Optional.of(new Prediction(clamp(prediction), PredictionUnit.METRIC, metric, predictionTime));
+    }
+
+    /**
+     * Clamps a predicted value to the configured prediction range.
+     *
+     * @param prediction
+     * @return
+     */
+    private double clamp(double prediction) {
+        double clamped = Math.max(this.params.getMinPrediction(), prediction);
+        if (this.params.getMaxPrediction().isPresent()) {
+            clamped = Math.min(this.params.getMaxPrediction().get(), clamped);
+        }
+        if (clamped != prediction) {
+            this.logger.debug("clamped prediction {} to {}", prediction, clamped);
+        }
+        return clamped;
+    }
+
+    /**
+     * Pushes a load observation event for the {@link Predictor}'s metric onto
+     * the {@link AutoScaler} event bus to have the {@link SystemHistorian}
+     * record the observation.
+     *
+     * @param metric
+     *            The metric for which the load observation was made
+     * @param load
+     *            The load observation.
+     */
+    private void reportLoadObservation(String metric, double load) {
+        try {
+            String systemMetric = SystemMetric.CURRENT_LOAD.getMetricName();
+            Map<String, String> tags = new HashMap<>();
+            tags.put("predictor", getConfiguration().getId());
+            tags.put("metric", metric);
+            MetricValue dataPoint = new MetricValue(systemMetric, load, UtcTime.now(), tags);
+            this.eventBus.post(new SystemMetricEvent(dataPoint));
+        } catch (Exception e) {
+            this.logger.error(
+                    String.format("failed to push current load " + "observation onto event bus: %s", e.getMessage()),
+                    e);
+        }
+    }
+
+    /**
+     * Returns the {@link LinearTrendPredictorParams} associated with a given
+     * {@link PredictorConfig}, or returns a default
+     * {@link LinearTrendPredictorParams} in case no parameters were set.
+     *
+     * @param config
+     * @return
+     */
+    private LinearTrendPredictorParams effectiveParameters(PredictorConfig config) {
+        if (config.getParameters() == null) {
+            return LinearTrendPredictorParams.DEFAULT;
+        }
+        return LinearTrendPredictorParams.parse(config.getParameters());
+    }
+}
@@ -0,0 +1,214 @@
+package com.elastisys.autoscaler.predictors.lineartrend;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+import org.joda.time.DateTime;
+
+import com.elastisys.autoscaler.core.utils.stats.slope.Slope;
+import com.elastisys.autoscaler.core.utils.stats.timeseries.DataPoint;
+
+/**
+ * A least-squares line fit over the data points that fall within a sliding
+ * time window.
+ * <p/>
+ * Rather than refitting the line to all data points in the window whenever a
+ * data point is added, the fit is updated incrementally: a new data point is
+ * added to the underlying {@link SimpleRegression}, and data points that fall
+ * out of the window are removed from it. This makes adding a data point an
+ * (amortized) constant-time operation, regardless of the size of the window.
+ * <p/>
+ * As for {@link Slope}, time is measured in seconds since the epoch.
+ * <p/>
+ * Data points must be added in order of increasing time. A data point that is
+ * older than the most recently added data point is rejected.
+ *
+ * @see LinearTrendPredictor
+ */
+public class SlidingWindowRegression {
+    /** The length of the sliding window in milliseconds. */
+    private final long windowMillis;
+
+    /** The data points currently in the window, oldest first. */
+    private final Deque<DataPoint> window;
+    /** The line fit to the data points currently in the window. */
+    private final SimpleRegression regression;
+    /** The sum of the x-values (times) of the data points in the window. */
+    private double sumX;
+
+    /**
+     * Creates a {@link SlidingWindowRegression} with an empty window.
+     *
+     * @param windowMillis
+     *            The length of the sliding window in milliseconds. When a data
+     *            point is added, data points older than this (relative to the
+     *            added data point) are removed.
+     */
+    public SlidingWindowRegression(long windowMillis) {
+        checkArgument(windowMillis > 0, "window length must be positive");
+        this.windowMillis = windowMillis;
+        this.window = new ArrayDeque<>();
+        this.regression = new SimpleRegression();
+        this.sumX = 0.0;
+    }
+
+    /**
+     * Adds a data point to the window, and removes any data points that have
+     * fallen out of the window.
+     *
+     * @param dataPoint
+     *            The data point to add.
+     * @return <code>true</code> if the data point was added,
+     *         <code>false</code> if it was rejected for being older than the
+     *         most recently added data point.
+     */
+    public boolean add(DataPoint dataPoint) {
+        Objects.requireNonNull(dataPoint, "data point cannot be null");
+        if (!this.window.isEmpty() && dataPoint.getTime().isBefore(this.window.getLast().getTime())) {
+            return false;
+        }
+
+        this.window.addLast(dataPoint);
+        this.regression.addData(x(dataPoint.getTime()), dataPoint.getValue());
+        this.sumX += x(dataPoint.getTime());
+
+        DateTime windowStart = dataPoint.getTime().minus(this.windowMillis);
+        while (this.window.getFirst().getTime().isBefore(windowStart)) {
+            DataPoint evicted = this.window.removeFirst();
+            this.regression.removeData(x(evicted.getTime()), evicted.getValue());
+            this.sumX -= x(evicted.getTime());
+        }
+        if (this.window.size() == 1) {
+            // start over, to not accumulate rounding errors indefinitely
+            this.regression.clear();
+            this.regression.addData(x(dataPoint.getTime()), dataPoint.getValue());
+            this.sumX = x(dataPoint.getTime());
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of data points currently in the window.
+     *
+     * @return
+     */
+    public int size() {
+        return this.window.size();
+    }
+
+    /**
+     * Returns the most recently added data point, if any.
+     *
+     * @return
+     */
+    public Optional<DataPoint> getLatest() {
+        return Optional.ofNullable(this.window.peekLast());
+    }
+
+    /**
+     * Returns the slope of the fitted line (in value units per second). Zero
+     * if less than two data points are in the window.
+     *
+     * @return
+     */
+    public double getSlope() {
+        double slope = this.regression.getSlope();
+        return Double.isNaN(slope) ? 0.0 : slope;
+    }
+
+    /**
+     * Extrapolates the fitted line to a given point in time, and calculates a
+     * prediction interval around the extrapolated value. The prediction
+     * interval is the range within which a data point observed at the given
+     * time is expected to fall with the given probability.
+     *
+     * @param time
+     *            The point in time to extrapolate to.
+     * @param confidenceLevel
+     *            The probability that a data point observed at the given time
+     *            falls within the prediction interval. Must be in range
+     *            {@code (0, 1)}.
+     * @return The extrapolated value and its prediction interval. Absent if
+     *         there are less than three data points in the window, or if all
+     *         data points in the window were observed at the same time.
+     */
+    public Optional<Extrapolation> extrapolate(DateTime time, double confidenceLevel) {
+        checkArgument(0.0 < confidenceLevel && confidenceLevel < 1.0, "confidence level must be in range (0, 1)");
+        long n = this.regression.getN();
+        double sumXX = this.regression.getXSumSquares();
+        if (n < 3 || sumXX <= 0.0) {
+            return Optional.empty();
+        }
+
+        double x = x(time);
+        double estimate = this.regression.predict(x);
+        double meanX = this.sumX / n;
+        // rounding errors may make an exact fit seem marginally negative
+        double meanSquareError = Math.max(0.0, this.regression.getMeanSquareError());
+        double standardError = Math.sqrt(meanSquareError * (1.0 + 1.0 / n + (x - meanX) * (x - meanX) / sumXX));
+        double t = new TDistribution(n - 2).inverseCumulativeProbability(1.0 - (1.0 - confidenceLevel) / 2.0);
+        double margin = t * standardError;
+        return Optional.of(new Extrapolation(estimate, estimate - margin, estimate + margin));
+    }
+
+    private static double x(DateTime time) {
+        return time.getMillis() / 1000.0;
+    }
+
+    /**
+     * A value extrapolated from a fitted line, together with a prediction
+     * interval.
+     */
+    public static class Extrapolation {
+        /** The extrapolated value. */
+        private final double estimate;
+        /** The lower bound of the prediction interval. */
+        private final double lowerBound;
+        /** The upper bound of the prediction interval. */
+        private final double upperBound;
+
+        public Extrapolation(double estimate, double lowerBound, double upperBound) {
+            this.estimate = estimate;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+        }
+
+        /**
+         * Returns the extrapolated value.
+         *
+         * @return
+         */
+        public double getEstimate() {
+            return this.estimate;
+        }
+
+        /**
+         * Returns the lower bound of the prediction interval.
+         *
+         * @return
+         */
+        public double getLowerBound() {
+            return this.lowerBound;
+        }
+
+        /**
+         * Returns the upper bound of the prediction interval.
+         *
+         * @return
+         */
+        public double getUpperBound() {
+            return this.upperBound;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.4f [%.4f, %.4f]", this.estimate, this.lowerBound, this.upperBound);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.elastisys.autoscaler.predictors.lineartrend.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.predictors.lineartrend.LinearTrendPredictor;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Class that represents the {@link LinearTrendPredictor}-specific parameters
+ * of the {@link PredictorConfig}.
+ * <p/>
+ * That is, {@link LinearTrendPredictorParams} is the Java representation of
+ * the {@link PredictorConfig#getParameters()} {@link JsonObject} for the
+ * {@link LinearTrendPredictor}.
+ */
+public class LinearTrendPredictorParams {
+    /** Default length of the sliding window that the line is fitted to. */
+    public static final TimeInterval DEFAULT_WINDOW = new TimeInterval(10L, TimeUnit.MINUTES);
+    /** Default confidence level of the prediction interval. */
+    public static final double DEFAULT_CONFIDENCE_LEVEL = 0.9;
+    /** Default lower limit for predictions. */
+    public static final double DEFAULT_MIN_PREDICTION = 0.0;
+
+    /**
+     * A default {@link LinearTrendPredictorParams} to use when none is
+     * explicitly set.
+     */
+    public static final LinearTrendPredictorParams DEFAULT = new LinearTrendPredictorParams(null, null, null, null,
+            null);
+
+    /**
+     * The length of the sliding window of metric values that the line is
+     * fitted to. May be <code>null</code>. Default: {@link #DEFAULT_WINDOW}.
+     */
+    private final TimeInterval window;
+    /**
+     * The confidence level of the prediction interval around the extrapolated
+     * value. That is, the probability that an observed metric value will fall
+     * within the interval. May be <code>null</code>. Default:
+     * {@link #DEFAULT_CONFIDENCE_LEVEL}.
+     */
+    private final Double confidenceLevel;
+    /**
+     * If <code>true</code>, the upper bound of the prediction interval is used
+     * as prediction, rather than the extrapolated value itself. This keeps a
+     * margin to the load curve that grows with the noisiness of the metric.
+     * May be <code>null</code>. Default: <code>true</code>.
+     */
+    private final Boolean predictUpperBound;
+    /**
+     * The lower limit for predictions. Predictions below this value are
+     * clamped. May be <code>null</code>. Default:
+     * {@link #DEFAULT_MIN_PREDICTION}.
+     */
+    private final Double minPrediction;
+    /**
+     * The upper limit for predictions. Predictions above this value are
+     * clamped. May be <code>null</code>, in which case predictions are not
+     * limited from above.
+     */
+    private final Double maxPrediction;
+
+    /**
+     * Creates a new {@link LinearTrendPredictorParams}.
+     *
+     * @param window
+     *            The length of the sliding window of metric values that the
+     *            line is fitted to. May be <code>null</code>. Default:
+     *            {@link #DEFAULT_WINDOW}.
+     * @param confidenceLevel
+     *            The confidence level of the prediction interval around the
+     *            extrapolated value. May be <code>null</code>. Default:
+     *            {@link #DEFAULT_CONFIDENCE_LEVEL}.
+     * @param predictUpperBound
+     *            If <code>true</code>, the upper bound of the prediction
+     *            interval is used as prediction, rather than the extrapolated
+     *            value itself. May be <code>null</code>. Default:
+     *            <code>true</code>.
+     * @param minPrediction
+     *            The lower limit for predictions. May be <code>null</code>.
+     *            Default: {@link #DEFAULT_MIN_PREDICTION}.
+     * @param maxPrediction
+     *            The upper limit for predictions. May be <code>null</code>, in
+     *            which case predictions are not limited from above.
+     */
+    public LinearTrendPredictorParams(TimeInterval window, Double confidenceLevel, Boolean predictUpperBound,
+            Double minPrediction, Double maxPrediction) {
+        this.window = window;
+        this.confidenceLevel = confidenceLevel;
+        this.predictUpperBound = predictUpperBound;
+        this.minPrediction = minPrediction;
+        this.maxPrediction = maxPrediction;
+    }
+
+    /**
+     * Returns the length of the sliding window of metric values that the line
+     * is fitted to.
+     *
+     * @return
+     */
+    public TimeInterval getWindow() {
+        return Optional.ofNullable(this.window).orElse(DEFAULT_WINDOW);
+    }
+
+    /**
+     * Returns the confidence level of the prediction interval around the
+     * extrapolated value.
+     *
+     * @return
+     */
+    public double getConfidenceLevel() {
+        return Optional.ofNullable(this.confidenceLevel).orElse(DEFAULT_CONFIDENCE_LEVEL);
+    }
+
+    /**
+     * Returns <code>true</code> if the upper bound of the prediction interval
+     * is to be used as prediction, rather than the extrapolated value itself.
+     *
+     * @return
+     */
+    public boolean isPredictUpperBound() {
+        return Optional.ofNullable(this.predictUpperBound).orElse(true);
+    }
+
+    /**
+     * Returns the lower limit for predictions.
+     *
+     * @return
+     */
+    public double getMinPrediction() {
+        return Optional.ofNullable(this.minPrediction).orElse(DEFAULT_MIN_PREDICTION);
+    }
+
+    /**
+     * Returns the upper limit for predictions, if any.
+     *
+     * @return
+     */
+    public Optional<Double> getMaxPrediction() {
+        return Optional.ofNullable(this.maxPrediction);
+    }
+
+    /**
+     * Factory method that parses out an {@link LinearTrendPredictorParams}
+     * from a JSON representation, or fails with a {@link JsonSyntaxException}.
+     *
+     * @param jsonConfig
+     *            The JSON representation of the
+     *            {@link LinearTrendPredictorParams}.
+     * @return The parsed {@link LinearTrendPredictorParams}.
+     */
+    public static LinearTrendPredictorParams parse(JsonElement jsonConfig) {
+        return JsonUtils.toObject(jsonConfig, LinearTrendPredictorParams.class);
+    }
+
+    /**
+     * Performs basic validation of this {@link LinearTrendPredictorParams} and
+     * in case verification fails, an {@link IllegalArgumentException} is
+     * thrown.
+     */
+    public void validate() throws IllegalArgumentException {
+        checkArgument(getWindow().getMillis() > 0, "window must be positive");
+        checkArgument(0.0 < getConfidenceLevel() && getConfidenceLevel() < 1.0,
+                "confidenceLevel must be in range (0, 1)");
+        if (getMaxPrediction().isPresent()) {
+            checkArgument(getMinPrediction() <= getMaxPrediction().get(),
+                    "maxPrediction must not be less than minPrediction");
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof LinearTrendPredictorParams) {
+            LinearTrendPredictorParams that = (LinearTrendPredictorParams) obj;
+            return Objects.equals(this.window, that.window)
+                    && Objects.equals(this.confidenceLevel, that.confidenceLevel)
+                    && Objects.equals(this.predictUpperBound, that.predictUpperBound)
+                    && Objects.equals(this.minPrediction, that.minPrediction)
+                    && Objects.equals(this.maxPrediction, that.maxPrediction);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.window, this.confidenceLevel, this.predictUpperBound, this.minPrediction,
+                this.maxPrediction);
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -0,0 +1,243 @@
+package com.elastisys.autoscaler.predictors.lineartrend;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.any;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.reader.MetricStreamReader;
+import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
+import com.elastisys.autoscaler.core.prediction.api.types.PredictionUnit;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.predictors.lineartrend.config.LinearTrendPredictorParams;
+import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.eventbus.impl.SynchronousEventBus;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link LinearTrendPredictor}, by pushing {@link MetricValue}s
+ * onto the {@link Predictor}'s {@link MetricStream} and asking the
+ * {@link Predictor} to make predictions.
+ */
+public class TestLinearTrendPredictorOperation {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestLinearTrendPredictorOperation.class);
+
+    private static final String METRIC_NAME = "http.request.rate";
+    private static final String METRIC_STREAM_ID = METRIC_NAME + ".stream";
+
+    private static final TimeInterval WINDOW = new TimeInterval(5L, TimeUnit.MINUTES);
+    private static final int HORIZON = 180;
+    private static final double DELTA = 1e-6;
+
+    private final EventBus eventBus = new SynchronousEventBus(logger);
+    private final MonitoringSubsystem mockedMonitoringSubsystem = mock(MonitoringSubsystem.class);
+
+    /** Object under test. */
+    private Predictor predictor;
+
+    @Before
+    public void onSetup() {
+        FrozenTime.setFixed(UtcTime.parse("2014-05-20T12:00:00.000Z"));
+        prepareMockedMetricStream();
+
+        this.predictor = new LinearTrendPredictor(logger, this.eventBus, this.mockedMonitoringSubsystem);
+    }
+
+    private void prepareMockedMetricStream() {
+        MetricStreamer mockedMetricStreamer = mock(MetricStreamer.class);
+        when(this.mockedMonitoringSubsystem.getMetricStreamers()).thenReturn(asList(mockedMetricStreamer));
+        MetricStream mockedMetricStream = mock(MetricStream.class);
+        when(mockedMetricStreamer.getMetricStream(Matchers.argThat(is(any(String.class)))))
+                .thenReturn(mockedMetricStream);
+
+        when(mockedMetricStream.getId()).thenReturn(METRIC_STREAM_ID);
+        when(mockedMetricStream.getMetric()).thenReturn(METRIC_NAME);
+    }
+
+    /**
+     * The {@link LinearTrendPredictor} can run with <code>null</code>
+     * parameters. If so, it uses a default config.
+     */
+    @Test
+    public void configureWithNullParameters() {
+        this.predictor.configure(
+                new PredictorConfig("p1", LinearTrendPredictor.class.getName(), State.STARTED, METRIC_STREAM_ID, null));
+    }
+
+    @Test
+    public void startAndStop() throws Exception {
+        this.predictor.configure(config(true, null));
+        assertThat(this.predictor.getStatus().getState(), is(State.STOPPED));
+        this.predictor.start();
+        assertThat(this.predictor.getStatus().getState(), is(State.STARTED));
+        this.predictor.stop();
+        assertThat(this.predictor.getStatus().getState(), is(State.STOPPED));
+    }
+
+    /**
+     * No prediction returned unless at least one {@link MetricValue} has been
+     * observed.
+     */
+    @Test
+    public void predictWithoutObservingAnyMetricValues() throws Exception {
+        this.predictor.configure(config(true, null));
+        this.predictor.start();
+
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(0), UtcTime.now().plusSeconds(HORIZON));
+        assertThat(prediction, is(Optional.empty()));
+    }
+
+    /**
+     * Until enough metric values have been observed to fit a line, the latest
+     * observed metric value should be used as prediction.
+     */
+    @Test
+    public void predictWithTooFewMetricValues() throws Exception {
+        this.predictor.configure(config(true, null));
+        this.predictor.start();
+
+        DateTime now = UtcTime.now();
+        streamLoadMetric(new MetricValue(METRIC_NAME, 1.0, now.minusSeconds(20)));
+        streamLoadMetric(new MetricValue(METRIC_NAME, 3.0, now.minusSeconds(10)));
+
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(0), now.plusSeconds(HORIZON));
+        assertThat(prediction.isPresent(), is(true));
+        assertEquals(3.0, prediction.get().getValue(), DELTA);
+    }
+
+    /**
+     * Linearly growing load should be extrapolated to the prediction time.
+     */
+    @Test
+    public void predictLinearlyGrowingLoad() throws Exception {
+        this.predictor.configure(config(true, null));
+        this.predictor.start();
+
+        // load grows by one unit per second
+        DateTime now = UtcTime.now();
+        for (int second = 120; second >= 0; second -= 30) {
+            streamLoadMetric(new MetricValue(METRIC_NAME, 200.0 - second, now.minusSeconds(second)));
+        }
+
+        DateTime predictionTime = now.plusSeconds(HORIZON);
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(0), predictionTime);
+        assertThat(prediction.isPresent(), is(true));
+        assertThat(prediction.get().getTimestamp(), is(predictionTime));
+        assertThat(prediction.get().getMetric(), is(METRIC_NAME));
+        assertThat(prediction.get().getUnit(), is(PredictionUnit.METRIC));
+        assertEquals(200.0 + HORIZON, prediction.get().getValue(), DELTA);
+    }
+
+    /**
+     * For a noisy metric, the upper bound of the prediction interval should
+     * by default be used as prediction.
+     */
+    @Test
+    public void predictUpperBoundForNoisyLoad() throws Exception {
+        Optional<Prediction> upperBound = predictNoisyLoad(config(true, null));
+        this.predictor.stop();
+        Optional<Prediction> estimate = predictNoisyLoad(config(false, null));
+
+        assertTrue(upperBound.get().getValue() > estimate.get().getValue());
+    }
+
+    /**
+     * Predictions should be clamped to the configured prediction range.
+     */
+    @Test
+    public void predictWithClamping() throws Exception {
+        this.predictor.configure(config(false, 250.0));
+        this.predictor.start();
+
+        DateTime now = UtcTime.now();
+        for (int second = 120; second >= 0; second -= 30) {
+            streamLoadMetric(new MetricValue(METRIC_NAME, 200.0 - second, now.minusSeconds(second)));
+        }
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(0), now.plusSeconds(HORIZON));
+        assertEquals(250.0, prediction.get().getValue(), DELTA);
+
+        // steeply falling load must not result in negative predictions
+        FrozenTime.tick(60);
+        now = UtcTime.now();
+        for (int second = 20; second >= 0; second -= 10) {
+            streamLoadMetric(new MetricValue(METRIC_NAME, second, now.minusSeconds(second)));
+        }
+        prediction = this.predictor.predict(machinePool(0), now.plusSeconds(HORIZON));
+        assertEquals(0.0, prediction.get().getValue(), DELTA);
+    }
+
+    /**
+     * The predictor does not rely on the current pool size and should be able
+     * to handle situations where it is missing.
+     */
+    @Test
+    public void predictWithUnknownPoolSize() throws Exception {
+        this.predictor.configure(config(true, null));
+        this.predictor.start();
+        streamLoadMetric(new MetricValue(METRIC_NAME, 1.0, UtcTime.now().minusSeconds(1)));
+
+        Optional<PoolSizeSummary> absentPoolSize = Optional.empty();
+        Optional<Prediction> prediction = this.predictor.predict(absentPoolSize, UtcTime.now().plusSeconds(HORIZON));
+        assertThat(prediction.isPresent(), is(true));
+    }
+
+    private Optional<Prediction> predictNoisyLoad(PredictorConfig config) throws Exception {
+        this.predictor.configure(config);
+        this.predictor.start();
+
+        DateTime now = UtcTime.now();
+        double[] noise = { 5.0, -5.0, 10.0, -10.0, 5.0 };
+        for (int i = 0; i < noise.length; i++) {
+            int second = 30 * (noise.length - 1 - i);
+            streamLoadMetric(new MetricValue(METRIC_NAME, 200.0 - second + noise[i], now.minusSeconds(second)));
+        }
+        return this.predictor.predict(machinePool(0), now.plusSeconds(HORIZON));
+    }
+
+    private PredictorConfig config(boolean predictUpperBound, Double maxPrediction) {
+        LinearTrendPredictorParams params = new LinearTrendPredictorParams(WINDOW, 0.9, predictUpperBound, 0.0,
+                maxPrediction);
+        return new PredictorConfig("p1", LinearTrendPredictor.class.getName(), State.STARTED, METRIC_STREAM_ID,
+                JsonUtils.toJson(params).getAsJsonObject());
+    }
+
+    private Optional<PoolSizeSummary> machinePool(int size) {
+        return Optional.of(new PoolSizeSummary(size, size, size));
+    }
+
+    /**
+     * Pushes a {@link MetricValue} onto the {@link EventBus}, which the
+     * {@link Predictor}'s {@link MetricStreamReader} will capture.
+     *
+     * @param value
+     */
+    private void streamLoadMetric(MetricValue value) {
+        this.eventBus.post(new MetricStreamMessage(METRIC_STREAM_ID, asList(value)));
+    }
+}
@@ -0,0 +1,21 @@
+package com.elastisys.autoscaler.predictors.lineartrend;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.prediction.impl.standard.predictor.PredictorTypeAlias;
+
+/**
+ * Verify that the {@link PredictorTypeAlias} entry for the
+ * {@link LinearTrendPredictor} maps to the correct class name.
+ */
+public class TestPredictorTypeAlias {
+
+    @Test
+    public void verifyAliasToClassMapping() {
+        assertThat(PredictorTypeAlias.LinearTrendPredictor.getFullClassName(),
+                is(LinearTrendPredictor.class.getName()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.elastisys.autoscaler.predictors.lineartrend;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.predictors.lineartrend.SlidingWindowRegression.Extrapolation;
+
+/**
+ * Exercises the {@link SlidingWindowRegression}.
+ */
+public class TestSlidingWindowRegression {
+
+    private static final DateTime START = new DateTime("2014-05-20T12:00:00.000Z", DateTimeZone.UTC);
+    private static final long WINDOW_MILLIS = 60 * 1000L;
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void extrapolateWithTooFewDataPoints() {
+        SlidingWindowRegression regression = new SlidingWindowRegression(WINDOW_MILLIS);
+        assertThat(regression.getLatest(), is(Optional.empty()));
+        assertThat(regression.extrapolate(START, 0.9).isPresent(), is(false));
+
+        regression.add(value(1.0, 0));
+        regression.add(value(2.0, 10));
+        assertThat(regression.size(), is(2));
+        assertThat(regression.extrapolate(START, 0.9).isPresent(), is(false));
+
+        regression.add(value(3.0, 20));
+        assertThat(regression.extrapolate(START, 0.9).isPresent(), is(true));
+    }
+
+    /**
+     * A perfectly linear series should be extrapolated exactly, with an empty
+     * prediction interval.
+     */
+    @Test
+    public void extrapolateLinearSeries() {
+        SlidingWindowRegression regression = new SlidingWindowRegression(WINDOW_MILLIS);
+        for (int second = 0; second <= 50; second += 10) {
+            regression.add(value(10.0 + 0.5 * second, second));
+        }
+
+        assertEquals(0.5, regression.getSlope(), DELTA);
+        Extrapolation extrapolation = regression.extrapolate(START.plusSeconds(110), 0.9).get();
+        assertEquals(65.0, extrapolation.getEstimate(), DELTA);
+        assertEquals(65.0, extrapolation.getLowerBound(), DELTA);
+        assertEquals(65.0, extrapolation.getUpperBound(), DELTA);
+    }
+
+    /**
+     * For a noisy series, the prediction interval should widen the further
+     * away from the window it is extrapolated.
+     */
+    @Test
+    public void extrapolateNoisySeries() {
+        SlidingWindowRegression regression = new SlidingWindowRegression(WINDOW_MILLIS);
+        double[] noise = { 1.0, -1.0, 2.0, -2.0, 1.0, -1.0 };
+        for (int i = 0; i < noise.length; i++) {
+            regression.add(value(10.0 + i + noise[i], 10 * i));
+        }
+
+        Extrapolation near = regression.extrapolate(START.plusSeconds(60), 0.9).get();
+        Extrapolation far = regression.extrapolate(START.plusSeconds(600), 0.9).get();
+        assertTrue(near.getLowerBound() < near.getEstimate());
+        assertTrue(near.getEstimate() < near.getUpperBound());
+        assertTrue(far.getUpperBound() - far.getEstimate() > near.getUpperBound() - near.getEstimate());
+    }
+
+    /**
+     * Data points that fall out of the window should no longer affect the
+     * line fit.
+     */
+    @Test
+    public void evictDataPointsOutsideWindow() {
+        SlidingWindowRegression regression = new SlidingWindowRegression(WINDOW_MILLIS);
+        // a downward trend
+        for (int second = 0; second <= 60; second += 10) {
+            regression.add(value(100.0 - second, second));
+        }
+        assertEquals(-1.0, regression.getSlope(), DELTA);
+
+        // an upward trend that pushes the downward trend out of the window
+        for (int second = 70; second <= 130; second += 10) {
+            regression.add(value(2.0 * second, second));
+        }
+        assertThat(regression.size(), is(7));
+        assertEquals(2.0, regression.getSlope(), DELTA);
+        assertEquals(300.0, regression.extrapolate(START.plusSeconds(150), 0.9).get().getEstimate(), DELTA);
+    }
+
+    @Test
+    public void rejectOutOfOrderDataPoints() {
+        SlidingWindowRegression regression = new SlidingWindowRegression(WINDOW_MILLIS);
+        assertThat(regression.add(value(1.0, 10)), is(true));
+        assertThat(regression.add(value(1.0, 0)), is(false));
+        assertThat(regression.add(value(1.0, 10)), is(true));
+        assertThat(regression.size(), is(2));
+        assertThat(regression.getLatest().get().getTime(), is(START.plusSeconds(10)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void extrapolateWithIllegalConfidenceLevel() {
+        new SlidingWindowRegression(WINDOW_MILLIS).extrapolate(START, 1.0);
+    }
+
+    private static MetricValue value(double value, int secondsFromStart) {
+        return new MetricValue("metric", value, START.plusSeconds(secondsFromStart));
+    }
+}
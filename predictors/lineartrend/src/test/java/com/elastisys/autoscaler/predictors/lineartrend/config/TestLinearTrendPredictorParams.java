@@ -0,0 +1,76 @@
+package com.elastisys.autoscaler.predictors.lineartrend.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.google.gson.JsonObject;
+
+/**
+ * Exercises the {@link LinearTrendPredictorParams}.
+ */
+public class TestLinearTrendPredictorParams {
+
+    @Test
+    public void parseCompleteConfig() throws IOException {
+        LinearTrendPredictorParams params = parse("lineartrend/complete-config.json");
+        params.validate();
+
+        assertThat(params.getWindow(), is(new TimeInterval(15L, TimeUnit.MINUTES)));
+        assertThat(params.getConfidenceLevel(), is(0.95));
+        assertThat(params.isPredictUpperBound(), is(false));
+        assertThat(params.getMinPrediction(), is(10.0));
+        assertThat(params.getMaxPrediction(), is(Optional.of(1000.0)));
+    }
+
+    /**
+     * All parameters are optional.
+     */
+    @Test
+    public void parseConfigRelyingOnDefaults() throws IOException {
+        LinearTrendPredictorParams params = parse("lineartrend/minimal-config.json");
+        params.validate();
+
+        assertThat(params, is(LinearTrendPredictorParams.DEFAULT));
+        assertThat(params.getWindow(), is(LinearTrendPredictorParams.DEFAULT_WINDOW));
+        assertThat(params.getConfidenceLevel(), is(LinearTrendPredictorParams.DEFAULT_CONFIDENCE_LEVEL));
+        assertThat(params.isPredictUpperBound(), is(true));
+        assertThat(params.getMinPrediction(), is(LinearTrendPredictorParams.DEFAULT_MIN_PREDICTION));
+        assertThat(params.getMaxPrediction(), is(Optional.empty()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withZeroWindow() {
+        new LinearTrendPredictorParams(new TimeInterval(0L, TimeUnit.SECONDS), null, null, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withTooHighConfidenceLevel() {
+        new LinearTrendPredictorParams(null, 1.0, null, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withTooLowConfidenceLevel() {
+        new LinearTrendPredictorParams(null, 0.0, null, null, null).validate();
+    }
+
+    /**
+     * The prediction range must not be empty.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void withMaxPredictionBelowMinPrediction() {
+        new LinearTrendPredictorParams(null, null, null, 10.0, 5.0).validate();
+    }
+
+    private static LinearTrendPredictorParams parse(String resource) throws IOException {
+        JsonObject json = JsonUtils.parseJsonResource(resource).getAsJsonObject();
+        return LinearTrendPredictorParams.parse(json.get("parameters").getAsJsonObject());
+    }
+}
@@ -0,0 +1,171 @@
+package com.elastisys.autoscaler.predictors.queueing;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+/**
+ * An M/M/c queueing model: requests arrive according to a Poisson process,
+ * service times are exponentially distributed, and requests are served by
+ * {@code c} identical servers that share a single (unbounded) queue.
+ * <p/>
+ * The model is characterized by the request arrival rate {@code lambda}
+ * and the mean service time {@code S} of a request. By Little's law, the mean
+ * number of requests in service is {@code a = lambda * S} (the <i>offered
+ * load</i>), so at least {@code c > a} servers are required to keep the queue
+ * from growing without bound. With {@code c} servers, the probability that an
+ * arriving request has to wait is given by the Erlang C formula, from which
+ * the mean response time (waiting time plus service time) follows.
+ *
+ * @see QueueingPredictor
+ */
+public class MMcQueue {
+    /** The request arrival rate (requests per second). */
+    private final double arrivalRate;
+    /** The mean service time of a request (in seconds). */
+    private final double serviceTime;
+
+    /**
+     * Creates an {@link MMcQueue}.
+     *
+     * @param arrivalRate
+     *            The request arrival rate (requests per second).
+     * @param serviceTime
+     *            The mean service time of a request (in seconds).
+     */
+    public MMcQueue(double arrivalRate, double serviceTime) {
+        checkArgument(arrivalRate >= 0.0, "arrival rate must be non-negative");
+        checkArgument(serviceTime > 0.0, "service time must be positive");
+        this.arrivalRate = arrivalRate;
+        this.serviceTime = serviceTime;
+    }
+
+    /**
+     * Returns the request arrival rate (requests per second).
+     *
+     * @return
+     */
+    public double getArrivalRate() {
+        return this.arrivalRate;
+    }
+
+    /**
+     * Returns the mean service time of a request (in seconds).
+     *
+     * @return
+     */
+    public double getServiceTime() {
+        return this.serviceTime;
+    }
+
+    /**
+     * Returns the offered load: the mean number of requests in service
+     * (according to Little's law), which is also the mean number of busy
+     * servers.
+     *
+     * @return
+     */
+    public double getOfferedLoad() {
+        return this.arrivalRate * this.serviceTime;
+    }
+
+    /**
+     * Returns the least number of servers that keeps the queue stable (that
+     * is, keeps the utilization of the servers below one). Zero if no
+     * requests arrive.
+     *
+     * @return
+     */
+    public int minStableServers() {
+        if (this.arrivalRate == 0.0) {
+            return 0;
+        }
+        return (int) Math.floor(getOfferedLoad()) + 1;
+    }
+
+    /**
+     * Returns the mean response time (waiting time plus service time) of a
+     * request when served by a given number of servers.
+     *
+     * @param servers
+     *            The number of servers.
+     * @return The mean response time (in seconds).
+     *         {@link Double#POSITIVE_INFINITY} if the queue is unstable with
+     *         the given number of servers.
+     */
+    public double responseTime(int servers) {
+        checkArgument(servers >= 0, "number of servers must be non-negative");
+        double erlangB = 1.0;
+        for (int k = 1; k <= servers; k++) {
+            erlangB = nextErlangB(erlangB, k);
+        }
+        return responseTime(servers, erlangB);
+    }
+
+    /**
+     * Returns the least number of servers needed to keep the mean response
+     * time (waiting time plus service time) of a request within a given
+     * target.
+     * <p/>
+     * The search adds one server at a time, updating the Erlang B blocking
+     * probability (from which Erlang C is derived) incrementally, and
+     * therefore runs in time proportional to the returned number of servers.
+     *
+     * @param responseTimeTarget
+     *            The response time target (in seconds). Must be greater than
+     *            the service time, since no number of servers can bring the
+     *            response time below the service time.
+     * @return The least number of servers needed to meet the response time
+     *         target. Zero if no requests arrive.
+     */
+    public int serversForResponseTime(double responseTimeTarget) {
+        checkArgument(responseTimeTarget > this.serviceTime,
+                "response time target (%s s) must be greater than the service time (%s s)", responseTimeTarget,
+                this.serviceTime);
+        if (this.arrivalRate == 0.0) {
+            return 0;
+        }
+
+        double erlangB = 1.0;
+        int servers = 0;
+        do {
+            servers++;
+            erlangB = nextErlangB(erlangB, servers);
+        } while (responseTime(servers, erlangB) > responseTimeTarget);
+        return servers;
+    }
+
+    /**
+     * Calculates the Erlang B blocking probability for {@code k} servers from
+     * the blocking probability for {@code k - 1} servers.
+     *
+     * @param previousErlangB
+     * @param k
+     * @return
+     */
+    private double nextErlangB(double previousErlangB, int k) {
+        double a = getOfferedLoad();
+        return a * previousErlangB / (k + a * previousErlangB);
+    }
+
+    /**
+     * Calculates the mean response time for a number of servers, given the
+     * Erlang B blocking probability for that number of servers.
+     *
+     * @param servers
+     * @param erlangB
+     * @return
+     */
+    private double responseTime(int servers, double erlangB) {
+        double a = getOfferedLoad();
+        if (servers <= a) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double erlangC = servers * erlangB / (servers - a * (1.0 - erlangB));
+        double waitingTime = erlangC * this.serviceTime / (servers - a);
+        return waitingTime + this.serviceTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("M/M/c{arrivalRate: %s, serviceTime: %s}", this.arrivalRate, this.serviceTime);
+    }
+}
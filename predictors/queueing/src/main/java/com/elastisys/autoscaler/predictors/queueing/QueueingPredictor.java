@@ -0,0 +1,289 @@
+package com.elastisys.autoscaler.predictors.queueing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.reader.MetricStreamReader;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.SystemHistorian;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetric;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.SystemMetricEvent;
+import com.elastisys.autoscaler.core.prediction.api.PredictionException;
+import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
+import com.elastisys.autoscaler.core.prediction.api.types.PredictionUnit;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.core.prediction.impl.standard.predictor.AbstractPredictor;
+import com.elastisys.autoscaler.predictors.queueing.config.QueueingPredictorParams;
+import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * A compute unit {@link Predictor} that models the machine pool as an M/M/c
+ * queue (see {@link MMcQueue}), and predicts the number of machines needed to
+ * keep the mean response time of requests within a configured target.
+ * <p/>
+ * The {@link MetricStream} that the {@link Predictor} is configured with is
+ * expected to report the request arrival rate (in requests per second). The
+ * mean service time of a request is either read from a second
+ * {@link MetricStream} (reporting service times in seconds), or configured
+ * statically. Since the service time is taken into account, the prediction
+ * adapts to changes in the per-request cost, which a fixed capacity mapping
+ * between the arrival rate and the number of machines cannot.
+ * <p/>
+ * Each machine is modeled as {@code concurrencyPerMachine} servers of the
+ * queue. The latest observed arrival rate, padded with an optional
+ * {@code safetyMargin}, is used as the arrival rate to provision for.
+ * <p/>
+ * If the service time exceeds the response time target, no number of machines
+ * can meet the target. In that case, the least number of machines that keeps
+ * the queue stable is predicted.
+ */
+public class QueueingPredictor extends AbstractPredictor {
+
+    /**
+     * Event bus onto which {@link Alert}s and {@link SystemMetricEvent}s can be
+     * posted.
+     */
+    private final EventBus eventBus;
+
+    /**
+     * The {@link MetricStreamReader} from which request arrival rates are
+     * read.
+     */
+    private MetricStreamReader arrivalRateReader;
+    /**
+     * The {@link MetricStreamReader} from which service times are read.
+     * <code>null</code> if no {@code serviceTimeStream} is configured or if
+     * the {@link Predictor} is stopped.
+     */
+    private MetricStreamReader serviceTimeReader;
+
+    /** The latest observed request arrival rate. */
+    private MetricValue lastArrivalRate;
+    /** The latest observed service time. */
+    private MetricValue lastServiceTime;
+
+    /** The currently set parameters. */
+    private QueueingPredictorParams params;
+
+    @Inject
+    public QueueingPredictor(Logger logger, EventBus eventBus, MonitoringSubsystem monitoringSubsystem) {
+        super(logger, eventBus, monitoringSubsystem);
+        this.eventBus = eventBus;
+
+        this.lastArrivalRate = null;
+        this.lastServiceTime = null;
+        this.params = null;
+    }
+
+    @Override
+    public void validateConfig(PredictorConfig configuration) throws IllegalArgumentException {
+        try {
+            // validate predictor-specific part of configuration
+            QueueingPredictorParams parameters = effectiveParameters(configuration);
+            parameters.validate();
+        } catch (Exception e) {
+            throw new IllegalArgumentException(String.format("predictor %s: %s", configuration.getId(), e.getMessage()),
+                    e);
+        }
+    }
+
+    @Override
+    public void applyConfig(PredictorConfig newConfig) throws IllegalArgumentException {
+        validateConfig(newConfig);
+
+        QueueingPredictorParams newParams = effectiveParameters(newConfig);
+        boolean serviceTimeStreamChanged = this.params == null
+                || !Objects.equals(newParams.getServiceTimeStream(), this.params.getServiceTimeStream());
+        this.params = newParams;
+        if (serviceTimeStreamChanged) {
+            this.lastServiceTime = null;
+            if (isStarted()) {
+                // re-configured without restart: switch service time stream
+                stopServiceTimeReader();
+                startServiceTimeReader();
+            }
+        }
+    }
+
+    @Override
+    public void onStart(MetricStreamReader metricReader) {
+        this.arrivalRateReader = metricReader;
+        // metric streams may have changed: forget earlier observations
+        this.lastArrivalRate = null;
+        this.lastServiceTime = null;
+        startServiceTimeReader();
+        metricReader.start();
+    }
+
+    @Override
+    public void onStop() {
+        this.arrivalRateReader.stop();
+        stopServiceTimeReader();
+    }
+
+    /**
+     * Starts reading service times from the configured
+     * {@code serviceTimeStream}, if any.
+     *
+     * @throws IllegalArgumentException
+     *             If the {@code serviceTimeStream} could not be found.
+     */
+    private void startServiceTimeReader() throws IllegalArgumentException {
+        if (!this.params.getServiceTimeStream().isPresent()) {
+            return;
+        }
+        MetricStream serviceTimeStream = getMetricStream(this.params.getServiceTimeStream().get());
+        this.serviceTimeReader = new MetricStreamReader(getEventBus(), serviceTimeStream);
+        this.serviceTimeReader.start();
+    }
+
+    private void stopServiceTimeReader() {
+        if (this.serviceTimeReader != null) {
+            this.serviceTimeReader.stop();
+            this.serviceTimeReader = null;
+        }
+    }
+
+    @Override
+    public Optional<Prediction> doPrediction(Optional<PoolSizeSummary> poolSize, DateTime predictionTime)
+            throws PredictionException {
+        this.lastArrivalRate = latestReading(this.arrivalRateReader, this.lastArrivalRate);
+        if (this.serviceTimeReader != null) {
+            this.lastServiceTime = latestReading(this.serviceTimeReader, this.lastServiceTime);
+        }
+
+        if (this.lastArrivalRate == null) {
+            this.logger.warn("no arrival rate has been read yet from metric stream '{}', cannot make prediction.",
+                    this.arrivalRateReader.getMetricStream().getId());
+            return Optional.empty();
+        }
+        String metric = this.arrivalRateReader.getMetricStream().getMetric();
+        reportLoadObservation(metric, this.lastArrivalRate.getValue());
+
+        Optional<Double> serviceTime = serviceTime();
+        if (!serviceTime.isPresent()) {
+            this.logger.warn("no service time has been read yet from metric stream '{}', cannot make prediction.",
+                    this.serviceTimeReader.getMetricStream().getId());
+            return Optional.empty();
+        }
+
+        double marginCoefficient = 1.0 + this.params.getSafetyMargin() / 100.0;
+        double arrivalRate = Math.max(0.0, this.lastArrivalRate.getValue()) * marginCoefficient;
+        MMcQueue queue = new MMcQueue(arrivalRate, serviceTime.get());
+        double responseTimeTarget = this.params.getResponseTimeTarget().getMillis() / 1000.0;
+
+        int servers;
+        if (queue.getServiceTime() < responseTimeTarget) {
+            servers = queue.serversForResponseTime(responseTimeTarget);
+        } else {
+            this.logger.warn("service time ({} s) exceeds response time target ({} s): "
+                    + "predicting least number of machines that keeps queue stable", queue.getServiceTime(),
+                    responseTimeTarget);
+            servers = queue.minStableServers();
+        }
+        int concurrency = this.params.getConcurrencyPerMachine();
+        int machines = (servers + concurrency - 1) / concurrency;
+        this.logger.debug("{} (offered load: {}): {} server(s) needed, which requires {} machine(s)", queue,
+                queue.getOfferedLoad(), servers, machines);
+
+        return Optional.of(new Prediction(machines, PredictionUnit.COMPUTE, metric, predictionTime));
+    }
+
+    /**
+     * Returns the service time (in seconds) to use for predictions: the latest
+     * observed service time if any, otherwise the configured service time (if
+     * any).
+     *
+     * @return
+     */
+    private Optional<Double> serviceTime() {
+        if (this.lastServiceTime != null && this.lastServiceTime.getValue() > 0.0) {
+            return Optional.of(this.lastServiceTime.getValue());
+        }
+        if (this.params.getServiceTime().isPresent()) {
+            return Optional.of(this.params.getServiceTime().get().getMillis() / 1000.0);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Pops any new metric values from a {@link MetricStreamReader} and returns
+     * the latest one, or the given previous reading if no new metric values
+     * have arrived.
+     *
+     * @param reader
+     * @param previousReading
+     * @return
+     */
+    private MetricValue latestReading(MetricStreamReader reader, MetricValue previousReading) {
+        List<MetricValue> newReadings = new ArrayList<>();
+        reader.popTo(newReadings);
+
+        if (newReadings.isEmpty()) {
+            this.logger.debug("no new metric values received from {}", reader.getMetricStream().getId());
+            return previousReading;
+        }
+
+        MetricValue latestReading = newReadings.get(newReadings.size() - 1);
+        this.logger.debug("new metric value reading from {}: {}", reader.getMetricStream().getId(), latestReading);
+        return latestReading;
+    }
+
+    /**
+     * Pushes a load observation event for the {@link Predictor}'s metric onto
+     * the {@link AutoScaler} event bus to have the {@link SystemHistorian}
+     * record the observation.
+     *
+     * @param metric
+     *            The metric for which the load observation was made
+     * @param load
+     *            The load observation.
+     */
+    private void reportLoadObservation(String metric, double load) {
+        try {
+            String systemMetric = SystemMetric.CURRENT_LOAD.getMetricName();
+            Map<String, String> tags = new HashMap<>();
+            tags.put("predictor", getConfiguration().getId());
+            tags.put("metric", metric);
+            MetricValue dataPoint = new MetricValue(systemMetric, load, UtcTime.now(), tags);
+            this.eventBus.post(new SystemMetricEvent(dataPoint));
+        } catch (Exception e) {
+            this.logger.error(
+                    String.format("failed to push current load " + "observation onto event bus: %s", e.getMessage()),
+                    e);
+        }
+    }
+
+    /**
+     * Returns the {@link QueueingPredictorParams} associated with a given
+     * {@link PredictorConfig}.
+     *
+     * @param config
+     * @return
+     * @throws IllegalArgumentException
+     *             If no parameters were set, since a service time or service
+     *             time stream must always be given.
+     */
+    private QueueingPredictorParams effectiveParameters(PredictorConfig config) throws IllegalArgumentException {
+        if (config.getParameters() == null) {
+            throw new IllegalArgumentException("no parameters given: a serviceTime or serviceTimeStream is required");
+        }
+        return QueueingPredictorParams.parse(config.getParameters());
+    }
+}
@@ -0,0 +1,206 @@
+package com.elastisys.autoscaler.predictors.queueing.config;
+
+import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.predictors.queueing.QueueingPredictor;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Class that represents the {@link QueueingPredictor}-specific parameters of
+ * the {@link PredictorConfig}.
+ * <p/>
+ * That is, {@link QueueingPredictorParams} is the Java representation of the
+ * {@link PredictorConfig#getParameters()} {@link JsonObject} for the
+ * {@link QueueingPredictor}.
+ */
+public class QueueingPredictorParams {
+    /** Default response time target. */
+    public static final TimeInterval DEFAULT_RESPONSE_TIME_TARGET = new TimeInterval(1L, TimeUnit.SECONDS);
+    /** Default number of requests that a machine serves concurrently. */
+    public static final int DEFAULT_CONCURRENCY_PER_MACHINE = 1;
+    /** Default safety margin (in percent) to add to the arrival rate. */
+    public static final double DEFAULT_SAFETY_MARGIN = 0.0;
+
+    /**
+     * The id of a {@link MetricStream} that reports the observed mean service
+     * time of a request, in seconds. May be <code>null</code>, in which case
+     * {@link #serviceTime} is used. At least one of {@link #serviceTimeStream}
+     * and {@link #serviceTime} must be given.
+     */
+    private final String serviceTimeStream;
+    /**
+     * The mean service time of a request. Used when no
+     * {@link #serviceTimeStream} is given, and as a fallback until a service
+     * time has been observed on the {@link #serviceTimeStream}. May be
+     * <code>null</code>. At least one of {@link #serviceTimeStream} and
+     * {@link #serviceTime} must be given.
+     */
+    private final TimeInterval serviceTime;
+    /**
+     * The mean response time (waiting time plus service time) that requests
+     * should see. May be <code>null</code>. Default:
+     * {@link #DEFAULT_RESPONSE_TIME_TARGET}.
+     */
+    private final TimeInterval responseTimeTarget;
+    /**
+     * The number of requests that a single machine serves concurrently (for
+     * example, its number of worker threads). Each machine is modeled as this
+     * many servers of the queue. May be <code>null</code>. Default:
+     * {@link #DEFAULT_CONCURRENCY_PER_MACHINE}.
+     */
+    private final Integer concurrencyPerMachine;
+    /**
+     * The safety margin (in percent) to add to the observed arrival rate. This
+     * adds some extra padding to every prediction to keep some margin to the
+     * load curve. May be <code>null</code>. Default:
+     * {@link #DEFAULT_SAFETY_MARGIN}.
+     */
+    private final Double safetyMargin;
+
+    /**
+     * Creates a new {@link QueueingPredictorParams}.
+     *
+     * @param serviceTimeStream
+     *            The id of a {@link MetricStream} that reports the observed
+     *            mean service time of a request, in seconds. May be
+     *            <code>null</code>, in which case {@code serviceTime} is used.
+     * @param serviceTime
+     *            The mean service time of a request. Used when no
+     *            {@code serviceTimeStream} is given, and as a fallback until a
+     *            service time has been observed on the
+     *            {@code serviceTimeStream}. May be <code>null</code>.
+     * @param responseTimeTarget
+     *            The mean response time (waiting time plus service time) that
+     *            requests should see. May be <code>null</code>. Default:
+     *            {@link #DEFAULT_RESPONSE_TIME_TARGET}.
+     * @param concurrencyPerMachine
+     *            The number of requests that a single machine serves
+     *            concurrently. May be <code>null</code>. Default:
+     *            {@link #DEFAULT_CONCURRENCY_PER_MACHINE}.
+     * @param safetyMargin
+     *            The safety margin (in percent) to add to the observed arrival
+     *            rate. May be <code>null</code>. Default:
+     *            {@link #DEFAULT_SAFETY_MARGIN}.
+     */
+    public QueueingPredictorParams(String serviceTimeStream, TimeInterval serviceTime,
+            TimeInterval responseTimeTarget, Integer concurrencyPerMachine, Double safetyMargin) {
+        this.serviceTimeStream = serviceTimeStream;
+        this.serviceTime = serviceTime;
+        this.responseTimeTarget = responseTimeTarget;
+        this.concurrencyPerMachine = concurrencyPerMachine;
+        this.safetyMargin = safetyMargin;
+    }
+
+    /**
+     * Returns the id of the {@link MetricStream} that reports the observed
+     * mean service time of a request (in seconds), if any.
+     *
+     * @return
+     */
+    public Optional<String> getServiceTimeStream() {
+        return Optional.ofNullable(this.serviceTimeStream);
+    }
+
+    /**
+     * Returns the configured mean service time of a request, if any.
+     *
+     * @return
+     */
+    public Optional<TimeInterval> getServiceTime() {
+        return Optional.ofNullable(this.serviceTime);
+    }
+
+    /**
+     * Returns the mean response time (waiting time plus service time) that
+     * requests should see.
+     *
+     * @return
+     */
+    public TimeInterval getResponseTimeTarget() {
+        return Optional.ofNullable(this.responseTimeTarget).orElse(DEFAULT_RESPONSE_TIME_TARGET);
+    }
+
+    /**
+     * Returns the number of requests that a single machine serves
+     * concurrently.
+     *
+     * @return
+     */
+    public int getConcurrencyPerMachine() {
+        return Optional.ofNullable(this.concurrencyPerMachine).orElse(DEFAULT_CONCURRENCY_PER_MACHINE);
+    }
+
+    /**
+     * Returns the safety margin (in percent) to add to the observed arrival
+     * rate.
+     *
+     * @return
+     */
+    public double getSafetyMargin() {
+        return Optional.ofNullable(this.safetyMargin).orElse(DEFAULT_SAFETY_MARGIN);
+    }
+
+    /**
+     * Factory method that parses out an {@link QueueingPredictorParams} from a
+     * JSON representation, or fails with a {@link JsonSyntaxException}.
+     *
+     * @param jsonConfig
+     *            The JSON representation of the
+     *            {@link QueueingPredictorParams}.
+     * @return The parsed {@link QueueingPredictorParams}.
+     */
+    public static QueueingPredictorParams parse(JsonElement jsonConfig) {
+        return JsonUtils.toObject(jsonConfig, QueueingPredictorParams.class);
+    }
+
+    /**
+     * Performs basic validation of this {@link QueueingPredictorParams} and in
+     * case verification fails, an {@link IllegalArgumentException} is thrown.
+     */
+    public void validate() throws IllegalArgumentException {
+        checkArgument(getServiceTimeStream().isPresent() || getServiceTime().isPresent(),
+                "at least one of serviceTimeStream and serviceTime must be given");
+        if (getServiceTime().isPresent()) {
+            checkArgument(getServiceTime().get().getMillis() > 0, "serviceTime must be positive");
+            checkArgument(getResponseTimeTarget().getMillis() > getServiceTime().get().getMillis(),
+                    "responseTimeTarget must be greater than serviceTime");
+        }
+        checkArgument(getResponseTimeTarget().getMillis() > 0, "responseTimeTarget must be positive");
+        checkArgument(getConcurrencyPerMachine() > 0, "concurrencyPerMachine must be positive");
+        checkArgument(getSafetyMargin() >= 0.0, "safetyMargin must be a non-negative value");
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof QueueingPredictorParams) {
+            QueueingPredictorParams that = (QueueingPredictorParams) obj;
+            return Objects.equals(this.serviceTimeStream, that.serviceTimeStream)
+                    && Objects.equals(this.serviceTime, that.serviceTime)
+                    && Objects.equals(this.responseTimeTarget, that.responseTimeTarget)
+                    && Objects.equals(this.concurrencyPerMachine, that.concurrencyPerMachine)
+                    && Objects.equals(this.safetyMargin, that.safetyMargin);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.serviceTimeStream, this.serviceTime, this.responseTimeTarget,
+                this.concurrencyPerMachine, this.safetyMargin);
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -0,0 +1,105 @@
+package com.elastisys.autoscaler.predictors.queueing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Exercises the {@link MMcQueue}.
+ */
+public class TestMMcQueue {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * By Little's law, the offered load is the product of arrival rate and
+     * service time.
+     */
+    @Test
+    public void offeredLoad() {
+        assertEquals(2.0, new MMcQueue(10.0, 0.2).getOfferedLoad(), DELTA);
+        assertEquals(0.0, new MMcQueue(0.0, 0.2).getOfferedLoad(), DELTA);
+    }
+
+    @Test
+    public void minStableServers() {
+        assertThat(new MMcQueue(10.0, 0.2).minStableServers(), is(3));
+        assertThat(new MMcQueue(10.0, 0.25).minStableServers(), is(3));
+        assertThat(new MMcQueue(1.0, 0.5).minStableServers(), is(1));
+        assertThat(new MMcQueue(0.0, 0.5).minStableServers(), is(0));
+    }
+
+    /**
+     * Checks response times against Erlang C values calculated by hand.
+     */
+    @Test
+    public void responseTime() {
+        MMcQueue queue = new MMcQueue(2.0, 1.0);
+        // too few servers to keep up
+        assertThat(queue.responseTime(2), is(Double.POSITIVE_INFINITY));
+        // Erlang C(3, 2) = 4/9
+        assertEquals(1.0 + 4.0 / 9.0, queue.responseTime(3), DELTA);
+        // Erlang C(4, 2) = 4/23
+        assertEquals(1.0 + 2.0 / 23.0, queue.responseTime(4), DELTA);
+
+        // a single server reduces to M/M/1: W = S / (1 - rho)
+        assertEquals(1.0 / (1.0 - 0.5), new MMcQueue(0.5, 1.0).responseTime(1), DELTA);
+    }
+
+    /**
+     * Adding servers should monotonically bring the response time closer to
+     * the service time.
+     */
+    @Test
+    public void responseTimeDecreasesWithMoreServers() {
+        MMcQueue queue = new MMcQueue(95.0, 0.1);
+        double previous = queue.responseTime(10);
+        for (int servers = 11; servers < 30; servers++) {
+            double responseTime = queue.responseTime(servers);
+            assertTrue(responseTime < previous);
+            assertTrue(responseTime > 0.1);
+            previous = responseTime;
+        }
+    }
+
+    @Test
+    public void serversForResponseTime() {
+        MMcQueue queue = new MMcQueue(2.0, 1.0);
+        assertThat(queue.serversForResponseTime(1.5), is(3));
+        assertThat(queue.serversForResponseTime(1.44), is(4));
+        assertThat(queue.serversForResponseTime(1.1), is(4));
+
+        // the found number of servers should be the least to meet the target
+        MMcQueue largeQueue = new MMcQueue(950.0, 0.1);
+        int servers = largeQueue.serversForResponseTime(0.105);
+        assertTrue(largeQueue.responseTime(servers) <= 0.105);
+        assertTrue(largeQueue.responseTime(servers - 1) > 0.105);
+    }
+
+    @Test
+    public void serversForResponseTimeWithoutArrivals() {
+        assertThat(new MMcQueue(0.0, 1.0).serversForResponseTime(1.5), is(0));
+    }
+
+    /**
+     * No number of servers can bring the response time below the service
+     * time.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void serversForUnattainableResponseTime() {
+        new MMcQueue(2.0, 1.0).serversForResponseTime(1.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithNegativeArrivalRate() {
+        new MMcQueue(-1.0, 1.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithZeroServiceTime() {
+        new MMcQueue(1.0, 0.0);
+    }
+}
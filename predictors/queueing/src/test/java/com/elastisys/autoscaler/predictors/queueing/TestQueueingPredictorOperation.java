@@ -0,0 +1,276 @@
+package com.elastisys.autoscaler.predictors.queueing;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
+import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.reader.MetricStreamReader;
+import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
+import com.elastisys.autoscaler.core.prediction.api.types.PredictionUnit;
+import com.elastisys.autoscaler.core.prediction.impl.standard.api.Predictor;
+import com.elastisys.autoscaler.core.prediction.impl.standard.config.PredictorConfig;
+import com.elastisys.autoscaler.predictors.queueing.config.QueueingPredictorParams;
+import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
+import com.elastisys.scale.commons.eventbus.EventBus;
+import com.elastisys.scale.commons.eventbus.impl.SynchronousEventBus;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link QueueingPredictor}, by pushing {@link MetricValue}s
+ * onto the {@link Predictor}'s arrival rate and service time
+ * {@link MetricStream}s and asking the {@link Predictor} to make predictions.
+ */
+public class TestQueueingPredictorOperation {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestQueueingPredictorOperation.class);
+
+    private static final String ARRIVAL_RATE_METRIC = "http.request.rate";
+    private static final String ARRIVAL_RATE_STREAM_ID = ARRIVAL_RATE_METRIC + ".stream";
+    private static final String SERVICE_TIME_METRIC = "http.service.time";
+    private static final String SERVICE_TIME_STREAM_ID = SERVICE_TIME_METRIC + ".stream";
+    private static final String OTHER_SERVICE_TIME_METRIC = "http.backend.service.time";
+    private static final String OTHER_SERVICE_TIME_STREAM_ID = OTHER_SERVICE_TIME_METRIC + ".stream";
+
+    private static final TimeInterval ONE_SECOND = new TimeInterval(1L, TimeUnit.SECONDS);
+    private static final TimeInterval HALF_A_SECOND = new TimeInterval(500L, TimeUnit.MILLISECONDS);
+    private static final TimeInterval RESPONSE_TIME_TARGET = new TimeInterval(1500L, TimeUnit.MILLISECONDS);
+
+    private final EventBus eventBus = new SynchronousEventBus(logger);
+    private final MonitoringSubsystem mockedMonitoringSubsystem = mock(MonitoringSubsystem.class);
+
+    /** Object under test. */
+    private Predictor predictor;
+
+    @Before
+    public void onSetup() {
+        FrozenTime.setFixed(UtcTime.parse("2014-05-20T12:00:00.000Z"));
+        prepareMockedMetricStreams();
+
+        this.predictor = new QueueingPredictor(logger, this.eventBus, this.mockedMonitoringSubsystem);
+    }
+
+    private void prepareMockedMetricStreams() {
+        MetricStreamer mockedMetricStreamer = mock(MetricStreamer.class);
+        when(this.mockedMonitoringSubsystem.getMetricStreamers()).thenReturn(asList(mockedMetricStreamer));
+        for (String metric : asList(ARRIVAL_RATE_METRIC, SERVICE_TIME_METRIC, OTHER_SERVICE_TIME_METRIC)) {
+            MetricStream mockedMetricStream = mock(MetricStream.class);
+            when(mockedMetricStream.getId()).thenReturn(metric + ".stream");
+            when(mockedMetricStream.getMetric()).thenReturn(metric);
+            when(mockedMetricStreamer.getMetricStream(metric + ".stream")).thenReturn(mockedMetricStream);
+        }
+    }
+
+    /**
+     * A service time (or service time stream) must always be given, so the
+     * {@link QueueingPredictor} cannot run with <code>null</code> parameters.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void configureWithNullParameters() {
+        this.predictor.configure(new PredictorConfig("p1", QueueingPredictor.class.getName(), State.STARTED,
+                ARRIVAL_RATE_STREAM_ID, null));
+    }
+
+    @Test
+    public void startAndStop() throws Exception {
+        this.predictor.configure(config(SERVICE_TIME_STREAM_ID, ONE_SECOND, 1, 0.0));
+        assertThat(this.predictor.getStatus().getState(), is(State.STOPPED));
+        this.predictor.start();
+        assertThat(this.predictor.getStatus().getState(), is(State.STARTED));
+        this.predictor.stop();
+        assertThat(this.predictor.getStatus().getState(), is(State.STOPPED));
+    }
+
+    /**
+     * No prediction returned unless an arrival rate has been observed.
+     */
+    @Test
+    public void predictWithoutObservingArrivalRate() throws Exception {
+        this.predictor.configure(config(null, ONE_SECOND, 1, 0.0));
+        this.predictor.start();
+
+        assertThat(predict(), is(Optional.empty()));
+    }
+
+    /**
+     * No prediction returned unless a service time is known.
+     */
+    @Test
+    public void predictWithoutObservingServiceTime() throws Exception {
+        this.predictor.configure(config(SERVICE_TIME_STREAM_ID, null, 1, 0.0));
+        this.predictor.start();
+        streamArrivalRate(2.0);
+
+        assertThat(predict(), is(Optional.empty()));
+    }
+
+    @Test
+    public void predictWithStaticServiceTime() throws Exception {
+        this.predictor.configure(config(null, ONE_SECOND, 1, 0.0));
+        this.predictor.start();
+        streamArrivalRate(2.0);
+
+        DateTime predictionTime = UtcTime.now().plusMinutes(3);
+        Optional<Prediction> prediction = this.predictor.predict(machinePool(1), predictionTime);
+        // offered load is 2: three servers give a response time of 1.44 s
+        assertThat(prediction.get().getValue(), is(3.0));
+        assertThat(prediction.get().getUnit(), is(PredictionUnit.COMPUTE));
+        assertThat(prediction.get().getMetric(), is(ARRIVAL_RATE_METRIC));
+        assertThat(prediction.get().getTimestamp(), is(predictionTime));
+    }
+
+    /**
+     * Once observed, service times should be read from the service time
+     * stream rather than from the configured service time.
+     */
+    @Test
+    public void predictWithServiceTimeStream() throws Exception {
+        this.predictor.configure(config(SERVICE_TIME_STREAM_ID, HALF_A_SECOND, 1, 0.0));
+        this.predictor.start();
+        streamArrivalRate(2.0);
+
+        // falls back to configured service time until one has been observed
+        assertThat(predict().get().getValue(), is(2.0));
+
+        streamServiceTime(SERVICE_TIME_STREAM_ID, 1.0);
+        assertThat(predict().get().getValue(), is(3.0));
+
+        // a growing per-request cost calls for more machines at the same rate
+        streamServiceTime(SERVICE_TIME_STREAM_ID, 1.2);
+        int servers = new MMcQueue(2.0, 1.2).serversForResponseTime(1.5);
+        assertThat(servers > 3, is(true));
+        assertThat(predict().get().getValue(), is((double) servers));
+    }
+
+    /**
+     * Each machine should be modeled as {@code concurrencyPerMachine} servers.
+     */
+    @Test
+    public void predictWithConcurrentMachines() throws Exception {
+        this.predictor.configure(config(null, new TimeInterval(100L, TimeUnit.MILLISECONDS), 8, 0.0));
+        this.predictor.start();
+        streamArrivalRate(950.0);
+
+        int servers = new MMcQueue(950.0, 0.1).serversForResponseTime(1.5);
+        double machines = Math.ceil(servers / 8.0);
+        assertThat(predict().get().getValue(), is(machines));
+    }
+
+    /**
+     * The safety margin should be added to the observed arrival rate.
+     */
+    @Test
+    public void predictWithSafetyMargin() throws Exception {
+        this.predictor.configure(config(null, ONE_SECOND, 1, 50.0));
+        this.predictor.start();
+        streamArrivalRate(2.0);
+
+        int servers = new MMcQueue(3.0, 1.0).serversForResponseTime(1.5);
+        assertThat(predict().get().getValue(), is((double) servers));
+    }
+
+    /**
+     * When the observed service time exceeds the response time target, no
+     * number of machines can meet the target. The predictor should fall back
+     * to the least number of machines that keeps up with the arrival rate.
+     */
+    @Test
+    public void predictWithServiceTimeExceedingResponseTimeTarget() throws Exception {
+        this.predictor.configure(config(SERVICE_TIME_STREAM_ID, ONE_SECOND, 1, 0.0));
+        this.predictor.start();
+        streamArrivalRate(2.0);
+        streamServiceTime(SERVICE_TIME_STREAM_ID, 2.0);
+
+        // offered load is 4
+        assertThat(predict().get().getValue(), is(5.0));
+    }
+
+    @Test
+    public void predictWithoutArrivals() throws Exception {
+        this.predictor.configure(config(null, ONE_SECOND, 1, 0.0));
+        this.predictor.start();
+        streamArrivalRate(0.0);
+
+        assertThat(predict().get().getValue(), is(0.0));
+    }
+
+    /**
+     * It should be possible to switch service time stream without restarting
+     * the predictor.
+     */
+    @Test
+    public void reconfigureServiceTimeStreamWhileStarted() throws Exception {
+        this.predictor.configure(config(SERVICE_TIME_STREAM_ID, HALF_A_SECOND, 1, 0.0));
+        this.predictor.start();
+        streamArrivalRate(2.0);
+        streamServiceTime(SERVICE_TIME_STREAM_ID, 1.0);
+        assertThat(predict().get().getValue(), is(3.0));
+
+        this.predictor.configure(config(OTHER_SERVICE_TIME_STREAM_ID, HALF_A_SECOND, 1, 0.0));
+        assertThat(this.predictor.getStatus().getState(), is(State.STARTED));
+        // values on the old service time stream should no longer be read
+        streamServiceTime(SERVICE_TIME_STREAM_ID, 1.0);
+        assertThat(predict().get().getValue(), is(2.0));
+
+        streamServiceTime(OTHER_SERVICE_TIME_STREAM_ID, 1.0);
+        assertThat(predict().get().getValue(), is(3.0));
+    }
+
+    private Optional<Prediction> predict() throws Exception {
+        return this.predictor.predict(machinePool(1), UtcTime.now().plusMinutes(3));
+    }
+
+    private PredictorConfig config(String serviceTimeStream, TimeInterval serviceTime, int concurrencyPerMachine,
+            double safetyMargin) {
+        QueueingPredictorParams params = new QueueingPredictorParams(serviceTimeStream, serviceTime,
+                RESPONSE_TIME_TARGET, concurrencyPerMachine, safetyMargin);
+        return new PredictorConfig("p1", QueueingPredictor.class.getName(), State.STARTED, ARRIVAL_RATE_STREAM_ID,
+                JsonUtils.toJson(params).getAsJsonObject());
+    }
+
+    private Optional<PoolSizeSummary> machinePool(int size) {
+        return Optional.of(new PoolSizeSummary(size, size, size));
+    }
+
+    /**
+     * Pushes an arrival rate onto the {@link EventBus}, which the
+     * {@link Predictor}'s {@link MetricStreamReader} will capture.
+     *
+     * @param arrivalRate
+     */
+    private void streamArrivalRate(double arrivalRate) {
+        MetricValue value = new MetricValue(ARRIVAL_RATE_METRIC, arrivalRate, UtcTime.now());
+        this.eventBus.post(new MetricStreamMessage(ARRIVAL_RATE_STREAM_ID, asList(value)));
+    }
+
+    /**
+     * Pushes a service time onto the {@link EventBus} for a given service time
+     * {@link MetricStream}.
+     *
+     * @param metricStreamId
+     * @param serviceTime
+     */
+    private void streamServiceTime(String metricStreamId, double serviceTime) {
+        MetricValue value = new MetricValue(SERVICE_TIME_METRIC, serviceTime, UtcTime.now());
+        this.eventBus.post(new MetricStreamMessage(metricStreamId, asList(value)));
+    }
+}
@@ -0,0 +1,92 @@
+package com.elastisys.autoscaler.predictors.queueing.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.google.gson.JsonObject;
+
+/**
+ * Exercises the {@link QueueingPredictorParams}.
+ */
+public class TestQueueingPredictorParams {
+
+    private static final TimeInterval SERVICE_TIME = new TimeInterval(200L, TimeUnit.MILLISECONDS);
+
+    @Test
+    public void parseCompleteConfig() throws IOException {
+        QueueingPredictorParams params = parse("queueing/complete-config.json");
+        params.validate();
+
+        assertThat(params.getServiceTimeStream(), is(Optional.of("http.service.time.stream")));
+        assertThat(params.getServiceTime().get().getMillis(), is(200L));
+        assertThat(params.getResponseTimeTarget().getMillis(), is(500L));
+        assertThat(params.getConcurrencyPerMachine(), is(8));
+        assertThat(params.getSafetyMargin(), is(10.0));
+    }
+
+    /**
+     * All parameters but the service time (or service time stream) are
+     * optional.
+     */
+    @Test
+    public void parseConfigRelyingOnDefaults() throws IOException {
+        QueueingPredictorParams params = parse("queueing/minimal-config.json");
+        params.validate();
+
+        assertThat(params.getServiceTimeStream(), is(Optional.empty()));
+        assertThat(params.getServiceTime().get().getMillis(), is(200L));
+        assertThat(params.getResponseTimeTarget(), is(QueueingPredictorParams.DEFAULT_RESPONSE_TIME_TARGET));
+        assertThat(params.getConcurrencyPerMachine(), is(QueueingPredictorParams.DEFAULT_CONCURRENCY_PER_MACHINE));
+        assertThat(params.getSafetyMargin(), is(QueueingPredictorParams.DEFAULT_SAFETY_MARGIN));
+    }
+
+    /**
+     * A service time stream can be used without a static service time.
+     */
+    @Test
+    public void withOnlyServiceTimeStream() {
+        new QueueingPredictorParams("service.time.stream", null, null, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNeitherServiceTimeNorServiceTimeStream() {
+        new QueueingPredictorParams(null, null, null, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withZeroServiceTime() {
+        new QueueingPredictorParams(null, new TimeInterval(0L, TimeUnit.SECONDS), null, null, null).validate();
+    }
+
+    /**
+     * The response time target can never be met if it does not exceed the
+     * service time.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void withResponseTimeTargetNotExceedingServiceTime() {
+        new QueueingPredictorParams(null, SERVICE_TIME, SERVICE_TIME, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withZeroConcurrencyPerMachine() {
+        new QueueingPredictorParams(null, SERVICE_TIME, null, 0, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeSafetyMargin() {
+        new QueueingPredictorParams(null, SERVICE_TIME, null, null, -1.0).validate();
+    }
+
+    private static QueueingPredictorParams parse(String resource) throws IOException {
+        JsonObject json = JsonUtils.parseJsonResource(resource).getAsJsonObject();
+        return QueueingPredictorParams.parse(json.get("parameters").getAsJsonObject());
+    }
+}
@@ -7,6 +7,8 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import org.joda.time.DateTime;
@@ -20,6 +22,8 @@ import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
 import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamBackfillMessage;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamCorrectionMessage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.reader.MetricStreamReader;
@@ -215,6 +219,41 @@ public class TestLastReadingPredictorOperation {
         assertThat(prediction.isPresent(), is(true));
     }
 
+    /**
+     * The predictor only consumes in-order metric values, so late and
+     * backfilled metric values should not pile up in its
+     * {@link MetricStreamReader}.
+     */
+    @Test
+    public void ignoreOutOfOrderValues() throws Exception {
+        DateTime now = UtcTime.now();
+        List<MetricStreamReader> readers = new ArrayList<>();
+        this.predictor = new ReactivePredictor(logger, eventBus, mockedMonitoringSubsystem) {
+            @Override
+            public void onStart(MetricStreamReader metricReader) {
+                readers.add(metricReader);
+                super.onStart(metricReader);
+            }
+        };
+        this.predictor.configure(config(0.0));
+        this.predictor.start();
+
+        streamLoadMetric(new MetricValue(METRIC_NAME, 1.0, now.minusSeconds(1)));
+        for (int i = 2; i < 1000; i++) {
+            eventBus.post(new MetricStreamCorrectionMessage(METRIC_STREAM_ID,
+                    asList(new MetricValue(METRIC_NAME, 2.0, now.minusSeconds(i))), now.minusSeconds(1000)));
+            eventBus.post(new MetricStreamBackfillMessage(METRIC_STREAM_ID,
+                    asList(new MetricValue(METRIC_NAME, 3.0, now.minusHours(1).plusSeconds(i)))));
+            assertThat(this.predictor.predict(machinePool(0), now.plusSeconds(180)).get().getValue(), is(1.0));
+        }
+
+        MetricStreamReader reader = readers.get(0);
+        assertThat(reader.isReadingOutOfOrder(), is(false));
+        List<MetricValue> outOfOrder = new ArrayList<>();
+        reader.popOutOfOrderTo(outOfOrder);
+        assertThat(outOfOrder.isEmpty(), is(true));
+    }
+
     private PredictorConfig config(double safetyMargin) {
         return new PredictorConfig("p1", ReactivePredictor.class.getName(), State.STARTED, METRIC_STREAM_ID,
                 JsonUtils.toJson(new ReactivePredictorParams(safetyMargin)).getAsJsonObject());
@@ -8,6 +8,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -34,6 +35,7 @@ import com.elastisys.autoscaler.core.utils.stats.timeseries.impl.BasicTimeSeries
 import com.elastisys.autoscaler.core.utils.stats.timeseries.impl.MaxAgeTimeSeries;
 import com.elastisys.autoscaler.predictors.rulebased.config.RuleBasedPredictorParams;
 import com.elastisys.autoscaler.predictors.rulebased.rule.ScalingRule;
+import com.elastisys.autoscaler.predictors.rulebased.rule.ScalingRuleState;
 import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
 import com.elastisys.scale.commons.eventbus.EventBus;
 import com.elastisys.scale.commons.json.types.TimeInterval;
@@ -58,6 +60,19 @@ import com.elastisys.scale.commons.util.time.UtcTime;
  * aware of what the metric represents, it works the same regardless of if it
  * monitors a stream of observed response times or a stream of CPU utilization
  * pool average values.
+ * <p/>
+ * The {@link ScalingRule}s are evaluated incrementally: each
+ * {@link ScalingRule} has a {@link ScalingRuleState} that is updated with new
+ * metric values as they arrive, which keeps the cost of evaluating a rule
+ * independent of the length of its evaluation period.
+ * <p/>
+ * If the metric stream publishes an event-time watermark (see
+ * {@link MetricStreamReader#getWatermark()}), the {@link ScalingRule}s are
+ * only evaluated against metric values at or before the watermark, since
+ * late-arriving metric values may still show up after it. Late and backfilled
+ * metric values (see
+ * {@link MetricStreamReader#popOutOfOrderTo(java.util.Collection)}) are merged
+ * into the tracked metric history when they arrive.
  *
  * @see ScalingRule
  */
@@ -90,6 +105,12 @@ public class RuleBasedPredictor extends AbstractPredictor {
      */
     private final MaxAgeTimeSeries slidingMetricSeries;
 
+    /**
+     * The incrementally tracked state of each of the configured
+     * {@link ScalingRule}s, in the order that the rules are configured.
+     */
+    private List<ScalingRuleState> scalingRuleStates;
+
     /** The currently set parameters. */
     private RuleBasedPredictorParams params;
 
@@ -102,6 +123,7 @@ public class RuleBasedPredictor extends AbstractPredictor {
         this.lastCooldownStart = Optional.empty();
 
         this.params = null;
+        this.scalingRuleStates = new ArrayList<>();
         this.slidingMetricSeries = new MaxAgeTimeSeries(new BasicTimeSeries(), 0);
     }
 
@@ -127,6 +149,16 @@ public class RuleBasedPredictor extends AbstractPredictor {
         // set history length to twice the longest evaluation period
         int historyLength = 2 * longestScalingRulePeriod(this.params.getScalingRules());
         this.slidingMetricSeries.setMaxAge(historyLength);
+
+        List<DataPoint> metricValues = completeMetricValues();
+        this.scalingRuleStates = this.params.getScalingRules().stream().map(ScalingRuleState::new)
+                .collect(Collectors.toList());
+        this.scalingRuleStates.forEach(state -> state.reset(metricValues));
+    }
+
+    @Override
+    protected boolean readsOutOfOrderValues() {
+        return true;
     }
 
     @Override
@@ -147,11 +179,12 @@ public class RuleBasedPredictor extends AbstractPredictor {
 
         String metric = this.metricReader.getMetricStream().getMetric();
 
-        List<DataPoint> metricValues = this.slidingMetricSeries.getDataPoints();
-        this.logger.debug("metric values: {}", metricValues);
-        if (!metricValues.isEmpty()) {
-            reportLoadObservation(metric, metricValues.get(metricValues.size() - 1).getValue());
+        List<DataPoint> allMetricValues = this.slidingMetricSeries.getDataPoints();
+        if (!allMetricValues.isEmpty()) {
+            reportLoadObservation(metric, allMetricValues.get(allMetricValues.size() - 1).getValue());
         }
+        List<DataPoint> metricValues = completeMetricValues();
+        this.logger.debug("metric values (up to watermark {}): {}", this.metricReader.getWatermark(), metricValues);
 
         if (inCooldownPhase()) {
             this.logger.debug("no new prediction: in cool-down phase");
@@ -169,9 +202,9 @@ public class RuleBasedPredictor extends AbstractPredictor {
         // evaluate each scaling rule in turn: if anyone triggers, ignore the
         // rest and start a new cooldown period
         Optional<Prediction> prediction = Optional.of(prediction(currentDesiredSize, metric, predictionTime));
-        List<ScalingRule> scalingRules = this.params.getScalingRules();
-        for (ScalingRule scalingRule : scalingRules) {
-            ScalingRule.RuleOutcome outcome = scalingRule.isSatisfiedBy(metricValues);
+        for (ScalingRuleState scalingRuleState : this.scalingRuleStates) {
+            ScalingRule scalingRule = scalingRuleState.getRule();
+            ScalingRule.RuleOutcome outcome = scalingRuleState.evaluate(metricValues);
             this.logger.debug(format("Scaling rule %s %s satisifed by metrics: %s", scalingRule,
                     outcome.isSatisfied() ? "was not" : "was", outcome.getReason()));
             if (outcome.isSatisfied()) {
@@ -191,12 +224,72 @@ public class RuleBasedPredictor extends AbstractPredictor {
     }
 
     /**
-     * Reads any new metric value arrivals from the {@link MetricStream}.
+     * Reads any new metric value arrivals (including late arrivals and
+     * backfills) from the {@link MetricStream} and updates the
+     * {@link ScalingRuleState}s with them.
      */
     private void popMetricStream() {
         List<MetricValue> newStreamValues = new ArrayList<>();
         this.metricReader.popTo(newStreamValues);
+        this.metricReader.popOutOfOrderTo(newStreamValues);
         this.slidingMetricSeries.addAll(newStreamValues);
+        updateScalingRuleStates(newStreamValues);
+    }
+
+    /**
+     * Updates the {@link ScalingRuleState}s with the metric values that have
+     * become complete (that is, that are at or before the watermark) since the
+     * last update. In case any of the newly arrived values does not follow the
+     * most recently observed value in time (such as a late arrival), the
+     * {@link ScalingRuleState}s are rebuilt from the sliding metric series.
+     *
+     * @param newStreamValues
+     */
+    private void updateScalingRuleStates(List<MetricValue> newStreamValues) {
+        if (this.scalingRuleStates.isEmpty()) {
+            return;
+        }
+
+        List<DataPoint> completeValues = completeMetricValues();
+        Optional<DateTime> lastObservation = this.scalingRuleStates.get(0).getLastObservationTime();
+        if (lastObservation.isPresent()
+                && newStreamValues.stream().anyMatch(value -> !value.getTime().isAfter(lastObservation.get()))) {
+            this.logger.debug("metric values arrived out of order: rebuilding scaling rule states");
+            this.scalingRuleStates.forEach(state -> state.reset(completeValues));
+            return;
+        }
+
+        // feed the complete values that have not yet been observed
+        int firstUnobserved = completeValues.size();
+        while (firstUnobserved > 0 && (!lastObservation.isPresent()
+                || completeValues.get(firstUnobserved - 1).getTime().isAfter(lastObservation.get()))) {
+            firstUnobserved--;
+        }
+        List<DataPoint> unobservedValues = completeValues.subList(firstUnobserved, completeValues.size());
+        for (ScalingRuleState state : this.scalingRuleStates) {
+            unobservedValues.forEach(state::update);
+        }
+    }
+
+    /**
+     * Returns the metric values in the sliding metric series that belong to
+     * complete time windows, which are the ones at or before the watermark of
+     * the metric stream. If no watermark has been published, all metric values
+     * are considered complete.
+     *
+     * @return
+     */
+    private List<DataPoint> completeMetricValues() {
+        List<DataPoint> metricValues = this.slidingMetricSeries.getDataPoints();
+        if (this.metricReader == null || !this.metricReader.getWatermark().isPresent()) {
+            return metricValues;
+        }
+        DateTime watermark = this.metricReader.getWatermark().get();
+        int end = metricValues.size();
+        while (end > 0 && metricValues.get(end - 1).getTime().isAfter(watermark)) {
+            end--;
+        }
+        return metricValues.subList(0, end);
     }
 
     private Prediction prediction(int poolSizePrediction, String metric, DateTime predictionTime) {
@@ -5,9 +5,6 @@ import static com.elastisys.scale.commons.util.precond.Preconditions.checkArgume
 import java.util.List;
 import java.util.Objects;
 
-import org.joda.time.DateTime;
-import org.joda.time.Duration;
-
 import com.elastisys.autoscaler.core.utils.stats.timeseries.DataPoint;
 import com.elastisys.autoscaler.predictors.rulebased.RuleBasedPredictor;
 import com.elastisys.autoscaler.predictors.rulebased.config.RuleBasedPredictorParams;
@@ -22,7 +19,8 @@ import com.elastisys.scale.commons.json.types.TimeInterval;
  * When the value of a the monitored metric data series has breached a threshold
  * for sufficiently long a scaling action is triggered. The {@link ScalingRule}
  * can be tested against a metric value sequence by invoking the
- * {@link #isSatisfiedBy(List)} method.
+ * {@link #isSatisfiedBy(List)} method or, incrementally, by tracking its
+ * state in a {@link ScalingRuleState}.
  * <p/>
  * The semantics of a scaling rule can be expressed in the following way:
  * <p/>
@@ -156,7 +154,7 @@ public class ScalingRule {
      * constraint checks and also a reason message with details of what caused
      * the result.
      */
-    public class RuleOutcome {
+    public static class RuleOutcome {
         private boolean satisfied;
         private String reason;
 
@@ -179,6 +177,10 @@ public class ScalingRule {
      * and returns <code>true</code> if the metric sequence satisfies this
      * {@link ScalingRule} (that is, the metric values have satisfied the
      * threshold condition for a sufficiently long time).
+     * <p/>
+     * Note that this walks the entire metric sequence. When the same rule is
+     * evaluated repeatedly against a growing metric sequence, a
+     * {@link ScalingRuleState} should be used instead.
      *
      * @param metricSequence
      *            A metric sequence that is assumed to be sorted in order of
@@ -188,35 +190,9 @@ public class ScalingRule {
     public RuleOutcome isSatisfiedBy(List<DataPoint> metricSequence) {
         Objects.requireNonNull(metricSequence, "metric sequence cannot be null");
 
-        if (metricSequence.size() < 2) {
-            return new RuleOutcome(false, "Not enough metric data points (cannot evaluate period length)");
-        }
-
-        DataPoint lastValue = metricSequence.get(metricSequence.size() - 1);
-        if (!this.condition.evaluate(lastValue.getValue(), this.threshold)) {
-            return new RuleOutcome(false,
-                    String.format("Threshold condition not true on last metric observation: %s", lastValue.toString()));
-        }
-        DateTime newest = lastValue.getTime();
-
-        // see if threshold condition has been satisfied for sufficiently long
-        for (int i = metricSequence.size() - 2; i >= 0; i--) {
-            DataPoint value = metricSequence.get(i);
-            Duration satisfactionPeriod = new Duration(value.getTime(), newest);
-            if (!this.condition.evaluate(value.getValue(), this.threshold)) {
-                return new RuleOutcome(false,
-                        String.format(
-                                "Threshold was not met for the period of %d seconds, "
-                                        + "metric data point: %s was seen %d seconds ago",
-                                this.period.getSeconds(), value.toString(), satisfactionPeriod.getStandardSeconds()));
-            }
-            if (satisfactionPeriod.getStandardSeconds() >= this.period.getSeconds()) {
-                return new RuleOutcome(true, String.format("Satisfied for %d seconds",
-                        this.period.getSeconds() - satisfactionPeriod.getStandardSeconds()));
-            }
-        }
-
-        return new RuleOutcome(false, "Have not seen metrics old enough to satisfy scaling rule period");
+        ScalingRuleState state = new ScalingRuleState(this);
+        state.reset(metricSequence);
+        return state.evaluate(metricSequence);
     }
 
     /**
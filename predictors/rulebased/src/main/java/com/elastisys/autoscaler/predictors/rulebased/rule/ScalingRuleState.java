@@ -0,0 +1,201 @@
+package com.elastisys.autoscaler.predictors.rulebased.rule;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+
+import com.elastisys.autoscaler.core.utils.stats.timeseries.DataPoint;
+import com.elastisys.autoscaler.predictors.rulebased.RuleBasedPredictor;
+import com.elastisys.autoscaler.predictors.rulebased.rule.ScalingRule.RuleOutcome;
+
+/**
+ * Incrementally tracks for how long the threshold condition of a
+ * {@link ScalingRule} has been continuously satisfied by a metric sequence.
+ * <p/>
+ * Rather than walking the entire metric sequence on every evaluation, a
+ * {@link ScalingRuleState} is fed each new metric value as it arrives (via
+ * {@link #update(DataPoint)}) and keeps track of the time since which the
+ * threshold condition has held. This makes each evaluation (via
+ * {@link #evaluate(List)}) a constant-time operation, regardless of the length
+ * of the metric sequence.
+ * <p/>
+ * Metric values must be fed in order of increasing time. Should a metric value
+ * arrive out of order, the state needs to be rebuilt from the full metric
+ * sequence via {@link #reset(List)}.
+ *
+ * @see ScalingRule
+ * @see RuleBasedPredictor
+ */
+public class ScalingRuleState {
+    /** The {@link ScalingRule} whose condition is tracked. */
+    private final ScalingRule rule;
+
+    /** The most recently observed metric value. */
+    private Optional<DataPoint> last;
+    /**
+     * The first metric value in the current stretch of metric values that
+     * satisfy the threshold condition. Absent if the most recently observed
+     * metric value did not satisfy the threshold condition.
+     */
+    private Optional<DataPoint> satisfiedSince;
+    /**
+     * The number of metric values in the current stretch of metric values that
+     * satisfy the threshold condition. Saturates at two, since that is all that
+     * is needed to tell if the stretch has a defined length.
+     */
+    private int satisfiedCount;
+    /**
+     * The most recently observed metric value that did not satisfy the
+     * threshold condition.
+     */
+    private Optional<DataPoint> lastBreach;
+
+    /**
+     * Creates a {@link ScalingRuleState} for a given {@link ScalingRule}, that
+     * has not yet observed any metric values.
+     *
+     * @param rule
+     *            The {@link ScalingRule} whose condition is to be tracked.
+     */
+    public ScalingRuleState(ScalingRule rule) {
+        this.rule = Objects.requireNonNull(rule, "scaling rule cannot be null");
+        clear();
+    }
+
+    /**
+     * Returns the {@link ScalingRule} whose condition is tracked.
+     *
+     * @return
+     */
+    public ScalingRule getRule() {
+        return this.rule;
+    }
+
+    /**
+     * Returns the time of the most recently observed metric value, if any.
+     *
+     * @return
+     */
+    public Optional<DateTime> getLastObservationTime() {
+        return this.last.map(DataPoint::getTime);
+    }
+
+    /**
+     * Discards all tracked state and rebuilds it from a given metric sequence.
+     * <p/>
+     * Unlike {@link #update(DataPoint)}, metric values that share a timestamp
+     * are accepted: each of them is observed in sequence order, so all of them
+     * need to satisfy the threshold condition.
+     *
+     * @param metricSequence
+     *            A metric sequence that is assumed to be sorted in order of
+     *            increasing time (newest metric value last).
+     */
+    public void reset(List<DataPoint> metricSequence) {
+        Objects.requireNonNull(metricSequence, "metric sequence cannot be null");
+        clear();
+        for (DataPoint value : metricSequence) {
+            observe(Objects.requireNonNull(value, "metric value cannot be null"));
+        }
+    }
+
+    /**
+     * Updates the tracked state with a new metric value, which must be more
+     * recent than any previously observed metric value.
+     *
+     * @param value
+     *            The new metric value.
+     * @throws IllegalArgumentException
+     *             If the metric value is not more recent than the most recently
+     *             observed metric value.
+     */
+    public void update(DataPoint value) throws IllegalArgumentException {
+        Objects.requireNonNull(value, "metric value cannot be null");
+        if (this.last.isPresent() && !value.getTime().isAfter(this.last.get().getTime())) {
+            throw new IllegalArgumentException(String.format(
+                    "metric value %s is not more recent than last observation %s", value, this.last.get()));
+        }
+        observe(value);
+    }
+
+    private void observe(DataPoint value) {
+        this.last = Optional.of(value);
+        if (this.rule.getCondition().evaluate(value.getValue(), this.rule.getThreshold())) {
+            if (!this.satisfiedSince.isPresent()) {
+                this.satisfiedSince = Optional.of(value);
+            }
+            this.satisfiedCount = Math.min(this.satisfiedCount + 1, 2);
+        } else {
+            this.satisfiedSince = Optional.empty();
+            this.satisfiedCount = 0;
+            this.lastBreach = Optional.of(value);
+        }
+    }
+
+    /**
+     * Evaluates the {@link ScalingRule} against the tracked state and returns a
+     * satisfied {@link RuleOutcome} if the threshold condition has been
+     * satisfied for a sufficiently long time.
+     * <p/>
+     * The tracked state is evaluated as seen through a metric sequence window,
+     * which holds the metric values that are still considered (older ones may
+     * have been evicted). Only the size and the oldest metric value of the
+     * window are inspected.
+     *
+     * @param metricSequence
+     *            The current metric sequence window, sorted in order of
+     *            increasing time (newest metric value last). The newest metric
+     *            value is expected to be the most recently observed one.
+     * @return
+     */
+    public RuleOutcome evaluate(List<DataPoint> metricSequence) {
+        Objects.requireNonNull(metricSequence, "metric sequence cannot be null");
+
+        if (metricSequence.size() < 2 || !this.last.isPresent()) {
+            return new RuleOutcome(false, "Not enough metric data points (cannot evaluate period length)");
+        }
+
+        DataPoint lastValue = this.last.get();
+        if (!this.satisfiedSince.isPresent()) {
+            return new RuleOutcome(false,
+                    String.format("Threshold condition not true on last metric observation: %s", lastValue.toString()));
+        }
+
+        // the stretch of satisfying values may extend beyond the window
+        DataPoint oldest = metricSequence.get(0);
+        DataPoint since = this.satisfiedSince.get();
+        int count = this.satisfiedCount;
+        if (oldest.getTime().isAfter(since.getTime())) {
+            since = oldest;
+            count = 2;
+        }
+
+        long periodSeconds = this.rule.getPeriod().getSeconds();
+        DateTime newest = lastValue.getTime();
+        long satisfiedSeconds = new Duration(since.getTime(), newest).getStandardSeconds();
+        if (count >= 2 && satisfiedSeconds >= periodSeconds) {
+            return new RuleOutcome(true, String.format("Satisfied for %d seconds", satisfiedSeconds));
+        }
+
+        if (this.lastBreach.isPresent() && !this.lastBreach.get().getTime().isBefore(oldest.getTime())) {
+            DataPoint breach = this.lastBreach.get();
+            long breachAge = new Duration(breach.getTime(), newest).getStandardSeconds();
+            return new RuleOutcome(false,
+                    String.format(
+                            "Threshold was not met for the period of %d seconds, "
+                                    + "metric data point: %s was seen %d seconds ago",
+                            periodSeconds, breach.toString(), breachAge));
+        }
+        return new RuleOutcome(false, "Have not seen metrics old enough to satisfy scaling rule period");
+    }
+
+    private void clear() {
+        this.last = Optional.empty();
+        this.satisfiedSince = Optional.empty();
+        this.satisfiedCount = 0;
+        this.lastBreach = Optional.empty();
+    }
+}
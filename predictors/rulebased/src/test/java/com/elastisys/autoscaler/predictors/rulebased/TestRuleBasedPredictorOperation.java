@@ -9,16 +9,24 @@ import static com.elastisys.scale.commons.util.time.FrozenTime.now;
 import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.any;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.isA;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.joda.time.DateTime;
+import org.joda.time.Interval;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Matchers;
@@ -29,8 +37,15 @@ import com.elastisys.autoscaler.core.api.types.MetricValue;
 import com.elastisys.autoscaler.core.api.types.ServiceStatus.State;
 import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamCorrectionMessage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.QueryOptions;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.query.impl.SinglePageResultSet;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamSettings;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.MetricStreamingLoop;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpPolicy;
+import com.elastisys.autoscaler.core.monitoring.metricstreamer.commons.catchup.CatchUpStrategy;
 import com.elastisys.autoscaler.core.prediction.api.PredictionException;
 import com.elastisys.autoscaler.core.prediction.api.types.Prediction;
 import com.elastisys.autoscaler.core.prediction.api.types.PredictionUnit;
@@ -64,6 +79,9 @@ public class TestRuleBasedPredictorOperation {
     private static final TimeInterval cooldown = TimeInterval.seconds(180);
     private static final TimeInterval evaluationPeriod = TimeInterval.seconds(300);
 
+    /** The {@link MetricStream} that the predictor reads from. */
+    private MetricStream mockedMetricStream;
+
     /** Object under test. */
     private Predictor predictor;
 
@@ -79,12 +97,12 @@ public class TestRuleBasedPredictorOperation {
     private void prepareMockedMetricStream() {
         MetricStreamer mockedMetricStreamer = mock(MetricStreamer.class);
         when(mockedMonitoringSubsystem.getMetricStreamers()).thenReturn(asList(mockedMetricStreamer));
-        MetricStream mockedMetricStream = mock(MetricStream.class);
+        this.mockedMetricStream = mock(MetricStream.class);
         when(mockedMetricStreamer.getMetricStream(Matchers.argThat(is(any(String.class)))))
-                .thenReturn(mockedMetricStream);
+                .thenReturn(this.mockedMetricStream);
 
-        when(mockedMetricStream.getId()).thenReturn(METRIC_STREAM_ID);
-        when(mockedMetricStream.getMetric()).thenReturn(METRIC_NAME);
+        when(this.mockedMetricStream.getId()).thenReturn(METRIC_STREAM_ID);
+        when(this.mockedMetricStream.getMetric()).thenReturn(METRIC_NAME);
     }
 
     @Test
@@ -272,6 +290,120 @@ public class TestRuleBasedPredictorOperation {
         assertFalse(prediction.isPresent());
     }
 
+    /**
+     * Scaling rules should only be evaluated against metric values at or
+     * before the watermark of the metric stream, since late metric values may
+     * still arrive after it. Late metric values that arrive should be taken
+     * into account.
+     */
+    @Test
+    public void evaluateOnlyCompleteWindows() throws Exception {
+        TimeInterval cooldown = TimeInterval.seconds(60);
+        TimeInterval period = TimeInterval.seconds(60);
+        PredictorConfig config = config(customConfig(cooldown, rule(ABOVE, 80, period, 20, PERCENT)));
+        this.predictor.configure(config);
+        this.predictor.start();
+
+        // the threshold has been exceeded for 100 seconds, but the metric
+        // stream is only complete up to 30 seconds ago
+        streamMetric(85.0, now().minusSeconds(100), now().minusSeconds(30));
+        streamMetric(85.0, now().minusSeconds(10), now().minusSeconds(30));
+        verifyPrediction(predict(machinePool(1), 180).get(), 1.0, 180);
+
+        // a late metric value that breaks the threshold arrives
+        streamCorrection(50.0, now().minusSeconds(20), now().minusSeconds(30));
+        verifyPrediction(predict(machinePool(1), 180).get(), 1.0, 180);
+
+        // once complete, the late value keeps the rule from firing
+        FrozenTime.tick(30);
+        streamMetric(85.0, now().minusSeconds(10), now().minusSeconds(10));
+        verifyPrediction(predict(machinePool(1), 180).get(), 1.0, 180);
+    }
+
+    /**
+     * A late metric value fetched by a {@link MetricStreamingLoop} for a
+     * stream with an allowed lateness should reach the predictor and be
+     * considered when evaluating scaling rules.
+     */
+    @Test
+    public void lateMetricValueFromMetricStreamingLoop() throws Exception {
+        TimeInterval cooldown = TimeInterval.seconds(60);
+        TimeInterval period = TimeInterval.seconds(90);
+        PredictorConfig config = config(customConfig(cooldown, rule(ABOVE, 80, period, 20, PERCENT)));
+        this.predictor.configure(config);
+        this.predictor.start();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            MetricStreamingLoop loop = new MetricStreamingLoop(logger, executor, eventBus,
+                    asList(this.mockedMetricStream), null, Collections.singletonMap(METRIC_STREAM_ID,
+                            new MetricStreamSettings(null, false, TimeInterval.seconds(60))));
+
+            // watermark ends up 70 seconds ago: only the oldest value is
+            // complete, which is not enough to fire the rule
+            prepareResponse(value(85.0, now().minusSeconds(140)), value(85.0, now().minusSeconds(10)));
+            loop.run();
+            verifyPrediction(predict(machinePool(1), 180).get(), 1.0, 180);
+
+            // a late value shows up in the metric backend. the newest on-time
+            // value is not yet complete, but with the late value the threshold
+            // has been exceeded for 95 seconds according to complete values
+            FrozenTime.tick(30);
+            prepareResponse(value(85.0, now().minusSeconds(75)), value(85.0, now().minusSeconds(10)));
+            loop.run();
+            verifyPrediction(predict(machinePool(1), 180).get(), 2.0, 180);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Metric values that a {@link MetricStreamingLoop} backfills in the
+     * background, when catching up on a gap in the stream with the
+     * {@link CatchUpStrategy#NEWEST_FIRST} strategy, should reach the
+     * predictor and be considered when evaluating scaling rules.
+     */
+    @Test
+    public void backfilledMetricValueFromMetricStreamingLoop() throws Exception {
+        TimeInterval cooldown = TimeInterval.seconds(60);
+        TimeInterval period = TimeInterval.seconds(60);
+        PredictorConfig config = config(customConfig(cooldown, rule(ABOVE, 80, period, 20, PERCENT)));
+        this.predictor.configure(config);
+        this.predictor.start();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CatchUpPolicy catchUpPolicy = new CatchUpPolicy(CatchUpStrategy.NEWEST_FIRST, TimeInterval.seconds(60),
+                    null);
+            MetricStreamingLoop loop = new MetricStreamingLoop(logger, executor, eventBus,
+                    asList(this.mockedMetricStream), TimeInterval.seconds(30),
+                    Collections.singletonMap(METRIC_STREAM_ID, new MetricStreamSettings(catchUpPolicy, false, null)));
+
+            prepareResponse(value(50.0, now().minusSeconds(20)));
+            loop.run();
+            verifyPrediction(predict(machinePool(1), 180).get(), 1.0, 180);
+
+            // outage: the newest value alone does not fire the rule, but
+            // together with the backfilled value the threshold has been
+            // exceeded for 60 seconds
+            FrozenTime.tick(100);
+            Interval gap = new Interval(now().minusSeconds(120), now().minusSeconds(60));
+            Interval newest = new Interval(now().minusSeconds(60), now());
+            when(this.mockedMetricStream.query(gap, new QueryOptions()))
+                    .thenReturn(new SinglePageResultSet(asList(value(85.0, now().minusSeconds(70)))));
+            when(this.mockedMetricStream.query(newest, new QueryOptions()))
+                    .thenReturn(new SinglePageResultSet(asList(value(85.0, now().minusSeconds(10)))));
+            loop.run();
+            // wait for the background backfill to complete
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+            verifyPrediction(predict(machinePool(1), 180).get(), 2.0, 180);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Verifies that a given {@link Prediction} contains expected values.
      *
@@ -298,6 +430,48 @@ public class TestRuleBasedPredictorOperation {
         eventBus.post(new MetricStreamMessage(METRIC_STREAM_ID, Arrays.asList(value(requestRate, timestamp))));
     }
 
+    /**
+     * Pushes a {@link MetricValue} onto the {@link EventBus} together with the
+     * watermark of the metric stream.
+     *
+     * @param requestRate
+     *            The load to be reported.
+     * @param timestamp
+     *            The time stamp of the metric value.
+     * @param watermark
+     *            The watermark of the metric stream.
+     */
+    private void streamMetric(double requestRate, DateTime timestamp, DateTime watermark) {
+        eventBus.post(
+                new MetricStreamMessage(METRIC_STREAM_ID, Arrays.asList(value(requestRate, timestamp)), watermark));
+    }
+
+    /**
+     * Pushes a late {@link MetricValue} onto the {@link EventBus}.
+     *
+     * @param requestRate
+     *            The load to be reported.
+     * @param timestamp
+     *            The time stamp of the metric value.
+     * @param watermark
+     *            The watermark of the metric stream.
+     */
+    private void streamCorrection(double requestRate, DateTime timestamp, DateTime watermark) {
+        eventBus.post(new MetricStreamCorrectionMessage(METRIC_STREAM_ID, Arrays.asList(value(requestRate, timestamp)),
+                watermark));
+    }
+
+    /**
+     * Sets up the values that the {@link MetricStream} returns on its next
+     * query.
+     *
+     * @param values
+     */
+    private void prepareResponse(MetricValue... values) {
+        when(this.mockedMetricStream.query(argThat(isA(Interval.class)), argThat(isA(QueryOptions.class))))
+                .thenReturn(new SinglePageResultSet(asList(values)));
+    }
+
     private MetricValue value(double value, DateTime timestamp) {
         return new MetricValue(METRIC_NAME, value, timestamp);
     }
@@ -98,6 +98,22 @@ public class TestScalingRule {
         assertThat(isSatisfiedBy(series), is(false));
     }
 
+    /**
+     * Metric values that share a timestamp should all be taken into account
+     * rather than rejected.
+     */
+    @Test
+    public void evaluateAgainstMetricSeriesWithDuplicateTimestamps() {
+        List<DataPoint> series = values(value(85.0, 0), value(85.0, 0), value(90.0, 180), value(90.0, 180));
+        assertThat(isSatisfiedBy(series), is(true));
+
+        // a value that breaks the condition at the same time as a satisfying one
+        series = values(value(85.0, 0), value(90.0, 180), value(70.0, 180));
+        assertThat(isSatisfiedBy(series), is(false));
+        series = values(value(85.0, 0), value(70.0, 180), value(90.0, 180));
+        assertThat(isSatisfiedBy(series), is(false));
+    }
+
     @Test
     public void getResizeIncrementWithInstancesResizeUnit() {
         // zero increment
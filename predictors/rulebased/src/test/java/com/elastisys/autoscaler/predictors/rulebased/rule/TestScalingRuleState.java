@@ -0,0 +1,141 @@
+package com.elastisys.autoscaler.predictors.rulebased.rule;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.elastisys.autoscaler.core.api.types.MetricValue;
+import com.elastisys.autoscaler.core.utils.stats.timeseries.DataPoint;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercises the {@link ScalingRuleState} class.
+ */
+public class TestScalingRuleState {
+
+    /** "add 1 instance when metric values have been > 80.0 for 180s" */
+    private final ScalingRule rule = new ScalingRule(Condition.ABOVE, 80.0, TimeInterval.seconds(180), 1.0,
+            ResizeUnit.INSTANCES);
+
+    /** Object under test. */
+    private ScalingRuleState state;
+    /** The metric values fed to the object under test. */
+    private List<DataPoint> series;
+
+    @Before
+    public void onSetup() {
+        this.state = new ScalingRuleState(this.rule);
+        this.series = new ArrayList<>();
+    }
+
+    @Test
+    public void evaluateWithoutObservations() {
+        assertThat(this.state.getLastObservationTime(), is(Optional.empty()));
+        assertThat(this.state.evaluate(this.series).isSatisfied(), is(false));
+    }
+
+    /**
+     * Feeding metric values one at a time should give the same outcome as
+     * evaluating the rule against the entire metric sequence each time.
+     */
+    @Test
+    public void incrementalUpdatesMatchFullEvaluation() {
+        double[] values = { 10.0, 85.0, 90.0, 79.0, 81.0, 95.0, 99.0, 85.0, 82.0, 70.0, 88.0, 90.0 };
+        for (int i = 0; i < values.length; i++) {
+            DataPoint value = value(values[i], i * 60);
+            feed(value);
+
+            assertThat(this.state.getLastObservationTime(), is(Optional.of(value.getTime())));
+            assertThat("at index " + i, this.state.evaluate(this.series).isSatisfied(),
+                    is(this.rule.isSatisfiedBy(this.series).isSatisfied()));
+        }
+    }
+
+    @Test
+    public void satisfiedOnceConditionHasHeldForPeriod() {
+        feed(value(10.0, 0));
+        feed(value(85.0, 60));
+        assertThat(this.state.evaluate(this.series).isSatisfied(), is(false));
+        feed(value(90.0, 180));
+        assertThat(this.state.evaluate(this.series).isSatisfied(), is(false));
+        feed(value(90.0, 240));
+        assertThat(this.state.evaluate(this.series).isSatisfied(), is(true));
+        // condition broken
+        feed(value(70.0, 300));
+        assertThat(this.state.evaluate(this.series).isSatisfied(), is(false));
+        feed(value(90.0, 360));
+        assertThat(this.state.evaluate(this.series).isSatisfied(), is(false));
+    }
+
+    /**
+     * When the start of a stretch of satisfying values has been evicted from
+     * the metric sequence window, the oldest value in the window is to be
+     * considered the start of the stretch.
+     */
+    @Test
+    public void evaluateAgainstWindowWithEvictedValues() {
+        feed(value(85.0, 0));
+        feed(value(85.0, 60));
+        feed(value(85.0, 120));
+        feed(value(85.0, 200));
+        assertThat(this.state.evaluate(this.series).isSatisfied(), is(true));
+
+        // window no longer spans the rule period
+        assertThat(this.state.evaluate(values(value(85.0, 60), value(85.0, 200))).isSatisfied(), is(false));
+        // too few values left in window
+        assertThat(this.state.evaluate(values(value(85.0, 200))).isSatisfied(), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void updateWithOutOfOrderValue() {
+        feed(value(85.0, 60));
+        this.state.update(value(85.0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void updateWithDuplicateTimestamp() {
+        feed(value(85.0, 60));
+        this.state.update(value(90.0, 60));
+    }
+
+    /**
+     * A reset should discard all state and rebuild it from the given metric
+     * sequence.
+     */
+    @Test
+    public void reset() {
+        feed(value(85.0, 0));
+        feed(value(85.0, 180));
+        assertThat(this.state.evaluate(this.series).isSatisfied(), is(true));
+
+        List<DataPoint> rebuilt = values(value(70.0, 0), value(90.0, 60), value(90.0, 180));
+        this.state.reset(rebuilt);
+        assertThat(this.state.getLastObservationTime(), is(Optional.of(value(90.0, 180).getTime())));
+        assertThat(this.state.evaluate(rebuilt).isSatisfied(), is(false));
+
+        this.state.reset(new ArrayList<>());
+        assertThat(this.state.getLastObservationTime(), is(Optional.empty()));
+    }
+
+    private void feed(DataPoint value) {
+        this.series.add(value);
+        this.state.update(value);
+    }
+
+    private static DataPoint value(double value, int secondsFromEpoch) {
+        return new MetricValue("metric", value, new DateTime(secondsFromEpoch * 1000L, DateTimeZone.UTC));
+    }
+
+    private static List<DataPoint> values(DataPoint... values) {
+        return Arrays.asList(values);
+    }
+}
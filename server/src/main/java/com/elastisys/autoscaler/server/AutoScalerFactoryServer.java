@@ -85,7 +85,7 @@ public class AutoScalerFactoryServer {
      */
     public static void launchServer(AutoScalerFactoryServerOptions options, Map<String, String> addonSubsystems)
             throws IllegalArgumentException, InterruptedException {
-        AutoScalerFactory factory = createFactory(options.storageDir, addonSubsystems);
+        AutoScalerFactory factory = createFactory(options.storageDir, addonSubsystems, options.scriptCacheSize);
         Server server = createServer(factory, options);
 
         // start server and wait
@@ -197,13 +197,17 @@ public class AutoScalerFactoryServer {
      *            Keys are names, such as {@code accountingSubsystem}, and
      *            values are class names, such as
      *            {@code com.elastisys.AccountingSubsystemImpl}.
+     * @param scriptCacheSize
+     *            The maximum number of compiled scripts held in the script
+     *            cache shared by all {@link AutoScaler} instances.
      * @return
      * @throws IllegalArgumentException
      */
-    private static AutoScalerFactory createFactory(String storageDir, Map<String, String> addonSubsystems)
-            throws IllegalArgumentException {
+    private static AutoScalerFactory createFactory(String storageDir, Map<String, String> addonSubsystems,
+            int scriptCacheSize) throws IllegalArgumentException {
         AutoScalerFactory factory = AutoScalerFactory.create();
-        AutoScalerFactoryConfig configuration = new AutoScalerFactoryConfig(storageDir, addonSubsystems);
+        AutoScalerFactoryConfig configuration = new AutoScalerFactoryConfig(storageDir, addonSubsystems,
+                scriptCacheSize);
         factory.validate(configuration);
         factory.configure(configuration);
         factory.start();
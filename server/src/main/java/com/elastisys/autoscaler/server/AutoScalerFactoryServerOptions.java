@@ -5,6 +5,7 @@ import java.nio.charset.StandardCharsets;
 import org.kohsuke.args4j.Option;
 
 import com.elastisys.autoscaler.core.autoscaler.factory.AutoScalerFactoryConfig;
+import com.elastisys.autoscaler.core.utils.script.CompiledScriptCache;
 import com.elastisys.scale.commons.cli.server.BaseServerCliOptions;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.util.io.IoUtils;
@@ -27,6 +28,12 @@ public class AutoScalerFactoryServerOptions extends BaseServerCliOptions {
             + "'accountingSubsystem') and values are class names.")
     public String addonsConfig = null;
 
+    @Option(name = "--script-cache-size", metaVar = "N", usage = "The maximum "
+            + "number of compiled scripts (such as join scripts and aggregation "
+            + "expressions) to keep in the cache that is shared by all autoscaler "
+            + "instances. Default: " + CompiledScriptCache.DEFAULT_MAX_SIZE + ".")
+    public int scriptCacheSize = CompiledScriptCache.DEFAULT_MAX_SIZE;
+
     @Option(name = "--exit-handler", usage = "Publish an /exit handler that shuts down the server on 'GET /exit'. Default: False.")
     public boolean enableExitHandler = false;
 
@@ -30,11 +30,15 @@ import com.elastisys.autoscaler.core.api.types.ServiceStatus;
 import com.elastisys.autoscaler.core.autoscaler.AutoScaler;
 import com.elastisys.autoscaler.core.autoscaler.factory.AutoScalerBlueprint;
 import com.elastisys.autoscaler.core.autoscaler.factory.AutoScalerFactory;
+import com.elastisys.autoscaler.core.prediction.api.PredictionSubsystem;
+import com.elastisys.autoscaler.core.prediction.impl.standard.StandardPredictionSubsystem;
+import com.elastisys.autoscaler.core.prediction.impl.standard.capacitylimit.CapacityLimitTimeline;
 import com.elastisys.autoscaler.server.restapi.types.ServiceStatusType;
 import com.elastisys.autoscaler.server.restapi.types.UrlsType;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.json.types.ErrorType;
 import com.elastisys.scale.commons.util.strings.StringUtils;
+import com.elastisys.scale.commons.util.time.UtcTime;
 import com.google.gson.JsonObject;
 
 /**
@@ -203,6 +207,24 @@ public class AutoScalerFactoryRestApi {
         }
     }
 
+    /**
+     * Returns the statistics of the compiled script cache that is shared by
+     * all {@link AutoScaler} instances.
+     *
+     * @return
+     */
+    @GET
+    @Path("/autoscaler/scriptcache")
+    public Response getScriptCacheStats() {
+        try {
+            return Response.ok(JsonUtils.toJson(this.autoScalerFactory.getScriptCacheStats())).build();
+        } catch (Exception e) {
+            String message = String.format("failed to get script cache statistics: %s", e.getMessage());
+            logger.warn(message, e);
+            return Response.status(Status.INTERNAL_SERVER_ERROR).entity(new ErrorType(message, e)).build();
+        }
+    }
+
     //
     // Instance management methods
     //
@@ -220,6 +242,35 @@ public class AutoScalerFactoryRestApi {
         return Response.ok().entity(getAutoScaler(autoScalerId).getUuid().toString()).build();
     }
 
+    /**
+     * Returns the timeline of upcoming capacity limit activations of a certain
+     * {@link AutoScaler} instance, starting at the current time. Only
+     * available for instances that use the
+     * {@link StandardPredictionSubsystem}.
+     *
+     * @param autoScalerId
+     * @return
+     */
+    @GET
+    @Path("/autoscaler/instances/{id}/capacitylimits/timeline")
+    public Response getInstanceCapacityLimitTimeline(@PathParam("id") String autoScalerId) {
+        PredictionSubsystem<?> predictionSubsystem = getAutoScaler(autoScalerId).getPredictionSubsystem();
+        if (!(predictionSubsystem instanceof StandardPredictionSubsystem)) {
+            String message = String.format("prediction subsystem of instance %s does not support capacity limits",
+                    autoScalerId);
+            return Response.status(Status.NOT_FOUND).entity(new ErrorType(message)).build();
+        }
+        try {
+            CapacityLimitTimeline timeline = ((StandardPredictionSubsystem) predictionSubsystem)
+                    .getCapacityLimitRegistry().getTimeline(UtcTime.now());
+            return Response.ok(JsonUtils.toJson(timeline)).build();
+        } catch (Exception e) {
+            String message = String.format("failed to get capacity limit timeline: %s", e.getMessage());
+            logger.warn(message, e);
+            return Response.status(Status.INTERNAL_SERVER_ERROR).entity(new ErrorType(message, e)).build();
+        }
+    }
+
     /**
      * Sets a new configuration for all subsystems of a certain
      * {@link AutoScaler} instance.
@@ -17,7 +17,9 @@ import com.elastisys.autoscaler.core.metronome.impl.standard.StandardMetronome;
 import com.elastisys.autoscaler.core.monitoring.api.MonitoringSubsystem;
 import com.elastisys.autoscaler.core.monitoring.impl.standard.StandardMonitoringSubsystem;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
+import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.SystemHistorian;
 import com.elastisys.autoscaler.core.prediction.impl.standard.StandardPredictionSubsystem;
+import com.elastisys.autoscaler.metricstreamers.filereplay.FileReplayMetricStreamer;
 import com.elastisys.autoscaler.metricstreamers.influxdb.InfluxdbMetricStreamer;
 import com.elastisys.autoscaler.simulation.simulator.driver.DiscreteEventDriver;
 import com.elastisys.autoscaler.simulation.simulator.driver.Event;
@@ -29,14 +31,17 @@ import com.elastisys.autoscaler.simulation.simulator.events.SystemHistorianFlush
 import com.elastisys.autoscaler.simulation.stubs.NoOpAlerter;
 import com.elastisys.autoscaler.simulation.stubs.NoOpCloudPoolProxy;
 import com.elastisys.autoscaler.systemhistorians.influxdb.InfluxdbSystemHistorian;
+import com.elastisys.scale.commons.json.types.TimeInterval;
 import com.google.gson.JsonObject;
 
 /**
  * Runs a simulation over a given time-interval on an {@link AutoScaler} set up
- * to read metrics from (and write system metrics to) an InfluxDB server, which
- * is assumed to have been prepared with a sample workload for the simulation
- * time-interval. The simulation is mainly intended to serve as a simple testbed
- * for trying out different predictor algorithms on different workloads. As
+ * to read metrics from either an InfluxDB server, which is assumed to have been
+ * prepared with a sample workload for the simulation time-interval, or from
+ * local metric files (via a {@link FileReplayMetricStreamer}). System metrics
+ * may be written to an InfluxDB server. The simulation is mainly intended to
+ * serve as a simple testbed for trying out different predictor algorithms on
+ * different workloads. As
  * such, the simulated {@link AutoScaler} does not operate against a real
  * cloudpool, but uses a {@link NoOpCloudPoolProxy}, which only logs the desired
  * size it is told to set.
@@ -52,24 +57,24 @@ public class Simulator implements Callable<Void> {
 
     /**
      * {@link AutoScaler} configuration. Must configure the monitoring subsystem
-     * to create an {@link InfluxdbMetricStreamer} and an
-     * {@link InfluxdbSystemHistorian} and configure these to operate against
-     * the InfluxDB server that is assumed to have been set up and to stream the
-     * metric that the InfluxDB server has been preloaded with.
+     * to create an {@link InfluxdbMetricStreamer} or a
+     * {@link FileReplayMetricStreamer} as its first metric streamer, which
+     * streams the metric of the sample workload. An
+     * {@link InfluxdbSystemHistorian} may be used to record system metrics.
      */
     private final JsonObject autoscalerConfig;
 
     /**
-     * The start-time of the simulation. This should be set to the start-time in
-     * the InfluxDB database of the relevant part of the workload that is to be
-     * included in the simulation. The simulated {@link AutoScaler} will start
+     * The start-time of the simulation. This should be set to the start-time of
+     * the relevant part of the sample workload that is to be included in the
+     * simulation. The simulated {@link AutoScaler} will start
      * streaming values from this point in time.
      */
     private final DateTime simulationStart;
     /**
-     * The end-time of the simulation. This should be set to the end-time in the
-     * InfluxDB database of the relevant part of the workload that is to be
-     * included in the simulation.
+     * The end-time of the simulation. This should be set to the end-time of the
+     * relevant part of the sample workload that is to be included in the
+     * simulation.
      */
     private final DateTime simulationEnd;
 
@@ -79,21 +84,21 @@ public class Simulator implements Callable<Void> {
      * @param autoscalerConfig
      *            {@link AutoScaler} configuration. Must configure the
      *            monitoring subsystem to create an
-     *            {@link InfluxdbMetricStreamer} and an
-     *            {@link InfluxdbSystemHistorian} and configure these to operate
-     *            against the InfluxDB server that is assumed to have been set
-     *            up and to stream the metric that the InfluxDB server has been
-     *            preloaded with.
+     *            {@link InfluxdbMetricStreamer} or a
+     *            {@link FileReplayMetricStreamer} as its first metric
+     *            streamer, which streams the metric of the sample workload. An
+     *            {@link InfluxdbSystemHistorian} may be used to record system
+     *            metrics.
      * @param simulationStart
      *            The start-time of the simulation. This should be set to the
-     *            start-time in the InfluxDB database of the relevant part of
-     *            the workload that is to be included in the simulation. The
+     *            start-time of the relevant part of the sample workload that
+     *            is to be included in the simulation. The
      *            simulated {@link AutoScaler} will start streaming values from
      *            this point in time.
      * @param simulationEnd
      *            The end-time of the simulation. This should be set to the
-     *            end-time in the InfluxDB database of the relevant part of the
-     *            workload that is to be included in the simulation.
+     *            end-time of the relevant part of the sample workload that is
+     *            to be included in the simulation.
      */
     public Simulator(JsonObject autoscalerConfig, DateTime simulationStart, DateTime simulationEnd) {
         this.autoscalerConfig = autoscalerConfig;
@@ -131,8 +136,9 @@ public class Simulator implements Callable<Void> {
 
         // schedule first metric streamer fetch event (will reschedule itself
         // after each execution)
-        InfluxdbMetricStreamer metricStreamer = getInfluxdbMetricStreamer(autoscaler);
-        MetricStreamerFetchEvent metricFetchEvent = new MetricStreamerFetchEvent(metricStreamer);
+        MetricStreamer<?> metricStreamer = getPrimaryMetricStreamer(autoscaler);
+        MetricStreamerFetchEvent metricFetchEvent = new MetricStreamerFetchEvent(metricStreamer,
+                getPollInterval(metricStreamer));
         eventDriver.addEvent(new Event(this.simulationStart, metricFetchEvent));
 
         // schedule first metronome resize iteration
@@ -140,30 +146,50 @@ public class Simulator implements Callable<Void> {
         MetronomeEvent metronomeEvent = new MetronomeEvent(metronome);
         eventDriver.addEvent(new Event(this.simulationStart, metronomeEvent));
 
-        // schedule first system historian report event
-        InfluxdbSystemHistorian systemHistorian = InfluxdbSystemHistorian.class
-                .cast(autoscaler.getMonitoringSubsystem().getSystemHistorian());
-        SystemHistorianFlushEvent systemMetricFlushEvent = new SystemHistorianFlushEvent(systemHistorian);
-        eventDriver.addEvent(new Event(this.simulationStart, systemMetricFlushEvent));
+        // schedule first system historian report event (only needed for a
+        // system historian that buffers system metrics)
+        SystemHistorian<?> systemHistorian = autoscaler.getMonitoringSubsystem().getSystemHistorian();
+        if (systemHistorian instanceof InfluxdbSystemHistorian) {
+            TimeInterval reportingInterval = InfluxdbSystemHistorian.class.cast(systemHistorian).getConfiguration()
+                    .getReportingInterval();
+            SystemHistorianFlushEvent systemMetricFlushEvent = new SystemHistorianFlushEvent(systemHistorian,
+                    reportingInterval);
+            eventDriver.addEvent(new Event(this.simulationStart, systemMetricFlushEvent));
+        }
         return eventDriver;
     }
 
     /**
-     * Returns the {@link InfluxdbMetricStreamer} by which scaling metrics are
-     * to be read. It is assumed to be defined as the first
-     * {@link MetricStreamer} defined for the {@link MonitoringSubsystem}.
+     * Returns the {@link MetricStreamer} by which scaling metrics are to be
+     * read. It is assumed to be defined as the first {@link MetricStreamer}
+     * defined for the {@link MonitoringSubsystem}, and to be either an
+     * {@link InfluxdbMetricStreamer} or a {@link FileReplayMetricStreamer}.
      *
      * @param autoscaler
      * @return
      */
-    private InfluxdbMetricStreamer getInfluxdbMetricStreamer(AutoScaler autoscaler) {
+    private MetricStreamer<?> getPrimaryMetricStreamer(AutoScaler autoscaler) {
         List<MetricStreamer<?>> metricStreamers = autoscaler.getMonitoringSubsystem().getMetricStreamers();
         MetricStreamer<?> primaryMetricStreamer = metricStreamers.get(0);
-        if (!InfluxdbMetricStreamer.class.isAssignableFrom(primaryMetricStreamer.getClass())) {
-            throw new IllegalArgumentException(
-                    "expected first metricStreamer to be of type " + InfluxdbMetricStreamer.class.getName());
+        if (!(primaryMetricStreamer instanceof InfluxdbMetricStreamer)
+                && !(primaryMetricStreamer instanceof FileReplayMetricStreamer)) {
+            throw new IllegalArgumentException(String.format("expected first metricStreamer to be of type %s or %s",
+                    InfluxdbMetricStreamer.class.getName(), FileReplayMetricStreamer.class.getName()));
+        }
+        return primaryMetricStreamer;
+    }
+
+    /**
+     * Returns the poll interval of the primary {@link MetricStreamer}.
+     *
+     * @param metricStreamer
+     * @return
+     */
+    private static TimeInterval getPollInterval(MetricStreamer<?> metricStreamer) {
+        if (metricStreamer instanceof FileReplayMetricStreamer) {
+            return FileReplayMetricStreamer.class.cast(metricStreamer).getConfiguration().getPollInterval();
         }
-        return InfluxdbMetricStreamer.class.cast(metricStreamers.get(0));
+        return InfluxdbMetricStreamer.class.cast(metricStreamer).getConfiguration().getPollInterval();
     }
 
     /**
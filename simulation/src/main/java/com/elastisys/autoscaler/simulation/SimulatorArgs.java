@@ -21,7 +21,7 @@ public class SimulatorArgs implements CommandLineOptions {
 
     private static final String VERSION = "1.0.0";
 
-    @Option(name = "--autoscaler-config", metaVar = "PATH", usage = "autoscaler configuration. The must configure the monitoring subsystem to create an InfluxdbMetricStreamer and an InfluxdbSystemHistorian and configure these to operate against the InfluxDB server that is assumed to have been set up and to stream the metric that the InfluxDB server has been preloaded with.")
+    @Option(name = "--autoscaler-config", metaVar = "PATH", usage = "autoscaler configuration. Must configure the monitoring subsystem to create an InfluxdbMetricStreamer or a FileReplayMetricStreamer as its first metric streamer, which streams the metric of the sample workload. An InfluxdbSystemHistorian may be used to record system metrics.")
     public String autoscalerConfig = null;
 
     @Option(name = "--start-time", metaVar = "DATETIME", usage = "The start-time of the simulation. This should be set to the start-time in the InfluxDB database of the relevant part of the workload that is to be included in the simulation. The simulated {@link AutoScaler} will start streaming values from this point in time.")
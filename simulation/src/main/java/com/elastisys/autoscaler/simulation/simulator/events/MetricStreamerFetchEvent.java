@@ -7,7 +7,6 @@ import org.slf4j.LoggerFactory;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStream;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamMessage;
 import com.elastisys.autoscaler.core.monitoring.metricstreamer.api.MetricStreamer;
-import com.elastisys.autoscaler.metricstreamers.influxdb.InfluxdbMetricStreamer;
 import com.elastisys.autoscaler.simulation.simulator.driver.Event;
 import com.elastisys.autoscaler.simulation.simulator.driver.EventAction;
 import com.elastisys.autoscaler.simulation.simulator.driver.EventContext;
@@ -26,10 +25,21 @@ import com.elastisys.scale.commons.json.types.TimeInterval;
 public class MetricStreamerFetchEvent implements EventAction {
     private static Logger LOG = LoggerFactory.getLogger(MetricStreamerFetchEvent.class);
 
-    private final InfluxdbMetricStreamer metricStreamer;
-
-    public MetricStreamerFetchEvent(InfluxdbMetricStreamer metricStreamer) {
+    private final MetricStreamer<?> metricStreamer;
+    /** The interval between fetches. */
+    private final TimeInterval pollInterval;
+
+    /**
+     * Creates a {@link MetricStreamerFetchEvent}.
+     *
+     * @param metricStreamer
+     *            The {@link MetricStreamer} to fetch metrics from.
+     * @param pollInterval
+     *            The interval between fetches.
+     */
+    public MetricStreamerFetchEvent(MetricStreamer<?> metricStreamer, TimeInterval pollInterval) {
         this.metricStreamer = metricStreamer;
+        this.pollInterval = pollInterval;
     }
 
     @Override
@@ -41,8 +51,7 @@ public class MetricStreamerFetchEvent implements EventAction {
     }
 
     private void scheduleNextFetchEvent(EventContext context) {
-        TimeInterval interval = this.metricStreamer.getConfiguration().getPollInterval();
-        DateTime nextEventTime = context.getEventTime().plusSeconds((int) interval.getSeconds());
+        DateTime nextEventTime = context.getEventTime().plusSeconds((int) this.pollInterval.getSeconds());
         context.getEventDriver().addEvent(new Event(nextEventTime, this));
     }
 }
\ No newline at end of file
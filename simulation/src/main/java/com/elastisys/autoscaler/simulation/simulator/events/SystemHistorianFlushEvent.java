@@ -9,7 +9,6 @@ import com.elastisys.autoscaler.core.monitoring.systemhistorian.api.types.System
 import com.elastisys.autoscaler.simulation.simulator.driver.Event;
 import com.elastisys.autoscaler.simulation.simulator.driver.EventAction;
 import com.elastisys.autoscaler.simulation.simulator.driver.EventContext;
-import com.elastisys.autoscaler.systemhistorians.influxdb.InfluxdbSystemHistorian;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 
 /**
@@ -23,10 +22,21 @@ import com.elastisys.scale.commons.json.types.TimeInterval;
 public class SystemHistorianFlushEvent implements EventAction {
     private static Logger LOG = LoggerFactory.getLogger(SystemHistorianFlushEvent.class);
 
-    private final InfluxdbSystemHistorian systemHistorian;
-
-    public SystemHistorianFlushEvent(InfluxdbSystemHistorian systemHistorian) {
+    private final SystemHistorian<?> systemHistorian;
+    /** The interval between flushes. */
+    private final TimeInterval reportingInterval;
+
+    /**
+     * Creates a {@link SystemHistorianFlushEvent}.
+     *
+     * @param systemHistorian
+     *            The {@link SystemHistorian} to flush.
+     * @param reportingInterval
+     *            The interval between flushes.
+     */
+    public SystemHistorianFlushEvent(SystemHistorian<?> systemHistorian, TimeInterval reportingInterval) {
         this.systemHistorian = systemHistorian;
+        this.reportingInterval = reportingInterval;
     }
 
     @Override
@@ -38,8 +48,7 @@ public class SystemHistorianFlushEvent implements EventAction {
     }
 
     private void scheduleNextFetchEvent(EventContext context) {
-        TimeInterval interval = this.systemHistorian.getConfiguration().getReportingInterval();
-        DateTime nextEventTime = context.getEventTime().plusSeconds((int) interval.getSeconds());
+        DateTime nextEventTime = context.getEventTime().plusSeconds((int) this.reportingInterval.getSeconds());
         context.getEventDriver().addEvent(new Event(nextEventTime, this));
     }
 }
\ No newline at end of file